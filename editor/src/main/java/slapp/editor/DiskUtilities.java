@@ -247,8 +247,8 @@ public class DiskUtilities {
         if (fileToOpen != null) {
             if (fileToOpen.exists() && !fileToOpen.isDirectory()) {
                 exerciseDirectory = fileToOpen.getParentFile();
-                try (FileInputStream fi = new FileInputStream(fileToOpen); ObjectInputStream oi = new ObjectInputStream(fi);) {
-                    exerciseModelObject = oi.readObject();
+                try {
+                    exerciseModelObject = readObject(fileToOpen);
                     if (recentExerciseFiles.size() == 0 || !recentExerciseFiles.get(recentExerciseFiles.size() - 1).getPath().equals(fileToOpen.getPath())) recentExerciseFiles.add(fileToOpen);
 
                 } catch (IOException | ClassNotFoundException e) {
@@ -286,8 +286,8 @@ public class DiskUtilities {
         if (fileToOpen != null) {
             if (fileToOpen.exists() && !fileToOpen.isDirectory()) {
                 assignmentDirectory = fileToOpen.getParentFile();
-                try (FileInputStream fi = new FileInputStream(fileToOpen); ObjectInputStream oi = new ObjectInputStream(fi);) {
-                    assignment = (Assignment) oi.readObject();
+                try {
+                    assignment = readAssignment(fileToOpen);
                     if (recentAssignmentFiles.size() == 0 || !recentAssignmentFiles.get(recentAssignmentFiles.size() - 1).getPath().equals(fileToOpen.getPath())) recentAssignmentFiles.add(fileToOpen);
                 } catch (IOException | ClassNotFoundException e) {
 //                e.printStackTrace();
@@ -309,8 +309,8 @@ public class DiskUtilities {
     public static ExerciseModel getExerciseModelFromFile(File fileToOpen) {
         ExerciseModel exerciseModel = null;
         if (fileToOpen != null) {
-            try (FileInputStream fi = new FileInputStream(fileToOpen); ObjectInputStream oi = new ObjectInputStream(fi);) {
-                exerciseModel = (ExerciseModel) oi.readObject();
+            try {
+                exerciseModel = readExerciseModel(fileToOpen);
             } catch (IOException | ClassNotFoundException e) {
  //               e.printStackTrace();
                 EditorAlerts.showSimpleAlert("Error opening file", e.getClass().getCanonicalName() + ", " + fileToOpen.getName());
@@ -319,6 +319,40 @@ public class DiskUtilities {
         return exerciseModel;
     }
 
+    /**
+     * Read assignment from file, without dialogs or alerts (as for batch grading)
+     *
+     * @param file the assignment file
+     * @return the assignment
+     * @throws IOException if the file cannot be read, or does not contain an assignment
+     * @throws ClassNotFoundException if the file is from an incompatible version
+     */
+    public static Assignment readAssignment(File file) throws IOException, ClassNotFoundException {
+        Object object = readObject(file);
+        if (!(object instanceof Assignment)) throw new InvalidObjectException(file.getName() + " is not a SLAPP assignment.");
+        return (Assignment) object;
+    }
+
+    /**
+     * Read exercise model from file, without dialogs or alerts (as for batch grading)
+     *
+     * @param file the exercise file
+     * @return the exercise model
+     * @throws IOException if the file cannot be read, or does not contain an exercise
+     * @throws ClassNotFoundException if the file is from an incompatible version
+     */
+    public static ExerciseModel readExerciseModel(File file) throws IOException, ClassNotFoundException {
+        Object object = readObject(file);
+        if (!(object instanceof ExerciseModel)) throw new InvalidObjectException(file.getName() + " is not a SLAPP exercise.");
+        return (ExerciseModel) object;
+    }
+
+    private static Object readObject(File file) throws IOException, ClassNotFoundException {
+        try (FileInputStream fi = new FileInputStream(file); ObjectInputStream oi = new ObjectInputStream(fi);) {
+            return oi.readObject();
+        }
+    }
+
     /**
      * Get a directory from disk
      *
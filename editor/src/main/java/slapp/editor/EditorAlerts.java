@@ -29,6 +29,7 @@ import javafx.stage.Popup;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import slapp.editor.main_window.MainWindowView;
+import slapp.editor.parser.StyledText;
 
 import java.util.List;
 
@@ -63,10 +64,10 @@ public class EditorAlerts {
     /**
      * Information alert with 'OK' to close
      * @param header alert header string
-     * @param messageTxts list of texts for message
+     * @param messageTxts list of styled texts for message
      */
     //collects list of texts into text flow for showSimpleTxtFlowAlert
-    public static void showSimpleTxtListAlert(String header, List<Text> messageTxts) {
+    public static void showSimpleTxtListAlert(String header, List<StyledText> messageTxts) {
 
         if (showPreliminary) {
             fleetingRedPopup(prelimMessage);
@@ -74,8 +75,9 @@ public class EditorAlerts {
 
         TextFlow textFlow = new TextFlow();
         if (messageTxts != null) {
-            Text[] resultArray = new Text[messageTxts.size()];
-            messageTxts.toArray(resultArray);
+            List<Text> texts = StyledTextNodes.toTextList(messageTxts);
+            Text[] resultArray = new Text[texts.size()];
+            texts.toArray(resultArray);
             textFlow = new TextFlow(resultArray);
         }
             EditorAlerts.showSimpleTxtFlowAlert(header, textFlow);
@@ -23,7 +23,7 @@ import javafx.scene.text.Font;
 import javafx.stage.*;
 import javafx.application.*;
 import slapp.editor.main_window.MainWindow;
-import slapp.editor.parser.ParserMain;
+import slapp.editor.simpleTests.ParserMain;
 import slapp.editor.simpleTests.RegexTest;
 import slapp.editor.simpleTests.SimpleEditor;
 
@@ -0,0 +1,39 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+
+package slapp.editor;
+
+/**
+ * Settings for the application as a whole (as against those of a user or an assignment).
+ */
+public class EditorSettings {
+
+    private static volatile boolean headless = Boolean.getBoolean("slapp.headless");
+
+    private EditorSettings() {}
+
+    /**
+     * Set whether the application runs without the toolkit (as for batch checking), where nothing is to be shown
+     * or printed.  The default is from the slapp.headless system property.
+     * @param headless true if running without the toolkit
+     */
+    public static void setHeadless(boolean headless) {
+        EditorSettings.headless = headless;
+    }
+
+    public static boolean isHeadless() {
+        return headless;
+    }
+}
@@ -8,6 +8,7 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.geometry.Rectangle2D;
 import slapp.editor.main_window.MainWindowView;
+import slapp.editor.parser.StyledText;
 
 import java.util.List;
 
@@ -15,11 +16,12 @@ public class ExerciseHelpPopup {
     Stage helpStage;
 
 
-    public ExerciseHelpPopup(List<Text> messageTxts, double windowOffset) {
+    public ExerciseHelpPopup(List<StyledText> messageTxts, double windowOffset) {
         TextFlow textFlow = new TextFlow();
         if (messageTxts != null) {
-            Text[] resultArray = new Text[messageTxts.size()];
-            messageTxts.toArray(resultArray);
+            List<Text> texts = StyledTextNodes.toTextList(messageTxts);
+            Text[] resultArray = new Text[texts.size()];
+            texts.toArray(resultArray);
             textFlow = new TextFlow(resultArray);
             textFlow.setPrefWidth(400);
             textFlow.setPrefHeight(240);
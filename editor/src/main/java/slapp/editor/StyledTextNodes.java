@@ -0,0 +1,95 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+
+package slapp.editor;
+
+import javafx.scene.text.Font;
+import javafx.scene.text.FontPosture;
+import javafx.scene.text.Text;
+import slapp.editor.parser.StyledText;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Text nodes for styled text from the parser and checks, with the fonts and script offsets of message text.
+ */
+public class StyledTextNodes {
+
+    private static final String FONT_FAMILY = "Noto Serif Combo";
+    private static double baseFontSize = 12;
+
+    private StyledTextNodes() {}
+
+    /**
+     * Text node for styled text.  A SUBSCRIPT_UNDER is not moved back under its superscript here (see toTextList).
+     * @param styledText the styled text
+     * @return the node
+     */
+    public static Text toText(StyledText styledText) {
+        String string = styledText.getText();
+        Text t = new Text(string);
+        switch (styledText.getStyle()) {
+            case PLAIN:
+                break;
+            case REGULAR:
+                if (!string.isEmpty()) t.setFont(new Font(FONT_FAMILY, baseFontSize));
+                break;
+            case ITALIC:
+                if (!string.isEmpty()) t.setFont(Font.font(FONT_FAMILY, FontPosture.ITALIC, baseFontSize));
+                break;
+            case SUPERSCRIPT:
+                t.setFont(new Font(FONT_FAMILY, baseFontSize * .72));
+                t.setTranslateY(baseFontSize * -.4);
+                break;
+            case SHIFTED_SUPERSCRIPT:
+                t.setFont(new Font(FONT_FAMILY, baseFontSize * .72));
+                t.setTranslateY(baseFontSize * -.4);
+                t.setTranslateX(baseFontSize * -.3);
+                break;
+            case SUBSCRIPT:
+            case SUBSCRIPT_UNDER:
+                t.setFont(new Font(FONT_FAMILY, baseFontSize * .72));
+                t.setTranslateY(baseFontSize * .17);
+                break;
+            case SHIFTED_SUBSCRIPT:
+                t.setFont(new Font(FONT_FAMILY, baseFontSize * .72));
+                t.setTranslateY(baseFontSize * .17);
+                t.setTranslateX(baseFontSize * -.3);
+                break;
+        }
+        return t;
+    }
+
+    /**
+     * Text nodes for a list of styled text, with each SUBSCRIPT_UNDER moved back under the superscript before it
+     * @param styledTexts the styled text list (may be null)
+     * @return the nodes
+     */
+    public static List<Text> toTextList(List<StyledText> styledTexts) {
+        List<Text> texts = new ArrayList<>();
+        if (styledTexts == null) return texts;
+        for (StyledText styledText : styledTexts) {
+            Text t = toText(styledText);
+            if (styledText.getStyle() == StyledText.Style.SUBSCRIPT_UNDER && !texts.isEmpty()) {
+                Text sup = texts.get(texts.size() - 1);
+                sup.applyCss();
+                t.setTranslateX(-sup.getLayoutBounds().getWidth());
+            }
+            texts.add(t);
+        }
+        return texts;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+
+package slapp.editor.batch_grade;
+
+import slapp.editor.AlphanumFileComparator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line of the batch tools: options (each with a value) and the assignment (.sla) and exercise (.sle) files
+ * named by the paths, where a directory is searched for such files, including subdirectories.
+ */
+class BatchArgs {
+
+    private final Map<String, String> options = new LinkedHashMap<>();
+    private final List<File> files = new ArrayList<>();
+
+    /**
+     * Read the command line
+     *
+     * @param args the arguments
+     * @param optionNames the options the tool accepts (as "--threads")
+     * @throws IllegalArgumentException for an unknown option, an option without value, no paths, or a missing path
+     */
+    BatchArgs(String[] args, List<String> optionNames) {
+        List<File> paths = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (optionNames.contains(arg)) {
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + arg);
+                options.put(arg, args[++i]);
+            }
+            else if (arg.startsWith("--")) throw new IllegalArgumentException("Unknown option: " + arg);
+            else paths.add(new File(arg));
+        }
+        if (paths.isEmpty()) throw new IllegalArgumentException("No files given");
+
+        for (File path : paths) {
+            if (!path.exists()) throw new IllegalArgumentException("No such file or directory: " + path);
+            collectFiles(path, files);
+        }
+    }
+
+    /**
+     * Value of an option
+     *
+     * @param name the option
+     * @return the value, or null if the option is not given
+     */
+    String getOption(String name) {
+        return options.get(name);
+    }
+
+    /**
+     * Value of a numeric option, from 1 to max
+     *
+     * @param name the option
+     * @param defaultValue value if the option is not given
+     * @param max largest value
+     * @return the value
+     * @throws IllegalArgumentException if the value is not a number in range
+     */
+    long getNumber(String name, long defaultValue, long max) {
+        String value = options.get(name);
+        if (value == null) return defaultValue;
+        long number;
+        try {
+            number = Long.parseLong(value);
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad value for " + name + ": " + value);
+        }
+        if (number < 1 || number > max) throw new IllegalArgumentException("Bad value for " + name + ": " + value);
+        return number;
+    }
+
+    /**
+     * The files named by the paths, in path order (and alphanumeric order within a directory)
+     *
+     * @return the files
+     */
+    List<File> getFiles() {
+        return files;
+    }
+
+    private static void collectFiles(File path, List<File> files) {
+        if (path.isDirectory()) {
+            File[] children = path.listFiles();
+            if (children == null) return;
+            List<File> childList = new ArrayList<>(List.of(children));
+            Collections.sort(childList, new AlphanumFileComparator());
+            for (File child : childList) {
+                if (child.isDirectory() || isExerciseFile(child)) collectFiles(child, files);
+            }
+        }
+        else files.add(path);
+    }
+
+    private static boolean isExerciseFile(File file) {
+        String name = file.getName().toLowerCase();
+        return name.endsWith(".sla") || name.endsWith(".sle");
+    }
+}
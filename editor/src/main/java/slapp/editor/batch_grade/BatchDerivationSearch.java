@@ -0,0 +1,183 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+
+package slapp.editor.batch_grade;
+
+import slapp.editor.DiskUtilities;
+import slapp.editor.EditorSettings;
+import slapp.editor.derivation.CheckSetup;
+import slapp.editor.derivation.DerivationModel;
+import slapp.editor.derivation.DerivationSearch;
+import slapp.editor.main_window.ExerciseModel;
+import slapp.editor.main_window.assignment.Assignment;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Search for derivations of the derivation exercises in assignment (.sla) and exercise (.sle) files, to check that
+ * each exercise in a bank has a derivation under its ruleset.  Exercises are searched one after another, each search
+ * on the given number of threads; one CSV record per derivation exercise goes to standard output, with the statistics
+ * of its search.
+ * <p>
+ * Usage: BatchDerivationSearch [--threads n] [--max-lines n] [--max-nodes n] [--millis n] [--save dir] path...
+ * <p>
+ * where a path is a file or a directory (searched for .sla and .sle files, including subdirectories).  With --save,
+ * each derivation found is saved as a new exercise file in dir (files already there are not overwritten).
+ */
+public class BatchDerivationSearch {
+
+    private static final String USAGE = "usage: BatchDerivationSearch [--threads n] [--max-lines n] [--max-nodes n] [--millis n] [--save dir] path...";
+    private static final String CSV_HEADER = "file,exercise,ruleset,status,lines,nodes,nodesPerSec,millis,peakHeapMB,message";
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int maxLines = DerivationSearch.DEFAULT_MAX_LINES;
+    private long maxNodes = DerivationSearch.DEFAULT_MAX_NODES;
+    private long maxMillis = DerivationSearch.DEFAULT_MAX_MILLIS;
+    private File saveDirectory = null;
+    private final List<File> files = new ArrayList<>();
+
+    public static void main(String[] args) {
+        EditorSettings.setHeadless(true);
+        BatchDerivationSearch batchSearch = new BatchDerivationSearch();
+        try {
+            batchSearch.readArgs(args);
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        batchSearch.run();
+    }
+
+    private void readArgs(String[] args) {
+        BatchArgs batchArgs = new BatchArgs(args, List.of("--threads", "--max-lines", "--max-nodes", "--millis", "--save"));
+        threads = (int) batchArgs.getNumber("--threads", threads, Integer.MAX_VALUE);
+        maxLines = (int) batchArgs.getNumber("--max-lines", maxLines, Integer.MAX_VALUE);
+        maxNodes = batchArgs.getNumber("--max-nodes", maxNodes, Long.MAX_VALUE);
+        maxMillis = batchArgs.getNumber("--millis", maxMillis, Long.MAX_VALUE);
+        String save = batchArgs.getOption("--save");
+        if (save != null) {
+            saveDirectory = new File(save);
+            if (!saveDirectory.isDirectory()) throw new IllegalArgumentException("No such directory: " + save);
+        }
+        files.addAll(batchArgs.getFiles());
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), true);
+        writer.println(CSV_HEADER);
+        int exercises = 0;
+        int found = 0;
+
+        for (File file : files) {
+            List<ExerciseModel<?>> models = new ArrayList<>();
+            try {
+                if (file.getName().toLowerCase().endsWith(".sla")) {
+                    Assignment assignment = DiskUtilities.readAssignment(file);
+                    for (ExerciseModel<?> model : assignment.getExerciseModels()) models.add(model);
+                }
+                else models.add(DiskUtilities.readExerciseModel(file));
+            }
+            catch (IOException | ClassNotFoundException | RuntimeException e) {
+                writer.println(csv(file.getPath()) + ",,,FILE_ERROR,,,,,," + csv(e.getClass().getSimpleName() + ": " + e.getMessage()));
+                continue;
+            }
+
+            for (ExerciseModel<?> model : models) {
+                if (!(model instanceof DerivationModel)) continue;
+                DerivationModel exercise = (DerivationModel) model;
+                CheckSetup setup = exercise.getCheckSetup() == null ? new CheckSetup() : exercise.getCheckSetup();
+                exercises++;
+
+                DerivationSearch.SearchResult result;
+                try {
+                    DerivationSearch search = new DerivationSearch(setup);
+                    search.setThreads(threads);
+                    search.setMaxLines(maxLines);
+                    search.setMaxNodes(maxNodes);
+                    search.setMaxMillis(maxMillis);
+                    result = search.search(exercise);
+                }
+                catch (RuntimeException e) {
+                    writer.println(csv(file.getPath()) + "," + csv(exercise.getExerciseName()) + "," + csv(setup.getRulesetName()) + ",ERROR,,,,,," +
+                            csv(e.getClass().getSimpleName() + ": " + e.getMessage()));
+                    continue;
+                }
+                if (result.getStatus() == DerivationSearch.Status.FOUND) found++;
+
+                String message = result.getMessage();
+                if (result.getStatus() == DerivationSearch.Status.FOUND && saveDirectory != null) {
+                    try {
+                        message = "Saved " + save(result.getModel(), file).getPath();
+                    }
+                    catch (IOException e) {
+                        message = "Failed to save " + exercise.getExerciseName() + ": " + e.getMessage();
+                    }
+                }
+                writer.println(csv(file.getPath()) + "," + csv(exercise.getExerciseName()) + "," + csv(setup.getRulesetName()) + "," + result.getStatus() + "," +
+                        result.getLines() + "," + result.getNodes() + "," + String.format("%.0f", result.getNodesPerSecond()) + "," + result.getElapsedMillis() + "," +
+                        String.format("%.1f", result.getPeakHeapBytes() / 1048576.0) + "," + csv(message));
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.println(String.format("Searched %d derivation exercises in %d files in %.2f s: %d found", exercises, files.size(), seconds, found));
+    }
+
+    /*
+     * Save a derivation found in a new file of the save directory, named for the source file and the exercise (as
+     * "bank - 3.2.sle"), with a number added if that name is taken; an existing file is never overwritten
+     */
+    private File save(DerivationModel model, File source) throws IOException {
+        String sourceName = source.getName();
+        int dot = sourceName.lastIndexOf('.');
+        if (dot > 0) sourceName = sourceName.substring(0, dot);
+        String baseName = (sourceName + " - " + model.getExerciseName()).replaceAll("[/\\\\:*?\"<>|]", "_");
+
+        for (int n = 1; ; n++) {
+            Path savePath = saveDirectory.toPath().resolve(n == 1 ? baseName + ".sle" : baseName + " (" + n + ").sle");
+            OutputStream fs;
+            try {
+                fs = Files.newOutputStream(savePath, StandardOpenOption.CREATE_NEW);
+            }
+            catch (FileAlreadyExistsException e) {
+                continue;
+            }
+            try (ObjectOutputStream os = new ObjectOutputStream(fs)) {
+                os.writeObject(model);
+            }
+            return savePath.toFile();
+        }
+    }
+
+    private static String csv(String s) {
+        if (s == null) return "";
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) return s;
+        return "\"" + s.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,159 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+
+package slapp.editor.batch_grade;
+
+import slapp.editor.DiskUtilities;
+import slapp.editor.EditorSettings;
+import slapp.editor.main_window.ExerciseModel;
+import slapp.editor.main_window.assignment.Assignment;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Grade assignment (.sla) and exercise (.sle) files without the editor window.  Files are read and graded in
+ * parallel on a work-stealing pool; one record per exercise goes to CSV or JSON output in file order.
+ * <p>
+ * Usage: BatchGrader [--threads n] [--format csv|json] [--out file] path...
+ * <p>
+ * where a path is a file or a directory (searched for .sla and .sle files, including subdirectories).
+ */
+public class BatchGrader {
+
+    private static final String USAGE = "usage: BatchGrader [--threads n] [--format csv|json] [--out file] path...";
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean json = false;
+    private File outFile = null;
+    private final List<File> files = new ArrayList<>();
+
+    public static void main(String[] args) {
+        EditorSettings.setHeadless(true);
+        BatchGrader grader = new BatchGrader();
+        try {
+            grader.readArgs(args);
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        try {
+            grader.run();
+        }
+        catch (IOException e) {
+            System.err.println("Failed to write results: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private void readArgs(String[] args) {
+        BatchArgs batchArgs = new BatchArgs(args, List.of("--threads", "--format", "--out"));
+        threads = (int) batchArgs.getNumber("--threads", threads, Integer.MAX_VALUE);
+        String format = batchArgs.getOption("--format");
+        if (format != null) {
+            if (format.equalsIgnoreCase("json")) json = true;
+            else if (format.equalsIgnoreCase("csv")) json = false;
+            else throw new IllegalArgumentException("Unknown format: " + format);
+        }
+        if (batchArgs.getOption("--out") != null) outFile = new File(batchArgs.getOption("--out"));
+        files.addAll(batchArgs.getFiles());
+    }
+
+    private void run() throws IOException {
+        long start = System.nanoTime();
+
+        ExecutorService pool = Executors.newWorkStealingPool(threads);
+        List<Future<List<GradeRecord>>> futures = new ArrayList<>(files.size());
+        for (File file : files) futures.add(pool.submit(() -> gradeFile(file)));
+
+        List<GradeRecord> records = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                records.addAll(futures.get(i).get());
+            }
+            catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                records.add(GradeRecord.fileError(files.get(i).getPath(), cause.getClass().getSimpleName() + ": " + cause.getMessage()));
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                records.add(GradeRecord.fileError(files.get(i).getPath(), "Interrupted"));
+            }
+        }
+        pool.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        writeRecords(records);
+        System.err.println(String.format("Graded %d files (%d exercises) in %.2f s: %.1f files/sec", files.size(),
+                records.size(), seconds, seconds > 0 ? files.size() / seconds : 0.0));
+    }
+
+    /*
+     * Records for one file; a file that cannot be read gets a single error record
+     */
+    private static List<GradeRecord> gradeFile(File file) {
+        String fileName = file.getPath();
+        try {
+            if (file.getName().toLowerCase().endsWith(".sla")) {
+                Assignment assignment = DiskUtilities.readAssignment(file);
+                return ModelGrader.gradeAssignment(fileName, assignment);
+            }
+            else {
+                ExerciseModel<?> model = DiskUtilities.readExerciseModel(file);
+                return Collections.singletonList(ModelGrader.gradeExercise(fileName, "", "", 0, model));
+            }
+        }
+        catch (IOException | ClassNotFoundException | RuntimeException e) {
+            return Collections.singletonList(GradeRecord.fileError(fileName, e.getClass().getSimpleName() + ": " + e.getMessage()));
+        }
+    }
+
+    private void writeRecords(List<GradeRecord> records) throws IOException {
+        PrintWriter writer = outFile == null ?
+                new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)) :
+                new PrintWriter(new OutputStreamWriter(new FileOutputStream(outFile), StandardCharsets.UTF_8));
+        try {
+            if (json) {
+                writer.println("[");
+                for (int i = 0; i < records.size(); i++) {
+                    writer.println("  " + records.get(i).toJson() + (i < records.size() - 1 ? "," : ""));
+                }
+                writer.println("]");
+            }
+            else {
+                writer.println(GradeRecord.getCsvHeader());
+                for (GradeRecord record : records) writer.println(record.toCsv());
+            }
+        }
+        finally {
+            if (outFile == null) writer.flush();
+            else writer.close();
+        }
+        if (writer.checkError()) throw new IOException("write error");
+    }
+}
@@ -0,0 +1,139 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+
+package slapp.editor.batch_grade;
+
+/**
+ * Result for one exercise of an assignment (or exercise) file.  The status is SUCCESS or INCOMPLETE for
+ * exercises with an automatic check, UNVERIFIED for a success saved with an exercise that cannot be checked again
+ * apart from the editor, NO_CHECK for exercises without a check, and ERROR when the file cannot be read or checked.
+ */
+public class GradeRecord {
+
+    public enum Status {SUCCESS, INCOMPLETE, UNVERIFIED, NO_CHECK, ERROR}
+
+    private final String fileName;
+    private final String studentName;
+    private final String assignmentName;
+    private final int exerciseIndex;
+    private final String exerciseName;
+    private final String exerciseType;
+    private final Status status;
+    private final boolean rechecked;
+    private final int checkTries;
+    private final int pointsEarned;
+    private final int pointsPossible;
+    private final String message;
+
+    GradeRecord(String fileName, String studentName, String assignmentName, int exerciseIndex, String exerciseName, String exerciseType,
+                Status status, boolean rechecked, int checkTries, int pointsEarned, int pointsPossible, String message) {
+        this.fileName = fileName;
+        this.studentName = studentName;
+        this.assignmentName = assignmentName;
+        this.exerciseIndex = exerciseIndex;
+        this.exerciseName = exerciseName;
+        this.exerciseType = exerciseType;
+        this.status = status;
+        this.rechecked = rechecked;
+        this.checkTries = checkTries;
+        this.pointsEarned = pointsEarned;
+        this.pointsPossible = pointsPossible;
+        this.message = message;
+    }
+
+    /**
+     * Record for a file that cannot be read
+     *
+     * @param fileName the file name
+     * @param message the reason
+     * @return the record
+     */
+    static GradeRecord fileError(String fileName, String message) {
+        return new GradeRecord(fileName, "", "", -1, "", "", Status.ERROR, false, 0, -1, -1, message);
+    }
+
+    public static String getCsvHeader() {
+        return "file,student,assignment,index,exercise,type,status,rechecked,check_tries,points_earned,points_possible,message";
+    }
+
+    /**
+     * The record as a CSV row (fields quoted as required)
+     *
+     * @return the row
+     */
+    public String toCsv() {
+        return csv(fileName) + "," + csv(studentName) + "," + csv(assignmentName) + "," + exerciseIndex + "," + csv(exerciseName) + "," +
+                csv(exerciseType) + "," + status + "," + rechecked + "," + checkTries + "," + pointsEarned + "," + pointsPossible + "," + csv(message);
+    }
+
+    /**
+     * The record as a JSON object
+     *
+     * @return the object
+     */
+    public String toJson() {
+        return "{\"file\":" + json(fileName) + ",\"student\":" + json(studentName) + ",\"assignment\":" + json(assignmentName) +
+                ",\"index\":" + exerciseIndex + ",\"exercise\":" + json(exerciseName) + ",\"type\":" + json(exerciseType) +
+                ",\"status\":\"" + status + "\",\"rechecked\":" + rechecked + ",\"checkTries\":" + checkTries +
+                ",\"pointsEarned\":" + pointsEarned + ",\"pointsPossible\":" + pointsPossible + ",\"message\":" + json(message) + "}";
+    }
+
+    private static String csv(String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) return s;
+        return "\"" + s.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String json(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    public String getFileName() { return fileName; }
+
+    public String getStudentName() { return studentName; }
+
+    public String getAssignmentName() { return assignmentName; }
+
+    public int getExerciseIndex() { return exerciseIndex; }
+
+    public String getExerciseName() { return exerciseName; }
+
+    public String getExerciseType() { return exerciseType; }
+
+    public Status getStatus() { return status; }
+
+    public boolean isRechecked() { return rechecked; }
+
+    public int getCheckTries() { return checkTries; }
+
+    public int getPointsEarned() { return pointsEarned; }
+
+    public int getPointsPossible() { return pointsPossible; }
+
+    public String getMessage() { return message; }
+}
@@ -0,0 +1,180 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+
+package slapp.editor.batch_grade;
+
+import slapp.editor.derivation.CheckIssue;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.CheckSetup;
+import slapp.editor.derivation.DerivationModel;
+import slapp.editor.derivation.ModelCheck;
+import slapp.editor.derivation.ModelLine;
+import slapp.editor.derivation_explain.DrvtnExpModel;
+import slapp.editor.main_window.ExerciseModel;
+import slapp.editor.main_window.assignment.Assignment;
+import slapp.editor.main_window.assignment.AssignmentHeader;
+import slapp.editor.map_abexplain.MapABExpModel;
+import slapp.editor.map_abexplain.MapCheckSetup;
+import slapp.editor.truth_table.TTcheckSetup;
+import slapp.editor.truth_table.TTmodelCheck;
+import slapp.editor.truth_table.TruthTableModel;
+import slapp.editor.truth_table_explain.TTExpCheckSetup;
+import slapp.editor.truth_table_explain.TTExpModelCheck;
+import slapp.editor.truth_table_explain.TruthTableExpModel;
+import slapp.editor.vert_tree_abefexplain.VerticalTreeABEFExpModel;
+import slapp.editor.vert_tree_abexplain.VerticalTreeABExpModel;
+import slapp.editor.vert_tree_explain.VerticalTreeExpModel;
+import slapp.editor.vertical_tree.VTcheckSetup;
+import slapp.editor.vertical_tree.VerticalTreeModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Grade records from exercise models.  Derivations are checked again from their model lines, and truth tables (with
+ * the table and choice of truth table explain exercises) by the same checks the editor runs on their views.
+ * <p>
+ * Vertical trees and maps are not checked again: their checks work on the boxes, links and markers of the view, and
+ * the model keeps no more than the saved layout of these.  For them the check result is as saved with the exercise
+ * (from the student's last check in the editor), where a saved success is UNVERIFIED.  Exercise types without an
+ * automatic check (including truth table generate exercises) are NO_CHECK and are graded by their points alone.
+ */
+class ModelGrader {
+
+    private ModelGrader() {}
+
+    /**
+     * Records for each exercise of an assignment
+     *
+     * @param fileName name of the assignment file
+     * @param assignment the assignment
+     * @return the records
+     */
+    static List<GradeRecord> gradeAssignment(String fileName, Assignment assignment) {
+        AssignmentHeader header = assignment.getHeader();
+        String studentName = header == null ? "" : nonNull(header.getStudentName());
+        String assignmentName = header == null ? "" : nonNull(header.getAssignmentName());
+
+        List<GradeRecord> records = new ArrayList<>();
+        int index = 0;
+        for (ExerciseModel<?> model : assignment.getExerciseModels()) {
+            records.add(gradeExercise(fileName, studentName, assignmentName, index++, model));
+        }
+        return records;
+    }
+
+    /**
+     * Record for a single exercise
+     *
+     * @param fileName name of the file with the exercise
+     * @param studentName student name from the assignment header (or empty)
+     * @param assignmentName assignment name from the assignment header (or empty)
+     * @param index index of the exercise in its assignment
+     * @param model the exercise model
+     * @return the record
+     */
+    static GradeRecord gradeExercise(String fileName, String studentName, String assignmentName, int index, ExerciseModel<?> model) {
+        String exerciseName = nonNull(model.getExerciseName());
+        String exerciseType = model.getExerciseType() == null ? "" : model.getExerciseType().label;
+
+        GradeRecord.Status status = GradeRecord.Status.NO_CHECK;
+        int checkTries = 0;
+        String message = "";
+        boolean rechecked = false;
+        try {
+            boolean hasCheck = true;
+            int checkMax = 0;
+            boolean checkSuccess = false;
+
+            if (model instanceof DerivationModel || model instanceof DrvtnExpModel) {
+                CheckSetup setup = model instanceof DerivationModel ? ((DerivationModel) model).getCheckSetup() : ((DrvtnExpModel) model).getCheckSetup();
+                if (setup == null) setup = new CheckSetup();
+                checkMax = setup.getCheckMax();
+                checkTries = setup.getCheckTries();
+                checkSuccess = setup.isCheckSuccess();
+
+                List<ModelLine> lines = model instanceof DerivationModel ? ((DerivationModel) model).getDerivationLines() : ((DrvtnExpModel) model).getDerivationLines();
+                if (lines != null && !lines.isEmpty()) {
+                    CheckIssue issue = ModelCheck.fromCheckSetup(setup).check(CheckLine.getCheckLines(lines), true);
+                    checkSuccess = issue == null;
+                    if (issue != null) message = issue.getPlainText();
+                    rechecked = true;
+                }
+            }
+            else if (model instanceof TruthTableModel) {
+                TTcheckSetup setup = ((TruthTableModel) model).getCheckSetup();
+                if (setup == null) setup = new TTcheckSetup();
+                checkMax = setup.getCheckMax();
+                checkTries = setup.getCheckTries();
+
+                String issue = TTmodelCheck.check((TruthTableModel) model);
+                checkSuccess = issue == null;
+                if (issue != null) message = issue;
+                rechecked = true;
+            }
+            else if (model instanceof TruthTableExpModel) {
+                TTExpCheckSetup setup = ((TruthTableExpModel) model).getCheckSetup();
+                if (setup == null) setup = new TTExpCheckSetup();
+                checkMax = setup.getCheckMax();
+                checkTries = setup.getCheckTries();
+
+                String issue = TTExpModelCheck.check((TruthTableExpModel) model);
+                checkSuccess = issue == null;
+                if (issue != null) message = issue;
+                rechecked = true;
+            }
+            else if (model instanceof VerticalTreeModel || model instanceof VerticalTreeExpModel || model instanceof VerticalTreeABExpModel || model instanceof VerticalTreeABEFExpModel) {
+                VTcheckSetup setup = getVTcheckSetup(model);
+                if (setup == null) setup = new VTcheckSetup();
+                checkMax = setup.getCheckMax();
+                checkTries = setup.getCheckTries();
+                checkSuccess = setup.isCheckSuccess();
+            }
+            else if (model instanceof MapABExpModel) {
+                MapCheckSetup setup = ((MapABExpModel) model).getCheckSetup();
+                if (setup == null) setup = new MapCheckSetup();
+                checkMax = setup.getCheckMax();
+                checkTries = setup.getCheckTries();
+                checkSuccess = setup.isCheckSuccess();
+            }
+            else hasCheck = false;
+
+            //an exercise that permits no checks is graded by hand, unless the check was made anyway (as by an instructor);
+            //a success saved with the exercise but not checked again here is unverified
+            if (hasCheck && (checkMax != 0 || checkSuccess)) {
+                if (!checkSuccess) status = GradeRecord.Status.INCOMPLETE;
+                else status = rechecked ? GradeRecord.Status.SUCCESS : GradeRecord.Status.UNVERIFIED;
+            }
+        }
+        catch (RuntimeException e) {
+            status = GradeRecord.Status.ERROR;
+            message = e.getClass().getSimpleName() + (e.getMessage() == null ? "" : ": " + e.getMessage());
+        }
+
+        return new GradeRecord(fileName, studentName, assignmentName, index, exerciseName, exerciseType, status, rechecked, checkTries,
+                model.getPointsEarned(), model.getPointsPossible(), message);
+    }
+
+    private static VTcheckSetup getVTcheckSetup(ExerciseModel<?> model) {
+        if (model instanceof VerticalTreeModel) return ((VerticalTreeModel) model).getCheckSetup();
+        if (model instanceof VerticalTreeExpModel) return ((VerticalTreeExpModel) model).getCheckSetup();
+        if (model instanceof VerticalTreeABExpModel) return ((VerticalTreeABExpModel) model).getCheckSetup();
+        return ((VerticalTreeABEFExpModel) model).getCheckSetup();
+    }
+
+    private static String nonNull(String s) {
+        return s == null ? "" : s;
+    }
+}
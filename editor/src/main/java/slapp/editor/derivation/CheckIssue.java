@@ -0,0 +1,73 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+
+package slapp.editor.derivation;
+
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.ParseUtilities;
+
+import java.util.List;
+
+/**
+ * A failed derivation check: the alert title and message, with the line at issue and the part of it to mark.
+ */
+public class CheckIssue {
+
+    /**
+     * The part of the line at issue to highlight
+     */
+    public enum Mark {NONE, LINE, FORMULA, JUSTIFICATION}
+
+    private final String title;
+    private final List<StyledText> message;
+    private final int lineIndex;
+    private final Mark mark;
+
+    CheckIssue(String title, List<StyledText> message, int lineIndex, Mark mark) {
+        this.title = title;
+        this.message = message;
+        this.lineIndex = lineIndex;
+        this.mark = mark;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public List<StyledText> getMessage() {
+        return message;
+    }
+
+    /**
+     * The row of the line at issue
+     * @return the row, or -1 if there is no line to mark
+     */
+    public int getLineIndex() {
+        return lineIndex;
+    }
+
+    public Mark getMark() {
+        return mark;
+    }
+
+    /**
+     * Title and message as a plain string
+     * @return the string
+     */
+    public String getPlainText() {
+        String text = message == null ? "" : ParseUtilities.plainText(message);
+        return title.endsWith(":") ? title + " " + text : title + ": " + text;
+    }
+}
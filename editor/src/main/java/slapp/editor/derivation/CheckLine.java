@@ -0,0 +1,170 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+
+package slapp.editor.derivation;
+
+import com.gluonhq.richtextarea.model.Document;
+import slapp.editor.parser.grammatical_parts.Formula;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A line of a derivation as it is checked: the line label, scope depth and type, the content document with its
+ * parsed formula, and the justification with the line labels it cites.  Check lines are built from model lines
+ * (or from the view, with one document export per line), so that a check runs without the editor.
+ */
+public class CheckLine {
+
+    private final int index;
+    private final String label;
+    private final int depth;
+    private final LineType lineType;
+    private final Document lineDoc;
+    private final String justification;
+    private final List<String> justificationLabels;
+    private Formula formula = null;
+    private List<String> assumptionList = Collections.emptyList();
+
+    /**
+     * Construct check line
+     * @param index the row of this line in the derivation
+     * @param label the line number label (empty for shelf or gap line)
+     * @param depth the scope depth of the line
+     * @param lineType the {@link slapp.editor.derivation.LineType}
+     * @param lineDoc the content document (empty for shelf or gap line)
+     * @param justification the justification string
+     * @param justificationLabels the line labels cited in the justification
+     */
+    public CheckLine(int index, String label, int depth, LineType lineType, Document lineDoc, String justification, List<String> justificationLabels) {
+        this.index = index;
+        this.label = label == null ? "" : label;
+        this.depth = depth;
+        this.lineType = lineType;
+        this.lineDoc = lineDoc == null ? new Document("") : lineDoc;
+        this.justification = justification == null ? "" : justification;
+        this.justificationLabels = justificationLabels;
+    }
+
+    /**
+     * Check lines from model lines.  Content lines are numbered from 1 as in the view, and the justification
+     * labels are the numerals of the justification string (as they are bound to line numbers in the view).
+     * @param modelLines the model lines
+     * @return the check lines
+     */
+    public static List<CheckLine> getCheckLines(List<ModelLine> modelLines) {
+        List<CheckLine> checkLines = new ArrayList<>(modelLines.size());
+        int lineNumber = 1;
+        for (int i = 0; i < modelLines.size(); i++) {
+            ModelLine modelLine = modelLines.get(i);
+            LineType lineType = modelLine.getLineType();
+            if (LineType.isContentLine(lineType)) {
+                String justification = modelLine.getJustification() == null ? "" : modelLine.getJustification().trim();
+                checkLines.add(new CheckLine(i, Integer.toString(lineNumber++), modelLine.getDepth(), lineType, modelLine.getLineContentDoc(),
+                        justification, getJustificationLabels(justification)));
+            }
+            else {
+                checkLines.add(new CheckLine(i, "", modelLine.getDepth(), lineType, null, "", Collections.emptyList()));
+            }
+        }
+        return checkLines;
+    }
+
+    /*
+     * Runs of digits (or points) in a justification string, which the view takes as line labels
+     * @param justification the justification string
+     * @return the list of labels
+     */
+    static List<String> getJustificationLabels(String justification) {
+        List<String> labels = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < justification.length(); i++) {
+            char c = justification.charAt(i);
+            boolean digit = ('0' <= c && c <= '9') || c == '.';
+            if (digit && start < 0) start = i;
+            else if (!digit && start >= 0) {
+                labels.add(justification.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) labels.add(justification.substring(start));
+        return labels;
+    }
+
+    public boolean isContentLine() {
+        return LineType.isContentLine(lineType);
+    }
+
+    /**
+     * The scope depth of the line (one less than the depth of a gap line)
+     * @return the depth value
+     */
+    public int realDepth() {
+        return LineType.isGapLine(lineType) ? depth - 1 : depth;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public LineType getLineType() {
+        return lineType;
+    }
+
+    public Document getLineDoc() {
+        return lineDoc;
+    }
+
+    public String getJustification() {
+        return justification;
+    }
+
+    public List<String> getJustificationLabels() {
+        return justificationLabels;
+    }
+
+    /**
+     * The formula of this line as parsed by the check (shared, and not to be modified)
+     * @return the formula, or null if the line is empty or not yet checked
+     */
+    public Formula getFormula() {
+        return formula;
+    }
+
+    void setFormula(Formula formula) {
+        this.formula = formula;
+    }
+
+    /**
+     * Labels of the premises and assumptions in whose scope this line lies (set by the check)
+     * @return the label list
+     */
+    public List<String> getAssumptionList() {
+        return assumptionList;
+    }
+
+    void setAssumptionList(List<String> assumptionList) {
+        this.assumptionList = assumptionList;
+    }
+}
@@ -1,7 +1,5 @@
 package slapp.editor.derivation;
 
-import javafx.scene.text.Text;
-import javafx.util.Pair;
 import slapp.editor.derivation.der_systems.DerivationRuleset;
 import slapp.editor.main_window.Exercise;
 
@@ -17,21 +15,13 @@ public interface DCheck {
 
     boolean backgroundProgressCheck();
 
-    Pair<ViewLine, List<Text>> getLineFromLabel(String label);
-
-    Pair<Boolean, List<Text>> lineIsAccessibleTo(ViewLine justifier, ViewLine candidate);
-
-    ViewLine lastLineAtScope(ViewLine startLine);
-
-    Pair<Boolean, List<Text>> isSubderivation(String label1, String label2);
-
-    Pair<Boolean, List<Text>> isAccessibleSubderivationFor(ViewLine line, String label1, String label2);
+    ModelCheck getModelCheck();
 
     void setCheckMax(int checkMax);
     void setCheckTries(int checkTries);
     void setHelpMax(int helpMax);
     void setHelpTries(int helpTries);
-    List<ViewLine> getViewLines();
+    List<CheckLine> getCheckLines();
     DerivationRuleset getDerivationRuleset();
     Exercise getExercise();
     int getCheckMax();
@@ -64,6 +64,7 @@ public class DerivationExercise implements Exercise<DerivationModel, DerivationV
     private MainWindowView mainView;
     private DerivationCheck derivationCheck;
     private DerivationHelp derivationHelp;
+    private LiveDerivationCheck liveCheck;
     private boolean exerciseModified = false;
     private Font labelFont = new Font("Noto Serif Combo", 11);
     private boolean editJustification;
@@ -88,63 +89,9 @@ public class DerivationExercise implements Exercise<DerivationModel, DerivationV
         }
         if (derivationModel.getCheckSetup() == null)
             derivationModel.setCheckSetup(new CheckSetup());  //in case SLAPP v2 model
-        List<ThrmSetElement> thrmSetElements = derivationModel.getCheckSetup().getThrmSetElements();
-        for (ThrmSetElement thrmSetElement : thrmSetElements) {
-            switch (thrmSetElement.getType()) {
-                case ZERO_INPUT:
-                    theorems.add(new ZeroInputTheorem(thrmSetElement.getName(), thrmSetElement.getForms()));
-                    break;
-                case ZERO_INPUT2:
-                    theorems.add(new ZeroInputTheorem2(thrmSetElement.getName(), thrmSetElement.getForms()));
-                    break;
-                case SINGLE_INPUT:
-                    theorems.add(new SingleInputTheorem(thrmSetElement.getName(), thrmSetElement.getForms()));
-                    break;
-                case DOUBLE_INPUT:
-                    theorems.add(new DoubleInputTheorem(thrmSetElement.getName(), thrmSetElement.getForms()));
-                    break;
-                case TRIPLE_INPUT:
-                    theorems.add(new TripleInputTheorem(thrmSetElement.getName(), thrmSetElement.getForms()));
-                    break;
-                case ADQ_A4:
-                    theorems.add(new ADq_A4(thrmSetElement.getName(), ""));
-                    break;
-                case ADQ_A5:
-                    theorems.add(new ADq_A5(thrmSetElement.getName(), ""));
-                    break;
-                case ADQT3_28:
-                    theorems.add(new ADqT3_28(thrmSetElement.getName(), ""));
-                    break;
-                case ADQT3_29:
-                    theorems.add(new ADqT3_29(thrmSetElement.getName(), ""));
-                    break;
-                case ADQT3_30:
-                    theorems.add(new ADqT3_30(thrmSetElement.getName(), ""));
-                    break;
-                case ADQT3_31:
-                    theorems.add(new ADqT3_31(thrmSetElement.getName(), ""));
-                    break;
-                case ADQT3_32:
-                    theorems.add(new ADqT3_32(thrmSetElement.getName(), ""));
-                    break;
-                case AD_A7:
-                    theorems.add(new AD_A7(thrmSetElement.getName(), ""));
-                    break;
-                case AD_A8:
-                    theorems.add(new AD_A8(thrmSetElement.getName(), ""));
-                    break;
-                case ADT3_37:
-                    theorems.add(new ADT3_37(thrmSetElement.getName(), ""));
-                    break;
-                case ADT3_38:
-                    theorems.add(new ADT3_38(thrmSetElement.getName(), ""));
-                    break;
-                case QND_T51:
-                    theorems.add(new QND_T51(thrmSetElement.getName(), ""));
-                    break;
-                case PANDT13_11i:
-                    theorems.add(new PANDT13_11i(thrmSetElement.getName(), ""));
-            }
+        for (ThrmSetElement thrmSetElement : derivationModel.getCheckSetup().getThrmSetElements()) {
+            Theorem theorem = thrmSetElement.getTheorem();
+            if (theorem != null) theorems.add(theorem);
         }
 
         this.mainView = mainWindow.getMainView();
@@ -153,6 +100,7 @@ public class DerivationExercise implements Exercise<DerivationModel, DerivationV
         setDerivationView();
         derivationCheck = new DerivationCheck(this);
         derivationHelp = new DerivationHelp(this);
+        liveCheck = new LiveDerivationCheck(this);
 
 
         //cannot depend on pushUndoRedo because documents can't yet be extracted from view
@@ -371,6 +319,7 @@ public class DerivationExercise implements Exercise<DerivationModel, DerivationV
                         }
                     }
                 });
+                rta.textLengthProperty().addListener((o, ov, nv) -> requestLiveCheck());
             }
         }
     }
@@ -738,6 +687,7 @@ public class DerivationExercise implements Exercise<DerivationModel, DerivationV
                 }
             }
         });
+        rta.textLengthProperty().addListener((o, ov, nv) -> requestLiveCheck());
 
         TextFlow flow = new TextFlow();
         TextFlow justificationFlow = getStyledJustificationFlow(flow);
@@ -757,6 +707,7 @@ public class DerivationExercise implements Exercise<DerivationModel, DerivationV
             derivationView.setGridFromViewLines();
             updateUndoRedoButtons();
             setContentFocusListeners();
+            requestLiveCheck();
 
         }
     }
@@ -772,6 +723,7 @@ public class DerivationExercise implements Exercise<DerivationModel, DerivationV
             derivationView.setGridFromViewLines();
             updateUndoRedoButtons();
             setContentFocusListeners();
+            requestLiveCheck();
 
         }
     }
@@ -792,6 +744,14 @@ public class DerivationExercise implements Exercise<DerivationModel, DerivationV
         DerivationModel deepCopy = (DerivationModel) SerializationUtils.clone(model);
         undoRedoList.push(deepCopy);
         updateUndoRedoButtons();
+        requestLiveCheck();
+    }
+
+    /*
+     * Live check of the lines (if live check is on) once editing pauses
+     */
+    private void requestLiveCheck() {
+        if (liveCheck != null) liveCheck.requestCheck();
     }
 
     /*
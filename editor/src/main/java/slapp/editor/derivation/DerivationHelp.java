@@ -1,18 +1,14 @@
 package slapp.editor.derivation;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.scene.text.TextFlow;
 import javafx.stage.Stage;
-import javafx.util.Pair;
+import javafx.util.Duration;
 import slapp.editor.EditorAlerts;
 import slapp.editor.EditorMain;
 import slapp.editor.ExerciseHelpPopup;
 import slapp.editor.derivation.der_systems.DerivationRule;
-import slapp.editor.derivation_explain.DrvtnExpExercise;
 import slapp.editor.main_window.MainWindow;
 import slapp.editor.main_window.MainWindowView;
 import slapp.editor.parser.*;
@@ -23,38 +19,60 @@ import slapp.editor.parser.symbols.MVariable;
 import slapp.editor.parser.symbols.VariableSym;
 
 import java.util.*;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static javafx.stage.StageStyle.TRANSPARENT;
 
 public class DerivationHelp {
+
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     private DerivationExercise derivationExercise;
     private DerivationView derivationView;
     private DerivationModel derivationModel;
     private DerivationCheck derivationCheck;
-    private List<ViewLine> viewLines;
+    private List<CheckLine> checkLines;
     Stage helpStage;
 
-    private ViewLine targetLine;
+    private CheckLine targetLine;
     private int targetRow;
     private Formula targetFormula;
     private Language objectLanguage;
     private Language metaLanguage;
+    private Forms forms;
 
     private List<Formula> accessibleFormulas;
     private List<Formula> eObtainableFormulas;
     private List<Formula> ePotentialFormulas;
+    private ExpressionInterner interner;
     private double windowOffset;
     private double offsetIncrement = 25.0;
     public List<Stage> helpStages = new ArrayList<>();
-    private List<Text> footnotes = new ArrayList<>();
+    private List<StyledText> footnotes = new ArrayList<>();
     private String disjunctionStatus;
 
     private List<Term> termList = new ArrayList<>();
-    private List<Term> formulaVars = new ArrayList<>();
-    private List<Expression> termList2 = new ArrayList<>();
     private boolean helpShowing;
 
+    private static final long HELP_DEADLINE_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final ExecutorService helpExecutor = newExecutor(1, "contextual help");
+    private static final ExecutorService probeExecutor = newExecutor(Math.min(4, Runtime.getRuntime().availableProcessors()), "contextual help probe");
+
+    private ModelCheck helpCheck;
+    private final AtomicLong helpGeneration = new AtomicLong();
+    private Future<?> pendingHelp;
+    private long deadline;
+    private List<Pair<List<StyledText>, Double>> popups = new ArrayList<>();
+    private final Map<Probe, Future<Object>> probes = new EnumMap<>(Probe.class);
+
 
 
 
@@ -70,7 +88,7 @@ public class DerivationHelp {
             for (Stage stage : helpStages) { if (stage != null && stage.isShowing()) helpShowing = true; }
             closeHelpWindows();
 
-            //this is to let the windows close (esp. on Mac) before initiating the 250ms delay in runHelp().
+            //this is to let the windows close (esp. on Mac) before initiating the 250ms delay in showHelp().
             Platform.runLater(() -> {
                 runHelp();
             });
@@ -80,6 +98,8 @@ public class DerivationHelp {
     }
 
     public void closeHelpWindows() {
+        helpGeneration.incrementAndGet();
+        if (pendingHelp != null) pendingHelp.cancel(false);
         for (Stage stage : helpStages) {
             if (stage != null) {
                 stage.close();
@@ -93,174 +113,292 @@ public class DerivationHelp {
 
         objectLanguage = derivationCheck.getDerivationRuleset().getObjectLanguage();
         metaLanguage = derivationCheck.getDerivationRuleset().getMetaLanguage();
+        forms = metaForms.get(metaLanguage);
+
+        //the help works on lines exported from the view, checked by a model check of its own off the FX thread, so
+        //that the view may go on
+        if (helpCheck == null) helpCheck = ModelCheck.fromCheckSetup(derivationModel.getCheckSetup());
+        List<CheckLine> lineCopies = derivationCheck.getCheckLinesFromView();
+        int row = derivationExercise.currentRow();
+        long generation = helpGeneration.get();
+        long start = System.nanoTime();
+        pendingHelp = helpExecutor.submit(() -> computeHelp(generation, start, lineCopies, row));
+    }
 
-        //progress ok
-        EditorAlerts.setShowPreliminary(true, "Contextual help begins with a background progress check.");
-        boolean progressCheck = derivationCheck.backgroundProgressCheck();
-        EditorAlerts.setShowPreliminary(false, "");
-        if (!progressCheck) return;
-
-        //non-empty selected row
-        viewLines = derivationView.getViewLines();
-        targetRow = derivationExercise.currentRow();
-        if (targetRow < 0) {
-            EditorAlerts.fleetingRedPopup("Select goal formula for contextual help");
-            return;
-        }
-
-        targetLine = viewLines.get(targetRow);
-        if (!derivationExercise.getStringFromJustificationFlow(targetLine.getJustificationFlow()).equals("")) {
-            EditorAlerts.fleetingRedPopup("Help applies lines that are not (yet) justified.");
-            return;
-        }
-
-        RichTextArea targetRTA = targetLine.getLineContentBoxedDRTA().getRTA();
-        targetRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document targetDoc = targetRTA.getDocument();
+    /*
+     * Strategies for the target on the help thread.  The lines are given a background progress check, and the target
+     * row is checked; then the formula lists are built in turn, and the probes of the strategies run together, while
+     * the strategies are taken in order, each waiting on its own probe.  Help that does not finish by the deadline is
+     * dropped with a message, and help that fails shows the failure in its popup.
+     */
+    private void computeHelp(long generation, long start, List<CheckLine> lineCopies, int row) {
+        if (generation != helpGeneration.get()) return;
+        deadline = start + HELP_DEADLINE_NANOS;
+        interner = new ExpressionInterner();
+        footnotes.clear();
+        footnotes.add(new StyledText("\n-----"));
+        popups.clear();
+        windowOffset = 0.0;
+        try {
+            //progress ok
+            CheckIssue issue = helpCheck.check(lineCopies, false);
+            if (issue != null) {
+                Platform.runLater(() -> {
+                    if (generation != helpGeneration.get()) return;
+                    EditorAlerts.setShowPreliminary(true, "Contextual help begins with a background progress check.");
+                    derivationCheck.showIssue(issue);
+                    EditorAlerts.setShowPreliminary(false, "");
+                });
+                return;
+            }
+            checkLines = helpCheck.getCheckLines();
 
-        if (targetDoc.getText().equals("")) {
-            EditorAlerts.fleetingRedPopup("Select goal formula for contextual help");
-            return;
-        }
+            //non-empty selected row
+            if (row < 0) {
+                showFleetingPopup(generation, "Select goal formula for contextual help");
+                return;
+            }
+            CheckLine goalLine = checkLines.get(row);
+            if (!goalLine.getJustification().equals("")) {
+                showFleetingPopup(generation, "Help applies lines that are not (yet) justified.");
+                return;
+            }
+            Document targetDoc = goalLine.getLineDoc();
+            if (targetDoc == null || targetDoc.getText().equals("")) {
+                showFleetingPopup(generation, "Select goal formula for contextual help");
+                return;
+            }
 
-        List<Expression> targetExpressions = ParseUtilities.parseDoc(targetDoc, objectLanguage.getNameString());
-        targetFormula = (Formula) targetExpressions.get(0);
+            List<Expression> targetExpressions = ParseUtilities.parseDoc(targetDoc, objectLanguage.getNameString());
+            targetRow = row;
+            targetFormula = (Formula) targetExpressions.get(0);
+            targetLine = goalLine;
 
-        //goal or contradiction strategies
-        Document contradictionForm1 = new Document("\u22a5" );
-        Document contradictionForm2 = new Document("(\ud835\udcac \u2227 \u223c\ud835\udcac)");
+            //goal or contradiction strategies
+            CompiledForm contradictionForm1 = forms.contradiction;
+            CompiledForm contradictionForm2 = forms.contradictoryConjunction;
 
-        MatchUtilities.clearFormMatch();
-        boolean goalIsContradiction = false;
-        try {
-            Pair<Boolean, Boolean> match1 = MatchUtilities.simpleExpFormMatch(contradictionForm1, targetFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
-            goalIsContradiction = true;
-        } catch (TextMessageException e) {}
+            MatchContext context = new MatchContext();
+            boolean goalIsContradiction = false;
+            try {
+                boolean match1 = MatchUtilities.simpleExpFormMatch(context, contradictionForm1, targetFormula, objectLanguage.getNameString());
+                goalIsContradiction = true;
+            } catch (TextMessageException e) {}
 
-        /*
-        if is definite sentence use strategies for goal
+            /*
+            if is definite sentence use strategies for goal
 
-        MatchUtilities.clearFormMatch();
-        try {
-            Pair<Boolean, Boolean> match2 = MatchUtilities.simpleExpFormMatch(contradictionForm2, targetFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
-            goalIsContradiction = true;
-        } catch (TextMessageException e) {}
+            context.clear();
+            try {
+                boolean match2 = MatchUtilities.simpleExpFormMatch(context, contradictionForm2, targetFormula, objectLanguage.getNameString());
+                goalIsContradiction = true;
+            } catch (TextMessageException e) {}
 
-         */
+             */
 
-        footnotes.clear();
-        footnotes.add(new Text("\n-----"));
-        helpStages.clear();
-        windowOffset = 0.0;
+            setAccessibleFormulas();
+            findTermsInFormulas();
+            checkProgress(generation);
+            setEObtainableFormulas();
+            checkProgress(generation);
+            setEPotentialFormulas();
+            checkProgress(generation);
+            processEqualities();
+            checkProgress(generation);
 
-        if (goalIsContradiction) {
+   //         System.out.println("obtainable size: " + eObtainableFormulas.size() + " potential size: " + ePotentialFormulas.size());
+   //         System.out.println("obtainable: " + eObtainableFormulas);
+  //          System.out.println("potential: " + ePotentialFormulas);
 
-            if (!helpShowing) {
-                setAccessibleFormulas();
-                findTermsInFormulas();
-                setEObtainableFormulas();
-                setEPotentialFormulas();
-                processEqualities();
-                processEqualities();
-                SC1a();
-            }
-            else {
-                CountDownLatch latch = new CountDownLatch(2);
+            startProbes(goalIsContradiction);
+            if (goalIsContradiction) SC1a();
+            else SG0e();
 
-                Timer timer = new Timer();
-                timer.schedule(new TimerTask() {
-                    @Override
-                    public void run() {
-                        latch.countDown();
-                    }
-                }, 250);   //250
+            List<Pair<List<StyledText>, Double>> helpPopups = new ArrayList<>(popups);
+            Platform.runLater(() -> showHelp(generation, start, helpPopups, true));
+        }
+        catch (HelpTimeoutException e) {
+            showFleetingPopup(generation, "Contextual help ran out of time for this derivation.");
+        }
+        catch (CancellationException e) {}
+        catch (RuntimeException e) {
+            e.printStackTrace();
+            List<StyledText> texts = new ArrayList<>();
+            texts.add(ParseUtilities.newRegularText("Contextual help could not be completed for this derivation."));
+            texts.add(ParseUtilities.newRegularText("\n\n" + e.getClass().getSimpleName() + (e.getMessage() == null ? "" : ": " + e.getMessage())));
+            List<Pair<List<StyledText>, Double>> errorPopups = Collections.singletonList(new Pair<>(texts, 0.0));
+            Platform.runLater(() -> showHelp(generation, start, errorPopups, false));
+        }
+        finally {
+            for (Future<Object> future : probes.values()) future.cancel(true);
+            probes.clear();
+        }
+    }
 
-                setAccessibleFormulas();
-                findTermsInFormulas();
-                setEObtainableFormulas();
-                setEPotentialFormulas();
-                processEqualities();
-                processEqualities();
-                latch.countDown();
+    private void showFleetingPopup(long generation, String message) {
+        Platform.runLater(() -> {
+            if (generation == helpGeneration.get()) EditorAlerts.fleetingRedPopup(message);
+        });
+    }
 
-                try {
-                    latch.await();
-                    SC1a();
-                } catch (InterruptedException e) {  }
-            }
+    /*
+     * Show help windows (last first, so the first is on top), unless the help is stale; countTry is false for a popup
+     * that reports a failure of the help.  Where help windows were showing, the new ones wait until 250ms after the
+     * request, to let the old ones close (esp. on Mac).
+     */
+    private void showHelp(long generation, long start, List<Pair<List<StyledText>, Double>> helpPopups, boolean countTry) {
+        if (generation != helpGeneration.get()) return;
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        if (helpShowing && elapsedMillis < 250) {
+            PauseTransition pause = new PauseTransition(Duration.millis(250 - elapsedMillis));
+            pause.setOnFinished(e -> {
+                helpShowing = false;
+                showHelp(generation, start, helpPopups, countTry);
+            });
+            pause.play();
+            return;
+        }
 
-   //         System.out.println("obtainable size: " + eObtainableFormulas.size() + " potential size: " + ePotentialFormulas.size());
-   //         System.out.println("obtainable: " + eObtainableFormulas);
-  //          System.out.println("potential: " + ePotentialFormulas);
+        helpStages.clear();
+        for (Pair<List<StyledText>, Double> helpPopup : helpPopups) {
+            ExerciseHelpPopup popup = new ExerciseHelpPopup(helpPopup.getKey(), helpPopup.getValue());
+            helpStage = popup.getHelpStage();
+            helpStages.add(helpStage);
+        }
+        for (int i = helpStages.size() - 1; i >= 0; i--) {
+            Stage stage = helpStages.get(i);
+            stage.show();
+        }
 
-            for (int i = helpStages.size() - 1; i >= 0; i--) {
-                Stage stage = helpStages.get(i);
-                stage.show();
-            }
+        if (countTry && !derivationExercise.getMainWindow().isInstructorFunctions()) {
+            derivationCheck.setHelpTries(derivationCheck.getHelpTries() + 1);
+            derivationCheck.setHelpCounter();
         }
-        else {
+        derivationExercise.getMainWindow().getMainView().getBorderPane().requestFocus();
+    }
 
-            if (!helpShowing) {
-                setAccessibleFormulas();
-                findTermsInFormulas();
-                setEObtainableFormulas();
-                setEPotentialFormulas();
-                processEqualities();
-                processEqualities();
-                SG0e();
-            }
-            else {
-                CountDownLatch latch = new CountDownLatch(2);
+    private void addPopup(List<StyledText> texts) {
+        popups.add(new Pair<>(texts, windowOffset));
+    }
 
-                Timer timer = new Timer();
-                timer.schedule(new TimerTask() {
-                    @Override
-                    public void run() {
-                        latch.countDown();
-                    }
-                }, 250);   //250
+    private void checkProgress(long generation) {
+        if (generation != helpGeneration.get()) throw new CancellationException();
+        if (System.nanoTime() > deadline) throw new HelpTimeoutException();
+    }
 
-                setAccessibleFormulas();
-                findTermsInFormulas();
-                setEObtainableFormulas();
-                setEPotentialFormulas();
-                processEqualities();
-                processEqualities();
-                latch.countDown();
+    /*
+     * Stop a probe whose help is no longer wanted (the probe future is cancelled when its help finishes or is dropped)
+     */
+    private static void checkInterrupted() {
+        if (Thread.interrupted()) throw new CancellationException();
+    }
 
-                try {
-                    latch.await();
-                    SG0e();
-                } catch (InterruptedException e) { System.out.println(e.getMessage()); }
+    /*
+     * Start the probes the strategies for the goal may ask for
+     */
+    private void startProbes(boolean goalIsContradiction) {
+        for (Probe probe : Probe.values()) {
+            if (probe.contradictionGoal == null || probe.contradictionGoal == goalIsContradiction) {
+                probes.put(probe, probeExecutor.submit(() -> runProbe(probe)));
             }
+        }
+    }
 
-     //       System.out.println("obtainable size: " + eObtainableFormulas.size() + " potential size: " + ePotentialFormulas.size());
-     //       System.out.println("obtainable: " + eObtainableFormulas);
-    //        System.out.println("potential: " + ePotentialFormulas);
+    /*
+     * Result of a probe, waiting (until the deadline) for it to finish
+     */
+    private Object probe(Probe probe) {
+        Future<Object> future = probes.get(probe);
+        if (future == null) return runProbe(probe);
+        try {
+            return future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new HelpTimeoutException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
 
-            for (int i = helpStages.size() - 1; i >= 0; i--) {
-                Stage stage = helpStages.get(i);
-                stage.show();
-            }
+    private Object runProbe(Probe probe) {
+        switch (probe) {
+            case EQUALITY_INTRO: return targetIsEqualityIntro();
+            case TARGET_ACCESSIBLE: return formulaInList(targetFormula, accessibleFormulas);
+            case TARGET_OBTAINABLE: return formulaInList(targetFormula, eObtainableFormulas);
+            case TARGET_POTENTIAL: return formulaInList(targetFormula, ePotentialFormulas);
+            case CONTRADICTION_ACCESSIBLE: return contradictionInList(accessibleFormulas);
+            case CONTRADICTION_OBTAINABLE: return contradictionInList(eObtainableFormulas);
+            case CONTRADICTION_POTENTIAL: return atomicContradictionInList(ePotentialFormulas);
+            case DISJUNCTION_ACCESSIBLE: return availableDisjunction();
+            case EXISTENTIAL_ACCESSIBLE: return availableExistential();
+            case DISJUNCTION_OBTAINABLE: return disjunctionInList(eObtainableFormulas, accessibleFormulas);
+            case EXISTENTIAL_OBTAINABLE: return existentialInList(eObtainableFormulas, accessibleFormulas);
+            case DISJUNCTION_POTENTIAL: return disjunctionInList(ePotentialFormulas, eObtainableFormulas);
+            case EXISTENTIAL_POTENTIAL: return existentialInList(ePotentialFormulas, eObtainableFormulas);
+            case EXISTENTIAL_IN_POTENTIAL: return existentialInList(ePotentialFormulas, ePotentialFormulas);
+            case COMPLEX_NEGATION_ACCESSIBLE: return availableOrdinaryComplexNegation();
+            case NEGATED_DISJUNCTION_ACCESSIBLE: return availableNegatedDisjunction();
+            case NEGATED_EXISTENTIAL_ACCESSIBLE: return availableNegatedExistential();
+            case COMPLEX_NEGATION_OBTAINABLE: return complexNegationInList(eObtainableFormulas, accessibleFormulas);
+            case COMPLEX_NEGATION_POTENTIAL: return complexNegationInList(ePotentialFormulas, eObtainableFormulas);
+            default: throw new IllegalArgumentException(probe.toString());
         }
+    }
 
-        if (!derivationExercise.getMainWindow().isInstructorFunctions()) {
-            derivationCheck.setHelpTries(derivationCheck.getHelpTries() + 1);
-            derivationCheck.setHelpCounter();
+    private static ExecutorService newExecutor(int threads, String name) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /*
+     * Questions the strategies ask of the formula lists, with the goal (contradiction or not) whose strategies ask
+     * them; null for both
+     */
+    private enum Probe {
+        EQUALITY_INTRO(false),
+        TARGET_ACCESSIBLE(false),
+        TARGET_OBTAINABLE(false),
+        TARGET_POTENTIAL(false),
+        CONTRADICTION_ACCESSIBLE(null),
+        CONTRADICTION_OBTAINABLE(null),
+        CONTRADICTION_POTENTIAL(true),
+        DISJUNCTION_ACCESSIBLE(null),
+        EXISTENTIAL_ACCESSIBLE(null),
+        DISJUNCTION_OBTAINABLE(null),
+        EXISTENTIAL_OBTAINABLE(null),
+        DISJUNCTION_POTENTIAL(null),
+        EXISTENTIAL_POTENTIAL(false),
+        EXISTENTIAL_IN_POTENTIAL(true),
+        COMPLEX_NEGATION_ACCESSIBLE(true),
+        NEGATED_DISJUNCTION_ACCESSIBLE(true),
+        NEGATED_EXISTENTIAL_ACCESSIBLE(true),
+        COMPLEX_NEGATION_OBTAINABLE(true),
+        COMPLEX_NEGATION_POTENTIAL(true);
+
+        private final Boolean contradictionGoal;
+
+        Probe(Boolean contradictionGoal) {
+            this.contradictionGoal = contradictionGoal;
         }
-        derivationExercise.getMainWindow().getMainView().getBorderPane().requestFocus();
     }
 
+    private static class HelpTimeoutException extends RuntimeException {}
 
 
     private void SG0e() {
-        if (targetIsEqualityIntro()) {
+        if ((Boolean) probe(Probe.EQUALITY_INTRO)) {
             List texts = new ArrayList();
             texts.addAll(targetFormula.toTextList());
             texts.add(ParseUtilities.newRegularText(" follows immediately by equality intro."));
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             return;
         }
         else SG0a();
@@ -268,13 +406,11 @@ public class DerivationHelp {
 
     private void SG0a() {
         //target in accesible
-        if (formulaInList(targetFormula, accessibleFormulas)) {
+        if ((Boolean) probe(Probe.TARGET_ACCESSIBLE)) {
             List texts = new ArrayList();
             texts.addAll(targetFormula.toTextList());
             texts.add(ParseUtilities.newRegularText(" exists on an accessible line.  Reiterate."));
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             return;
         }
         else SG0b();
@@ -282,13 +418,11 @@ public class DerivationHelp {
 
     private void SG0b() {
         //target in EObtainable
-        if (formulaInList(targetFormula, eObtainableFormulas)) {
+        if ((Boolean) probe(Probe.TARGET_OBTAINABLE)) {
             List texts = new ArrayList();
             texts.addAll(targetFormula.toTextList());
             texts.add(ParseUtilities.newRegularText(" can be obtained (without subderivations) by exploitation rules.  Use E-rules to reach goal."));
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             return;
         }
         else SG1a();
@@ -296,11 +430,9 @@ public class DerivationHelp {
 
     private void SG1a() {
         //contradiction
-        if (contradictionInList(accessibleFormulas)) {
-            List<Text> texts = Collections.singletonList(ParseUtilities.newRegularText("There is a contradiction on accessible lines.  Set up to obtain goal by negation exploit and then use this contradiction."));
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+        if ((Boolean) probe(Probe.CONTRADICTION_ACCESSIBLE)) {
+            List<StyledText> texts = Collections.singletonList(ParseUtilities.newRegularText("There is a contradiction on accessible lines.  Set up to obtain goal by negation exploit and then use this contradiction."));
+            addPopup(texts);
             return;
         }
         else {
@@ -309,15 +441,13 @@ public class DerivationHelp {
     }
 
     private void SG1b() {
-        if (contradictionInList(eObtainableFormulas)) {
-            List<Text> texts = Collections.singletonList(ParseUtilities.newRegularText("A contradiction can be obtained (without subderivations) from accessible lines by exploitation rules.  Set up a subderivation to reach goal by negation exploit, and use this contradiction."));
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+        if ((Boolean) probe(Probe.CONTRADICTION_OBTAINABLE)) {
+            List<StyledText> texts = Collections.singletonList(ParseUtilities.newRegularText("A contradiction can be obtained (without subderivations) from accessible lines by exploitation rules.  Set up a subderivation to reach goal by negation exploit, and use this contradiction."));
+            addPopup(texts);
             return;
         }
         else {
-            if (helpStages.isEmpty()) {
+            if (popups.isEmpty()) {
                 footnotes.add(ParseUtilities.newRegularText("\n\u2022 No contradiction from accessible lines."));
             }
             SG2a();
@@ -326,7 +456,7 @@ public class DerivationHelp {
 
     private void SG2a() {
         //disjunction
-        String lineLabel = availableDisjunction();
+        String lineLabel = (String) probe(Probe.DISJUNCTION_ACCESSIBLE);
         if (!lineLabel.equals("0")) {
             List texts = new ArrayList();
             if (!variableScreen(lineLabel)) {
@@ -340,11 +470,9 @@ public class DerivationHelp {
                 texts.add(ParseUtilities.newRegularText(". It is natural to set up assumptions to reach the goal by disjunction exploit.\n\n" +
                         "But notice that this disjunction has a variable not free in any undischarged assumption that will be \"screened\" against universal introduction under the scope of an assumption for disjunction exploit." ));
             }
-            if (helpStages.isEmpty()) texts.addAll(footnotes);
+            if (popups.isEmpty()) texts.addAll(footnotes);
             else windowOffset = windowOffset + offsetIncrement;
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             Operator mainOp = targetFormula.getMainOperator();
    //         if (mainOp != null && mainOp.getType() != ExpressionType.DISJ_OP && mainOp.getType() != ExpressionType.CONJ_OP)
             SG3();
@@ -357,7 +485,7 @@ public class DerivationHelp {
 
     private void SG2Ea() {
         //existential
-        String lineLabel = availableExistential();
+        String lineLabel = (String) probe(Probe.EXISTENTIAL_ACCESSIBLE);
         if (!lineLabel.equals("0")) {
             List texts = new ArrayList();
             if (!variableScreen(lineLabel)) {
@@ -371,11 +499,9 @@ public class DerivationHelp {
                 texts.add(ParseUtilities.newRegularText(". It is natural to set up subderivation to obtain goal by existential exploit.\n\n" +
                         "But notice that this existential has a variable not free in any undischarged assumption that will be \"screened\" against universal introduction under the scope of the assumption for existential exploit."));
             }
-            if (helpStages.isEmpty()) texts.addAll(footnotes);
+            if (popups.isEmpty()) texts.addAll(footnotes);
             else windowOffset = windowOffset + offsetIncrement;
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             Operator mainOp = targetFormula.getMainOperator();
             SG3();
             return;
@@ -386,15 +512,13 @@ public class DerivationHelp {
     }
 
     private void SG2b() {
-        if (disjunctionInList(eObtainableFormulas, accessibleFormulas)) {
+        if ((Boolean) probe(Probe.DISJUNCTION_OBTAINABLE)) {
             List texts = new ArrayList();
             texts.add(ParseUtilities.newRegularText("A disjunction can be obtained (without subderivations) from accessible lines by exploitation rules.  Obtain the disjunction, and set up subderivations to obtain goal by disjunction exploit.\n\n"+
                     "\"This strategy, and others which suggest extracting a particular formula from accessible lines, is prone to \"false positives\".  Usually it will be obvious when this is so.\"));"));
-            if (helpStages.isEmpty()) texts.addAll(footnotes);
+            if (popups.isEmpty()) texts.addAll(footnotes);
             else windowOffset = windowOffset + offsetIncrement;
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             Operator mainOp = targetFormula.getMainOperator();
             SG3();
             return;
@@ -405,15 +529,13 @@ public class DerivationHelp {
     }
 
     private void SG2Eb() {
-        if (existentialInList(eObtainableFormulas, accessibleFormulas)) {
+        if ((Boolean) probe(Probe.EXISTENTIAL_OBTAINABLE)) {
             List texts = new ArrayList();
             texts.add(ParseUtilities.newRegularText("An existential can be obtained (without subderivations) from accessible lines by exploitation rules.  Obtain the existential, and set up subderivation to obtain goal by existential exploit.\n\n" +
                     "This strategy, and others which suggest extracting a particular formula from accessible lines, is prone to \"false positives\".  Usually it will be obvious when this is so."));
-            if (helpStages.isEmpty()) texts.addAll(footnotes);
+            if (popups.isEmpty()) texts.addAll(footnotes);
             else windowOffset = windowOffset + offsetIncrement;
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             Operator mainOp = targetFormula.getMainOperator();
             SG3();
             return;
@@ -430,15 +552,13 @@ public class DerivationHelp {
     }
 
     private void SG2c() {
-        if (disjunctionInList(ePotentialFormulas, eObtainableFormulas)) {
+        if ((Boolean) probe(Probe.DISJUNCTION_POTENTIAL)) {
             List texts = new ArrayList();
             texts.add(ParseUtilities.newRegularText("A disjunction can be found \"in\" accessible lines.  Setting new goal(s) as necessary; consider an attempt to obtain the disjunction; and set up subderivations to obtain goal by disjunction exploit.\n\n" +
                     "This strategy, and others which suggest extracting a particular formula from accessible lines, is prone to \"false positives\".  Usually it will be obvious when this is so."));
-            if (helpStages.isEmpty()) texts.addAll(footnotes);
+            if (popups.isEmpty()) texts.addAll(footnotes);
             else windowOffset = windowOffset + offsetIncrement;
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             SG5();
             return;
         }
@@ -448,15 +568,13 @@ public class DerivationHelp {
     }
 
     private void SG2Ec() {
-        if (existentialInList(ePotentialFormulas, eObtainableFormulas) ) {
+        if ((Boolean) probe(Probe.EXISTENTIAL_POTENTIAL)) {
             List texts = new ArrayList();
             texts.add(ParseUtilities.newRegularText("An existential can be found \"in\" accessible lines.  Setting new goal(s) as necessary; consider an attempt to obtain the existential; and set up subderivation to obtain goal by existential exploit.\n\n" +
                     "This strategy, and others which suggest extracting a particular formula from accessible lines, is prone to \"false positives\".  Usually it will be obvious when this is so."));
-            if (helpStages.isEmpty()) texts.addAll(footnotes);
+            if (popups.isEmpty()) texts.addAll(footnotes);
             else windowOffset = windowOffset + offsetIncrement;
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             SG5();
             return;
         }
@@ -466,16 +584,14 @@ public class DerivationHelp {
     }
 
     private void SG3() {
-        if (formulaInList(targetFormula, ePotentialFormulas)) {
+        if ((Boolean) probe(Probe.TARGET_POTENTIAL)) {
             List texts = new ArrayList();
             texts.addAll(targetFormula.toTextList());
             texts.add(ParseUtilities.newRegularText(" can be found \"in\" accessible lines.  Setting new goal(s) as necessary consider an attempt to exploit it out.\n\n" +
                     "This strategy, and others which suggest extracting a particular formula from accessible lines, is prone to \"false positives\".  Usually it will be obvious when this is so."));
-            if (helpStages.isEmpty()) texts.addAll(footnotes);
+            if (popups.isEmpty()) texts.addAll(footnotes);
             else windowOffset = windowOffset + offsetIncrement;
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
      //       SG4();
             SG4();
             return;
@@ -491,9 +607,9 @@ public class DerivationHelp {
         //main operator intro
         Operator mainOperator = targetFormula.getMainOperator();
         if (mainOperator != null) {
-            List<Text> opTexts = mainOperator.toTextList();
-            List<Text> opTexts2 = mainOperator.toTextList();
-            List<Text> opTexts3 = mainOperator.toTextList();
+            List<StyledText> opTexts = mainOperator.toTextList();
+            List<StyledText> opTexts2 = mainOperator.toTextList();
+            List<StyledText> opTexts3 = mainOperator.toTextList();
 
             if (mainOperator.getType() == ExpressionType.NEG_OP || mainOperator.getType() == ExpressionType.COND_OP) {
                 List texts = new ArrayList();
@@ -502,11 +618,9 @@ public class DerivationHelp {
                 texts.add(ParseUtilities.newRegularText(".  Set up subderivation to obtain goal by "));
                 texts.addAll(opTexts2);
                 texts.add(ParseUtilities.newRegularText("I."));
-                if (helpStages.isEmpty()) texts.addAll(footnotes);
+                if (popups.isEmpty()) texts.addAll(footnotes);
                 else windowOffset = windowOffset + offsetIncrement;
-                ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-                helpStage = popup.getHelpStage();
-                helpStages.add(helpStage);
+                addPopup(texts);
                 return;
             }
             else if (mainOperator.getType() == ExpressionType.BICOND_OP) {
@@ -516,11 +630,9 @@ public class DerivationHelp {
                 texts.add(ParseUtilities.newRegularText(".  Set up subderivations to obtain goal by "));
                 texts.addAll(opTexts2);
                 texts.add(ParseUtilities.newRegularText("I."));
-                if (helpStages.isEmpty()) texts.addAll(footnotes);
+                if (popups.isEmpty()) texts.addAll(footnotes);
                 else windowOffset = windowOffset + offsetIncrement;
-                ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-                helpStage = popup.getHelpStage();
-                helpStages.add(helpStage);
+                addPopup(texts);
                 return;
             }
             else if (mainOperator.getType() == ExpressionType.CONJ_OP) {
@@ -530,11 +642,9 @@ public class DerivationHelp {
                 texts.add(ParseUtilities.newRegularText(".  If you do not already have them, set the sides as new goals, for application of "));
                 texts.addAll(opTexts2);
                 texts.add(ParseUtilities.newRegularText("I."));
-                if (helpStages.isEmpty()) texts.addAll(footnotes);
+                if (popups.isEmpty()) texts.addAll(footnotes);
                 else windowOffset = windowOffset + offsetIncrement;
-                ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-                helpStage = popup.getHelpStage();
-                helpStages.add(helpStage);
+                addPopup(texts);
                 return;
             }
             else if (mainOperator.getType() == ExpressionType.UNIVERSAL_OP) {
@@ -545,11 +655,9 @@ public class DerivationHelp {
                 texts.add(ParseUtilities.newRegularText(".  Set an instance as new goal for application of "));
                 texts.addAll(opSymTxts);
                 texts.add(ParseUtilities.newRegularText("I - usually with a new variable."));
-                if (helpStages.isEmpty()) texts.addAll(footnotes);
+                if (popups.isEmpty()) texts.addAll(footnotes);
                 else windowOffset = windowOffset + offsetIncrement;
-                ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-                helpStage = popup.getHelpStage();
-                helpStages.add(helpStage);
+                addPopup(texts);
                 return;
             }
 
@@ -560,11 +668,9 @@ public class DerivationHelp {
                 texts.add(ParseUtilities.newRegularText(".  If you do not already have it, set one side or the other as new goal to use "));
                 texts.addAll(opTexts2);
                 texts.add(ParseUtilities.newRegularText("I."));
-                if (helpStages.isEmpty()) texts.addAll(footnotes);
+                if (popups.isEmpty()) texts.addAll(footnotes);
                 else windowOffset = windowOffset + offsetIncrement;
-                ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-                helpStage = popup.getHelpStage();
-                helpStages.add(helpStage);
+                addPopup(texts);
                 SG5();
                 return;
             }
@@ -577,11 +683,9 @@ public class DerivationHelp {
                 texts.add(ParseUtilities.newRegularText(".  If you do not already have it, set an instance as new goal to use "));
                 texts.addAll(opSymTxts);
                 texts.add(ParseUtilities.newRegularText("I."));
-                if (helpStages.isEmpty()) texts.addAll(footnotes);
+                if (popups.isEmpty()) texts.addAll(footnotes);
                 else windowOffset = windowOffset + offsetIncrement;
-                ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-                helpStage = popup.getHelpStage();
-                helpStages.add(helpStage);
+                addPopup(texts);
                 SG5();
                 return;
             }
@@ -600,32 +704,26 @@ public class DerivationHelp {
         if (derivationCheck.getDerivationRuleset().getName().equals("\ud835\udc41\ud835\udc37")) helpString = "Especially for an atomic, disjunction, or existential, set up to obtain goal by negation exploit.";
         else helpString = "Especially for an atomic or disjunction, set up to obtain goal by negation exploit.";
         texts.add(ParseUtilities.newRegularText(helpString));
-        if (helpStages.isEmpty()) texts.addAll(footnotes);
+        if (popups.isEmpty()) texts.addAll(footnotes);
         else windowOffset = windowOffset + offsetIncrement;
-        ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-        helpStage = popup.getHelpStage();
-        helpStages.add(helpStage);
+        addPopup(texts);
     }
 
     //strategies for contradiction
 
     private void SC1a() {
-        if (contradictionInList(accessibleFormulas)) {
-            List<Text> texts = Collections.singletonList(ParseUtilities.newRegularText("There is a contradiction on accessible lines.  Use this contradiction."));
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+        if ((Boolean) probe(Probe.CONTRADICTION_ACCESSIBLE)) {
+            List<StyledText> texts = Collections.singletonList(ParseUtilities.newRegularText("There is a contradiction on accessible lines.  Use this contradiction."));
+            addPopup(texts);
             return;
         }
         else SC1b();
     }
 
     private void SC1b() {
-        if (contradictionInList(eObtainableFormulas)) {
-            List<Text> texts = Collections.singletonList(ParseUtilities.newRegularText("A contradiction can be obtained (without subderivations) from accessible lines by exploitation rules.  Use this contradiction."));
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+        if ((Boolean) probe(Probe.CONTRADICTION_OBTAINABLE)) {
+            List<StyledText> texts = Collections.singletonList(ParseUtilities.newRegularText("A contradiction can be obtained (without subderivations) from accessible lines by exploitation rules.  Use this contradiction."));
+            addPopup(texts);
             return;
         }
         else {
@@ -635,12 +733,10 @@ public class DerivationHelp {
     }
 
     private void SC1c() {
-        if (atomicContradictionInList(ePotentialFormulas)) {
-            List<Text> texts = Collections.singletonList(ParseUtilities.newRegularText("There is a contradiction \"in\" accessible lines.  Setting new goal(s) as necessary, consider an attempt to exploit it out.\n\n" +
+        if ((Boolean) probe(Probe.CONTRADICTION_POTENTIAL)) {
+            List<StyledText> texts = Collections.singletonList(ParseUtilities.newRegularText("There is a contradiction \"in\" accessible lines.  Setting new goal(s) as necessary, consider an attempt to exploit it out.\n\n" +
                     "This strategy, and others which suggest extracting a particular formula from accessible lines, is prone to \"false positives\".  Usually it will be obvious when this is so."));
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             SC2a();
         }
         else {
@@ -650,7 +746,7 @@ public class DerivationHelp {
     }
 
     private void SC2a() {
-        String lineLabel = availableDisjunction();
+        String lineLabel = (String) probe(Probe.DISJUNCTION_ACCESSIBLE);
         if (!lineLabel.equals("0")) {
             List texts = new ArrayList();
             if (!variableScreen(lineLabel)) {
@@ -664,18 +760,16 @@ public class DerivationHelp {
                 texts.add(ParseUtilities.newRegularText(". It is natural to set up assumptions to reach the \u22a5 by disjunction exploit.\n\n" +
                         "But notice that this disjunction has a variable not free in any undischarged assumption that will be \"screened\" against universal introduction under the scope of an assumption for disjunction exploit." ));
             }
-            if (helpStages.isEmpty()) texts.addAll(footnotes);
+            if (popups.isEmpty()) texts.addAll(footnotes);
             else windowOffset = windowOffset + offsetIncrement;
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             return;
         }
         else SC2Ea();
     }
 
     private void SC2Ea() {
-        String lineLabel = availableExistential();
+        String lineLabel = (String) probe(Probe.EXISTENTIAL_ACCESSIBLE);
         if (!lineLabel.equals("0")) {
             List texts = new ArrayList();
             if (!variableScreen(lineLabel)) {
@@ -689,26 +783,22 @@ public class DerivationHelp {
                 texts.add(ParseUtilities.newRegularText(". It is natural to set up subderivation to obtain \u22a5 by existential exploit.\n\n" +
                         "But notice that this existential has a variable not free in any undischarged assumption that will be \"screened\" against universal introduction under the scope of the assumption for existential exploit."));
             }
-            if (helpStages.isEmpty()) texts.addAll(footnotes);
+            if (popups.isEmpty()) texts.addAll(footnotes);
             else windowOffset = windowOffset + offsetIncrement;
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             return;
         } else SC2b();
     }
 
     private void SC2b() {
 
-        if (disjunctionInList(eObtainableFormulas, accessibleFormulas)) {
+        if ((Boolean) probe(Probe.DISJUNCTION_OBTAINABLE)) {
             List texts = new ArrayList();
             texts.add(ParseUtilities.newRegularText("A disjunction can be obtained (without subderivations) from accessible lines by exploitation rules.  Obtain the disjunction, and set up subderivations to obtain \u22a5 by disjunction exploit.\n\n"+
                     "\"This strategy, and others which suggest extracting a particular formula from accessible lines, is prone to \"false positives\".  Usually it will be obvious when this is so.\"));"));
-            if (helpStages.isEmpty()) texts.addAll(footnotes);
+            if (popups.isEmpty()) texts.addAll(footnotes);
             else windowOffset = windowOffset + offsetIncrement;
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             SC3a();
         }
         else {
@@ -718,15 +808,13 @@ public class DerivationHelp {
 
     private void SC2Eb() {
 
-        if (existentialInList(eObtainableFormulas, accessibleFormulas)) {
+        if ((Boolean) probe(Probe.EXISTENTIAL_OBTAINABLE)) {
             List texts = new ArrayList();
             texts.add(ParseUtilities.newRegularText("An existential can be obtained (without subderivations) from accessible lines by exploitation rules.  Obtain the existential, and set up subderivation to obtain \u22a5 by existential exploit.\n\n"+
                     "This strategy, and others which suggest extracting a particular formula from accessible lines, is prone to \"false positives\".  Usually it will be obvious when this is so."));
-            if (helpStages.isEmpty()) texts.addAll(footnotes);
+            if (popups.isEmpty()) texts.addAll(footnotes);
             else windowOffset = windowOffset + offsetIncrement;
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             SC3a();
             return;
         }
@@ -741,15 +829,13 @@ public class DerivationHelp {
 
     private void SC2c() {
 
-        if (disjunctionInList(ePotentialFormulas, eObtainableFormulas)) {
+        if ((Boolean) probe(Probe.DISJUNCTION_POTENTIAL)) {
             List texts = new ArrayList();
             texts.add(ParseUtilities.newRegularText("A disjunction can be found \"in\" accessible lines.  Setting new goal(s) as necessary consider an attempt to obtain the disjunction; then set up subderivations to obtain \u22a5 by disjunction exploit.\n\n" +
                     "This strategy, and others which suggest extracting a particular formula from accessible lines, is prone to \"false positives\".  Usually it will be obvious when this is so."));
-            if (helpStages.isEmpty()) texts.addAll(footnotes);
+            if (popups.isEmpty()) texts.addAll(footnotes);
             else windowOffset = windowOffset + offsetIncrement;
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             SC3d();
         }
         else {
@@ -759,15 +845,13 @@ public class DerivationHelp {
 
     private void SC2Ec() {
 
-        if (existentialInList(ePotentialFormulas, ePotentialFormulas)) {
+        if ((Boolean) probe(Probe.EXISTENTIAL_IN_POTENTIAL)) {
             List texts = new ArrayList();
             texts.add(ParseUtilities.newRegularText("An existential can be found \"in\" accessible lines.  Setting new goal(s) as necessary consider an attempt to obtain the existential; then set up subderivation to obtain \u22a5 by existentialexploit.\n\n" +
                     "This strategy, and others which suggest extracting a particular formula from accessible lines, is prone to \"false positives\".  Usually it will be obvious when this is so."));
-            if (helpStages.isEmpty()) texts.addAll(footnotes);
+            if (popups.isEmpty()) texts.addAll(footnotes);
             else windowOffset = windowOffset + offsetIncrement;
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             SC3d();
         }
         else {
@@ -776,51 +860,49 @@ public class DerivationHelp {
     }
 
     private void SC3a() {
-        String lineLabel = availableOrdinaryComplexNegation();
+        String lineLabel = (String) probe(Probe.COMPLEX_NEGATION_ACCESSIBLE);
         if (!lineLabel.equals("0")) {
             List texts = new ArrayList();
             texts.add(ParseUtilities.newRegularText("There is an available complex negation \u223c\ud835\udcab on line "));
             texts.add(ParseUtilities.newRegularText(lineLabel));
             texts.add(ParseUtilities.newRegularText(".   Set its opposite \ud835\udcab as goal, and use the pair of them for contradiction."));
-            if (helpStages.isEmpty()) texts.addAll(footnotes);
+            if (popups.isEmpty()) texts.addAll(footnotes);
             else windowOffset = windowOffset + offsetIncrement;
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             return;
         }
         else SC3b();
     }
 
     private void SC3b() {
-        String lineLabel = availableNegatedDisjunction();
+        Pair<String, String> negatedDisjunction = (Pair<String, String>) probe(Probe.NEGATED_DISJUNCTION_ACCESSIBLE);
+        String lineLabel = negatedDisjunction.getKey();
+        disjunctionStatus = negatedDisjunction.getValue();
         if (!lineLabel.equals("0")) {
             List texts = new ArrayList();
             texts.add(ParseUtilities.newRegularText("There is " + disjunctionStatus + " negated disjunction ∼(\uD835\uDCAB ∨ \uD835\uDCAC) on line "));
             texts.add(ParseUtilities.newRegularText(lineLabel));
             texts.add(ParseUtilities.newRegularText(".   Set its opposite \uD835\uDCAB ∨ \uD835\uDCAC as goal, and use the pair of them for contradiction."));
-            if (helpStages.isEmpty()) texts.addAll(footnotes);
+            if (popups.isEmpty()) texts.addAll(footnotes);
             else windowOffset = windowOffset + offsetIncrement;
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             return;
         }
         else SC3Eb();
     }
 
     private void SC3Eb() {
-        String lineLabel = availableNegatedExistential();
+        Pair<String, String> negatedExistential = (Pair<String, String>) probe(Probe.NEGATED_EXISTENTIAL_ACCESSIBLE);
+        String lineLabel = negatedExistential.getKey();
+        disjunctionStatus = negatedExistential.getValue();
         if (!lineLabel.equals("0")) {
             List texts = new ArrayList();
             texts.add(ParseUtilities.newRegularText("There is " + disjunctionStatus + " negated existential ∼\u2203\ud835\udccd\ud835\udcab on line "));
             texts.add(ParseUtilities.newRegularText(lineLabel));
             texts.add(ParseUtilities.newRegularText(".  Set its opposite \u2203\ud835\udccd\ud835\udcab as goal, and use the pair of them for contradiction."));
-            if (helpStages.isEmpty()) texts.addAll(footnotes);
+            if (popups.isEmpty()) texts.addAll(footnotes);
             else windowOffset = windowOffset + offsetIncrement;
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             return;
         }
         else SC3c();
@@ -829,14 +911,12 @@ public class DerivationHelp {
 
 
     private void SC3c() {
-        if (complexNegationInList(eObtainableFormulas, accessibleFormulas)) {
+        if ((Boolean) probe(Probe.COMPLEX_NEGATION_OBTAINABLE)) {
             List texts = new ArrayList();
             texts.add(ParseUtilities.newRegularText("A complex negation \u223c\ud835\udcab can be obtained (without subderivations) from accessible lines by exploitation rules.  Obtain this negation; then set its opposite \ud835\udcab as a new goal -- and use them for contradiction."));
-            if (helpStages.isEmpty()) texts.addAll(footnotes);
+            if (popups.isEmpty()) texts.addAll(footnotes);
             else windowOffset = windowOffset + offsetIncrement;
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             return;
         }
         else {
@@ -846,15 +926,13 @@ public class DerivationHelp {
     }
 
     private void SC3d() {
-        if (complexNegationInList(ePotentialFormulas, eObtainableFormulas)) {
+        if ((Boolean) probe(Probe.COMPLEX_NEGATION_POTENTIAL)) {
             List texts = new ArrayList();
             texts.add(ParseUtilities.newRegularText("A complex negation \u223c\ud835\udcab can be found \"in\" accessible lines.   Setting new goal(s) as necessary consider an attempt to exploit it out.  Then set its opposite \uD835\uDCAB as a new goal, and then use the pair of them for contradiction.\n\n" +
                     "This strategy, and others which suggest extracting a particular formula from accessible lines, is prone to \"false positives\".  Usually it will be obvious when this is so."));
-            if (helpStages.isEmpty()) texts.addAll(footnotes);
+            if (popups.isEmpty()) texts.addAll(footnotes);
             else windowOffset = windowOffset + offsetIncrement;
-            ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-            helpStage = popup.getHelpStage();
-            helpStages.add(helpStage);
+            addPopup(texts);
             SC4();
         }
         else {
@@ -867,15 +945,14 @@ public class DerivationHelp {
         texts.add(ParseUtilities.newRegularText("For some \ud835\udcab such that both \ud835\udcab and \u223c\ud835\udcab lead to contradiction: " +
                 "Assume \ud835\udcab (\u223c\ud835\udcab), and obtain the first contradiction to conclude \u223c\ud835\udcab (\ud835\udcab); then from that obtain the second contradiction.\n\n" +
                 "Note: This is the hardest strategy to apply because it can be difficult to identify a \ud835\udcab to do the job.  The best you can do is look for it!"));
-        if (helpStages.isEmpty()) texts.addAll(footnotes);
+        if (popups.isEmpty()) texts.addAll(footnotes);
         else windowOffset = windowOffset + offsetIncrement;
-        ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
-        helpStage = popup.getHelpStage();
-        helpStages.add(helpStage);
+        addPopup(texts);
     }
 
 
     private void setEPotentialFormulas() {
+        MatchContext context = new MatchContext();
         ePotentialFormulas = new ArrayList<>(eObtainableFormulas);
 
         boolean changes = true;
@@ -885,15 +962,15 @@ public class DerivationHelp {
             for (Formula formula : ePotentialFormulas) {
 
                 //process conjunctions
-                Document PandQform = new Document("(\ud835\udcab \u2227 \ud835\udcac)");
+                CompiledForm PandQform = forms.conjunction;
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MatchUtilities.simpleExpFormMatch(PandQform, formula, objectLanguage.getNameString(), metaLanguage.getNameString() );
+                    context.clear();
+                    MatchUtilities.simpleExpFormMatch(context, PandQform, formula, objectLanguage.getNameString());
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcab", "")) ) {
-                            Formula matchFormula = mForm.getMatch();
+                            Formula matchFormula = mForm.getMatch(context);
                             if (!formulaInList(matchFormula, ePotentialFormulas)) {
-                                ePotentialFormulas.add(matchFormula);
+                                ePotentialFormulas.add(interner.internShared(matchFormula));
                                 changes = true;
                                 continue whileLoop;
                             }
@@ -902,13 +979,13 @@ public class DerivationHelp {
                 } catch (TextMessageException e) {}
 
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MatchUtilities.simpleExpFormMatch(PandQform, formula, objectLanguage.getNameString(), metaLanguage.getNameString() );
+                    context.clear();
+                    MatchUtilities.simpleExpFormMatch(context, PandQform, formula, objectLanguage.getNameString());
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", ""))) {
-                            Formula matchFormula = mForm.getMatch();
+                            Formula matchFormula = mForm.getMatch(context);
                             if (!formulaInList(matchFormula, ePotentialFormulas)) {
-                                ePotentialFormulas.add(matchFormula);
+                                ePotentialFormulas.add(interner.internShared(matchFormula));
                                 changes = true;
                                 continue whileLoop;
                             }
@@ -917,15 +994,15 @@ public class DerivationHelp {
                 } catch (TextMessageException e) {}
 
                 //process conditionals
-                Document PimpQform = new Document("(\ud835\udcab \u2192 \ud835\udcac)");
+                CompiledForm PimpQform = forms.conditional;
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MatchUtilities.simpleExpFormMatch(PimpQform, formula, objectLanguage.getNameString(), metaLanguage.getNameString() );
+                    context.clear();
+                    MatchUtilities.simpleExpFormMatch(context, PimpQform, formula, objectLanguage.getNameString());
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", "")) ) {
-                            Formula matchFormula = mForm.getMatch();
+                            Formula matchFormula = mForm.getMatch(context);
                             if (!formulaInList(matchFormula, ePotentialFormulas)) {
-                                ePotentialFormulas.add(matchFormula);
+                                ePotentialFormulas.add(interner.internShared(matchFormula));
                                 changes = true;
                                 continue whileLoop;
                             }
@@ -935,15 +1012,15 @@ public class DerivationHelp {
 
 
                 //process biconditionals
-                Document PbimpQform = new Document("(\ud835\udcab \u2194 \ud835\udcac)");
+                CompiledForm PbimpQform = forms.biconditional;
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MatchUtilities.simpleExpFormMatch(PbimpQform, formula, objectLanguage.getNameString(), metaLanguage.getNameString() );
+                    context.clear();
+                    MatchUtilities.simpleExpFormMatch(context, PbimpQform, formula, objectLanguage.getNameString());
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcab", "")) ) {
-                            Formula matchFormula = mForm.getMatch();
+                            Formula matchFormula = mForm.getMatch(context);
                             if (!formulaInList(matchFormula, ePotentialFormulas)) {
-                                ePotentialFormulas.add(matchFormula);
+                                ePotentialFormulas.add(interner.internShared(matchFormula));
                                 changes = true;
                                 continue whileLoop;
                             }
@@ -952,13 +1029,13 @@ public class DerivationHelp {
                 } catch (TextMessageException e) {}
 
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MatchUtilities.simpleExpFormMatch(PbimpQform, formula, objectLanguage.getNameString(), metaLanguage.getNameString() );
+                    context.clear();
+                    MatchUtilities.simpleExpFormMatch(context, PbimpQform, formula, objectLanguage.getNameString());
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", ""))) {
-                            Formula matchFormula = mForm.getMatch();
+                            Formula matchFormula = mForm.getMatch(context);
                             if (!formulaInList(matchFormula, ePotentialFormulas)) {
-                                ePotentialFormulas.add(matchFormula);
+                                ePotentialFormulas.add(interner.internShared(matchFormula));
                                 changes = true;
                                 continue whileLoop;
                             }
@@ -967,21 +1044,21 @@ public class DerivationHelp {
                 } catch (TextMessageException e) {}
 
                 //process universals
-                Document univForm = new Document("\u2200\ud835\udccd\ud835\udcab");
+                CompiledForm univForm = forms.universal;
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MVariable.clear();
-                    MatchUtilities.simpleExpFormMatch(univForm, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                    context.clear();
+                    context.clearBindings(MVariable.class);
+                    MatchUtilities.simpleExpFormMatch(context, univForm, formula, objectLanguage.getNameString());
                     Formula matchFormula = null;
                     Term quantifiedVariable = null;
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcab", ""))) {
-                            matchFormula = mForm.getMatch();
+                            matchFormula = mForm.getMatch(context);
                         }
                     }
                     for (MVariable mVariable : MVariable.getVariables()) {
                         if (mVariable.getBaseStr().equals("\ud835\udccd")) {
-                            VariableSym variableSym = mVariable.getMatch();
+                            VariableSym variableSym = mVariable.getMatch(context);
                             Term term = new Term();
                             term.setLevel(0);
                             ArrayList children = new ArrayList();
@@ -995,8 +1072,8 @@ public class DerivationHelp {
                     for (Term term : termList) {
                         Formula subForm = substituteForTermInFormula(matchFormula, quantifiedVariable, term);
 
-                        if (!ePotentialFormulas.contains(subForm)) {
-                            ePotentialFormulas.add(subForm);
+                        if (!formulaInList(subForm, ePotentialFormulas)) {
+                            ePotentialFormulas.add(interner.internShared(subForm));
                             changes = true;
                             continue whileLoop;
                         }
@@ -1009,6 +1086,7 @@ public class DerivationHelp {
 
 
     private void setEObtainableFormulas() {
+        MatchContext context = new MatchContext();
         eObtainableFormulas = new ArrayList<>(accessibleFormulas);
 
 
@@ -1022,15 +1100,15 @@ public class DerivationHelp {
             for (Formula formula : eObtainableFormulas) {
 
                 //process conjunctions
-                Document PandQform = new Document("(\ud835\udcab \u2227 \ud835\udcac)");
+                CompiledForm PandQform = forms.conjunction;
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MatchUtilities.simpleExpFormMatch(PandQform, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                    context.clear();
+                    MatchUtilities.simpleExpFormMatch(context, PandQform, formula, objectLanguage.getNameString());
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcab", ""))) {
-                            Formula matchFormula = mForm.getMatch();
+                            Formula matchFormula = mForm.getMatch(context);
                             if (!formulaInList(matchFormula, eObtainableFormulas)) {
-                                eObtainableFormulas.add(matchFormula);
+                                eObtainableFormulas.add(interner.internShared(matchFormula));
                                 changes = true;
                                 continue whileLoop;
                             }
@@ -1040,13 +1118,13 @@ public class DerivationHelp {
                 }
 
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MatchUtilities.simpleExpFormMatch(PandQform, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                    context.clear();
+                    MatchUtilities.simpleExpFormMatch(context, PandQform, formula, objectLanguage.getNameString());
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", ""))) {
-                            Formula matchFormula = mForm.getMatch();
+                            Formula matchFormula = mForm.getMatch(context);
                             if (!formulaInList(matchFormula, eObtainableFormulas)) {
-                                eObtainableFormulas.add(matchFormula);
+                                eObtainableFormulas.add(interner.internShared(matchFormula));
                                 changes = true;
                                 continue whileLoop;
                             }
@@ -1056,21 +1134,21 @@ public class DerivationHelp {
                 }
 
                 //process conditionals
-                Document PimpQform = new Document("(\ud835\udcab \u2192 \ud835\udcac)");
+                CompiledForm PimpQform = forms.conditional;
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MatchUtilities.simpleExpFormMatch(PimpQform, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                    context.clear();
+                    MatchUtilities.simpleExpFormMatch(context, PimpQform, formula, objectLanguage.getNameString());
                     Formula antecedent = null;
                     Formula consequent = null;
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcab", "")))
-                            antecedent = mForm.getMatch();
+                            antecedent = mForm.getMatch(context);
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", "")))
-                            consequent = mForm.getMatch();
+                            consequent = mForm.getMatch(context);
                     }
                     if (antecedent != null && consequent != null && formulaInList(antecedent, eObtainableFormulas)) {
                         if (!formulaInList(consequent, eObtainableFormulas)) {
-                            eObtainableFormulas.add(consequent);
+                            eObtainableFormulas.add(interner.internShared(consequent));
                             changes = true;
                             continue whileLoop;
                         }
@@ -1079,28 +1157,28 @@ public class DerivationHelp {
                 }
 
                 //process biconditionals
-                Document PbimpQform = new Document("(\ud835\udcab \u2194 \ud835\udcac)");
+                CompiledForm PbimpQform = forms.biconditional;
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MatchUtilities.simpleExpFormMatch(PbimpQform, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                    context.clear();
+                    MatchUtilities.simpleExpFormMatch(context, PbimpQform, formula, objectLanguage.getNameString());
                     Formula leftSide = null;
                     Formula rightSide = null;
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcab", "")))
-                            leftSide = mForm.getMatch();
+                            leftSide = mForm.getMatch(context);
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", "")))
-                            rightSide = mForm.getMatch();
+                            rightSide = mForm.getMatch(context);
                     }
                     if (leftSide != null && rightSide != null && formulaInList(leftSide, eObtainableFormulas)) {
                         if (!formulaInList(rightSide, eObtainableFormulas)) {
-                            eObtainableFormulas.add(rightSide);
+                            eObtainableFormulas.add(interner.internShared(rightSide));
                             changes = true;
                             continue whileLoop;
                         }
                     }
                     if (leftSide != null && rightSide != null && formulaInList(rightSide, eObtainableFormulas)) {
                         if (!formulaInList(leftSide, eObtainableFormulas)) {
-                            eObtainableFormulas.add(leftSide);
+                            eObtainableFormulas.add(interner.internShared(leftSide));
                             changes = true;
                             continue whileLoop;
                         }
@@ -1109,21 +1187,21 @@ public class DerivationHelp {
                 }
 
                 //process universals
-                Document univForm = new Document("\u2200\ud835\udccd\ud835\udcab");
+                CompiledForm univForm = forms.universal;
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MVariable.clear();
-                    MatchUtilities.simpleExpFormMatch(univForm, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                    context.clear();
+                    context.clearBindings(MVariable.class);
+                    MatchUtilities.simpleExpFormMatch(context, univForm, formula, objectLanguage.getNameString());
                     Formula matchFormula = null;
                     Term quantifiedVariable = null;
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcab", ""))) {
-                            matchFormula = mForm.getMatch();
+                            matchFormula = mForm.getMatch(context);
                         }
                     }
                     for (MVariable mVariable : MVariable.getVariables()) {
                         if (mVariable.getBaseStr().equals("\ud835\udccd")) {
-                            VariableSym variableSym = mVariable.getMatch();
+                            VariableSym variableSym = mVariable.getMatch(context);
                             Term term = new Term();
                             term.setLevel(0);
                             ArrayList children = new ArrayList();
@@ -1137,8 +1215,8 @@ public class DerivationHelp {
                     for (Term term : termList) {
                         Formula subForm = substituteForTermInFormula(matchFormula, quantifiedVariable, term);
 
-                        if (!eObtainableFormulas.contains(subForm)) {
-                            eObtainableFormulas.add(subForm);
+                        if (!formulaInList(subForm, eObtainableFormulas)) {
+                            eObtainableFormulas.add(interner.internShared(subForm));
                             changes = true;
                             continue whileLoop;
                         }
@@ -1153,144 +1231,28 @@ public class DerivationHelp {
 
     //process equalities
 
-     /*
-    Cannot treat equality with other expressions.  Equality need not result in "smaller" experssions.
-    So Rf1j and f1j = j give Rf1f1j, Rf1f1f1j, etc.  This applies an equality to every applicable formula in list.
-    Then for now we process the list twice (from the main caller).
+    /*
+     * Add to the obtainable and potential formulas those obtainable from each list by its equalities, with a footnote
+     * if either closure stopped at its limit
      */
-
     private void processEqualities() {
-        List<Formula> eCandidateList = new ArrayList(eObtainableFormulas);
-        List<Formula> pCandidateList  = new ArrayList(ePotentialFormulas);
-        List<Formula> eNewList = new ArrayList();
-        List<Formula> pNewList = new ArrayList();
-
-        Document equalityForm = new Document("\uE8AC\uD835\uDCC8\uD835\uDCC9");
-
-        for (Formula formula : eObtainableFormulas) {
-            try {
-                MatchUtilities.clearFormMatch();
-                MatchUtilities.simpleExpFormMatch(equalityForm, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                Term termS = null;
-                Term termT = null;
-                for (MTerm mTerm : MTerm.getmTerms()) {
-                    if (mTerm.getmTermSym().equals(new MTermSym("\ud835\udcc8", ""))) termS = mTerm.getMatch();
-                    if (mTerm.getmTermSym().equals(new MTermSym("\ud835\udcc9", ""))) termT = mTerm.getMatch();
-                }
-                if (!termS.equals(termT)) {
-                    eNewList.addAll(applyEquality(termS, termT, eCandidateList));
-                }
-            } catch (TextMessageException e) {   }
-        }
-
-        for (Formula formula : ePotentialFormulas) {
-            try {
-                MatchUtilities.clearFormMatch();
-                MatchUtilities.simpleExpFormMatch(equalityForm, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                Term termS = null;
-                Term termT = null;
-                for (MTerm mTerm : MTerm.getmTerms()) {
-                    if (mTerm.getmTermSym().equals(new MTermSym("\ud835\udcc8", ""))) termS = mTerm.getMatch();
-                    if (mTerm.getmTermSym().equals(new MTermSym("\ud835\udcc9", ""))) termT = mTerm.getMatch();
-                }
-                if (!termS.equals(termT)) {
-                    pNewList.addAll(applyEquality(termS, termT, pCandidateList));
-                }
-            } catch (TextMessageException e) {   }
-        }
-
-        eObtainableFormulas.addAll(eNewList);
-        ePotentialFormulas.addAll(pNewList);
-    }
-
-
-
-
-    private List<Formula> applyEquality(Term termS, Term termT, List<Formula> candidateList) {
-        List<Formula> newFormulas = new ArrayList();
-
-        for (Formula candidateForm : candidateList) {
-            termList2.clear();
-            addFreeInstancesToList(candidateForm, termS, candidateForm);
-            if (!termList2.isEmpty()) {
-                List<List<Expression>> freeTermSets = getAllSubsets(termList2);
-                for (List<Expression> subset : freeTermSets) {
-                    boolean allFreeFor = true;
-                    for (Expression term : subset) {
-                        if (!SyntacticalFns.freeForExp(candidateForm, term, termT, objectLanguage.getNameString())) {
-                            allFreeFor = false;
-                            break;
-                        }
-                    }
-                    if (allFreeFor) {
-                        Expression newFormula = SyntacticalFns.substituteParticularTerms(candidateForm, termT, subset);
-                        if (!newFormulas.contains(newFormula) && !candidateList.contains(newFormula)) {
-                            newFormulas.add((Formula) newFormula);
-                        }
-                    }
-                }
-            }
-        }
-        for (Formula candidateForm : candidateList) {
-            termList2.clear();
-            addFreeInstancesToList(candidateForm, termT, candidateForm);
-            if (!termList2.isEmpty()) {
-                List<List<Expression>> freeTermSets = getAllSubsets(termList2);
-                for (List<Expression> subset : freeTermSets) {
-                    boolean allFreeFor = true;
-                    for (Expression term : subset) {
-                        if (!SyntacticalFns.freeForExp(candidateForm, term, termS, objectLanguage.getNameString())) {
-                            allFreeFor = false;
-                            break;
-                        }
-                    }
-                    if (allFreeFor) {
-                        Expression newFormula = SyntacticalFns.substituteParticularTerms(candidateForm, termS, subset);
-                        if (!newFormulas.contains(newFormula) && !candidateList.contains(newFormula)) {
-                            newFormulas.add((Formula) newFormula);
-                        }
-                    }
-                }
-            }
-        }
-        return newFormulas;
-    }
-
-
-
-    public static List<List<Expression>> getAllSubsets(List<Expression> input) {
-        int allMasks = 1 << input.size();
-        List<List<Expression>> output = new ArrayList<List<Expression>>();
-        for(int i = 1; i < allMasks; i++) {
-            List<Expression> sub = new ArrayList<Expression>();
-            for(int j = 0; j < input.size(); j++) {
-                if((i & (1 << j)) > 0) {
-                    sub.add(input.get(j));
-                }
-            }
-            output.add(sub);
-        }
-        return output;
-    }
-
-    private void addFreeInstancesToList(Expression processedExp, Term term, Formula formula) {
-        if (processedExp instanceof Term && processedExp.equals(term) && SyntacticalFns.particularTermsFreeInFormula(formula, Collections.singletonList(processedExp), objectLanguage.getNameString())) termList2.add((Term) processedExp);
-
-        if (processedExp.getChildren() != null && processedExp.getLevel() > 0) {
-            for (int i = 0; i < processedExp.getChildren().size(); i++) {
-                addFreeInstancesToList(processedExp.getChildren().get(i), term, formula);
-            }
+        EqualityClosure equalityClosure = new EqualityClosure(objectLanguage, metaLanguage, interner);
+        equalityClosure.close(eObtainableFormulas);
+        boolean limitReached = equalityClosure.isLimitReached();
+        equalityClosure.close(ePotentialFormulas);
+        if (limitReached || equalityClosure.isLimitReached()) {
+            footnotes.add(ParseUtilities.newRegularText("\n\u2022 Too many formulas from equalities; help considers only some of them."));
         }
     }
 
 
     private void setAccessibleFormulas() {
         accessibleFormulas = new ArrayList<>();
-        for (ViewLine line : viewLines) {
+        for (CheckLine line : checkLines) {
             if (LineType.isContentLine(line.getLineType())) {
-                if (derivationCheck.lineIsAccessibleTo(line, targetLine).getKey()) {
-                    Formula lineForm = getFormulaFromViewLine(line);
-                    if (lineForm != null && !formulaInList(lineForm, accessibleFormulas)) accessibleFormulas.add(lineForm);
+                if (helpCheck.lineIsAccessibleTo(line, targetLine).getKey()) {
+                    Formula lineForm = line.getFormula();
+                    if (lineForm != null && !formulaInList(lineForm, accessibleFormulas)) accessibleFormulas.add(interner.internShared(lineForm));
                 }
             }
         }
@@ -1298,15 +1260,17 @@ public class DerivationHelp {
 
     //complex negation in formula list but not exclude list
     private boolean complexNegationInList(List<Formula> formulaList, List<Formula> excludeList) {
-        Document negationForm = new Document("\u223c\ud835\udcac");
+        MatchContext context = new MatchContext();
+        CompiledForm negationForm = forms.negation;
         for (Formula formula : formulaList) {
-            MatchUtilities.clearFormMatch();
+            checkInterrupted();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(negationForm, formula, objectLanguage.getNameString(), metaLanguage.getNameString() );
-                Formula matchForm = (Formula) ParseUtilities.parseDoc(negationForm, metaLanguage.getNameString()).get(0).getMatch();
+                MatchUtilities.simpleExpFormMatch(context, negationForm, formula, objectLanguage.getNameString());
+                Formula matchForm = (Formula) negationForm.getMatch(context);
                 for (MFormula mForm : MFormula.getmFormulas()) {
                     if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", ""))) {
-                        Formula immediateSub = mForm.getMatch();
+                        Formula immediateSub = mForm.getMatch(context);
                         if (!immediateSub.isAtomic() ) {
                             if (!excludeList.contains((Formula) matchForm)) return true;
                         }
@@ -1319,15 +1283,17 @@ public class DerivationHelp {
 
     //complex negation (not disjunction) in formula list but not exclude list
     private boolean ordinaryComplexNegationInList(List<Formula> formulaList, List<Formula> excludeList) {
-        Document negationForm = new Document("\u223c\ud835\udcac");
+        MatchContext context = new MatchContext();
+        CompiledForm negationForm = forms.negation;
         for (Formula formula : formulaList) {
-            MatchUtilities.clearFormMatch();
+            checkInterrupted();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(negationForm, formula, objectLanguage.getNameString(), metaLanguage.getNameString() );
-                Formula matchForm = (Formula) ParseUtilities.parseDoc(negationForm, metaLanguage.getNameString()).get(0).getMatch();
+                MatchUtilities.simpleExpFormMatch(context, negationForm, formula, objectLanguage.getNameString());
+                Formula matchForm = (Formula) negationForm.getMatch(context);
                 for (MFormula mForm : MFormula.getmFormulas()) {
                     if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", ""))) {
-                        Formula immediateSub = mForm.getMatch();
+                        Formula immediateSub = mForm.getMatch(context);
                         if (!immediateSub.isAtomic() && immediateSub.getMainOperator().getType() != ExpressionType.DISJ_OP) {
                             if (!excludeList.contains((Formula) matchForm)) return true;
                         }
@@ -1339,33 +1305,35 @@ public class DerivationHelp {
     }
 
     private String availableOrdinaryComplexNegation() {
+        MatchContext context = new MatchContext();
         String negLabelString = "0";
-        for (ViewLine line : viewLines) {
+        for (CheckLine line : checkLines) {
+            checkInterrupted();
             if (LineType.isContentLine(line.getLineType())) {
-                if (derivationCheck.lineIsAccessibleTo(line, targetLine).getKey()) {
-                    Formula lineFormula = getFormulaFromViewLine(line);
+                if (helpCheck.lineIsAccessibleTo(line, targetLine).getKey()) {
+                    Formula lineFormula = line.getFormula();
                     if (lineFormula != null) {
-                        Document negationForm = new Document("\u223c\ud835\udcac");
-                        MatchUtilities.clearFormMatch();
+                        CompiledForm negationForm = forms.negation;
+                        context.clear();
                         try {
-                            MatchUtilities.simpleExpFormMatch(negationForm, lineFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                            Formula matchForm = (Formula) ParseUtilities.parseDoc(negationForm, metaLanguage.getNameString()).get(0).getMatch();
+                            MatchUtilities.simpleExpFormMatch(context, negationForm, lineFormula, objectLanguage.getNameString());
+                            Formula matchForm = (Formula) negationForm.getMatch(context);
                             Formula immediateSub = null;
                             for (MFormula mForm : MFormula.getmFormulas()) {
                                 if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", ""))) {
-                                    immediateSub = mForm.getMatch();
+                                    immediateSub = mForm.getMatch(context);
                                     break;
                                 }
                             }
                             if (!immediateSub.isAtomic() && immediateSub.getMainOperator().getType() != ExpressionType.DISJ_OP && immediateSub.getMainOperator().getType() != ExpressionType.EXISTENTIAL_OP) {
-                                String lineLabel = line.getLineNumberLabel().getText();
+                                String lineLabel = line.getLabel();
                                 DerivationRule contradictionIntroRule = derivationCheck.getDerivationRuleset().getContradictionIntroRule();
                                 boolean used = false;
-                                for (ViewLine checkLine : viewLines) {
+                                for (CheckLine checkLine : checkLines) {
                                     if (LineType.isContentLine(checkLine.getLineType()) ) {
-                                        String checkJustString = derivationExercise.getStringFromJustificationFlow(checkLine.getJustificationFlow());
+                                        String checkJustString = checkLine.getJustification();
                                         if (contradictionIntroRule.matches(checkJustString)) {
-                                            List<String> checkLabels = derivationExercise.getLineLabelsFromJustificationFlow(checkLine.getJustificationFlow());
+                                            List<String> checkLabels = checkLine.getJustificationLabels();
                                             String checkLabelString = checkLabels.get(0);
                                             if (checkLabels.get(0).equals(lineLabel) || checkLabels.get(1).equals(lineLabel) ) {
                                                 if (targetLine.getAssumptionList().containsAll(checkLine.getAssumptionList()) || checkLine.getAssumptionList().containsAll(targetLine.getAssumptionList()) )
@@ -1388,27 +1356,31 @@ public class DerivationHelp {
 
     }
 
-    private String availableNegatedDisjunction() {
+    //label of the line (or "0"), with its status for the help text
+    private Pair<String, String> availableNegatedDisjunction() {
+        MatchContext context = new MatchContext();
         String negLabelString = "0";
-        for (ViewLine line : viewLines) {
+        String status = null;
+        for (CheckLine line : checkLines) {
+            checkInterrupted();
             if (LineType.isContentLine(line.getLineType())) {
-                if (derivationCheck.lineIsAccessibleTo(line, targetLine).getKey()) {
-                    Formula lineFormula = getFormulaFromViewLine(line);
+                if (helpCheck.lineIsAccessibleTo(line, targetLine).getKey()) {
+                    Formula lineFormula = line.getFormula();
                     if (lineFormula != null) {
-                        Document negationForm = new Document("∼(\uD835\uDCAB ∨ \uD835\uDCAC)");
-                        MatchUtilities.clearFormMatch();
+                        CompiledForm negationForm = forms.negatedDisjunction;
+                        context.clear();
                         try {
-                            MatchUtilities.simpleExpFormMatch(negationForm, lineFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                            Formula matchForm = (Formula) ParseUtilities.parseDoc(negationForm, metaLanguage.getNameString()).get(0).getMatch();
+                            MatchUtilities.simpleExpFormMatch(context, negationForm, lineFormula, objectLanguage.getNameString());
+                            Formula matchForm = (Formula) negationForm.getMatch(context);
 
-                            String lineLabel = line.getLineNumberLabel().getText();
+                            String lineLabel = line.getLabel();
                             DerivationRule contradictionIntroRule = derivationCheck.getDerivationRuleset().getContradictionIntroRule();
                             int uses = 0;
-                            for (ViewLine checkLine : viewLines) {
+                            for (CheckLine checkLine : checkLines) {
                                 if (LineType.isContentLine(checkLine.getLineType())) {
-                                    String checkJustString = derivationExercise.getStringFromJustificationFlow(checkLine.getJustificationFlow());
+                                    String checkJustString = checkLine.getJustification();
                                     if (contradictionIntroRule.matches(checkJustString)) {
-                                        List<String> checkLabels = derivationExercise.getLineLabelsFromJustificationFlow(checkLine.getJustificationFlow());
+                                        List<String> checkLabels = checkLine.getJustificationLabels();
                                         String checkLabelString = checkLabels.get(0);
                                         if (checkLabels.get(0).equals(lineLabel) || checkLabels.get(1).equals(lineLabel)) {
                                             if (targetLine.getAssumptionList().containsAll(checkLine.getAssumptionList()) || checkLine.getAssumptionList().containsAll(targetLine.getAssumptionList()) )
@@ -1418,8 +1390,8 @@ public class DerivationHelp {
                                 }
                             }
                             if (uses <= 1) {
-                                if (uses == 0) disjunctionStatus = "an available";
-                                if (uses == 1) disjunctionStatus = "a (still) available";
+                                if (uses == 0) status = "an available";
+                                if (uses == 1) status = "a (still) available";
                                 negLabelString = lineLabel;
                                 break;
                             }
@@ -1428,30 +1400,34 @@ public class DerivationHelp {
                 }
             }
         }
-        return negLabelString;
+        return new Pair<>(negLabelString, status);
     }
 
-    private String availableNegatedExistential() {
+    //label of the line (or "0"), with its status for the help text
+    private Pair<String, String> availableNegatedExistential() {
+        MatchContext context = new MatchContext();
         String negLabelString = "0";
-        for (ViewLine line : viewLines) {
+        String status = null;
+        for (CheckLine line : checkLines) {
+            checkInterrupted();
             if (LineType.isContentLine(line.getLineType())) {
-                if (derivationCheck.lineIsAccessibleTo(line, targetLine).getKey()) {
-                    Formula lineFormula = getFormulaFromViewLine(line);
+                if (helpCheck.lineIsAccessibleTo(line, targetLine).getKey()) {
+                    Formula lineFormula = line.getFormula();
                     if (lineFormula != null) {
-                        Document negationForm = new Document("∼\u2203\ud835\udccd\ud835\udcab");
-                        MatchUtilities.clearFormMatch();
+                        CompiledForm negationForm = forms.negatedExistential;
+                        context.clear();
                         try {
-                            MatchUtilities.simpleExpFormMatch(negationForm, lineFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                            Formula matchForm = (Formula) ParseUtilities.parseDoc(negationForm, metaLanguage.getNameString()).get(0).getMatch();
+                            MatchUtilities.simpleExpFormMatch(context, negationForm, lineFormula, objectLanguage.getNameString());
+                            Formula matchForm = (Formula) negationForm.getMatch(context);
 
-                            String lineLabel = line.getLineNumberLabel().getText();
+                            String lineLabel = line.getLabel();
                             DerivationRule contradictionIntroRule = derivationCheck.getDerivationRuleset().getContradictionIntroRule();
                             int uses = 0;
-                            for (ViewLine checkLine : viewLines) {
+                            for (CheckLine checkLine : checkLines) {
                                 if (LineType.isContentLine(checkLine.getLineType())) {
-                                    String checkJustString = derivationExercise.getStringFromJustificationFlow(checkLine.getJustificationFlow());
+                                    String checkJustString = checkLine.getJustification();
                                     if (contradictionIntroRule.matches(checkJustString)) {
-                                        List<String> checkLabels = derivationExercise.getLineLabelsFromJustificationFlow(checkLine.getJustificationFlow());
+                                        List<String> checkLabels = checkLine.getJustificationLabels();
                                         String checkLabelString = checkLabels.get(0);
                                         if (checkLabels.get(0).equals(lineLabel) || checkLabels.get(1).equals(lineLabel)) {
                                             if (targetLine.getAssumptionList().containsAll(checkLine.getAssumptionList()) || checkLine.getAssumptionList().containsAll(targetLine.getAssumptionList()) )
@@ -1461,8 +1437,8 @@ public class DerivationHelp {
                                 }
                             }
                             if (uses <= 1) {
-                                if (uses == 0) disjunctionStatus = "an available";
-                                if (uses == 1) disjunctionStatus = "a (still) available";
+                                if (uses == 0) status = "an available";
+                                if (uses == 1) status = "a (still) available";
                                 negLabelString = lineLabel;
                                 break;
                             }
@@ -1471,17 +1447,19 @@ public class DerivationHelp {
                 }
             }
         }
-        return negLabelString;
+        return new Pair<>(negLabelString, status);
     }
 
 
     private boolean negatedDisjunctionInList(List<Formula> formulaList, List<Formula> excludeList) {
-        Document negatedDisjunctionForm = new Document("∼(\uD835\uDCAB ∨ \uD835\uDCAC)");
+        MatchContext context = new MatchContext();
+        CompiledForm negatedDisjunctionForm = forms.negatedDisjunction;
         for (Formula formula : formulaList) {
-            MatchUtilities.clearFormMatch();
+            checkInterrupted();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(negatedDisjunctionForm, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                Expression matchExp = ParseUtilities.parseDoc(negatedDisjunctionForm, metaLanguage.getNameString()).get(0).getMatch();
+                MatchUtilities.simpleExpFormMatch(context, negatedDisjunctionForm, formula, objectLanguage.getNameString());
+                Expression matchExp = negatedDisjunctionForm.getMatch(context);
                 if (!excludeList.contains((Formula) matchExp)) return true;
                 //    return true;
             } catch (TextMessageException e) {}
@@ -1491,12 +1469,14 @@ public class DerivationHelp {
 
 
     private boolean disjunctionInList(List<Formula> formulaList, List<Formula> excludeList) {
-        Document disjunctionForm = new Document("(\ud835\udcab \u2228 \ud835\udcac)");
+        MatchContext context = new MatchContext();
+        CompiledForm disjunctionForm = forms.disjunction;
         for (Formula formula : formulaList) {
-            MatchUtilities.clearFormMatch();
+            checkInterrupted();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(disjunctionForm, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                Expression matchExp = ParseUtilities.parseDoc(disjunctionForm, metaLanguage.getNameString()).get(0).getMatch();
+                MatchUtilities.simpleExpFormMatch(context, disjunctionForm, formula, objectLanguage.getNameString());
+                Expression matchExp = disjunctionForm.getMatch(context);
                 if (!excludeList.contains((Formula) matchExp)) return true;
 
             //    return true;
@@ -1506,12 +1486,14 @@ public class DerivationHelp {
     }
 
     private boolean existentialInList(List<Formula> formulaList, List<Formula> excludeList) {
-        Document existentialForm = new Document("\u2203\ud835\udccd\ud835\udcab");
+        MatchContext context = new MatchContext();
+        CompiledForm existentialForm = forms.existential;
         for (Formula formula : formulaList) {
-            MatchUtilities.clearFormMatch();
+            checkInterrupted();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(existentialForm, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                Expression matchExp = ParseUtilities.parseDoc(existentialForm, metaLanguage.getNameString()).get(0).getMatch();
+                MatchUtilities.simpleExpFormMatch(context, existentialForm, formula, objectLanguage.getNameString());
+                Expression matchExp = existentialForm.getMatch(context);
                 if (!excludeList.contains((Formula) matchExp)) return true;
 
                 //    return true;
@@ -1523,28 +1505,30 @@ public class DerivationHelp {
 
     //list assumed to be accessible formulas
     private String availableDisjunction() {
+        MatchContext context = new MatchContext();
         String disjLabelString = "0";
-        for (ViewLine line : viewLines) {
+        for (CheckLine line : checkLines) {
+            checkInterrupted();
             if (LineType.isContentLine(line.getLineType())) {
-                if (derivationCheck.lineIsAccessibleTo(line, targetLine).getKey()) {
-                    Formula lineFormula = getFormulaFromViewLine(line);
+                if (helpCheck.lineIsAccessibleTo(line, targetLine).getKey()) {
+                    Formula lineFormula = line.getFormula();
                     if (lineFormula != null) {
-                        Document disjunctionForm = new Document("(\ud835\udcab \u2228 \ud835\udcac)");
-                        MatchUtilities.clearFormMatch();
+                        CompiledForm disjunctionForm = forms.disjunction;
+                        context.clear();
                         try {
-                            MatchUtilities.simpleExpFormMatch(disjunctionForm, lineFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                            String justificationString = derivationExercise.getStringFromJustificationFlow(line.getJustificationFlow());
+                            MatchUtilities.simpleExpFormMatch(context, disjunctionForm, lineFormula, objectLanguage.getNameString());
+                            String justificationString = line.getJustification();
                             DerivationRule disjIntroRule = derivationCheck.getDerivationRuleset().getDisjunctionIntroRule();
                             if (!disjIntroRule.matches(justificationString)) {
 
-                                String lineLabel = line.getLineNumberLabel().getText();
+                                String lineLabel = line.getLabel();
                                 DerivationRule disjExpRule = derivationCheck.getDerivationRuleset().getDisjunctionExploitRule();
                                 boolean used = false;
-                                for (ViewLine checkLine : viewLines) {
+                                for (CheckLine checkLine : checkLines) {
                                     if (LineType.isContentLine(checkLine.getLineType())) {
-                                        String checkJustString = derivationExercise.getStringFromJustificationFlow(checkLine.getJustificationFlow());
+                                        String checkJustString = checkLine.getJustification();
                                         if (disjExpRule.matches(checkJustString)) {
-                                            List<String> checkLabels = derivationExercise.getLineLabelsFromJustificationFlow(checkLine.getJustificationFlow());
+                                            List<String> checkLabels = checkLine.getJustificationLabels();
                                             String checkLabelString = checkLabels.get(0);
                                             if (checkLabelString.equals(lineLabel)) {
                                                 if (targetLine.getAssumptionList().containsAll(checkLine.getAssumptionList()) || checkLine.getAssumptionList().containsAll(targetLine.getAssumptionList()))
@@ -1568,28 +1552,30 @@ public class DerivationHelp {
     }
 
     private String availableExistential() {
+        MatchContext context = new MatchContext();
         String exisLabelString = "0";
-        for (ViewLine line : viewLines) {
+        for (CheckLine line : checkLines) {
+            checkInterrupted();
             if (LineType.isContentLine(line.getLineType())) {
-                if (derivationCheck.lineIsAccessibleTo(line, targetLine).getKey()) {
-                    Formula lineFormula = getFormulaFromViewLine(line);
+                if (helpCheck.lineIsAccessibleTo(line, targetLine).getKey()) {
+                    Formula lineFormula = line.getFormula();
                     if (lineFormula != null) {
-                        Document existentialForm = new Document("\u2203\ud835\udccd\ud835\udcab");
-                        MatchUtilities.clearFormMatch();
+                        CompiledForm existentialForm = forms.existential;
+                        context.clear();
                         try {
-                            MatchUtilities.simpleExpFormMatch(existentialForm, lineFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                            String justificationString = derivationExercise.getStringFromJustificationFlow(line.getJustificationFlow());
+                            MatchUtilities.simpleExpFormMatch(context, existentialForm, lineFormula, objectLanguage.getNameString());
+                            String justificationString = line.getJustification();
                             DerivationRule exisIntroRule = derivationCheck.getDerivationRuleset().getExisIntroRule();
                             if (!exisIntroRule.matches(justificationString)) {
 
-                                String lineLabel = line.getLineNumberLabel().getText();
+                                String lineLabel = line.getLabel();
                                 DerivationRule exisExpRule = derivationCheck.getDerivationRuleset().getExisExploitRule();
                                 boolean used = false;
-                                for (ViewLine checkLine : viewLines) {
+                                for (CheckLine checkLine : checkLines) {
                                     if (LineType.isContentLine(checkLine.getLineType())) {
-                                        String checkJustString = derivationExercise.getStringFromJustificationFlow(checkLine.getJustificationFlow());
+                                        String checkJustString = checkLine.getJustification();
                                         if (exisExpRule.matches(checkJustString)) {
-                                            List<String> checkLabels = derivationExercise.getLineLabelsFromJustificationFlow(checkLine.getJustificationFlow());
+                                            List<String> checkLabels = checkLine.getJustificationLabels();
                                             String checkLabelString = checkLabels.get(0);
                                             if (checkLabelString.equals(lineLabel)) {
                                                 if (targetLine.getAssumptionList().containsAll(checkLine.getAssumptionList()) || checkLine.getAssumptionList().containsAll(targetLine.getAssumptionList()))
@@ -1613,10 +1599,10 @@ public class DerivationHelp {
     }
 
     private boolean targetIsEqualityIntro() {
-        Document equalityForm = new Document("\uE8AC\uD835\uDCC8\uD835\uDCC8");
-        MatchUtilities.clearFormMatch();
+        CompiledForm equalityForm = forms.selfEquality;
+        MatchContext context = new MatchContext();
         try {
-            MatchUtilities.simpleExpFormMatch(equalityForm, targetFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
+            MatchUtilities.simpleExpFormMatch(context, equalityForm, targetFormula, objectLanguage.getNameString());
             return true;
         } catch (TextMessageException e) {}
 
@@ -1625,35 +1611,39 @@ public class DerivationHelp {
 
 
     private boolean contradictionInList(List<Formula> formulaList) {
-        Document contradictionForm1 = new Document("\u22a5" );
-        Document contradictionForm2 = new Document("(\ud835\udcac \u2227 \u223c\ud835\udcac)");
+        MatchContext context = new MatchContext();
+        CompiledForm contradictionForm1 = forms.contradiction;
+        CompiledForm contradictionForm2 = forms.contradictoryConjunction;
 
         for (Formula formula : formulaList) {
-            MatchUtilities.clearFormMatch();
+            checkInterrupted();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(contradictionForm1, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                MatchUtilities.simpleExpFormMatch(context, contradictionForm1, formula, objectLanguage.getNameString());
                 return true;
             } catch (TextMessageException e) {}
 
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(contradictionForm2, targetFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                MatchUtilities.simpleExpFormMatch(context, contradictionForm2, targetFormula, objectLanguage.getNameString());
                 return true;
             } catch (TextMessageException e) {   }
         }
 
         for (Formula formula : formulaList) {
-            Document Pdoc = new Document("\ud835\udcac");
-            Document negPdoc = new Document("\u223c\ud835\udcac");
+            checkInterrupted();
+            CompiledForm Pdoc = forms.formula;
+            CompiledForm negPdoc = forms.negation;
 
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(Pdoc, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                MatchUtilities.simpleExpFormMatch(context, Pdoc, formula, objectLanguage.getNameString());
             } catch (TextMessageException e) { }
 
             for (Formula candidate : formulaList) {
+                checkInterrupted();
                 try {
-                    MatchUtilities.simpleExpFormMatch(negPdoc, candidate, objectLanguage.getNameString(), metaLanguage.getNameString());
+                    MatchUtilities.simpleExpFormMatch(context, negPdoc, candidate, objectLanguage.getNameString());
                     return true;
                 } catch (TextMessageException e) {  }
             }
@@ -1663,39 +1653,43 @@ public class DerivationHelp {
     }
 
     private boolean atomicContradictionInList(List<Formula> formulaList) {
-        Document contradictionForm1 = new Document("\u22a5" );
-        Document contradictionForm2 = new Document("(\ud835\udcac \u2227 \u223c\ud835\udcac)");
+        MatchContext context = new MatchContext();
+        CompiledForm contradictionForm1 = forms.contradiction;
+        CompiledForm contradictionForm2 = forms.contradictoryConjunction;
 
         for (Formula formula : formulaList) {
-            MatchUtilities.clearFormMatch();
+            checkInterrupted();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(contradictionForm1, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                MatchUtilities.simpleExpFormMatch(context, contradictionForm1, formula, objectLanguage.getNameString());
                 return true;
             } catch (TextMessageException e) {}
 
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(contradictionForm2, targetFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                MatchUtilities.simpleExpFormMatch(context, contradictionForm2, targetFormula, objectLanguage.getNameString());
                 return true;
             } catch (TextMessageException e) {   }
         }
 
         for (Formula formula : formulaList) {
-            Document Pdoc = new Document("\ud835\udcac");
-            Document negPdoc = new Document("\u223c\ud835\udcac");
+            checkInterrupted();
+            CompiledForm Pdoc = forms.formula;
+            CompiledForm negPdoc = forms.negation;
 
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(Pdoc, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                MatchUtilities.simpleExpFormMatch(context, Pdoc, formula, objectLanguage.getNameString());
             } catch (TextMessageException e) { }
 
             for (Formula candidate : formulaList) {
+                checkInterrupted();
                 try {
-                    MatchUtilities.simpleExpFormMatch(negPdoc, candidate, objectLanguage.getNameString(), metaLanguage.getNameString());
+                    MatchUtilities.simpleExpFormMatch(context, negPdoc, candidate, objectLanguage.getNameString());
                     Formula contForm = null;
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", ""))) {
-                            contForm = mForm.getMatch();
+                            contForm = mForm.getMatch(context);
                             break;
                         }
                     }
@@ -1709,38 +1703,33 @@ public class DerivationHelp {
 
 
 
+    /*
+     * Formulas in the lists are interned, so that lookup compares identity.  Line formulas and their parts are shared
+     * with the parse cache, so formulas are interned by internShared, which does not mark them.
+     */
     private boolean formulaInList(Formula formula, List<Formula> formulaList) {
-        return formulaList.contains(formula);
+        return formulaList.contains(interner.internShared(formula));
     }
 
 
-    private Formula getFormulaFromViewLine(ViewLine viewLine) {
-
-        Formula lineFormula = null;
-        RichTextArea lineRTA = viewLine.getLineContentBoxedDRTA().getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
-        if (!lineDoc.getText().equals("")) {
-            List<Expression> lineExpressions = ParseUtilities.parseDoc(lineDoc, objectLanguage.getNameString());
-            lineFormula = (Formula) lineExpressions.get(0);
-        }
-        return lineFormula;
-    }
 
 /*
     private void findTermsInFormulas() {
         termList.clear();
 
-        for (ViewLine line : viewLines) {
+        for (CheckLine line : checkLines) {
             if (LineType.isContentLine(line.getLineType())) {
-               Formula lineForm = getFormulaFromViewLine(line);
+               Formula lineForm = line.getFormula();
                if (lineForm != null) addTermsToList(lineForm);
             }
         }
     }
 
     private void addTermsToList(Expression exp) {
-        if (exp instanceof Term && !termList.contains(exp)) termList.add((Term) exp);
+        if (exp instanceof Term) {
+            Term term = interner.internShared((Term) exp);
+            if (!termList.contains(term)) termList.add(term);
+        }
 
         if (exp.getChildren() != null && exp.getLevel() > 0) {
             for (int i = 0; i < exp.getChildren().size(); i++) {
@@ -1758,19 +1747,22 @@ public class DerivationHelp {
     private void findTermsInFormulas() {
         termList.clear();
 
-        for (ViewLine line : viewLines) {
+        for (CheckLine line : checkLines) {
             if (LineType.isContentLine(line.getLineType())) {
-                Formula lineForm = getFormulaFromViewLine(line);
+                Formula lineForm = line.getFormula();
                 if (lineForm != null) addTermsToList(lineForm, lineForm);
             }
         }
         if (termList.isEmpty()) {
-            termList.add(SyntacticalFns.getDummyVariable());
+            termList.add(SyntacticalFns.getDummyVariable(objectLanguage.getNameString()));
         }
     }
 
     private void addTermsToList(Expression exp, Formula origForm) {
-        if (exp instanceof Term && !termList.contains(exp) && SyntacticalFns.expTermFreeInFormula(origForm, exp, objectLanguage.getNameString())) termList.add((Term) exp);
+        if (exp instanceof Term) {
+            Term term = interner.internShared((Term) exp);
+            if (!termList.contains(term) && SyntacticalFns.expTermFreeInFormula(origForm, exp, objectLanguage.getNameString())) termList.add(term);
+        }
 
         if (exp.getChildren() != null && exp.getLevel() > 0) {
             for (int i = 0; i < exp.getChildren().size(); i++) {
@@ -1786,32 +1778,32 @@ public class DerivationHelp {
 
 
 
-    private void addVarInstancesToList(Expression exp, Term filterVar) {
+    private void addVarInstancesToList(Expression exp, Term filterVar, List<Term> formulaVars) {
 
         if (exp instanceof Term && ((Term) exp).getTermType() == TermType.VARIABLE && ((Term) exp).equals(filterVar)) formulaVars.add((Term) exp);
 
         if (exp.getChildren() != null && exp.getLevel() > 0) {
             for (int i = 0; i < exp.getChildren().size(); i++) {
-                addVarInstancesToList(exp.getChildren().get(i), filterVar);
+                addVarInstancesToList(exp.getChildren().get(i), filterVar, formulaVars);
             }
         }
     }
 
-    private void addAllVarsToList(Expression exp) {
+    private void addAllVarsToList(Expression exp, List<Term> formulaVars) {
 
         if (exp instanceof Term && ((Term) exp).getTermType() == TermType.VARIABLE && !formulaVars.contains(exp)) formulaVars.add((Term) exp);
 
         if (exp.getChildren() != null && exp.getLevel() > 0) {
             for (int i = 0; i < exp.getChildren().size(); i++) {
-                addAllVarsToList(exp.getChildren().get(i));
+                addAllVarsToList(exp.getChildren().get(i), formulaVars);
             }
         }
     }
 
     private Formula substituteForTermInFormula(Formula formula, Term replacedTerm, Term replacingTerm) {
         Formula resultFormula = formula;
-        formulaVars.clear();
-        addVarInstancesToList(resultFormula, replacedTerm);
+        List<Term> formulaVars = new ArrayList<>();
+        addVarInstancesToList(resultFormula, replacedTerm, formulaVars);
 
         List<Expression> goodVars = new ArrayList<>();
         for (Term var : formulaVars) {
@@ -1825,10 +1817,10 @@ public class DerivationHelp {
 
     private boolean variableScreen(String candidateLineLabel) {
         boolean screen = false;
-        ViewLine candidateLine = derivationCheck.getLineFromLabel(candidateLineLabel).getKey();
-        Formula candidateFormula = getFormulaFromViewLine(candidateLine);
-        formulaVars.clear();
-        addAllVarsToList(candidateFormula);
+        CheckLine candidateLine = helpCheck.getLineFromLabel(candidateLineLabel).getKey();
+        Formula candidateFormula = candidateLine.getFormula();
+        List<Term> formulaVars = new ArrayList<>();
+        addAllVarsToList(candidateFormula, formulaVars);
 
         ArrayList<Expression> freeVars = new ArrayList<>();
         for (Expression var : formulaVars) {
@@ -1839,13 +1831,11 @@ public class DerivationHelp {
             boolean freeInAssp = false;
             List<String> asspList = targetLine.getAssumptionList();
             for (String asspLabel : asspList) {
-                ViewLine asspLine = derivationCheck.getLineFromLabel(asspLabel).getKey();
-                TextFlow asspJustificationFlow = asspLine.getJustificationFlow();
-                String asspJustificationString = (derivationCheck instanceof DerivationCheck) ? ((DerivationExercise) derivationCheck.getExercise()).getStringFromJustificationFlow(asspJustificationFlow) :
-                        ((DrvtnExpExercise) derivationCheck.getExercise()).getStringFromJustificationFlow(asspJustificationFlow);
+                CheckLine asspLine = helpCheck.getLineFromLabel(asspLabel).getKey();
+                String asspJustificationString = asspLine.getJustification();
 
                 if (!derivationCheck.getDerivationRuleset().getPremiseRule().matches(asspJustificationString)) {
-                    Formula asspFormula = getFormulaFromViewLine(asspLine);
+                    Formula asspFormula = asspLine.getFormula();
                     if (SyntacticalFns.expTermFreeInFormula(asspFormula, var, objectLanguage.getNameString())) {
                         freeInAssp = true;
                         break;
@@ -1862,12 +1852,35 @@ public class DerivationHelp {
         return screen;
     }
 
-
-
-
-
-
-
-
-
+    private static class Forms {
+        final CompiledForm conditional;
+        final CompiledForm biconditional;
+        final CompiledForm conjunction;
+        final CompiledForm disjunction;
+        final CompiledForm contradictoryConjunction;
+        final CompiledForm universal;
+        final CompiledForm existential;
+        final CompiledForm negation;
+        final CompiledForm contradiction;
+        final CompiledForm selfEquality;
+        final CompiledForm formula;
+        final CompiledForm negatedDisjunction;
+        final CompiledForm negatedExistential;
+
+        Forms(Language metaLanguage) {
+            conditional = CompiledForm.getInstance("(\ud835\udcab \u2192 \ud835\udcac)", metaLanguage.getNameString());
+            biconditional = CompiledForm.getInstance("(\ud835\udcab \u2194 \ud835\udcac)", metaLanguage.getNameString());
+            conjunction = CompiledForm.getInstance("(\ud835\udcab \u2227 \ud835\udcac)", metaLanguage.getNameString());
+            disjunction = CompiledForm.getInstance("(\ud835\udcab \u2228 \ud835\udcac)", metaLanguage.getNameString());
+            contradictoryConjunction = CompiledForm.getInstance("(\ud835\udcac \u2227 \u223c\ud835\udcac)", metaLanguage.getNameString());
+            universal = CompiledForm.getInstance("\u2200\ud835\udccd\ud835\udcab", metaLanguage.getNameString());
+            existential = CompiledForm.getInstance("\u2203\ud835\udccd\ud835\udcab", metaLanguage.getNameString());
+            negation = CompiledForm.getInstance("\u223c\ud835\udcac", metaLanguage.getNameString());
+            contradiction = CompiledForm.getInstance("\u22a5", metaLanguage.getNameString());
+            selfEquality = CompiledForm.getInstance("\uE8AC\uD835\uDCC8\uD835\uDCC8", metaLanguage.getNameString());
+            formula = CompiledForm.getInstance("\ud835\udcac", metaLanguage.getNameString());
+            negatedDisjunction = CompiledForm.getInstance("∼(\uD835\uDCAB ∨ \uD835\uDCAC)", metaLanguage.getNameString());
+            negatedExistential = CompiledForm.getInstance("∼\u2203\ud835\udccd\ud835\udcab", metaLanguage.getNameString());
+        }
+    }
 }
@@ -105,7 +105,7 @@ public class DerivationModel implements ExerciseModel<Document>, Serializable {
      * List of {@link slapp.editor.derivation.ModelLine}
      * @return the list of derivation lines
      */
-    List<ModelLine> getDerivationLines() { return derivationLines; }
+    public List<ModelLine> getDerivationLines() { return derivationLines; }
 
     /**
      * The default keyboard for derivation lines
@@ -0,0 +1,999 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+
+package slapp.editor.derivation;
+
+import com.gluonhq.richtextarea.model.Document;
+import slapp.editor.derivation.der_systems.BiconditionalExploit;
+import slapp.editor.derivation.der_systems.BiconditionalIntro;
+import slapp.editor.derivation.der_systems.ConditionalExploit;
+import slapp.editor.derivation.der_systems.ConditionalIntro;
+import slapp.editor.derivation.der_systems.ConjunctionExploit;
+import slapp.editor.derivation.der_systems.ConjunctionIntro;
+import slapp.editor.derivation.der_systems.ContradictionIntro;
+import slapp.editor.derivation.der_systems.DerivationRule;
+import slapp.editor.derivation.der_systems.DerivationRuleset;
+import slapp.editor.derivation.der_systems.DerivationRulesets;
+import slapp.editor.derivation.der_systems.DisjunctionExploit;
+import slapp.editor.derivation.der_systems.DisjunctionIntro;
+import slapp.editor.derivation.der_systems.NegationExploit;
+import slapp.editor.derivation.der_systems.NegationIntro;
+import slapp.editor.derivation.der_systems.Rieteration;
+import slapp.editor.parser.CompiledForm;
+import slapp.editor.parser.Expression;
+import slapp.editor.parser.ExpressionType;
+import slapp.editor.parser.Language;
+import slapp.editor.parser.Languages;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.ParseUtilities;
+import slapp.editor.parser.TextMessageException;
+import slapp.editor.parser.grammatical_parts.ContradictionSimple;
+import slapp.editor.parser.grammatical_parts.ExpressionInterner;
+import slapp.editor.parser.grammatical_parts.Formula;
+import slapp.editor.parser.grammatical_parts.MFormula;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Search for a derivation of the conclusion of a derivation exercise from its premises, under the ruleset of the
+ * exercise.  The search takes the strategies of contextual help (goal strategies by main operator, exploitation of
+ * accessible lines, disjunction exploit, and contradiction by negation intro or exploit) as the ways to reach a goal,
+ * each with the rule of the ruleset that gives it: a strategy is used just if the ruleset has its rule (and the
+ * assumption the rule calls for), and lines are justified by the names of the rules, so the derivation is in the terms
+ * of the ruleset.  The strategies are for sentential formulas, and for rulesets with subderivations: a ruleset without
+ * subderivations (the axiomatic systems) and an exercise with quantified formulas are reported UNSUPPORTED.
+ * <p>
+ * Search is best-first by derivation length: a goal is tried with a bound on the lines to reach it, and the bound is
+ * raised one line at a time, so the first derivation found is the shortest these strategies give.  Formulas are
+ * interned (one node for each distinct formula), and the same goes for the sets of formulas accessible to a goal;
+ * each (goal, accessible formulas) pair is visited once for each bound, and remembers its shortest derivation or the
+ * bound below which it has none.  The strategies for the conclusion are expanded in parallel.
+ * <p>
+ * A derivation that is found is put into model lines and checked by a model check, as any derivation would be.
+ */
+public class DerivationSearch {
+
+    public static final int DEFAULT_MAX_LINES = 60;
+    public static final long DEFAULT_MAX_NODES = 5_000_000;
+    public static final long DEFAULT_MAX_MILLIS = 30_000;
+
+    private static final String GOAL = "g";
+    private static final String CONTRADICTION = "c";
+
+    /**
+     * Outcome of a search
+     */
+    public enum Status {
+        FOUND,
+        NOT_FOUND,
+        UNSUPPORTED,
+        CHECK_FAILED
+    }
+
+    private final CheckSetup checkSetup;
+    private final DerivationRuleset ruleset;
+    private final Language objectLanguage;
+    private final CompiledForm negationForm;
+
+    //rules of the ruleset for the strategies (null where the ruleset has none)
+    private final DerivationRule premiseRule;
+    private final DerivationRule reiterationRule;
+    private final DerivationRule conjunctionIntroRule;
+    private final DerivationRule conjunctionExploitRule;
+    private final DerivationRule conditionalIntroRule;
+    private final DerivationRule conditionalExploitRule;
+    private final DerivationRule biconditionalIntroRule;
+    private final DerivationRule biconditionalExploitRule;
+    private final DerivationRule disjunctionIntroRule;
+    private final DerivationRule disjunctionExploitRule;
+    private final DerivationRule negationIntroRule;
+    private final DerivationRule negationExploitRule;
+    private final DerivationRule contradictionIntroRule;
+
+    //assumption rules for the subderivations of those rules (null where the ruleset has none)
+    private final DerivationRule asspCondIntroRule;
+    private final DerivationRule asspBicondIntroRule;
+    private final DerivationRule asspNegIntroRule;
+    private final DerivationRule asspNegExploitRule;
+    private final DerivationRule asspDisjExploitGRule;
+    private final DerivationRule asspDisjExploitCRule;
+
+    private int maxLines = DEFAULT_MAX_LINES;
+    private long maxNodes = DEFAULT_MAX_NODES;
+    private long maxMillis = DEFAULT_MAX_MILLIS;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    //state of a single search
+    private ExpressionInterner interner;
+    private final Map<Formula, Node> nodes = new ConcurrentHashMap<>();
+    private final Map<String, Ctx> contexts = new ConcurrentHashMap<>();
+    private final Map<Long, Memo> memo = new ConcurrentHashMap<>();
+    private final AtomicInteger nodeIds = new AtomicInteger();
+    private final AtomicInteger ctxIds = new AtomicInteger();
+    private final AtomicLong expansions = new AtomicLong();
+    private volatile boolean stopped;
+    private volatile String stopReason;
+    private long deadline;
+    private Node bottom;
+
+
+    /**
+     * Search for derivations under the ruleset and languages of a check setup
+     * @param checkSetup the check setup of the exercises
+     */
+    public DerivationSearch(CheckSetup checkSetup) {
+        this.checkSetup = checkSetup;
+        ruleset = DerivationRulesets.newRuleset(checkSetup.getRulesetName());
+        ruleset.setMetaLanguage(Languages.getLanguage(checkSetup.getMetLangName()));
+        ruleset.setObjectLanguage(Languages.getLanguage(checkSetup.getObjLangName()));
+        objectLanguage = ruleset.getObjectLanguage();
+        Language metaLanguage = ruleset.getMetaLanguage();
+        negationForm = CompiledForm.getInstance(metaLanguage.getNegation() + "\ud835\udcab", metaLanguage.getNameString());
+
+        premiseRule = ruleset.getPremiseRule();
+        reiterationRule = getRule(Rieteration.class);
+        conjunctionIntroRule = getRule(ConjunctionIntro.class);
+        conjunctionExploitRule = getRule(ConjunctionExploit.class);
+        conditionalIntroRule = getRule(ConditionalIntro.class);
+        conditionalExploitRule = getRule(ConditionalExploit.class);
+        biconditionalIntroRule = getRule(BiconditionalIntro.class);
+        biconditionalExploitRule = getRule(BiconditionalExploit.class);
+        disjunctionIntroRule = getRule(DisjunctionIntro.class);
+        disjunctionExploitRule = getRule(DisjunctionExploit.class);
+        negationIntroRule = getRule(NegationIntro.class);
+        negationExploitRule = getRule(NegationExploit.class);
+        contradictionIntroRule = getRule(ContradictionIntro.class);
+
+        asspCondIntroRule = getAssumptionRule(ruleset.getAsspCondIntroRule(), GOAL, "", conditionalIntroRule);
+        asspBicondIntroRule = getAssumptionRule(ruleset.getAsspBicondIntroRule(), GOAL, "", biconditionalIntroRule);
+        asspNegIntroRule = getAssumptionRule(ruleset.getAsspNegIntroRule(), CONTRADICTION, "", negationIntroRule);
+        asspNegExploitRule = getAssumptionRule(ruleset.getAsspNegExploitRule(), CONTRADICTION, "", negationExploitRule);
+        asspDisjExploitGRule = getAssumptionRule(ruleset.getAsspDisjExploitGRule(), GOAL, "1", disjunctionExploitRule);
+        asspDisjExploitCRule = getAssumptionRule(ruleset.getAsspDisjExploitCRule(), CONTRADICTION, "1", disjunctionExploitRule);
+    }
+
+    //rule of the ruleset of the kind, or null if it has none
+    private DerivationRule getRule(Class<? extends DerivationRule> kind) {
+        if (ruleset.getRules() == null) return null;
+        for (DerivationRule rule : ruleset.getRules()) {
+            if (kind.isInstance(rule)) return rule;
+        }
+        return null;
+    }
+
+    //assumption rule, if it accepts the justification the search writes for an assumption of exitRule
+    private static DerivationRule getAssumptionRule(DerivationRule asspRule, String exit, String label, DerivationRule exitRule) {
+        if (asspRule == null || exitRule == null) return null;
+        return asspRule.matches(assumptionJustification(asspRule, exit, label, exitRule)) ? asspRule : null;
+    }
+
+    //justification of an assumption, as "A (g, →I)" or "A (c, 3∨E)"
+    private static String assumptionJustification(DerivationRule asspRule, String exit, String label, DerivationRule exitRule) {
+        return asspRule.getName() + " (" + exit + ", " + label + exitRule.getName() + ")";
+    }
+
+    public void setMaxLines(int maxLines) {
+        this.maxLines = maxLines;
+    }
+
+    public void setMaxNodes(long maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    public void setMaxMillis(long maxMillis) {
+        this.maxMillis = maxMillis;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Search for a derivation of the conclusion of an exercise from its premises.  The peak heap of the result is
+     * read from the heap pools of the process, which are reset for each search; so searches run one at a time in a
+     * process (a search waits for any other to finish), and the peak is that of the search with whatever else the
+     * process was doing.
+     * @param exercise the exercise
+     * @return the result of the search
+     */
+    public SearchResult search(DerivationModel exercise) {
+        synchronized (DerivationSearch.class) {
+            return timedSearch(exercise);
+        }
+    }
+
+    private SearchResult timedSearch(DerivationModel exercise) {
+        interner = new ExpressionInterner();
+        nodes.clear();
+        contexts.clear();
+        memo.clear();
+        expansions.set(0);
+        stopped = false;
+        stopReason = null;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        }
+        long start = System.nanoTime();
+        deadline = start + maxMillis * 1_000_000;
+
+        SearchResult result = new SearchResult();
+        try {
+            runSearch(exercise, result);
+        }
+        catch (UnsupportedFormulaException e) {
+            result.status = Status.UNSUPPORTED;
+            result.message = e.getMessage();
+        }
+        result.nodes = expansions.get();
+        result.visited = memo.size();
+        result.formulas = nodes.size();
+        result.elapsedNanos = System.nanoTime() - start;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) result.peakHeapBytes += pool.getPeakUsage().getUsed();
+        }
+        interner = null;
+        nodes.clear();
+        contexts.clear();
+        memo.clear();
+        return result;
+    }
+
+    private void runSearch(DerivationModel exercise, SearchResult result) {
+        String unsupported = getUnsupported();
+        if (unsupported != null) {
+            result.status = Status.UNSUPPORTED;
+            result.message = unsupported;
+            return;
+        }
+        if (objectLanguage.getContradictionSymbol() == null) {
+            result.status = Status.UNSUPPORTED;
+            result.message = objectLanguage.getNameString() + " has no contradiction symbol.";
+            return;
+        }
+        bottom = toNode(new Document(objectLanguage.getContradictionSymbol()));
+
+        List<ModelLine> premiseLines = new ArrayList<>();
+        ModelLine conclusionLine = null;
+        for (ModelLine line : exercise.getDerivationLines()) {
+            if (line.getLineType() == LineType.PREMISE_LINE && line.getLineContentDoc() != null && !line.getLineContentDoc().getText().isEmpty()) premiseLines.add(line);
+            if (line.getLineType() == LineType.CONCLUSION_LINE) conclusionLine = line;
+        }
+        if (conclusionLine == null || conclusionLine.getLineContentDoc() == null) {
+            result.status = Status.UNSUPPORTED;
+            result.message = "Exercise has no conclusion.";
+            return;
+        }
+
+        List<Node> premises = new ArrayList<>();
+        for (ModelLine line : premiseLines) premises.add(toNode(line.getLineContentDoc()));
+        Node conclusion = toNode(conclusionLine.getLineContentDoc());
+        Ctx root = intern(premises.toArray(new Node[0]));
+
+        Proof proof = searchRoot(conclusion, root);
+        if (proof == null) {
+            result.status = Status.NOT_FOUND;
+            result.message = stopReason != null ? stopReason : "No derivation of " + maxLines + " lines or less.";
+            return;
+        }
+
+        List<ModelLine> lines = new Linearizer(exercise, premiseLines, premises, conclusionLine).getLines(proof);
+        DerivationModel model = new DerivationModel(exercise.getExerciseName(), true, exercise.getStatementPrefHeight(), exercise.getGridWidth(), exercise.isLeftmostScopeLine(),
+                exercise.isDefaultShelf(), exercise.getKeyboardSelector(), exercise.getExerciseStatement(), exercise.getExerciseComment(), lines);
+        model.setCheckSetup(checkSetup);
+        result.model = model;
+        for (ModelLine line : lines) if (LineType.isContentLine(line.getLineType())) result.lines++;
+
+        CheckIssue issue = ModelCheck.fromCheckSetup(checkSetup).check(CheckLine.getCheckLines(lines), true);
+        if (issue == null) result.status = Status.FOUND;
+        else {
+            result.status = Status.CHECK_FAILED;
+            result.message = issue.getTitle() + " " + issue.getPlainText() + " (line " + (issue.getLineIndex() + 1) + ")";
+        }
+    }
+
+    //reason the ruleset is not searched, or null if it is
+    private String getUnsupported() {
+        if (!ruleset.isPermitSubderivations()) return ruleset.getName() + " has no subderivations: search is for the rules of natural derivation systems, and does not use axioms.";
+        if (premiseRule == null || reiterationRule == null) return ruleset.getName() + " has no premise or reiteration rule.";
+        if (negationIntroRule == null && negationExploitRule == null && conditionalIntroRule == null) return ruleset.getName() + " has no rule for search to reach a goal by subderivation.";
+        return null;
+    }
+
+    /*
+     * Shortest proof of the conclusion, with the strategies for each bound run in parallel
+     */
+    private Proof searchRoot(Node goal, Ctx ctx) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "derivation search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int bound = 0; bound <= maxLines; bound++) {
+                List<Callable<Proof>> alternatives = alternatives(goal, ctx, bound);
+                ExecutorCompletionService<Proof> completion = new ExecutorCompletionService<>(pool);
+                List<Future<Proof>> futures = new ArrayList<>();
+                for (Callable<Proof> alternative : alternatives) futures.add(completion.submit(alternative));
+                Proof proof = null;
+                for (int i = 0; i < futures.size() && proof == null; i++) {
+                    try {
+                        proof = completion.take().get();
+                    }
+                    catch (ExecutionException e) {
+                        if (!(e.getCause() instanceof SearchStop)) throw new IllegalStateException(e.getCause());
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        stop("Search interrupted.");
+                    }
+                }
+                for (Future<Proof> future : futures) future.cancel(true);
+                if (proof != null) return proof;
+                if (stopped) return null;
+            }
+            return null;
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /*
+     * Shortest proof of goal from the formulas of ctx, if there is one of limit lines or less
+     */
+    private Proof minProof(Node goal, Ctx ctx, int limit) {
+        if (limit < 0) return null;
+        long key = ((long) ctx.id << 32) | goal.id;
+        Memo known = memo.get(key);
+        if (known != null) {
+            if (known.proof != null) return known.proof.cost <= limit ? known.proof : null;
+            if (known.failBound >= limit) return null;
+        }
+        for (int bound = known == null ? 0 : known.failBound + 1; bound <= limit; bound++) {
+            Proof proof = null;
+            for (Callable<Proof> alternative : alternatives(goal, ctx, bound)) {
+                proof = call(alternative);
+                if (proof != null) break;
+            }
+            if (proof != null) {
+                memo.put(key, new Memo(proof, bound));
+                return proof;
+            }
+            int failBound = bound;
+            memo.merge(key, new Memo(null, failBound), (a, b) -> a.proof != null || a.failBound >= b.failBound ? a : b);
+        }
+        return null;
+    }
+
+    /*
+     * Ways to reach goal from ctx in bound lines or less: each returns a proof, or null if it has none in the bound
+     */
+    private List<Callable<Proof>> alternatives(Node goal, Ctx ctx, int bound) {
+        expand();
+        List<Callable<Proof>> alternatives = new ArrayList<>();
+        if (ctx.contains(goal)) {
+            alternatives.add(() -> new Proof(goal));
+            return alternatives;
+        }
+        if (bound == 0) return alternatives;
+
+        //exploit accessible lines
+        for (Node fact : ctx.nodes) {
+            if (reaches(fact, goal)) alternatives.add(() -> exploit(new Proof(fact), goal, ctx, bound));
+        }
+
+        //goal strategies by main operator
+        switch (goal.kind) {
+            case AND:
+                if (conjunctionIntroRule == null) break;
+                alternatives.add(() -> {
+                    Proof left = minProof(goal.left, ctx, bound - 1);
+                    if (left == null) return null;
+                    Proof right = minProof(goal.right, ctx, bound - 1 - left.cost);
+                    return right == null ? null : new Proof(goal, conjunctionIntroRule, left, right);
+                });
+                break;
+            case OR:
+                if (disjunctionIntroRule == null) break;
+                alternatives.add(() -> {
+                    Proof side = minProof(goal.left, ctx, bound - 1);
+                    return side == null ? null : new Proof(goal, disjunctionIntroRule, side);
+                });
+                alternatives.add(() -> {
+                    Proof side = minProof(goal.right, ctx, bound - 1);
+                    return side == null ? null : new Proof(goal, disjunctionIntroRule, side);
+                });
+                break;
+            case IF:
+                if (asspCondIntroRule == null) break;
+                alternatives.add(() -> {
+                    Subproof sub = subproof(goal.left, asspCondIntroRule, GOAL, goal.right, ctx, bound - 1);
+                    return sub == null ? null : new Proof(goal, conditionalIntroRule, Collections.emptyList(), Collections.singletonList(sub));
+                });
+                break;
+            case IFF:
+                if (asspBicondIntroRule == null) break;
+                alternatives.add(() -> {
+                    Subproof sub1 = subproof(goal.left, asspBicondIntroRule, GOAL, goal.right, ctx, bound - 1);
+                    if (sub1 == null) return null;
+                    Subproof sub2 = subproof(goal.right, asspBicondIntroRule, GOAL, goal.left, ctx, bound - 1 - sub1.cost);
+                    return sub2 == null ? null : new Proof(goal, biconditionalIntroRule, Collections.emptyList(), Arrays.asList(sub1, sub2));
+                });
+                break;
+            case NOT:
+                if (asspNegIntroRule == null) break;
+                alternatives.add(() -> {
+                    Subproof sub = subproof(goal.left, asspNegIntroRule, CONTRADICTION, bottom, ctx, bound - 1);
+                    return sub == null ? null : new Proof(goal, negationIntroRule, Collections.emptyList(), Collections.singletonList(sub));
+                });
+                break;
+            case BOTTOM:
+                if (contradictionIntroRule == null) break;
+                //a negation ∼𝒬 that can be had by exploiting an accessible line, with 𝒬 as a new goal
+                for (Node fact : ctx.nodes) {
+                    for (Node negation : positiveNegations(fact)) {
+                        alternatives.add(() -> {
+                            Proof negationProof = minExploit(fact, negation, ctx, bound - 1);
+                            if (negationProof == null) return null;
+                            Proof positive = minProof(negation.left, ctx, bound - 1 - negationProof.cost);
+                            return positive == null ? null : new Proof(goal, contradictionIntroRule, positive, negationProof);
+                        });
+                    }
+                }
+                break;
+            default:
+        }
+
+        //disjunction exploit, for a disjunction neither side of which is accessible
+        DerivationRule asspDisjExploitRule = goal == bottom ? asspDisjExploitCRule : asspDisjExploitGRule;
+        String exit = goal == bottom ? CONTRADICTION : GOAL;
+        if (asspDisjExploitRule != null) {
+            for (Node fact : ctx.nodes) {
+                for (Node disjunction : positiveDisjunctions(fact)) {
+                    if (ctx.contains(disjunction.left) || ctx.contains(disjunction.right)) continue;
+                    alternatives.add(() -> {
+                        Proof disjunctionProof = minExploit(fact, disjunction, ctx, bound - 1);
+                        if (disjunctionProof == null) return null;
+                        Subproof sub1 = subproof(disjunction.left, asspDisjExploitRule, exit, goal, ctx, bound - 1 - disjunctionProof.cost);
+                        if (sub1 == null) return null;
+                        Subproof sub2 = subproof(disjunction.right, asspDisjExploitRule, exit, goal, ctx, bound - 1 - disjunctionProof.cost - sub1.cost);
+                        return sub2 == null ? null : new Proof(goal, disjunctionExploitRule, Collections.singletonList(disjunctionProof), Arrays.asList(sub1, sub2));
+                    });
+                }
+            }
+        }
+
+        //negation exploit, for goals (atomic and disjunction) the goal strategies do not reach by themselves
+        if (asspNegExploitRule != null && (goal.kind == Kind.ATOM || goal.kind == Kind.OR)) {
+            Node negatedGoal = negation(goal);
+            if (!ctx.contains(negatedGoal)) {
+                alternatives.add(() -> {
+                    Subproof sub = subproof(negatedGoal, asspNegExploitRule, CONTRADICTION, bottom, ctx, bound - 1);
+                    return sub == null ? null : new Proof(goal, negationExploitRule, Collections.emptyList(), Collections.singletonList(sub));
+                });
+            }
+        }
+        return alternatives;
+    }
+
+    /*
+     * Subderivation from assumption to goal in limit lines or less (with the assumption, and reiteration of a goal
+     * that is accessible from outside the subderivation)
+     */
+    private Subproof subproof(Node assumption, DerivationRule asspRule, String exit, Node goal, Ctx ctx, int limit) {
+        Proof body = minProof(goal, ctx.with(assumption), limit - 1);
+        if (body == null) return null;
+        Subproof sub = new Subproof(assumption, asspRule, exit, body);
+        return sub.cost <= limit ? sub : null;
+    }
+
+    /*
+     * Proof of goal by exploitation rules from a proof of a formula that has goal as a positive part
+     */
+    private Proof exploit(Proof have, Node goal, Ctx ctx, int bound) {
+        if (have.cost > bound) return null;
+        Node formula = have.formula;
+        if (formula == goal) return have;
+        switch (formula.kind) {
+            case AND:
+                for (Node side : new Node[]{formula.left, formula.right}) {
+                    if (reaches(side, goal)) {
+                        Proof proof = exploit(new Proof(side, conjunctionExploitRule, have), goal, ctx, bound);
+                        if (proof != null) return proof;
+                    }
+                }
+                return null;
+            case IF:
+                if (reaches(formula.right, goal)) {
+                    Proof antecedent = minProof(formula.left, ctx, bound - have.cost - 1);
+                    if (antecedent != null) return exploit(new Proof(formula.right, conditionalExploitRule, have, antecedent), goal, ctx, bound);
+                }
+                return null;
+            case IFF:
+                for (int i = 0; i < 2; i++) {
+                    Node known = i == 0 ? formula.left : formula.right;
+                    Node result = i == 0 ? formula.right : formula.left;
+                    if (reaches(result, goal)) {
+                        Proof side = minProof(known, ctx, bound - have.cost - 1);
+                        if (side != null) {
+                            Proof proof = exploit(new Proof(result, biconditionalExploitRule, have, side), goal, ctx, bound);
+                            if (proof != null) return proof;
+                        }
+                    }
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    /*
+     * Shortest proof of a positive part of an accessible formula by exploitation from it
+     */
+    private Proof minExploit(Node fact, Node goal, Ctx ctx, int limit) {
+        for (int bound = 0; bound <= limit; bound++) {
+            Proof proof = exploit(new Proof(fact), goal, ctx, bound);
+            if (proof != null) return proof;
+        }
+        return null;
+    }
+
+    //goal is formula, or a part of it that the exploitation rules of the ruleset can reach (sides of ∧ and ↔,
+    //consequent of →)
+    private boolean reaches(Node formula, Node goal) {
+        if (formula == goal) return true;
+        if (!isExploitable(formula)) return false;
+        switch (formula.kind) {
+            case AND:
+            case IFF: return reaches(formula.left, goal) || reaches(formula.right, goal);
+            case IF: return reaches(formula.right, goal);
+            default: return false;
+        }
+    }
+
+    private boolean isExploitable(Node formula) {
+        switch (formula.kind) {
+            case AND: return conjunctionExploitRule != null;
+            case IF: return conditionalExploitRule != null;
+            case IFF: return biconditionalExploitRule != null;
+            default: return false;
+        }
+    }
+
+    private List<Node> positiveNegations(Node formula) {
+        List<Node> parts = new ArrayList<>();
+        addPositiveParts(formula, Kind.NOT, parts);
+        return parts;
+    }
+
+    private List<Node> positiveDisjunctions(Node formula) {
+        List<Node> parts = new ArrayList<>();
+        addPositiveParts(formula, Kind.OR, parts);
+        return parts;
+    }
+
+    private void addPositiveParts(Node formula, Kind kind, List<Node> parts) {
+        if (formula.kind == kind && !parts.contains(formula)) parts.add(formula);
+        if (!isExploitable(formula)) return;
+        switch (formula.kind) {
+            case AND:
+            case IFF:
+                addPositiveParts(formula.left, kind, parts);
+                addPositiveParts(formula.right, kind, parts);
+                break;
+            case IF:
+                addPositiveParts(formula.right, kind, parts);
+                break;
+            default:
+        }
+    }
+
+    private void expand() {
+        if (stopped) throw new SearchStop();
+        long count = expansions.incrementAndGet();
+        if (count > maxNodes) stop("Search reached its limit of " + maxNodes + " nodes.");
+        else if ((count & 0xFF) == 0 && System.nanoTime() > deadline) stop("Search reached its limit of " + maxMillis + " ms.");
+        if (stopped) throw new SearchStop();
+    }
+
+    private void stop(String reason) {
+        if (!stopped) stopReason = reason;
+        stopped = true;
+    }
+
+    private static Proof call(Callable<Proof> alternative) {
+        try {
+            return alternative.call();
+        }
+        catch (RuntimeException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+
+    /*
+     * Formulas
+     */
+    private enum Kind {
+        ATOM,
+        BOTTOM,
+        NOT,
+        AND,
+        OR,
+        IF,
+        IFF
+    }
+
+    /*
+     * Formula of the search: there is one node for each formula of the interner of a search, so nodes compare by
+     * identity
+     */
+    private static final class Node {
+        final Formula formula;
+        final Kind kind;
+        final Node left;
+        final Node right;
+        final int id;
+        final String text;
+        volatile Node negation;
+
+        Node(Formula formula, Kind kind, Node left, Node right, int id, String text) {
+            this.formula = formula;
+            this.kind = kind;
+            this.left = left;
+            this.right = right;
+            this.id = id;
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    //text of a formula, with the symbols of the object language (and brackets on each binary formula)
+    private String render(Kind kind, Node left, Node right, Formula formula) {
+        switch (kind) {
+            case ATOM:
+            case BOTTOM: return formula.toString();
+            case NOT: return objectLanguage.getNegation() + left.text;
+            default: return objectLanguage.getOpenBracket1() + left.text + " " + getSymbol(kind) + " " + right.text + objectLanguage.getCloseBracket1();
+        }
+    }
+
+    private String getSymbol(Kind kind) {
+        switch (kind) {
+            case AND: return objectLanguage.getConjunction();
+            case OR: return objectLanguage.getDisjunction();
+            case IF: return objectLanguage.getConditional();
+            default: return objectLanguage.getBiconditional();
+        }
+    }
+
+    //negation of formula, as a match of the negation form
+    private Node negation(Node formula) {
+        Node negation = formula.negation;
+        if (negation == null) {
+            MatchContext context = new MatchContext();
+            try {
+                ((MFormula) negationForm.getExpression().getChildren().get(0)).setMatch(context, formula.formula);
+            }
+            catch (TextMessageException e) {
+                throw new IllegalStateException(e);
+            }
+            negation = toNode((Formula) negationForm.getMatch(context));
+            formula.negation = negation;
+        }
+        return negation;
+    }
+
+    private Node toNode(Document document) {
+        List<Expression> expressions = ParseUtilities.parseDoc(document, objectLanguage.getNameString());
+        if (expressions.size() != 1 || !(expressions.get(0) instanceof Formula)) {
+            throw new UnsupportedFormulaException("'" + document.getText() + "' is not a formula of " + objectLanguage.getNameString() + ".");
+        }
+        return toNode((Formula) expressions.get(0));
+    }
+
+    private Node toNode(Formula formula) {
+        Formula canonical = interner.internShared(formula);
+        Node node = nodes.get(canonical);
+        if (node != null) return node;
+
+        Kind kind;
+        Node left = null;
+        Node right = null;
+        if (canonical instanceof ContradictionSimple) kind = Kind.BOTTOM;
+        else if (canonical.isAtomic()) kind = Kind.ATOM;
+        else {
+            ExpressionType type = canonical.getMainOperator() == null ? null : canonical.getMainOperator().getType();
+            List<Expression> children = canonical.getChildren();
+            if (type == ExpressionType.NEG_OP) kind = Kind.NOT;
+            else if (type == ExpressionType.CONJ_OP) kind = Kind.AND;
+            else if (type == ExpressionType.DISJ_OP) kind = Kind.OR;
+            else if (type == ExpressionType.COND_OP) kind = Kind.IF;
+            else if (type == ExpressionType.BICOND_OP) kind = Kind.IFF;
+            else throw new UnsupportedFormulaException("Search is for sentential rules, and does not apply to " + formula + ".");
+            left = toNode((Formula) children.get(0));
+            if (kind != Kind.NOT) right = toNode((Formula) children.get(1));
+        }
+        node = new Node(canonical, kind, left, right, nodeIds.incrementAndGet(), render(kind, left, right, canonical));
+        Node known = nodes.putIfAbsent(canonical, node);
+        return known != null ? known : node;
+    }
+
+
+    /*
+     * Interned set of accessible formulas (premises and assumptions), with its extensions by a further assumption
+     * interned on demand
+     */
+    private final class Ctx {
+        final Node[] nodes;
+        final int id;
+        private final Map<Node, Ctx> extensions = new ConcurrentHashMap<>();
+
+        Ctx(Node[] nodes, int id) {
+            this.nodes = nodes;
+            this.id = id;
+        }
+
+        boolean contains(Node node) {
+            for (Node member : nodes) if (member == node) return true;
+            return false;
+        }
+
+        Ctx with(Node node) {
+            if (contains(node)) return this;
+            return extensions.computeIfAbsent(node, n -> {
+                Node[] members = Arrays.copyOf(nodes, nodes.length + 1);
+                members[nodes.length] = n;
+                return intern(members);
+            });
+        }
+    }
+
+    private Ctx intern(Node[] members) {
+        Node[] sorted = Arrays.stream(members).distinct().sorted((a, b) -> Integer.compare(a.id, b.id)).toArray(Node[]::new);
+        StringBuilder sb = new StringBuilder();
+        for (Node node : sorted) sb.append(node.id).append(',');
+        return contexts.computeIfAbsent(sb.toString(), k -> new Ctx(sorted, ctxIds.incrementAndGet()));
+    }
+
+
+    /*
+     * Proof of a formula: accessible (no lines), or a line by a rule from cited proofs and subderivations
+     */
+    private static final class Proof {
+        final Node formula;
+        final DerivationRule rule;
+        final List<Proof> cited;
+        final List<Subproof> subs;
+        final int cost;
+
+        Proof(Node formula) {
+            this(formula, null, Collections.emptyList(), Collections.emptyList());
+        }
+
+        Proof(Node formula, DerivationRule rule, Proof... cited) {
+            this(formula, rule, Arrays.asList(cited), Collections.emptyList());
+        }
+
+        Proof(Node formula, DerivationRule rule, List<Proof> cited, List<Subproof> subs) {
+            this.formula = formula;
+            this.rule = rule;
+            this.cited = cited;
+            this.subs = subs;
+            int lines = rule == null ? 0 : 1;
+            for (Proof proof : cited) lines += proof.cost;
+            for (Subproof sub : subs) lines += sub.cost;
+            this.cost = lines;
+        }
+
+        boolean isAccessible() {
+            return rule == null;
+        }
+    }
+
+    private static final class Subproof {
+        final Node assumption;
+        final DerivationRule asspRule;
+        final String exit;
+        final Proof body;
+        final int cost;
+
+        Subproof(Node assumption, DerivationRule asspRule, String exit, Proof body) {
+            this.assumption = assumption;
+            this.asspRule = asspRule;
+            this.exit = exit;
+            this.body = body;
+            //the assumption, the body, and reiteration of a goal accessible from outside
+            int lines = 1 + body.cost;
+            if (body.isAccessible() && body.formula != assumption) lines++;
+            this.cost = lines;
+        }
+    }
+
+    private static final class Memo {
+        final Proof proof;
+        final int failBound;
+
+        Memo(Proof proof, int failBound) {
+            this.proof = proof;
+            this.failBound = failBound;
+        }
+    }
+
+    private static class SearchStop extends RuntimeException {
+        private static final long serialVersionUID = 100L;
+
+        SearchStop() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static class UnsupportedFormulaException extends RuntimeException {
+        private static final long serialVersionUID = 100L;
+
+        UnsupportedFormulaException(String message) {
+            super(message);
+        }
+    }
+
+
+    /*
+     * Model lines for a proof: premises (and setup shelf) as in the exercise, then the lines of the proof, with
+     * the conclusion last
+     */
+    private final class Linearizer {
+        private final DerivationModel exercise;
+        private final List<ModelLine> premiseLines;
+        private final List<Node> premises;
+        private final ModelLine conclusionLine;
+        private final List<ModelLine> lines = new ArrayList<>();
+        private int lineNumber = 0;
+        private String lastLabel = null;
+
+        Linearizer(DerivationModel exercise, List<ModelLine> premiseLines, List<Node> premises, ModelLine conclusionLine) {
+            this.exercise = exercise;
+            this.premiseLines = premiseLines;
+            this.premises = premises;
+            this.conclusionLine = conclusionLine;
+        }
+
+        List<ModelLine> getLines(Proof proof) {
+            Map<Node, String> scope = new HashMap<>();
+            for (int i = 0; i < premiseLines.size(); i++) {
+                lines.add(new ModelLine(1, premiseLines.get(i).getLineContentDoc(), premiseRule.getName(), LineType.PREMISE_LINE));
+                scope.putIfAbsent(premises.get(i), Integer.toString(++lineNumber));
+            }
+            if (!premiseLines.isEmpty()) lines.add(new ModelLine(1, null, "", LineType.SETUP_SHELF_LINE));
+
+            int bodyStart = lines.size();
+            String label = emit(proof, scope, 1);
+            if (lines.size() > bodyStart && label.equals(lastLabel) && lines.get(lines.size() - 1).getDepth() == 1) {
+                ModelLine last = lines.remove(lines.size() - 1);
+                lines.add(new ModelLine(1, conclusionLine.getLineContentDoc(), last.getJustification(), LineType.CONCLUSION_LINE));
+            }
+            else lines.add(new ModelLine(1, conclusionLine.getLineContentDoc(), label + " " + reiterationRule.getName(), LineType.CONCLUSION_LINE));
+            return lines;
+        }
+
+        //label of the line with the formula of proof, adding the lines of proof if it is not accessible
+        private String emit(Proof proof, Map<Node, String> scope, int depth) {
+            String label = scope.get(proof.formula);
+            if (label != null) return label;
+
+            List<String> labels = new ArrayList<>();
+            for (Proof cited : proof.cited) labels.add(emit(cited, scope, depth));
+            String disjunctionLabel = labels.isEmpty() ? "" : labels.get(0);
+            for (int i = 0; i < proof.subs.size(); i++) {
+                if (i > 0) lines.add(new ModelLine(depth + 1, null, "", LineType.GAP_LINE));
+                Subproof sub = proof.subs.get(i);
+                Map<Node, String> subScope = new HashMap<>(scope);
+                String exitLabel = proof.rule == disjunctionExploitRule ? disjunctionLabel : "";
+                String assumptionLabel = addLine(sub.assumption, assumptionJustification(sub.asspRule, sub.exit, exitLabel, proof.rule), depth + 1);
+                subScope.put(sub.assumption, assumptionLabel);
+                String bodyLabel = emit(sub.body, subScope, depth + 1);
+                if (!bodyLabel.equals(lastLabel)) bodyLabel = addLine(sub.body.formula, bodyLabel + " " + reiterationRule.getName(), depth + 1);
+                labels.add(assumptionLabel + "-" + bodyLabel);
+            }
+
+            label = addLine(proof.formula, String.join(",", labels) + " " + proof.rule.getName(), depth);
+            scope.put(proof.formula, label);
+            return label;
+        }
+
+        private String addLine(Node formula, String justification, int depth) {
+            lines.add(new ModelLine(depth, new Document(formula.text), justification, LineType.MAIN_CONTENT_LINE));
+            lastLabel = Integer.toString(++lineNumber);
+            return lastLabel;
+        }
+    }
+
+
+    /**
+     * Result of a search, with its statistics
+     */
+    public static class SearchResult {
+        private Status status;
+        private String message = "";
+        private DerivationModel model;
+        private int lines;
+        private long nodes;
+        private int visited;
+        private int formulas;
+        private long elapsedNanos;
+        private long peakHeapBytes;
+
+        public Status getStatus() { return status; }
+
+        public String getMessage() { return message; }
+
+        /**
+         * The exercise with the derivation found (if the status is FOUND or CHECK_FAILED)
+         */
+        public DerivationModel getModel() { return model; }
+
+        /**
+         * Content lines of the derivation found (including premises)
+         */
+        public int getLines() { return lines; }
+
+        /**
+         * Goals expanded in the search
+         */
+        public long getNodes() { return nodes; }
+
+        /**
+         * (Goal, accessible formulas) pairs visited
+         */
+        public int getVisited() { return visited; }
+
+        /**
+         * Distinct formulas in the search
+         */
+        public int getFormulas() { return formulas; }
+
+        public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+
+        public double getNodesPerSecond() { return elapsedNanos == 0 ? 0.0 : nodes * 1e9 / elapsedNanos; }
+
+        /**
+         * Peak heap use of the process during the search
+         */
+        public long getPeakHeapBytes() { return peakHeapBytes; }
+    }
+}
@@ -99,6 +99,7 @@ public class DerivationView implements ExerciseView<DecoratedRTA> {
     private Text checkedElements;
     private Label helpTriesLabel;
     private Label checkTriesLabel;
+    private CheckBox liveCheckBox;
     private boolean checkSuccess;
     private Color checkColor;
     private Color checkElementsColor;
@@ -336,7 +337,9 @@ public class DerivationView implements ExerciseView<DecoratedRTA> {
         checkProgButton = new Button("Check Progress");
         checkProgButton.setPrefWidth(105);
         checkProgButton.setTooltip(new Tooltip("Check derivation progress so far."));
-        VBox checksBox = new VBox(10, checkProgButton, checkButton, checkTriesLabel);
+        liveCheckBox = new CheckBox("Live Check");
+        liveCheckBox.setTooltip(new Tooltip("Check lines as you edit (where checks are unlimited)."));
+        VBox checksBox = new VBox(10, checkProgButton, checkButton, checkTriesLabel, liveCheckBox);
         checksBox.setAlignment(Pos.CENTER);
         checkTriesLabel.setAlignment(Pos.CENTER);
         checksBox.setMargin(checkProgButton, new Insets(0,0,10, 0));
@@ -429,7 +432,7 @@ public class DerivationView implements ExerciseView<DecoratedRTA> {
             Label lineNumberLabel = viewLine.getLineNumberLabel();
             if (lineNumberLabel != null) {
                 lineNumberLabel.setText(Integer.toString(lineNumber++));
-                HBox numBox = new HBox(lineNumberLabel, new Label(". "));
+                HBox numBox = new HBox(viewLine.getStatusBadge(), lineNumberLabel, new Label(". "));
                 numBox.setAlignment(Pos.BASELINE_RIGHT);
                 grid.add(numBox, 0, index, 1, 1);
             }
@@ -742,6 +745,10 @@ public class DerivationView implements ExerciseView<DecoratedRTA> {
         return checkTriesLabel;
     }
 
+    public CheckBox getLiveCheckBox() {
+        return liveCheckBox;
+    }
+
     public void setCheckMessage(String checkMessage) {
         this.checkMessage = checkMessage;
     }
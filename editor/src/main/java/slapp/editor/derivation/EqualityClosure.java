@@ -0,0 +1,202 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+package slapp.editor.derivation;
+
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.CompiledForm;
+import slapp.editor.parser.Expression;
+import slapp.editor.parser.Language;
+import slapp.editor.parser.MatchUtilities;
+import slapp.editor.parser.Pair;
+import slapp.editor.parser.SyntacticalFns;
+import slapp.editor.parser.TextMessageException;
+import slapp.editor.parser.grammatical_parts.ExpressionInterner;
+import slapp.editor.parser.grammatical_parts.Formula;
+import slapp.editor.parser.grammatical_parts.MTerm;
+import slapp.editor.parser.grammatical_parts.Term;
+import slapp.editor.parser.symbols.MTermSym;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * Formulas obtainable from a list of formulas by its equalities, for contextual help.  Equality need not result in
+ * "smaller" expressions (Rf1j and f1j = j give Rf1f1j, Rf1f1f1j, etc.), so the closure runs for a fixed number of
+ * rounds.  Each round applies every equality s = t of the list to every formula of the list, substituting t for
+ * any set of free occurrences of s for which t is free (and s for t).
+ *
+ * A round pairs only equalities and formulas at least one of which is new to the round.  Formulas are kept in a
+ * hashed set, whether t is free for an occurrence of s is decided once per occurrence, and the closure stops once
+ * it has generated a maximum number of formulas or run for a maximum time.  The limits default to the properties
+ * slapp.equalityMaxFormulas and slapp.equalityMaxMillis where these are set.
+ */
+public class EqualityClosure {
+
+    public static final int DEFAULT_MAX_FORMULAS = Integer.getInteger("slapp.equalityMaxFormulas", 2000);
+    public static final long DEFAULT_MAX_MILLIS = Long.getLong("slapp.equalityMaxMillis", 1000);
+    private static final int ROUNDS = 2;
+
+    private final Language objectLanguage;
+    private final ExpressionInterner interner;
+    private final CompiledForm equalityForm;
+    private int maxFormulas = DEFAULT_MAX_FORMULAS;
+    private long maxMillis = DEFAULT_MAX_MILLIS;
+
+    private List<Formula> formulas;
+    private Set<Formula> known;
+    private List<Formula> newFormulas;
+    private int generated;
+    private long deadline;
+    private boolean limitReached;
+
+
+    public EqualityClosure(Language objectLanguage, Language metaLanguage) {
+        this(objectLanguage, metaLanguage, new ExpressionInterner());
+    }
+
+    /*
+     * Closure whose new formulas are interned by interner
+     */
+    public EqualityClosure(Language objectLanguage, Language metaLanguage, ExpressionInterner interner) {
+        this.objectLanguage = objectLanguage;
+        this.interner = interner;
+        this.equalityForm = CompiledForm.getInstance("\uE8AC\uD835\uDCC8\uD835\uDCC9", metaLanguage.getNameString());
+    }
+
+    /*
+     * Set limits on each closure
+     * @param maxFormulas maximum number of formulas to generate
+     * @param maxMillis maximum time in milliseconds
+     */
+    public void setLimits(int maxFormulas, long maxMillis) {
+        this.maxFormulas = maxFormulas;
+        this.maxMillis = maxMillis;
+    }
+
+    /*
+     * Add to list the formulas obtainable from it by its equalities (within the limits)
+     * @param formulaList the list of formulas
+     */
+    public void close(List<Formula> formulaList) {
+        formulas = formulaList;
+        known = new HashSet<>(formulaList);
+        generated = 0;
+        deadline = System.currentTimeMillis() + maxMillis;
+        limitReached = false;
+
+        List<Pair<Term, Term>> equalities = new ArrayList<>();
+        int processed = 0;
+        for (int round = 0; round < ROUNDS && !limitReached; round++) {
+            int size = formulas.size();
+            for (int i = equalities.size(); i < size; i++) equalities.add(getEqualityTerms(formulas.get(i)));
+            newFormulas = new ArrayList<>();
+
+            for (int i = 0; i < size && !limitReached; i++) {
+                Pair<Term, Term> equality = equalities.get(i);
+                if (equality == null) continue;
+                Term termS = equality.getKey();
+                Term termT = equality.getValue();
+
+                //an equality of an earlier round was applied to the formulas of that round
+                for (int j = (i < processed ? processed : 0); j < size && !limitReached; j++) {
+                    applyEquality(formulas.get(j), termS, termT);
+                    applyEquality(formulas.get(j), termT, termS);
+                }
+            }
+            processed = size;
+            formulas.addAll(newFormulas);
+        }
+    }
+
+    /*
+     * True if the last closure stopped at its limit on formulas or time
+     */
+    public boolean isLimitReached() {
+        return limitReached;
+    }
+
+    /*
+     * Terms s and t of formula s = t
+     * @return the pair (s, t), or null if the formula is not an equality of distinct terms
+     */
+    private Pair<Term, Term> getEqualityTerms(Formula formula) {
+        MatchContext context = new MatchContext();
+        try {
+            context.clear();
+            MatchUtilities.simpleExpFormMatch(context, equalityForm, formula, objectLanguage.getNameString());
+            Term termS = null;
+            Term termT = null;
+            for (MTerm mTerm : MTerm.getmTerms()) {
+                if (mTerm.getmTermSym().equals(new MTermSym("\ud835\udcc8", ""))) termS = mTerm.getMatch(context);
+                if (mTerm.getmTermSym().equals(new MTermSym("\ud835\udcc9", ""))) termT = mTerm.getMatch(context);
+            }
+            if (!termS.equals(termT)) return new Pair<>(termS, termT);
+        } catch (TextMessageException e) {   }
+        return null;
+    }
+
+    /*
+     * Add formulas from substituting termT for each non-empty set of free occurrences of termS for which termT is
+     * free.  Sets are built up one occurrence at a time from a worklist: an entry is a formula with the occurrences
+     * before an index substituted, and each of the later occurrences is substituted in it for a new entry, so that each
+     * set is reached once.  Substitution copies just the path to the occurrence, so the remaining occurrences are the
+     * same nodes in the new formula (and termT stays free for them); the interned formula goes to the list.
+     */
+    private void applyEquality(Formula candidateForm, Term termS, Term termT) {
+        List<Expression> occurrences = new ArrayList<>();
+        addFreeOccurrences(candidateForm, termS, candidateForm, occurrences);
+        if (occurrences.isEmpty()) return;
+
+        List<Expression> freeForOccurrences = new ArrayList<>();
+        for (Expression occurrence : occurrences) {
+            if (SyntacticalFns.freeForExp(candidateForm, occurrence, termT, objectLanguage.getNameString())) freeForOccurrences.add(occurrence);
+        }
+        int count = freeForOccurrences.size();
+
+        Deque<Pair<Formula, Integer>> worklist = new ArrayDeque<>();
+        worklist.add(new Pair<>(candidateForm, 0));
+        while (!worklist.isEmpty()) {
+            Pair<Formula, Integer> entry = worklist.poll();
+            for (int j = entry.getValue(); j < count; j++) {
+                if (generated >= maxFormulas || System.currentTimeMillis() > deadline) {
+                    limitReached = true;
+                    return;
+                }
+                Formula substituted = (Formula) SyntacticalFns.substituteParticularTerms(entry.getKey(), termT, Collections.singletonList(freeForOccurrences.get(j)));
+                Formula newFormula = interner.intern(substituted);
+                if (known.add(newFormula)) {
+                    newFormulas.add(newFormula);
+                    generated++;
+                }
+                if (j + 1 < count) worklist.add(new Pair<>(substituted, j + 1));
+            }
+        }
+    }
+
+    private void addFreeOccurrences(Expression processedExp, Term term, Formula formula, List<Expression> occurrences) {
+        if (processedExp instanceof Term && processedExp.equals(term) && SyntacticalFns.particularTermsFreeInFormula(formula, Collections.singletonList(processedExp), objectLanguage.getNameString())) occurrences.add(processedExp);
+
+        if (processedExp.getChildren() != null && processedExp.getLevel() > 0) {
+            for (int i = 0; i < processedExp.getChildren().size(); i++) {
+                addFreeOccurrences(processedExp.getChildren().get(i), term, formula, occurrences);
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+package slapp.editor.derivation;
+
+import com.gluonhq.richtextarea.RichTextArea;
+import com.gluonhq.richtextarea.RichTextAreaSkin;
+import com.gluonhq.richtextarea.model.Document;
+import com.gluonhq.richtextarea.model.TextBuffer;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tooltip;
+import javafx.scene.paint.Color;
+import javafx.util.Duration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Live check of a derivation as it is edited.  A pause in editing takes a snapshot of the lines, which is checked
+ * by a model check of its own on a worker thread; the result marks each line of the view with a badge.  A check
+ * started before a later edit is stale: it is cancelled if it has not started, stops at its next line if it has, and
+ * its result is dropped if it has finished.  A check that fails marks the first line.
+ *
+ * Live checks do not count against check tries, and so are available only where checks are unlimited.
+ */
+class LiveDerivationCheck {
+
+    private static final Duration PAUSE = Duration.millis(500);
+    private static final String GOOD_BADGE = "✓";
+    private static final String BAD_BADGE = "✗";
+    private static final String FAILED_BADGE = "!";
+
+    private static final ExecutorService executor = newExecutor();
+
+    private final DerivationExercise derivationExercise;
+    private final DerivationView derivationView;
+    private final ModelCheck modelCheck;
+    private final PauseTransition pause = new PauseTransition(PAUSE);
+    private final AtomicLong generation = new AtomicLong();
+    private Future<?> pending;
+    private boolean active = false;
+
+
+    LiveDerivationCheck(DerivationExercise derivationExercise) {
+        this.derivationExercise = derivationExercise;
+        this.derivationView = derivationExercise.getExerciseView();
+        this.modelCheck = ModelCheck.fromCheckSetup(derivationExercise.getExerciseModel().getCheckSetup());
+
+        pause.setOnFinished(e -> submitCheck());
+
+        DerivationCheck derivationCheck = derivationExercise.getDerivationCheck();
+        CheckBox liveCheckBox = derivationView.getLiveCheckBox();
+        liveCheckBox.setDisable(derivationCheck.getCheckMax() != -1 && !derivationExercise.getMainWindow().isInstructorFunctions());
+        liveCheckBox.selectedProperty().addListener((ob, ov, nv) -> {
+            active = nv;
+            if (active) requestCheck();
+            else {
+                generation.incrementAndGet();
+                pause.stop();
+                clearBadges();
+            }
+        });
+    }
+
+    private static ExecutorService newExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "live derivation check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /*
+     * Check the lines once editing pauses (if live check is on); any check already requested is stale
+     */
+    void requestCheck() {
+        if (!active) return;
+        generation.incrementAndGet();
+        pause.playFromStart();
+    }
+
+    private void submitCheck() {
+        long snapshotGeneration = generation.get();
+        List<ModelLine> snapshot = getSnapshot();
+        if (pending != null) pending.cancel(false);
+        pending = executor.submit(() -> {
+            if (snapshotGeneration != generation.get()) return;
+            List<CheckLine> checkLines;
+            List<CheckIssue> issues;
+            boolean justificationsChecked;
+            modelCheck.setStopCondition(() -> snapshotGeneration != generation.get());
+            try {
+                checkLines = CheckLine.getCheckLines(snapshot);
+                issues = modelCheck.checkEach(checkLines, false);
+                justificationsChecked = modelCheck.isJustificationsChecked();
+            }
+            catch (CancellationException e) {
+                return;
+            }
+            catch (RuntimeException e) {
+                e.printStackTrace();
+                Platform.runLater(() -> publishFailure(snapshotGeneration, e));
+                return;
+            }
+            Platform.runLater(() -> publish(snapshotGeneration, checkLines, issues, justificationsChecked));
+        });
+    }
+
+    /*
+     * Model lines from the view.  The document of a content area with unsaved edits is read from its text buffer,
+     * so that the area is not saved (and its edits still go to undo when it loses focus).
+     */
+    private List<ModelLine> getSnapshot() {
+        List<ViewLine> viewLines = derivationView.getViewLines();
+        List<ModelLine> snapshot = new ArrayList<>(viewLines.size());
+        for (ViewLine viewLine : viewLines) {
+            Document document = null;
+            String justification = "";
+            if (LineType.isContentLine(viewLine.getLineType())) {
+                document = getCurrentDocument(viewLine.getLineContentBoxedDRTA().getRTA());
+                justification = derivationExercise.getStringFromJustificationFlow(viewLine.getJustificationFlow());
+            }
+            snapshot.add(new ModelLine(viewLine.getDepth(), document, justification, viewLine.getLineType()));
+        }
+        return snapshot;
+    }
+
+    private static Document getCurrentDocument(RichTextArea rta) {
+        if (!rta.isModified() || !(rta.getSkin() instanceof RichTextAreaSkin)) return rta.getDocument();
+        TextBuffer textBuffer = ((RichTextAreaSkin) rta.getSkin()).getViewModel().getTextBuffer();
+        int length = textBuffer.getTextLength();
+        return new Document(textBuffer.getText(0, length), textBuffer.getDecorationModelList(0, length), length);
+    }
+
+    /*
+     * Mark lines of the view with the result of a check, unless the check is stale
+     */
+    private void publish(long snapshotGeneration, List<CheckLine> checkLines, List<CheckIssue> issues, boolean justificationsChecked) {
+        List<ViewLine> viewLines = derivationView.getViewLines();
+        if (!active || snapshotGeneration != generation.get() || viewLines.size() != checkLines.size()) return;
+
+        //an issue for the derivation as a whole goes on the first line
+        Map<Integer, CheckIssue> issueRows = new HashMap<>();
+        for (CheckIssue issue : issues) issueRows.putIfAbsent(Math.max(issue.getLineIndex(), 0), issue);
+
+        for (int i = 0; i < viewLines.size(); i++) {
+            Label badge = viewLines.get(i).getStatusBadge();
+            CheckLine line = checkLines.get(i);
+            CheckIssue issue = issueRows.get(i);
+            if (issue != null) setBadge(badge, BAD_BADGE, Color.RED, issue.getPlainText());
+            else if (justificationsChecked && line.isContentLine() && !line.getJustification().isEmpty()) setBadge(badge, GOOD_BADGE, Color.GREEN, null);
+            else setBadge(badge, "", Color.BLACK, null);
+        }
+    }
+
+    /*
+     * Mark the first line of the view with a check that failed, unless the check is stale
+     */
+    private void publishFailure(long snapshotGeneration, RuntimeException exception) {
+        List<ViewLine> viewLines = derivationView.getViewLines();
+        if (!active || snapshotGeneration != generation.get() || viewLines.isEmpty()) return;
+        clearBadges();
+        setBadge(viewLines.get(0).getStatusBadge(), FAILED_BADGE, Color.ORANGE, "Live check could not be completed: " + exception);
+    }
+
+    private void clearBadges() {
+        for (ViewLine viewLine : derivationView.getViewLines()) setBadge(viewLine.getStatusBadge(), "", Color.BLACK, null);
+    }
+
+    private static void setBadge(Label badge, String text, Color color, String tip) {
+        badge.setText(text);
+        badge.setTextFill(color);
+        badge.setTooltip(tip == null ? null : new Tooltip(tip));
+    }
+}
@@ -0,0 +1,671 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+
+package slapp.editor.derivation;
+
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.Pair;
+import slapp.editor.derivation.der_systems.DerivationRuleset;
+import slapp.editor.derivation.der_systems.DerivationRulesets;
+import slapp.editor.derivation.der_systems.JustificationDispatcher;
+import slapp.editor.derivation.theorems.Theorem;
+import slapp.editor.derivation.theorems.ThrmSetElement;
+import slapp.editor.parser.Expression;
+import slapp.editor.parser.Languages;
+import slapp.editor.parser.ParseCache;
+import slapp.editor.parser.ParseResult;
+import slapp.editor.parser.ParseUtilities;
+import slapp.editor.parser.grammatical_parts.Formula;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+
+/**
+ * Check of a derivation on its {@link slapp.editor.derivation.CheckLine}s, apart from any view.  The check parses
+ * the line formulas, checks scope structure, assumption scopes and the form of justifications, sets the assumption
+ * list of each line, and then applies rules and theorems to the lines they justify.  The first problem found is
+ * returned as a {@link slapp.editor.derivation.CheckIssue}.  Rules and theorems look up lines and their accessibility
+ * through this class.
+ *
+ * A model check keeps the lines that checked, each with the lines its rule consulted, from one check to the next;
+ * when the derivation is checked again (as after an edit) just lines that changed, or that consulted a line that
+ * changed, go back to their rules.
+ */
+public class ModelCheck {
+
+    private static final int MAX_DISPATCHES = 1024;
+
+    private final DerivationRuleset derivationRuleset;
+    private final List<Theorem> theorems;
+    private final JustificationDispatcher dispatcher;
+    private List<CheckLine> checkLines = Collections.emptyList();
+    private Map<String, CheckLine> labelIndex = new HashMap<>();
+    private int[] contentAbove = new int[0];
+    private int[] contentBelow = new int[0];
+    private int[] lastAtScope = new int[0];
+    private Scope[] lineScopes = new Scope[0];
+    private String[] lineKeys = new String[0];
+    private Map<String, CheckedLine> checkedLines = new HashMap<>();
+    private Dependencies dependencies = null;
+    private final Map<String, JustificationDispatcher.Dispatch> dispatches = new HashMap<>();
+    private boolean checkFinal;
+    private boolean justificationsChecked = false;
+    private BooleanSupplier stopCondition = () -> false;
+
+    /**
+     * Construct model check
+     * @param derivationRuleset the ruleset (with object and meta languages set)
+     * @param theorems theorems available for justification
+     */
+    public ModelCheck(DerivationRuleset derivationRuleset, List<Theorem> theorems) {
+        this.derivationRuleset = derivationRuleset;
+        this.theorems = theorems;
+        this.dispatcher = new JustificationDispatcher(derivationRuleset, theorems);
+    }
+
+    /**
+     * Model check for the ruleset, languages and theorems of a check setup (with a new instance of the ruleset,
+     * so that the check may run off the application thread)
+     * @param checkSetup the check setup
+     * @return the model check
+     */
+    public static ModelCheck fromCheckSetup(CheckSetup checkSetup) {
+        DerivationRuleset ruleset = DerivationRulesets.newRuleset(checkSetup.getRulesetName());
+        ruleset.setMetaLanguage(Languages.getLanguage(checkSetup.getMetLangName()));
+        ruleset.setObjectLanguage(Languages.getLanguage(checkSetup.getObjLangName()));
+
+        List<Theorem> theorems = new ArrayList<>();
+        for (ThrmSetElement thrmSetElement : checkSetup.getThrmSetElements()) {
+            Theorem theorem = thrmSetElement.getTheorem();
+            if (theorem != null) theorems.add(theorem);
+        }
+        return new ModelCheck(ruleset, theorems);
+    }
+
+    /**
+     * Set a condition on which a check stops (as when the lines it checks are out of date).  The condition is tested
+     * before each line goes to its rule or theorem, and a check that stops throws CancellationException.
+     * @param stopCondition true if the check should stop
+     */
+    public void setStopCondition(BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    /**
+     * Check derivation
+     * @param lines the lines of the derivation
+     * @param checkFinal true if every formula requires a justification (and otherwise a check of progress)
+     * @return the first issue found, or null if the derivation checks
+     */
+    public CheckIssue check(List<CheckLine> lines, boolean checkFinal) {
+        CheckIssue issue = checkStructure(lines, checkFinal);
+        if (issue == null) issue = checkJustifications(null);
+        return issue;
+    }
+
+    /**
+     * Check derivation, continuing past lines whose justification does not apply
+     * @param lines the lines of the derivation
+     * @param checkFinal true if every formula requires a justification (and otherwise a check of progress)
+     * @return the issue with formulas, scope or the form of justifications if there is one, and otherwise an
+     * issue for each line whose rule or theorem does not apply (in line order)
+     */
+    public List<CheckIssue> checkEach(List<CheckLine> lines, boolean checkFinal) {
+        CheckIssue issue = checkStructure(lines, checkFinal);
+        if (issue != null) return Collections.singletonList(issue);
+        List<CheckIssue> issues = new ArrayList<>();
+        checkJustifications(issues);
+        return issues;
+    }
+
+    private CheckIssue checkStructure(List<CheckLine> lines, boolean checkFinal) {
+        setCheckLines(lines);
+        this.checkFinal = checkFinal;
+        justificationsChecked = false;
+
+        CheckIssue issue = checkFormulas();
+        if (issue == null) issue = checkScopeStructure();
+        if (issue == null) issue = checkAssumptionScopes();
+        if (issue == null) issue = checkJustificationForms();
+        if (issue == null) {
+            setScopeLists();
+            justificationsChecked = true;
+        }
+        return issue;
+    }
+
+    /*
+     * Set lines with the label index, the content line above and below each row, and the last line at the scope of
+     * each row, so that queries from rules do not scan the lines.
+     */
+    private void setCheckLines(List<CheckLine> lines) {
+        checkLines = lines;
+        int size = lines.size();
+        labelIndex = new HashMap<>();
+        contentAbove = new int[size];
+        contentBelow = new int[size];
+        lastAtScope = new int[size];
+        lineScopes = new Scope[size];
+        lineKeys = new String[size];
+
+        int lastContent = -1;
+        for (int i = 0; i < size; i++) {
+            CheckLine line = lines.get(i);
+            if (line.isContentLine()) labelIndex.putIfAbsent(line.getLabel(), line);
+            contentAbove[i] = lastContent >= 0 ? lastContent : i;
+            if (line.isContentLine()) lastContent = i;
+        }
+        int nextContent = -1;
+        for (int i = size - 1; i >= 0; i--) {
+            contentBelow[i] = nextContent >= 0 ? nextContent : i;
+            if (lines.get(i).isContentLine()) nextContent = i;
+        }
+
+        //the scope of a row ends before the next row of lesser depth; rows of greater or equal depth after the
+        //row are popped from the stack as rows are taken from the bottom up
+        int[] stack = new int[size];
+        int top = 0;
+        for (int i = size - 1; i >= 0; i--) {
+            int depth = lines.get(i).realDepth();
+            while (top > 0 && lines.get(stack[top - 1]).realDepth() >= depth) top--;
+            int end = top > 0 ? stack[top - 1] - 1 : size - 1;
+            int last = lines.get(end).isContentLine() ? end : contentAbove[end];
+            lastAtScope[i] = last >= i && lines.get(last).isContentLine() ? last : i;
+            stack[top++] = i;
+        }
+    }
+
+    private CheckIssue checkFormulas() {
+        for (CheckLine line : checkLines) {
+            if (line.isContentLine() && !line.getLineDoc().getText().equals("")) {
+
+                ParseResult parseResult = ParseCache.getSharedCache().parse(line.getLineDoc(), derivationRuleset.getObjectLanguage());
+                List<Expression> parseExpressions = parseResult.getExpressions();
+                if (parseExpressions.size() == 1 && parseExpressions.get(0) instanceof Formula) {
+                    if (!parseResult.getAlternateMessage().isEmpty()) {
+                        return new CheckIssue("Problem in bounded quantifier:", parseResult.getAlternateMessage(), line.getIndex(), CheckIssue.Mark.FORMULA);
+                    }
+                    line.setFormula((Formula) parseExpressions.get(0));
+                }
+                else {
+                    List<StyledText> texts = new ArrayList<>();
+                    StyledText leadText = new StyledText("Parse results:\n", StyledText.Style.ITALIC);
+                    texts.add(leadText);
+
+                    for (Expression expr : parseExpressions) {
+                        texts.add(new StyledText("    "));
+                        texts.add(new StyledText(expr.getType() + ": "));
+                        texts.addAll(expr.toTextList());
+                        texts.add(new StyledText("\n"));
+                    }
+                    return new CheckIssue("Not a formula of " + derivationRuleset.getObjectLanguage().getNameString() + ":", texts, line.getIndex(), CheckIssue.Mark.FORMULA);
+                }
+            }
+        }
+        return null;
+    }
+
+    private CheckIssue checkScopeStructure() {
+        if (checkLines.isEmpty()) {
+            return issue("Derivation Start:", "Derivation has no lines.", -1, CheckIssue.Mark.NONE);
+        }
+
+        CheckLine firstLine = checkLines.get(0);
+        if (!firstLine.isContentLine()) {
+            return issue("Derivation Start:", "Top line of derivation cannot be a 'shelf' or 'gap'.", -1, CheckIssue.Mark.NONE);
+        }
+        if (firstLine.realDepth() > 2) {
+            return issue("Derivation Start:", "Starting scope depth cannot be greater than 2.", 0, CheckIssue.Mark.FORMULA);
+        }
+
+        if (checkLines.size() > 1) {
+            CheckLine lastLine = checkLines.get(checkLines.size() - 1);
+            if (!lastLine.isContentLine()) {
+                return issue("Derivation End", "Last line of derivation cannot be a 'shelf' or 'gap'.", -1, CheckIssue.Mark.NONE);
+            }
+            if (lastLine.realDepth() != 1) {
+                return issue("Derivation End", "Last line of derivation cannot have scope depth greater than 1.", lastLine.getIndex(), CheckIssue.Mark.FORMULA);
+            }
+            if (lastLine.getLineDoc().getText().equals("")) {
+                return issue("Derivation End", "Last line of derivation should be populated with a formula.", lastLine.getIndex(), CheckIssue.Mark.FORMULA);
+            }
+        }
+
+        int depth = firstLine.getDepth();
+        for (int i = 0; i < checkLines.size(); i++) {
+            CheckLine currentLine = checkLines.get(i);
+            int currentDepth = currentLine.realDepth();
+
+            if (currentDepth != 1 && !derivationRuleset.isPermitSubderivations()) {
+                return issue("Scope Increase:", "Basic " + derivationRuleset.getName() + " does not permit subderivations.", i, CheckIssue.Mark.LINE);
+            }
+
+            if (LineType.isGapLine(currentLine.getLineType())) {
+                if (currentDepth + 1 != checkLines.get(i - 1).realDepth()) {
+                    return issue("Gap Scope:", "Scope depth of line before gap should be one more than that of gap.", i - 1, CheckIssue.Mark.FORMULA);
+                }
+                if (currentDepth + 1 != checkLines.get(i + 1).realDepth()) {
+                    return issue("Gap Scope:", "Scope depth of line after gap should be one more than that of gap.", i + 1, CheckIssue.Mark.FORMULA);
+                }
+            }
+            else if (currentLine.isContentLine()) {
+                if (currentDepth > depth + 1 || currentDepth < depth - 1) {
+                    return issue("Scope Jump:", "From one line to the next, scope depth cannot change by more than one.", i, CheckIssue.Mark.FORMULA);
+                }
+            }
+            depth = currentDepth;
+        }
+        return null;
+    }
+
+    private CheckIssue checkAssumptionScopes() {
+        int currentDepth = 1;
+        for (int i = 0; i < checkLines.size(); i++) {
+            CheckLine line = checkLines.get(i);
+            String justificationString = line.isContentLine() ? line.getJustification() : "";
+
+            Matcher matcher = derivationRuleset.getGenericAssumption().matcher(justificationString);
+            if (line.realDepth() == currentDepth + 1 && !matcher.matches()) {
+                return issue("Scope Increase:", "An increase in scope should be associated with a justification by assumption.", i, CheckIssue.Mark.LINE);
+            }
+            else if (line.realDepth() != currentDepth + 1 && matcher.matches()) {
+                return issue("Assumption Scope:", "A justification by assumption should be associated with a scope increase.", i, CheckIssue.Mark.LINE);
+            }
+            else {
+                currentDepth = line.realDepth();
+            }
+        }
+        return null;
+    }
+
+    private CheckIssue checkJustificationForms() {
+        for (int i = 0; i < checkLines.size(); i++) {
+            CheckLine line = checkLines.get(i);
+            if (line.isContentLine()) {
+                String lineText = line.getLineDoc().getText();
+                String justificationString = line.getJustification();
+
+                if (lineText.equals("") && !justificationString.equals("")) {
+                    return issue("Missing Formula", "No formula to which justification applies.", i, CheckIssue.Mark.JUSTIFICATION);
+                }
+
+                if (!lineText.equals("")) {
+                    boolean blankOK = false;
+
+                    CheckLine priorLine = getContentLineAbove(i);
+                    if (priorLine != line) {
+                        String priorJustificationString = priorLine.getJustification();
+                        if ((derivationRuleset.getAsspRestrictedExisExploitCRule() != null && derivationRuleset.getAsspRestrictedExisExploitCRule().matches(priorJustificationString))
+                                || (derivationRuleset.getAsspRestrictedExisExploitGRule() != null) && derivationRuleset.getAsspRestrictedExisExploitGRule().matches(priorJustificationString)) {
+                            blankOK = true;
+                        }
+                    }
+
+                    if (justificationString.equals("")) {
+                        if (blankOK) break;
+                        if (checkFinal) {
+                            return issue("Missing Justification:", "Line requires justification.", i, CheckIssue.Mark.JUSTIFICATION);
+                        }
+                    } else {
+                        JustificationDispatcher.Dispatch dispatch = dispatch(justificationString);
+                        if (dispatch != null && dispatch.isDummy()) {
+                            return issue("Justification Error:", dispatch.getDummyMessage(), i, CheckIssue.Mark.JUSTIFICATION);
+                        }
+                        if (dispatch == null) {
+                            String message = "I do not recognize this as a(n) ";
+                            if (!theorems.isEmpty()) message = "I do not recognize this as an (available) ";
+                            List<StyledText> texts = new ArrayList<>();
+                            texts.add(new StyledText(message));
+                            texts.addAll(derivationRuleset.getTextName());
+                            texts.add(new StyledText(" justification."));
+                            return new CheckIssue("Justification Issue:", texts, i, CheckIssue.Mark.JUSTIFICATION);
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Set the assumption list of each line, and the scope of each line in the scope tree (null for lines in the
+     * scope of premises alone).
+     */
+    private void setScopeLists() {
+        List<String> premiseList = new ArrayList<>();
+        List<String> assumptionList = new ArrayList<>();
+        Scope scope = null;
+        int currentDepth = 1;
+
+        for (int i = 0; i < checkLines.size(); i++) {
+            CheckLine line = checkLines.get(i);
+            if (line.realDepth() == currentDepth) {
+                if (line.isContentLine() && derivationRuleset.getPremiseRule().matches(line.getJustification())) {
+                    premiseList.add(line.getLabel());
+                }
+            }
+            else {
+                if (line.isContentLine() && line.realDepth() == currentDepth + 1) {
+                    assumptionList.add(line.getLabel());
+                    scope = new Scope(i, scope);
+                    currentDepth++;
+                }
+                else if (line.realDepth() == currentDepth - 1) {
+                    assumptionList.remove(assumptionList.size() - 1);
+                    scope.end = i - 1;
+                    scope = scope.parent;
+                    currentDepth--;
+                }
+            }
+            List<String> newList = new ArrayList<>(premiseList);
+            newList.addAll(assumptionList);
+            line.setAssumptionList(newList);
+            lineScopes[i] = scope;
+        }
+        for (; scope != null; scope = scope.parent) scope.end = checkLines.size() - 1;
+    }
+
+    /*
+     * Apply rules and theorems to lines.  A line that checked before is not checked again so long as it, and each
+     * line the rule consulted in checking it, is as it was (in content, justification, position and scope).
+     * @param issues list to which to add the issue for each line that does not check, or null to stop at the first
+     * @return the first issue (if issues is null and there is one), and otherwise null
+     */
+    private CheckIssue checkJustifications(List<CheckIssue> issues) {
+        Set<String> currentKeys = new HashSet<>();
+        for (CheckLine line : checkLines) {
+            if (line.isContentLine()) {
+                JustificationDispatcher.Dispatch dispatch = dispatch(line.getJustification());
+                if (dispatch != null && !dispatch.isDummy()) {
+                    if (stopCondition.getAsBoolean()) throw new CancellationException();
+                    String key = getLineKey(line.getIndex());
+                    currentKeys.add(key);
+                    CheckedLine checkedLine = checkedLines.get(key);
+                    if (checkedLine != null && isCurrent(checkedLine)) continue;
+
+                    String[] labelArray = line.getJustificationLabels().toArray(new String[0]);
+                    dependencies = new Dependencies();
+                    Pair<Boolean, List<StyledText>> resultPair;
+                    try {
+                        resultPair = dispatch.applies(this, line, labelArray);
+                    }
+                    finally {
+                        checkedLine = dependencies.allLines ? null : new CheckedLine(dependencies);
+                        dependencies = null;
+                    }
+                    if (!resultPair.getKey()) {
+                        checkedLines.remove(key);
+                        CheckIssue issue = new CheckIssue("Justification Issue:", resultPair.getValue(), line.getIndex(), CheckIssue.Mark.LINE);
+                        if (issues == null) return issue;
+                        issues.add(issue);
+                    }
+                    else if (checkedLine != null) checkedLines.put(key, checkedLine);
+                }
+            }
+        }
+        checkedLines.keySet().retainAll(currentKeys);
+        return null;
+    }
+
+    /*
+     * Key for a line, from its own values and the values the check sets from the lines around it
+     */
+    private String getLineKey(int row) {
+        String key = lineKeys[row];
+        if (key == null) {
+            CheckLine line = checkLines.get(row);
+            Scope scope = lineScopes[row];
+            Scope parent = scope == null ? null : scope.parent;
+            StringBuilder sb = new StringBuilder();
+            sb.append(row).append('\u0000').append(line.getLabel()).append('\u0000').append(line.getDepth()).append('\u0000').append(line.getLineType())
+                    .append('\u0000').append(ParseCache.getDocumentKey(line.getLineDoc())).append('\u0000').append(line.getJustification())
+                    .append('\u0000').append(line.getAssumptionList())
+                    .append('\u0000').append(scope == null ? -1 : scope.start).append(',').append(scope == null ? -1 : scope.end)
+                    .append('\u0000').append(parent == null ? -1 : parent.start).append(',').append(parent == null ? -1 : parent.end)
+                    .append('\u0000').append(lastAtScope[row]).append(',').append(contentAbove[row]).append(',').append(contentBelow[row]);
+            key = sb.toString();
+            lineKeys[row] = key;
+        }
+        return key;
+    }
+
+    private boolean isCurrent(CheckedLine checkedLine) {
+        for (int i = 0; i < checkedLine.rows.length; i++) {
+            int row = checkedLine.rows[i];
+            if (row >= checkLines.size() || !getLineKey(row).equals(checkedLine.keys[i])) return false;
+        }
+        for (String label : checkedLine.missingLabels) {
+            if (labelIndex.containsKey(label)) return false;
+        }
+        return true;
+    }
+
+    /*
+     * Dispatch for justification (as the same justifications come up check after check)
+     */
+    private JustificationDispatcher.Dispatch dispatch(String justification) {
+        if (dispatches.containsKey(justification)) return dispatches.get(justification);
+        if (dispatches.size() >= MAX_DISPATCHES) dispatches.clear();
+        JustificationDispatcher.Dispatch dispatch = dispatcher.dispatch(justification);
+        dispatches.put(justification, dispatch);
+        return dispatch;
+    }
+
+    private void depend(int row) {
+        if (dependencies != null) dependencies.rows.add(row);
+    }
+
+    private static CheckIssue issue(String title, String message, int lineIndex, CheckIssue.Mark mark) {
+        return new CheckIssue(title, Collections.singletonList(ParseUtilities.newRegularText(message)), lineIndex, mark);
+    }
+
+    /**
+     * The content line with label
+     * @param label the line label
+     * @return pair (line, empty list) or (null, message) if there is no such line
+     */
+    public Pair<CheckLine, List<StyledText>> getLineFromLabel(String label) {
+        CheckLine line = labelIndex.get(label);
+        if (dependencies != null) {
+            if (line != null) dependencies.rows.add(line.getIndex());
+            else dependencies.missingLabels.add(label);
+        }
+        List<StyledText> texts = new ArrayList<>();
+        if (line == null) texts.add(ParseUtilities.newRegularText("Line (" + label + ") not found in this derivation."));
+        return new Pair<>(line, texts);
+    }
+
+    //requires justifier and candidate are content lines
+    public Pair<Boolean, List<StyledText>> lineIsAccessibleTo(CheckLine justifier, CheckLine candidate) {
+        depend(justifier.getIndex());
+        depend(candidate.getIndex());
+        String justifierLabel = justifier.getLabel();
+        String candidateLabel = candidate.getLabel();
+        if (candidate.getIndex() <= justifier.getIndex()) {
+            return new Pair<>(false, Collections.singletonList(ParseUtilities.newRegularText("Line " + justifierLabel + " (does not come before and) is not available for justification of line " + candidateLabel + ".")));
+        }
+        //premises of the justifier are premises of any later line; its assumptions are those of the candidate just in case its scope contains the candidate
+        Scope justifierScope = lineScopes[justifier.getIndex()];
+        if (justifierScope != null && !justifierScope.contains(candidate.getIndex())) {
+            return new Pair<>(false, Collections.singletonList(ParseUtilities.newRegularText("Line " + justifierLabel + " is not accessible for justification of line " + candidateLabel + ".")));
+        }
+        return new Pair<>(true, null);
+    }
+
+    //requires start line is content line
+    public CheckLine lastLineAtScope(CheckLine startLine) {
+        depend(startLine.getIndex());
+        depend(lastAtScope[startLine.getIndex()]);
+        return checkLines.get(lastAtScope[startLine.getIndex()]);
+    }
+
+    public Pair<Boolean, List<StyledText>> isSubderivation(String label1, String label2) {
+        CheckLine startLine;
+        Pair<CheckLine, List<StyledText>> startLinePair = getLineFromLabel(label1);
+        if (startLinePair.getKey() != null) startLine = startLinePair.getKey();
+        else return new Pair<>(false, startLinePair.getValue());
+
+        Matcher matcher = derivationRuleset.getGenericAssumption().matcher(startLine.getJustification());
+        if (!matcher.matches()) {
+            return new Pair<>(false, Collections.singletonList(ParseUtilities.newRegularText("A subderivation " + label1 + "-" + label2 + " must start with an assumption.")));
+        }
+        CheckLine lastLine = lastLineAtScope(startLine);
+        if (!lastLine.getLabel().equals(label2)) {
+            return new Pair<>(false, Collections.singletonList(ParseUtilities.newRegularText(label2 + " does not identify the last line of the subderivation beginning at " + label1 + ".")));
+        }
+        return new Pair<>(true, null);
+    }
+
+    public Pair<Boolean, List<StyledText>> isAccessibleSubderivationFor(CheckLine line, String label1, String label2) {
+        Pair<Boolean, List<StyledText>> subderResult = isSubderivation(label1, label2);
+        if (!subderResult.getKey()) {
+            return subderResult;
+        }
+
+        CheckLine firstLine;
+        Pair<CheckLine, List<StyledText>> firstLinePair = getLineFromLabel(label1);
+        if (firstLinePair.getKey() != null) firstLine = firstLinePair.getKey();
+        else return new Pair<>(false, firstLinePair.getValue());
+
+        CheckLine lastLine;
+        Pair<CheckLine, List<StyledText>> lastLinePair = getLineFromLabel(label2);
+        if (lastLinePair.getKey() != null) lastLine = lastLinePair.getKey();
+        else return new Pair<>(false, lastLinePair.getValue());
+
+        depend(line.getIndex());
+        String candidateLabel = line.getLabel();
+        if (line.getIndex() <= firstLine.getIndex()) {
+            return new Pair<>(false, Collections.singletonList(ParseUtilities.newRegularText("Subderivation must be complete (and assumption discharged) before any appeal to it.")));
+        }
+
+        if (line.getIndex() <= lastLine.getIndex()) {
+            return new Pair<>(false, Collections.singletonList(ParseUtilities.newRegularText("Assumption (" + label1 + ") is not discharged at (" + candidateLabel + ") and so (" + label1 + ")-(" + label2 +") is not accessible to (" + candidateLabel + ").")));
+        }
+
+        //assumptions of the last line other than that of the subderivation itself are those of the scope that contains it
+        Scope lastLineScope = lineScopes[lastLine.getIndex()];
+        if (lastLineScope != null && lastLineScope.parent != null && !lastLineScope.parent.contains(line.getIndex())) {
+            return new Pair<>(false, Collections.singletonList(ParseUtilities.newRegularText("Subderivation " + label1 + "-" + label2 + " is not accessible for the justification of (" + candidateLabel + ").")));
+        }
+        return new Pair<>(true, null);
+    }
+
+    /**
+     * The content line after row if one exists and otherwise the one at row
+     * @param row the row value
+     * @return the check line
+     */
+    public CheckLine getContentLineBelow(int row) {
+        depend(row);
+        depend(contentBelow[row]);
+        return checkLines.get(contentBelow[row]);
+    }
+
+    /**
+     * The content line prior to row if one exists, and otherwise the one at row
+     * @param row the row value
+     * @return the check line
+     */
+    public CheckLine getContentLineAbove(int row) {
+        depend(row);
+        depend(contentAbove[row]);
+        return checkLines.get(contentAbove[row]);
+    }
+
+    public String getContradictionSymbolString() {
+        return derivationRuleset.getObjectLanguage().getContradictionSymbol().toString();
+    }
+
+    public List<CheckLine> getCheckLines() {
+        if (dependencies != null) dependencies.allLines = true;
+        return checkLines;
+    }
+
+    public DerivationRuleset getDerivationRuleset() {
+        return derivationRuleset;
+    }
+
+    public List<Theorem> getTheorems() {
+        return theorems;
+    }
+
+    public boolean isCheckFinal() {
+        return checkFinal;
+    }
+
+    /**
+     * Whether the last check got past formulas, scope and the form of justifications to apply rules and theorems
+     * (so that lines without an issue have a justification that applies, or none)
+     * @return true if justifications were checked
+     */
+    public boolean isJustificationsChecked() {
+        return justificationsChecked;
+    }
+
+    /*
+     * Subderivation in the scope tree: the rows from its assumption to its last line
+     */
+    private static class Scope {
+        private final int start;
+        private int end;
+        private final Scope parent;
+
+        private Scope(int start, Scope parent) {
+            this.start = start;
+            this.parent = parent;
+        }
+
+        private boolean contains(int row) {
+            return start <= row && row <= end;
+        }
+    }
+
+    /*
+     * Lines consulted by a rule or theorem as it checks a line (all lines if it took the whole list)
+     */
+    private static class Dependencies {
+        private final List<Integer> rows = new ArrayList<>();
+        private final List<String> missingLabels = new ArrayList<>();
+        private boolean allLines = false;
+    }
+
+    /*
+     * A line that checked, with the keys of the lines consulted in checking it and the labels it looked up
+     * without finding a line
+     */
+    private class CheckedLine {
+        private final int[] rows;
+        private final String[] keys;
+        private final List<String> missingLabels;
+
+        private CheckedLine(Dependencies dependencies) {
+            rows = new int[dependencies.rows.size()];
+            keys = new String[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = dependencies.rows.get(i);
+                keys[i] = getLineKey(rows[i]);
+            }
+            missingLabels = dependencies.missingLabels;
+        }
+    }
+}
@@ -34,7 +34,7 @@ public class ViewLine {
     private TextFlow justificationFlow = null;
     private List<Label> clientLabels = new ArrayList<Label>();
     private boolean lineHighlight;
-    private List<String> assumptionList;
+    private Label statusBadge = null;
 
     /**
      * Construct view line from scratch
@@ -77,14 +77,6 @@ public class ViewLine {
         }
     }
 
-    public List<String> getAssumptionList() {
-        return assumptionList;
-    }
-
-    public void setAssumptionList(List<String> assumptionList) {
-        this.assumptionList = assumptionList;
-    }
-
     /**
      * label to set the number of this line
      * @param lineNumberLabel the label
@@ -161,6 +153,18 @@ public class ViewLine {
         return justificationFlow;
     }
 
+    /**
+     * Badge for the status of this line under live checking (blank when there is no status)
+     * @return the badge label
+     */
+    public Label getStatusBadge() {
+        if (statusBadge == null) {
+            statusBadge = new Label();
+            statusBadge.setMinWidth(14);
+        }
+        return statusBadge;
+    }
+
     /**
      * List of justification line labels linked to this line
      * @return the client list
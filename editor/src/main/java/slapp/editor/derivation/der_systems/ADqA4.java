@@ -1,14 +1,14 @@
 package slapp.editor.derivation.der_systems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.Pair;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
+import slapp.editor.parser.CompiledForm;
 import slapp.editor.parser.Language;
+import slapp.editor.parser.MetaForms;
 import slapp.editor.parser.MatchUtilities;
 import slapp.editor.parser.ParseUtilities;
 import slapp.editor.parser.TextMessageException;
@@ -18,33 +18,30 @@ import java.util.List;
 
 public class ADqA4 extends DerivationRule {
 
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     public ADqA4(String name, String rgexTemplate) {
         super(name, rgexTemplate);
         this.premAssp = false;
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
 
 
         Language objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
-        String commaDividerString = metaLanguage.getCommaDivider();
-
 
-        Document form = new Document("(\u2200\ud835\udccd\ud835\udcab \u2192  \ud835\udcab\u2039\ud835\udccd\" + commaDividerString + \ud835\udcc9\u203a)" );
+        Forms forms = metaForms.get(metaLanguage);
 
         boolean resultGood = false;
 
         //try A
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         try {
-            Pair<Boolean, Boolean> match = MatchUtilities.simpleFormMatch(form, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (match.getKey()) resultGood = true;
+            boolean match = MatchUtilities.simpleFormMatch(context, forms.form, lineDoc, objectLanguage.getNameString());
+            if (match) resultGood = true;
         }
         catch (TextMessageException e) {      }
 
@@ -52,10 +49,16 @@ public class ADqA4 extends DerivationRule {
         if (resultGood) return new Pair(true, null);
 
         else {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLineNumberLabel().getText() + ") is not an instance of " + getName() + ".")));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLabel() + ") is not an instance of " + getName() + ".")));
         }
 
     }
 
+    private static class Forms {
+        final CompiledForm form;
 
+        Forms(Language metaLanguage) {
+            form = CompiledForm.getInstance("(\u2200\ud835\udccd\ud835\udcab \u2192  \ud835\udcab\u2039\ud835\udccd\" + commaDividerString + \ud835\udcc9\u203a)", metaLanguage.getNameString());
+        }
+    }
 }
@@ -1,14 +1,8 @@
 package slapp.editor.derivation.der_systems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
 import slapp.editor.parser.*;
 
 import java.util.Collections;
@@ -16,163 +10,147 @@ import java.util.List;
 
 public class Abb_ADq extends DerivationRule {
 
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     public Abb_ADq(String name, String rgexTemplate) {
         super(name, rgexTemplate);
         this.premAssp = false;
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
         Language objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
         List<Expression> lineExpressions = ParseUtilities.parseDoc(lineDoc, objectLanguage.getNameString());
         Expression lineExpression = lineExpressions.get(0);
 
-        ViewLine inputLine1;
-        Pair<ViewLine, List<Text>> line1Pair = checker.getLineFromLabel(inputs[0]);
+        CheckLine inputLine1;
+        Pair<CheckLine, List<StyledText>> line1Pair = checker.getLineFromLabel(inputs[0]);
         if (line1Pair.getKey() != null) inputLine1 = line1Pair.getKey();
         else return new Pair(false, line1Pair.getValue());
 
-        BoxedDRTA inputBDRTA1 = inputLine1.getLineContentBoxedDRTA();
-        RichTextArea inputRTA1 = inputBDRTA1.getRTA();
-        inputRTA1.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc1 = inputRTA1.getDocument();
+        Document inputDoc1 = inputLine1.getLineDoc();
         if (inputDoc1.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[0] + ").")));
         List<Expression> inputExpressions = ParseUtilities.parseDoc(inputDoc1, objectLanguage.getNameString());
         Expression inputExpression = inputExpressions.get(0);
 
-        Pair<Boolean, List<Text>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
         if (!accessibilityPair1.getKey()) {
             return accessibilityPair1;
         }
 
-        String openBracketString = metaLanguage.getOpenBracket1();
-        String closeBracketString = metaLanguage.getCloseBracket1();
 
 
+        Forms forms = metaForms.get(metaLanguage);
 
         //vee
-        Document vee = new Document( openBracketString + "\uD835\uDCAB ∨ \uD835\uDCAC" + closeBracketString);
-        Document veeAbb = new Document(openBracketString + "∼\uD835\uDCAB → \uD835\uDCAC" + closeBracketString);
-        //wedge
-        Document wedge = new Document(openBracketString + "\uD835\uDCAB ∧ \uD835\uDCAC" + closeBracketString);
-        Document wedgeAbb = new Document("∼(\uD835\uDCAB → ∼\uD835\uDCAC)" );
-        //double arrow1
-        Document doubleArrow1 = new Document(openBracketString + "\uD835\uDCAB ↔ \uD835\uDCAC" + closeBracketString);
-        Document doubleArrow1Abb = new Document("∼((\uD835\uDCAB → \uD835\uDCAC) → ∼(\uD835\uDCAC → \uD835\uDCAB))" );
-        //double arrow2
-        Document doubleArrow2 = new Document(openBracketString + "\uD835\uDCAB ↔ \uD835\uDCAC" + closeBracketString);
-        Document doubleArrow2Abb = new Document(openBracketString + "(\uD835\uDCAB → \uD835\uDCAC) ∧ (\uD835\uDCAC → \uD835\uDCAB)" + closeBracketString);
-        //existential
-        Document existential = new Document("∃\uD835\uDCCD\uD835\uDCAB");
-        Document existentialAbb = new Document("∼∀\uD835\uDCCD∼\uD835\uDCAB");
-
-
-        List<Expression> veeExpressions = ParseUtilities.parseDoc(vee, metaLanguage.getNameString());
-        Expression veeExp = veeExpressions.get(0);
-        List<Expression> veeAbbExpressions = ParseUtilities.parseDoc(veeAbb, metaLanguage.getNameString());
-        Expression veeAbbExp = veeAbbExpressions.get(0);
-
-        List<Expression> wedgeExpressions = ParseUtilities.parseDoc(wedge, metaLanguage.getNameString());
-        Expression wedgeExp = wedgeExpressions.get(0);
-        List<Expression> wedgeAbbExpressions = ParseUtilities.parseDoc(wedgeAbb, metaLanguage.getNameString());
-        Expression wedgeAbbExp = wedgeAbbExpressions.get(0);
-
-        List<Expression> doubleArrow1Expressions = ParseUtilities.parseDoc(doubleArrow1, metaLanguage.getNameString());
-        Expression doubleArrow1Exp = doubleArrow1Expressions.get(0);
-        List<Expression> doubleArrow1AbbExpressions = ParseUtilities.parseDoc(doubleArrow1Abb, metaLanguage.getNameString());
-        Expression doubleArrow1AbbExp = doubleArrow1AbbExpressions.get(0);
-
-        List<Expression> doubleArrow2Expressions = ParseUtilities.parseDoc(doubleArrow2, metaLanguage.getNameString());
-        Expression doubleArrow2Exp = doubleArrow2Expressions.get(0);
-        List<Expression> doubleArrow2AbbExpressions = ParseUtilities.parseDoc(doubleArrow2Abb, metaLanguage.getNameString());
-        Expression doubleArrow2AbbExp = doubleArrow2AbbExpressions.get(0);
-
-        List<Expression> existentialExpressions = ParseUtilities.parseDoc(existential, metaLanguage.getNameString());
-        Expression existentialExp = existentialExpressions.get(0);
-        List<Expression> existentialAbbExpressions = ParseUtilities.parseDoc(existentialAbb, metaLanguage.getNameString());
-        Expression existentialAbbExp = existentialAbbExpressions.get(0);
-
-
-        //vee
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         try {
-            boolean resultGood1 = MatchUtilities.replacementCheck(veeExp, veeAbbExp, inputExpression, lineExpression);
+            boolean resultGood1 = MatchUtilities.replacementCheck(context, forms.vee, forms.veeAbb, inputExpression, lineExpression);
             if (resultGood1) return new Pair(true, null);
         }
         catch (TextMessageException e) { }
 
         try {
-            boolean resultGood2 = MatchUtilities.replacementCheck(veeAbbExp, veeExp, inputExpression, lineExpression);
+            boolean resultGood2 = MatchUtilities.replacementCheck(context, forms.veeAbb, forms.vee, inputExpression, lineExpression);
             if (resultGood2) return new Pair(true, null);
         }
         catch (TextMessageException e) { }
 
         //wedge
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood1 = MatchUtilities.replacementCheck(wedgeExp, wedgeAbbExp, inputExpression, lineExpression);
+            boolean resultGood1 = MatchUtilities.replacementCheck(context, forms.wedge, forms.wedgeAbb, inputExpression, lineExpression);
             if (resultGood1) return new Pair(true, null);
         }
         catch (TextMessageException e) { }
 
         try {
-            boolean resultGood2 = MatchUtilities.replacementCheck(wedgeAbbExp, wedgeExp, inputExpression, lineExpression);
+            boolean resultGood2 = MatchUtilities.replacementCheck(context, forms.wedgeAbb, forms.wedge, inputExpression, lineExpression);
             if (resultGood2) return new Pair(true, null);
         }
         catch (TextMessageException e) { }
 
         //double arrow 1
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood1 = MatchUtilities.replacementCheck(doubleArrow1Exp, doubleArrow1AbbExp, inputExpression, lineExpression);
+            boolean resultGood1 = MatchUtilities.replacementCheck(context, forms.doubleArrow1, forms.doubleArrow1Abb, inputExpression, lineExpression);
             if (resultGood1) return new Pair(true, null);
         }
         catch (TextMessageException e) { }
 
         try {
-            boolean resultGood2 = MatchUtilities.replacementCheck(doubleArrow1AbbExp, doubleArrow1Exp, inputExpression, lineExpression);
+            boolean resultGood2 = MatchUtilities.replacementCheck(context, forms.doubleArrow1Abb, forms.doubleArrow1, inputExpression, lineExpression);
             if (resultGood2) return new Pair(true, null);
         }
         catch (TextMessageException e) { }
 
         //double arrow 2
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood1 = MatchUtilities.replacementCheck(doubleArrow2Exp, doubleArrow2AbbExp, inputExpression, lineExpression);
+            boolean resultGood1 = MatchUtilities.replacementCheck(context, forms.doubleArrow2, forms.doubleArrow2Abb, inputExpression, lineExpression);
             if (resultGood1) return new Pair(true, null);
         }
         catch (TextMessageException e) { }
 
         try {
-            boolean resultGood2 = MatchUtilities.replacementCheck(doubleArrow2AbbExp, doubleArrow2Exp, inputExpression, lineExpression);
+            boolean resultGood2 = MatchUtilities.replacementCheck(context, forms.doubleArrow2Abb, forms.doubleArrow2, inputExpression, lineExpression);
             if (resultGood2) return new Pair(true, null);
         }
         catch (TextMessageException e) { }
 
         //existential
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood1 = MatchUtilities.replacementCheck(existentialExp, existentialAbbExp, inputExpression, lineExpression);
+            boolean resultGood1 = MatchUtilities.replacementCheck(context, forms.existential, forms.existentialAbb, inputExpression, lineExpression);
             if (resultGood1) return new Pair(true, null);
         }
         catch (TextMessageException e) { }
 
         try {
-            boolean resultGood2 = MatchUtilities.replacementCheck(existentialAbbExp, existentialExp, inputExpression, lineExpression);
+            boolean resultGood2 = MatchUtilities.replacementCheck(context, forms.existentialAbb, forms.existential, inputExpression, lineExpression);
             if (resultGood2) return new Pair(true, null);
         }
         catch (TextMessageException e) { }
 
 
-        return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLineNumberLabel().getText() + ") and (" + line.getLineNumberLabel().getText() + ") are not of the right form for application of " + getName() + "."))));
+        return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLabel() + ") and (" + line.getLabel() + ") are not of the right form for application of " + getName() + "."))));
 
     }
 
-
+    private static class Forms {
+        final CompiledForm vee;
+        final CompiledForm veeAbb;
+        final CompiledForm wedge;
+        final CompiledForm wedgeAbb;
+        final CompiledForm doubleArrow1;
+        final CompiledForm doubleArrow1Abb;
+        final CompiledForm doubleArrow2;
+        final CompiledForm doubleArrow2Abb;
+        final CompiledForm existential;
+        final CompiledForm existentialAbb;
+
+        Forms(Language metaLanguage) {
+            String openBracketString = metaLanguage.getOpenBracket1();
+            String closeBracketString = metaLanguage.getCloseBracket1();
+
+            //vee
+            vee = CompiledForm.getInstance(openBracketString + "\uD835\uDCAB ∨ \uD835\uDCAC" + closeBracketString, metaLanguage.getNameString());
+            veeAbb = CompiledForm.getInstance(openBracketString + "∼\uD835\uDCAB → \uD835\uDCAC" + closeBracketString, metaLanguage.getNameString());
+            //wedge
+            wedge = CompiledForm.getInstance(openBracketString + "\uD835\uDCAB ∧ \uD835\uDCAC" + closeBracketString, metaLanguage.getNameString());
+            wedgeAbb = CompiledForm.getInstance("∼(\uD835\uDCAB → ∼\uD835\uDCAC)", metaLanguage.getNameString());
+            //double arrow1
+            doubleArrow1 = CompiledForm.getInstance(openBracketString + "\uD835\uDCAB ↔ \uD835\uDCAC" + closeBracketString, metaLanguage.getNameString());
+            doubleArrow1Abb = CompiledForm.getInstance("∼((\uD835\uDCAB → \uD835\uDCAC) → ∼(\uD835\uDCAC → \uD835\uDCAB))", metaLanguage.getNameString());
+            //double arrow2
+            doubleArrow2 = CompiledForm.getInstance(openBracketString + "\uD835\uDCAB ↔ \uD835\uDCAC" + closeBracketString, metaLanguage.getNameString());
+            doubleArrow2Abb = CompiledForm.getInstance(openBracketString + "(\uD835\uDCAB → \uD835\uDCAC) ∧ (\uD835\uDCAC → \uD835\uDCAB)" + closeBracketString, metaLanguage.getNameString());
+            //existential
+            existential = CompiledForm.getInstance("∃\uD835\uDCCD\uD835\uDCAB", metaLanguage.getNameString());
+            existentialAbb = CompiledForm.getInstance("∼∀\uD835\uDCCD∼\uD835\uDCAB", metaLanguage.getNameString());
+        }
+    }
 }
@@ -1,13 +1,8 @@
 package slapp.editor.derivation.der_systems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
 import slapp.editor.parser.*;
 
 import java.util.Collections;
@@ -15,76 +10,71 @@ import java.util.List;
 
 public class Abb_Astar extends DerivationRule {
 
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     public Abb_Astar(String name, String rgexTemplate) {
         super(name, rgexTemplate);
         this.premAssp = false;
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
         Language objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
         List<Expression> lineExpressions = ParseUtilities.parseDoc(lineDoc, objectLanguage.getNameString());
         Expression lineExpression = lineExpressions.get(0);
 
-        ViewLine inputLine1;
-        Pair<ViewLine, List<Text>> line1Pair = checker.getLineFromLabel(inputs[0]);
+        CheckLine inputLine1;
+        Pair<CheckLine, List<StyledText>> line1Pair = checker.getLineFromLabel(inputs[0]);
         if (line1Pair.getKey() != null) inputLine1 = line1Pair.getKey();
         else return new Pair(false, line1Pair.getValue());
 
-        BoxedDRTA inputBDRTA1 = inputLine1.getLineContentBoxedDRTA();
-        RichTextArea inputRTA1 = inputBDRTA1.getRTA();
-        inputRTA1.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc1 = inputRTA1.getDocument();
+        Document inputDoc1 = inputLine1.getLineDoc();
         if (inputDoc1.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[0] + ").")));
         List<Expression> inputExpressions = ParseUtilities.parseDoc(inputDoc1, objectLanguage.getNameString());
         Expression inputExpression = inputExpressions.get(0);
 
-        Pair<Boolean, List<Text>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
         if (!accessibilityPair1.getKey()) {
             return accessibilityPair1;
         }
 
-        String openBracketString = metaLanguage.getOpenBracket1();
-        String closeBracketString = metaLanguage.getCloseBracket1();
-
-
-        //arrow
-        Document arrow = new Document(openBracketString + "\uD835\uDCAB → \uD835\uDCAC" + closeBracketString );
-        Document arrowAbb = new Document(  "∼(\uD835\uDCAB ∧ ∼\uD835\uDCAC)" );
-
-
-
-        List<Expression> arrowExpressions = ParseUtilities.parseDoc(arrow, metaLanguage.getNameString());
-        Expression arrowExp = arrowExpressions.get(0);
-        List<Expression> arrowAbbExpressions = ParseUtilities.parseDoc(arrowAbb, metaLanguage.getNameString());
-        Expression arrowAbbExp = arrowAbbExpressions.get(0);
 
+        Forms forms = metaForms.get(metaLanguage);
 
         //arrow
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         try {
-            boolean resultGood1 = MatchUtilities.replacementCheck(arrowExp, arrowAbbExp, inputExpression, lineExpression);
+            boolean resultGood1 = MatchUtilities.replacementCheck(context, forms.arrow, forms.arrowAbb, inputExpression, lineExpression);
             if (resultGood1) return new Pair(true, null);
         }
         catch (TextMessageException e) { }
 
         try {
-            boolean resultGood2 = MatchUtilities.replacementCheck(arrowAbbExp, arrowExp, inputExpression, lineExpression);
+            boolean resultGood2 = MatchUtilities.replacementCheck(context, forms.arrowAbb, forms.arrow, inputExpression, lineExpression);
             if (resultGood2) return new Pair(true, null);
         }
         catch (TextMessageException e) { }
 
 
 
-        return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLineNumberLabel().getText() + ") and (" + line.getLineNumberLabel().getText() + ") are not of the right form for application of " + getName() + "."))));
+        return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLabel() + ") and (" + line.getLabel() + ") are not of the right form for application of " + getName() + "."))));
 
     }
 
+    private static class Forms {
+        final CompiledForm arrow;
+        final CompiledForm arrowAbb;
+
+        Forms(Language metaLanguage) {
+            String openBracketString = metaLanguage.getOpenBracket1();
+            String closeBracketString = metaLanguage.getCloseBracket1();
 
+            //arrow
+            arrow = CompiledForm.getInstance(openBracketString + "\uD835\uDCAB → \uD835\uDCAC" + closeBracketString, metaLanguage.getNameString());
+            arrowAbb = CompiledForm.getInstance("∼(\uD835\uDCAB ∧ ∼\uD835\uDCAC)", metaLanguage.getNameString());
+        }
+    }
 }
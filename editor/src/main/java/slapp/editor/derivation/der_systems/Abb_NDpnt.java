@@ -1,13 +1,8 @@
 package slapp.editor.derivation.der_systems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
 import slapp.editor.parser.*;
 import slapp.editor.parser.grammatical_parts.MTerm;
 import slapp.editor.parser.grammatical_parts.Term;
@@ -19,8 +14,11 @@ import java.util.Collections;
 import java.util.List;
 
 public class Abb_NDpnt extends DerivationRule {
+
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     Language objectLanguage;
-    List<Text> freeVariableFailure;
+    List<StyledText> freeVariableFailure;
 
     public Abb_NDpnt(String name, String rgexTemplate) {
         super(name, rgexTemplate);
@@ -28,229 +26,155 @@ public class Abb_NDpnt extends DerivationRule {
 
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
         objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
         List<Expression> lineExpressions = ParseUtilities.parseDoc(lineDoc, objectLanguage.getNameString());
         Expression lineExpression = lineExpressions.get(0);
 
-        ViewLine inputLine1;
-        Pair<ViewLine, List<Text>> line1Pair = checker.getLineFromLabel(inputs[0]);
+        CheckLine inputLine1;
+        Pair<CheckLine, List<StyledText>> line1Pair = checker.getLineFromLabel(inputs[0]);
         if (line1Pair.getKey() != null) inputLine1 = line1Pair.getKey();
         else return new Pair(false, line1Pair.getValue());
 
-        BoxedDRTA inputBDRTA1 = inputLine1.getLineContentBoxedDRTA();
-        RichTextArea inputRTA1 = inputBDRTA1.getRTA();
-        inputRTA1.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc1 = inputRTA1.getDocument();
+        Document inputDoc1 = inputLine1.getLineDoc();
         if (inputDoc1.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[0] + ").")));
         List<Expression> inputExpressions = ParseUtilities.parseDoc(inputDoc1, objectLanguage.getNameString());
         Expression inputExpression = inputExpressions.get(0);
 
-        Pair<Boolean, List<Text>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
         if (!accessibilityPair1.getKey()) {
             return accessibilityPair1;
         }
 
-        String openBracketString = metaLanguage.getOpenBracket1();
-        String closeBracketString = metaLanguage.getCloseBracket1();
-
-
-
-        //bounded univ need 1:2, 1:3, 2:3 (each with both directions)
-        Document boundedLeqUniv1 = new Document("(∀\uD835\uDCCD \uE8A6 \uD835\uDCC9)\uD835\uDCAB");
-        Document boundedLeqUniv2 = new Document("(∀\uD835\uDCCD : \uD835\uDCCD \uE8A6 \uD835\uDCC9)\uD835\uDCAB");
-        Document boundedLeqUniv3 = new Document("∀\uD835\uDCCD(\uD835\uDCCD \uE8A6 \uD835\uDCC9 → \uD835\uDCAB)");
-
-        Document boundedLssUniv1 = new Document("(∀\uD835\uDCCD \uE8A4 \uD835\uDCC9)\uD835\uDCAB");
-        Document boundedLssUniv2 = new Document("(∀\uD835\uDCCD : \uD835\uDCCD \uE8A4 \uD835\uDCC9)\uD835\uDCAB");
-        Document boundedLssUniv3 = new Document("∀\uD835\uDCCD(\uD835\uDCCD \uE8A4 \uD835\uDCC9 → \uD835\uDCAB)");
-
-        //bounded exis
-        Document boundedLeqExis1 = new Document("(∃\uD835\uDCCD \uE8A6 \uD835\uDCC9)\uD835\uDCAB");
-        Document boundedLeqExis2 = new Document("(∃\uD835\uDCCD : \uD835\uDCCD \uE8A6 \uD835\uDCC9)\uD835\uDCAB");
-        Document boundedLeqExis3 = new Document("∃\uD835\uDCCD(\uD835\uDCCD \uE8A6 \uD835\uDCC9 ∧ \uD835\uDCAB)");
-
-        Document boundedLssExis1 = new Document("(∃\uD835\uDCCD \uE8A4 \uD835\uDCC9)\uD835\uDCAB");
-        Document boundedLssExis2 = new Document("(∃\uD835\uDCCD : \uD835\uDCCD \uE8A4 \uD835\uDCC9)\uD835\uDCAB");
-        Document boundedLssExis3 = new Document("∃\uD835\uDCCD(\uD835\uDCCD \uE8A4 \uD835\uDCC9 ∧ \uD835\uDCAB)");
-
-        //leq
-        Document leq = new Document("(\uD835\uDCC8 \uE8A6 \uD835\uDCC9)");
-        Document leqAbb = new Document("∃\uD835\uDCCa(\uD835\uDCCa \uE8B8 \uD835\uDCC8 \uE8AC \uD835\uDCC9)");
-
-        //less
-        Document less = new Document("(\uD835\uDCC8 \uE8A4 \uD835\uDCC9)");
-        Document lessAbb = new Document("∃\uD835\uDCCa(\uD835\uDC46\uD835\uDCCa \uE8B8 \uD835\uDCC8 \uE8AC \uD835\uDCC9)");
-
-        List<Expression> boundedLeqUniv1Expressions = ParseUtilities.parseDoc(boundedLeqUniv1, metaLanguage.getNameString());
-        Expression boundedLeqUniv1Exp = boundedLeqUniv1Expressions.get(0);
-        List<Expression> boundedLeqUniv2Expressions = ParseUtilities.parseDoc(boundedLeqUniv2, metaLanguage.getNameString());
-        Expression boundedLeqUniv2Exp = boundedLeqUniv2Expressions.get(0);
-        List<Expression> boundedLeqUniv3Expressions = ParseUtilities.parseDoc(boundedLeqUniv3, metaLanguage.getNameString());
-        Expression boundedLeqUniv3Exp = boundedLeqUniv3Expressions.get(0);
-
-        List<Expression> boundedLssUniv1Expressions = ParseUtilities.parseDoc(boundedLssUniv1, metaLanguage.getNameString());
-        Expression boundedLssUniv1Exp = boundedLssUniv1Expressions.get(0);
-        List<Expression> boundedLssUniv2Expressions = ParseUtilities.parseDoc(boundedLssUniv2, metaLanguage.getNameString());
-        Expression boundedLssUniv2Exp = boundedLssUniv2Expressions.get(0);
-        List<Expression> boundedLssUniv3Expressions = ParseUtilities.parseDoc(boundedLssUniv3, metaLanguage.getNameString());
-        Expression boundedLssUniv3Exp = boundedLssUniv3Expressions.get(0);
-
-        List<Expression> boundedLeqExis1Expressions = ParseUtilities.parseDoc(boundedLeqExis1, metaLanguage.getNameString());
-        Expression boundedLeqExis1Exp = boundedLeqExis1Expressions.get(0);
-        List<Expression> boundedLeqExis2Expressions = ParseUtilities.parseDoc(boundedLeqExis2, metaLanguage.getNameString());
-        Expression boundedLeqExis2Exp = boundedLeqExis2Expressions.get(0);
-        List<Expression> boundedLeqExis3Expressions = ParseUtilities.parseDoc(boundedLeqExis3, metaLanguage.getNameString());
-        Expression boundedLeqExis3Exp = boundedLeqExis3Expressions.get(0);
-
-        List<Expression> boundedLssExis1Expressions = ParseUtilities.parseDoc(boundedLssExis1, metaLanguage.getNameString());
-        Expression boundedLssExis1Exp = boundedLssExis1Expressions.get(0);
-        List<Expression> boundedLssExis2Expressions = ParseUtilities.parseDoc(boundedLssExis2, metaLanguage.getNameString());
-        Expression boundedLssExis2Exp = boundedLssExis2Expressions.get(0);
-        List<Expression> boundedLssExis3Expressions = ParseUtilities.parseDoc(boundedLssExis3, metaLanguage.getNameString());
-        Expression boundedLssExis3Exp = boundedLssExis3Expressions.get(0);
-
-        List<Expression> lessExpressions = ParseUtilities.parseDoc(less, metaLanguage.getNameString());
-        Expression lessExp = lessExpressions.get(0);
-        List<Expression> lessAbbExpressions = ParseUtilities.parseDoc(lessAbb, metaLanguage.getNameString());
-        Expression lessAbbExp = lessAbbExpressions.get(0);
-
-        List<Expression> leqExpressions = ParseUtilities.parseDoc(leq, metaLanguage.getNameString());
-        Expression leqExp = leqExpressions.get(0);
-        List<Expression> leqAbbExpressions = ParseUtilities.parseDoc(leqAbb, metaLanguage.getNameString());
-        Expression leqAbbExp = leqAbbExpressions.get(0);
-
+        Forms forms = metaForms.get(metaLanguage);
 
         //for each group of three need 1:2, 1:3, 2:3 (each with both directions)
 
         // bounded leq unv
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLeqUniv1Exp, boundedLeqUniv2Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLeqUniv1, forms.boundedLeqUniv2, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLeqUniv2Exp, boundedLeqUniv1Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLeqUniv2, forms.boundedLeqUniv1, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLeqUniv1Exp, boundedLeqUniv3Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLeqUniv1, forms.boundedLeqUniv3, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLeqUniv3Exp, boundedLeqUniv1Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLeqUniv3, forms.boundedLeqUniv1, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLeqUniv2Exp, boundedLeqUniv3Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLeqUniv2, forms.boundedLeqUniv3, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLeqUniv3Exp, boundedLeqUniv2Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLeqUniv3, forms.boundedLeqUniv2, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
 
         // bounded less univ
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLssUniv1Exp, boundedLssUniv2Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLssUniv1, forms.boundedLssUniv2, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLssUniv2Exp, boundedLssUniv1Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLssUniv2, forms.boundedLssUniv1, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLssUniv1Exp, boundedLssUniv3Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLssUniv1, forms.boundedLssUniv3, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLssUniv3Exp, boundedLssUniv1Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLssUniv3, forms.boundedLssUniv1, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLssUniv2Exp, boundedLssUniv3Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLssUniv2, forms.boundedLssUniv3, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLssUniv3Exp, boundedLssUniv2Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLssUniv3, forms.boundedLssUniv2, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
 
         //bounded leq exis
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLeqExis1Exp, boundedLeqExis2Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLeqExis1, forms.boundedLeqExis2, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLeqExis2Exp, boundedLeqExis1Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLeqExis2, forms.boundedLeqExis1, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLeqExis1Exp, boundedLeqExis3Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLeqExis1, forms.boundedLeqExis3, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLeqExis3Exp, boundedLeqExis1Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLeqExis3, forms.boundedLeqExis1, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLeqExis2Exp, boundedLeqExis3Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLeqExis2, forms.boundedLeqExis3, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLeqExis3Exp, boundedLeqExis2Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLeqExis3, forms.boundedLeqExis2, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
 
         //bounded less exis
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLssExis1Exp, boundedLssExis2Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLssExis1, forms.boundedLssExis2, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLssExis2Exp, boundedLssExis1Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLssExis2, forms.boundedLssExis1, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLssExis1Exp, boundedLssExis3Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLssExis1, forms.boundedLssExis3, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLssExis3Exp, boundedLssExis1Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLssExis3, forms.boundedLssExis1, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLssExis2Exp, boundedLssExis3Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLssExis2, forms.boundedLssExis3, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(boundedLssExis3Exp, boundedLssExis2Exp, inputExpression, lineExpression);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.boundedLssExis3, forms.boundedLssExis2, inputExpression, lineExpression);
             if (resultGood) return new Pair(true, null);
         } catch (TextMessageException e) {}
 
@@ -261,16 +185,15 @@ public class Abb_NDpnt extends DerivationRule {
         //still no joy for metavariables.  the other direction works fine for any variable, since the match gets set.
 
         //leq
-        MatchUtilities.clearFormMatch();
+        context.clear();
         List<String> noMatchVars = metaLanguage.getNoMatchVariables();
-        for (String var : noMatchVars) {
-            Document leqAbb1 = new Document("∃" + var + "(" + var + " \uE8B8 \uD835\uDCC8 \uE8AC \uD835\uDCC9)");   //Ev(v + s = t)
-            List<Expression> leqAbb1Expressions = ParseUtilities.parseDoc(leqAbb1, metaLanguage.getNameString());
-            Expression leqAbb1Exp = leqAbb1Expressions.get(0);
+        for (int i = 0; i < noMatchVars.size(); i++) {
+            String var = noMatchVars.get(i);
+            CompiledForm leqAbb1 = forms.leqAbb1.get(i);   //Ev(v + s = t)
 
             try {
-                boolean resultGood = MatchUtilities.replacementCheck(leqExp, leqAbb1Exp, inputExpression, lineExpression);
-                if (resultGood && (varFreeInTerm(var, "\ud835\udcc8") || varFreeInTerm(var, "\ud835\udcc9"))) return new Pair(false, freeVariableFailure);
+                boolean resultGood = MatchUtilities.replacementCheck(context, forms.leq, leqAbb1, inputExpression, lineExpression);
+                if (resultGood && (varFreeInTerm(context, var, "\ud835\udcc8") || varFreeInTerm(context, var, "\ud835\udcc9"))) return new Pair(false, freeVariableFailure);
                 if (resultGood) return new Pair(true, null);
             }
              catch (TextMessageException e){}
@@ -278,38 +201,37 @@ public class Abb_NDpnt extends DerivationRule {
 
         try {
 
-            boolean resultGood = MatchUtilities.replacementCheck(leqAbbExp, leqExp, inputExpression, lineExpression);
-            if (resultGood && (varFreeInTerm("\ud835\udcca", "\ud835\udcc8") || varFreeInTerm("\ud835\udcca", "\ud835\udcc9"))) return new Pair(false, freeVariableFailure);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.leqAbb, forms.leq, inputExpression, lineExpression);
+            if (resultGood && (varFreeInTerm(context, "\ud835\udcca", "\ud835\udcc8") || varFreeInTerm(context, "\ud835\udcca", "\ud835\udcc9"))) return new Pair(false, freeVariableFailure);
             if (resultGood) return new Pair(true, null);
         }
         catch (TextMessageException e){}
 
         //less
-        MatchUtilities.clearFormMatch();
-        for (String var : noMatchVars) {
-            Document lessAbb1 = new Document("∃" + var + "(\uD835\uDC46" + var + "\uE8B8 \uD835\uDCC8 \uE8AC \uD835\uDCC9)");
-            List<Expression> lessAbb1Expressions = ParseUtilities.parseDoc(lessAbb1, metaLanguage.getNameString());
-            Expression lessAbb1Exp = lessAbb1Expressions.get(0);
+        context.clear();
+        for (int i = 0; i < noMatchVars.size(); i++) {
+            String var = noMatchVars.get(i);
+            CompiledForm lessAbb1 = forms.lessAbb1.get(i);
 
             try {
-                boolean resultGood = MatchUtilities.replacementCheck(lessExp, lessAbb1Exp, inputExpression, lineExpression);
-                if (resultGood && (varFreeInTerm(var, "\ud835\udcc8") || varFreeInTerm(var, "\ud835\udcc9"))) return new Pair(false, freeVariableFailure);
+                boolean resultGood = MatchUtilities.replacementCheck(context, forms.less, lessAbb1, inputExpression, lineExpression);
+                if (resultGood && (varFreeInTerm(context, var, "\ud835\udcc8") || varFreeInTerm(context, var, "\ud835\udcc9"))) return new Pair(false, freeVariableFailure);
                 if (resultGood) return new Pair(true, null);
             }
             catch (TextMessageException e){}
         }
 
         try {
-            boolean resultGood = MatchUtilities.replacementCheck(lessAbbExp, lessExp, inputExpression, lineExpression);
-            if (resultGood && (varFreeInTerm("\ud835\udcca", "\ud835\udcc8") || varFreeInTerm("\ud835\udcca", "\ud835\udcc9"))) return new Pair(false, freeVariableFailure);
+            boolean resultGood = MatchUtilities.replacementCheck(context, forms.lessAbb, forms.less, inputExpression, lineExpression);
+            if (resultGood && (varFreeInTerm(context, "\ud835\udcca", "\ud835\udcc8") || varFreeInTerm(context, "\ud835\udcca", "\ud835\udcc9"))) return new Pair(false, freeVariableFailure);
             if (resultGood) return new Pair(true, null);
         }
         catch (TextMessageException e){}
 
-        return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLineNumberLabel().getText() + ") and (" + line.getLineNumberLabel().getText() + ") are not of the right form for application of " + getName() + "."))));
+        return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLabel() + ") and (" + line.getLabel() + ") are not of the right form for application of " + getName() + "."))));
     }
 
-    private boolean varFreeInTerm(String varString, String termString) {
+    private boolean varFreeInTerm(MatchContext context, String varString, String termString) {
         Term variableMatch = null;
         Expression matchTerm = null;
 
@@ -320,7 +242,7 @@ public class Abb_NDpnt extends DerivationRule {
                 Term term = new Term();
                 term.setLevel(0);
                 ArrayList children = new ArrayList();
-                children.add(mVariable.getMatch());
+                children.add(mVariable.getMatch(context));
                 term.setChildren(children);
                 term.setCombines(true);
                 term.setTermType(TermType.VARIABLE);
@@ -332,7 +254,7 @@ public class Abb_NDpnt extends DerivationRule {
         List<MTerm> mTerms = MTerm.getmTerms();
         for (MTerm mTerm : mTerms) {
             if (mTerm.getmTermSym().getBaseStr().equals(termString)) {
-                matchTerm = mTerm.getMatch();
+                matchTerm = mTerm.getMatch(context);
             }
         }
 
@@ -345,7 +267,7 @@ public class Abb_NDpnt extends DerivationRule {
             boolean freeInTerm = SyntacticalFns.expTermFreeInFormula(matchTerm, variableMatch, objectLanguage.getNameString());
 
             if (freeInTerm) {
-                List<Text> texts = new ArrayList<>();
+                List<StyledText> texts = new ArrayList<>();
                 texts.add(ParseUtilities.newRegularText("Variable "));
                 texts.addAll(variableMatch.toTextList());
                 if (!objectLanguage.isObjectMetalanguage()) texts.add(ParseUtilities.newRegularText(" is free in term "));
@@ -362,6 +284,58 @@ public class Abb_NDpnt extends DerivationRule {
         }
     }
 
-
-
+    private static class Forms {
+        final CompiledForm boundedLeqUniv1;
+        final CompiledForm boundedLeqUniv2;
+        final CompiledForm boundedLeqUniv3;
+        final CompiledForm boundedLssUniv1;
+        final CompiledForm boundedLssUniv2;
+        final CompiledForm boundedLssUniv3;
+        final CompiledForm boundedLeqExis1;
+        final CompiledForm boundedLeqExis2;
+        final CompiledForm boundedLeqExis3;
+        final CompiledForm boundedLssExis1;
+        final CompiledForm boundedLssExis2;
+        final CompiledForm boundedLssExis3;
+        final CompiledForm leq;
+        final CompiledForm leqAbb;
+        final CompiledForm less;
+        final CompiledForm lessAbb;
+        final List<CompiledForm> leqAbb1 = new ArrayList<>();
+        final List<CompiledForm> lessAbb1 = new ArrayList<>();
+
+        Forms(Language metaLanguage) {
+            //bounded univ need 1:2, 1:3, 2:3 (each with both directions)
+            boundedLeqUniv1 = CompiledForm.getInstance("(∀\uD835\uDCCD \uE8A6 \uD835\uDCC9)\uD835\uDCAB", metaLanguage.getNameString());
+            boundedLeqUniv2 = CompiledForm.getInstance("(∀\uD835\uDCCD : \uD835\uDCCD \uE8A6 \uD835\uDCC9)\uD835\uDCAB", metaLanguage.getNameString());
+            boundedLeqUniv3 = CompiledForm.getInstance("∀\uD835\uDCCD(\uD835\uDCCD \uE8A6 \uD835\uDCC9 → \uD835\uDCAB)", metaLanguage.getNameString());
+
+            boundedLssUniv1 = CompiledForm.getInstance("(∀\uD835\uDCCD \uE8A4 \uD835\uDCC9)\uD835\uDCAB", metaLanguage.getNameString());
+            boundedLssUniv2 = CompiledForm.getInstance("(∀\uD835\uDCCD : \uD835\uDCCD \uE8A4 \uD835\uDCC9)\uD835\uDCAB", metaLanguage.getNameString());
+            boundedLssUniv3 = CompiledForm.getInstance("∀\uD835\uDCCD(\uD835\uDCCD \uE8A4 \uD835\uDCC9 → \uD835\uDCAB)", metaLanguage.getNameString());
+
+            //bounded exis
+            boundedLeqExis1 = CompiledForm.getInstance("(∃\uD835\uDCCD \uE8A6 \uD835\uDCC9)\uD835\uDCAB", metaLanguage.getNameString());
+            boundedLeqExis2 = CompiledForm.getInstance("(∃\uD835\uDCCD : \uD835\uDCCD \uE8A6 \uD835\uDCC9)\uD835\uDCAB", metaLanguage.getNameString());
+            boundedLeqExis3 = CompiledForm.getInstance("∃\uD835\uDCCD(\uD835\uDCCD \uE8A6 \uD835\uDCC9 ∧ \uD835\uDCAB)", metaLanguage.getNameString());
+
+            boundedLssExis1 = CompiledForm.getInstance("(∃\uD835\uDCCD \uE8A4 \uD835\uDCC9)\uD835\uDCAB", metaLanguage.getNameString());
+            boundedLssExis2 = CompiledForm.getInstance("(∃\uD835\uDCCD : \uD835\uDCCD \uE8A4 \uD835\uDCC9)\uD835\uDCAB", metaLanguage.getNameString());
+            boundedLssExis3 = CompiledForm.getInstance("∃\uD835\uDCCD(\uD835\uDCCD \uE8A4 \uD835\uDCC9 ∧ \uD835\uDCAB)", metaLanguage.getNameString());
+
+            //leq
+            leq = CompiledForm.getInstance("(\uD835\uDCC8 \uE8A6 \uD835\uDCC9)", metaLanguage.getNameString());
+            leqAbb = CompiledForm.getInstance("∃\uD835\uDCCa(\uD835\uDCCa \uE8B8 \uD835\uDCC8 \uE8AC \uD835\uDCC9)", metaLanguage.getNameString());
+
+            //less
+            less = CompiledForm.getInstance("(\uD835\uDCC8 \uE8A4 \uD835\uDCC9)", metaLanguage.getNameString());
+            lessAbb = CompiledForm.getInstance("∃\uD835\uDCCa(\uD835\uDC46\uD835\uDCCa \uE8B8 \uD835\uDCC8 \uE8AC \uD835\uDCC9)", metaLanguage.getNameString());
+
+            //for each no match variable, in order
+            for (String var : metaLanguage.getNoMatchVariables()) {
+                leqAbb1.add(CompiledForm.getInstance("∃" + var + "(" + var + " \uE8B8 \uD835\uDCC8 \uE8AC \uD835\uDCC9)", metaLanguage.getNameString()));
+                lessAbb1.add(CompiledForm.getInstance("∃" + var + "(\uD835\uDC46" + var + "\uE8B8 \uD835\uDCC8 \uE8AC \uD835\uDCC9)", metaLanguage.getNameString()));
+            }
+        }
+    }
 }
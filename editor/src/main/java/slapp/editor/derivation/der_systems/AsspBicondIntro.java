@@ -1,13 +1,10 @@
 package slapp.editor.derivation.der_systems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.Pair;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
 import slapp.editor.parser.ParseUtilities;
 
 import java.util.Collections;
@@ -21,17 +18,14 @@ public class AsspBicondIntro extends DerivationRule {
 
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
-        ViewLine bottomLine = checker.lastLineAtScope(line);
+        CheckLine bottomLine = checker.lastLineAtScope(line);
 
-        BoxedDRTA bottomDRTA = bottomLine.getLineContentBoxedDRTA();
-        RichTextArea bottomRTA = bottomDRTA.getRTA();
-        bottomRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document bottomLineDoc = bottomRTA.getDocument();
+        Document bottomLineDoc = bottomLine.getLineDoc();
 
         if (bottomLineDoc.getText().equals("")) {
-            String bottomLineLabel = bottomLine.getLineNumberLabel().getText();
+            String bottomLineLabel = bottomLine.getLabel();
             return new Pair<>(false, Collections.singletonList(ParseUtilities.newRegularText("Exit strategy is not complete without statement of the goal formula at the bottom of the scope line (" + bottomLineLabel + ").")));
         }
 
@@ -1,13 +1,14 @@
 package slapp.editor.derivation.der_systems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.Pair;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
+import slapp.editor.parser.CompiledForm;
+import slapp.editor.parser.Language;
+import slapp.editor.parser.MetaForms;
 import slapp.editor.parser.MatchUtilities;
 import slapp.editor.parser.ParseUtilities;
 import slapp.editor.parser.TextMessageException;
@@ -17,41 +18,37 @@ import java.util.List;
 
 public class AsspDisjExploitC extends DerivationRule {
 
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     public AsspDisjExploitC(String name, String rgexTemplate) {
         super(name, rgexTemplate);
         this.premAssp = true;
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
-        ViewLine bottomLine = checker.lastLineAtScope(line);
+        CheckLine bottomLine = checker.lastLineAtScope(line);
 
-        BoxedDRTA bottomDRTA = bottomLine.getLineContentBoxedDRTA();
-        RichTextArea bottomRTA = bottomDRTA.getRTA();
-        bottomRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document bottomLineDoc = bottomRTA.getDocument();
+        Document bottomLineDoc = bottomLine.getLineDoc();
 
-        String openBracketString = checker.getDerivationRuleset().getMetaLanguage().getOpenBracket1();
-        String closeBracketString = checker.getDerivationRuleset().getMetaLanguage().getCloseBracket1();
-        Document bottomForm1 = new Document("\u22a5" );
-        Document bottomForm2 = new Document(openBracketString + "\ud835\udcac \u2227 \u223c\ud835\udcac" + closeBracketString);
+        Forms forms = metaForms.get(checker.getDerivationRuleset().getMetaLanguage());
 
         //check for empty
         if (bottomLineDoc.getText().equals("")) {
-            String bottomLineLabel = bottomLine.getLineNumberLabel().getText();
+            String bottomLineLabel = bottomLine.getLabel();
             return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("To complete this exit strategy, indicate contradiction as target at the bottom of the scope line (" +  checker.getContradictionSymbolString() + " ok).")));
         }
         // check for contradiction
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         boolean resultGood1 = false;
         boolean resultGood2 = false;
         try {
-            Pair<Boolean, Boolean> bottomMatch1 = MatchUtilities.simpleFormMatch(bottomForm1, bottomLineDoc, checker.getDerivationRuleset().getObjectLanguage().getNameString(), checker.getDerivationRuleset().getMetaLanguage().getNameString());
+            boolean bottomMatch1 = MatchUtilities.simpleFormMatch(context, forms.bottomForm1, bottomLineDoc, checker.getDerivationRuleset().getObjectLanguage().getNameString());
             resultGood1 = true;
         } catch (TextMessageException e) { }
 
         try {
-            Pair<Boolean, Boolean> bottomMatch2 = MatchUtilities.simpleFormMatch(bottomForm2, bottomLineDoc, checker.getDerivationRuleset().getObjectLanguage().getNameString(), checker.getDerivationRuleset().getMetaLanguage().getNameString());
+            boolean bottomMatch2 = MatchUtilities.simpleFormMatch(context, forms.bottomForm2, bottomLineDoc, checker.getDerivationRuleset().getObjectLanguage().getNameString());
             resultGood2 = true;
         } catch (TextMessageException e) { }
 
@@ -59,7 +56,7 @@ public class AsspDisjExploitC extends DerivationRule {
             return new Pair(true, null);
         }
         else {
-            String bottomLineLabel = bottomLine.getLineNumberLabel().getText();
+            String bottomLineLabel = bottomLine.getLabel();
             return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("It looks like your exit strategy should have been \ud835\udc54 rather than \ud835\udc50).")));
         }
 
@@ -70,5 +67,16 @@ public class AsspDisjExploitC extends DerivationRule {
 
     }
 
+    private static class Forms {
+        final CompiledForm bottomForm1;
+        final CompiledForm bottomForm2;
+
+        Forms(Language metaLanguage) {
+            String openBracketString = metaLanguage.getOpenBracket1();
+            String closeBracketString = metaLanguage.getCloseBracket1();
 
+            bottomForm1 = CompiledForm.getInstance("\u22a5", metaLanguage.getNameString());
+            bottomForm2 = CompiledForm.getInstance(openBracketString + "\ud835\udcac \u2227 \u223c\ud835\udcac" + closeBracketString, metaLanguage.getNameString());
+        }
+    }
 }
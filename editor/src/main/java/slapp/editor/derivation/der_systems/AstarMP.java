@@ -1,14 +1,14 @@
 package slapp.editor.derivation.der_systems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.Pair;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
+import slapp.editor.parser.CompiledForm;
 import slapp.editor.parser.Language;
+import slapp.editor.parser.MetaForms;
 import slapp.editor.parser.MatchUtilities;
 import slapp.editor.parser.ParseUtilities;
 import slapp.editor.parser.TextMessageException;
@@ -18,48 +18,41 @@ import java.util.List;
 
 public class AstarMP extends DerivationRule {
 
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     public AstarMP(String name, String rgexTemplate) {
         super(name, rgexTemplate);
         this.premAssp = false;
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
 
-        ViewLine inputLine1;
-        Pair<ViewLine, List<Text>> line1Pair = checker.getLineFromLabel(inputs[0]);
+        CheckLine inputLine1;
+        Pair<CheckLine, List<StyledText>> line1Pair = checker.getLineFromLabel(inputs[0]);
         if (line1Pair.getKey() != null) inputLine1 = line1Pair.getKey();
         else return new Pair(false, line1Pair.getValue());
 
-        BoxedDRTA inputBDRTA1 = inputLine1.getLineContentBoxedDRTA();
-        RichTextArea inputRTA1 = inputBDRTA1.getRTA();
-        inputRTA1.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc1 = inputRTA1.getDocument();
+        Document inputDoc1 = inputLine1.getLineDoc();
         if (inputDoc1.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[0] + ").")));
 
 
-        ViewLine inputLine2;
-        Pair<ViewLine, List<Text>> line2Pair = checker.getLineFromLabel(inputs[1]);
+        CheckLine inputLine2;
+        Pair<CheckLine, List<StyledText>> line2Pair = checker.getLineFromLabel(inputs[1]);
         if (line2Pair.getKey() != null) inputLine2 = line2Pair.getKey();
         else return new Pair(false, line2Pair.getValue());
 
-        BoxedDRTA inputBDRTA2 = inputLine2.getLineContentBoxedDRTA();
-        RichTextArea inputRTA2 = inputBDRTA2.getRTA();
-        inputRTA2.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc2 = inputRTA2.getDocument();
+        Document inputDoc2 = inputLine2.getLineDoc();
         if (inputDoc2.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[1] + ").")));
 
 
-        Pair<Boolean, List<Text>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
         if (!accessibilityPair1.getKey()) {
             return accessibilityPair1;
         }
 
-        Pair<Boolean, List<Text>> accessibilityPair2 = checker.lineIsAccessibleTo(inputLine2, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair2 = checker.lineIsAccessibleTo(inputLine2, line);
         if (!accessibilityPair2.getKey()) {
             return accessibilityPair2;
         }
@@ -67,35 +60,27 @@ public class AstarMP extends DerivationRule {
         Language objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        String openBracketString = metaLanguage.getOpenBracket1();
-        String closeBracketString = metaLanguage.getCloseBracket1();
-
-        Document inputFormA1 = new Document(openBracketString + "\ud835\udcab \u2192 \ud835\udcac" + closeBracketString);
-        Document inputFormB1 = new Document("\ud835\udcab");
-        Document inputFormA2 = new Document("∼(\uD835\uDCAB ∧ ∼\uD835\uDCAC)");
-        Document inputFormB2 = new Document("\uD835\uDCAB");
-        Document outputForm = new Document("\ud835\udcac");
-
+        Forms forms = metaForms.get(metaLanguage);
 
         //try correct
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         boolean resultGood1 = false;
         boolean resultGood2 = false;
         boolean resultGood3 = false;
         try {
-            Pair<Boolean, Boolean> inputMatchA = MatchUtilities.simpleFormMatch(inputFormA1, inputDoc1, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean inputMatchA = MatchUtilities.simpleFormMatch(context, forms.inputFormA1, inputDoc1, objectLanguage.getNameString());
             resultGood1 = true;
         }
         catch (TextMessageException e) {
-       //     return new Pair(false, Collections.singletonList((ParseUtilities.newRegularText("Line (" + inputLine1.getLineNumberLabel().getText() + ") is not of the right form be an input to " + getName() + "."))));
+       //     return new Pair(false, Collections.singletonList((ParseUtilities.newRegularText("Line (" + inputLine1.getLabel() + ") is not of the right form be an input to " + getName() + "."))));
         }
         try {
-            Pair<Boolean, Boolean> inputMatchB = MatchUtilities.simpleFormMatch(inputFormB1, inputDoc2, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean inputMatchB = MatchUtilities.simpleFormMatch(context, forms.inputFormB1, inputDoc2, objectLanguage.getNameString());
             resultGood2 = true;
         }
         catch (TextMessageException e) {}
         try {
-            Pair<Boolean, Boolean> outputMatch = MatchUtilities.simpleFormMatch(outputForm, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean outputMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm, lineDoc, objectLanguage.getNameString());
             resultGood3 = true;
         } catch (TextMessageException e) { }
 
@@ -104,22 +89,22 @@ public class AstarMP extends DerivationRule {
         }
 
         //try type 2
-        MatchUtilities.clearFormMatch();
+        context.clear();
         resultGood1 = false;
         resultGood2 = false;
         resultGood3 = false;
         try {
-            Pair<Boolean, Boolean> inputMatchA = MatchUtilities.simpleFormMatch(inputFormA2, inputDoc1, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean inputMatchA = MatchUtilities.simpleFormMatch(context, forms.inputFormA2, inputDoc1, objectLanguage.getNameString());
             resultGood1 = true;
         }
         catch (TextMessageException e) { }
         try {
-            Pair<Boolean, Boolean> inputMatch1 = MatchUtilities.simpleFormMatch(inputFormB2, inputDoc2, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean inputMatch1 = MatchUtilities.simpleFormMatch(context, forms.inputFormB2, inputDoc2, objectLanguage.getNameString());
             resultGood2 = true;
         }
         catch (TextMessageException e) {}
             try {
-                Pair<Boolean, Boolean> outputMatch = MatchUtilities.simpleFormMatch(outputForm, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
+                boolean outputMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm, lineDoc, objectLanguage.getNameString());
                 resultGood3 = true;
             } catch (TextMessageException e) { }
 
@@ -127,11 +112,28 @@ public class AstarMP extends DerivationRule {
             return new Pair(true, null);
         }
         else {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLineNumberLabel().getText() + ") and (" + inputLine2.getLineNumberLabel().getText() +
-                    ") are not of the right form to result in (" + line.getLineNumberLabel().getText() + ") by " + getName() + "."))));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLabel() + ") and (" + inputLine2.getLabel() +
+                    ") are not of the right form to result in (" + line.getLabel() + ") by " + getName() + "."))));
         }
 
     }
 
-
+    private static class Forms {
+        final CompiledForm inputFormA1;
+        final CompiledForm inputFormB1;
+        final CompiledForm inputFormA2;
+        final CompiledForm inputFormB2;
+        final CompiledForm outputForm;
+
+        Forms(Language metaLanguage) {
+            String openBracketString = metaLanguage.getOpenBracket1();
+            String closeBracketString = metaLanguage.getCloseBracket1();
+
+            inputFormA1 = CompiledForm.getInstance(openBracketString + "\ud835\udcab \u2192 \ud835\udcac" + closeBracketString, metaLanguage.getNameString());
+            inputFormB1 = CompiledForm.getInstance("\ud835\udcab", metaLanguage.getNameString());
+            inputFormA2 = CompiledForm.getInstance("∼(\uD835\uDCAB ∧ ∼\uD835\uDCAC)", metaLanguage.getNameString());
+            inputFormB2 = CompiledForm.getInstance("\uD835\uDCAB", metaLanguage.getNameString());
+            outputForm = CompiledForm.getInstance("\ud835\udcac", metaLanguage.getNameString());
+        }
+    }
 }
@@ -1,15 +1,9 @@
 package slapp.editor.derivation.der_systems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
 import slapp.editor.parser.*;
-import slapp.editor.parser.grammatical_parts.Formula;
 import slapp.editor.parser.grammatical_parts.MFormula;
 import slapp.editor.parser.symbols.MFormulaSym;
 
@@ -18,31 +12,27 @@ import java.util.List;
 
 public class ConjunctionExploit extends DerivationRule {
 
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     public ConjunctionExploit(String name, String rgexTemplate) {
         super(name, rgexTemplate);
         this.premAssp = false;
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
 
-        ViewLine inputLine;
-        Pair<ViewLine, List<Text>> inputLine1Pair = checker.getLineFromLabel(inputs[0]);
+        CheckLine inputLine;
+        Pair<CheckLine, List<StyledText>> inputLine1Pair = checker.getLineFromLabel(inputs[0]);
         if (inputLine1Pair.getKey() != null) inputLine = inputLine1Pair.getKey();
         else return new Pair(false, inputLine1Pair.getValue());
 
-        BoxedDRTA inputBDRTA = inputLine.getLineContentBoxedDRTA();
-        RichTextArea inputRTA = inputBDRTA.getRTA();
-        inputRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc = inputRTA.getDocument();
+        Document inputDoc = inputLine.getLineDoc();
         if (inputDoc.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[0] + ").")));
 
 
-        Pair<Boolean, List<Text>> accessibilityPair = checker.lineIsAccessibleTo(inputLine, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair = checker.lineIsAccessibleTo(inputLine, line);
         if (!accessibilityPair.getKey()) {
             return accessibilityPair;
         }
@@ -50,35 +40,30 @@ public class ConjunctionExploit extends DerivationRule {
         Language objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        String openBracketString = metaLanguage.getOpenBracket1();
-        String closeBracketString = metaLanguage.getCloseBracket1();
-
-        Document inputForm = new Document(openBracketString + "\ud835\udcab \u2227 \ud835\udcac" + closeBracketString);
-        Document outputFormA = new Document("\ud835\udcab" );
-        Document outputFormB = new Document("\ud835\udcac" );
+        Forms forms = metaForms.get(metaLanguage);
         boolean resultGood = false;
 
         //try A
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         try {
-            Pair<Boolean, Boolean> inputMatch = MatchUtilities.simpleFormMatch(inputForm, inputDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean inputMatch = MatchUtilities.simpleFormMatch(context, forms.inputForm, inputDoc, objectLanguage.getNameString());
         }
         catch (TextMessageException e) {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + inputs[0] + ") is not of the right form to result in (" + line.getLineNumberLabel().getText() + ") by " + getName() + ".")));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + inputs[0] + ") is not of the right form to result in (" + line.getLabel() + ") by " + getName() + ".")));
         }
 
         //********** this is a test delete
 /*
         for (MFormula mForm : MFormula.getmFormulas()) {
-            System.out.println(mForm + " : " + mForm.getMatch());
-            if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcab", ""))) System.out.println("match to P: " +mForm.getMatch());
+            System.out.println(mForm + " : " + mForm.getMatch(context));
+            if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcab", ""))) System.out.println("match to P: " +mForm.getMatch(context));
         }
  */
         //*********
 
         try {
-            Pair<Boolean, Boolean> outputMatchA = MatchUtilities.simpleFormMatch(outputFormA, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (outputMatchA.getKey()) resultGood = true;
+            boolean outputMatchA = MatchUtilities.simpleFormMatch(context, forms.outputFormA, lineDoc, objectLanguage.getNameString());
+            if (outputMatchA) resultGood = true;
         }
         catch (TextMessageException e) {
   //          return new Pair(false, e.getMessage());
@@ -86,15 +71,15 @@ public class ConjunctionExploit extends DerivationRule {
 
         if (!resultGood) {
             //try B
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                Pair<Boolean, Boolean> inputMatch = MatchUtilities.simpleFormMatch(inputForm, inputDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
+                boolean inputMatch = MatchUtilities.simpleFormMatch(context, forms.inputForm, inputDoc, objectLanguage.getNameString());
             } catch (TextMessageException e) {
                 //           return new Pair(false, e.getMessage());
             }
             try {
-                Pair<Boolean, Boolean> outputMatchB = MatchUtilities.simpleFormMatch(outputFormB, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                if (outputMatchB.getKey()) resultGood = true;
+                boolean outputMatchB = MatchUtilities.simpleFormMatch(context, forms.outputFormB, lineDoc, objectLanguage.getNameString());
+                if (outputMatchB) resultGood = true;
             } catch (TextMessageException e) {
                 //           return new Pair(false, e.getMessage());
             }
@@ -102,10 +87,23 @@ public class ConjunctionExploit extends DerivationRule {
 
         if (resultGood) return new Pair(true, null);
         else {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLineNumberLabel().getText() + ") does not result from (" + inputs[0] + ") by " + getName() + ".")));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLabel() + ") does not result from (" + inputs[0] + ") by " + getName() + ".")));
         }
 
     }
 
+    private static class Forms {
+        final CompiledForm inputForm;
+        final CompiledForm outputFormA;
+        final CompiledForm outputFormB;
+
+        Forms(Language metaLanguage) {
+            String openBracketString = metaLanguage.getOpenBracket1();
+            String closeBracketString = metaLanguage.getCloseBracket1();
 
+            inputForm = CompiledForm.getInstance(openBracketString + "\ud835\udcab \u2227 \ud835\udcac" + closeBracketString, metaLanguage.getNameString());
+            outputFormA = CompiledForm.getInstance("\ud835\udcab", metaLanguage.getNameString());
+            outputFormB = CompiledForm.getInstance("\ud835\udcac", metaLanguage.getNameString());
+        }
+    }
 }
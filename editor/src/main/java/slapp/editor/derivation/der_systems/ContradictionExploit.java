@@ -1,14 +1,14 @@
 package slapp.editor.derivation.der_systems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.Pair;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
+import slapp.editor.parser.CompiledForm;
 import slapp.editor.parser.Language;
+import slapp.editor.parser.MetaForms;
 import slapp.editor.parser.MatchUtilities;
 import slapp.editor.parser.ParseUtilities;
 import slapp.editor.parser.TextMessageException;
@@ -18,31 +18,27 @@ import java.util.List;
 
 public class ContradictionExploit extends DerivationRule {
 
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     public ContradictionExploit(String name, String rgexTemplate) {
         super(name, rgexTemplate);
         this.premAssp = false;
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
 
-        ViewLine inputLine;
-        Pair<ViewLine, List<Text>> inputLine1Pair = checker.getLineFromLabel(inputs[0]);
+        CheckLine inputLine;
+        Pair<CheckLine, List<StyledText>> inputLine1Pair = checker.getLineFromLabel(inputs[0]);
         if (inputLine1Pair.getKey() != null) inputLine = inputLine1Pair.getKey();
         else return new Pair(false, inputLine1Pair.getValue());
 
-        BoxedDRTA inputBDRTA = inputLine.getLineContentBoxedDRTA();
-        RichTextArea inputRTA = inputBDRTA.getRTA();
-        inputRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc = inputRTA.getDocument();
+        Document inputDoc = inputLine.getLineDoc();
         if (inputDoc.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[0] + ").")));
 
 
-        Pair<Boolean, List<Text>> accessibilityPair = checker.lineIsAccessibleTo(inputLine, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair = checker.lineIsAccessibleTo(inputLine, line);
         if (!accessibilityPair.getKey()) {
             return accessibilityPair;
         }
@@ -50,35 +46,39 @@ public class ContradictionExploit extends DerivationRule {
         Language objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        String openBracketString = metaLanguage.getOpenBracket1();
-        String closeBracketString = metaLanguage.getCloseBracket1();
-
-        Document inputForm = new Document("\u22a5");
-        Document outputForm = new Document("\ud835\udcab" );
+        Forms forms = metaForms.get(metaLanguage);
 
         boolean resultGood = false;
 
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         try {
-            Pair<Boolean, Boolean> inputMatch = MatchUtilities.simpleFormMatch(inputForm, inputDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean inputMatch = MatchUtilities.simpleFormMatch(context, forms.inputForm, inputDoc, objectLanguage.getNameString());
         }
         catch (TextMessageException e) {
             return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Only the contradiction symbol " + checker.getContradictionSymbolString() + " can be an input to " + getName() + ".")));
         }
 
         try {
-            Pair<Boolean, Boolean> outputMatchA = MatchUtilities.simpleFormMatch(outputForm, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (outputMatchA.getKey()) resultGood = true;
+            boolean outputMatchA = MatchUtilities.simpleFormMatch(context, forms.outputForm, lineDoc, objectLanguage.getNameString());
+            if (outputMatchA) resultGood = true;
         }
         catch (TextMessageException e) { }
 
 
         if (resultGood) return new Pair(true, null);
         else {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLineNumberLabel().getText() + ") does not result from (" + inputs[0] + ") by " + getName() + ".")));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLabel() + ") does not result from (" + inputs[0] + ") by " + getName() + ".")));
         }
 
     }
 
+    private static class Forms {
+        final CompiledForm inputForm;
+        final CompiledForm outputForm;
 
+        Forms(Language metaLanguage) {
+            inputForm = CompiledForm.getInstance("\u22a5", metaLanguage.getNameString());
+            outputForm = CompiledForm.getInstance("\ud835\udcab", metaLanguage.getNameString());
+        }
+    }
 }
@@ -1,14 +1,14 @@
 package slapp.editor.derivation.der_systems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.Pair;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
+import slapp.editor.parser.CompiledForm;
 import slapp.editor.parser.Language;
+import slapp.editor.parser.MetaForms;
 import slapp.editor.parser.MatchUtilities;
 import slapp.editor.parser.ParseUtilities;
 import slapp.editor.parser.TextMessageException;
@@ -18,48 +18,41 @@ import java.util.List;
 
 public class ContradictionIntro extends DerivationRule {
 
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     public ContradictionIntro(String name, String rgexTemplate) {
         super(name, rgexTemplate);
         this.premAssp = false;
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
 
-        ViewLine inputLine1;
-        Pair<ViewLine, List<Text>> line1Pair = checker.getLineFromLabel(inputs[0]);
+        CheckLine inputLine1;
+        Pair<CheckLine, List<StyledText>> line1Pair = checker.getLineFromLabel(inputs[0]);
         if (line1Pair.getKey() != null) inputLine1 = line1Pair.getKey();
         else return new Pair(false, line1Pair.getValue());
 
-        BoxedDRTA inputBDRTA1 = inputLine1.getLineContentBoxedDRTA();
-        RichTextArea inputRTA1 = inputBDRTA1.getRTA();
-        inputRTA1.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc1 = inputRTA1.getDocument();
+        Document inputDoc1 = inputLine1.getLineDoc();
         if (inputDoc1.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to empty line (" + inputs[0] + ").")));
 
 
-        ViewLine inputLine2;
-        Pair<ViewLine, List<Text>> line2Pair = checker.getLineFromLabel(inputs[1]);
+        CheckLine inputLine2;
+        Pair<CheckLine, List<StyledText>> line2Pair = checker.getLineFromLabel(inputs[1]);
         if (line2Pair.getKey() != null) inputLine2 = line2Pair.getKey();
         else return new Pair(false, line2Pair.getValue());
 
-        BoxedDRTA inputBDRTA2 = inputLine2.getLineContentBoxedDRTA();
-        RichTextArea inputRTA2 = inputBDRTA2.getRTA();
-        inputRTA2.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc2 = inputRTA2.getDocument();
+        Document inputDoc2 = inputLine2.getLineDoc();
         if (inputDoc2.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[1] + ").")));
 
 
-        Pair<Boolean, List<Text>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
         if (!accessibilityPair1.getKey()) {
             return accessibilityPair1;
         }
 
-        Pair<Boolean, List<Text>> accessibilityPair2 = checker.lineIsAccessibleTo(inputLine2, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair2 = checker.lineIsAccessibleTo(inputLine2, line);
         if (!accessibilityPair2.getKey()) {
             return accessibilityPair2;
         }
@@ -67,35 +60,28 @@ public class ContradictionIntro extends DerivationRule {
         Language objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        String openBracketString = metaLanguage.getOpenBracket1();
-        String closeBracketString = metaLanguage.getCloseBracket1();
-
-        Document inputFormA = new Document("\ud835\udcab" );
-        Document inputFormB = new Document("\u223c\ud835\udcab" );
-
-        Document outputForm = new Document("\u22a5");
-
+        Forms forms = metaForms.get(metaLanguage);
 
 
 
         //try correct
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         boolean resultGood1 = false;
         boolean resultGood2 = false;
         try {
-            Pair<Boolean, Boolean> outputMatch = MatchUtilities.simpleFormMatch(outputForm, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean outputMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm, lineDoc, objectLanguage.getNameString());
         }
         catch (TextMessageException e) {
             return new Pair(false, Collections.singletonList((ParseUtilities.newRegularText("Only the contradiction symbol " + checker.getContradictionSymbolString() + " can be justified by " + getName() + "."))));
         }
         try {
-            Pair<Boolean, Boolean> inputMatch1 = MatchUtilities.simpleFormMatch(inputFormA, inputDoc1, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean inputMatch1 = MatchUtilities.simpleFormMatch(context, forms.inputFormA, inputDoc1, objectLanguage.getNameString());
             resultGood1 = true;
         }
         catch (TextMessageException e) {}
         if (resultGood1) {
             try {
-                Pair<Boolean, Boolean> inputMatch2 = MatchUtilities.simpleFormMatch(inputFormB, inputDoc2, objectLanguage.getNameString(), metaLanguage.getNameString());
+                boolean inputMatch2 = MatchUtilities.simpleFormMatch(context, forms.inputFormB, inputDoc2, objectLanguage.getNameString());
                 resultGood2 = true;
             } catch (TextMessageException e) { }
         }
@@ -104,21 +90,21 @@ public class ContradictionIntro extends DerivationRule {
         }
 
         //try reversed
-        MatchUtilities.clearFormMatch();
+        context.clear();
         resultGood1 = false;
         resultGood2 = false;
         try {
-            Pair<Boolean, Boolean> outputMatch = MatchUtilities.simpleFormMatch(outputForm, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean outputMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm, lineDoc, objectLanguage.getNameString());
         }
         catch (TextMessageException e) { }
         try {
-            Pair<Boolean, Boolean> inputMatch1 = MatchUtilities.simpleFormMatch(inputFormB, inputDoc1, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean inputMatch1 = MatchUtilities.simpleFormMatch(context, forms.inputFormB, inputDoc1, objectLanguage.getNameString());
             resultGood1 = true;
         }
         catch (TextMessageException e) {}
         if (resultGood1) {
             try {
-                Pair<Boolean, Boolean> inputMatch2 = MatchUtilities.simpleFormMatch(inputFormA, inputDoc2, objectLanguage.getNameString(), metaLanguage.getNameString());
+                boolean inputMatch2 = MatchUtilities.simpleFormMatch(context, forms.inputFormA, inputDoc2, objectLanguage.getNameString());
                 resultGood2 = true;
             } catch (TextMessageException e) { }
         }
@@ -126,11 +112,22 @@ public class ContradictionIntro extends DerivationRule {
             return new Pair(true, null);
         }
         else {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLineNumberLabel().getText() + ") and (" + inputLine2.getLineNumberLabel().getText() +
-                    ") are not of the right form to result in (" + line.getLineNumberLabel().getText() + ") by " + getName() + "."))));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLabel() + ") and (" + inputLine2.getLabel() +
+                    ") are not of the right form to result in (" + line.getLabel() + ") by " + getName() + "."))));
         }
 
     }
 
+    private static class Forms {
+        final CompiledForm inputFormA;
+        final CompiledForm inputFormB;
+        final CompiledForm outputForm;
 
+        Forms(Language metaLanguage) {
+            inputFormA = CompiledForm.getInstance("\ud835\udcab", metaLanguage.getNameString());
+            inputFormB = CompiledForm.getInstance("\u223c\ud835\udcab", metaLanguage.getNameString());
+
+            outputForm = CompiledForm.getInstance("\u22a5", metaLanguage.getNameString());
+        }
+    }
 }
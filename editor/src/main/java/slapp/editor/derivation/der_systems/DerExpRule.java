@@ -1,10 +1,9 @@
 package slapp.editor.derivation.der_systems;
 
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
-import slapp.editor.derivation_explain.DrvtnExpCheck;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.Pair;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
 
 import java.util.List;
 import java.util.regex.Matcher;
@@ -35,7 +34,7 @@ public abstract class DerExpRule {
         return matcher.matches();
     }
 
-    public abstract Pair<Boolean, List<Text>> applies(DrvtnExpCheck checker, ViewLine line, String... inputs);
+    public abstract Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs);
 
 
 }
@@ -1,24 +1,21 @@
 package slapp.editor.derivation.der_systems;
 
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.Pair;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
 
 import java.util.List;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public abstract class DerivationRule {
 
     String name;
-    Matcher matcher;
+    Pattern pattern;
     boolean premAssp;
 
     public DerivationRule(String name, String rgexTemplate) {
-        Pattern pattern = Pattern.compile(rgexTemplate);
-        matcher = pattern.matcher("");
+        pattern = Pattern.compile(rgexTemplate);
         this.name = name;
     }
 
@@ -31,11 +28,14 @@ public abstract class DerivationRule {
     }
 
     public boolean matches(String input) {
-        matcher.reset(input);
-        return matcher.matches();
+        return pattern.matcher(input).matches();
     }
 
-    public abstract Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs);
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    public abstract Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs);
 
 
 }
@@ -1,7 +1,7 @@
 package slapp.editor.derivation.der_systems;
 
-import javafx.scene.text.Text;
-import javafx.util.Pair;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.Pair;
 import slapp.editor.parser.Language;
 
 import java.util.ArrayList;
@@ -10,7 +10,7 @@ import java.util.regex.Pattern;
 
 public class DerivationRuleset {
     String name;
-    List<Text> textName;
+    List<StyledText> textName;
     Language objectLanguage;
     Language metaLanguage;
     List<DerivationRule> rules;
@@ -45,7 +45,7 @@ public class DerivationRuleset {
 
     List<Pair<Pattern, String>> dummyRules = new ArrayList<>();
 
-    DerivationRuleset(String name, List<Text> textName) {
+    DerivationRuleset(String name, List<StyledText> textName) {
         this.name = name;
         this.textName = textName;
         this.objectLanguage = objectLanguage;
@@ -68,7 +68,7 @@ public class DerivationRuleset {
         return name;
     }
 
-    public List<Text> getTextName() {
+    public List<StyledText> getTextName() {
         return textName;
     }
 
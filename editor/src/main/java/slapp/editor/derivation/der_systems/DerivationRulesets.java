@@ -1,18 +1,23 @@
 package slapp.editor.derivation.der_systems;
 
-import javafx.scene.text.Text;
-import javafx.util.Pair;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.Pair;
 import slapp.editor.parser.ParseUtilities;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 public class DerivationRulesets implements Serializable {
     private static final long serialVersionUID = 100L;
     private static List<DerivationRuleset> rulesets = new ArrayList<>();
+    private static Map<String, Supplier<DerivationRuleset>> rulesetFactories = new HashMap<>();
     private boolean contextualHelpComaatible;
 
     static {
@@ -22,19 +27,25 @@ public class DerivationRulesets implements Serializable {
     public DerivationRulesets() {      }
 
     private static void loadRulesets() {
-        rulesets.add(getNP134());
-        rulesets.add(getNP1234());
-        rulesets.add(getNDs());
-        rulesets.add(getNDs_p());
-        rulesets.add(getND());
-        rulesets.add(getND_sp());
-        rulesets.add(getND_p());
-        rulesets.add(getND_pnt());
-        rulesets.add(getAP());
-        rulesets.add(getADs());
-        rulesets.add(getADq());
-        rulesets.add(getAD());
-        rulesets.add(getAstar());
+        List<Supplier<DerivationRuleset>> factories = Arrays.asList(
+                DerivationRulesets::getNP134,
+                DerivationRulesets::getNP1234,
+                DerivationRulesets::getNDs,
+                DerivationRulesets::getNDs_p,
+                DerivationRulesets::getND,
+                DerivationRulesets::getND_sp,
+                DerivationRulesets::getND_p,
+                DerivationRulesets::getND_pnt,
+                DerivationRulesets::getAP,
+                DerivationRulesets::getADs,
+                DerivationRulesets::getADq,
+                DerivationRulesets::getAD,
+                DerivationRulesets::getAstar);
+        for (Supplier<DerivationRuleset> factory : factories) {
+            DerivationRuleset ruleset = factory.get();
+            rulesets.add(ruleset);
+            rulesetFactories.put(ruleset.getName(), factory);
+        }
     }
 
     public static List<DerivationRuleset> getRulesets() {
@@ -48,6 +59,17 @@ public class DerivationRulesets implements Serializable {
         return null;
     }
 
+    /*
+     * A new instance of the named ruleset.  The instances from getRuleset are shared by the exercises open in the
+     * editor; a check off the application thread (as by the batch grader) takes a ruleset of its own.
+     * @param rulesetName name of the ruleset
+     * @return the ruleset, or null if there is none of that name
+     */
+    public static DerivationRuleset newRuleset(String rulesetName) {
+        Supplier<DerivationRuleset> factory = rulesetFactories.get(rulesetName);
+        return factory == null ? null : factory.get();
+    }
+
     public static DerivationRuleset getNP134() {
         DerivationRuleset NP = new DerivationRuleset("\uD835\uDC41\uD835\uDC43 (134)", Collections.singletonList(ParseUtilities.newItalicText("NP 134")));
         DerivationRule premiseRule = new Premise("P","^\\s*P\\s*$");
@@ -230,7 +252,7 @@ public class DerivationRulesets implements Serializable {
 
 
     private static DerivationRuleset getND_pnt() {
-        List<Text> nameTxts = new ArrayList<>();
+        List<StyledText> nameTxts = new ArrayList<>();
         nameTxts.add(ParseUtilities.newItalicText("ND+"));
         nameTxts.add(ParseUtilities.newRegularText(" (nt)"));
         DerivationRuleset ND_pnt = new DerivationRuleset("\ud835\udc41\ud835\udc37+ (nt)",nameTxts);
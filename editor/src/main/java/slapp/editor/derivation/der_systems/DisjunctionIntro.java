@@ -1,14 +1,14 @@
 package slapp.editor.derivation.der_systems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.Pair;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
+import slapp.editor.parser.CompiledForm;
 import slapp.editor.parser.Language;
+import slapp.editor.parser.MetaForms;
 import slapp.editor.parser.MatchUtilities;
 import slapp.editor.parser.ParseUtilities;
 import slapp.editor.parser.TextMessageException;
@@ -18,31 +18,27 @@ import java.util.List;
 
 public class DisjunctionIntro extends DerivationRule {
 
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     public DisjunctionIntro(String name, String rgexTemplate) {
         super(name, rgexTemplate);
         this.premAssp = false;
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
 
-        ViewLine inputLine;
-        Pair<ViewLine, List<Text>> inputLinePair = checker.getLineFromLabel(inputs[0]);
+        CheckLine inputLine;
+        Pair<CheckLine, List<StyledText>> inputLinePair = checker.getLineFromLabel(inputs[0]);
         if (inputLinePair.getKey() != null) inputLine = inputLinePair.getKey();
         else return new Pair(false, inputLinePair.getValue());
 
-        BoxedDRTA inputBDRTA = inputLine.getLineContentBoxedDRTA();
-        RichTextArea inputRTA = inputBDRTA.getRTA();
-        inputRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc = inputRTA.getDocument();
+        Document inputDoc = inputLine.getLineDoc();
         if (inputDoc.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[0] + ").")));
 
 
-        Pair<Boolean, List<Text>> accessibilityPair = checker.lineIsAccessibleTo(inputLine, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair = checker.lineIsAccessibleTo(inputLine, line);
         if (!accessibilityPair.getKey()) {
             return accessibilityPair;
         }
@@ -50,47 +46,55 @@ public class DisjunctionIntro extends DerivationRule {
         Language objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        String openBracketString = metaLanguage.getOpenBracket1();
-        String closeBracketString = metaLanguage.getCloseBracket1();
-
-        Document outputForm = new Document(openBracketString + "\ud835\udcab \u2228 \ud835\udcac" + closeBracketString);
-        Document inputFormA = new Document("\ud835\udcab" );
-        Document inputFormB = new Document("\ud835\udcac" );
+        Forms forms = metaForms.get(metaLanguage);
         boolean resultGood = false;
 
         //try A
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         try {
-            Pair<Boolean, Boolean> outputMatch = MatchUtilities.simpleFormMatch(outputForm, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean outputMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm, lineDoc, objectLanguage.getNameString());
         }
         catch (TextMessageException e) {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLineNumberLabel().getText() + ") is not of the right form to be justified by " + getName() + ".")));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLabel() + ") is not of the right form to be justified by " + getName() + ".")));
         }
 
         try {
-            Pair<Boolean, Boolean> inputMatchA = MatchUtilities.simpleFormMatch(inputFormA, inputDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (inputMatchA.getKey()) resultGood = true;
+            boolean inputMatchA = MatchUtilities.simpleFormMatch(context, forms.inputFormA, inputDoc, objectLanguage.getNameString());
+            if (inputMatchA) resultGood = true;
         }
         catch (TextMessageException e) { }
 
         if (!resultGood) {
             //try B
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                Pair<Boolean, Boolean> inputMatch = MatchUtilities.simpleFormMatch(outputForm, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
+                boolean inputMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm, lineDoc, objectLanguage.getNameString());
             } catch (TextMessageException e) { }
             try {
-                Pair<Boolean, Boolean> inputMatchB = MatchUtilities.simpleFormMatch(inputFormB, inputDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                if (inputMatchB.getKey()) resultGood = true;
+                boolean inputMatchB = MatchUtilities.simpleFormMatch(context, forms.inputFormB, inputDoc, objectLanguage.getNameString());
+                if (inputMatchB) resultGood = true;
             } catch (TextMessageException e) { }
         }
 
         if (resultGood) return new Pair(true, null);
         else {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLineNumberLabel().getText() + ") does not result from (" + inputs[0] + ") by " + getName() + ".")));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLabel() + ") does not result from (" + inputs[0] + ") by " + getName() + ".")));
         }
 
     }
 
+    private static class Forms {
+        final CompiledForm outputForm;
+        final CompiledForm inputFormA;
+        final CompiledForm inputFormB;
+
+        Forms(Language metaLanguage) {
+            String openBracketString = metaLanguage.getOpenBracket1();
+            String closeBracketString = metaLanguage.getCloseBracket1();
 
+            outputForm = CompiledForm.getInstance(openBracketString + "\ud835\udcab \u2228 \ud835\udcac" + closeBracketString, metaLanguage.getNameString());
+            inputFormA = CompiledForm.getInstance("\ud835\udcab", metaLanguage.getNameString());
+            inputFormB = CompiledForm.getInstance("\ud835\udcac", metaLanguage.getNameString());
+        }
+    }
 }
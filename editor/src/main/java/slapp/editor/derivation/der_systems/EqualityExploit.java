@@ -1,13 +1,8 @@
 package slapp.editor.derivation.der_systems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
 import slapp.editor.parser.*;
 import slapp.editor.parser.grammatical_parts.*;
 
@@ -17,48 +12,41 @@ import java.util.List;
 
 public class EqualityExploit extends DerivationRule {
 
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     public EqualityExploit(String name, String rgexTemplate) {
         super(name, rgexTemplate);
         this.premAssp = false;
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
 
-        ViewLine inputLine1;
-        Pair<ViewLine, List<Text>> line1Pair = checker.getLineFromLabel(inputs[0]);
+        CheckLine inputLine1;
+        Pair<CheckLine, List<StyledText>> line1Pair = checker.getLineFromLabel(inputs[0]);
         if (line1Pair.getKey() != null) inputLine1 = line1Pair.getKey();
         else return new Pair(false, line1Pair.getValue());
 
-        BoxedDRTA inputBDRTA1 = inputLine1.getLineContentBoxedDRTA();
-        RichTextArea inputRTA1 = inputBDRTA1.getRTA();
-        inputRTA1.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc1 = inputRTA1.getDocument();
+        Document inputDoc1 = inputLine1.getLineDoc();
         if (inputDoc1.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to empty line (" + inputs[0] + ").")));
 
 
-        ViewLine inputLine2;
-        Pair<ViewLine, List<Text>> line2Pair = checker.getLineFromLabel(inputs[1]);
+        CheckLine inputLine2;
+        Pair<CheckLine, List<StyledText>> line2Pair = checker.getLineFromLabel(inputs[1]);
         if (line2Pair.getKey() != null) inputLine2 = line2Pair.getKey();
         else return new Pair(false, line2Pair.getValue());
 
-        BoxedDRTA inputBDRTA2 = inputLine2.getLineContentBoxedDRTA();
-        RichTextArea inputRTA2 = inputBDRTA2.getRTA();
-        inputRTA2.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc2 = inputRTA2.getDocument();
+        Document inputDoc2 = inputLine2.getLineDoc();
         if (inputDoc2.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[1] + ").")));
 
 
-        Pair<Boolean, List<Text>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
         if (!accessibilityPair1.getKey()) {
             return accessibilityPair1;
         }
 
-        Pair<Boolean, List<Text>> accessibilityPair2 = checker.lineIsAccessibleTo(inputLine2, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair2 = checker.lineIsAccessibleTo(inputLine2, line);
         if (!accessibilityPair2.getKey()) {
             return accessibilityPair2;
         }
@@ -66,84 +54,76 @@ public class EqualityExploit extends DerivationRule {
         Language objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        String openBracketString = metaLanguage.getOpenBracket1();
-        String closeBracketString = metaLanguage.getCloseBracket1();
-        String slashDividerString = metaLanguage.getSlashDivider();
 //        String commaDividerString = metaLanguage.getCommaDivider();
 
-        Document inputForm1 = new Document("\ud835\udcab" );
-        Document inputForm2a = new Document( openBracketString + "\ud835\udcc8 \ue8ac \ud835\udcc9" + closeBracketString );
-        Document inputForm2b = new Document( openBracketString + "\ud835\udcc9 \ue8ac \ud835\udcc8" + closeBracketString );
-        Document inputForm2c = new Document("\ue8ac\ud835\udcc8\ud835\udcc9");
-        Document inputForm2d = new Document("\ue8ac\ud835\udcc9\ud835\udcc8");
-        Document outputForm = new Document("\ud835\udcab\u2039 \ud835\udcc8" + slashDividerString + "\ud835\udcc9 \u203a");
+        Forms forms = metaForms.get(metaLanguage);
 
         Term term1 = null;
         Term term2 = null;
         Formula originalFormula = null;
 
-        List<Text> message1 = null;
-        List<Text> message2 = null;
-        List<Text> message3 = null;
-        List<Text> message4 = null;
+        List<StyledText> message1 = null;
+        List<StyledText> message2 = null;
+        List<StyledText> message3 = null;
+        List<StyledText> message4 = null;
 
 
         //catch reverse (but allow equality first if both inputs are equalities)
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         boolean reverse = false;
         boolean reverseA = false;
         boolean reverseB = false;
         try {
-            Pair<Boolean, Boolean> reverseMatch1 = MatchUtilities.simpleFormMatch(inputForm2a, inputDoc1, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean reverseMatch1 = MatchUtilities.simpleFormMatch(context, forms.inputForm2a, inputDoc1, objectLanguage.getNameString());
             reverse = true;
         }
         catch (TextMessageException e) {}
         if (reverse) {
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                Pair<Boolean, Boolean> reverseMatchA = MatchUtilities.simpleFormMatch(inputForm2a, inputDoc2, objectLanguage.getNameString(), metaLanguage.getNameString());
+                boolean reverseMatchA = MatchUtilities.simpleFormMatch(context, forms.inputForm2a, inputDoc2, objectLanguage.getNameString());
                 reverseA = true;
             }
             catch (TextMessageException e) {}
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                Pair<Boolean, Boolean> reverseMatchB = MatchUtilities.simpleFormMatch(inputForm2c, inputDoc2, objectLanguage.getNameString(), metaLanguage.getNameString());
+                boolean reverseMatchB = MatchUtilities.simpleFormMatch(context, forms.inputForm2c, inputDoc2, objectLanguage.getNameString());
                 reverseB = true;
             }
             catch (TextMessageException e) {}
 
             if (!reverseA && !reverseB) {
-                return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLineNumberLabel().getText() + ") and (" + inputLine2.getLineNumberLabel().getText() +
-                        ") are not of the right form to result in (" + line.getLineNumberLabel().getText() + ") by " + getName() + " (check citation order)."))));
+                return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLabel() + ") and (" + inputLine2.getLabel() +
+                        ") are not of the right form to result in (" + line.getLabel() + ") by " + getName() + " (check citation order)."))));
             }
         }
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         reverse = false;
         reverseA = false;
         reverseB = false;
         try {
-            Pair<Boolean, Boolean> reverseMatch = MatchUtilities.simpleFormMatch(inputForm2c, inputDoc1, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean reverseMatch = MatchUtilities.simpleFormMatch(context, forms.inputForm2c, inputDoc1, objectLanguage.getNameString());
             reverse = true;
         }
         catch (TextMessageException e) {}
         if (reverse) {
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                Pair<Boolean, Boolean> reverseMatchA = MatchUtilities.simpleFormMatch(inputForm2a, inputDoc2, objectLanguage.getNameString(), metaLanguage.getNameString());
+                boolean reverseMatchA = MatchUtilities.simpleFormMatch(context, forms.inputForm2a, inputDoc2, objectLanguage.getNameString());
                 reverseA = true;
             }
             catch (TextMessageException e) {}
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                Pair<Boolean, Boolean> reverseMatchB = MatchUtilities.simpleFormMatch(inputForm2c, inputDoc2, objectLanguage.getNameString(), metaLanguage.getNameString());
+                boolean reverseMatchB = MatchUtilities.simpleFormMatch(context, forms.inputForm2c, inputDoc2, objectLanguage.getNameString());
                 reverseB = true;
             }
             catch (TextMessageException e) {}
 
             if (!reverseA && !reverseB) {
-                return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLineNumberLabel().getText() + ") and (" + inputLine2.getLineNumberLabel().getText() +
-                        ") are not of the right form to result in (" + line.getLineNumberLabel().getText() + ") by " + getName() + " (check citation order)."))));
+                return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLabel() + ") and (" + inputLine2.getLabel() +
+                        ") are not of the right form to result in (" + line.getLabel() + ") by " + getName() + " (check citation order)."))));
             }
         }
 
@@ -153,7 +133,7 @@ public class EqualityExploit extends DerivationRule {
         //try correct
 
         //A
-        MatchUtilities.clearFormMatch();
+        context.clear();
         boolean resultGood1 = false;
         boolean resultGood2 = false;
         boolean resultGood3 = false;
@@ -163,26 +143,26 @@ public class EqualityExploit extends DerivationRule {
 
         //infix equality
         try {
-            Pair<Boolean, Boolean> inputMatch2a = MatchUtilities.simpleFormMatch(inputForm2a, inputDoc2, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean inputMatch2a = MatchUtilities.simpleFormMatch(context, forms.inputForm2a, inputDoc2, objectLanguage.getNameString());
             infix = true;
         }
         catch (TextMessageException e) {}
 
         if (infix) {
             try {
-                Pair<Boolean, Boolean> inputMatch2a = MatchUtilities.simpleFormMatch(inputForm2a, inputDoc2, objectLanguage.getNameString(), metaLanguage.getNameString());
-                resultGood2 = inputMatch2a.getKey();
+                boolean inputMatch2a = MatchUtilities.simpleFormMatch(context, forms.inputForm2a, inputDoc2, objectLanguage.getNameString());
+                resultGood2 = inputMatch2a;
             } catch (TextMessageException e) {
             }
             try {
-                Pair<Boolean, Boolean> inputMatch1 = MatchUtilities.simpleFormMatch(inputForm1, inputDoc1, objectLanguage.getNameString(), metaLanguage.getNameString());
-                resultGood1 = inputMatch1.getKey();
+                boolean inputMatch1 = MatchUtilities.simpleFormMatch(context, forms.inputForm1, inputDoc1, objectLanguage.getNameString());
+                resultGood1 = inputMatch1;
             } catch (TextMessageException e) {
             }
 
             try {
-                Pair<Boolean, Boolean> outputMatch = MatchUtilities.simpleFormMatch(outputForm, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                resultGood3 = outputMatch.getKey();
+                boolean outputMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm, lineDoc, objectLanguage.getNameString());
+                resultGood3 = outputMatch;
             } catch (TextMessageException e) {
                 message1 = e.getMessageList();
 
@@ -193,25 +173,25 @@ public class EqualityExploit extends DerivationRule {
             if (resultGood1 && resultGood2 && resultGood3) return new Pair(true, null);
 
             //B
-            MatchUtilities.clearFormMatch();
+            context.clear();
             resultGood1 = false;
             resultGood2 = false;
             resultGood3 = false;
 
             try {
-                Pair<Boolean, Boolean> inputMatch2b = MatchUtilities.simpleFormMatch(inputForm2b, inputDoc2, objectLanguage.getNameString(), metaLanguage.getNameString());
-                resultGood2 = inputMatch2b.getKey();
+                boolean inputMatch2b = MatchUtilities.simpleFormMatch(context, forms.inputForm2b, inputDoc2, objectLanguage.getNameString());
+                resultGood2 = inputMatch2b;
             } catch (TextMessageException e) {
             }
             try {
-                Pair<Boolean, Boolean> inputMatch1 = MatchUtilities.simpleFormMatch(inputForm1, inputDoc1, objectLanguage.getNameString(), metaLanguage.getNameString());
-                resultGood1 = inputMatch1.getKey();
+                boolean inputMatch1 = MatchUtilities.simpleFormMatch(context, forms.inputForm1, inputDoc1, objectLanguage.getNameString());
+                resultGood1 = inputMatch1;
             } catch (TextMessageException e) {
             }
 
             try {
-                Pair<Boolean, Boolean> outputMatch = MatchUtilities.simpleFormMatch(outputForm, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                resultGood3 = outputMatch.getKey();
+                boolean outputMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm, lineDoc, objectLanguage.getNameString());
+                resultGood3 = outputMatch;
             } catch (TextMessageException e) {
                 message2 = e.getMessageList();
                 //       return new Pair(false, e.getMessageList());
@@ -223,7 +203,7 @@ public class EqualityExploit extends DerivationRule {
 
         //prefix
         try {
-            Pair<Boolean, Boolean> inputMatch2c = MatchUtilities.simpleFormMatch(inputForm2c, inputDoc2, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean inputMatch2c = MatchUtilities.simpleFormMatch(context, forms.inputForm2c, inputDoc2, objectLanguage.getNameString());
             prefix = true;
         }
         catch (TextMessageException e) {}
@@ -231,25 +211,25 @@ public class EqualityExploit extends DerivationRule {
         if (prefix) {
 
             //C
-            MatchUtilities.clearFormMatch();
+            context.clear();
             resultGood1 = false;
             resultGood2 = false;
             resultGood3 = false;
 
             try {
-                Pair<Boolean, Boolean> inputMatch2c = MatchUtilities.simpleFormMatch(inputForm2c, inputDoc2, objectLanguage.getNameString(), metaLanguage.getNameString());
-                resultGood2 = inputMatch2c.getKey();
+                boolean inputMatch2c = MatchUtilities.simpleFormMatch(context, forms.inputForm2c, inputDoc2, objectLanguage.getNameString());
+                resultGood2 = inputMatch2c;
             } catch (TextMessageException e) {
             }
             try {
-                Pair<Boolean, Boolean> inputMatch1 = MatchUtilities.simpleFormMatch(inputForm1, inputDoc1, objectLanguage.getNameString(), metaLanguage.getNameString());
-                resultGood1 = inputMatch1.getKey();
+                boolean inputMatch1 = MatchUtilities.simpleFormMatch(context, forms.inputForm1, inputDoc1, objectLanguage.getNameString());
+                resultGood1 = inputMatch1;
             } catch (TextMessageException e) {
             }
 
             try {
-                Pair<Boolean, Boolean> outputMatch = MatchUtilities.simpleFormMatch(outputForm, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                resultGood3 = outputMatch.getKey();
+                boolean outputMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm, lineDoc, objectLanguage.getNameString());
+                resultGood3 = outputMatch;
             } catch (TextMessageException e) {
                 message3 = e.getMessageList();
                 //         return new Pair(false, e.getMessageList());
@@ -258,26 +238,26 @@ public class EqualityExploit extends DerivationRule {
             if (resultGood1 && resultGood2 && resultGood3) return new Pair(true, null);
 
             //D
-            MatchUtilities.clearFormMatch();
+            context.clear();
             resultGood1 = false;
             resultGood2 = false;
             resultGood3 = false;
 
             try {
-                Pair<Boolean, Boolean> inputMatch2d = MatchUtilities.simpleFormMatch(inputForm2d, inputDoc2, objectLanguage.getNameString(), metaLanguage.getNameString());
-                resultGood2 = inputMatch2d.getKey();
+                boolean inputMatch2d = MatchUtilities.simpleFormMatch(context, forms.inputForm2d, inputDoc2, objectLanguage.getNameString());
+                resultGood2 = inputMatch2d;
             } catch (TextMessageException e) {
             }
 
             try {
-                Pair<Boolean, Boolean> inputMatch1 = MatchUtilities.simpleFormMatch(inputForm1, inputDoc1, objectLanguage.getNameString(), metaLanguage.getNameString());
-                resultGood1 = inputMatch1.getKey();
+                boolean inputMatch1 = MatchUtilities.simpleFormMatch(context, forms.inputForm1, inputDoc1, objectLanguage.getNameString());
+                resultGood1 = inputMatch1;
             } catch (TextMessageException e) {
             }
 
             try {
-                Pair<Boolean, Boolean> outputMatch = MatchUtilities.simpleFormMatch(outputForm, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                resultGood3 = outputMatch.getKey();
+                boolean outputMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm, lineDoc, objectLanguage.getNameString());
+                resultGood3 = outputMatch;
             } catch (TextMessageException e) {
                 message4 = e.getMessageList();
                 //           return new Pair(false, e.getMessageList());
@@ -287,7 +267,7 @@ public class EqualityExploit extends DerivationRule {
         }
 
 
-        List<Text> bigList = new ArrayList<>();
+        List<StyledText> bigList = new ArrayList<>();
        if (message1 != null) {
    //        bigList.addAll(message1);
             return new Pair(false, message1);
@@ -307,7 +287,28 @@ public class EqualityExploit extends DerivationRule {
 
 // new Pair(false, bigList);
 
-        return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Lines (" + inputs[0] + ") and (" + inputs[1] + " are not of the right form to result in (" + line.getLineNumberLabel().getText() + ") by " + getName() + ".")));
+        return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Lines (" + inputs[0] + ") and (" + inputs[1] + " are not of the right form to result in (" + line.getLabel() + ") by " + getName() + ".")));
     }
 
+    private static class Forms {
+        final CompiledForm inputForm1;
+        final CompiledForm inputForm2a;
+        final CompiledForm inputForm2b;
+        final CompiledForm inputForm2c;
+        final CompiledForm inputForm2d;
+        final CompiledForm outputForm;
+
+        Forms(Language metaLanguage) {
+            String openBracketString = metaLanguage.getOpenBracket1();
+            String closeBracketString = metaLanguage.getCloseBracket1();
+            String slashDividerString = metaLanguage.getSlashDivider();
+
+            inputForm1 = CompiledForm.getInstance("\ud835\udcab", metaLanguage.getNameString());
+            inputForm2a = CompiledForm.getInstance(openBracketString + "\ud835\udcc8 \ue8ac \ud835\udcc9" + closeBracketString, metaLanguage.getNameString());
+            inputForm2b = CompiledForm.getInstance(openBracketString + "\ud835\udcc9 \ue8ac \ud835\udcc8" + closeBracketString, metaLanguage.getNameString());
+            inputForm2c = CompiledForm.getInstance("\ue8ac\ud835\udcc8\ud835\udcc9", metaLanguage.getNameString());
+            inputForm2d = CompiledForm.getInstance("\ue8ac\ud835\udcc9\ud835\udcc8", metaLanguage.getNameString());
+            outputForm = CompiledForm.getInstance("\ud835\udcab\u2039 \ud835\udcc8" + slashDividerString + "\ud835\udcc9 \u203a", metaLanguage.getNameString());
+        }
+    }
 }
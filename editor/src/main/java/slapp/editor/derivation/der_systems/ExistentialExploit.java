@@ -1,17 +1,8 @@
 package slapp.editor.derivation.der_systems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.scene.text.TextFlow;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.DerivationCheck;
-import slapp.editor.derivation.DerivationExercise;
-import slapp.editor.derivation.ViewLine;
-import slapp.editor.derivation_explain.DrvtnExpExercise;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
 import slapp.editor.parser.*;
 import slapp.editor.parser.grammatical_parts.Formula;
 
@@ -21,65 +12,55 @@ import java.util.List;
 
 public class ExistentialExploit extends DerivationRule {
 
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     public ExistentialExploit(String name, String rgexTemplate) {
         super(name, rgexTemplate);
         this.premAssp = false;
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
 
 
-        ViewLine exsLine;
-        Pair<ViewLine, List<Text>> exsLinePair = checker.getLineFromLabel(inputs[0]);
+        CheckLine exsLine;
+        Pair<CheckLine, List<StyledText>> exsLinePair = checker.getLineFromLabel(inputs[0]);
         if (exsLinePair.getKey() != null) exsLine = exsLinePair.getKey();
         else return new Pair(false, exsLinePair.getValue());
 
-        BoxedDRTA exsLineBDRTA = exsLine.getLineContentBoxedDRTA();
-        RichTextArea exsLineRTA = exsLineBDRTA.getRTA();
-        exsLineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document exsLineDoc = exsLineRTA.getDocument();
+        Document exsLineDoc = exsLine.getLineDoc();
         if (exsLineDoc.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[0] + ").")));
 
 
-        ViewLine topLine;
-        Pair<ViewLine, List<Text>> topLinePair = checker.getLineFromLabel(inputs[1]);
+        CheckLine topLine;
+        Pair<CheckLine, List<StyledText>> topLinePair = checker.getLineFromLabel(inputs[1]);
         if (topLinePair.getKey() != null) topLine = topLinePair.getKey();
         else return new Pair(false, topLinePair.getValue());
 
-        BoxedDRTA topLineBDRTA = topLine.getLineContentBoxedDRTA();
-        RichTextArea topLineRTA = topLineBDRTA.getRTA();
-        topLineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document topLineDoc = topLineRTA.getDocument();
+        Document topLineDoc = topLine.getLineDoc();
         if (topLineDoc.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[1] + ").")));
 
 
-        ViewLine bottomLine;
-        Pair<ViewLine, List<Text>> bottomLinePair = checker.getLineFromLabel(inputs[2]);
+        CheckLine bottomLine;
+        Pair<CheckLine, List<StyledText>> bottomLinePair = checker.getLineFromLabel(inputs[2]);
         if (bottomLinePair.getKey() != null) bottomLine = bottomLinePair.getKey();
         else return new Pair(false, bottomLinePair.getValue());
 
-        BoxedDRTA bottomLineBDRTA = bottomLine.getLineContentBoxedDRTA();
-        RichTextArea bottomLineRTA = bottomLineBDRTA.getRTA();
-        bottomLineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document bottomLineDoc = bottomLineRTA.getDocument();
+        Document bottomLineDoc = bottomLine.getLineDoc();
         if (bottomLineDoc.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[2] + ").")));
 
-        Pair<Boolean, List<Text>> exsPair = checker.lineIsAccessibleTo(exsLine, line);
+        Pair<Boolean, List<StyledText>> exsPair = checker.lineIsAccessibleTo(exsLine, line);
         if (!exsPair.getKey()) {
             return exsPair;
         }
 
-        Pair<Boolean, List<Text>> subderivationPair = checker.isSubderivation(inputs[1], inputs[2]);
+        Pair<Boolean, List<StyledText>> subderivationPair = checker.isSubderivation(inputs[1], inputs[2]);
         if (!subderivationPair.getKey()) {
             return subderivationPair;
         }
 
-        Pair<Boolean, List<Text>> accessibilityPair = checker.isAccessibleSubderivationFor(line, inputs[1], inputs[2]);
+        Pair<Boolean, List<StyledText>> accessibilityPair = checker.isAccessibleSubderivationFor(line, inputs[1], inputs[2]);
         if (!accessibilityPair.getKey()) {
             return accessibilityPair;
         }
@@ -87,25 +68,13 @@ public class ExistentialExploit extends DerivationRule {
         Language objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        String openBracketString = metaLanguage.getOpenBracket1();
-        String closeBracketString = metaLanguage.getCloseBracket1();
-        String commaDividerString = metaLanguage.getCommaDivider();
-
-        TextFlow topJustificationFlow = topLine.getJustificationFlow();
-
-        String justificationString = (checker instanceof DerivationCheck) ? ((DerivationExercise) checker.getExercise()).getStringFromJustificationFlow(topJustificationFlow) :
-                ((DrvtnExpExercise) checker.getExercise()).getStringFromJustificationFlow(topJustificationFlow);
 
+        String justificationString = topLine.getJustification();
 
-    //    String justificationString = checker.getDerivationExercise().getStringFromJustificationFlow(topJustificationFlow);
 
 
-        Document contForm1 = new Document("\u22a5" );
-        Document contForm2 = new Document(openBracketString + "\ud835\udcac \u2227 \u223c\ud835\udcac" + closeBracketString);
-        Document mainExisForm = new Document( "\u2203\ud835\udccd\ud835\udcab" );
-        Document topLineForm = new Document("\ud835\udcab\u2039\ud835\udccd" + commaDividerString + "\ud835\udccb\u203a"  );
-        Document outputForm = new Document("\ud835\udcaa");
 
+        Forms forms = metaForms.get(checker.getDerivationRuleset().getMetaLanguage());
 
         //check exit strategies
         boolean asspOK = true;
@@ -113,23 +82,21 @@ public class ExistentialExploit extends DerivationRule {
         if (checker.getDerivationRuleset().getAsspExisExploitCRule().matches(justificationString) ||
                 checker.getDerivationRuleset().getAsspExisExploitGRule().matches(justificationString)) {
 
-            String topStr1 = (checker instanceof DerivationCheck) ? ((DerivationExercise) checker.getExercise()).getLineLabelsFromJustificationFlow(topJustificationFlow).get(0) :
-                    ((DrvtnExpExercise) checker.getExercise()).getLineLabelsFromJustificationFlow(topJustificationFlow).get(0);
+            String topStr1 = topLine.getJustificationLabels().get(0);
 
 
-   //         String topStr1 = checker.getDerivationExercise().getLineLabelsFromJustificationFlow(topJustificationFlow).get(0);
             if (topStr1.equals(inputs[0])) basicMatch = true;
         }
 
         boolean contradiction = false;
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         try {
-            Pair<Boolean, Boolean> contMatch1 = MatchUtilities.simpleFormMatch(contForm1, lineDoc, checker.getDerivationRuleset().getObjectLanguage().getNameString(), checker.getDerivationRuleset().getMetaLanguage().getNameString());
+            boolean contMatch1 = MatchUtilities.simpleFormMatch(context, forms.contForm1, lineDoc, checker.getDerivationRuleset().getObjectLanguage().getNameString());
             contradiction = true;
         } catch (TextMessageException e) { }
 
         try {
-            Pair<Boolean, Boolean> contMatch2 = MatchUtilities.simpleFormMatch(contForm2, lineDoc, checker.getDerivationRuleset().getObjectLanguage().getNameString(), checker.getDerivationRuleset().getMetaLanguage().getNameString());
+            boolean contMatch2 = MatchUtilities.simpleFormMatch(context, forms.contForm2, lineDoc, checker.getDerivationRuleset().getObjectLanguage().getNameString());
             contradiction = true;
         } catch (TextMessageException e) { }
 
@@ -152,32 +119,32 @@ public class ExistentialExploit extends DerivationRule {
 
 
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         boolean resultGood0 = false;
         boolean resultGood1 = false;
         boolean resultGood2 = false;
 
         try {
-            Pair<Boolean, Boolean> mainDsjMatch = MatchUtilities.simpleFormMatch(mainExisForm, exsLineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean mainDsjMatch = MatchUtilities.simpleFormMatch(context, forms.mainExisForm, exsLineDoc, objectLanguage.getNameString());
         }
         catch (TextMessageException e) {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + exsLine.getLineNumberLabel().getText() + ") is not of the right form for application of " + getName() + ".")));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + exsLine.getLabel() + ") is not of the right form for application of " + getName() + ".")));
         }
 
         try {
-            Pair<Boolean, Boolean> outputLineMatch = MatchUtilities.simpleFormMatch(outputForm, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean outputLineMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm, lineDoc, objectLanguage.getNameString());
             resultGood0 = true;
         }
         catch (TextMessageException e) { }
 
         try {
-            Pair<Boolean, Boolean> bottomLine1Match = MatchUtilities.simpleFormMatch(outputForm, bottomLineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean bottomLine1Match = MatchUtilities.simpleFormMatch(context, forms.outputForm, bottomLineDoc, objectLanguage.getNameString());
             resultGood2 = true;
         } catch (TextMessageException e) { }
 
 
         try {
-            Pair<Boolean, Boolean> topLineMatch = MatchUtilities.simpleFormMatch(topLineForm, topLineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean topLineMatch = MatchUtilities.simpleFormMatch(context, forms.topLineForm, topLineDoc, objectLanguage.getNameString());
             resultGood1 = true;
         }
         catch (TextMessageException e) {
@@ -185,36 +152,30 @@ public class ExistentialExploit extends DerivationRule {
         }
 
 
-        Expression variableExp = ((Formula) MatchUtilities.getTransformList().get(0).getKey()).getSubTransform().getExp2().getMatch();
+        Expression variableExp = ((Formula) context.getTransformList().get(0).getKey()).getSubTransform().getExp2().getMatch(context);
 
         //check variable free in undischarged assumption
         List<String> asspList = line.getAssumptionList();
         for (String asspLabel : asspList) {
-            ViewLine asspLine;
-            Pair<ViewLine, List<Text>> asspLinePair = checker.getLineFromLabel(asspLabel);
+            CheckLine asspLine;
+            Pair<CheckLine, List<StyledText>> asspLinePair = checker.getLineFromLabel(asspLabel);
             if (asspLinePair.getKey() != null) asspLine = asspLinePair.getKey();
             else return new Pair(false, asspLinePair.getValue());
 
-            TextFlow asspJustificationFlow = asspLine.getJustificationFlow();
 
-            String asspJustificationString = (checker instanceof DerivationCheck) ? ((DerivationExercise) checker.getExercise()).getStringFromJustificationFlow(asspJustificationFlow) :
-                    ((DrvtnExpExercise) checker.getExercise()).getStringFromJustificationFlow(asspJustificationFlow);
+            String asspJustificationString = asspLine.getJustification();
 
 
-       //     String asspJustificationString = checker.getDerivationExercise().getStringFromJustificationFlow(asspJustificationFlow);
             if (!checker.getDerivationRuleset().getPremiseRule().matches(asspJustificationString)) {
 
-                BoxedDRTA asspLineBDRTA = asspLine.getLineContentBoxedDRTA();
-                RichTextArea asspLineRTA = asspLineBDRTA.getRTA();
-                asspLineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-                Document asspLineDoc = asspLineRTA.getDocument();
+                Document asspLineDoc = asspLine.getLineDoc();
                 Expression asspLineExp = ParseUtilities.parseDoc(asspLineDoc, objectLanguage.getNameString()).get(0);
 
                 if (SyntacticalFns.expTermFreeInFormula(asspLineExp, variableExp, objectLanguage.getNameString())) {
-                    List<Text> list = new ArrayList<>();
-                    list.add(new Text("Variable "));
+                    List<StyledText> list = new ArrayList<>();
+                    list.add(new StyledText("Variable "));
                     list.addAll(variableExp.toTextList());
-                    list.add(new Text(" is free in an undischarged assumption."));
+                    list.add(new StyledText(" is free in an undischarged assumption."));
                     return new Pair(false, list);
                 }
             }
@@ -223,10 +184,10 @@ public class ExistentialExploit extends DerivationRule {
         //check variable free in existential
         Expression exsExp = ParseUtilities.parseDoc(exsLineDoc, objectLanguage.getNameString()).get(0);
         if (SyntacticalFns.expTermFreeInFormula(exsExp, variableExp, objectLanguage.getNameString())) {
-            List<Text> list = new ArrayList<>();
-            list.add(new Text("Variable "));
+            List<StyledText> list = new ArrayList<>();
+            list.add(new StyledText("Variable "));
             list.addAll(variableExp.toTextList());
-            list.add(new Text(" is free in "));
+            list.add(new StyledText(" is free in "));
             list.addAll(exsExp.toTextList());
             return new Pair(false, list);
         }
@@ -234,10 +195,10 @@ public class ExistentialExploit extends DerivationRule {
         //check variable free in goal
         Expression lineExp = ParseUtilities.parseDoc(lineDoc, objectLanguage.getNameString()).get(0);
         if (SyntacticalFns.expTermFreeInFormula(lineExp, variableExp, objectLanguage.getNameString())) {
-            List<Text> list = new ArrayList<>();
-            list.add(new Text("Variable "));
+            List<StyledText> list = new ArrayList<>();
+            list.add(new StyledText("Variable "));
             list.addAll(variableExp.toTextList());
-            list.add(new Text(" is free in "));
+            list.add(new StyledText(" is free in "));
             list.addAll(lineExp.toTextList());
             return new Pair(false, list);
         }
@@ -249,7 +210,7 @@ public class ExistentialExploit extends DerivationRule {
         }
 
         if (asspOK) {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLineNumberLabel().getText() + ") requires an existential and a subderivation of the correct form and ending with the goal.")));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLabel() + ") requires an existential and a subderivation of the correct form and ending with the goal.")));
         }
         else {
             if (contradiction) {
@@ -263,5 +224,23 @@ public class ExistentialExploit extends DerivationRule {
 
     }
 
+    private static class Forms {
+        final CompiledForm contForm1;
+        final CompiledForm contForm2;
+        final CompiledForm mainExisForm;
+        final CompiledForm topLineForm;
+        final CompiledForm outputForm;
 
+        Forms(Language metaLanguage) {
+            String openBracketString = metaLanguage.getOpenBracket1();
+            String closeBracketString = metaLanguage.getCloseBracket1();
+            String commaDividerString = metaLanguage.getCommaDivider();
+
+            contForm1 = CompiledForm.getInstance("\u22a5", metaLanguage.getNameString());
+            contForm2 = CompiledForm.getInstance(openBracketString + "\ud835\udcac \u2227 \u223c\ud835\udcac" + closeBracketString, metaLanguage.getNameString());
+            mainExisForm = CompiledForm.getInstance("\u2203\ud835\udccd\ud835\udcab", metaLanguage.getNameString());
+            topLineForm = CompiledForm.getInstance("\ud835\udcab\u2039\ud835\udccd" + commaDividerString + "\ud835\udccb\u203a", metaLanguage.getNameString());
+            outputForm = CompiledForm.getInstance("\ud835\udcaa", metaLanguage.getNameString());
+        }
+    }
 }
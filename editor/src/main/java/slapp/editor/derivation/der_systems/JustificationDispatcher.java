@@ -0,0 +1,108 @@
+package slapp.editor.derivation.der_systems;
+
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.Pair;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
+import slapp.editor.derivation.theorems.Theorem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * The justification grammar of a ruleset (with its theorems and dummy rules) compiled to a single pattern.  Each
+ * rule, theorem and dummy rule is one alternative of the pattern, in the order a check tries them: rules in the
+ * order of the ruleset, then theorems, then dummy rules.  Since alternatives are tried in order, the alternative
+ * that matches is the first rule (or theorem, or dummy rule) whose own pattern matches the justification.
+ *
+ * The dispatcher holds no match state, and may be shared between threads.
+ */
+public class JustificationDispatcher {
+
+    private final Pattern pattern;
+    private final List<Object> alternatives = new ArrayList<>();
+    private final int[] groups;
+
+    public JustificationDispatcher(DerivationRuleset ruleset, List<Theorem> theorems) {
+        List<Pattern> patterns = new ArrayList<>();
+        for (DerivationRule rule : ruleset.getRules()) {
+            alternatives.add(rule);
+            patterns.add(rule.getPattern());
+        }
+        for (Theorem theorem : theorems) {
+            alternatives.add(theorem);
+            patterns.add(theorem.getPattern());
+        }
+        for (Pair<Pattern, String> dummyRule : ruleset.getDummyRules()) {
+            alternatives.add(dummyRule.getValue());
+            patterns.add(dummyRule.getKey());
+        }
+
+        //group of each alternative is one after the groups of the alternatives before it
+        groups = new int[patterns.size()];
+        StringBuilder sb = new StringBuilder();
+        int group = 1;
+        for (int i = 0; i < patterns.size(); i++) {
+            if (i > 0) sb.append('|');
+            sb.append('(').append(patterns.get(i).pattern()).append(')');
+            groups[i] = group;
+            group += 1 + patterns.get(i).matcher("").groupCount();
+        }
+        pattern = Pattern.compile(sb.toString());
+    }
+
+    /*
+     * Rule, theorem or dummy rule for justification
+     * @param justification the justification string
+     * @return the dispatch, or null if the justification is not recognized
+     */
+    public Dispatch dispatch(String justification) {
+        Matcher matcher = pattern.matcher(justification);
+        if (!matcher.matches()) return null;
+        for (int i = 0; i < groups.length; i++) {
+            if (matcher.start(groups[i]) != -1) return new Dispatch(alternatives.get(i));
+        }
+        return null;
+    }
+
+    /*
+     * Result of a dispatch: exactly one of rule, theorem and dummy message is non-null
+     */
+    public static class Dispatch {
+        private final Object alternative;
+
+        private Dispatch(Object alternative) {
+            this.alternative = alternative;
+        }
+
+        public DerivationRule getRule() {
+            return alternative instanceof DerivationRule ? (DerivationRule) alternative : null;
+        }
+
+        public Theorem getTheorem() {
+            return alternative instanceof Theorem ? (Theorem) alternative : null;
+        }
+
+        public String getDummyMessage() {
+            return alternative instanceof String ? (String) alternative : null;
+        }
+
+        public boolean isDummy() {
+            return alternative instanceof String;
+        }
+
+        /*
+         * Apply rule or theorem to line
+         * @param checker the model check
+         * @param line the line to check
+         * @param inputs labels of the lines cited by the justification
+         * @return pair (true, null) if the rule or theorem applies, else (false, message)
+         */
+        public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
+            if (alternative instanceof DerivationRule) return ((DerivationRule) alternative).applies(checker, line, inputs);
+            return ((Theorem) alternative).applies(checker, line, inputs);
+        }
+    }
+}
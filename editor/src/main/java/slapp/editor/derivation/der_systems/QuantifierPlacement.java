@@ -1,13 +1,8 @@
 package slapp.editor.derivation.der_systems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
 import slapp.editor.parser.*;
 import slapp.editor.parser.grammatical_parts.MFormula;
 import slapp.editor.parser.grammatical_parts.Term;
@@ -19,209 +14,138 @@ import java.util.Collections;
 import java.util.List;
 
 public class QuantifierPlacement extends DerivationRule {
+
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     Language objectLanguage;
-    List<Text> freeVariableFailure = new ArrayList<>();
+    List<StyledText> freeVariableFailure = new ArrayList<>();
 
     public QuantifierPlacement(String name, String rgexTemplate) {
         super(name, rgexTemplate);
         this.premAssp = false;
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
         objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        String openBracketString = metaLanguage.getOpenBracket1();
-        String closeBracketString = metaLanguage.getCloseBracket1();
-
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
 
 
         List<Expression> lineExpressions = ParseUtilities.parseDoc(lineDoc, objectLanguage.getNameString());
         Expression lineExpression = lineExpressions.get(0);
 
-        ViewLine inputLine1;
-        Pair<ViewLine, List<Text>> line1Pair = checker.getLineFromLabel(inputs[0]);
+        CheckLine inputLine1;
+        Pair<CheckLine, List<StyledText>> line1Pair = checker.getLineFromLabel(inputs[0]);
         if (line1Pair.getKey() != null) inputLine1 = line1Pair.getKey();
         else return new Pair(false, line1Pair.getValue());
 
-        BoxedDRTA inputBDRTA1 = inputLine1.getLineContentBoxedDRTA();
-        RichTextArea inputRTA1 = inputBDRTA1.getRTA();
-        inputRTA1.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc1 = inputRTA1.getDocument();
+        Document inputDoc1 = inputLine1.getLineDoc();
         if (inputDoc1.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[0] + ").")));
 
         List<Expression> inputExpressions = ParseUtilities.parseDoc(inputDoc1, objectLanguage.getNameString());
         Expression inputExpression = inputExpressions.get(0);
 
-        Pair<Boolean, List<Text>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
         if (!accessibilityPair1.getKey()) {
             return accessibilityPair1;
         }
 
 
 
-        Document leftForm = new Document("\u2200\ud835\udccd" + openBracketString + "\ud835\udcab \u2227 \ud835\udcac" + closeBracketString );
-        Expression leftFormExp = ParseUtilities.parseDoc(leftForm, metaLanguage.getNameString()).get(0);
-        Document rightForm = new Document(openBracketString + "\ud835\udcab \u2227 \u2200\ud835\udccd\uud835\udcac" + closeBracketString );
-        Expression rightFormExp = ParseUtilities.parseDoc(rightForm, metaLanguage.getNameString()).get(0);
-
-        Document leftForm2 = new Document("\u2200\ud835\udccd" + openBracketString + "\ud835\udcac \u2227 \ud835\udcab" + closeBracketString );
-        Expression leftFormExp2 = ParseUtilities.parseDoc(leftForm2, metaLanguage.getNameString()).get(0);
-        Document rightForm2 = new Document(openBracketString + "\u2200\ud835\udccd\ud835\udcac \u2227 \ud835\udcab" + closeBracketString );
-        Expression rightFormExp2 = ParseUtilities.parseDoc(rightForm2, metaLanguage.getNameString()).get(0);
-
-        Document leftForm3 = new Document("\u2200\ud835\udccd" + openBracketString + "\ud835\udcab \u2228 \ud835\udcac" + closeBracketString );
-        Expression leftFormExp3 = ParseUtilities.parseDoc(leftForm3, metaLanguage.getNameString()).get(0);
-        Document rightForm3 = new Document(openBracketString + "\ud835\udcab \u2228 \u2200\ud835\udccd\uud835\udcac" + closeBracketString );
-        Expression rightFormExp3 = ParseUtilities.parseDoc(rightForm3, metaLanguage.getNameString()).get(0);
-
-        Document leftForm4 = new Document("\u2200\ud835\udccd" + openBracketString + "\ud835\udcac \u2228 \ud835\udcab" + closeBracketString );
-        Expression leftFormExp4 = ParseUtilities.parseDoc(leftForm4, metaLanguage.getNameString()).get(0);
-        Document rightForm4 = new Document(openBracketString + "\u2200\ud835\udccd\ud835\udcac \u2228 \ud835\udcab" + closeBracketString );
-        Expression rightFormExp4 = ParseUtilities.parseDoc(rightForm4, metaLanguage.getNameString()).get(0);
-
-        Document leftForm5 = new Document("\u2200\ud835\udccd" + openBracketString + "\ud835\udcab \u2192 \ud835\udcac" + closeBracketString );
-        Expression leftFormExp5 = ParseUtilities.parseDoc(leftForm5, metaLanguage.getNameString()).get(0);
-        Document rightForm5 = new Document(openBracketString + "\ud835\udcab \u2192 \u2200\ud835\udccd\uud835\udcac" + closeBracketString );
-        Expression rightFormExp5 = ParseUtilities.parseDoc(rightForm5, metaLanguage.getNameString()).get(0);
-
-        Document leftForm6 = new Document("\u2200\ud835\udccd" + openBracketString + "\ud835\udcac \u2192 \ud835\udcab" + closeBracketString );
-        Expression leftFormExp6 = ParseUtilities.parseDoc(leftForm6, metaLanguage.getNameString()).get(0);
-        Document rightForm6 = new Document(openBracketString + "\u2203\ud835\udccd\ud835\udcac \u2192 \ud835\udcab" + closeBracketString );
-        Expression rightFormExp6 = ParseUtilities.parseDoc(rightForm6, metaLanguage.getNameString()).get(0);
-        //-------
-
-        Document leftForm7 = new Document("\u2203\ud835\udccd" + openBracketString + "\ud835\udcab \u2227 \ud835\udcac" + closeBracketString );
-        Expression leftFormExp7 = ParseUtilities.parseDoc(leftForm7, metaLanguage.getNameString()).get(0);
-        Document rightForm7 = new Document(openBracketString + "\ud835\udcab \u2227 \u2203\ud835\udccd\uud835\udcac" + closeBracketString );
-        Expression rightFormExp7 = ParseUtilities.parseDoc(rightForm7, metaLanguage.getNameString()).get(0);
-
-        Document leftForm8 = new Document("\u2203\ud835\udccd" + openBracketString + "\ud835\udcac \u2227 \ud835\udcab" + closeBracketString );
-        Expression leftFormExp8 = ParseUtilities.parseDoc(leftForm8, metaLanguage.getNameString()).get(0);
-        Document rightForm8 = new Document(openBracketString + "\u2203\ud835\udccd\ud835\udcac \u2227 \ud835\udcab" + closeBracketString );
-        Expression rightFormExp8 = ParseUtilities.parseDoc(rightForm8, metaLanguage.getNameString()).get(0);
-
-        Document leftForm9 = new Document("\u2203\ud835\udccd" + openBracketString + "\ud835\udcab \u2228 \ud835\udcac" + closeBracketString );
-        Expression leftFormExp9 = ParseUtilities.parseDoc(leftForm9, metaLanguage.getNameString()).get(0);
-        Document rightForm9 = new Document(openBracketString + "\ud835\udcab \u2228 \u2203\ud835\udccd\uud835\udcac" + closeBracketString );
-        Expression rightFormExp9 = ParseUtilities.parseDoc(rightForm9, metaLanguage.getNameString()).get(0);
-
-        Document leftForm10 = new Document("\u2203\ud835\udccd" + openBracketString + "\ud835\udcac \u2228 \ud835\udcab" + closeBracketString );
-        Expression leftFormExp10 = ParseUtilities.parseDoc(leftForm10, metaLanguage.getNameString()).get(0);
-        Document rightForm10 = new Document(openBracketString + "\u2203\ud835\udccd\ud835\udcac \u2228 \ud835\udcab" + closeBracketString );
-        Expression rightFormExp10 = ParseUtilities.parseDoc(rightForm10, metaLanguage.getNameString()).get(0);
-
-        Document leftForm11 = new Document("\u2203\ud835\udccd" + openBracketString + "\ud835\udcab \u2192 \ud835\udcac" + closeBracketString );
-        Expression leftFormExp11 = ParseUtilities.parseDoc(leftForm11, metaLanguage.getNameString()).get(0);
-        Document rightForm11 = new Document(openBracketString + "\ud835\udcab \u2192 \u2203\ud835\udccd\uud835\udcac" + closeBracketString );
-        Expression rightFormExp11 = ParseUtilities.parseDoc(rightForm11, metaLanguage.getNameString()).get(0);
-
-
-        Document leftForm12 = new Document("\u2203\ud835\udccd" + openBracketString + "\ud835\udcac \u2192 \ud835\udcab" + closeBracketString );
-        Expression leftFormExp12 = ParseUtilities.parseDoc(leftForm12, metaLanguage.getNameString()).get(0);
-        Document rightForm12 = new Document(openBracketString + "\u2200\ud835\udccd\ud835\udcac \u2192 \ud835\udcab" + closeBracketString );
-        Expression rightFormExp12 = ParseUtilities.parseDoc(rightForm12, metaLanguage.getNameString()).get(0);
-
-
-
-
-
+        Forms forms = metaForms.get(metaLanguage);
 
         //form 1
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         try {
-            boolean resultGood1 = MatchUtilities.replacementCheck(leftFormExp, rightFormExp, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood1 = MatchUtilities.replacementCheck(context, forms.leftForm, forms.rightForm, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree) return new Pair(false, freeVariableFailure);
             if (resultGood1) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood1 = MatchUtilities.replacementCheck(rightFormExp, leftFormExp, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood1 = MatchUtilities.replacementCheck(context, forms.rightForm, forms.leftForm, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree) return new Pair(false, freeVariableFailure);
             if (resultGood1) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
         //form 2
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood2 = MatchUtilities.replacementCheck(leftFormExp2, rightFormExp2, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood2 = MatchUtilities.replacementCheck(context, forms.leftForm2, forms.rightForm2, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree)  return new Pair(false, freeVariableFailure);
             if (resultGood2) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood2 = MatchUtilities.replacementCheck(rightFormExp2, leftFormExp2, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood2 = MatchUtilities.replacementCheck(context, forms.rightForm2, forms.leftForm2, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree) return new Pair(false, freeVariableFailure);
             if (resultGood2) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
         //form 3
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood3 = MatchUtilities.replacementCheck(leftFormExp3, rightFormExp3, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood3 = MatchUtilities.replacementCheck(context, forms.leftForm3, forms.rightForm3, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree)  return new Pair(false, freeVariableFailure);
             if (resultGood3) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood3 = MatchUtilities.replacementCheck(rightFormExp3, leftFormExp3, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood3 = MatchUtilities.replacementCheck(context, forms.rightForm3, forms.leftForm3, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree) return new Pair(false, freeVariableFailure);
             if (resultGood3) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
         //form 4
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood4 = MatchUtilities.replacementCheck(leftFormExp4, rightFormExp4, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood4 = MatchUtilities.replacementCheck(context, forms.leftForm4, forms.rightForm4, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree)  return new Pair(false, freeVariableFailure);
             if (resultGood4) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood4 = MatchUtilities.replacementCheck(rightFormExp4, leftFormExp4, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood4 = MatchUtilities.replacementCheck(context, forms.rightForm4, forms.leftForm4, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree) return new Pair(false, freeVariableFailure);
             if (resultGood4) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
         //form 5
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood5 = MatchUtilities.replacementCheck(leftFormExp5, rightFormExp5, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood5 = MatchUtilities.replacementCheck(context, forms.leftForm5, forms.rightForm5, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree)  return new Pair(false, freeVariableFailure);
             if (resultGood5) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood5 = MatchUtilities.replacementCheck(rightFormExp5, leftFormExp5, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood5 = MatchUtilities.replacementCheck(context, forms.rightForm5, forms.leftForm5, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree) return new Pair(false, freeVariableFailure);
             if (resultGood5) return new Pair(true, null);
         }
@@ -229,19 +153,19 @@ public class QuantifierPlacement extends DerivationRule {
 
 
         //form 6
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood6 = MatchUtilities.replacementCheck(leftFormExp6, rightFormExp6, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood6 = MatchUtilities.replacementCheck(context, forms.leftForm6, forms.rightForm6, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree)  return new Pair(false, freeVariableFailure);
             if (resultGood6) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood6 = MatchUtilities.replacementCheck(rightFormExp6, leftFormExp6, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood6 = MatchUtilities.replacementCheck(context, forms.rightForm6, forms.leftForm6, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree) return new Pair(false, freeVariableFailure);
             if (resultGood6) return new Pair(true, null);
         }
@@ -250,95 +174,95 @@ public class QuantifierPlacement extends DerivationRule {
 
 
         //form 7
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood7 = MatchUtilities.replacementCheck(leftFormExp7, rightFormExp7, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood7 = MatchUtilities.replacementCheck(context, forms.leftForm7, forms.rightForm7, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree)  return new Pair(false, freeVariableFailure);
             if (resultGood7) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood7 = MatchUtilities.replacementCheck(rightFormExp7, leftFormExp7, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood7 = MatchUtilities.replacementCheck(context, forms.rightForm7, forms.leftForm7, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree) return new Pair(false, freeVariableFailure);
             if (resultGood7) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
         //form 8
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood8 = MatchUtilities.replacementCheck(leftFormExp8, rightFormExp8, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood8 = MatchUtilities.replacementCheck(context, forms.leftForm8, forms.rightForm8, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree)  return new Pair(false, freeVariableFailure);
             if (resultGood8) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood8 = MatchUtilities.replacementCheck(rightFormExp8, leftFormExp8, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood8 = MatchUtilities.replacementCheck(context, forms.rightForm8, forms.leftForm8, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree) return new Pair(false, freeVariableFailure);
             if (resultGood8) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
         //form 9
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood9 = MatchUtilities.replacementCheck(leftFormExp9, rightFormExp9, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood9 = MatchUtilities.replacementCheck(context, forms.leftForm9, forms.rightForm9, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree)  return new Pair(false, freeVariableFailure);
             if (resultGood9) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood9 = MatchUtilities.replacementCheck(rightFormExp9, leftFormExp9, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood9 = MatchUtilities.replacementCheck(context, forms.rightForm9, forms.leftForm9, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree) return new Pair(false, freeVariableFailure);
             if (resultGood9) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
         //form 10
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood10 = MatchUtilities.replacementCheck(leftFormExp10, rightFormExp10, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood10 = MatchUtilities.replacementCheck(context, forms.leftForm10, forms.rightForm10, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree)  return new Pair(false, freeVariableFailure);
             if (resultGood10) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood10 = MatchUtilities.replacementCheck(rightFormExp10, leftFormExp10, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood10 = MatchUtilities.replacementCheck(context, forms.rightForm10, forms.leftForm10, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree) return new Pair(false, freeVariableFailure);
             if (resultGood10) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
         //form 11
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood11 = MatchUtilities.replacementCheck(leftFormExp11, rightFormExp11, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood11 = MatchUtilities.replacementCheck(context, forms.leftForm11, forms.rightForm11, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree)  return new Pair(false, freeVariableFailure);
             if (resultGood11) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood11 = MatchUtilities.replacementCheck(rightFormExp11, leftFormExp11, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood11 = MatchUtilities.replacementCheck(context, forms.rightForm11, forms.leftForm11, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree) return new Pair(false, freeVariableFailure);
             if (resultGood11) return new Pair(true, null);
         }
@@ -346,19 +270,19 @@ public class QuantifierPlacement extends DerivationRule {
 
 
         //form 12
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood12 = MatchUtilities.replacementCheck(leftFormExp12, rightFormExp12, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood12 = MatchUtilities.replacementCheck(context, forms.leftForm12, forms.rightForm12, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree)  return new Pair(false, freeVariableFailure);
             if (resultGood12) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood12 = MatchUtilities.replacementCheck(rightFormExp12, leftFormExp12, inputExpression, lineExpression, false);
-            boolean xFree = xFreeInP();
+            boolean resultGood12 = MatchUtilities.replacementCheck(context, forms.rightForm12, forms.leftForm12, inputExpression, lineExpression, false);
+            boolean xFree = xFreeInP(context);
             if (xFree) return new Pair(false, freeVariableFailure);
             if (resultGood12) return new Pair(true, null);
         }
@@ -367,12 +291,12 @@ public class QuantifierPlacement extends DerivationRule {
 
 
 
-        return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLineNumberLabel().getText() + ") and (" + line.getLineNumberLabel().getText() + ") are not of the right form for application of " + getName() + "."))));
+        return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLabel() + ") and (" + line.getLabel() + ") are not of the right form for application of " + getName() + "."))));
 
 
     }
 
-    private boolean xFreeInP() {
+    private boolean xFreeInP(MatchContext context) {
         Term variableMatch = null;
         Expression formulaMatch = null;
 
@@ -383,7 +307,7 @@ public class QuantifierPlacement extends DerivationRule {
                 Term term = new Term();
                 term.setLevel(0);
                 ArrayList children = new ArrayList();
-                children.add(mVariable.getMatch());
+                children.add(mVariable.getMatch(context));
                 term.setChildren(children);
                 term.setCombines(true);
                 term.setTermType(TermType.VARIABLE);
@@ -395,7 +319,7 @@ public class QuantifierPlacement extends DerivationRule {
         List<MFormula> mFormulas = MFormula.getmFormulas();
         for (MFormula mFormula : mFormulas) {
             if (mFormula.getFormulaSym().getBaseStr().equals("\ud835\udcab")) {  //script P
-                formulaMatch = mFormula.getMatch();
+                formulaMatch = mFormula.getMatch(context);
             }
         }
 
@@ -406,7 +330,7 @@ public class QuantifierPlacement extends DerivationRule {
             boolean freeInFormula = SyntacticalFns.expTermFreeInFormula(formulaMatch, variableMatch, objectLanguage.getNameString());
 
             if (freeInFormula) {
-                List<Text> texts = new ArrayList<>();
+                List<StyledText> texts = new ArrayList<>();
                 texts.add(ParseUtilities.newRegularText("Variable "));
                 texts.addAll(variableMatch.toTextList());
                 texts.add(ParseUtilities.newRegularText(" is free in formula "));
@@ -424,5 +348,71 @@ public class QuantifierPlacement extends DerivationRule {
 
     }
 
-
+    private static class Forms {
+        final CompiledForm leftForm;
+        final CompiledForm rightForm;
+        final CompiledForm leftForm2;
+        final CompiledForm rightForm2;
+        final CompiledForm leftForm3;
+        final CompiledForm rightForm3;
+        final CompiledForm leftForm4;
+        final CompiledForm rightForm4;
+        final CompiledForm leftForm5;
+        final CompiledForm rightForm5;
+        final CompiledForm leftForm6;
+        final CompiledForm rightForm6;
+        final CompiledForm leftForm7;
+        final CompiledForm rightForm7;
+        final CompiledForm leftForm8;
+        final CompiledForm rightForm8;
+        final CompiledForm leftForm9;
+        final CompiledForm rightForm9;
+        final CompiledForm leftForm10;
+        final CompiledForm rightForm10;
+        final CompiledForm leftForm11;
+        final CompiledForm rightForm11;
+        final CompiledForm leftForm12;
+        final CompiledForm rightForm12;
+
+        Forms(Language metaLanguage) {
+            String openBracketString = metaLanguage.getOpenBracket1();
+            String closeBracketString = metaLanguage.getCloseBracket1();
+
+            leftForm = CompiledForm.getInstance("\u2200\ud835\udccd" + openBracketString + "\ud835\udcab \u2227 \ud835\udcac" + closeBracketString, metaLanguage.getNameString());
+            rightForm = CompiledForm.getInstance(openBracketString + "\ud835\udcab \u2227 \u2200\ud835\udccd\uud835\udcac" + closeBracketString, metaLanguage.getNameString());
+
+            leftForm2 = CompiledForm.getInstance("\u2200\ud835\udccd" + openBracketString + "\ud835\udcac \u2227 \ud835\udcab" + closeBracketString, metaLanguage.getNameString());
+            rightForm2 = CompiledForm.getInstance(openBracketString + "\u2200\ud835\udccd\ud835\udcac \u2227 \ud835\udcab" + closeBracketString, metaLanguage.getNameString());
+
+            leftForm3 = CompiledForm.getInstance("\u2200\ud835\udccd" + openBracketString + "\ud835\udcab \u2228 \ud835\udcac" + closeBracketString, metaLanguage.getNameString());
+            rightForm3 = CompiledForm.getInstance(openBracketString + "\ud835\udcab \u2228 \u2200\ud835\udccd\uud835\udcac" + closeBracketString, metaLanguage.getNameString());
+
+            leftForm4 = CompiledForm.getInstance("\u2200\ud835\udccd" + openBracketString + "\ud835\udcac \u2228 \ud835\udcab" + closeBracketString, metaLanguage.getNameString());
+            rightForm4 = CompiledForm.getInstance(openBracketString + "\u2200\ud835\udccd\ud835\udcac \u2228 \ud835\udcab" + closeBracketString, metaLanguage.getNameString());
+
+            leftForm5 = CompiledForm.getInstance("\u2200\ud835\udccd" + openBracketString + "\ud835\udcab \u2192 \ud835\udcac" + closeBracketString, metaLanguage.getNameString());
+            rightForm5 = CompiledForm.getInstance(openBracketString + "\ud835\udcab \u2192 \u2200\ud835\udccd\uud835\udcac" + closeBracketString, metaLanguage.getNameString());
+
+            leftForm6 = CompiledForm.getInstance("\u2200\ud835\udccd" + openBracketString + "\ud835\udcac \u2192 \ud835\udcab" + closeBracketString, metaLanguage.getNameString());
+            rightForm6 = CompiledForm.getInstance(openBracketString + "\u2203\ud835\udccd\ud835\udcac \u2192 \ud835\udcab" + closeBracketString, metaLanguage.getNameString());
+
+            leftForm7 = CompiledForm.getInstance("\u2203\ud835\udccd" + openBracketString + "\ud835\udcab \u2227 \ud835\udcac" + closeBracketString, metaLanguage.getNameString());
+            rightForm7 = CompiledForm.getInstance(openBracketString + "\ud835\udcab \u2227 \u2203\ud835\udccd\uud835\udcac" + closeBracketString, metaLanguage.getNameString());
+
+            leftForm8 = CompiledForm.getInstance("\u2203\ud835\udccd" + openBracketString + "\ud835\udcac \u2227 \ud835\udcab" + closeBracketString, metaLanguage.getNameString());
+            rightForm8 = CompiledForm.getInstance(openBracketString + "\u2203\ud835\udccd\ud835\udcac \u2227 \ud835\udcab" + closeBracketString, metaLanguage.getNameString());
+
+            leftForm9 = CompiledForm.getInstance("\u2203\ud835\udccd" + openBracketString + "\ud835\udcab \u2228 \ud835\udcac" + closeBracketString, metaLanguage.getNameString());
+            rightForm9 = CompiledForm.getInstance(openBracketString + "\ud835\udcab \u2228 \u2203\ud835\udccd\uud835\udcac" + closeBracketString, metaLanguage.getNameString());
+
+            leftForm10 = CompiledForm.getInstance("\u2203\ud835\udccd" + openBracketString + "\ud835\udcac \u2228 \ud835\udcab" + closeBracketString, metaLanguage.getNameString());
+            rightForm10 = CompiledForm.getInstance(openBracketString + "\u2203\ud835\udccd\ud835\udcac \u2228 \ud835\udcab" + closeBracketString, metaLanguage.getNameString());
+
+            leftForm11 = CompiledForm.getInstance("\u2203\ud835\udccd" + openBracketString + "\ud835\udcab \u2192 \ud835\udcac" + closeBracketString, metaLanguage.getNameString());
+            rightForm11 = CompiledForm.getInstance(openBracketString + "\ud835\udcab \u2192 \u2203\ud835\udccd\uud835\udcac" + closeBracketString, metaLanguage.getNameString());
+
+            leftForm12 = CompiledForm.getInstance("\u2203\ud835\udccd" + openBracketString + "\ud835\udcac \u2192 \ud835\udcab" + closeBracketString, metaLanguage.getNameString());
+            rightForm12 = CompiledForm.getInstance(openBracketString + "\u2200\ud835\udccd\ud835\udcac \u2192 \ud835\udcab" + closeBracketString, metaLanguage.getNameString());
+        }
+    }
 }
@@ -1,17 +1,8 @@
 package slapp.editor.derivation.der_systems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.scene.text.TextFlow;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.DerivationCheck;
-import slapp.editor.derivation.DerivationExercise;
-import slapp.editor.derivation.ViewLine;
-import slapp.editor.derivation_explain.DrvtnExpExercise;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
 import slapp.editor.parser.*;
 import slapp.editor.parser.grammatical_parts.Formula;
 
@@ -21,82 +12,66 @@ import java.util.List;
 
 public class RestrictedExisExploit extends DerivationRule {
 
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     public RestrictedExisExploit(String name, String rgexTemplate) {
         super(name, rgexTemplate);
         this.premAssp = false;
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
 
-        ViewLine exsLine;
-        Pair<ViewLine, List<Text>> exsLinePair = checker.getLineFromLabel(inputs[0]);
+        CheckLine exsLine;
+        Pair<CheckLine, List<StyledText>> exsLinePair = checker.getLineFromLabel(inputs[0]);
         if (exsLinePair.getKey() != null) exsLine = exsLinePair.getKey();
         else return new Pair(false, exsLinePair.getValue());
 
-        BoxedDRTA exsLineBDRTA = exsLine.getLineContentBoxedDRTA();
-        RichTextArea exsLineRTA = exsLineBDRTA.getRTA();
-        exsLineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document exsLineDoc = exsLineRTA.getDocument();
+        Document exsLineDoc = exsLine.getLineDoc();
         if (exsLineDoc.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[0] + ").")));
 
-        ViewLine topLineA;
-        Pair<ViewLine, List<Text>> topLinePairA = checker.getLineFromLabel(inputs[1]);
+        CheckLine topLineA;
+        Pair<CheckLine, List<StyledText>> topLinePairA = checker.getLineFromLabel(inputs[1]);
         if (topLinePairA.getKey() != null) topLineA = topLinePairA.getKey();
         else return new Pair(false, topLinePairA.getValue());
 
-        BoxedDRTA topLineBDRTAa = topLineA.getLineContentBoxedDRTA();
-        RichTextArea topLineRTAa = topLineBDRTAa.getRTA();
-        topLineRTAa.getActionFactory().saveNow().execute(new ActionEvent());
-        Document topLineDocA = topLineRTAa.getDocument();
+        Document topLineDocA = topLineA.getLineDoc();
         if (topLineDocA.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[1] + ").")));
 
-        ViewLine topLineB;
-        List<ViewLine> viewLines = checker.getViewLines();
+        CheckLine topLineB;
 
-        int topLineNum = viewLines.indexOf(topLineA);
+        int topLineNum = topLineA.getIndex();
 
-        topLineB = (checker instanceof DerivationCheck) ? ((DerivationExercise) checker.getExercise()).getContentLineBelow(topLineNum) :
-                ((DrvtnExpExercise) checker.getExercise()).getContentLineBelow(topLineNum);
+        topLineB = checker.getContentLineBelow(topLineNum);
 
 
-//        topLineB = checker.getDerivationExercise().getContentLineBelow(topLineNum);
-        String topLineBlabel = topLineB.getLineNumberLabel().getText();
+        String topLineBlabel = topLineB.getLabel();
 
-        BoxedDRTA topLineBDRTAb = topLineB.getLineContentBoxedDRTA();
-        RichTextArea topLineRTAb = topLineBDRTAb.getRTA();
-        topLineRTAb.getActionFactory().saveNow().execute(new ActionEvent());
-        Document topLineDocB = topLineRTAb.getDocument();
+        Document topLineDocB = topLineB.getLineDoc();
 
         if (topLineDocB.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty assumption line (" + topLineBlabel + ").")));
 
-        ViewLine bottomLine;
-        Pair<ViewLine, List<Text>> bottomLinePair = checker.getLineFromLabel(inputs[2]);
+        CheckLine bottomLine;
+        Pair<CheckLine, List<StyledText>> bottomLinePair = checker.getLineFromLabel(inputs[2]);
         if (bottomLinePair.getKey() != null) bottomLine = bottomLinePair.getKey();
         else return new Pair(false, bottomLinePair.getValue());
 
-        BoxedDRTA bottomLineBDRTA = bottomLine.getLineContentBoxedDRTA();
-        RichTextArea bottomLineRTA = bottomLineBDRTA.getRTA();
-        bottomLineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document bottomLineDoc = bottomLineRTA.getDocument();
+        Document bottomLineDoc = bottomLine.getLineDoc();
         if (bottomLineDoc.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[2] + ").")));
 
 
-        Pair<Boolean, List<Text>> exsPair = checker.lineIsAccessibleTo(exsLine, line);
+        Pair<Boolean, List<StyledText>> exsPair = checker.lineIsAccessibleTo(exsLine, line);
         if (!exsPair.getKey()) {
             return exsPair;
         }
 
-        Pair<Boolean, List<Text>> subderivationPair = checker.isSubderivation(inputs[1], inputs[2]);
+        Pair<Boolean, List<StyledText>> subderivationPair = checker.isSubderivation(inputs[1], inputs[2]);
         if (!subderivationPair.getKey()) {
             return subderivationPair;
         }
 
-        Pair<Boolean, List<Text>> accessibilityPair = checker.isAccessibleSubderivationFor(line, inputs[1], inputs[2]);
+        Pair<Boolean, List<StyledText>> accessibilityPair = checker.isAccessibleSubderivationFor(line, inputs[1], inputs[2]);
         if (!accessibilityPair.getKey()) {
             return accessibilityPair;
         }
@@ -104,39 +79,14 @@ public class RestrictedExisExploit extends DerivationRule {
         Language objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        String openBracketString = metaLanguage.getOpenBracket1();
-        String closeBracketString = metaLanguage.getCloseBracket1();
-        String dividerSymbol = metaLanguage.getDividerSymbol();
-        String commaDividerString = metaLanguage.getCommaDivider();
-
-        TextFlow topJustificationFlow = topLineA.getJustificationFlow();
-
-        String justificationString = (checker instanceof DerivationCheck) ? ((DerivationExercise) checker.getExercise()).getStringFromJustificationFlow(topJustificationFlow) :
-                ((DrvtnExpExercise) checker.getExercise()).getStringFromJustificationFlow(topJustificationFlow);
-
-
-  //      String justificationString = checker.getDerivationExercise().getStringFromJustificationFlow(topJustificationFlow);
 
+        String justificationString = topLineA.getJustification();
 
 
-        Document contForm1 = new Document("\u22a5" );
-        Document contForm2 = new Document(openBracketString + "\ud835\udcac \u2227 \u223c\ud835\udcac" + closeBracketString);
 
-        Document mainExisForm = new Document( openBracketString + "\u2203\ud835\udccd" + dividerSymbol + "\u212c" + closeBracketString + "\ud835\udcab" );
-        Document firstTopLineForm = new Document("\ud835\udcab\u2039\ud835\udccd" + commaDividerString + "\ud835\udccb\u203a"  );
-        Document secondTopLineForm = new Document("\u212c\u2039\ud835\udccd" + commaDividerString + "\ud835\udccb\u203a"  );
-        Document outputForm = new Document("\ud835\udcaa");
 
-        Document mainExisForm1 = new Document("(∃\uD835\uDCCD \uE8A4 \uD835\uDCC9)\uD835\uDCAB");
-        Document firstTopLineForm1 = new Document("\ud835\udcab\u2039\ud835\udccd" + commaDividerString + "\ud835\udccb\u203a"  );
-        Document secondTopLineForm1 = new Document("(\uD835\uDCCB \uE8A4 \uD835\uDCC9)");
-        Document outputForm1 = new Document("\ud835\udcaa");
-
-        Document mainExisForm2 = new Document("(∃\uD835\uDCCD \uE8A6 \uD835\uDCC9)\uD835\uDCAB");
-        Document firstTopLineForm2 = new Document("\ud835\udcab\u2039\ud835\udccd" + commaDividerString + "\ud835\udccb\u203a"  );
-        Document secondTopLineForm2 = new Document("(\uD835\uDCCB \uE8A6 \uD835\uDCC9)");
-        Document outputForm2 = new Document("\ud835\udcaa");
 
+        Forms forms = metaForms.get(checker.getDerivationRuleset().getMetaLanguage());
 
 
         //check exit strategies
@@ -145,24 +95,22 @@ public class RestrictedExisExploit extends DerivationRule {
         if (checker.getDerivationRuleset().getAsspRestrictedExisExploitCRule().matches(justificationString) ||
                 checker.getDerivationRuleset().getAsspRestrictedExisExploitGRule().matches(justificationString)) {
 
-            String topStr1 = (checker instanceof DerivationCheck) ? ((DerivationExercise) checker.getExercise()).getLineLabelsFromJustificationFlow(topJustificationFlow).get(0) :
-                    ((DrvtnExpExercise) checker.getExercise()).getLineLabelsFromJustificationFlow(topJustificationFlow).get(0);
+            String topStr1 = topLineA.getJustificationLabels().get(0);
 
 
 
-     //       String topStr1 = checker.getDerivationExercise().getLineLabelsFromJustificationFlow(topJustificationFlow).get(0);
             if (topStr1.equals(inputs[0])) basicMatch = true;
         }
 
         boolean contradiction = false;
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         try {
-            Pair<Boolean, Boolean> contMatch1 = MatchUtilities.simpleFormMatch(contForm1, lineDoc, checker.getDerivationRuleset().getObjectLanguage().getNameString(), checker.getDerivationRuleset().getMetaLanguage().getNameString());
+            boolean contMatch1 = MatchUtilities.simpleFormMatch(context, forms.contForm1, lineDoc, checker.getDerivationRuleset().getObjectLanguage().getNameString());
             contradiction = true;
         } catch (TextMessageException e) { }
 
         try {
-            Pair<Boolean, Boolean> contMatch2 = MatchUtilities.simpleFormMatch(contForm2, lineDoc, checker.getDerivationRuleset().getObjectLanguage().getNameString(), checker.getDerivationRuleset().getMetaLanguage().getNameString());
+            boolean contMatch2 = MatchUtilities.simpleFormMatch(context, forms.contForm2, lineDoc, checker.getDerivationRuleset().getObjectLanguage().getNameString());
             contradiction = true;
         } catch (TextMessageException e) { }
 
@@ -183,7 +131,7 @@ public class RestrictedExisExploit extends DerivationRule {
 
 
         //try
-        MatchUtilities.clearFormMatch();
+        context.clear();
         boolean resultGoodA = false;
         boolean resultGoodB = false;
         boolean resultGoodC = false;
@@ -202,35 +150,35 @@ public class RestrictedExisExploit extends DerivationRule {
 
 
         // restricted
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            Pair<Boolean, Boolean> mainExisMatch = MatchUtilities.simpleFormMatch(mainExisForm, exsLineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (mainExisMatch.getKey() && mainExisMatch.getValue()) resultGoodA = true;
+            boolean mainExisMatch = MatchUtilities.simpleFormMatch(context, forms.mainExisForm, exsLineDoc, objectLanguage.getNameString());
+            if (mainExisMatch && context.isSubFreeFor()) resultGoodA = true;
         }
         catch (TextMessageException e) {
-  //          return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + exsLine.getLineNumberLabel().getText() + ") is not of the right form for application of " + getName() + ".")));
+  //          return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + exsLine.getLabel() + ") is not of the right form for application of " + getName() + ".")));
         }
         if (resultGoodA) {
             try {
-                Pair<Boolean, Boolean> outputLineMatch = MatchUtilities.simpleFormMatch(outputForm, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                if (outputLineMatch.getKey() && outputLineMatch.getValue()) resultGoodB = true;
+                boolean outputLineMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm, lineDoc, objectLanguage.getNameString());
+                if (outputLineMatch && context.isSubFreeFor()) resultGoodB = true;
             } catch (TextMessageException e) {  }
 
             try {
-                Pair<Boolean, Boolean> bottomLine1Match = MatchUtilities.simpleFormMatch(outputForm, bottomLineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                if (bottomLine1Match.getKey() && bottomLine1Match.getValue()) resultGoodC = true;
+                boolean bottomLine1Match = MatchUtilities.simpleFormMatch(context, forms.outputForm, bottomLineDoc, objectLanguage.getNameString());
+                if (bottomLine1Match && context.isSubFreeFor()) resultGoodC = true;
             } catch (TextMessageException e) { }
 
             try {
-                Pair<Boolean, Boolean> topLineMatchB = MatchUtilities.simpleFormMatch(secondTopLineForm, topLineDocB, objectLanguage.getNameString(), metaLanguage.getNameString());
-                if (topLineMatchB.getKey() && topLineMatchB.getValue()) resultGoodE = true;
+                boolean topLineMatchB = MatchUtilities.simpleFormMatch(context, forms.secondTopLineForm, topLineDocB, objectLanguage.getNameString());
+                if (topLineMatchB && context.isSubFreeFor()) resultGoodE = true;
             } catch (TextMessageException e) {
                 return new Pair(false, e.getMessageList());
             }
 
             try {
-                Pair<Boolean, Boolean> topLineMatchA = MatchUtilities.simpleFormMatch(firstTopLineForm, topLineDocA, objectLanguage.getNameString(), metaLanguage.getNameString());
-                if (topLineMatchA.getKey() && topLineMatchA.getValue()) resultGoodD = true;
+                boolean topLineMatchA = MatchUtilities.simpleFormMatch(context, forms.firstTopLineForm, topLineDocA, objectLanguage.getNameString());
+                if (topLineMatchA && context.isSubFreeFor()) resultGoodD = true;
             } catch (TextMessageException e) {
                 return new Pair(false, e.getMessageList());
             }
@@ -238,69 +186,69 @@ public class RestrictedExisExploit extends DerivationRule {
 
         // bounded 1
         if (!resultGoodA || !resultGoodB || !resultGoodC || !resultGoodD || !resultGoodE) {
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                Pair<Boolean, Boolean> mainExisMatch = MatchUtilities.simpleFormMatch(mainExisForm1, exsLineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                if (mainExisMatch.getKey() && mainExisMatch.getValue()) resultGoodA1 = true;
+                boolean mainExisMatch = MatchUtilities.simpleFormMatch(context, forms.mainExisForm1, exsLineDoc, objectLanguage.getNameString());
+                if (mainExisMatch && context.isSubFreeFor()) resultGoodA1 = true;
             }
             catch (TextMessageException e) {  }
 
             if (resultGoodA1) {
                 try {
-                    Pair<Boolean, Boolean> outputLineMatch = MatchUtilities.simpleFormMatch(outputForm1, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                    if (outputLineMatch.getKey() && outputLineMatch.getValue()) resultGoodB1 = true;
+                    boolean outputLineMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm1, lineDoc, objectLanguage.getNameString());
+                    if (outputLineMatch && context.isSubFreeFor()) resultGoodB1 = true;
                 } catch (TextMessageException e) {  }
 
                 try {
-                    Pair<Boolean, Boolean> bottomLine1Match = MatchUtilities.simpleFormMatch(outputForm1, bottomLineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                    if (bottomLine1Match.getKey() && bottomLine1Match.getValue()) resultGoodC1 = true;
+                    boolean bottomLine1Match = MatchUtilities.simpleFormMatch(context, forms.outputForm1, bottomLineDoc, objectLanguage.getNameString());
+                    if (bottomLine1Match && context.isSubFreeFor()) resultGoodC1 = true;
                 } catch (TextMessageException e) { }
 
                 try {
-                    Pair<Boolean, Boolean> topLineMatchB = MatchUtilities.simpleFormMatch(secondTopLineForm1, topLineDocB, objectLanguage.getNameString(), metaLanguage.getNameString());
-                    if (topLineMatchB.getKey() && topLineMatchB.getValue()) resultGoodE1 = true;
+                    boolean topLineMatchB = MatchUtilities.simpleFormMatch(context, forms.secondTopLineForm1, topLineDocB, objectLanguage.getNameString());
+                    if (topLineMatchB && context.isSubFreeFor()) resultGoodE1 = true;
                 } catch (TextMessageException e) {
                     return new Pair(false, e.getMessageList());
                 }
 
                 try {
-                    Pair<Boolean, Boolean> topLineMatchA = MatchUtilities.simpleFormMatch(firstTopLineForm1, topLineDocA, objectLanguage.getNameString(), metaLanguage.getNameString());
-                    if (topLineMatchA.getKey() && topLineMatchA.getValue()) resultGoodD1 = true;
+                    boolean topLineMatchA = MatchUtilities.simpleFormMatch(context, forms.firstTopLineForm1, topLineDocA, objectLanguage.getNameString());
+                    if (topLineMatchA && context.isSubFreeFor()) resultGoodD1 = true;
                 } catch (TextMessageException e) {
                     return new Pair(false, e.getMessageList());
                 }
             }
             // bounded 2
             if (!resultGoodA1 || !resultGoodB1 || !resultGoodC1 || !resultGoodD1 || !resultGoodE1) {
-                MatchUtilities.clearFormMatch();
+                context.clear();
                 try {
-                    Pair<Boolean, Boolean> mainExisMatch = MatchUtilities.simpleFormMatch(mainExisForm2, exsLineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                    if (mainExisMatch.getKey() && mainExisMatch.getValue()) resultGoodA2 = true;
+                    boolean mainExisMatch = MatchUtilities.simpleFormMatch(context, forms.mainExisForm2, exsLineDoc, objectLanguage.getNameString());
+                    if (mainExisMatch && context.isSubFreeFor()) resultGoodA2 = true;
                 } catch (TextMessageException e) {
                 }
 
                 if (resultGoodA2) {
                     try {
-                        Pair<Boolean, Boolean> outputLineMatch = MatchUtilities.simpleFormMatch(outputForm2, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                        if (outputLineMatch.getKey() && outputLineMatch.getValue()) resultGoodB2 = true;
+                        boolean outputLineMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm2, lineDoc, objectLanguage.getNameString());
+                        if (outputLineMatch && context.isSubFreeFor()) resultGoodB2 = true;
                     } catch (TextMessageException e) {
                     }
 
                     try {
-                        Pair<Boolean, Boolean> bottomLine1Match = MatchUtilities.simpleFormMatch(outputForm2, bottomLineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                        if (bottomLine1Match.getKey() && bottomLine1Match.getValue()) resultGoodC2 = true;
+                        boolean bottomLine1Match = MatchUtilities.simpleFormMatch(context, forms.outputForm2, bottomLineDoc, objectLanguage.getNameString());
+                        if (bottomLine1Match && context.isSubFreeFor()) resultGoodC2 = true;
                     } catch (TextMessageException e) {  }
 
                     try {
-                        Pair<Boolean, Boolean> topLineMatchB = MatchUtilities.simpleFormMatch(secondTopLineForm2, topLineDocB, objectLanguage.getNameString(), metaLanguage.getNameString());
-                        if (topLineMatchB.getKey() && topLineMatchB.getValue()) resultGoodE2 = true;
+                        boolean topLineMatchB = MatchUtilities.simpleFormMatch(context, forms.secondTopLineForm2, topLineDocB, objectLanguage.getNameString());
+                        if (topLineMatchB && context.isSubFreeFor()) resultGoodE2 = true;
                     } catch (TextMessageException e) {
                         return new Pair(false, e.getMessageList());
                     }
 
                     try {
-                        Pair<Boolean, Boolean> topLineMatchA = MatchUtilities.simpleFormMatch(firstTopLineForm2, topLineDocA, objectLanguage.getNameString(), metaLanguage.getNameString());
-                        if (topLineMatchA.getKey() && topLineMatchA.getValue()) resultGoodD2 = true;
+                        boolean topLineMatchA = MatchUtilities.simpleFormMatch(context, forms.firstTopLineForm2, topLineDocA, objectLanguage.getNameString());
+                        if (topLineMatchA && context.isSubFreeFor()) resultGoodD2 = true;
                     } catch (TextMessageException e) {
                         return new Pair(false, e.getMessageList());
                     }
@@ -309,40 +257,34 @@ public class RestrictedExisExploit extends DerivationRule {
         }
 
         if (!resultGoodA && !resultGoodA1 && !resultGoodA2) {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + exsLine.getLineNumberLabel().getText() + ") is not of the right form for application of " + getName() + ".")));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + exsLine.getLabel() + ") is not of the right form for application of " + getName() + ".")));
         }
 
 
-        Expression variableExp = ((Formula) MatchUtilities.getTransformList().get(0).getKey()).getSubTransform().getExp2().getMatch();
+        Expression variableExp = ((Formula) context.getTransformList().get(0).getKey()).getSubTransform().getExp2().getMatch(context);
 
         //check variable free in undischarged assumption
         List<String> asspList = line.getAssumptionList();
         for (String asspLabel : asspList) {
-            ViewLine asspLine;
-            Pair<ViewLine, List<Text>> asspLinePair = checker.getLineFromLabel(asspLabel);
+            CheckLine asspLine;
+            Pair<CheckLine, List<StyledText>> asspLinePair = checker.getLineFromLabel(asspLabel);
             if (asspLinePair.getKey() != null) asspLine = asspLinePair.getKey();
             else return new Pair(false, asspLinePair.getValue());
 
-            TextFlow asspJustificationFlow = asspLine.getJustificationFlow();
 
-            String asspJustificationString = (checker instanceof DerivationCheck) ? ((DerivationExercise) checker.getExercise()).getStringFromJustificationFlow(asspJustificationFlow) :
-                    ((DrvtnExpExercise) checker.getExercise()).getStringFromJustificationFlow(asspJustificationFlow);
+            String asspJustificationString = asspLine.getJustification();
 
 
-     //       String asspJustificationString = checker.getDerivationExercise().getStringFromJustificationFlow(asspJustificationFlow);
             if (!checker.getDerivationRuleset().getPremiseRule().matches(asspJustificationString)) {
 
-                BoxedDRTA asspLineBDRTA = asspLine.getLineContentBoxedDRTA();
-                RichTextArea asspLineRTA = asspLineBDRTA.getRTA();
-                asspLineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-                Document asspLineDoc = asspLineRTA.getDocument();
+                Document asspLineDoc = asspLine.getLineDoc();
                 Expression asspLineExp = ParseUtilities.parseDoc(asspLineDoc, objectLanguage.getNameString()).get(0);
 
                 if (SyntacticalFns.expTermFreeInFormula(asspLineExp, variableExp, objectLanguage.getNameString())) {
-                    List<Text> list = new ArrayList<>();
-                    list.add(new Text("Variable "));
+                    List<StyledText> list = new ArrayList<>();
+                    list.add(new StyledText("Variable "));
                     list.addAll(variableExp.toTextList());
-                    list.add(new Text(" is free in an undischarged assumption."));
+                    list.add(new StyledText(" is free in an undischarged assumption."));
                     return new Pair(false, list);
                 }
             }
@@ -351,10 +293,10 @@ public class RestrictedExisExploit extends DerivationRule {
         //check variable free in existential
         Expression exsExp = ParseUtilities.parseDoc(exsLineDoc, objectLanguage.getNameString()).get(0);
         if (SyntacticalFns.expTermFreeInFormula(exsExp, variableExp, objectLanguage.getNameString())) {
-            List<Text> list = new ArrayList<>();
-            list.add(new Text("Variable "));
+            List<StyledText> list = new ArrayList<>();
+            list.add(new StyledText("Variable "));
             list.addAll(variableExp.toTextList());
-            list.add(new Text(" is free in "));
+            list.add(new StyledText(" is free in "));
             list.addAll(exsExp.toTextList());
             return new Pair(false, list);
         }
@@ -362,10 +304,10 @@ public class RestrictedExisExploit extends DerivationRule {
         //check variable free in goal
         Expression lineExp = ParseUtilities.parseDoc(lineDoc, objectLanguage.getNameString()).get(0);
         if (SyntacticalFns.expTermFreeInFormula(lineExp, variableExp, objectLanguage.getNameString())) {
-            List<Text> list = new ArrayList<>();
-            list.add(new Text("Variable "));
+            List<StyledText> list = new ArrayList<>();
+            list.add(new StyledText("Variable "));
             list.addAll(variableExp.toTextList());
-            list.add(new Text(" is free in "));
+            list.add(new StyledText(" is free in "));
             list.addAll(lineExp.toTextList());
             return new Pair(false, list);
         }
@@ -378,7 +320,7 @@ public class RestrictedExisExploit extends DerivationRule {
         }
 
         if (asspOK) {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Subderivation (" + inputs[1] + ")-(" + inputs[2] + ") is not of the right form to justify (" + line.getLineNumberLabel().getText() + ") by " + getName() + ".")));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Subderivation (" + inputs[1] + ")-(" + inputs[2] + ") is not of the right form to justify (" + line.getLabel() + ") by " + getName() + ".")));
         }
         else {
             if (contradiction) {
@@ -392,5 +334,45 @@ public class RestrictedExisExploit extends DerivationRule {
 
     }
 
-
+    private static class Forms {
+        final CompiledForm contForm1;
+        final CompiledForm contForm2;
+        final CompiledForm mainExisForm;
+        final CompiledForm firstTopLineForm;
+        final CompiledForm secondTopLineForm;
+        final CompiledForm outputForm;
+        final CompiledForm mainExisForm1;
+        final CompiledForm firstTopLineForm1;
+        final CompiledForm secondTopLineForm1;
+        final CompiledForm outputForm1;
+        final CompiledForm mainExisForm2;
+        final CompiledForm firstTopLineForm2;
+        final CompiledForm secondTopLineForm2;
+        final CompiledForm outputForm2;
+
+        Forms(Language metaLanguage) {
+            String openBracketString = metaLanguage.getOpenBracket1();
+            String closeBracketString = metaLanguage.getCloseBracket1();
+            String commaDividerString = metaLanguage.getCommaDivider();
+            String dividerSymbol = metaLanguage.getDividerSymbol();
+
+            contForm1 = CompiledForm.getInstance("\u22a5", metaLanguage.getNameString());
+            contForm2 = CompiledForm.getInstance(openBracketString + "\ud835\udcac \u2227 \u223c\ud835\udcac" + closeBracketString, metaLanguage.getNameString());
+
+            mainExisForm = CompiledForm.getInstance(openBracketString + "\u2203\ud835\udccd" + dividerSymbol + "\u212c" + closeBracketString + "\ud835\udcab", metaLanguage.getNameString());
+            firstTopLineForm = CompiledForm.getInstance("\ud835\udcab\u2039\ud835\udccd" + commaDividerString + "\ud835\udccb\u203a", metaLanguage.getNameString());
+            secondTopLineForm = CompiledForm.getInstance("\u212c\u2039\ud835\udccd" + commaDividerString + "\ud835\udccb\u203a", metaLanguage.getNameString());
+            outputForm = CompiledForm.getInstance("\ud835\udcaa", metaLanguage.getNameString());
+
+            mainExisForm1 = CompiledForm.getInstance("(∃\uD835\uDCCD \uE8A4 \uD835\uDCC9)\uD835\uDCAB", metaLanguage.getNameString());
+            firstTopLineForm1 = CompiledForm.getInstance("\ud835\udcab\u2039\ud835\udccd" + commaDividerString + "\ud835\udccb\u203a", metaLanguage.getNameString());
+            secondTopLineForm1 = CompiledForm.getInstance("(\uD835\uDCCB \uE8A4 \uD835\uDCC9)", metaLanguage.getNameString());
+            outputForm1 = CompiledForm.getInstance("\ud835\udcaa", metaLanguage.getNameString());
+
+            mainExisForm2 = CompiledForm.getInstance("(∃\uD835\uDCCD \uE8A6 \uD835\uDCC9)\uD835\uDCAB", metaLanguage.getNameString());
+            firstTopLineForm2 = CompiledForm.getInstance("\ud835\udcab\u2039\ud835\udccd" + commaDividerString + "\ud835\udccb\u203a", metaLanguage.getNameString());
+            secondTopLineForm2 = CompiledForm.getInstance("(\uD835\uDCCB \uE8A6 \uD835\uDCC9)", metaLanguage.getNameString());
+            outputForm2 = CompiledForm.getInstance("\ud835\udcaa", metaLanguage.getNameString());
+        }
+    }
 }
@@ -1,14 +1,14 @@
 package slapp.editor.derivation.der_systems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.Pair;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
+import slapp.editor.parser.CompiledForm;
 import slapp.editor.parser.Language;
+import slapp.editor.parser.MetaForms;
 import slapp.editor.parser.MatchUtilities;
 import slapp.editor.parser.ParseUtilities;
 import slapp.editor.parser.TextMessageException;
@@ -18,72 +18,49 @@ import java.util.List;
 
 public class RestrictedExisIntro extends DerivationRule {
 
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     public RestrictedExisIntro(String name, String rgexTemplate) {
         super(name, rgexTemplate);
         this.premAssp = false;
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
 
-        ViewLine inputLine1;
-        Pair<ViewLine, List<Text>> inputLine1Pair = checker.getLineFromLabel(inputs[0]);
+        CheckLine inputLine1;
+        Pair<CheckLine, List<StyledText>> inputLine1Pair = checker.getLineFromLabel(inputs[0]);
         if (inputLine1Pair.getKey() != null) inputLine1 = inputLine1Pair.getKey();
         else return new Pair(false, inputLine1Pair.getValue());
 
-        BoxedDRTA inputBDRTA1 = inputLine1.getLineContentBoxedDRTA();
-        RichTextArea inputRTA1 = inputBDRTA1.getRTA();
-        inputRTA1.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc1 = inputRTA1.getDocument();
+        Document inputDoc1 = inputLine1.getLineDoc();
         if (inputDoc1.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[0] + ").")));
 
-        ViewLine inputLine2;
-        Pair<ViewLine, List<Text>> inputLine2Pair = checker.getLineFromLabel(inputs[1]);
+        CheckLine inputLine2;
+        Pair<CheckLine, List<StyledText>> inputLine2Pair = checker.getLineFromLabel(inputs[1]);
         if (inputLine2Pair.getKey() != null) inputLine2 = inputLine2Pair.getKey();
         else return new Pair(false, inputLine2Pair.getValue());
 
-        BoxedDRTA inputBDRTA2 = inputLine2.getLineContentBoxedDRTA();
-        RichTextArea inputRTA2 = inputBDRTA2.getRTA();
-        inputRTA2.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc2 = inputRTA2.getDocument();
+        Document inputDoc2 = inputLine2.getLineDoc();
         if (inputDoc2.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[1] + ").")));
 
 
 
-        Pair<Boolean, List<Text>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
         if (!accessibilityPair1.getKey()) {
             return accessibilityPair1;
         }
 
-        Pair<Boolean, List<Text>> accessibilityPair2 = checker.lineIsAccessibleTo(inputLine2, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair2 = checker.lineIsAccessibleTo(inputLine2, line);
         if (!accessibilityPair2.getKey()) {
             return accessibilityPair2;
         }
 
         Language objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
-        String commaDividerString = metaLanguage.getCommaDivider();
-        String dividerSymbol = metaLanguage.getDividerSymbol();
-        String openBracketString = metaLanguage.getOpenBracket1();
-        String closeBracketString = metaLanguage.getCloseBracket1();
-
-
-        Document firstInputForm = new Document("\ud835\udcab \u2039 \ud835\udccd" + commaDividerString + "\ud835\udcc9 \u203a" );
-        Document secondInputForm = new Document("\u212c \u2039 \ud835\udccd" + commaDividerString + "\ud835\udcc9 \u203a" );
-        Document outputForm = new Document(openBracketString + "\u2203\ud835\udccd" + dividerSymbol + "\u212c" + closeBracketString + "\ud835\udcab");
-
-        Document firstInputForm1 = new Document("\ud835\udcab \u2039 \ud835\udccd" + commaDividerString + "\ud835\udcc8 \u203a" );
-        Document secondInputForm1 = new Document("(\uD835\uDCC8 \uE8A4 \uD835\uDCC9)");
-        Document outputForm1 = new Document("(∃\uD835\uDCCD \uE8A4 \uD835\uDCC9)\uD835\uDCAB");
-
-        Document firstInputForm2 = new Document("\ud835\udcab \u2039 \ud835\udccd" + commaDividerString + "\ud835\udcc8 \u203a" );
-        Document secondInputForm2 = new Document("(\uD835\uDCC8 \uE8A6 \uD835\uDCC9)");
-        Document outputForm2 = new Document("(∃\uD835\uDCCD \uE8A6 \uD835\uDCC9)\uD835\uDCAB");
 
+        Forms forms = metaForms.get(metaLanguage);
 
 
         boolean resultGoodA = false;
@@ -98,26 +75,26 @@ public class RestrictedExisIntro extends DerivationRule {
 
 
         //restricted
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         try {
-            Pair<Boolean, Boolean> outputMatch = MatchUtilities.simpleFormMatch(outputForm, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (outputMatch.getKey() == true && outputMatch.getValue() == true ) resultGoodA = true;
+            boolean outputMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm, lineDoc, objectLanguage.getNameString());
+            if (outputMatch == true && context.isSubFreeFor() == true ) resultGoodA = true;
         }
         catch (TextMessageException e) {
-//            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLineNumberLabel().getText() + ") is not of the right form to result by " + getName() + ".")));
+//            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLabel() + ") is not of the right form to result by " + getName() + ".")));
         }
 
         if (resultGoodA) {
             try {
-                Pair<Boolean, Boolean> inputMatch2 = MatchUtilities.simpleFormMatch(secondInputForm, inputDoc2, objectLanguage.getNameString(), metaLanguage.getNameString());
-                if (inputMatch2.getKey() == true && inputMatch2.getValue() == true) resultGoodB = true;
+                boolean inputMatch2 = MatchUtilities.simpleFormMatch(context, forms.secondInputForm, inputDoc2, objectLanguage.getNameString());
+                if (inputMatch2 == true && context.isSubFreeFor() == true) resultGoodB = true;
             } catch (TextMessageException e) {
                 return new Pair(false, e.getMessageList());
             }
 
             try {
-                Pair<Boolean, Boolean> inputMatch1 = MatchUtilities.simpleFormMatch(firstInputForm, inputDoc1, objectLanguage.getNameString(), metaLanguage.getNameString());
-                if (inputMatch1.getKey() == true && inputMatch1.getValue() == true) resultGoodC = true;
+                boolean inputMatch1 = MatchUtilities.simpleFormMatch(context, forms.firstInputForm, inputDoc1, objectLanguage.getNameString());
+                if (inputMatch1 == true && context.isSubFreeFor() == true) resultGoodC = true;
             } catch (TextMessageException e) {
                 return new Pair(false, e.getMessageList());
             }
@@ -126,24 +103,24 @@ public class RestrictedExisIntro extends DerivationRule {
         //bounded 1
         if (!resultGoodA || !resultGoodB || !resultGoodC) {
 
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                Pair<Boolean, Boolean> outputMatch = MatchUtilities.simpleFormMatch(outputForm1, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                if (outputMatch.getKey() == true && outputMatch.getValue() == true ) resultGoodA1 = true;
+                boolean outputMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm1, lineDoc, objectLanguage.getNameString());
+                if (outputMatch == true && context.isSubFreeFor() == true ) resultGoodA1 = true;
             }
             catch (TextMessageException e) {     }
 
             if (resultGoodA1) {
                 try {
-                    Pair<Boolean, Boolean> inputMatch2 = MatchUtilities.simpleFormMatch(secondInputForm1, inputDoc2, objectLanguage.getNameString(), metaLanguage.getNameString());
-                    if (inputMatch2.getKey() == true && inputMatch2.getValue() == true) resultGoodB1 = true;
+                    boolean inputMatch2 = MatchUtilities.simpleFormMatch(context, forms.secondInputForm1, inputDoc2, objectLanguage.getNameString());
+                    if (inputMatch2 == true && context.isSubFreeFor() == true) resultGoodB1 = true;
                 } catch (TextMessageException e) {
                     return new Pair(false, e.getMessageList());
                 }
 
                 try {
-                    Pair<Boolean, Boolean> inputMatch1 = MatchUtilities.simpleFormMatch(firstInputForm1, inputDoc1, objectLanguage.getNameString(), metaLanguage.getNameString());
-                    if (inputMatch1.getKey() == true && inputMatch1.getValue() == true) resultGoodC1 = true;
+                    boolean inputMatch1 = MatchUtilities.simpleFormMatch(context, forms.firstInputForm1, inputDoc1, objectLanguage.getNameString());
+                    if (inputMatch1 == true && context.isSubFreeFor() == true) resultGoodC1 = true;
                 } catch (TextMessageException e) {
                     return new Pair(false, e.getMessageList());
                 }
@@ -151,24 +128,24 @@ public class RestrictedExisIntro extends DerivationRule {
             //bounded 2
             if (!resultGoodA1 || !resultGoodB1 || !resultGoodC1) {
 
-                MatchUtilities.clearFormMatch();
+                context.clear();
                 try {
-                    Pair<Boolean, Boolean> outputMatch = MatchUtilities.simpleFormMatch(outputForm2, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                    if (outputMatch.getKey() == true && outputMatch.getValue() == true) resultGoodA2 = true;
+                    boolean outputMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm2, lineDoc, objectLanguage.getNameString());
+                    if (outputMatch == true && context.isSubFreeFor() == true) resultGoodA2 = true;
                 } catch (TextMessageException e) {
                 }
 
                 if (resultGoodA2) {
                     try {
-                        Pair<Boolean, Boolean> inputMatch2 = MatchUtilities.simpleFormMatch(secondInputForm2, inputDoc2, objectLanguage.getNameString(), metaLanguage.getNameString());
-                        if (inputMatch2.getKey() == true && inputMatch2.getValue() == true) resultGoodB2 = true;
+                        boolean inputMatch2 = MatchUtilities.simpleFormMatch(context, forms.secondInputForm2, inputDoc2, objectLanguage.getNameString());
+                        if (inputMatch2 == true && context.isSubFreeFor() == true) resultGoodB2 = true;
                     } catch (TextMessageException e) {
                         return new Pair(false, e.getMessageList());
                     }
 
                     try {
-                        Pair<Boolean, Boolean> inputMatch1 = MatchUtilities.simpleFormMatch(firstInputForm2, inputDoc1, objectLanguage.getNameString(), metaLanguage.getNameString());
-                        if (inputMatch1.getKey() == true && inputMatch1.getValue() == true) resultGoodC2 = true;
+                        boolean inputMatch1 = MatchUtilities.simpleFormMatch(context, forms.firstInputForm2, inputDoc1, objectLanguage.getNameString());
+                        if (inputMatch1 == true && context.isSubFreeFor() == true) resultGoodC2 = true;
                     } catch (TextMessageException e) {
                         return new Pair(false, e.getMessageList());
                     }
@@ -177,19 +154,48 @@ public class RestrictedExisIntro extends DerivationRule {
         }
 
         if (!resultGoodA && !resultGoodA1 && !resultGoodA2) {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLineNumberLabel().getText() + ") is not of the right form to result by " + getName() + ".")));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLabel() + ") is not of the right form to result by " + getName() + ".")));
         }
 
         if ((resultGoodA && resultGoodB && resultGoodC) || (resultGoodA1 && resultGoodB1 && resultGoodC1) || (resultGoodA2 && resultGoodB2 && resultGoodC2)) return new Pair(true, null);
 
 
         else {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLineNumberLabel().getText() + ") does not result from (" + inputs[0] + ") and (" + inputs[1] + ") by " + getName() + ".")));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLabel() + ") does not result from (" + inputs[0] + ") and (" + inputs[1] + ") by " + getName() + ".")));
         }
 
 
 
     }
 
-
+    private static class Forms {
+        final CompiledForm firstInputForm;
+        final CompiledForm secondInputForm;
+        final CompiledForm outputForm;
+        final CompiledForm firstInputForm1;
+        final CompiledForm secondInputForm1;
+        final CompiledForm outputForm1;
+        final CompiledForm firstInputForm2;
+        final CompiledForm secondInputForm2;
+        final CompiledForm outputForm2;
+
+        Forms(Language metaLanguage) {
+            String openBracketString = metaLanguage.getOpenBracket1();
+            String closeBracketString = metaLanguage.getCloseBracket1();
+            String commaDividerString = metaLanguage.getCommaDivider();
+            String dividerSymbol = metaLanguage.getDividerSymbol();
+
+            firstInputForm = CompiledForm.getInstance("\ud835\udcab \u2039 \ud835\udccd" + commaDividerString + "\ud835\udcc9 \u203a", metaLanguage.getNameString());
+            secondInputForm = CompiledForm.getInstance("\u212c \u2039 \ud835\udccd" + commaDividerString + "\ud835\udcc9 \u203a", metaLanguage.getNameString());
+            outputForm = CompiledForm.getInstance(openBracketString + "\u2203\ud835\udccd" + dividerSymbol + "\u212c" + closeBracketString + "\ud835\udcab", metaLanguage.getNameString());
+
+            firstInputForm1 = CompiledForm.getInstance("\ud835\udcab \u2039 \ud835\udccd" + commaDividerString + "\ud835\udcc8 \u203a", metaLanguage.getNameString());
+            secondInputForm1 = CompiledForm.getInstance("(\uD835\uDCC8 \uE8A4 \uD835\uDCC9)", metaLanguage.getNameString());
+            outputForm1 = CompiledForm.getInstance("(∃\uD835\uDCCD \uE8A4 \uD835\uDCC9)\uD835\uDCAB", metaLanguage.getNameString());
+
+            firstInputForm2 = CompiledForm.getInstance("\ud835\udcab \u2039 \ud835\udccd" + commaDividerString + "\ud835\udcc8 \u203a", metaLanguage.getNameString());
+            secondInputForm2 = CompiledForm.getInstance("(\uD835\uDCC8 \uE8A6 \uD835\uDCC9)", metaLanguage.getNameString());
+            outputForm2 = CompiledForm.getInstance("(∃\uD835\uDCCD \uE8A6 \uD835\uDCC9)\uD835\uDCAB", metaLanguage.getNameString());
+        }
+    }
 }
@@ -1,13 +1,8 @@
 package slapp.editor.derivation.der_systems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
 import slapp.editor.parser.*;
 
 import java.util.Collections;
@@ -15,197 +10,135 @@ import java.util.List;
 
 public class RestrictedQuantifierNegation extends DerivationRule {
 
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     public RestrictedQuantifierNegation(String name, String rgexTemplate) {
         super(name, rgexTemplate);
         this.premAssp = false;
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
         Language objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        String openBracketString = metaLanguage.getOpenBracket1();
-        String closeBracketString = metaLanguage.getCloseBracket1();
-        String dividerString = metaLanguage.getDividerSymbol();
-
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
         List<Expression> lineExpressions = ParseUtilities.parseDoc(lineDoc, objectLanguage.getNameString());
         Expression lineExpression = lineExpressions.get(0);
 
-        ViewLine inputLine1;
-        Pair<ViewLine, List<Text>> line1Pair = checker.getLineFromLabel(inputs[0]);
+        CheckLine inputLine1;
+        Pair<CheckLine, List<StyledText>> line1Pair = checker.getLineFromLabel(inputs[0]);
         if (line1Pair.getKey() != null) inputLine1 = line1Pair.getKey();
         else return new Pair(false, line1Pair.getValue());
 
-        BoxedDRTA inputBDRTA1 = inputLine1.getLineContentBoxedDRTA();
-        RichTextArea inputRTA1 = inputBDRTA1.getRTA();
-        inputRTA1.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc1 = inputRTA1.getDocument();
+        Document inputDoc1 = inputLine1.getLineDoc();
         if (inputDoc1.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[0] + ").")));
         List<Expression> inputExpressions = ParseUtilities.parseDoc(inputDoc1, objectLanguage.getNameString());
         Expression inputExpression = inputExpressions.get(0);
 
-        Pair<Boolean, List<Text>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
         if (!accessibilityPair1.getKey()) {
             return accessibilityPair1;
         }
 
 
 
-        Document leftForm = new Document("\u223c" + openBracketString + "\u2200\ud835\udccd" + dividerString + "\u212c" + closeBracketString + "\ud835\udcab");
-        Document rightForm = new Document( openBracketString + "\u2203\ud835\udccd" + dividerString + "\u212c" + closeBracketString + "\u223c\ud835\udcab");
-
-        Document leftForm2 = new Document("\u223c" + openBracketString + "\u2203\ud835\udccd" + dividerString + "\u212c" + closeBracketString + "\ud835\udcab" );
-        Document rightForm2 = new Document(openBracketString + "\u2200\ud835\udccd" + dividerString + "\u212c" + closeBracketString + "\u223c\ud835\udcab");
-
-        Document leftFormA = new Document("∼(∀\uD835\uDCCD \uE8A4 \uD835\uDCC9)\uD835\uDCAB");
-        Document rightFormA = new Document("(∃\uD835\uDCCD \uE8A4 \uD835\uDCC9)∼\uD835\uDCAB");
-
-        Document leftFormA2 = new Document("∼(∃\uD835\uDCCD \uE8A4 \uD835\uDCC9)\uD835\uDCAB");
-        Document rightFormA2 = new Document("(∀\uD835\uDCCD \uE8A4 \uD835\uDCC9)∼\uD835\uDCAB");
-
-        Document leftFormB = new Document("∼(∀\uD835\uDCCD \uE8A6 \uD835\uDCC9)\uD835\uDCAB");
-        Document rightFormB = new Document("(∃\uD835\uDCCD \uE8A6 \uD835\uDCC9)∼\uD835\uDCAB");
-
-        Document leftFormB2 = new Document("∼(∃\uD835\uDCCD \uE8A6 \uD835\uDCC9)\uD835\uDCAB");
-        Document rightFormB2 = new Document("(∀\uD835\uDCCD \uE8A6 \uD835\uDCC9)∼\uD835\uDCAB");
+        Forms forms = metaForms.get(metaLanguage);
 
         //
 
-        List<Expression> leftExpressions = ParseUtilities.parseDoc(leftForm, metaLanguage.getNameString());
-        Expression leftFormExp = leftExpressions.get(0);
-
-        List<Expression> rightExpressions = ParseUtilities.parseDoc(rightForm, metaLanguage.getNameString());
-        Expression rightFormExp = rightExpressions.get(0);
-
-        List<Expression> leftExpressions2 = ParseUtilities.parseDoc(leftForm2, metaLanguage.getNameString());
-        Expression leftFormExp2 = leftExpressions2.get(0);
-
-        List<Expression> rightExpressions2 = ParseUtilities.parseDoc(rightForm2, metaLanguage.getNameString());
-        Expression rightFormExp2 = rightExpressions2.get(0);
-
         //
-        List<Expression> leftExpressionsA = ParseUtilities.parseDoc(leftFormA, metaLanguage.getNameString());
-        Expression leftFormExpA = leftExpressionsA.get(0);
-
-        List<Expression> rightExpressionsA = ParseUtilities.parseDoc(rightFormA, metaLanguage.getNameString());
-        Expression rightFormExpA = rightExpressionsA.get(0);
-
-        List<Expression> leftExpressionsA2 = ParseUtilities.parseDoc(leftFormA2, metaLanguage.getNameString());
-        Expression leftFormExpA2 = leftExpressionsA2.get(0);
-
-        List<Expression> rightExpressionsA2 = ParseUtilities.parseDoc(rightFormA2, metaLanguage.getNameString());
-        Expression rightFormExpA2 = rightExpressionsA2.get(0);
 
         //
 
-        List<Expression> leftExpressionsB = ParseUtilities.parseDoc(leftFormB, metaLanguage.getNameString());
-        Expression leftFormExpB = leftExpressionsB.get(0);
-
-        List<Expression> rightExpressionsB = ParseUtilities.parseDoc(rightFormB, metaLanguage.getNameString());
-        Expression rightFormExpB = rightExpressionsB.get(0);
-
-        List<Expression> leftExpressionsB2 = ParseUtilities.parseDoc(leftFormB2, metaLanguage.getNameString());
-        Expression leftFormExpB2 = leftExpressionsB2.get(0);
-
-        List<Expression> rightExpressionsB2 = ParseUtilities.parseDoc(rightFormB2, metaLanguage.getNameString());
-        Expression rightFormExpB2 = rightExpressionsB2.get(0);
-
-
-
-
         //first form
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         try {
-            boolean resultGood1 = MatchUtilities.replacementCheck(leftFormExp, rightFormExp, inputExpression, lineExpression);
+            boolean resultGood1 = MatchUtilities.replacementCheck(context, forms.leftForm, forms.rightForm, inputExpression, lineExpression);
             if (resultGood1) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood1 = MatchUtilities.replacementCheck(rightFormExp, leftFormExp, inputExpression, lineExpression);
+            boolean resultGood1 = MatchUtilities.replacementCheck(context, forms.rightForm, forms.leftForm, inputExpression, lineExpression);
             if (resultGood1) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
         //second form
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood2 = MatchUtilities.replacementCheck(leftFormExp2, rightFormExp2, inputExpression, lineExpression);
+            boolean resultGood2 = MatchUtilities.replacementCheck(context, forms.leftForm2, forms.rightForm2, inputExpression, lineExpression);
             if (resultGood2) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood2 = MatchUtilities.replacementCheck(rightFormExp2, leftFormExp2, inputExpression, lineExpression);
+            boolean resultGood2 = MatchUtilities.replacementCheck(context, forms.rightForm2, forms.leftForm2, inputExpression, lineExpression);
             if (resultGood2) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
         //A forms
         //first form
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood1 = MatchUtilities.replacementCheck(leftFormExpA, rightFormExpA, inputExpression, lineExpression);
+            boolean resultGood1 = MatchUtilities.replacementCheck(context, forms.leftFormA, forms.rightFormA, inputExpression, lineExpression);
             if (resultGood1) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood1 = MatchUtilities.replacementCheck(rightFormExpA, leftFormExpA, inputExpression, lineExpression);
+            boolean resultGood1 = MatchUtilities.replacementCheck(context, forms.rightFormA, forms.leftFormA, inputExpression, lineExpression);
             if (resultGood1) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
         //second form
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood2 = MatchUtilities.replacementCheck(leftFormExpA2, rightFormExpA2, inputExpression, lineExpression);
+            boolean resultGood2 = MatchUtilities.replacementCheck(context, forms.leftFormA2, forms.rightFormA2, inputExpression, lineExpression);
             if (resultGood2) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood2 = MatchUtilities.replacementCheck(rightFormExpA2, leftFormExpA2, inputExpression, lineExpression);
+            boolean resultGood2 = MatchUtilities.replacementCheck(context, forms.rightFormA2, forms.leftFormA2, inputExpression, lineExpression);
             if (resultGood2) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
         //B forms
         //first form
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood1 = MatchUtilities.replacementCheck(leftFormExpB, rightFormExpB, inputExpression, lineExpression);
+            boolean resultGood1 = MatchUtilities.replacementCheck(context, forms.leftFormB, forms.rightFormB, inputExpression, lineExpression);
             if (resultGood1) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood1 = MatchUtilities.replacementCheck(rightFormExpB, leftFormExpB, inputExpression, lineExpression);
+            boolean resultGood1 = MatchUtilities.replacementCheck(context, forms.rightFormB, forms.leftFormB, inputExpression, lineExpression);
             if (resultGood1) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
         //second form
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood2 = MatchUtilities.replacementCheck(leftFormExpB2, rightFormExpB2, inputExpression, lineExpression);
+            boolean resultGood2 = MatchUtilities.replacementCheck(context, forms.leftFormB2, forms.rightFormB2, inputExpression, lineExpression);
             if (resultGood2) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            boolean resultGood2 = MatchUtilities.replacementCheck(rightFormExpB2, leftFormExpB2, inputExpression, lineExpression);
+            boolean resultGood2 = MatchUtilities.replacementCheck(context, forms.rightFormB2, forms.leftFormB2, inputExpression, lineExpression);
             if (resultGood2) return new Pair(true, null);
         }
         catch (TextMessageException e) {  }
@@ -213,10 +146,47 @@ public class RestrictedQuantifierNegation extends DerivationRule {
 
 
 
-        return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLineNumberLabel().getText() + ") and (" + line.getLineNumberLabel().getText() + ") are not of the right form for application of " + getName() + "."))));
+        return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLabel() + ") and (" + line.getLabel() + ") are not of the right form for application of " + getName() + "."))));
 
 
     }
 
-
+    private static class Forms {
+        final CompiledForm leftForm;
+        final CompiledForm rightForm;
+        final CompiledForm leftForm2;
+        final CompiledForm rightForm2;
+        final CompiledForm leftFormA;
+        final CompiledForm rightFormA;
+        final CompiledForm leftFormA2;
+        final CompiledForm rightFormA2;
+        final CompiledForm leftFormB;
+        final CompiledForm rightFormB;
+        final CompiledForm leftFormB2;
+        final CompiledForm rightFormB2;
+
+        Forms(Language metaLanguage) {
+            String openBracketString = metaLanguage.getOpenBracket1();
+            String closeBracketString = metaLanguage.getCloseBracket1();
+            String dividerString = metaLanguage.getDividerSymbol();
+
+            leftForm = CompiledForm.getInstance("\u223c" + openBracketString + "\u2200\ud835\udccd" + dividerString + "\u212c" + closeBracketString + "\ud835\udcab", metaLanguage.getNameString());
+            rightForm = CompiledForm.getInstance(openBracketString + "\u2203\ud835\udccd" + dividerString + "\u212c" + closeBracketString + "\u223c\ud835\udcab", metaLanguage.getNameString());
+
+            leftForm2 = CompiledForm.getInstance("\u223c" + openBracketString + "\u2203\ud835\udccd" + dividerString + "\u212c" + closeBracketString + "\ud835\udcab", metaLanguage.getNameString());
+            rightForm2 = CompiledForm.getInstance(openBracketString + "\u2200\ud835\udccd" + dividerString + "\u212c" + closeBracketString + "\u223c\ud835\udcab", metaLanguage.getNameString());
+
+            leftFormA = CompiledForm.getInstance("∼(∀\uD835\uDCCD \uE8A4 \uD835\uDCC9)\uD835\uDCAB", metaLanguage.getNameString());
+            rightFormA = CompiledForm.getInstance("(∃\uD835\uDCCD \uE8A4 \uD835\uDCC9)∼\uD835\uDCAB", metaLanguage.getNameString());
+
+            leftFormA2 = CompiledForm.getInstance("∼(∃\uD835\uDCCD \uE8A4 \uD835\uDCC9)\uD835\uDCAB", metaLanguage.getNameString());
+            rightFormA2 = CompiledForm.getInstance("(∀\uD835\uDCCD \uE8A4 \uD835\uDCC9)∼\uD835\uDCAB", metaLanguage.getNameString());
+
+            leftFormB = CompiledForm.getInstance("∼(∀\uD835\uDCCD \uE8A6 \uD835\uDCC9)\uD835\uDCAB", metaLanguage.getNameString());
+            rightFormB = CompiledForm.getInstance("(∃\uD835\uDCCD \uE8A6 \uD835\uDCC9)∼\uD835\uDCAB", metaLanguage.getNameString());
+
+            leftFormB2 = CompiledForm.getInstance("∼(∃\uD835\uDCCD \uE8A6 \uD835\uDCC9)\uD835\uDCAB", metaLanguage.getNameString());
+            rightFormB2 = CompiledForm.getInstance("(∀\uD835\uDCCD \uE8A6 \uD835\uDCC9)∼\uD835\uDCAB", metaLanguage.getNameString());
+        }
+    }
 }
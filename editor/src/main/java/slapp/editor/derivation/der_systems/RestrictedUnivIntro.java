@@ -1,17 +1,8 @@
 package slapp.editor.derivation.der_systems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.scene.text.TextFlow;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.DerivationCheck;
-import slapp.editor.derivation.DerivationExercise;
-import slapp.editor.derivation.ViewLine;
-import slapp.editor.derivation_explain.DrvtnExpExercise;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
 import slapp.editor.parser.*;
 import slapp.editor.parser.grammatical_parts.Formula;
 
@@ -21,60 +12,50 @@ import java.util.List;
 
 public class RestrictedUnivIntro extends DerivationRule {
 
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     public RestrictedUnivIntro(String name, String rgexTemplate) {
         super(name, rgexTemplate);
         this.premAssp = false;
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
 
-        ViewLine topLine;
-        Pair<ViewLine, List<Text>> topLinePair = checker.getLineFromLabel(inputs[0]);
+        CheckLine topLine;
+        Pair<CheckLine, List<StyledText>> topLinePair = checker.getLineFromLabel(inputs[0]);
         if (topLinePair.getKey() != null) topLine = topLinePair.getKey();
         else return new Pair(false, topLinePair.getValue());
 
-        BoxedDRTA topLineBDRTA = topLine.getLineContentBoxedDRTA();
-        RichTextArea topLineRTA = topLineBDRTA.getRTA();
-        topLineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document topLineDoc = topLineRTA.getDocument();
+        Document topLineDoc = topLine.getLineDoc();
         if (topLineDoc.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[0] + ").")));
 
 
-        ViewLine bottomLine;
-        Pair<ViewLine, List<Text>> bottomLinePair = checker.getLineFromLabel(inputs[1]);
+        CheckLine bottomLine;
+        Pair<CheckLine, List<StyledText>> bottomLinePair = checker.getLineFromLabel(inputs[1]);
         if (bottomLinePair.getKey() != null) bottomLine = bottomLinePair.getKey();
         else return new Pair(false, bottomLinePair.getValue());
 
-        BoxedDRTA bottomLineBDRTA = bottomLine.getLineContentBoxedDRTA();
-        RichTextArea bottomLineRTA = bottomLineBDRTA.getRTA();
-        bottomLineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document bottomLineDoc = bottomLineRTA.getDocument();
+        Document bottomLineDoc = bottomLine.getLineDoc();
         if (bottomLineDoc.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[1] + ").")));
 
 
-        Pair<Boolean, List<Text>> subderivationPair = checker.isSubderivation(inputs[0], inputs[1]);
+        Pair<Boolean, List<StyledText>> subderivationPair = checker.isSubderivation(inputs[0], inputs[1]);
         if (!subderivationPair.getKey()) {
             return subderivationPair;
         }
 
-        Pair<Boolean, List<Text>> accessibilityPair = checker.isAccessibleSubderivationFor(line, inputs[0], inputs[1]);
+        Pair<Boolean, List<StyledText>> accessibilityPair = checker.isAccessibleSubderivationFor(line, inputs[0], inputs[1]);
         if (!accessibilityPair.getKey()) {
             return accessibilityPair;
         }
 
         boolean asspOK = true;
-        TextFlow justificationFlow = topLine.getJustificationFlow();
 
-        String justificationString = (checker instanceof DerivationCheck) ? ((DerivationExercise) checker.getExercise()).getStringFromJustificationFlow(justificationFlow) :
-                ((DrvtnExpExercise) checker.getExercise()).getStringFromJustificationFlow(justificationFlow);
+        String justificationString = topLine.getJustification();
 
 
-  //      String justificationString = checker.getDerivationExercise().getStringFromJustificationFlow(justificationFlow);
         if (!checker.getDerivationRuleset().getAsspRestrictedUnivIntroRule().matches(justificationString)) {
             asspOK = false;
         }
@@ -82,23 +63,7 @@ public class RestrictedUnivIntro extends DerivationRule {
         Language objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        String openBracketString = metaLanguage.getOpenBracket1();
-        String closeBracketString = metaLanguage.getCloseBracket1();
-        String dividerSymbol = metaLanguage.getDividerSymbol();
-        String commaDividerString = metaLanguage.getCommaDivider();
-
-        Document outputForm = new Document(openBracketString + "\u2200\ud835\udccd" + dividerSymbol + "\u212c" + closeBracketString + "\ud835\udcab");
-        Document topLineForm = new Document("\u212c \u2039 \ud835\udccd" + commaDividerString + "\ud835\udccb \u203a"  );
-        Document bottomLineForm = new Document("\ud835\udcab \u2039 \ud835\udccd" + commaDividerString + "\ud835\udccb \u203a" );
-
-        Document outputForm1 = new Document( "(∀\uD835\uDCCD \uE8A4 \uD835\uDCC9)\uD835\uDCAB");
-        Document topLineForm1 = new Document( "(\uD835\uDCCB \uE8A4 \uD835\uDCC9)");
-        Document bottomLineForm1 = new Document("\ud835\udcab \u2039 \ud835\udccd" + commaDividerString + "\ud835\udccb \u203a");
-
-        Document outputForm2 = new Document("(∀\uD835\uDCCD \uE8A6 \uD835\uDCC9)\uD835\uDCAB");
-        Document topLineForm2 = new Document("\uD835\uDCCB \uE8A6 \uD835\uDCC9");
-        Document bottomLineForm2 = new Document("\ud835\udcab \u2039 \ud835\udccd" + commaDividerString + "\ud835\udccb \u203a");
-
+        Forms forms = metaForms.get(metaLanguage);
 
         boolean resultGoodA = false;
         boolean resultGoodB = false;
@@ -112,24 +77,24 @@ public class RestrictedUnivIntro extends DerivationRule {
 
 
         //try unabb
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         try {
-            Pair<Boolean, Boolean> outputMatch = MatchUtilities.simpleFormMatch(outputForm, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (outputMatch.getKey() && outputMatch.getValue()) resultGoodA = true;
+            boolean outputMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm, lineDoc, objectLanguage.getNameString());
+            if (outputMatch && context.isSubFreeFor()) resultGoodA = true;
         }
         catch (TextMessageException e) {
-  //          return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLineNumberLabel().getText() + ") is not of the right form to result by " + getName() + ".")));
+  //          return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLabel() + ") is not of the right form to result by " + getName() + ".")));
         }
         if (resultGoodA) {
             try {
-                Pair<Boolean, Boolean> topLineMatch = MatchUtilities.simpleFormMatch(topLineForm, topLineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                if (topLineMatch.getKey() && topLineMatch.getValue()) resultGoodB = true;
+                boolean topLineMatch = MatchUtilities.simpleFormMatch(context, forms.topLineForm, topLineDoc, objectLanguage.getNameString());
+                if (topLineMatch && context.isSubFreeFor()) resultGoodB = true;
             } catch (TextMessageException e) {
                 return new Pair(false, e.getMessageList());
             }
             try {
-                Pair<Boolean, Boolean> bottomLineMatch = MatchUtilities.simpleFormMatch(bottomLineForm, bottomLineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                if (bottomLineMatch.getKey() && bottomLineMatch.getValue()) resultGoodC = true;
+                boolean bottomLineMatch = MatchUtilities.simpleFormMatch(context, forms.bottomLineForm, bottomLineDoc, objectLanguage.getNameString());
+                if (bottomLineMatch && context.isSubFreeFor()) resultGoodC = true;
             } catch (TextMessageException e) {
                 return new Pair(false, e.getMessageList());
             }
@@ -138,22 +103,22 @@ public class RestrictedUnivIntro extends DerivationRule {
 
         //try bounded 1
         if (!resultGoodA || !resultGoodB || !resultGoodC) {
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                Pair<Boolean, Boolean> outputMatch = MatchUtilities.simpleFormMatch(outputForm1, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                if (outputMatch.getKey() && outputMatch.getValue()) resultGoodA1 = true;
+                boolean outputMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm1, lineDoc, objectLanguage.getNameString());
+                if (outputMatch && context.isSubFreeFor()) resultGoodA1 = true;
             }
             catch (TextMessageException e) { }
             if (resultGoodA1) {
                 try {
-                    Pair<Boolean, Boolean> topLineMatch = MatchUtilities.simpleFormMatch(topLineForm1, topLineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                    if (topLineMatch.getKey() && topLineMatch.getValue()) resultGoodB1 = true;
+                    boolean topLineMatch = MatchUtilities.simpleFormMatch(context, forms.topLineForm1, topLineDoc, objectLanguage.getNameString());
+                    if (topLineMatch && context.isSubFreeFor()) resultGoodB1 = true;
                 } catch (TextMessageException e) {
                     return new Pair(false, e.getMessageList());
                 }
                 try {
-                    Pair<Boolean, Boolean> bottomLineMatch = MatchUtilities.simpleFormMatch(bottomLineForm1, bottomLineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                    if (bottomLineMatch.getKey() && bottomLineMatch.getValue()) resultGoodC1 = true;
+                    boolean bottomLineMatch = MatchUtilities.simpleFormMatch(context, forms.bottomLineForm1, bottomLineDoc, objectLanguage.getNameString());
+                    if (bottomLineMatch && context.isSubFreeFor()) resultGoodC1 = true;
                 } catch (TextMessageException e) {
                     return new Pair(false, e.getMessageList());
                 }
@@ -161,22 +126,22 @@ public class RestrictedUnivIntro extends DerivationRule {
 
             //try bounded 2
             if (!resultGoodA1 || !resultGoodB1 || !resultGoodC1) {
-                MatchUtilities.clearFormMatch();
+                context.clear();
                 try {
-                    Pair<Boolean, Boolean> outputMatch = MatchUtilities.simpleFormMatch(outputForm2, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                    if (outputMatch.getKey() && outputMatch.getValue()) resultGoodA2 = true;
+                    boolean outputMatch = MatchUtilities.simpleFormMatch(context, forms.outputForm2, lineDoc, objectLanguage.getNameString());
+                    if (outputMatch && context.isSubFreeFor()) resultGoodA2 = true;
                 }
                 catch (TextMessageException e) { }
                 if (resultGoodA2) {
                     try {
-                        Pair<Boolean, Boolean> topLineMatch = MatchUtilities.simpleFormMatch(topLineForm2, topLineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                        if (topLineMatch.getKey() && topLineMatch.getValue()) resultGoodB2 = true;
+                        boolean topLineMatch = MatchUtilities.simpleFormMatch(context, forms.topLineForm2, topLineDoc, objectLanguage.getNameString());
+                        if (topLineMatch && context.isSubFreeFor()) resultGoodB2 = true;
                     } catch (TextMessageException e) {
                         return new Pair(false, e.getMessageList());
                     }
                     try {
-                        Pair<Boolean, Boolean> bottomLineMatch = MatchUtilities.simpleFormMatch(bottomLineForm2, bottomLineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-                        if (bottomLineMatch.getKey() && bottomLineMatch.getValue()) resultGoodC2 = true;
+                        boolean bottomLineMatch = MatchUtilities.simpleFormMatch(context, forms.bottomLineForm2, bottomLineDoc, objectLanguage.getNameString());
+                        if (bottomLineMatch && context.isSubFreeFor()) resultGoodC2 = true;
                     } catch (TextMessageException e) {
                         return new Pair(false, e.getMessageList());
                     }
@@ -185,41 +150,35 @@ public class RestrictedUnivIntro extends DerivationRule {
         }
 
         if (!resultGoodA && !resultGoodA1 && !resultGoodA2) {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLineNumberLabel().getText() + ") is not of the right form to result by " + getName() + ".")));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLabel() + ") is not of the right form to result by " + getName() + ".")));
         }
 
 
 
-        Expression variableExp = ((Formula) MatchUtilities.getTransformList().get(0).getKey()).getSubTransform().getExp2().getMatch();
+        Expression variableExp = ((Formula) context.getTransformList().get(0).getKey()).getSubTransform().getExp2().getMatch(context);
 
         //check variable free in undischarged assumption
         List<String> asspList = line.getAssumptionList();
         for (String asspLabel : asspList) {
-            ViewLine asspLine;
-            Pair<ViewLine, List<Text>> asspLinePair = checker.getLineFromLabel(asspLabel);
+            CheckLine asspLine;
+            Pair<CheckLine, List<StyledText>> asspLinePair = checker.getLineFromLabel(asspLabel);
             if (asspLinePair.getKey() != null) asspLine = asspLinePair.getKey();
             else return new Pair(false, asspLinePair.getValue());
 
-            TextFlow asspJustificationFlow = asspLine.getJustificationFlow();
 
-            String asspJustificationString = (checker instanceof DerivationCheck) ? ((DerivationExercise) checker.getExercise()).getStringFromJustificationFlow(asspJustificationFlow) :
-                    ((DrvtnExpExercise) checker.getExercise()).getStringFromJustificationFlow(asspJustificationFlow);
+            String asspJustificationString = asspLine.getJustification();
 
 
-  //          String asspJustificationString = checker.getDerivationExercise().getStringFromJustificationFlow(asspJustificationFlow);
             if (!checker.getDerivationRuleset().getPremiseRule().matches(asspJustificationString)) {
 
-                BoxedDRTA asspLineBDRTA = asspLine.getLineContentBoxedDRTA();
-                RichTextArea asspLineRTA = asspLineBDRTA.getRTA();
-                asspLineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-                Document asspLineDoc = asspLineRTA.getDocument();
+                Document asspLineDoc = asspLine.getLineDoc();
                 Expression asspLineExp = ParseUtilities.parseDoc(asspLineDoc, objectLanguage.getNameString()).get(0);
 
                 if (SyntacticalFns.expTermFreeInFormula(asspLineExp, variableExp, objectLanguage.getNameString())) {
-                    List<Text> list = new ArrayList<>();
-                    list.add(new Text("Variable "));
+                    List<StyledText> list = new ArrayList<>();
+                    list.add(new StyledText("Variable "));
                     list.addAll(variableExp.toTextList());
-                    list.add(new Text(" is free in an undischarged assumption."));
+                    list.add(new StyledText(" is free in an undischarged assumption."));
                     return new Pair(false, list);
                 }
             }
@@ -228,10 +187,10 @@ public class RestrictedUnivIntro extends DerivationRule {
         //check variable free in goal
         Expression lineExp = ParseUtilities.parseDoc(lineDoc, objectLanguage.getNameString()).get(0);
         if (SyntacticalFns.expTermFreeInFormula(lineExp, variableExp, objectLanguage.getNameString())) {
-            List<Text> list = new ArrayList<>();
-            list.add(new Text("Variable "));
+            List<StyledText> list = new ArrayList<>();
+            list.add(new StyledText("Variable "));
             list.addAll(variableExp.toTextList());
-            list.add(new Text(" is free in "));
+            list.add(new StyledText(" is free in "));
             list.addAll(lineExp.toTextList());
             return new Pair(false, list);
         }
@@ -242,7 +201,7 @@ public class RestrictedUnivIntro extends DerivationRule {
         }
 
         if (asspOK) {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Subderivation (" + inputs[0] + ")-(" + inputs[1] + ") is not of the right form to justify (" + line.getLineNumberLabel().getText() + ") by " + getName() + ".")));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Subderivation (" + inputs[0] + ")-(" + inputs[1] + ") is not of the right form to justify (" + line.getLabel() + ") by " + getName() + ".")));
         }
         else {
             return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("To use this subderivation by " + getName() + " the exit strategy should be (\ud835\udc54, " + getName() + ").")));
@@ -250,5 +209,34 @@ public class RestrictedUnivIntro extends DerivationRule {
 
     }
 
-
+    private static class Forms {
+        final CompiledForm outputForm;
+        final CompiledForm topLineForm;
+        final CompiledForm bottomLineForm;
+        final CompiledForm outputForm1;
+        final CompiledForm topLineForm1;
+        final CompiledForm bottomLineForm1;
+        final CompiledForm outputForm2;
+        final CompiledForm topLineForm2;
+        final CompiledForm bottomLineForm2;
+
+        Forms(Language metaLanguage) {
+            String openBracketString = metaLanguage.getOpenBracket1();
+            String closeBracketString = metaLanguage.getCloseBracket1();
+            String commaDividerString = metaLanguage.getCommaDivider();
+            String dividerSymbol = metaLanguage.getDividerSymbol();
+
+            outputForm = CompiledForm.getInstance(openBracketString + "\u2200\ud835\udccd" + dividerSymbol + "\u212c" + closeBracketString + "\ud835\udcab", metaLanguage.getNameString());
+            topLineForm = CompiledForm.getInstance("\u212c \u2039 \ud835\udccd" + commaDividerString + "\ud835\udccb \u203a", metaLanguage.getNameString());
+            bottomLineForm = CompiledForm.getInstance("\ud835\udcab \u2039 \ud835\udccd" + commaDividerString + "\ud835\udccb \u203a", metaLanguage.getNameString());
+
+            outputForm1 = CompiledForm.getInstance("(∀\uD835\uDCCD \uE8A4 \uD835\uDCC9)\uD835\uDCAB", metaLanguage.getNameString());
+            topLineForm1 = CompiledForm.getInstance("(\uD835\uDCCB \uE8A4 \uD835\uDCC9)", metaLanguage.getNameString());
+            bottomLineForm1 = CompiledForm.getInstance("\ud835\udcab \u2039 \ud835\udccd" + commaDividerString + "\ud835\udccb \u203a", metaLanguage.getNameString());
+
+            outputForm2 = CompiledForm.getInstance("(∀\uD835\uDCCD \uE8A6 \uD835\uDCC9)\uD835\uDCAB", metaLanguage.getNameString());
+            topLineForm2 = CompiledForm.getInstance("\uD835\uDCCB \uE8A6 \uD835\uDCC9", metaLanguage.getNameString());
+            bottomLineForm2 = CompiledForm.getInstance("\ud835\udcab \u2039 \ud835\udccd" + commaDividerString + "\ud835\udccb \u203a", metaLanguage.getNameString());
+        }
+    }
 }
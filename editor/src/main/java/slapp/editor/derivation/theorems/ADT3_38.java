@@ -1,17 +1,17 @@
 package slapp.editor.derivation.theorems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.DecorationModel;
 import com.gluonhq.richtextarea.model.Document;
 import com.gluonhq.richtextarea.model.ParagraphDecoration;
 import com.gluonhq.richtextarea.model.TextDecoration;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.Pair;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
+import slapp.editor.parser.CompiledForm;
 import slapp.editor.parser.Language;
+import slapp.editor.parser.MetaForms;
 import slapp.editor.parser.MatchUtilities;
 import slapp.editor.parser.ParseUtilities;
 import slapp.editor.parser.TextMessageException;
@@ -22,116 +22,127 @@ import java.util.regex.Pattern;
 
 public class ADT3_38 extends Theorem {
 
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     public ADT3_38(String name, String... forms) {
         super(name, forms);
         String regName = name.replace(".", "\\.");
         regName = regName.replace("(", "\\(").replace(")", "\\)");
         String regexString = "^\\s*" + regName + "\\s*$";
         Pattern pattern = Pattern.compile(regexString);
-        setMatcher(pattern.matcher(""));
+        setPattern(pattern);
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
 
         Language objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        TextDecoration base = TextDecoration.builder().presets().superscript(false).build();
-        TextDecoration sup = TextDecoration.builder().presets().superscript(true).build();
-        ParagraphDecoration par = ParagraphDecoration.builder().presets().build();
-
-        //one place
-        List<DecorationModel> dec1List = List.of(
-                new DecorationModel(0, 11, base, par),
-                new DecorationModel(11, 1, sup, par),
-                new DecorationModel(12, 6, base, par),
-                new DecorationModel(18, 1, sup, par),
-                new DecorationModel(19, 4, base, par)
-        );
-        Document form1Doc = new Document("(\uE8AC\uD835\uDCC2\uD835\uDCC8 → (ℛ1\uD835\uDCC2 → ℛ1\uD835\uDCC8))", dec1List, 23);
-
-        //two place (metalanguage uses unabbreviated prefix form)
-        List<DecorationModel> dec2List = List.of(
-                new DecorationModel(0, 11, base, par),
-                new DecorationModel(11, 1, sup, par),
-                new DecorationModel(12, 8, base, par),
-                new DecorationModel(20, 1, sup, par),
-                new DecorationModel(21, 6, base, par)
-        );
-        Document form2aDoc = new Document("(\uE8AC\uD835\uDCC2\uD835\uDCC8 → (ℛ2\uD835\uDCC2\uD835\uDCC3 → ℛ2\uD835\uDCC8\uD835\uDCC3))", dec2List, 27);
-        Document form2bDoc = new Document("(\uE8AC\uD835\uDCC3\uD835\uDCC8 → (ℛ2\uD835\uDCC2\uD835\uDCC3 → ℛ2\uD835\uDCC2\uD835\uDCC8))", dec2List, 27);
-
-        //three place
-        List<DecorationModel> dec3List = List.of(
-                new DecorationModel(0, 11, base, par),
-                new DecorationModel(11, 1, sup, par),
-                new DecorationModel(12, 9, base, par),
-                new DecorationModel(21, 1, sup, par),
-                new DecorationModel(22, 7, base, par)
-        );
-        List<DecorationModel> dec3aList = List.of(
-                new DecorationModel(0, 10, base, par),
-                new DecorationModel(10, 1, sup, par),
-                new DecorationModel(11, 9, base, par),
-                new DecorationModel(20, 1, sup, par),
-                new DecorationModel(21, 8, base, par)
-        );
-        Document form3aDoc = new Document("(\uE8AC\uD835\uDCC2\uD835\uDCC8 → (ℛ3\uD835\uDCC2\uD835\uDCC3ℴ → ℛ3\uD835\uDCC8\uD835\uDCC3ℴ))", dec3List, 29);
-        Document form3bDoc = new Document("(\uE8AC\uD835\uDCC3\uD835\uDCC8 → (ℛ3\uD835\uDCC2\uD835\uDCC3ℴ → ℛ3\uD835\uDCC2\uD835\uDCC8ℴ))", dec3List, 29);
-        Document form3cDoc = new Document("(\uE8ACℴ\uD835\uDCC8 → (ℛ3\uD835\uDCC2\uD835\uDCC3ℴ → ℛ3\uD835\uDCC2\uD835\uDCC3\uD835\uDCC8))", dec3aList, 27);
-
-
-
-        MatchUtilities.clearFormMatch();
+        Forms forms = metaForms.get(metaLanguage);
+
+
+
+        MatchContext context = new MatchContext();
         try {
-            Pair<Boolean, Boolean> match = MatchUtilities.simpleFormMatch(form1Doc, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (match.getKey()) return new Pair(true, null);
+            boolean match = MatchUtilities.simpleFormMatch(context, forms.form1Doc, lineDoc, objectLanguage.getNameString());
+            if (match) return new Pair(true, null);
         }
         catch (TextMessageException e) {}
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            Pair<Boolean, Boolean> match = MatchUtilities.simpleFormMatch(form2aDoc, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (match.getKey()) return new Pair(true, null);
+            boolean match = MatchUtilities.simpleFormMatch(context, forms.form2aDoc, lineDoc, objectLanguage.getNameString());
+            if (match) return new Pair(true, null);
         }
         catch (TextMessageException e) {}
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            Pair<Boolean, Boolean> match = MatchUtilities.simpleFormMatch(form2bDoc, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (match.getKey()) return new Pair(true, null);
+            boolean match = MatchUtilities.simpleFormMatch(context, forms.form2bDoc, lineDoc, objectLanguage.getNameString());
+            if (match) return new Pair(true, null);
         }
         catch (TextMessageException e) {}
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            Pair<Boolean, Boolean> match = MatchUtilities.simpleFormMatch(form3aDoc, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (match.getKey()) return new Pair(true, null);
+            boolean match = MatchUtilities.simpleFormMatch(context, forms.form3aDoc, lineDoc, objectLanguage.getNameString());
+            if (match) return new Pair(true, null);
         }
         catch (TextMessageException e) {}
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            Pair<Boolean, Boolean> match = MatchUtilities.simpleFormMatch(form3bDoc, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (match.getKey()) return new Pair(true, null);
+            boolean match = MatchUtilities.simpleFormMatch(context, forms.form3bDoc, lineDoc, objectLanguage.getNameString());
+            if (match) return new Pair(true, null);
         }
         catch (TextMessageException e) {}
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            Pair<Boolean, Boolean> match = MatchUtilities.simpleFormMatch(form3cDoc, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (match.getKey()) return new Pair(true, null);
+            boolean match = MatchUtilities.simpleFormMatch(context, forms.form3cDoc, lineDoc, objectLanguage.getNameString());
+            if (match) return new Pair(true, null);
         }
         catch (TextMessageException e) {}
 
-        return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLineNumberLabel().getText() + ") is not an instance of " + getName() + ".")));
+        return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLabel() + ") is not an instance of " + getName() + ".")));
 
 
     }
 
+    private static class Forms {
+        final CompiledForm form1Doc;
+        final CompiledForm form2aDoc;
+        final CompiledForm form2bDoc;
+        final CompiledForm form3aDoc;
+        final CompiledForm form3bDoc;
+        final CompiledForm form3cDoc;
+
+        Forms(Language metaLanguage) {
+            TextDecoration base = TextDecoration.builder().presets().superscript(false).build();
+            TextDecoration sup = TextDecoration.builder().presets().superscript(true).build();
+            ParagraphDecoration par = ParagraphDecoration.builder().presets().build();
+
+            //one place
+            List<DecorationModel> dec1List = List.of(
+                    new DecorationModel(0, 11, base, par),
+                    new DecorationModel(11, 1, sup, par),
+                    new DecorationModel(12, 6, base, par),
+                    new DecorationModel(18, 1, sup, par),
+                    new DecorationModel(19, 4, base, par)
+            );
+            form1Doc = CompiledForm.getInstance(new Document("(\uE8AC\uD835\uDCC2\uD835\uDCC8 → (ℛ1\uD835\uDCC2 → ℛ1\uD835\uDCC8))", dec1List, 23), metaLanguage.getNameString());
+
+            //two place (metalanguage uses unabbreviated prefix form)
+            List<DecorationModel> dec2List = List.of(
+                    new DecorationModel(0, 11, base, par),
+                    new DecorationModel(11, 1, sup, par),
+                    new DecorationModel(12, 8, base, par),
+                    new DecorationModel(20, 1, sup, par),
+                    new DecorationModel(21, 6, base, par)
+            );
+            form2aDoc = CompiledForm.getInstance(new Document("(\uE8AC\uD835\uDCC2\uD835\uDCC8 → (ℛ2\uD835\uDCC2\uD835\uDCC3 → ℛ2\uD835\uDCC8\uD835\uDCC3))", dec2List, 27), metaLanguage.getNameString());
+            form2bDoc = CompiledForm.getInstance(new Document("(\uE8AC\uD835\uDCC3\uD835\uDCC8 → (ℛ2\uD835\uDCC2\uD835\uDCC3 → ℛ2\uD835\uDCC2\uD835\uDCC8))", dec2List, 27), metaLanguage.getNameString());
+
+            //three place
+            List<DecorationModel> dec3List = List.of(
+                    new DecorationModel(0, 11, base, par),
+                    new DecorationModel(11, 1, sup, par),
+                    new DecorationModel(12, 9, base, par),
+                    new DecorationModel(21, 1, sup, par),
+                    new DecorationModel(22, 7, base, par)
+            );
+            List<DecorationModel> dec3aList = List.of(
+                    new DecorationModel(0, 10, base, par),
+                    new DecorationModel(10, 1, sup, par),
+                    new DecorationModel(11, 9, base, par),
+                    new DecorationModel(20, 1, sup, par),
+                    new DecorationModel(21, 8, base, par)
+            );
+            form3aDoc = CompiledForm.getInstance(new Document("(\uE8AC\uD835\uDCC2\uD835\uDCC8 → (ℛ3\uD835\uDCC2\uD835\uDCC3ℴ → ℛ3\uD835\uDCC8\uD835\uDCC3ℴ))", dec3List, 29), metaLanguage.getNameString());
+            form3bDoc = CompiledForm.getInstance(new Document("(\uE8AC\uD835\uDCC3\uD835\uDCC8 → (ℛ3\uD835\uDCC2\uD835\uDCC3ℴ → ℛ3\uD835\uDCC2\uD835\uDCC8ℴ))", dec3List, 29), metaLanguage.getNameString());
+            form3cDoc = CompiledForm.getInstance(new Document("(\uE8ACℴ\uD835\uDCC8 → (ℛ3\uD835\uDCC2\uD835\uDCC3ℴ → ℛ3\uD835\uDCC2\uD835\uDCC3\uD835\uDCC8))", dec3aList, 27), metaLanguage.getNameString());
+        }
+    }
 }
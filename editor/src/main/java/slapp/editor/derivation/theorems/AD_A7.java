@@ -1,17 +1,17 @@
 package slapp.editor.derivation.theorems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.DecorationModel;
 import com.gluonhq.richtextarea.model.Document;
 import com.gluonhq.richtextarea.model.ParagraphDecoration;
 import com.gluonhq.richtextarea.model.TextDecoration;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.Pair;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
+import slapp.editor.parser.CompiledForm;
 import slapp.editor.parser.Language;
+import slapp.editor.parser.MetaForms;
 import slapp.editor.parser.MatchUtilities;
 import slapp.editor.parser.ParseUtilities;
 import slapp.editor.parser.TextMessageException;
@@ -22,109 +22,120 @@ import java.util.regex.Pattern;
 
 public class AD_A7 extends Theorem {
 
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     public AD_A7(String name, String... forms) {
         super(name, forms);
         String regName = name.replace(".", "\\.");
         regName = regName.replace("(", "\\(").replace(")", "\\)");
         String regexString = "^\\s*" + regName + "\\s*$";
         Pattern pattern = Pattern.compile(regexString);
-        setMatcher(pattern.matcher(""));
+        setPattern(pattern);
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
 
         Language objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        TextDecoration base = TextDecoration.builder().presets().superscript(false).build();
-        TextDecoration sup = TextDecoration.builder().presets().superscript(true).build();
-        ParagraphDecoration par = ParagraphDecoration.builder().presets().build();
-
-        // one place
-        List<DecorationModel> dec1List = List.of(
-                new DecorationModel(0, 12, base, par),
-                new DecorationModel(12, 1, sup, par),
-                new DecorationModel(13, 4, base, par),
-                new DecorationModel(17, 1, sup, par),
-                new DecorationModel(18, 3, base, par)
-        );
-        Document form1Doc = new Document("(\uE8AC\uD835\uDCCD\uD835\uDCCC → \uE8AC\uD835\uDCBD1\uD835\uDCCD\uD835\uDCBD1\uD835\uDCCC)", dec1List, 21);
-
-        //two place (metalanguage uses unabbreviated prefix form)
-        List<DecorationModel> dec2List = List.of(
-                new DecorationModel(0, 12, base, par),
-                new DecorationModel(12, 1, sup, par),
-                new DecorationModel(13, 6, base, par),
-                new DecorationModel(19, 1, sup, par),
-                new DecorationModel(20, 5, base, par)
-        );
-        Document form2aDoc = new Document("(\uE8AC\uD835\uDCCD\uD835\uDCCB → \uE8AC\uD835\uDCBB2\uD835\uDCCD\uD835\uDCCE\uD835\uDCBB2\uD835\uDCCB\uD835\uDCCE)", dec2List, 25);
-        Document form2bDoc = new Document("(\uE8AC\uD835\uDCCE\uD835\uDCCB → \uE8AC\uD835\uDCBB2\uD835\uDCCD\uD835\uDCCE\uD835\uDCBB2\uD835\uDCCD\uD835\uDCCB)", dec2List, 25);
-
-        //three place
-        List<DecorationModel> dec3List = List.of(
-                new DecorationModel(0, 12, base, par),
-                new DecorationModel(12, 1, sup, par),
-                new DecorationModel(13, 8, base, par),
-                new DecorationModel(21, 1, sup, par),
-                new DecorationModel(22, 7, base, par)
-        );
-        Document form3aDoc = new Document("(\uE8AC\uD835\uDCCD\uD835\uDCCC → \uE8AC\uD835\uDCBD3\uD835\uDCCD\uD835\uDCCE\uD835\uDCCF\uD835\uDCBD3\uD835\uDCCC\uD835\uDCCE\uD835\uDCCF)", dec3List, 29);
-        Document form3bDoc = new Document("(\uE8AC\uD835\uDCCE\uD835\uDCCC → \uE8AC\uD835\uDCBD3\uD835\uDCCD\uD835\uDCCE\uD835\uDCCF\uD835\uDCBD3\uD835\uDCCD\uD835\uDCCC\uD835\uDCCF)", dec3List, 29);
-        Document form3cDoc = new Document("(\uE8AC\uD835\uDCCF\uD835\uDCCC → \uE8AC\uD835\uDCBD3\uD835\uDCCD\uD835\uDCCE\uD835\uDCCF\uD835\uDCBD3\uD835\uDCCD\uD835\uDCCE\uD835\uDCCC)", dec3List, 29);
+        Forms forms = metaForms.get(metaLanguage);
 
         boolean resultGood = false;
 
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         try {
-            Pair<Boolean, Boolean> match = MatchUtilities.simpleFormMatch(form1Doc, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (match.getKey()) return new Pair(true, null);
+            boolean match = MatchUtilities.simpleFormMatch(context, forms.form1Doc, lineDoc, objectLanguage.getNameString());
+            if (match) return new Pair(true, null);
         }
         catch (TextMessageException e) {}
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            Pair<Boolean, Boolean> match = MatchUtilities.simpleFormMatch(form2aDoc, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (match.getKey()) return new Pair(true, null);
+            boolean match = MatchUtilities.simpleFormMatch(context, forms.form2aDoc, lineDoc, objectLanguage.getNameString());
+            if (match) return new Pair(true, null);
         }
         catch (TextMessageException e) {}
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            Pair<Boolean, Boolean> match = MatchUtilities.simpleFormMatch(form2bDoc, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (match.getKey()) return new Pair(true, null);
+            boolean match = MatchUtilities.simpleFormMatch(context, forms.form2bDoc, lineDoc, objectLanguage.getNameString());
+            if (match) return new Pair(true, null);
         }
         catch (TextMessageException e) {}
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            Pair<Boolean, Boolean> match = MatchUtilities.simpleFormMatch(form3aDoc, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (match.getKey()) return new Pair(true, null);
+            boolean match = MatchUtilities.simpleFormMatch(context, forms.form3aDoc, lineDoc, objectLanguage.getNameString());
+            if (match) return new Pair(true, null);
         }
         catch (TextMessageException e) {}
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            Pair<Boolean, Boolean> match = MatchUtilities.simpleFormMatch(form3bDoc, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (match.getKey()) return new Pair(true, null);
+            boolean match = MatchUtilities.simpleFormMatch(context, forms.form3bDoc, lineDoc, objectLanguage.getNameString());
+            if (match) return new Pair(true, null);
         }
         catch (TextMessageException e) {}
 
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            Pair<Boolean, Boolean> match = MatchUtilities.simpleFormMatch(form3cDoc, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (match.getKey()) return new Pair(true, null);
+            boolean match = MatchUtilities.simpleFormMatch(context, forms.form3cDoc, lineDoc, objectLanguage.getNameString());
+            if (match) return new Pair(true, null);
         }
         catch (TextMessageException e) {}
 
-        return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLineNumberLabel().getText() + ") is not an instance of " + getName() + ".")));
+        return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLabel() + ") is not an instance of " + getName() + ".")));
 
 
     }
 
+    private static class Forms {
+        final CompiledForm form1Doc;
+        final CompiledForm form2aDoc;
+        final CompiledForm form2bDoc;
+        final CompiledForm form3aDoc;
+        final CompiledForm form3bDoc;
+        final CompiledForm form3cDoc;
+
+        Forms(Language metaLanguage) {
+            TextDecoration base = TextDecoration.builder().presets().superscript(false).build();
+            TextDecoration sup = TextDecoration.builder().presets().superscript(true).build();
+            ParagraphDecoration par = ParagraphDecoration.builder().presets().build();
+
+            // one place
+            List<DecorationModel> dec1List = List.of(
+                    new DecorationModel(0, 12, base, par),
+                    new DecorationModel(12, 1, sup, par),
+                    new DecorationModel(13, 4, base, par),
+                    new DecorationModel(17, 1, sup, par),
+                    new DecorationModel(18, 3, base, par)
+            );
+            form1Doc = CompiledForm.getInstance(new Document("(\uE8AC\uD835\uDCCD\uD835\uDCCC → \uE8AC\uD835\uDCBD1\uD835\uDCCD\uD835\uDCBD1\uD835\uDCCC)", dec1List, 21), metaLanguage.getNameString());
+
+            //two place (metalanguage uses unabbreviated prefix form)
+            List<DecorationModel> dec2List = List.of(
+                    new DecorationModel(0, 12, base, par),
+                    new DecorationModel(12, 1, sup, par),
+                    new DecorationModel(13, 6, base, par),
+                    new DecorationModel(19, 1, sup, par),
+                    new DecorationModel(20, 5, base, par)
+            );
+            form2aDoc = CompiledForm.getInstance(new Document("(\uE8AC\uD835\uDCCD\uD835\uDCCB → \uE8AC\uD835\uDCBB2\uD835\uDCCD\uD835\uDCCE\uD835\uDCBB2\uD835\uDCCB\uD835\uDCCE)", dec2List, 25), metaLanguage.getNameString());
+            form2bDoc = CompiledForm.getInstance(new Document("(\uE8AC\uD835\uDCCE\uD835\uDCCB → \uE8AC\uD835\uDCBB2\uD835\uDCCD\uD835\uDCCE\uD835\uDCBB2\uD835\uDCCD\uD835\uDCCB)", dec2List, 25), metaLanguage.getNameString());
+
+            //three place
+            List<DecorationModel> dec3List = List.of(
+                    new DecorationModel(0, 12, base, par),
+                    new DecorationModel(12, 1, sup, par),
+                    new DecorationModel(13, 8, base, par),
+                    new DecorationModel(21, 1, sup, par),
+                    new DecorationModel(22, 7, base, par)
+            );
+            form3aDoc = CompiledForm.getInstance(new Document("(\uE8AC\uD835\uDCCD\uD835\uDCCC → \uE8AC\uD835\uDCBD3\uD835\uDCCD\uD835\uDCCE\uD835\uDCCF\uD835\uDCBD3\uD835\uDCCC\uD835\uDCCE\uD835\uDCCF)", dec3List, 29), metaLanguage.getNameString());
+            form3bDoc = CompiledForm.getInstance(new Document("(\uE8AC\uD835\uDCCE\uD835\uDCCC → \uE8AC\uD835\uDCBD3\uD835\uDCCD\uD835\uDCCE\uD835\uDCCF\uD835\uDCBD3\uD835\uDCCD\uD835\uDCCC\uD835\uDCCF)", dec3List, 29), metaLanguage.getNameString());
+            form3cDoc = CompiledForm.getInstance(new Document("(\uE8AC\uD835\uDCCF\uD835\uDCCC → \uE8AC\uD835\uDCBD3\uD835\uDCCD\uD835\uDCCE\uD835\uDCCF\uD835\uDCBD3\uD835\uDCCD\uD835\uDCCE\uD835\uDCCC)", dec3List, 29), metaLanguage.getNameString());
+        }
+    }
 }
@@ -1,13 +1,8 @@
 package slapp.editor.derivation.theorems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
 import slapp.editor.parser.*;
 import slapp.editor.parser.grammatical_parts.Formula;
 
@@ -20,7 +15,10 @@ import java.util.regex.Pattern;
 //need this (instead of zero input) to get free for message.
 
 public class ADqT3_28 extends Theorem {
-    List<Text> freeVariableFailure = new ArrayList<>();
+
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
+    List<StyledText> freeVariableFailure = new ArrayList<>();
     Language objectLanguage;
 
     public ADqT3_28(String name, String... forms) {
@@ -29,27 +27,24 @@ public class ADqT3_28 extends Theorem {
         regName = regName.replace("(", "\\(").replace(")", "\\)");
         String regexString = "^\\s*" + regName + "\\s*$";
         Pattern pattern = Pattern.compile(regexString);
-        setMatcher(pattern.matcher(""));
+        setPattern(pattern);
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
 
         objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        String form = "(∀\uD835\uDCCD\uD835\uDCAB → ∀\uD835\uDCCB\uD835\uDCAB‹\uD835\uDCCD, \uD835\uDCCB›)";
+        Forms forms = metaForms.get(metaLanguage);
 
 
         boolean resultGood = false;
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         try {
-            Pair<Boolean, Boolean> match = MatchUtilities.simpleFormMatch(new Document(form), lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (match.getKey()) resultGood = true;
+            boolean match = MatchUtilities.simpleFormMatch(context, forms.form, lineDoc, objectLanguage.getNameString());
+            if (match) resultGood = true;
         }
         catch (TextMessageException e) {
             return new Pair(false, e.getMessageList());
@@ -59,27 +54,33 @@ public class ADqT3_28 extends Theorem {
 
 
         //check variable free in universal
-        Expression variableExp = ((Formula) MatchUtilities.getTransformList().get(0).getKey()).getSubTransform().getExp2().getMatch();
+        Expression variableExp = ((Formula) context.getTransformList().get(0).getKey()).getSubTransform().getExp2().getMatch(context);
   //      System.out.println(variableExp);
 
         List<Expression> immediateSubs = SyntacticalFns.immediateSubformulas(lineDoc, objectLanguage.getNameString());
 
         Expression antecedent = immediateSubs.get(0);
         if (SyntacticalFns.expTermFreeInFormula(antecedent, variableExp, objectLanguage.getNameString())) {
-            List<Text> list = new ArrayList<>();
-            list.add(new Text("Variable "));
+            List<StyledText> list = new ArrayList<>();
+            list.add(new StyledText("Variable "));
             list.addAll(variableExp.toTextList());
-            list.add(new Text(" is free in "));
+            list.add(new StyledText(" is free in "));
             list.addAll(antecedent.toTextList());
             return new Pair(false, list);
         }
 
         if (resultGood) return new Pair(true, null);
         else {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLineNumberLabel().getText() + ") is not an instance of " + getName() + ".")));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLabel() + ") is not an instance of " + getName() + ".")));
         }
 
     }
 
+    private static class Forms {
+        final CompiledForm form;
 
+        Forms(Language metaLanguage) {
+            form = CompiledForm.getInstance("(∀\uD835\uDCCD\uD835\uDCAB → ∀\uD835\uDCCB\uD835\uDCAB‹\uD835\uDCCD, \uD835\uDCCB›)", metaLanguage.getNameString());
+        }
+    }
 }
@@ -1,13 +1,8 @@
 package slapp.editor.derivation.theorems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
 import slapp.editor.parser.*;
 import slapp.editor.parser.grammatical_parts.MFormula;
 import slapp.editor.parser.grammatical_parts.Term;
@@ -20,8 +15,11 @@ import java.util.List;
 import java.util.regex.Pattern;
 
 public class ADqT3_29 extends Theorem {
+
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     Language objectLanguage;
-    List<Text> freeVariableFailure;
+    List<StyledText> freeVariableFailure;
 
     public ADqT3_29(String name, String... forms) {
         super(name, forms);
@@ -29,27 +27,21 @@ public class ADqT3_29 extends Theorem {
         regName = regName.replace("(", "\\(").replace(")", "\\)");
         String regexString = "^\\s*\\d+\\s*" + regName + "\\s*$";
         Pattern pattern = Pattern.compile(regexString);
-        setMatcher(pattern.matcher(""));
+        setPattern(pattern);
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
+        Document lineDoc = line.getLineDoc();
 
-        ViewLine inputLine;
-        Pair<ViewLine, List<Text>> inputLine1Pair = checker.getLineFromLabel(inputs[0]);
+        CheckLine inputLine;
+        Pair<CheckLine, List<StyledText>> inputLine1Pair = checker.getLineFromLabel(inputs[0]);
         if (inputLine1Pair.getKey() != null) inputLine = inputLine1Pair.getKey();
         else return new Pair(false, inputLine1Pair.getValue());
 
-        BoxedDRTA inputBDRTA = inputLine.getLineContentBoxedDRTA();
-        RichTextArea inputRTA = inputBDRTA.getRTA();
-        inputRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc = inputRTA.getDocument();
+        Document inputDoc = inputLine.getLineDoc();
         if (inputDoc.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[0] + ").")));
 
-        Pair<Boolean, List<Text>> accessibilityPair = checker.lineIsAccessibleTo(inputLine, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair = checker.lineIsAccessibleTo(inputLine, line);
         if (!accessibilityPair.getKey()) {
             return accessibilityPair;
         }
@@ -57,34 +49,33 @@ public class ADqT3_29 extends Theorem {
         objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        String inputForm = "(\uD835\uDCAB → \uD835\uDCAC)";
-        String outputForm = "(\uD835\uDCAB → ∀\uD835\uDCCD\uD835\uDCAC)";
+        Forms forms = metaForms.get(metaLanguage);
 
         boolean resultGood = false;
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         try {
-            Pair<Boolean, Boolean> inputMatch = MatchUtilities.simpleFormMatch(new Document(inputForm), inputDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean inputMatch = MatchUtilities.simpleFormMatch(context, forms.inputForm, inputDoc, objectLanguage.getNameString());
         }
         catch (TextMessageException e) {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + inputs[0] + ") is not of the right form to result in (" + line.getLineNumberLabel().getText() + ") by " + getName() + ".")));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + inputs[0] + ") is not of the right form to result in (" + line.getLabel() + ") by " + getName() + ".")));
         }
 
         try {
-            Pair<Boolean, Boolean> outputMatchA= MatchUtilities.simpleFormMatch(new Document(outputForm), lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (outputMatchA.getKey()) resultGood = true;
+            boolean outputMatchA = MatchUtilities.simpleFormMatch(context, forms.outputForm, lineDoc, objectLanguage.getNameString());
+            if (outputMatchA) resultGood = true;
         }
         catch (TextMessageException e) {   }
 
-        boolean xFree = xFreeInP();
+        boolean xFree = xFreeInP(context);
         if (xFree) return new Pair(false, freeVariableFailure);
         if (resultGood) return new Pair(true, null);
 
         else {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLineNumberLabel().getText() + ") does not result from (" + inputs[0] + ") by " + getName() + ".")));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLabel() + ") does not result from (" + inputs[0] + ") by " + getName() + ".")));
         }
     }
 
-    private boolean xFreeInP() {
+    private boolean xFreeInP(MatchContext context) {
         Term variableMatch = null;
         Expression formulaMatch = null;
 
@@ -95,7 +86,7 @@ public class ADqT3_29 extends Theorem {
                 Term term = new Term();
                 term.setLevel(0);
                 ArrayList children = new ArrayList();
-                children.add(mVariable.getMatch());
+                children.add(mVariable.getMatch(context));
                 term.setChildren(children);
                 term.setCombines(true);
                 term.setTermType(TermType.VARIABLE);
@@ -107,7 +98,7 @@ public class ADqT3_29 extends Theorem {
         List<MFormula> mFormulas = MFormula.getmFormulas();
         for (MFormula mFormula : mFormulas) {
             if (mFormula.getFormulaSym().getBaseStr().equals("\ud835\udcab")) {
-                formulaMatch = mFormula.getMatch();
+                formulaMatch = mFormula.getMatch(context);
             }
         }
 
@@ -118,7 +109,7 @@ public class ADqT3_29 extends Theorem {
             boolean freeInFormula = SyntacticalFns.expTermFreeInFormula(formulaMatch, variableMatch, objectLanguage.getNameString());
 
             if (freeInFormula) {
-                List<Text> texts = new ArrayList<>();
+                List<StyledText> texts = new ArrayList<>();
                 texts.add(ParseUtilities.newRegularText("Variable "));
                 texts.addAll(variableMatch.toTextList());
                 texts.add(ParseUtilities.newRegularText(" is free in formula "));
@@ -135,4 +126,13 @@ public class ADqT3_29 extends Theorem {
 
     }
 
+    private static class Forms {
+        final CompiledForm inputForm;
+        final CompiledForm outputForm;
+
+        Forms(Language metaLanguage) {
+            inputForm = CompiledForm.getInstance("(\uD835\uDCAB → \uD835\uDCAC)", metaLanguage.getNameString());
+            outputForm = CompiledForm.getInstance("(\uD835\uDCAB → ∀\uD835\uDCCD\uD835\uDCAC)", metaLanguage.getNameString());
+        }
+    }
 }
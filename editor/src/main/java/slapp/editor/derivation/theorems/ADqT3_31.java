@@ -1,13 +1,8 @@
 package slapp.editor.derivation.theorems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
 import slapp.editor.parser.*;
 import slapp.editor.parser.grammatical_parts.MFormula;
 import slapp.editor.parser.grammatical_parts.Term;
@@ -20,8 +15,11 @@ import java.util.List;
 import java.util.regex.Pattern;
 
 public class ADqT3_31 extends Theorem {
+
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     Language objectLanguage;
-    List<Text> freeVariableFailure;
+    List<StyledText> freeVariableFailure;
 
     public ADqT3_31(String name, String... forms) {
         super(name, forms);
@@ -29,40 +27,37 @@ public class ADqT3_31 extends Theorem {
         regName = regName.replace("(", "\\(").replace(")", "\\)");
         String regexString = "^\\s*" + regName + "\\s*$";
         Pattern pattern = Pattern.compile(regexString);
-        setMatcher(pattern.matcher(""));
+        setPattern(pattern);
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
 
         objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        String form = "(∀\uD835\uDCCD(\uD835\uDCAC → \uD835\uDCAB) → (∃\uD835\uDCCD\uD835\uDCAC → \uD835\uDCAB))";
+        Forms forms = metaForms.get(metaLanguage);
 
         boolean resultGood = false;
 
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         try {
-            Pair<Boolean, Boolean> match = MatchUtilities.simpleFormMatch(new Document(form), lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (match.getKey()) resultGood = true;
+            boolean match = MatchUtilities.simpleFormMatch(context, forms.form, lineDoc, objectLanguage.getNameString());
+            if (match) resultGood = true;
         }
         catch (TextMessageException e) {}
 
-        boolean xFree = xFreeInP();
+        boolean xFree = xFreeInP(context);
         if (xFree) return new Pair(false, freeVariableFailure);
         if (resultGood) return new Pair(true, null);
         else {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLineNumberLabel().getText() + ") is not an instance of " + getName() + ".")));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLabel() + ") is not an instance of " + getName() + ".")));
         }
 
     }
 
-    private boolean xFreeInP() {
+    private boolean xFreeInP(MatchContext context) {
         Term variableMatch = null;
         Expression formulaMatch = null;
 
@@ -73,7 +68,7 @@ public class ADqT3_31 extends Theorem {
                 Term term = new Term();
                 term.setLevel(0);
                 ArrayList children = new ArrayList();
-                children.add(mVariable.getMatch());
+                children.add(mVariable.getMatch(context));
                 term.setChildren(children);
                 term.setCombines(true);
                 term.setTermType(TermType.VARIABLE);
@@ -85,7 +80,7 @@ public class ADqT3_31 extends Theorem {
         List<MFormula> mFormulas = MFormula.getmFormulas();
         for (MFormula mFormula : mFormulas) {
             if (mFormula.getFormulaSym().getBaseStr().equals("\ud835\udcab")) {
-                formulaMatch = mFormula.getMatch();
+                formulaMatch = mFormula.getMatch(context);
             }
         }
 
@@ -96,7 +91,7 @@ public class ADqT3_31 extends Theorem {
             boolean freeInFormula = SyntacticalFns.expTermFreeInFormula(formulaMatch, variableMatch, objectLanguage.getNameString());
 
             if (freeInFormula) {
-                List<Text> texts = new ArrayList<>();
+                List<StyledText> texts = new ArrayList<>();
                 texts.add(ParseUtilities.newRegularText("Variable "));
                 texts.addAll(variableMatch.toTextList());
                 texts.add(ParseUtilities.newRegularText(" is free in formula "));
@@ -113,5 +108,11 @@ public class ADqT3_31 extends Theorem {
 
     }
 
+    private static class Forms {
+        final CompiledForm form;
 
+        Forms(Language metaLanguage) {
+            form = CompiledForm.getInstance("(∀\uD835\uDCCD(\uD835\uDCAC → \uD835\uDCAB) → (∃\uD835\uDCCD\uD835\uDCAC → \uD835\uDCAB))", metaLanguage.getNameString());
+        }
+    }
 }
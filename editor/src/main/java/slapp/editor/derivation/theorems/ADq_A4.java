@@ -1,18 +1,9 @@
 package slapp.editor.derivation.theorems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
 import slapp.editor.parser.*;
-import slapp.editor.parser.grammatical_parts.MFormula;
-import slapp.editor.parser.grammatical_parts.Term;
-import slapp.editor.parser.grammatical_parts.TermType;
-import slapp.editor.parser.symbols.MVariable;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -23,7 +14,10 @@ import java.util.regex.Pattern;
 //need this (instead of zero input) to get free for message.
 
 public class ADq_A4 extends Theorem {
-    List<Text> freeVariableFailure = new ArrayList<>();
+
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
+    List<StyledText> freeVariableFailure = new ArrayList<>();
     Language objectLanguage;
 
     public ADq_A4(String name, String... forms) {
@@ -32,34 +26,37 @@ public class ADq_A4 extends Theorem {
         regName = regName.replace("(", "\\(").replace(")", "\\)");
         String regexString = "^\\s*" + regName + "\\s*$";
         Pattern pattern = Pattern.compile(regexString);
-        setMatcher(pattern.matcher(""));
+        setPattern(pattern);
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
 
         objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        String form = "(∀\uD835\uDCCD\uD835\uDCAB → \ud835\udcab\u2039\ud835\udccd , \ud835\udcc9\u203a)";
+        Forms forms = metaForms.get(metaLanguage);
 
 
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         try {
-            Pair<Boolean, Boolean> resultGood = MatchUtilities.simpleFormMatch(new Document(form), lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (resultGood.getKey() == true ) return new Pair(true, null);
+            boolean resultGood = MatchUtilities.simpleFormMatch(context, forms.form, lineDoc, objectLanguage.getNameString());
+            if (resultGood == true ) return new Pair(true, null);
         }
         catch (TextMessageException e) {
             return new Pair(false, e.getMessageList());
         }
 
-        return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLineNumberLabel().getText() + ") is not an instance of " + getName() + ".")));
+        return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLabel() + ") is not an instance of " + getName() + ".")));
 
     }
 
+    private static class Forms {
+        final CompiledForm form;
 
+        Forms(Language metaLanguage) {
+            form = CompiledForm.getInstance("(∀\uD835\uDCCD\uD835\uDCAB → \ud835\udcab\u2039\ud835\udccd , \ud835\udcc9\u203a)", metaLanguage.getNameString());
+        }
+    }
 }
@@ -1,15 +1,9 @@
 package slapp.editor.derivation.theorems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
 import slapp.editor.parser.*;
-import slapp.editor.parser.grammatical_parts.MFormula;
 import slapp.editor.parser.grammatical_parts.MTerm;
 import slapp.editor.parser.grammatical_parts.Term;
 import slapp.editor.parser.grammatical_parts.TermType;
@@ -21,8 +15,11 @@ import java.util.List;
 import java.util.regex.Pattern;
 
 public class QND_T51 extends Theorem {
+
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     Language objectLanguage;
-    List<Text> freeVariableFailure;
+    List<StyledText> freeVariableFailure;
 
     public QND_T51(String name, String... forms) {
         super(name, forms);
@@ -30,40 +27,37 @@ public class QND_T51 extends Theorem {
         regName = regName.replace("(", "\\(").replace(")", "\\)");
         String regexString = "^\\s*" + regName + "\\s*$";
         Pattern pattern = Pattern.compile(regexString);
-        setMatcher(pattern.matcher(""));
+        setPattern(pattern);
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
+        Document lineDoc = line.getLineDoc();
 
         objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        String form = "(∼\uE8AC\uD835\uDCC9\uE886 → ∃\uD835\uDCCD\uE8AC\uD835\uDCC9\uD835\uDC46\uD835\uDCCD)";
+        Forms forms = metaForms.get(metaLanguage);
 
         boolean resultGood = false;
 
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         try {
-            Pair<Boolean, Boolean> match = MatchUtilities.simpleFormMatch(new Document(form), lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
-            if (match.getKey()) resultGood = true;
+            boolean match = MatchUtilities.simpleFormMatch(context, forms.form, lineDoc, objectLanguage.getNameString());
+            if (match) resultGood = true;
         } catch (TextMessageException e) {
         }
 
-        boolean xFree = xFreeInT();
+        boolean xFree = xFreeInT(context);
         if (xFree) return new Pair(false, freeVariableFailure);
         if (resultGood) return new Pair(true, null);
         else {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLineNumberLabel().getText() + ") is not an instance of " + getName() + ".")));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Line (" + line.getLabel() + ") is not an instance of " + getName() + ".")));
         }
     }
 
 
 
-    private boolean xFreeInT() {
+    private boolean xFreeInT(MatchContext context) {
         Term variableMatch = null;
         Expression matchTerm = null;
 
@@ -74,7 +68,7 @@ public class QND_T51 extends Theorem {
                 Term term = new Term();
                 term.setLevel(0);
                 ArrayList children = new ArrayList();
-                children.add(mVariable.getMatch());
+                children.add(mVariable.getMatch(context));
                 term.setChildren(children);
                 term.setCombines(true);
                 term.setTermType(TermType.VARIABLE);
@@ -86,7 +80,7 @@ public class QND_T51 extends Theorem {
         List<MTerm> mTerms = MTerm.getmTerms();
         for (MTerm mTerm : mTerms) {
             if (mTerm.getmTermSym().getBaseStr().equals("\ud835\udcc9")) {
-                matchTerm = mTerm.getMatch();
+                matchTerm = mTerm.getMatch(context);
             }
         }
 
@@ -97,7 +91,7 @@ public class QND_T51 extends Theorem {
             boolean freeInTerm = SyntacticalFns.expTermFreeInFormula(matchTerm, variableMatch, objectLanguage.getNameString());
 
             if (freeInTerm) {
-                List<Text> texts = new ArrayList<>();
+                List<StyledText> texts = new ArrayList<>();
                 texts.add(ParseUtilities.newRegularText("Variable "));
                 texts.addAll(variableMatch.toTextList());
                 if (!objectLanguage.isObjectMetalanguage()) texts.add(ParseUtilities.newRegularText(" is free in term "));
@@ -114,4 +108,11 @@ public class QND_T51 extends Theorem {
         }
     }
 
+    private static class Forms {
+        final CompiledForm form;
+
+        Forms(Language metaLanguage) {
+            form = CompiledForm.getInstance("(∼\uE8AC\uD835\uDCC9\uE886 → ∃\uD835\uDCCD\uE8AC\uD835\uDCC9\uD835\uDC46\uD835\uDCCD)", metaLanguage.getNameString());
+        }
+    }
 }
@@ -1,18 +1,22 @@
 package slapp.editor.derivation.theorems;
 
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.parser.CompiledForm;
+import slapp.editor.parser.Language;
+import slapp.editor.parser.MetaForms;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.Pair;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public abstract class Theorem {
     private String name;
-    private Matcher matcher;
+    private Pattern pattern;
     private String[] forms;
+    private final MetaForms<List<CompiledForm>> compiledForms = new MetaForms<>(this::compileForms);
 
 
     public Theorem(String name, String... forms) {
@@ -22,22 +26,40 @@ public abstract class Theorem {
 
 
     public boolean matches(String input) {
-        matcher.reset(input);
-        return matcher.matches();
+        return pattern.matcher(input).matches();
     }
 
-    public void setMatcher(Matcher matcher) {
-        this.matcher = matcher;
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    public void setPattern(Pattern pattern) {
+        this.pattern = pattern;
     }
 
     public String[] getForms() {
         return forms;
     }
 
+    /*
+     * The forms of the theorem compiled in metaLanguage, in order (compiled once for each metalanguage)
+     * @param metaLanguage the metalanguage
+     * @return list of compiled forms
+     */
+    public List<CompiledForm> getCompiledForms(Language metaLanguage) {
+        return compiledForms.get(metaLanguage);
+    }
+
+    private List<CompiledForm> compileForms(Language metaLanguage) {
+        List<CompiledForm> compiled = new ArrayList<>();
+        for (String form : forms) compiled.add(CompiledForm.getInstance(form, metaLanguage.getNameString()));
+        return compiled;
+    }
+
     public String getName() {
         return name;
     }
 
-    public abstract Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs);
+    public abstract Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs);
 
 }
@@ -18,6 +18,34 @@ public class ThrmSetElement  implements Serializable {
         this.forms = forms;
     }
 
+    /**
+     * The theorem for this element, as used in a derivation check
+     * @return the theorem
+     */
+    public Theorem getTheorem() {
+        switch (type) {
+            case ZERO_INPUT: return new ZeroInputTheorem(name, forms);
+            case ZERO_INPUT2: return new ZeroInputTheorem2(name, forms);
+            case SINGLE_INPUT: return new SingleInputTheorem(name, forms);
+            case DOUBLE_INPUT: return new DoubleInputTheorem(name, forms);
+            case TRIPLE_INPUT: return new TripleInputTheorem(name, forms);
+            case ADQ_A4: return new ADq_A4(name, "");
+            case ADQ_A5: return new ADq_A5(name, "");
+            case ADQT3_28: return new ADqT3_28(name, "");
+            case ADQT3_29: return new ADqT3_29(name, "");
+            case ADQT3_30: return new ADqT3_30(name, "");
+            case ADQT3_31: return new ADqT3_31(name, "");
+            case ADQT3_32: return new ADqT3_32(name, "");
+            case AD_A7: return new AD_A7(name, "");
+            case AD_A8: return new AD_A8(name, "");
+            case ADT3_37: return new ADT3_37(name, "");
+            case ADT3_38: return new ADT3_38(name, "");
+            case QND_T51: return new QND_T51(name, "");
+            case PANDT13_11i: return new PANDT13_11i(name, "");
+            default: return null;
+        }
+    }
+
     public boolean isPriorTo(String name) {
         boolean result = false;
         AlphanumStringComparator cmp = new AlphanumStringComparator();
@@ -1,13 +1,12 @@
 package slapp.editor.derivation.theorems;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.decorated_rta.BoxedDRTA;
-import slapp.editor.derivation.DCheck;
-import slapp.editor.derivation.ViewLine;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.Pair;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.ModelCheck;
+import slapp.editor.parser.CompiledForm;
 import slapp.editor.parser.Language;
 import slapp.editor.parser.MatchUtilities;
 import slapp.editor.parser.ParseUtilities;
@@ -25,63 +24,51 @@ public class TripleInputTheorem extends Theorem {
         regName = regName.replace("(", "\\(").replace(")", "\\)");
         String regexString = "^\\s*\\d+\\s*,\\s*\\d+\\s*,\\s*\\d+\\s*" + regName + "\\s*$";
         Pattern pattern = Pattern.compile(regexString);
-        setMatcher(pattern.matcher(""));
+        setPattern(pattern);
     }
 
-    public Pair<Boolean, List<Text>> applies(DCheck checker, ViewLine line, String... inputs) {
+    public Pair<Boolean, List<StyledText>> applies(ModelCheck checker, CheckLine line, String... inputs) {
 
-        BoxedDRTA lineBDRTA = line.getLineContentBoxedDRTA();
-        RichTextArea lineRTA = lineBDRTA.getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
+        Document lineDoc = line.getLineDoc();
 
-        ViewLine inputLine1;
-        Pair<ViewLine, List<Text>> line1Pair = checker.getLineFromLabel(inputs[0]);
+        CheckLine inputLine1;
+        Pair<CheckLine, List<StyledText>> line1Pair = checker.getLineFromLabel(inputs[0]);
         if (line1Pair.getKey() != null) inputLine1 = line1Pair.getKey();
         else return new Pair(false, line1Pair.getValue());
 
-        BoxedDRTA inputBDRTA1 = inputLine1.getLineContentBoxedDRTA();
-        RichTextArea inputRTA1 = inputBDRTA1.getRTA();
-        inputRTA1.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc1 = inputRTA1.getDocument();
+        Document inputDoc1 = inputLine1.getLineDoc();
         if (inputDoc1.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to empty line (" + inputs[0] + ").")));
 
 
-        ViewLine inputLine2;
-        Pair<ViewLine, List<Text>> line2Pair = checker.getLineFromLabel(inputs[1]);
+        CheckLine inputLine2;
+        Pair<CheckLine, List<StyledText>> line2Pair = checker.getLineFromLabel(inputs[1]);
         if (line2Pair.getKey() != null) inputLine2 = line2Pair.getKey();
         else return new Pair(false, line2Pair.getValue());
 
-        BoxedDRTA inputBDRTA2 = inputLine2.getLineContentBoxedDRTA();
-        RichTextArea inputRTA2 = inputBDRTA2.getRTA();
-        inputRTA2.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc2 = inputRTA2.getDocument();
+        Document inputDoc2 = inputLine2.getLineDoc();
         if (inputDoc2.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[1] + ").")));
 
-        ViewLine inputLine3;
-        Pair<ViewLine, List<Text>> line3Pair = checker.getLineFromLabel(inputs[2]);
+        CheckLine inputLine3;
+        Pair<CheckLine, List<StyledText>> line3Pair = checker.getLineFromLabel(inputs[2]);
         if (line3Pair.getKey() != null) inputLine3 = line3Pair.getKey();
         else return new Pair(false, line3Pair.getValue());
 
-        BoxedDRTA inputBDRTA3 = inputLine3.getLineContentBoxedDRTA();
-        RichTextArea inputRTA3 = inputBDRTA3.getRTA();
-        inputRTA3.getActionFactory().saveNow().execute(new ActionEvent());
-        Document inputDoc3 = inputRTA3.getDocument();
+        Document inputDoc3 = inputLine3.getLineDoc();
         if (inputDoc3.getText().equals("")) return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText("Justification cannot appeal to the empty line (" + inputs[2] + ").")));
 
 
 
-        Pair<Boolean, List<Text>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair1 = checker.lineIsAccessibleTo(inputLine1, line);
         if (!accessibilityPair1.getKey()) {
             return accessibilityPair1;
         }
 
-        Pair<Boolean, List<Text>> accessibilityPair2 = checker.lineIsAccessibleTo(inputLine2, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair2 = checker.lineIsAccessibleTo(inputLine2, line);
         if (!accessibilityPair2.getKey()) {
             return accessibilityPair2;
         }
 
-        Pair<Boolean, List<Text>> accessibilityPair3 = checker.lineIsAccessibleTo(inputLine3, line);
+        Pair<Boolean, List<StyledText>> accessibilityPair3 = checker.lineIsAccessibleTo(inputLine3, line);
         if (!accessibilityPair3.getKey()) {
             return accessibilityPair3;
         }
@@ -89,36 +76,36 @@ public class TripleInputTheorem extends Theorem {
         Language objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         Language metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
 
-        Document inputFormA = new Document(getForms()[0]);
-        Document inputFormB = new Document(getForms()[1]);
-        Document inputFormC = new Document(getForms()[2]);
-        Document outputForm = new Document(getForms()[3]);
+        CompiledForm inputFormA = getCompiledForms(metaLanguage).get(0);
+        CompiledForm inputFormB = getCompiledForms(metaLanguage).get(1);
+        CompiledForm inputFormC = getCompiledForms(metaLanguage).get(2);
+        CompiledForm outputForm = getCompiledForms(metaLanguage).get(3);
 
         //try correct
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         boolean resultGood1 = false;
         boolean resultGood2 = false;
         boolean resultGood3 = false;
         try {
-            Pair<Boolean, Boolean> outputMatch = MatchUtilities.simpleFormMatch(outputForm, lineDoc, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean outputMatch = MatchUtilities.simpleFormMatch(context, outputForm, lineDoc, objectLanguage.getNameString());
         }
         catch (TextMessageException e) {
-            return new Pair(false, Collections.singletonList((ParseUtilities.newRegularText("Line (" + line.getLineNumberLabel().getText() + ") is not of the right form to result by " + getName() + "."))));
+            return new Pair(false, Collections.singletonList((ParseUtilities.newRegularText("Line (" + line.getLabel() + ") is not of the right form to result by " + getName() + "."))));
         }
         try {
-            Pair<Boolean, Boolean> inputMatch1 = MatchUtilities.simpleFormMatch(inputFormA, inputDoc1, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean inputMatch1 = MatchUtilities.simpleFormMatch(context, inputFormA, inputDoc1, objectLanguage.getNameString());
             resultGood1 = true;
         }
         catch (TextMessageException e) {}
         if (resultGood1) {
             try {
-                Pair<Boolean, Boolean> inputMatch2 = MatchUtilities.simpleFormMatch(inputFormB, inputDoc2, objectLanguage.getNameString(), metaLanguage.getNameString());
+                boolean inputMatch2 = MatchUtilities.simpleFormMatch(context, inputFormB, inputDoc2, objectLanguage.getNameString());
                 resultGood2 = true;
             } catch (TextMessageException e) { }
         }
         if (resultGood2) {
             try {
-                Pair<Boolean, Boolean> inputMatch3 = MatchUtilities.simpleFormMatch(inputFormC, inputDoc3, objectLanguage.getNameString(), metaLanguage.getNameString());
+                boolean inputMatch3 = MatchUtilities.simpleFormMatch(context, inputFormC, inputDoc3, objectLanguage.getNameString());
                 resultGood3 = true;
             } catch (TextMessageException e) { }
         }
@@ -126,8 +113,8 @@ public class TripleInputTheorem extends Theorem {
             return new Pair(true, null);
         }
         else {
-            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLineNumberLabel().getText() + "), (" + inputLine2.getLineNumberLabel().getText() +
-                    ") and (" + inputLine3.getLineNumberLabel().getText() +  ") are not of the right form to result in (" + line.getLineNumberLabel().getText() + ") by " + getName() + "."))));
+            return new Pair(false, Collections.singletonList(ParseUtilities.newRegularText(("Lines (" + inputLine1.getLabel() + "), (" + inputLine2.getLabel() +
+                    ") and (" + inputLine3.getLabel() +  ") are not of the right form to result in (" + line.getLabel() + ") by " + getName() + "."))));
         }
 
     }
@@ -1,12 +1,7 @@
 package slapp.editor.derivation_explain;
 
-import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
-import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
-import javafx.scene.text.TextFlow;
 import javafx.stage.Stage;
-import javafx.util.Pair;
 import slapp.editor.EditorAlerts;
 import slapp.editor.ExerciseHelpPopup;
 import slapp.editor.derivation.*;
@@ -22,31 +17,35 @@ import java.util.*;
 import java.util.concurrent.CountDownLatch;
 
 public class DrvtnExpHelp {
+
+    private static final MetaForms<Forms> metaForms = new MetaForms<>(Forms::new);
+
     private DrvtnExpExercise drvtnExpExercise;
     private DrvtnExpView drvtnExpView;
     private DrvtnExpModel drvtnExpModel;
     private DCheck checker;
-    private List<ViewLine> viewLines;
+    private List<CheckLine> checkLines;
     Stage helpStage;
 
-    private ViewLine targetLine;
+    private CheckLine targetLine;
     private int targetRow;
     private Formula targetFormula;
     private Language objectLanguage;
     private Language metaLanguage;
+    private Forms forms;
 
     private List<Formula> accessibleFormulas;
     private List<Formula> eObtainableFormulas;
     private List<Formula> ePotentialFormulas;
+    private ExpressionInterner interner;
     private double windowOffset;
     private double offsetIncrement = 25.0;
     public List<Stage> helpStages = new ArrayList<>();
-    private List<Text> footnotes = new ArrayList<>();
+    private List<StyledText> footnotes = new ArrayList<>();
     private String disjunctionStatus;
 
     private List<Term> termList = new ArrayList<>();
     private List<Term> formulaVars = new ArrayList<>();
-    private List<Expression> termList2 = new ArrayList<>();
     private boolean helpShowing;
 
 
@@ -84,6 +83,8 @@ public class DrvtnExpHelp {
 
         objectLanguage = checker.getDerivationRuleset().getObjectLanguage();
         metaLanguage = checker.getDerivationRuleset().getMetaLanguage();
+        forms = metaForms.get(metaLanguage);
+        interner = new ExpressionInterner();
 
         //progress ok
         EditorAlerts.setShowPreliminary(true, "Contextual help begins with a background progress check.");
@@ -92,22 +93,20 @@ public class DrvtnExpHelp {
         if (!progressCheck) return;
 
         //non-empty selected row
-        viewLines = drvtnExpView.getViewLines();
+        checkLines = checker.getCheckLines();
         targetRow = drvtnExpExercise.currentRow();
         if (targetRow < 0) {
             EditorAlerts.fleetingRedPopup("Select goal formula for contextual help");
             return;
         }
 
-        targetLine = viewLines.get(targetRow);
-        if (!drvtnExpExercise.getStringFromJustificationFlow(targetLine.getJustificationFlow()).equals("")) {
+        targetLine = checkLines.get(targetRow);
+        if (!targetLine.getJustification().equals("")) {
             EditorAlerts.fleetingRedPopup("Help applies lines that are not (yet) justified.");
             return;
         }
 
-        RichTextArea targetRTA = targetLine.getLineContentBoxedDRTA().getRTA();
-        targetRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document targetDoc = targetRTA.getDocument();
+        Document targetDoc = targetLine.getLineDoc();
 
         if (targetDoc.getText().equals("")) {
             EditorAlerts.fleetingRedPopup("Select goal formula for contextual help");
@@ -118,27 +117,27 @@ public class DrvtnExpHelp {
         targetFormula = (Formula) targetExpressions.get(0);
 
         //goal or contradiction strategies
-        Document contradictionForm1 = new Document("\u22a5" );
-        Document contradictionForm2 = new Document("(\ud835\udcac \u2227 \u223c\ud835\udcac)");
+        CompiledForm contradictionForm1 = forms.contradiction;
+        CompiledForm contradictionForm2 = forms.contradictoryConjunction;
 
-        MatchUtilities.clearFormMatch();
+        MatchContext context = new MatchContext();
         boolean goalIsContradiction = false;
         try {
-            Pair<Boolean, Boolean> match1 = MatchUtilities.simpleExpFormMatch(contradictionForm1, targetFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean match1 = MatchUtilities.simpleExpFormMatch(context, contradictionForm1, targetFormula, objectLanguage.getNameString());
             goalIsContradiction = true;
         } catch (TextMessageException e) {}
 
         /*
-        MatchUtilities.clearFormMatch();
+        context.clear();
         try {
-            Pair<Boolean, Boolean> match2 = MatchUtilities.simpleExpFormMatch(contradictionForm2, targetFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
+            boolean match2 = MatchUtilities.simpleExpFormMatch(context, contradictionForm2, targetFormula, objectLanguage.getNameString());
             goalIsContradiction = true;
         } catch (TextMessageException e) {}
 
          */
 
         footnotes.clear();
-        footnotes.add(new Text("\n-----"));
+        footnotes.add(new StyledText("\n-----"));
         helpStages.clear();
         windowOffset = 0.0;
 
@@ -150,7 +149,6 @@ public class DrvtnExpHelp {
                 setEObtainableFormulas();
                 setEPotentialFormulas();
                 processEqualities();
-                processEqualities();
                 SC1a();
             }
             else {
@@ -169,7 +167,6 @@ public class DrvtnExpHelp {
                 setEObtainableFormulas();
                 setEPotentialFormulas();
                 processEqualities();
-                processEqualities();
                 latch.countDown();
 
                 try {
@@ -195,7 +192,6 @@ public class DrvtnExpHelp {
                 setEObtainableFormulas();
                 setEPotentialFormulas();
                 processEqualities();
-                processEqualities();
                 SG0e();
             }
             else {
@@ -214,7 +210,6 @@ public class DrvtnExpHelp {
                 setEObtainableFormulas();
                 setEPotentialFormulas();
                 processEqualities();
-                processEqualities();
                 latch.countDown();
 
                 try {
@@ -286,7 +281,7 @@ public class DrvtnExpHelp {
     private void SG1a() {
         //contradiction
         if (contradictionInList(accessibleFormulas)) {
-            List<Text> texts = Collections.singletonList(ParseUtilities.newRegularText("There is a contradiction on accessible lines.  Set up to obtain goal by negation exploit and then use this contradiction."));
+            List<StyledText> texts = Collections.singletonList(ParseUtilities.newRegularText("There is a contradiction on accessible lines.  Set up to obtain goal by negation exploit and then use this contradiction."));
             ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
             helpStage = popup.getHelpStage();
             helpStages.add(helpStage);
@@ -299,7 +294,7 @@ public class DrvtnExpHelp {
 
     private void SG1b() {
         if (contradictionInList(eObtainableFormulas)) {
-            List<Text> texts = Collections.singletonList(ParseUtilities.newRegularText("A contradiction can be obtained (without subderivations) from accessible lines by exploitation rules.  Set up a subderivation to reach goal by negation exploit, and use this contradiction."));
+            List<StyledText> texts = Collections.singletonList(ParseUtilities.newRegularText("A contradiction can be obtained (without subderivations) from accessible lines by exploitation rules.  Set up a subderivation to reach goal by negation exploit, and use this contradiction."));
             ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
             helpStage = popup.getHelpStage();
             helpStages.add(helpStage);
@@ -480,9 +475,9 @@ public class DrvtnExpHelp {
         //main operator intro
         Operator mainOperator = targetFormula.getMainOperator();
         if (mainOperator != null) {
-            List<Text> opTexts = mainOperator.toTextList();
-            List<Text> opTexts2 = mainOperator.toTextList();
-            List<Text> opTexts3 = mainOperator.toTextList();
+            List<StyledText> opTexts = mainOperator.toTextList();
+            List<StyledText> opTexts2 = mainOperator.toTextList();
+            List<StyledText> opTexts3 = mainOperator.toTextList();
 
             if (mainOperator.getType() == ExpressionType.NEG_OP || mainOperator.getType() == ExpressionType.COND_OP) {
                 List texts = new ArrayList();
@@ -600,7 +595,7 @@ public class DrvtnExpHelp {
 
     private void SC1a() {
         if (contradictionInList(accessibleFormulas)) {
-            List<Text> texts = Collections.singletonList(ParseUtilities.newRegularText("There is a contradiction on accessible lines.  Use this contradiction."));
+            List<StyledText> texts = Collections.singletonList(ParseUtilities.newRegularText("There is a contradiction on accessible lines.  Use this contradiction."));
             ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
             helpStage = popup.getHelpStage();
             helpStages.add(helpStage);
@@ -611,7 +606,7 @@ public class DrvtnExpHelp {
 
     private void SC1b() {
         if (contradictionInList(eObtainableFormulas)) {
-            List<Text> texts = Collections.singletonList(ParseUtilities.newRegularText("A contradiction can be obtained (without subderivations) from accessible lines by exploitation rules.  Use this contradiction."));
+            List<StyledText> texts = Collections.singletonList(ParseUtilities.newRegularText("A contradiction can be obtained (without subderivations) from accessible lines by exploitation rules.  Use this contradiction."));
             ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
             helpStage = popup.getHelpStage();
             helpStages.add(helpStage);
@@ -625,7 +620,7 @@ public class DrvtnExpHelp {
 
     private void SC1c() {
         if (atomicContradictionInList(ePotentialFormulas)) {
-            List<Text> texts = Collections.singletonList(ParseUtilities.newRegularText("There is a contradiction \"in\" accessible lines.  Setting new goal(s) as necessary, consider an attempt to exploit it out.\n\n" +
+            List<StyledText> texts = Collections.singletonList(ParseUtilities.newRegularText("There is a contradiction \"in\" accessible lines.  Setting new goal(s) as necessary, consider an attempt to exploit it out.\n\n" +
                     "This strategy, and others which suggest extracting a particular formula from accessible lines, is prone to \"false positives\".  Usually it will be obvious when this is so."));
             ExerciseHelpPopup popup = new ExerciseHelpPopup(texts, windowOffset);
             helpStage = popup.getHelpStage();
@@ -865,6 +860,7 @@ public class DrvtnExpHelp {
 
 
     private void setEPotentialFormulas() {
+        MatchContext context = new MatchContext();
         ePotentialFormulas = new ArrayList<>(eObtainableFormulas);
 
         boolean changes = true;
@@ -874,15 +870,15 @@ public class DrvtnExpHelp {
             for (Formula formula : ePotentialFormulas) {
 
                 //process conjunctions
-                Document PandQform = new Document("(\ud835\udcab \u2227 \ud835\udcac)");
+                CompiledForm PandQform = forms.conjunction;
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MatchUtilities.simpleExpFormMatch(PandQform, formula, objectLanguage.getNameString(), metaLanguage.getNameString() );
+                    context.clear();
+                    MatchUtilities.simpleExpFormMatch(context, PandQform, formula, objectLanguage.getNameString());
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcab", "")) ) {
-                            Formula matchFormula = mForm.getMatch();
+                            Formula matchFormula = mForm.getMatch(context);
                             if (!formulaInList(matchFormula, ePotentialFormulas)) {
-                                ePotentialFormulas.add(matchFormula);
+                                ePotentialFormulas.add(interner.internShared(matchFormula));
                                 changes = true;
                                 continue whileLoop;
                             }
@@ -891,13 +887,13 @@ public class DrvtnExpHelp {
                 } catch (TextMessageException e) {}
 
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MatchUtilities.simpleExpFormMatch(PandQform, formula, objectLanguage.getNameString(), metaLanguage.getNameString() );
+                    context.clear();
+                    MatchUtilities.simpleExpFormMatch(context, PandQform, formula, objectLanguage.getNameString());
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", ""))) {
-                            Formula matchFormula = mForm.getMatch();
+                            Formula matchFormula = mForm.getMatch(context);
                             if (!formulaInList(matchFormula, ePotentialFormulas)) {
-                                ePotentialFormulas.add(matchFormula);
+                                ePotentialFormulas.add(interner.internShared(matchFormula));
                                 changes = true;
                                 continue whileLoop;
                             }
@@ -906,15 +902,15 @@ public class DrvtnExpHelp {
                 } catch (TextMessageException e) {}
 
                 //process conditionals
-                Document PimpQform = new Document("(\ud835\udcab \u2192 \ud835\udcac)");
+                CompiledForm PimpQform = forms.conditional;
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MatchUtilities.simpleExpFormMatch(PimpQform, formula, objectLanguage.getNameString(), metaLanguage.getNameString() );
+                    context.clear();
+                    MatchUtilities.simpleExpFormMatch(context, PimpQform, formula, objectLanguage.getNameString());
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", "")) ) {
-                            Formula matchFormula = mForm.getMatch();
+                            Formula matchFormula = mForm.getMatch(context);
                             if (!formulaInList(matchFormula, ePotentialFormulas)) {
-                                ePotentialFormulas.add(matchFormula);
+                                ePotentialFormulas.add(interner.internShared(matchFormula));
                                 changes = true;
                                 continue whileLoop;
                             }
@@ -924,15 +920,15 @@ public class DrvtnExpHelp {
 
 
                 //process biconditionals
-                Document PbimpQform = new Document("(\ud835\udcab \u2194 \ud835\udcac)");
+                CompiledForm PbimpQform = forms.biconditional;
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MatchUtilities.simpleExpFormMatch(PbimpQform, formula, objectLanguage.getNameString(), metaLanguage.getNameString() );
+                    context.clear();
+                    MatchUtilities.simpleExpFormMatch(context, PbimpQform, formula, objectLanguage.getNameString());
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcab", "")) ) {
-                            Formula matchFormula = mForm.getMatch();
+                            Formula matchFormula = mForm.getMatch(context);
                             if (!formulaInList(matchFormula, ePotentialFormulas)) {
-                                ePotentialFormulas.add(matchFormula);
+                                ePotentialFormulas.add(interner.internShared(matchFormula));
                                 changes = true;
                                 continue whileLoop;
                             }
@@ -941,13 +937,13 @@ public class DrvtnExpHelp {
                 } catch (TextMessageException e) {}
 
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MatchUtilities.simpleExpFormMatch(PbimpQform, formula, objectLanguage.getNameString(), metaLanguage.getNameString() );
+                    context.clear();
+                    MatchUtilities.simpleExpFormMatch(context, PbimpQform, formula, objectLanguage.getNameString());
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", ""))) {
-                            Formula matchFormula = mForm.getMatch();
+                            Formula matchFormula = mForm.getMatch(context);
                             if (!formulaInList(matchFormula, ePotentialFormulas)) {
-                                ePotentialFormulas.add(matchFormula);
+                                ePotentialFormulas.add(interner.internShared(matchFormula));
                                 changes = true;
                                 continue whileLoop;
                             }
@@ -956,21 +952,21 @@ public class DrvtnExpHelp {
                 } catch (TextMessageException e) {}
 
                 //process universals
-                Document univForm = new Document("\u2200\ud835\udccd\ud835\udcab");
+                CompiledForm univForm = forms.universal;
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MVariable.clear();
-                    MatchUtilities.simpleExpFormMatch(univForm, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                    context.clear();
+                    context.clearBindings(MVariable.class);
+                    MatchUtilities.simpleExpFormMatch(context, univForm, formula, objectLanguage.getNameString());
                     Formula matchFormula = null;
                     Term quantifiedVariable = null;
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcab", ""))) {
-                            matchFormula = mForm.getMatch();
+                            matchFormula = mForm.getMatch(context);
                         }
                     }
                     for (MVariable mVariable : MVariable.getVariables()) {
                         if (mVariable.getBaseStr().equals("\ud835\udccd")) {
-                            VariableSym variableSym = mVariable.getMatch();
+                            VariableSym variableSym = mVariable.getMatch(context);
                             Term term = new Term();
                             term.setLevel(0);
                             ArrayList children = new ArrayList();
@@ -984,8 +980,8 @@ public class DrvtnExpHelp {
                     for (Term term : termList) {
                         Formula subForm = substituteForTermInFormula(matchFormula, quantifiedVariable, term);
 
-                        if (!ePotentialFormulas.contains(subForm)) {
-                            ePotentialFormulas.add(subForm);
+                        if (!formulaInList(subForm, ePotentialFormulas)) {
+                            ePotentialFormulas.add(interner.internShared(subForm));
                             changes = true;
                             continue whileLoop;
                         }
@@ -998,6 +994,7 @@ public class DrvtnExpHelp {
 
 
     private void setEObtainableFormulas() {
+        MatchContext context = new MatchContext();
         eObtainableFormulas = new ArrayList<>(accessibleFormulas);
 
 
@@ -1011,15 +1008,15 @@ public class DrvtnExpHelp {
             for (Formula formula : eObtainableFormulas) {
 
                 //process conjunctions
-                Document PandQform = new Document("(\ud835\udcab \u2227 \ud835\udcac)");
+                CompiledForm PandQform = forms.conjunction;
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MatchUtilities.simpleExpFormMatch(PandQform, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                    context.clear();
+                    MatchUtilities.simpleExpFormMatch(context, PandQform, formula, objectLanguage.getNameString());
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcab", ""))) {
-                            Formula matchFormula = mForm.getMatch();
+                            Formula matchFormula = mForm.getMatch(context);
                             if (!formulaInList(matchFormula, eObtainableFormulas)) {
-                                eObtainableFormulas.add(matchFormula);
+                                eObtainableFormulas.add(interner.internShared(matchFormula));
                                 changes = true;
                                 continue whileLoop;
                             }
@@ -1029,13 +1026,13 @@ public class DrvtnExpHelp {
                 }
 
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MatchUtilities.simpleExpFormMatch(PandQform, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                    context.clear();
+                    MatchUtilities.simpleExpFormMatch(context, PandQform, formula, objectLanguage.getNameString());
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", ""))) {
-                            Formula matchFormula = mForm.getMatch();
+                            Formula matchFormula = mForm.getMatch(context);
                             if (!formulaInList(matchFormula, eObtainableFormulas)) {
-                                eObtainableFormulas.add(matchFormula);
+                                eObtainableFormulas.add(interner.internShared(matchFormula));
                                 changes = true;
                                 continue whileLoop;
                             }
@@ -1045,21 +1042,21 @@ public class DrvtnExpHelp {
                 }
 
                 //process conditionals
-                Document PimpQform = new Document("(\ud835\udcab \u2192 \ud835\udcac)");
+                CompiledForm PimpQform = forms.conditional;
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MatchUtilities.simpleExpFormMatch(PimpQform, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                    context.clear();
+                    MatchUtilities.simpleExpFormMatch(context, PimpQform, formula, objectLanguage.getNameString());
                     Formula antecedent = null;
                     Formula consequent = null;
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcab", "")))
-                            antecedent = mForm.getMatch();
+                            antecedent = mForm.getMatch(context);
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", "")))
-                            consequent = mForm.getMatch();
+                            consequent = mForm.getMatch(context);
                     }
                     if (antecedent != null && consequent != null && formulaInList(antecedent, eObtainableFormulas)) {
                         if (!formulaInList(consequent, eObtainableFormulas)) {
-                            eObtainableFormulas.add(consequent);
+                            eObtainableFormulas.add(interner.internShared(consequent));
                             changes = true;
                             continue whileLoop;
                         }
@@ -1068,28 +1065,28 @@ public class DrvtnExpHelp {
                 }
 
                 //process biconditionals
-                Document PbimpQform = new Document("(\ud835\udcab \u2194 \ud835\udcac)");
+                CompiledForm PbimpQform = forms.biconditional;
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MatchUtilities.simpleExpFormMatch(PbimpQform, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                    context.clear();
+                    MatchUtilities.simpleExpFormMatch(context, PbimpQform, formula, objectLanguage.getNameString());
                     Formula leftSide = null;
                     Formula rightSide = null;
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcab", "")))
-                            leftSide = mForm.getMatch();
+                            leftSide = mForm.getMatch(context);
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", "")))
-                            rightSide = mForm.getMatch();
+                            rightSide = mForm.getMatch(context);
                     }
                     if (leftSide != null && rightSide != null && formulaInList(leftSide, eObtainableFormulas)) {
                         if (!formulaInList(rightSide, eObtainableFormulas)) {
-                            eObtainableFormulas.add(rightSide);
+                            eObtainableFormulas.add(interner.internShared(rightSide));
                             changes = true;
                             continue whileLoop;
                         }
                     }
                     if (leftSide != null && rightSide != null && formulaInList(rightSide, eObtainableFormulas)) {
                         if (!formulaInList(leftSide, eObtainableFormulas)) {
-                            eObtainableFormulas.add(leftSide);
+                            eObtainableFormulas.add(interner.internShared(leftSide));
                             changes = true;
                             continue whileLoop;
                         }
@@ -1098,21 +1095,21 @@ public class DrvtnExpHelp {
                 }
 
                 //process universals
-                Document univForm = new Document("\u2200\ud835\udccd\ud835\udcab");
+                CompiledForm univForm = forms.universal;
                 try {
-                    MatchUtilities.clearFormMatch();
-                    MVariable.clear();
-                    MatchUtilities.simpleExpFormMatch(univForm, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                    context.clear();
+                    context.clearBindings(MVariable.class);
+                    MatchUtilities.simpleExpFormMatch(context, univForm, formula, objectLanguage.getNameString());
                     Formula matchFormula = null;
                     Term quantifiedVariable = null;
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcab", ""))) {
-                            matchFormula = mForm.getMatch();
+                            matchFormula = mForm.getMatch(context);
                         }
                     }
                     for (MVariable mVariable : MVariable.getVariables()) {
                         if (mVariable.getBaseStr().equals("\ud835\udccd")) {
-                            VariableSym variableSym = mVariable.getMatch();
+                            VariableSym variableSym = mVariable.getMatch(context);
                             Term term = new Term();
                             term.setLevel(0);
                             ArrayList children = new ArrayList();
@@ -1126,8 +1123,8 @@ public class DrvtnExpHelp {
                     for (Term term : termList) {
                         Formula subForm = substituteForTermInFormula(matchFormula, quantifiedVariable, term);
 
-                        if (!eObtainableFormulas.contains(subForm)) {
-                            eObtainableFormulas.add(subForm);
+                        if (!formulaInList(subForm, eObtainableFormulas)) {
+                            eObtainableFormulas.add(interner.internShared(subForm));
                             changes = true;
                             continue whileLoop;
                         }
@@ -1142,144 +1139,28 @@ public class DrvtnExpHelp {
 
     //process equalities
 
-     /*
-    Cannot treat equality with other expressions.  Equality need not result in "smaller" experssions.
-    So Rf1j and f1j = j give Rf1f1j, Rf1f1f1j, etc.  This applies an equality to every applicable formula in list.
-    Then for now we process the list twice (from the main caller).
+    /*
+     * Add to the obtainable and potential formulas those obtainable from each list by its equalities, with a footnote
+     * if either closure stopped at its limit
      */
-
     private void processEqualities() {
-        List<Formula> eCandidateList = new ArrayList(eObtainableFormulas);
-        List<Formula> pCandidateList  = new ArrayList(ePotentialFormulas);
-        List<Formula> eNewList = new ArrayList();
-        List<Formula> pNewList = new ArrayList();
-
-        Document equalityForm = new Document("\uE8AC\uD835\uDCC8\uD835\uDCC9");
-
-        for (Formula formula : eObtainableFormulas) {
-            try {
-                MatchUtilities.clearFormMatch();
-                MatchUtilities.simpleExpFormMatch(equalityForm, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                Term termS = null;
-                Term termT = null;
-                for (MTerm mTerm : MTerm.getmTerms()) {
-                    if (mTerm.getmTermSym().equals(new MTermSym("\ud835\udcc8", ""))) termS = mTerm.getMatch();
-                    if (mTerm.getmTermSym().equals(new MTermSym("\ud835\udcc9", ""))) termT = mTerm.getMatch();
-                }
-                if (!termS.equals(termT)) {
-                    eNewList.addAll(applyEquality(termS, termT, eCandidateList));
-                }
-            } catch (TextMessageException e) {   }
-        }
-
-        for (Formula formula : ePotentialFormulas) {
-            try {
-                MatchUtilities.clearFormMatch();
-                MatchUtilities.simpleExpFormMatch(equalityForm, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                Term termS = null;
-                Term termT = null;
-                for (MTerm mTerm : MTerm.getmTerms()) {
-                    if (mTerm.getmTermSym().equals(new MTermSym("\ud835\udcc8", ""))) termS = mTerm.getMatch();
-                    if (mTerm.getmTermSym().equals(new MTermSym("\ud835\udcc9", ""))) termT = mTerm.getMatch();
-                }
-                if (!termS.equals(termT)) {
-                    pNewList.addAll(applyEquality(termS, termT, pCandidateList));
-                }
-            } catch (TextMessageException e) {   }
-        }
-
-        eObtainableFormulas.addAll(eNewList);
-        ePotentialFormulas.addAll(pNewList);
-    }
-
-
-
-
-    private List<Formula> applyEquality(Term termS, Term termT, List<Formula> candidateList) {
-        List<Formula> newFormulas = new ArrayList();
-
-        for (Formula candidateForm : candidateList) {
-            termList2.clear();
-            addFreeInstancesToList(candidateForm, termS, candidateForm);
-            if (!termList2.isEmpty()) {
-                List<List<Expression>> freeTermSets = getAllSubsets(termList2);
-                for (List<Expression> subset : freeTermSets) {
-                    boolean allFreeFor = true;
-                    for (Expression term : subset) {
-                        if (!SyntacticalFns.freeForExp(candidateForm, term, termT, objectLanguage.getNameString())) {
-                            allFreeFor = false;
-                            break;
-                        }
-                    }
-                    if (allFreeFor) {
-                        Expression newFormula = SyntacticalFns.substituteParticularTerms(candidateForm, termT, subset);
-                        if (!newFormulas.contains(newFormula) && !candidateList.contains(newFormula)) {
-                            newFormulas.add((Formula) newFormula);
-                        }
-                    }
-                }
-            }
-        }
-        for (Formula candidateForm : candidateList) {
-            termList2.clear();
-            addFreeInstancesToList(candidateForm, termT, candidateForm);
-            if (!termList2.isEmpty()) {
-                List<List<Expression>> freeTermSets = getAllSubsets(termList2);
-                for (List<Expression> subset : freeTermSets) {
-                    boolean allFreeFor = true;
-                    for (Expression term : subset) {
-                        if (!SyntacticalFns.freeForExp(candidateForm, term, termS, objectLanguage.getNameString())) {
-                            allFreeFor = false;
-                            break;
-                        }
-                    }
-                    if (allFreeFor) {
-                        Expression newFormula = SyntacticalFns.substituteParticularTerms(candidateForm, termS, subset);
-                        if (!newFormulas.contains(newFormula) && !candidateList.contains(newFormula)) {
-                            newFormulas.add((Formula) newFormula);
-                        }
-                    }
-                }
-            }
-        }
-        return newFormulas;
-    }
-
-
-
-    public static List<List<Expression>> getAllSubsets(List<Expression> input) {
-        int allMasks = 1 << input.size();
-        List<List<Expression>> output = new ArrayList<List<Expression>>();
-        for(int i = 1; i < allMasks; i++) {
-            List<Expression> sub = new ArrayList<Expression>();
-            for(int j = 0; j < input.size(); j++) {
-                if((i & (1 << j)) > 0) {
-                    sub.add(input.get(j));
-                }
-            }
-            output.add(sub);
-        }
-        return output;
-    }
-
-    private void addFreeInstancesToList(Expression processedExp, Term term, Formula formula) {
-        if (processedExp instanceof Term && processedExp.equals(term) && SyntacticalFns.particularTermsFreeInFormula(formula, Collections.singletonList(processedExp), objectLanguage.getNameString())) termList2.add((Term) processedExp);
-
-        if (processedExp.getChildren() != null && processedExp.getLevel() > 0) {
-            for (int i = 0; i < processedExp.getChildren().size(); i++) {
-                addFreeInstancesToList(processedExp.getChildren().get(i), term, formula);
-            }
+        EqualityClosure equalityClosure = new EqualityClosure(objectLanguage, metaLanguage, interner);
+        equalityClosure.close(eObtainableFormulas);
+        boolean limitReached = equalityClosure.isLimitReached();
+        equalityClosure.close(ePotentialFormulas);
+        if (limitReached || equalityClosure.isLimitReached()) {
+            footnotes.add(ParseUtilities.newRegularText("\n\u2022 Too many formulas from equalities; help considers only some of them."));
         }
     }
 
 
     private void setAccessibleFormulas() {
         accessibleFormulas = new ArrayList<>();
-        for (ViewLine line : viewLines) {
+        for (CheckLine line : checkLines) {
             if (LineType.isContentLine(line.getLineType())) {
-                if (checker.lineIsAccessibleTo(line, targetLine).getKey()) {
-                    Formula lineForm = getFormulaFromViewLine(line);
-                    if (lineForm != null && !formulaInList(lineForm, accessibleFormulas)) accessibleFormulas.add(lineForm);
+                if (checker.getModelCheck().lineIsAccessibleTo(line, targetLine).getKey()) {
+                    Formula lineForm = line.getFormula();
+                    if (lineForm != null && !formulaInList(lineForm, accessibleFormulas)) accessibleFormulas.add(interner.internShared(lineForm));
                 }
             }
         }
@@ -1287,15 +1168,16 @@ public class DrvtnExpHelp {
 
     //complex negation in formula list but not exclude list
     private boolean complexNegationInList(List<Formula> formulaList, List<Formula> excludeList) {
-        Document negationForm = new Document("\u223c\ud835\udcac");
+        MatchContext context = new MatchContext();
+        CompiledForm negationForm = forms.negation;
         for (Formula formula : formulaList) {
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(negationForm, formula, objectLanguage.getNameString(), metaLanguage.getNameString() );
-                Formula matchForm = (Formula) ParseUtilities.parseDoc(negationForm, metaLanguage.getNameString()).get(0).getMatch();
+                MatchUtilities.simpleExpFormMatch(context, negationForm, formula, objectLanguage.getNameString());
+                Formula matchForm = (Formula) negationForm.getMatch(context);
                 for (MFormula mForm : MFormula.getmFormulas()) {
                     if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", ""))) {
-                        Formula immediateSub = mForm.getMatch();
+                        Formula immediateSub = mForm.getMatch(context);
                         if (!immediateSub.isAtomic() ) {
                             if (!excludeList.contains((Formula) matchForm)) return true;
                         }
@@ -1308,15 +1190,16 @@ public class DrvtnExpHelp {
 
     //complex negation (not disjunction) in formula list but not exclude list
     private boolean ordinaryComplexNegationInList(List<Formula> formulaList, List<Formula> excludeList) {
-        Document negationForm = new Document("\u223c\ud835\udcac");
+        MatchContext context = new MatchContext();
+        CompiledForm negationForm = forms.negation;
         for (Formula formula : formulaList) {
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(negationForm, formula, objectLanguage.getNameString(), metaLanguage.getNameString() );
-                Formula matchForm = (Formula) ParseUtilities.parseDoc(negationForm, metaLanguage.getNameString()).get(0).getMatch();
+                MatchUtilities.simpleExpFormMatch(context, negationForm, formula, objectLanguage.getNameString());
+                Formula matchForm = (Formula) negationForm.getMatch(context);
                 for (MFormula mForm : MFormula.getmFormulas()) {
                     if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", ""))) {
-                        Formula immediateSub = mForm.getMatch();
+                        Formula immediateSub = mForm.getMatch(context);
                         if (!immediateSub.isAtomic() && immediateSub.getMainOperator().getType() != ExpressionType.DISJ_OP) {
                             if (!excludeList.contains((Formula) matchForm)) return true;
                         }
@@ -1328,33 +1211,34 @@ public class DrvtnExpHelp {
     }
 
     private String availableOrdinaryComplexNegation() {
+        MatchContext context = new MatchContext();
         String negLabelString = "0";
-        for (ViewLine line : viewLines) {
+        for (CheckLine line : checkLines) {
             if (LineType.isContentLine(line.getLineType())) {
-                if (checker.lineIsAccessibleTo(line, targetLine).getKey()) {
-                    Formula lineFormula = getFormulaFromViewLine(line);
+                if (checker.getModelCheck().lineIsAccessibleTo(line, targetLine).getKey()) {
+                    Formula lineFormula = line.getFormula();
                     if (lineFormula != null) {
-                        Document negationForm = new Document("\u223c\ud835\udcac");
-                        MatchUtilities.clearFormMatch();
+                        CompiledForm negationForm = forms.negation;
+                        context.clear();
                         try {
-                            MatchUtilities.simpleExpFormMatch(negationForm, lineFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                            Formula matchForm = (Formula) ParseUtilities.parseDoc(negationForm, metaLanguage.getNameString()).get(0).getMatch();
+                            MatchUtilities.simpleExpFormMatch(context, negationForm, lineFormula, objectLanguage.getNameString());
+                            Formula matchForm = (Formula) negationForm.getMatch(context);
                             Formula immediateSub = null;
                             for (MFormula mForm : MFormula.getmFormulas()) {
                                 if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", ""))) {
-                                    immediateSub = mForm.getMatch();
+                                    immediateSub = mForm.getMatch(context);
                                     break;
                                 }
                             }
                             if (!immediateSub.isAtomic() && immediateSub.getMainOperator().getType() != ExpressionType.DISJ_OP && immediateSub.getMainOperator().getType() != ExpressionType.EXISTENTIAL_OP) {
-                                String lineLabel = line.getLineNumberLabel().getText();
+                                String lineLabel = line.getLabel();
                                 DerivationRule contradictionIntroRule = checker.getDerivationRuleset().getContradictionIntroRule();
                                 boolean used = false;
-                                for (ViewLine checkLine : viewLines) {
+                                for (CheckLine checkLine : checkLines) {
                                     if (LineType.isContentLine(checkLine.getLineType()) ) {
-                                        String checkJustString = drvtnExpExercise.getStringFromJustificationFlow(checkLine.getJustificationFlow());
+                                        String checkJustString = checkLine.getJustification();
                                         if (contradictionIntroRule.matches(checkJustString)) {
-                                            List<String> checkLabels = drvtnExpExercise.getLineLabelsFromJustificationFlow(checkLine.getJustificationFlow());
+                                            List<String> checkLabels = checkLine.getJustificationLabels();
                                             String checkLabelString = checkLabels.get(0);
                                             if (checkLabels.get(0).equals(lineLabel) || checkLabels.get(1).equals(lineLabel) ) {
                                                 if (targetLine.getAssumptionList().containsAll(checkLine.getAssumptionList()) || checkLine.getAssumptionList().containsAll(targetLine.getAssumptionList()) )
@@ -1378,26 +1262,27 @@ public class DrvtnExpHelp {
     }
 
     private String availableNegatedDisjunction() {
+        MatchContext context = new MatchContext();
         String negLabelString = "0";
-        for (ViewLine line : viewLines) {
+        for (CheckLine line : checkLines) {
             if (LineType.isContentLine(line.getLineType())) {
-                if (checker.lineIsAccessibleTo(line, targetLine).getKey()) {
-                    Formula lineFormula = getFormulaFromViewLine(line);
+                if (checker.getModelCheck().lineIsAccessibleTo(line, targetLine).getKey()) {
+                    Formula lineFormula = line.getFormula();
                     if (lineFormula != null) {
-                        Document negationForm = new Document("∼(\uD835\uDCAB ∨ \uD835\uDCAC)");
-                        MatchUtilities.clearFormMatch();
+                        CompiledForm negationForm = forms.negatedDisjunction;
+                        context.clear();
                         try {
-                            MatchUtilities.simpleExpFormMatch(negationForm, lineFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                            Formula matchForm = (Formula) ParseUtilities.parseDoc(negationForm, metaLanguage.getNameString()).get(0).getMatch();
+                            MatchUtilities.simpleExpFormMatch(context, negationForm, lineFormula, objectLanguage.getNameString());
+                            Formula matchForm = (Formula) negationForm.getMatch(context);
 
-                            String lineLabel = line.getLineNumberLabel().getText();
+                            String lineLabel = line.getLabel();
                             DerivationRule contradictionIntroRule = checker.getDerivationRuleset().getContradictionIntroRule();
                             int uses = 0;
-                            for (ViewLine checkLine : viewLines) {
+                            for (CheckLine checkLine : checkLines) {
                                 if (LineType.isContentLine(checkLine.getLineType())) {
-                                    String checkJustString = drvtnExpExercise.getStringFromJustificationFlow(checkLine.getJustificationFlow());
+                                    String checkJustString = checkLine.getJustification();
                                     if (contradictionIntroRule.matches(checkJustString)) {
-                                        List<String> checkLabels = drvtnExpExercise.getLineLabelsFromJustificationFlow(checkLine.getJustificationFlow());
+                                        List<String> checkLabels = checkLine.getJustificationLabels();
                                         String checkLabelString = checkLabels.get(0);
                                         if (checkLabels.get(0).equals(lineLabel) || checkLabels.get(1).equals(lineLabel)) {
                                             if (targetLine.getAssumptionList().containsAll(checkLine.getAssumptionList()) || checkLine.getAssumptionList().containsAll(targetLine.getAssumptionList()) )
@@ -1421,26 +1306,27 @@ public class DrvtnExpHelp {
     }
 
     private String availableNegatedExistential() {
+        MatchContext context = new MatchContext();
         String negLabelString = "0";
-        for (ViewLine line : viewLines) {
+        for (CheckLine line : checkLines) {
             if (LineType.isContentLine(line.getLineType())) {
-                if (checker.lineIsAccessibleTo(line, targetLine).getKey()) {
-                    Formula lineFormula = getFormulaFromViewLine(line);
+                if (checker.getModelCheck().lineIsAccessibleTo(line, targetLine).getKey()) {
+                    Formula lineFormula = line.getFormula();
                     if (lineFormula != null) {
-                        Document negationForm = new Document("∼\u2203\ud835\udccd\ud835\udcab");
-                        MatchUtilities.clearFormMatch();
+                        CompiledForm negationForm = forms.negatedExistential;
+                        context.clear();
                         try {
-                            MatchUtilities.simpleExpFormMatch(negationForm, lineFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                            Formula matchForm = (Formula) ParseUtilities.parseDoc(negationForm, metaLanguage.getNameString()).get(0).getMatch();
+                            MatchUtilities.simpleExpFormMatch(context, negationForm, lineFormula, objectLanguage.getNameString());
+                            Formula matchForm = (Formula) negationForm.getMatch(context);
 
-                            String lineLabel = line.getLineNumberLabel().getText();
+                            String lineLabel = line.getLabel();
                             DerivationRule contradictionIntroRule = checker.getDerivationRuleset().getContradictionIntroRule();
                             int uses = 0;
-                            for (ViewLine checkLine : viewLines) {
+                            for (CheckLine checkLine : checkLines) {
                                 if (LineType.isContentLine(checkLine.getLineType())) {
-                                    String checkJustString = drvtnExpExercise.getStringFromJustificationFlow(checkLine.getJustificationFlow());
+                                    String checkJustString = checkLine.getJustification();
                                     if (contradictionIntroRule.matches(checkJustString)) {
-                                        List<String> checkLabels = drvtnExpExercise.getLineLabelsFromJustificationFlow(checkLine.getJustificationFlow());
+                                        List<String> checkLabels = checkLine.getJustificationLabels();
                                         String checkLabelString = checkLabels.get(0);
                                         if (checkLabels.get(0).equals(lineLabel) || checkLabels.get(1).equals(lineLabel)) {
                                             if (targetLine.getAssumptionList().containsAll(checkLine.getAssumptionList()) || checkLine.getAssumptionList().containsAll(targetLine.getAssumptionList()) )
@@ -1465,12 +1351,13 @@ public class DrvtnExpHelp {
 
 
     private boolean negatedDisjunctionInList(List<Formula> formulaList, List<Formula> excludeList) {
-        Document negatedDisjunctionForm = new Document("∼(\uD835\uDCAB ∨ \uD835\uDCAC)");
+        MatchContext context = new MatchContext();
+        CompiledForm negatedDisjunctionForm = forms.negatedDisjunction;
         for (Formula formula : formulaList) {
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(negatedDisjunctionForm, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                Expression matchExp = ParseUtilities.parseDoc(negatedDisjunctionForm, metaLanguage.getNameString()).get(0).getMatch();
+                MatchUtilities.simpleExpFormMatch(context, negatedDisjunctionForm, formula, objectLanguage.getNameString());
+                Expression matchExp = negatedDisjunctionForm.getMatch(context);
                 if (!excludeList.contains((Formula) matchExp)) return true;
                 //    return true;
             } catch (TextMessageException e) {}
@@ -1480,12 +1367,13 @@ public class DrvtnExpHelp {
 
 
     private boolean disjunctionInList(List<Formula> formulaList, List<Formula> excludeList) {
-        Document disjunctionForm = new Document("(\ud835\udcab \u2228 \ud835\udcac)");
+        MatchContext context = new MatchContext();
+        CompiledForm disjunctionForm = forms.disjunction;
         for (Formula formula : formulaList) {
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(disjunctionForm, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                Expression matchExp = ParseUtilities.parseDoc(disjunctionForm, metaLanguage.getNameString()).get(0).getMatch();
+                MatchUtilities.simpleExpFormMatch(context, disjunctionForm, formula, objectLanguage.getNameString());
+                Expression matchExp = disjunctionForm.getMatch(context);
                 if (!excludeList.contains((Formula) matchExp)) return true;
 
             //    return true;
@@ -1495,12 +1383,13 @@ public class DrvtnExpHelp {
     }
 
     private boolean existentialInList(List<Formula> formulaList, List<Formula> excludeList) {
-        Document existentialForm = new Document("\u2203\ud835\udccd\ud835\udcab");
+        MatchContext context = new MatchContext();
+        CompiledForm existentialForm = forms.existential;
         for (Formula formula : formulaList) {
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(existentialForm, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                Expression matchExp = ParseUtilities.parseDoc(existentialForm, metaLanguage.getNameString()).get(0).getMatch();
+                MatchUtilities.simpleExpFormMatch(context, existentialForm, formula, objectLanguage.getNameString());
+                Expression matchExp = existentialForm.getMatch(context);
                 if (!excludeList.contains((Formula) matchExp)) return true;
 
                 //    return true;
@@ -1512,28 +1401,29 @@ public class DrvtnExpHelp {
 
     //list assumed to be accessible formulas
     private String availableDisjunction() {
+        MatchContext context = new MatchContext();
         String disjLabelString = "0";
-        for (ViewLine line : viewLines) {
+        for (CheckLine line : checkLines) {
             if (LineType.isContentLine(line.getLineType())) {
-                if (checker.lineIsAccessibleTo(line, targetLine).getKey()) {
-                    Formula lineFormula = getFormulaFromViewLine(line);
+                if (checker.getModelCheck().lineIsAccessibleTo(line, targetLine).getKey()) {
+                    Formula lineFormula = line.getFormula();
                     if (lineFormula != null) {
-                        Document disjunctionForm = new Document("(\ud835\udcab \u2228 \ud835\udcac)");
-                        MatchUtilities.clearFormMatch();
+                        CompiledForm disjunctionForm = forms.disjunction;
+                        context.clear();
                         try {
-                            MatchUtilities.simpleExpFormMatch(disjunctionForm, lineFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                            String justificationString = drvtnExpExercise.getStringFromJustificationFlow(line.getJustificationFlow());
+                            MatchUtilities.simpleExpFormMatch(context, disjunctionForm, lineFormula, objectLanguage.getNameString());
+                            String justificationString = line.getJustification();
                             DerivationRule disjIntroRule = checker.getDerivationRuleset().getDisjunctionIntroRule();
                             if (!disjIntroRule.matches(justificationString)) {
 
-                                String lineLabel = line.getLineNumberLabel().getText();
+                                String lineLabel = line.getLabel();
                                 DerivationRule disjExpRule = checker.getDerivationRuleset().getDisjunctionExploitRule();
                                 boolean used = false;
-                                for (ViewLine checkLine : viewLines) {
+                                for (CheckLine checkLine : checkLines) {
                                     if (LineType.isContentLine(checkLine.getLineType())) {
-                                        String checkJustString = drvtnExpExercise.getStringFromJustificationFlow(checkLine.getJustificationFlow());
+                                        String checkJustString = checkLine.getJustification();
                                         if (disjExpRule.matches(checkJustString)) {
-                                            List<String> checkLabels = drvtnExpExercise.getLineLabelsFromJustificationFlow(checkLine.getJustificationFlow());
+                                            List<String> checkLabels = checkLine.getJustificationLabels();
                                             String checkLabelString = checkLabels.get(0);
                                             if (checkLabelString.equals(lineLabel)) {
                                                 if (targetLine.getAssumptionList().containsAll(checkLine.getAssumptionList()) || checkLine.getAssumptionList().containsAll(targetLine.getAssumptionList()))
@@ -1557,28 +1447,29 @@ public class DrvtnExpHelp {
     }
 
     private String availableExistential() {
+        MatchContext context = new MatchContext();
         String exisLabelString = "0";
-        for (ViewLine line : viewLines) {
+        for (CheckLine line : checkLines) {
             if (LineType.isContentLine(line.getLineType())) {
-                if (checker.lineIsAccessibleTo(line, targetLine).getKey()) {
-                    Formula lineFormula = getFormulaFromViewLine(line);
+                if (checker.getModelCheck().lineIsAccessibleTo(line, targetLine).getKey()) {
+                    Formula lineFormula = line.getFormula();
                     if (lineFormula != null) {
-                        Document existentialForm = new Document("\u2203\ud835\udccd\ud835\udcab");
-                        MatchUtilities.clearFormMatch();
+                        CompiledForm existentialForm = forms.existential;
+                        context.clear();
                         try {
-                            MatchUtilities.simpleExpFormMatch(existentialForm, lineFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
-                            String justificationString = drvtnExpExercise.getStringFromJustificationFlow(line.getJustificationFlow());
+                            MatchUtilities.simpleExpFormMatch(context, existentialForm, lineFormula, objectLanguage.getNameString());
+                            String justificationString = line.getJustification();
                             DerivationRule exisIntroRule = checker.getDerivationRuleset().getExisIntroRule();
                             if (!exisIntroRule.matches(justificationString)) {
 
-                                String lineLabel = line.getLineNumberLabel().getText();
+                                String lineLabel = line.getLabel();
                                 DerivationRule exisExpRule = checker.getDerivationRuleset().getExisExploitRule();
                                 boolean used = false;
-                                for (ViewLine checkLine : viewLines) {
+                                for (CheckLine checkLine : checkLines) {
                                     if (LineType.isContentLine(checkLine.getLineType())) {
-                                        String checkJustString = drvtnExpExercise.getStringFromJustificationFlow(checkLine.getJustificationFlow());
+                                        String checkJustString = checkLine.getJustification();
                                         if (exisExpRule.matches(checkJustString)) {
-                                            List<String> checkLabels = drvtnExpExercise.getLineLabelsFromJustificationFlow(checkLine.getJustificationFlow());
+                                            List<String> checkLabels = checkLine.getJustificationLabels();
                                             String checkLabelString = checkLabels.get(0);
                                             if (checkLabelString.equals(lineLabel)) {
                                                 if (targetLine.getAssumptionList().containsAll(checkLine.getAssumptionList()) || checkLine.getAssumptionList().containsAll(targetLine.getAssumptionList()))
@@ -1602,10 +1493,10 @@ public class DrvtnExpHelp {
     }
 
     private boolean targetIsEqualityIntro() {
-        Document equalityForm = new Document("\uE8AC\uD835\uDCC8\uD835\uDCC8");
-        MatchUtilities.clearFormMatch();
+        CompiledForm equalityForm = forms.selfEquality;
+        MatchContext context = new MatchContext();
         try {
-            MatchUtilities.simpleExpFormMatch(equalityForm, targetFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
+            MatchUtilities.simpleExpFormMatch(context, equalityForm, targetFormula, objectLanguage.getNameString());
             return true;
         } catch (TextMessageException e) {}
 
@@ -1614,35 +1505,36 @@ public class DrvtnExpHelp {
 
 
     private boolean contradictionInList(List<Formula> formulaList) {
-        Document contradictionForm1 = new Document("\u22a5" );
-        Document contradictionForm2 = new Document("(\ud835\udcac \u2227 \u223c\ud835\udcac)");
+        MatchContext context = new MatchContext();
+        CompiledForm contradictionForm1 = forms.contradiction;
+        CompiledForm contradictionForm2 = forms.contradictoryConjunction;
 
         for (Formula formula : formulaList) {
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(contradictionForm1, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                MatchUtilities.simpleExpFormMatch(context, contradictionForm1, formula, objectLanguage.getNameString());
                 return true;
             } catch (TextMessageException e) {}
 
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(contradictionForm2, targetFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                MatchUtilities.simpleExpFormMatch(context, contradictionForm2, targetFormula, objectLanguage.getNameString());
                 return true;
             } catch (TextMessageException e) {   }
         }
 
         for (Formula formula : formulaList) {
-            Document Pdoc = new Document("\ud835\udcac");
-            Document negPdoc = new Document("\u223c\ud835\udcac");
+            CompiledForm Pdoc = forms.formula;
+            CompiledForm negPdoc = forms.negation;
 
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(Pdoc, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                MatchUtilities.simpleExpFormMatch(context, Pdoc, formula, objectLanguage.getNameString());
             } catch (TextMessageException e) { }
 
             for (Formula candidate : formulaList) {
                 try {
-                    MatchUtilities.simpleExpFormMatch(negPdoc, candidate, objectLanguage.getNameString(), metaLanguage.getNameString());
+                    MatchUtilities.simpleExpFormMatch(context, negPdoc, candidate, objectLanguage.getNameString());
                     return true;
                 } catch (TextMessageException e) {  }
             }
@@ -1652,39 +1544,40 @@ public class DrvtnExpHelp {
     }
 
     private boolean atomicContradictionInList(List<Formula> formulaList) {
-        Document contradictionForm1 = new Document("\u22a5" );
-        Document contradictionForm2 = new Document("(\ud835\udcac \u2227 \u223c\ud835\udcac)");
+        MatchContext context = new MatchContext();
+        CompiledForm contradictionForm1 = forms.contradiction;
+        CompiledForm contradictionForm2 = forms.contradictoryConjunction;
 
         for (Formula formula : formulaList) {
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(contradictionForm1, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                MatchUtilities.simpleExpFormMatch(context, contradictionForm1, formula, objectLanguage.getNameString());
                 return true;
             } catch (TextMessageException e) {}
 
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(contradictionForm2, targetFormula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                MatchUtilities.simpleExpFormMatch(context, contradictionForm2, targetFormula, objectLanguage.getNameString());
                 return true;
             } catch (TextMessageException e) {   }
         }
 
         for (Formula formula : formulaList) {
-            Document Pdoc = new Document("\ud835\udcac");
-            Document negPdoc = new Document("\u223c\ud835\udcac");
+            CompiledForm Pdoc = forms.formula;
+            CompiledForm negPdoc = forms.negation;
 
-            MatchUtilities.clearFormMatch();
+            context.clear();
             try {
-                MatchUtilities.simpleExpFormMatch(Pdoc, formula, objectLanguage.getNameString(), metaLanguage.getNameString());
+                MatchUtilities.simpleExpFormMatch(context, Pdoc, formula, objectLanguage.getNameString());
             } catch (TextMessageException e) { }
 
             for (Formula candidate : formulaList) {
                 try {
-                    MatchUtilities.simpleExpFormMatch(negPdoc, candidate, objectLanguage.getNameString(), metaLanguage.getNameString());
+                    MatchUtilities.simpleExpFormMatch(context, negPdoc, candidate, objectLanguage.getNameString());
                     Formula contForm = null;
                     for (MFormula mForm : MFormula.getmFormulas()) {
                         if (mForm.getFormulaSym().equals(new MFormulaSym("\ud835\udcac", ""))) {
-                            contForm = mForm.getMatch();
+                            contForm = mForm.getMatch(context);
                             break;
                         }
                     }
@@ -1698,39 +1591,34 @@ public class DrvtnExpHelp {
 
 
 
+    /*
+     * Formulas in the lists are interned, so that lookup compares identity.  Line formulas and their parts are shared
+     * with the parse cache, so formulas are interned by internShared, which does not mark them.
+     */
     private boolean formulaInList(Formula formula, List<Formula> formulaList) {
-        return formulaList.contains(formula);
+        return formulaList.contains(interner.internShared(formula));
     }
 
 
-    private Formula getFormulaFromViewLine(ViewLine viewLine) {
-
-        Formula lineFormula = null;
-        RichTextArea lineRTA = viewLine.getLineContentBoxedDRTA().getRTA();
-        lineRTA.getActionFactory().saveNow().execute(new ActionEvent());
-        Document lineDoc = lineRTA.getDocument();
-        if (!lineDoc.getText().equals("")) {
-            List<Expression> lineExpressions = ParseUtilities.parseDoc(lineDoc, objectLanguage.getNameString());
-            lineFormula = (Formula) lineExpressions.get(0);
-        }
-        return lineFormula;
-    }
 
 
     /*
     private void findTermsInFormulas() {
         termList.clear();
 
-        for (ViewLine line : viewLines) {
+        for (CheckLine line : checkLines) {
             if (LineType.isContentLine(line.getLineType())) {
-               Formula lineForm = getFormulaFromViewLine(line);
+               Formula lineForm = line.getFormula();
                if (lineForm != null) addTermsToList(lineForm);
             }
         }
     }
 
     private void addTermsToList(Expression exp) {
-        if (exp instanceof Term && !termList.contains(exp)) termList.add((Term) exp);
+        if (exp instanceof Term) {
+            Term term = interner.internShared((Term) exp);
+            if (!termList.contains(term)) termList.add(term);
+        }
 
         if (exp.getChildren() != null && exp.getLevel() > 0) {
             for (int i = 0; i < exp.getChildren().size(); i++) {
@@ -1744,19 +1632,22 @@ public class DrvtnExpHelp {
     private void findTermsInFormulas() {
         termList.clear();
 
-        for (ViewLine line : viewLines) {
+        for (CheckLine line : checkLines) {
             if (LineType.isContentLine(line.getLineType())) {
-                Formula lineForm = getFormulaFromViewLine(line);
+                Formula lineForm = line.getFormula();
                 if (lineForm != null) addTermsToList(lineForm, lineForm);
             }
         }
         if (termList.isEmpty()) {
-            termList.add(SyntacticalFns.getDummyVariable());
+            termList.add(SyntacticalFns.getDummyVariable(objectLanguage.getNameString()));
         }
     }
 
     private void addTermsToList(Expression exp, Formula origForm) {
-        if (exp instanceof Term && !termList.contains(exp) && SyntacticalFns.expTermFreeInFormula(origForm, exp, objectLanguage.getNameString())) termList.add((Term) exp);
+        if (exp instanceof Term) {
+            Term term = interner.internShared((Term) exp);
+            if (!termList.contains(term) && SyntacticalFns.expTermFreeInFormula(origForm, exp, objectLanguage.getNameString())) termList.add(term);
+        }
 
         if (exp.getChildren() != null && exp.getLevel() > 0) {
             for (int i = 0; i < exp.getChildren().size(); i++) {
@@ -1804,8 +1695,8 @@ public class DrvtnExpHelp {
 
     private boolean variableScreen(String candidateLineLabel) {
         boolean screen = false;
-        ViewLine candidateLine = checker.getLineFromLabel(candidateLineLabel).getKey();
-        Formula candidateFormula = getFormulaFromViewLine(candidateLine);
+        CheckLine candidateLine = checker.getModelCheck().getLineFromLabel(candidateLineLabel).getKey();
+        Formula candidateFormula = candidateLine.getFormula();
         formulaVars.clear();
         addAllVarsToList(candidateFormula);
 
@@ -1818,16 +1709,12 @@ public class DrvtnExpHelp {
             boolean freeInAssp = false;
             List<String> asspList = targetLine.getAssumptionList();
             for (String asspLabel : asspList) {
-                ViewLine asspLine = checker.getLineFromLabel(asspLabel).getKey();
-                TextFlow asspJustificationFlow = asspLine.getJustificationFlow();
+                CheckLine asspLine = checker.getModelCheck().getLineFromLabel(asspLabel).getKey();
+                String asspJustificationString = asspLine.getJustification();
 
-                String asspJustificationString = (checker instanceof DerivationCheck) ? ((DerivationExercise) checker.getExercise()).getStringFromJustificationFlow(asspJustificationFlow) :
-                        ((DrvtnExpExercise) checker.getExercise()).getStringFromJustificationFlow(asspJustificationFlow);
 
-
-         //       String asspJustificationString = checker.getDrvtnExpExercise().getStringFromJustificationFlow(asspJustificationFlow);
                 if (!checker.getDerivationRuleset().getPremiseRule().matches(asspJustificationString)) {
-                    Formula asspFormula = getFormulaFromViewLine(asspLine);
+                    Formula asspFormula = asspLine.getFormula();
                     if (SyntacticalFns.expTermFreeInFormula(asspFormula, var, objectLanguage.getNameString())) {
                         freeInAssp = true;
                         break;
@@ -1844,12 +1731,35 @@ public class DrvtnExpHelp {
         return screen;
     }
 
-
-
-
-
-
-
-
-
+    private static class Forms {
+        final CompiledForm conditional;
+        final CompiledForm biconditional;
+        final CompiledForm conjunction;
+        final CompiledForm disjunction;
+        final CompiledForm contradictoryConjunction;
+        final CompiledForm universal;
+        final CompiledForm existential;
+        final CompiledForm negation;
+        final CompiledForm contradiction;
+        final CompiledForm selfEquality;
+        final CompiledForm formula;
+        final CompiledForm negatedDisjunction;
+        final CompiledForm negatedExistential;
+
+        Forms(Language metaLanguage) {
+            conditional = CompiledForm.getInstance("(\ud835\udcab \u2192 \ud835\udcac)", metaLanguage.getNameString());
+            biconditional = CompiledForm.getInstance("(\ud835\udcab \u2194 \ud835\udcac)", metaLanguage.getNameString());
+            conjunction = CompiledForm.getInstance("(\ud835\udcab \u2227 \ud835\udcac)", metaLanguage.getNameString());
+            disjunction = CompiledForm.getInstance("(\ud835\udcab \u2228 \ud835\udcac)", metaLanguage.getNameString());
+            contradictoryConjunction = CompiledForm.getInstance("(\ud835\udcac \u2227 \u223c\ud835\udcac)", metaLanguage.getNameString());
+            universal = CompiledForm.getInstance("\u2200\ud835\udccd\ud835\udcab", metaLanguage.getNameString());
+            existential = CompiledForm.getInstance("\u2203\ud835\udccd\ud835\udcab", metaLanguage.getNameString());
+            negation = CompiledForm.getInstance("\u223c\ud835\udcac", metaLanguage.getNameString());
+            contradiction = CompiledForm.getInstance("\u22a5", metaLanguage.getNameString());
+            selfEquality = CompiledForm.getInstance("\uE8AC\uD835\uDCC8\uD835\uDCC8", metaLanguage.getNameString());
+            formula = CompiledForm.getInstance("\ud835\udcac", metaLanguage.getNameString());
+            negatedDisjunction = CompiledForm.getInstance("∼(\uD835\uDCAB ∨ \uD835\uDCAC)", metaLanguage.getNameString());
+            negatedExistential = CompiledForm.getInstance("∼\u2203\ud835\udccd\ud835\udcab", metaLanguage.getNameString());
+        }
+    }
 }
@@ -121,7 +121,7 @@ public class DrvtnExpModel implements ExerciseModel<Document>, Serializable {
      * List of {@link slapp.editor.derivation.ModelLine}
      * @return the list of derivation lines
      */
-    List<ModelLine> getDerivationLines() { return derivationLines; }
+    public List<ModelLine> getDerivationLines() { return derivationLines; }
 
     /**
      * The prompt for the explain field
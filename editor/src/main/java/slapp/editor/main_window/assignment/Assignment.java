@@ -19,6 +19,7 @@ import com.gluonhq.richtextarea.model.Document;
 import javafx.print.PageLayout;
 import javafx.print.Paper;
 import javafx.print.Printer;
+import slapp.editor.EditorSettings;
 import slapp.editor.PrintUtilities;
 import slapp.editor.main_window.ExerciseModel;
 
@@ -54,9 +55,10 @@ public class Assignment implements Serializable {
         stream.defaultWriteObject();
     }
 
-    //Paper from PageLayout is not serializable.  Read the rest, accept current printer's default paper.
+    //Paper from PageLayout is not serializable.  Read the rest, accept current printer's default paper (no printer when headless).
     private void readObject (ObjectInputStream stream) throws IOException, ClassNotFoundException {
         stream.defaultReadObject();
+        if (EditorSettings.isHeadless()) return;
         Printer printer = PrintUtilities.getPrinter();
         if (printer != null && pageLayoutValues != null) {
             Paper paper = printer.getPrinterAttributes().getDefaultPaper();
@@ -5,9 +5,7 @@ import com.gluonhq.richtextarea.model.Document;
 import javafx.event.ActionEvent;
 import javafx.scene.Node;
 import javafx.scene.paint.Color;
-import javafx.scene.text.Text;
 import javafx.stage.Stage;
-import javafx.util.Pair;
 import slapp.editor.EditorAlerts;
 import slapp.editor.parser.*;
 import slapp.editor.parser.grammatical_parts.*;
@@ -290,7 +288,7 @@ public class MapABExpCheck {
     }
 
     private boolean checkMatching() {
-        MatchUtilities.clearMatching();
+        MatchContext context = new MatchContext();
 
         for (MapCheckLink checkLink : checkLinks) {
 
@@ -299,17 +297,16 @@ public class MapABExpCheck {
 
             Language metaLang = Languages.getLanguage("LM Meta");
             MapParser.setLanguage(metaLang);
-            ParseUtilities.setLanguage(metaLang);
             List<Expression> metaSyms = MapParser.parseToSymbol(checkLink.getMetaExpressions());
             checkLink.setMetaExpSize(metaSyms.size());
 
             //parse meta symbol and (check in vocabulary)
             if (metaSyms.get(0).getType() == ExpressionType.ORIGINAL_ELEMENT) {
                 checkLink.getLink().setMapLinkHighlight();
-                List<Text> texts = new ArrayList<>();
-                texts.add(new Text("Linked meta symbol not in vocabulary of "));
+                List<StyledText> texts = new ArrayList<>();
+                texts.add(new StyledText("Linked meta symbol not in vocabulary of "));
                 texts.addAll(metaLang.getNameTextList());
-                texts.add(new Text("."));
+                texts.add(new StyledText("."));
                 EditorAlerts.showSimpleTxtListAlert("Vocabulary Issue:", texts);
                 checkLink.getLink().resetMapLinkHighlight();
                 return false;
@@ -317,14 +314,13 @@ public class MapABExpCheck {
 
             List<Expression> metaParse = new ArrayList<>();
             metaParse.add(metaSyms.get(0));
-            ParseUtilities.parseExpressions(metaParse);
+            ParseUtilities.parseExpressions(metaParse, metaLang);
             metaExp = metaParse.get(0);
 
             //parse object expression
-            Language objLang = Languages.getLanguage(objLangName);
+            Language objLang = Languages.getLanguageCopy(objLangName);
             objLang.setXrelationSymbolsRequireSuper(true);
             MapParser.setLanguage(objLang);
-            ParseUtilities.setLanguage(objLang);
 
             if (!checkLink.isObjectGroup()) {
                 objectSyms = MapParser.parseToSymbol(checkLink.getObjectExpressions());
@@ -332,33 +328,33 @@ public class MapABExpCheck {
 
                 List<Expression> objectParse = new ArrayList<>();
                 objectParse.add(objectSyms.get(0));
-                ParseUtilities.parseExpressions(objectParse);
+                ParseUtilities.parseExpressions(objectParse, objLang);
                 objectExp = objectParse.get(0);
             }
             else {
-                objectSyms = ParseUtilities.parseExpressions(checkLink.getObjectExpressions());
+                objectSyms = ParseUtilities.parseExpressions(checkLink.getObjectExpressions(), objLang);
                 checkLink.setObjectExpSize(objectSyms.size());
                 objectExp = objectSyms.get(0);
             }
 
            // System.out.println("meta: " + metaExp +" " + metaExp.getType() + " object " + objectExp + " " + objectExp.getType());
 
-            if (!checkExpressionMatch(metaExp, objectExp, checkLink)) return false;
+            if (!checkExpressionMatch(context, metaExp, objectExp, checkLink)) return false;
         }
         return true;
     }
 
-    private boolean checkExpressionMatch(Expression metaExp, Expression objectExp, MapCheckLink checkLink) {
+    private boolean checkExpressionMatch(MatchContext context, Expression metaExp, Expression objectExp, MapCheckLink checkLink) {
 
         boolean result = true;
 
         if (metaExp instanceof OpenBracket) {
             if (!((OpenBracket) metaExp).equals(objectExp)) {
                 checkLink.getLink().setMapLinkHighlight();
-                List<Text> texts = new ArrayList<>();
-                texts.add(new Text("The '"));
+                List<StyledText> texts = new ArrayList<>();
+                texts.add(new StyledText("The '"));
                 texts.addAll(metaExp.toTextList());
-                texts.add(new Text("' symbol maps only to itself."));
+                texts.add(new StyledText("' symbol maps only to itself."));
                 EditorAlerts.showSimpleTxtListAlert("Match Issue:", texts);
                 checkLink.getLink().resetMapLinkHighlight();
                 result = false;
@@ -368,10 +364,10 @@ public class MapABExpCheck {
         else if (metaExp instanceof CloseBracket) {
             if (!((CloseBracket) metaExp).equals(objectExp)) {
                 checkLink.getLink().setMapLinkHighlight();
-                List<Text> texts = new ArrayList<>();
-                texts.add(new Text("The '"));
+                List<StyledText> texts = new ArrayList<>();
+                texts.add(new StyledText("The '"));
                 texts.addAll(metaExp.toTextList());
-                texts.add(new Text("' symbol maps only to itself."));
+                texts.add(new StyledText("' symbol maps only to itself."));
                 EditorAlerts.showSimpleTxtListAlert("Match Issue:", texts);
                 checkLink.getLink().resetMapLinkHighlight();
                 result = false;
@@ -380,10 +376,10 @@ public class MapABExpCheck {
         else if (metaExp instanceof Operator) {
             if (!((Operator) metaExp).equals(objectExp)) {
                 checkLink.getLink().setMapLinkHighlight();
-                List<Text> texts = new ArrayList<>();
-                texts.add(new Text("The '"));
+                List<StyledText> texts = new ArrayList<>();
+                texts.add(new StyledText("The '"));
                 texts.addAll(metaExp.toTextList());
-                texts.add(new Text("' symbol maps only to itself."));
+                texts.add(new StyledText("' symbol maps only to itself."));
                 EditorAlerts.showSimpleTxtListAlert("Match Issue:", texts);
                 checkLink.getLink().resetMapLinkHighlight();
                 result = false;
@@ -392,10 +388,10 @@ public class MapABExpCheck {
         else if (metaExp instanceof UniversalQuantifierSym) {
             if (!((UniversalQuantifierSym) metaExp).equals(objectExp)) {
                 checkLink.getLink().setMapLinkHighlight();
-                List<Text> texts = new ArrayList<>();
-                texts.add(new Text("The '"));
+                List<StyledText> texts = new ArrayList<>();
+                texts.add(new StyledText("The '"));
                 texts.addAll(metaExp.toTextList());
-                texts.add(new Text("' symbol maps only to itself."));
+                texts.add(new StyledText("' symbol maps only to itself."));
                 EditorAlerts.showSimpleTxtListAlert("Match Issue:", texts);
                 checkLink.getLink().resetMapLinkHighlight();
                 result = false;
@@ -404,10 +400,10 @@ public class MapABExpCheck {
         else if (metaExp instanceof ExistentialQuantifierSym) {
             if (!((ExistentialQuantifierSym) metaExp).equals(objectExp)) {
                 checkLink.getLink().setMapLinkHighlight();
-                List<Text> texts = new ArrayList<>();
-                texts.add(new Text("The '"));
+                List<StyledText> texts = new ArrayList<>();
+                texts.add(new StyledText("The '"));
                 texts.addAll(metaExp.toTextList());
-                texts.add(new Text("' symbol maps only to itself."));
+                texts.add(new StyledText("' symbol maps only to itself."));
                 EditorAlerts.showSimpleTxtListAlert("Match Issue:", texts);
                 checkLink.getLink().resetMapLinkHighlight();
                 result = false;
@@ -416,10 +412,10 @@ public class MapABExpCheck {
         else if (metaExp instanceof ContradictionSimple) {
             if (!((ContradictionSimple) metaExp).equals(objectExp)) {
                 checkLink.getLink().setMapLinkHighlight();
-                List<Text> texts = new ArrayList<>();
-                texts.add(new Text("The '"));
+                List<StyledText> texts = new ArrayList<>();
+                texts.add(new StyledText("The '"));
                 texts.addAll(metaExp.toTextList());
-                texts.add(new Text("' symbol maps only to itself."));
+                texts.add(new StyledText("' symbol maps only to itself."));
                 EditorAlerts.showSimpleTxtListAlert("Match Issue:", texts);
                 checkLink.getLink().resetMapLinkHighlight();
                 result = false;
@@ -428,16 +424,16 @@ public class MapABExpCheck {
         else if (metaExp instanceof MFormula) {
             if (!(objectExp instanceof Formula)) {
                 checkLink.getLink().setMapLinkHighlight();
-                List<Text> texts = new ArrayList<>();
+                List<StyledText> texts = new ArrayList<>();
                 texts.addAll(metaExp.toTextList());
-                texts.add(new Text(" must map to a formula."));
+                texts.add(new StyledText(" must map to a formula."));
                 EditorAlerts.showSimpleTxtListAlert("Match Issue:", texts);
                 checkLink.getLink().resetMapLinkHighlight();
                 result = false;
             }
             else {
                 try {
-                    ((MFormula) metaExp).setMatch((Formula) objectExp);
+                    ((MFormula) metaExp).setMatch(context, (Formula) objectExp);
                 }
                 catch (TextMessageException e) {
                     checkLink.getLink().setMapLinkHighlight();
@@ -451,16 +447,16 @@ public class MapABExpCheck {
         else if (metaExp instanceof MTerm) {
             if (!(objectExp instanceof Term)) {
                 checkLink.getLink().setMapLinkHighlight();
-                List<Text> texts = new ArrayList<>();
+                List<StyledText> texts = new ArrayList<>();
                 texts.addAll(metaExp.toTextList());
-                texts.add(new Text(" must map to a term."));
+                texts.add(new StyledText(" must map to a term."));
                 EditorAlerts.showSimpleTxtListAlert("Match Issue:", texts);
                 checkLink.getLink().resetMapLinkHighlight();
                 result = false;
             }
             else {
                 try {
-                    ((MTerm) metaExp).setMatch((Term) objectExp);
+                    ((MTerm) metaExp).setMatch(context, (Term) objectExp);
                 }
                 catch (TextMessageException e) {
                     checkLink.getLink().setMapLinkHighlight();
@@ -475,16 +471,16 @@ public class MapABExpCheck {
         else if (metaExp instanceof Term && ((Term) metaExp).getChildren().size() > 0 && ((Term) metaExp).getChildren().get(0) instanceof MVariable) {
             if (!(objectExp instanceof Term && ((Term) objectExp).getTermType() == TermType.VARIABLE)) {
                     checkLink.getLink().setMapLinkHighlight();
-                    List<Text> texts = new ArrayList<>();
+                    List<StyledText> texts = new ArrayList<>();
                     texts.addAll(metaExp.toTextList());
-                    texts.add(new Text(" must map to a variable."));
+                    texts.add(new StyledText(" must map to a variable."));
                     EditorAlerts.showSimpleTxtListAlert("Match Issue:", texts);
                     checkLink.getLink().resetMapLinkHighlight();
                     result = false;
             }
             else {
                 try {
-                    ((MVariable) ((Term) metaExp).getChildren().get(0)).setMatch((VariableSym) ((Term) objectExp).getChildren().get(0));
+                    ((MVariable) ((Term) metaExp).getChildren().get(0)).setMatch(context, (VariableSym) ((Term) objectExp).getChildren().get(0));
                 }
                 catch (TextMessageException e) {
                     checkLink.getLink().setMapLinkHighlight();
@@ -498,16 +494,16 @@ public class MapABExpCheck {
         else if (metaExp instanceof Term && ((Term) metaExp).getChildren().size() > 0 && ((Term) metaExp).getChildren().get(0) instanceof MConstant) {
             if (!(objectExp instanceof Term && ((Term) objectExp).getTermType() == TermType.CONSTANT)) {
                 checkLink.getLink().setMapLinkHighlight();
-                List<Text> texts = new ArrayList<>();
+                List<StyledText> texts = new ArrayList<>();
                 texts.addAll(metaExp.toTextList());
-                texts.add(new Text(" must map to a constant."));
+                texts.add(new StyledText(" must map to a constant."));
                 EditorAlerts.showSimpleTxtListAlert("Match Issue:", texts);
                 checkLink.getLink().resetMapLinkHighlight();
                 result = false;
             }
             else {
                 try {
-                    ((MConstant) ((Term) metaExp).getChildren().get(0)).setMatch((Constant) ((Term) objectExp).getChildren().get(0));
+                    ((MConstant) ((Term) metaExp).getChildren().get(0)).setMatch(context, (Constant) ((Term) objectExp).getChildren().get(0));
                 }
                 catch (TextMessageException e) {
                     checkLink.getLink().setMapLinkHighlight();
@@ -521,16 +517,16 @@ public class MapABExpCheck {
         else if (metaExp instanceof SentenceAtomic && ((SentenceAtomic) metaExp).getMainLetter() instanceof MSentenceLetter) {
             if (!(objectExp instanceof SentenceAtomic)) {
                 checkLink.getLink().setMapLinkHighlight();
-                List<Text> texts = new ArrayList<>();
+                List<StyledText> texts = new ArrayList<>();
                 texts.addAll(metaExp.toTextList());
-                texts.add(new Text(" must map to a sentence letter."));
+                texts.add(new StyledText(" must map to a sentence letter."));
                 EditorAlerts.showSimpleTxtListAlert("Match Issue:", texts);
                 checkLink.getLink().resetMapLinkHighlight();
                 result = false;
             }
             else {
                 try {
-                    ((MSentenceLetter) ((SentenceAtomic) metaExp).getMainLetter()).setMatch((SentenceLetter) ((SentenceAtomic) objectExp).getMainLetter());
+                    ((MSentenceLetter) ((SentenceAtomic) metaExp).getMainLetter()).setMatch(context, (SentenceLetter) ((SentenceAtomic) objectExp).getMainLetter());
                 }
                 catch (TextMessageException e) {
                     checkLink.getLink().setMapLinkHighlight();
@@ -544,25 +540,25 @@ public class MapABExpCheck {
         else if (metaExp instanceof MRelationSymbol) {
             if (!(objectExp instanceof RelationSymbol)) {
                 checkLink.getLink().setMapLinkHighlight();
-                List<Text> texts = new ArrayList<>();
+                List<StyledText> texts = new ArrayList<>();
                 texts.addAll(metaExp.toTextList());
-                texts.add(new Text(" must map to a " + ((MRelationSymbol) metaExp).getPlaces() +"-place relation symbol."));
+                texts.add(new StyledText(" must map to a " + ((MRelationSymbol) metaExp).getPlaces() +"-place relation symbol."));
                 EditorAlerts.showSimpleTxtListAlert("Match Issue:", texts);
                 checkLink.getLink().resetMapLinkHighlight();
                 result = false;
             }
             else if (((MRelationSymbol) metaExp).getPlaces() != ((RelationSymbol) objectExp).getPlaces()) {
                 checkLink.getLink().setMapLinkHighlight();
-                List<Text> texts = new ArrayList<>();
+                List<StyledText> texts = new ArrayList<>();
                 texts.addAll(metaExp.toTextList());
-                texts.add(new Text(" must map to a " + ((MRelationSymbol) metaExp).getPlaces() + "-place relation symbol."));
+                texts.add(new StyledText(" must map to a " + ((MRelationSymbol) metaExp).getPlaces() + "-place relation symbol."));
                 EditorAlerts.showSimpleTxtListAlert("Match Issue:", texts);
                 checkLink.getLink().resetMapLinkHighlight();
                 result = false;
             }
             else {
                 try {
-                    ((MRelationSymbol) metaExp).setMatch((RelationSymbol) objectExp);
+                    ((MRelationSymbol) metaExp).setMatch(context, (RelationSymbol) objectExp);
                 }
                 catch (TextMessageException e) {
                     checkLink.getLink().setMapLinkHighlight();
@@ -576,25 +572,25 @@ public class MapABExpCheck {
         else if (metaExp instanceof MFunctionSymbol) {
             if (!(objectExp instanceof FunctionSymbol)) {
                 checkLink.getLink().setMapLinkHighlight();
-                List<Text> texts = new ArrayList<>();
+                List<StyledText> texts = new ArrayList<>();
                 texts.addAll(metaExp.toTextList());
-                texts.add(new Text(" must map to a " + ((MFunctionSymbol) metaExp).getPlaces() +"-place function symbol."));
+                texts.add(new StyledText(" must map to a " + ((MFunctionSymbol) metaExp).getPlaces() +"-place function symbol."));
                 EditorAlerts.showSimpleTxtListAlert("Match Issue:", texts);
                 checkLink.getLink().resetMapLinkHighlight();
                 result = false;
             }
             else if (((MFunctionSymbol) metaExp).getPlaces() != ((FunctionSymbol) objectExp).getPlaces()) {
                 checkLink.getLink().setMapLinkHighlight();
-                List<Text> texts = new ArrayList<>();
+                List<StyledText> texts = new ArrayList<>();
                 texts.addAll(metaExp.toTextList());
-                texts.add(new Text(" must map to a " + ((MFunctionSymbol) metaExp).getPlaces() + "-place function symbol."));
+                texts.add(new StyledText(" must map to a " + ((MFunctionSymbol) metaExp).getPlaces() + "-place function symbol."));
                 EditorAlerts.showSimpleTxtListAlert("Match Issue:", texts);
                 checkLink.getLink().resetMapLinkHighlight();
                 result = false;
             }
             else {
                 try {
-                    ((MFunctionSymbol) metaExp).setMatch((FunctionSymbol) objectExp);
+                    ((MFunctionSymbol) metaExp).setMatch(context, (FunctionSymbol) objectExp);
                 }
                 catch (TextMessageException e) {
                     checkLink.getLink().setMapLinkHighlight();
@@ -616,11 +612,11 @@ public class MapABExpCheck {
             }
             if (!isExpression) {
                 checkLink.getLink().setMapLinkHighlight();
-                List<Text> texts = new ArrayList<>();
+                List<StyledText> texts = new ArrayList<>();
                 texts.addAll(metaExp.toTextList());
-                texts.add(new Text(" must map to an expression of "));
+                texts.add(new StyledText(" must map to an expression of "));
                 texts.addAll(Languages.getLanguage(objLangName).getNameTextList());
-                texts.add(new Text("."));
+                texts.add(new StyledText("."));
                 EditorAlerts.showSimpleTxtListAlert("Match Issue:", texts);
                 checkLink.getLink().resetMapLinkHighlight();
                 result = false;
@@ -628,7 +624,7 @@ public class MapABExpCheck {
             else {
                 if (!checkLink.isObjectGroup()) {
                     try {
-                        ((MAnyExpression) metaExp).setMatch(Collections.singletonList(objectSyms.get(0)));
+                        ((MAnyExpression) metaExp).setMatch(context, Collections.singletonList(objectSyms.get(0)));
                     }
                     catch (TextMessageException e) {
                         checkLink.getLink().setMapLinkHighlight();
@@ -639,7 +635,7 @@ public class MapABExpCheck {
                 }
                 else {
                     try {
-                        ((MAnyExpression) metaExp).setMatch(objectSyms);
+                        ((MAnyExpression) metaExp).setMatch(context, objectSyms);
                         checkLink.setObjectExpSize(1);
                     }
                     catch (TextMessageException e) {
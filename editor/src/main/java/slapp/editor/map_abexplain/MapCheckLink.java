@@ -40,17 +40,15 @@ public class MapCheckLink {
 /*
 
         MapParser.setLanguage(Languages.getLanguage("LM Meta"));
-        ParseUtilities.setLanguage(Languages.getLanguage("LM Meta"));
         List<Expression> metaSyms = MapParser.parseToSymbol(metaExpressions);
 
 
-        Language objLang = Languages.getLanguage("\u2112\ud835\udcc6 (w/abv)");
+        Language objLang = Languages.getLanguageCopy("\u2112\ud835\udcc6 (w/abv)");
         objLang.setXrelationSymbolsRequireSuper(true);
         MapParser.setLanguage(objLang);
-        ParseUtilities.setLanguage(objLang);
         List<Expression> objectSyms;
         if (!isObjectGroup())  objectSyms = MapParser.parseToSymbol(objectExpressions);
-        else objectSyms = ParseUtilities.parseExpressions(objectExpressions);
+        else objectSyms = ParseUtilities.parseExpressions(objectExpressions, objLang);
 
       //  return("test");
         return "meta -- size: " + metaSyms.size() + " element " + metaSyms.get(0) + " type " + metaSyms.get(0).getType() + "\n" + "obj -- size: " + objectSyms.size() + " element " + objectSyms.get(0) + " type " + objectSyms.get(0).getType() + "\n";
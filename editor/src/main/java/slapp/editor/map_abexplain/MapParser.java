@@ -17,7 +17,7 @@ public class MapParser {
         maxTermLevel = 0;
 
         List<Expression> simpleSymbols = getSimpleSymbols(expressions);
-        List<Expression> termSymbols = ParseUtilities.getTermSymbols(simpleSymbols);
+        List<Expression> termSymbols = ParseUtilities.getTermSymbols(simpleSymbols, language);
         List<Expression> symbols = getRelSentSymbols(termSymbols);
 
         return symbols;
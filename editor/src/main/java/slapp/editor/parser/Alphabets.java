@@ -1,7 +1,5 @@
 package slapp.editor.parser;
 
-import slapp.editor.EditorAlerts;
-
 import java.util.List;
 
 public class Alphabets {
@@ -79,8 +77,7 @@ public class Alphabets {
                 }
             }
         }
-        EditorAlerts.showSimpleAlert("Error", start + "..." + end + " is not a valid character range.\n" + message);
-        return null;
+        throw new IllegalArgumentException(start + "..." + end + " is not a valid character range.  " + message);
     }
 
 
@@ -0,0 +1,119 @@
+package slapp.editor.parser;
+
+import com.gluonhq.richtextarea.model.Document;
+import slapp.editor.parser.grammatical_parts.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * A meta form (as "(𝒫 → 𝒬)") parsed once for its metalanguage.  The form is not changed by matching: the brackets
+ * a match copies onto its nodes and the results of its substitutions are kept in the MatchContext of the match
+ * (as are the bindings of meta formulas, terms and the like), so one form may serve any number of matches at once.
+ *
+ * Forms are interned by text and language with getInstance.  Rules that use the same forms on every check should
+ * compile them once and keep them (as with MetaForms).
+ */
+public final class CompiledForm {
+
+    private static final Map<String, CompiledForm> compiledForms = new ConcurrentHashMap<>();
+
+    private final String form;
+    private final String metaLangName;
+    private final Expression expression;
+    private final List<Expression> nodes;
+
+    private CompiledForm(Document metaDoc, String metaLangName) {
+        this.form = metaDoc.getText();
+        this.metaLangName = metaLangName;
+        this.expression = new Parser(Languages.getLanguage(metaLangName)).parse(metaDoc).getExpressions().get(0);
+        List<Expression> formNodes = new ArrayList<>();
+        addNodes(expression, formNodes);
+        this.nodes = Collections.unmodifiableList(formNodes);
+    }
+
+    public static CompiledForm getInstance(String form, String metaLangName) {
+        return getInstance(form, null, metaLangName);
+    }
+
+    public static CompiledForm getInstance(Document metaDoc, String metaLangName) {
+        return getInstance(ParseCache.getDocumentKey(metaDoc), metaDoc, metaLangName);
+    }
+
+    private static CompiledForm getInstance(String docKey, Document metaDoc, String metaLangName) {
+        String key = docKey + '\u0000' + metaLangName;
+        CompiledForm compiledForm = compiledForms.get(key);
+        if (compiledForm == null) {
+            compiledForm = compiledForms.computeIfAbsent(key, k -> new CompiledForm(metaDoc != null ? metaDoc : new Document(docKey), metaLangName));
+        }
+        return compiledForm;
+    }
+
+    /*
+     * The form as parsed; callers do not change it
+     * @return the meta expression
+     */
+    public Expression getExpression() {
+        return expression;
+    }
+
+    /*
+     * Object expression for the form under the bindings of the current MatchContext (as from a fresh parse of the
+     * form matched in that context)
+     * @return the match, or null if some part of the form is unbound
+     */
+    public Expression getMatch(MatchContext context) {
+        return expression.getMatch(context);
+    }
+
+    public String getForm() {
+        return form;
+    }
+
+    public String getMetaLangName() {
+        return metaLangName;
+    }
+
+    /*
+     * Formula and term nodes of the form (the nodes on which a match may leave brackets or substitution results)
+     * @return the nodes
+     */
+    List<Expression> getNodes() {
+        return nodes;
+    }
+
+    private static void addNodes(Expression exp, List<Expression> nodes) {
+        if (exp instanceof Formula) {
+            Formula formula = (Formula) exp;
+            nodes.add(formula);
+
+            Operator operator = formula.getMainOperator();
+            if (operator != null) {
+                addNodes(operator.getVariableTerm(), nodes);
+                if (operator instanceof UnivBoundedQuantOp) addNodes(((UnivBoundedQuantOp) operator).getBoundingTerm(), nodes);
+                if (operator instanceof ExisBoundedQuantOp) addNodes(((ExisBoundedQuantOp) operator).getBoundingTerm(), nodes);
+                if (operator instanceof UnivRestrictedQuantOp) addNodes(((UnivRestrictedQuantOp) operator).getRestrictingFormula(), nodes);
+                if (operator instanceof ExisRestrictedQuantOp) addNodes(((ExisRestrictedQuantOp) operator).getRestrictingFormula(), nodes);
+            }
+            if (formula.getSubTransform() != null) addTransformNodes(formula.getSubTransform(), nodes);
+        }
+        else if (exp instanceof Term) {
+            Term term = (Term) exp;
+            nodes.add(term);
+            if (term.getSubTransform() != null) addTransformNodes(term.getSubTransform(), nodes);
+        }
+        else return;
+
+        if (exp.getChildren() != null) {
+            for (Expression child : exp.getChildren()) addNodes(child, nodes);
+        }
+    }
+
+    private static void addTransformNodes(SubstitutionTransform transform, List<Expression> nodes) {
+        addNodes(transform.getExp1(), nodes);
+        addNodes(transform.getExp2(), nodes);
+    }
+}
@@ -1,6 +1,5 @@
 package slapp.editor.parser;
 
-import javafx.scene.text.Text;
 
 import java.util.List;
 
@@ -13,9 +12,9 @@ public interface Expression {
 
     default int getLevel() {return -1;}
 
-    default List<Text> toTextList() {return null;};
+    default List<StyledText> toTextList() {return null;};
 
-    default Expression getMatch() {return null;};
+    default Expression getMatch(MatchContext context) {return null;};
 
 
 
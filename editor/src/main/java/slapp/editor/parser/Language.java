@@ -1,20 +1,26 @@
 package slapp.editor.parser;
 
 import com.gluonhq.richtextarea.model.Document;
-import javafx.scene.text.Text;
 
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class Language implements Serializable {
 
     private static final long serialVersionUID = 100L;
 
     private String nameString;
-    private List<Text> nameTextList = new ArrayList();
+    private String nameBaseStr = "";
+    private String nameSupStr = "";
+    private String nameSubStr = "";
 
     private String openBracket1, closeBracket1;
     private String openBracket2, closeBracket2;
@@ -77,6 +83,11 @@ public class Language implements Serializable {
     private String slashDivider = "/";
     private String dSlashDivider = "\u2afd";
 
+    //set for the shared instances held by Languages
+    private transient boolean frozen = false;
+    private transient List<String> frozenVariables;
+    private transient List<String> frozenNoMatchVariables;
+    private transient Map<String, Set<SymbolKind>> symbolTable;
 
 
     Language(String nameString) {
@@ -85,10 +96,124 @@ public class Language implements Serializable {
 
 
     void setNameTexts(String baseStr, String supscriptStr, String subscriptStr ) {
-        if (!baseStr.isEmpty()) nameTextList.add(ParseUtilities.newRegularText(baseStr));
-        if (!supscriptStr.isEmpty() && subscriptStr.isEmpty()) nameTextList.add(ParseUtilities.newSuperscriptText(supscriptStr));
-        if (supscriptStr.isEmpty() && !subscriptStr.isEmpty()) nameTextList.add(ParseUtilities.newSubscriptText(subscriptStr));
-        if (!supscriptStr.isEmpty() && !subscriptStr.isEmpty()) nameTextList.addAll(Arrays.asList(ParseUtilities.newSupSubText(supscriptStr, subscriptStr)));
+        beforeChange();
+        nameBaseStr = baseStr;
+        nameSupStr = supscriptStr;
+        nameSubStr = subscriptStr;
+    }
+
+    /*
+     * Fix the language for sharing.  After this setters throw IllegalStateException, and the symbol lists are
+     * unmodifiable.  A language to be adjusted (as for dropped brackets) should come from Languages.getLanguageCopy.
+     */
+    void freeze() {
+        variables = Collections.unmodifiableList(variables);
+        constants = Collections.unmodifiableList(constants);
+        sentenceLetters = Collections.unmodifiableList(sentenceLetters);
+        xfunctionSymbols = Collections.unmodifiableList(xfunctionSymbols);
+        onePlaceFunctionSymbols = Collections.unmodifiableList(onePlaceFunctionSymbols);
+        twoPlaceFunctionSymbols = Collections.unmodifiableList(twoPlaceFunctionSymbols);
+        xrelationSymbols = Collections.unmodifiableList(xrelationSymbols);
+        onePlaceRelSymbols = Collections.unmodifiableList(onePlaceRelSymbols);
+        noMatchVariables = Collections.unmodifiableList(noMatchVariables);
+        mTermSymbols = Collections.unmodifiableList(mTermSymbols);
+        mFormulaSymbols = Collections.unmodifiableList(mFormulaSymbols);
+        arbitraryExpressionSymbols = Collections.unmodifiableList(arbitraryExpressionSymbols);
+        pMTermSymbols = Collections.unmodifiableList(pMTermSymbols);
+        pMFormulaSymbols = Collections.unmodifiableList(pMFormulaSymbols);
+        frozenVariables = Collections.unmodifiableList(getVariables());
+        frozenNoMatchVariables = Collections.unmodifiableList(getNoMatchVariables());
+        symbolTable = buildSymbolTable();
+        frozen = true;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    //shared languages do not change; others rebuild the symbol table on next use
+    private void beforeChange() {
+        if (frozen) throw new IllegalStateException("Language " + nameString + " is shared and cannot be modified.");
+        symbolTable = null;
+    }
+
+    /*
+     * Kinds of the symbol in this language (empty if none).  The table is built once from the symbol lists, so the
+     * parse passes classify each element by a single lookup rather than by search of the lists.
+     */
+    public Set<SymbolKind> getSymbolKinds(String symbol) {
+        Map<String, Set<SymbolKind>> table = symbolTable;
+        if (table == null) {
+            table = buildSymbolTable();
+            symbolTable = table;
+        }
+        Set<SymbolKind> kinds = table.get(symbol);
+        return kinds != null ? kinds : Collections.emptySet();
+    }
+
+    public boolean isSymbolKind(String symbol, SymbolKind kind) {
+        return getSymbolKinds(symbol).contains(kind);
+    }
+
+    private Map<String, Set<SymbolKind>> buildSymbolTable() {
+        Map<String, EnumSet<SymbolKind>> table = new HashMap<>();
+        addSymbol(table, openBracket1, SymbolKind.OPEN_BRACKET1);
+        addSymbol(table, openBracket2, SymbolKind.OPEN_BRACKET2);
+        addSymbol(table, openBracket3, SymbolKind.OPEN_BRACKET3);
+        addSymbol(table, closeBracket1, SymbolKind.CLOSE_BRACKET1);
+        addSymbol(table, closeBracket2, SymbolKind.CLOSE_BRACKET2);
+        addSymbol(table, closeBracket3, SymbolKind.CLOSE_BRACKET3);
+        addSymbol(table, negation, SymbolKind.NEGATION);
+        addSymbol(table, conditional, SymbolKind.CONDITIONAL);
+        addSymbol(table, biconditional, SymbolKind.BICONDITIONAL);
+        addSymbol(table, conjunction, SymbolKind.CONJUNCTION);
+        addSymbol(table, disjunction, SymbolKind.DISJUNCTION);
+        addSymbol(table, nand, SymbolKind.NAND);
+        addSymbol(table, nor, SymbolKind.NOR);
+        addSymbol(table, universalQuant, SymbolKind.UNIVERSAL_QUANT);
+        addSymbol(table, existentialQuant, SymbolKind.EXISTENTIAL_QUANT);
+        addSymbol(table, dividerSymbol, SymbolKind.DIVIDER);
+        addSymbol(table, angleOpenBracket, SymbolKind.ANGLE_OPEN_BRACKET);
+        addSymbol(table, angleCloseBracket, SymbolKind.ANGLE_CLOSE_BRACKET);
+        addSymbol(table, commaDivider, SymbolKind.COMMA_DIVIDER);
+        addSymbol(table, slashDivider, SymbolKind.SLASH_DIVIDER);
+        addSymbol(table, dSlashDivider, SymbolKind.DSLASH_DIVIDER);
+        addSymbol(table, contradictionSymbol, SymbolKind.CONTRADICTION);
+
+        addSymbols(table, getVariables(), SymbolKind.VARIABLE);
+        addSymbols(table, getNoMatchVariables(), SymbolKind.NO_MATCH_VARIABLE);
+        addSymbols(table, constants, SymbolKind.CONSTANT);
+        addSymbols(table, sentenceLetters, SymbolKind.SENTENCE_LETTER);
+        addSymbols(table, onePlaceFunctionSymbols, SymbolKind.ONE_PLACE_FUNCTION);
+        addSymbols(table, twoPlaceFunctionSymbols, SymbolKind.TWO_PLACE_FUNCTION);
+        addSymbols(table, xfunctionSymbols, SymbolKind.XFUNCTION);
+        addSymbols(table, onePlaceRelSymbols, SymbolKind.ONE_PLACE_RELATION);
+        addSymbols(table, xrelationSymbols, SymbolKind.XRELATION);
+        if (infixRelations != null) {
+            addSymbols(table, infixRelations.keySet(), SymbolKind.INFIX_RELATION);
+            addSymbols(table, infixRelations.values(), SymbolKind.INFIX_COMPLEMENT);
+        }
+        addSymbols(table, mTermSymbols, SymbolKind.M_TERM);
+        addSymbols(table, mFormulaSymbols, SymbolKind.M_FORMULA);
+        addSymbols(table, arbitraryExpressionSymbols, SymbolKind.ARBITRARY_EXPRESSION);
+        addSymbols(table, pMTermSymbols, SymbolKind.PSEUDO_M_TERM);
+        addSymbols(table, pMFormulaSymbols, SymbolKind.PSEUDO_M_FORMULA);
+
+        Map<String, Set<SymbolKind>> symbolTable = new HashMap<>();
+        for (Map.Entry<String, EnumSet<SymbolKind>> entry : table.entrySet()) {
+            symbolTable.put(entry.getKey(), Collections.unmodifiableSet(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(symbolTable);
+    }
+
+    private static void addSymbols(Map<String, EnumSet<SymbolKind>> table, Collection<String> symbols, SymbolKind kind) {
+        if (symbols == null) return;
+        for (String symbol : symbols) addSymbol(table, symbol, kind);
+    }
+
+    private static void addSymbol(Map<String, EnumSet<SymbolKind>> table, String symbol, SymbolKind kind) {
+        if (symbol == null) return;
+        table.computeIfAbsent(symbol, k -> EnumSet.noneOf(SymbolKind.class)).add(kind);
     }
 
     public String getInfixRelationKey(String value) {
@@ -111,6 +236,7 @@ public class Language implements Serializable {
     }
 
     public void setOpenBracket1(String openBracket1) {
+        beforeChange();
         this.openBracket1 = openBracket1;
     }
 
@@ -119,6 +245,7 @@ public class Language implements Serializable {
     }
 
     public void setCloseBracket1(String closeBracket1) {
+        beforeChange();
         this.closeBracket1 = closeBracket1;
     }
 
@@ -127,6 +254,7 @@ public class Language implements Serializable {
     }
 
     public void setOpenBracket2(String openBracket2) {
+        beforeChange();
         this.openBracket2 = openBracket2;
     }
 
@@ -135,6 +263,7 @@ public class Language implements Serializable {
     }
 
     public void setCloseBracket2(String closeBracket2) {
+        beforeChange();
         this.closeBracket2 = closeBracket2;
     }
 
@@ -143,6 +272,7 @@ public class Language implements Serializable {
     }
 
     public void setOpenBracket3(String openBracket3) {
+        beforeChange();
         this.openBracket3 = openBracket3;
     }
 
@@ -151,6 +281,7 @@ public class Language implements Serializable {
     }
 
     public void setCloseBracket3(String closeBracket3) {
+        beforeChange();
         this.closeBracket3 = closeBracket3;
     }
 
@@ -159,6 +290,7 @@ public class Language implements Serializable {
     }
 
     public void setAllowDroppedBrackets(boolean allowDroppedBrackets) {
+        beforeChange();
         this.allowDroppedBrackets = allowDroppedBrackets;
     }
 
@@ -167,6 +299,7 @@ public class Language implements Serializable {
     }
 
     public void setNegation(String negation) {
+        beforeChange();
         this.negation = negation;
     }
 
@@ -175,6 +308,7 @@ public class Language implements Serializable {
     }
 
     public void setConditional(String conditional) {
+        beforeChange();
         this.conditional = conditional;
     }
 
@@ -183,6 +317,7 @@ public class Language implements Serializable {
     }
 
     public void setBiconditional(String biconditional) {
+        beforeChange();
         this.biconditional = biconditional;
     }
 
@@ -191,6 +326,7 @@ public class Language implements Serializable {
     }
 
     public void setConjunction(String conjunction) {
+        beforeChange();
         this.conjunction = conjunction;
     }
 
@@ -199,6 +335,7 @@ public class Language implements Serializable {
     }
 
     public void setDisjunction(String disjunction) {
+        beforeChange();
         this.disjunction = disjunction;
     }
 
@@ -207,6 +344,7 @@ public class Language implements Serializable {
     }
 
     public void setNand(String nand) {
+        beforeChange();
         this.nand = nand;
     }
 
@@ -215,6 +353,7 @@ public class Language implements Serializable {
     }
 
     public void setNor(String nor) {
+        beforeChange();
         this.nor = nor;
     }
 
@@ -223,6 +362,7 @@ public class Language implements Serializable {
     }
 
     public void setUniversalQuant(String universalQuant) {
+        beforeChange();
         this.universalQuant = universalQuant;
     }
 
@@ -231,10 +371,12 @@ public class Language implements Serializable {
     }
 
     public void setExistentialQuant(String existentialQuant) {
+        beforeChange();
         this.existentialQuant = existentialQuant;
     }
 
     public List<String> getVariables() {
+        if (frozen) return frozenVariables;
         List<String> newVars = new ArrayList<>();
         newVars.addAll(variables);
         newVars.add("\u1e8f");
@@ -245,6 +387,7 @@ public class Language implements Serializable {
     }
 
     public void setVariables(List<String> variables) {
+        beforeChange();
         this.variables = variables;
     }
 
@@ -257,6 +400,7 @@ public class Language implements Serializable {
     }
 
     public void setVariableSubs(boolean variableSubs) {
+        beforeChange();
         this.variableSubs = variableSubs;
     }
 
@@ -265,6 +409,7 @@ public class Language implements Serializable {
     }
 
     public void setConstants(List<String> constants) {
+        beforeChange();
         this.constants = constants;
     }
 
@@ -273,6 +418,7 @@ public class Language implements Serializable {
     }
 
     public void setConstantSubs(boolean constantSubs) {
+        beforeChange();
         this.constantSubs = constantSubs;
     }
 
@@ -281,6 +427,7 @@ public class Language implements Serializable {
     }
 
     public void setSentenceLetters(List<String> sentenceLetters) {
+        beforeChange();
         this.sentenceLetters = sentenceLetters;
     }
 
@@ -289,6 +436,7 @@ public class Language implements Serializable {
     }
 
     public void setSentenceLetterSubs(boolean sentenceLetterSubs) {
+        beforeChange();
         this.sentenceLetterSubs = sentenceLetterSubs;
     }
 
@@ -297,6 +445,7 @@ public class Language implements Serializable {
     }
 
     public void setXrelationSymbols(List<String> xrelationSymbols) {
+        beforeChange();
         this.xrelationSymbols = xrelationSymbols;
     }
 
@@ -305,6 +454,7 @@ public class Language implements Serializable {
     }
 
     public void setXrelationSymbolSubs(boolean xrelationSymbolSubs) {
+        beforeChange();
         this.xrelationSymbolSubs = xrelationSymbolSubs;
     }
 
@@ -313,6 +463,7 @@ public class Language implements Serializable {
     }
 
     public void setXrelationSymbolsRequireSuper(boolean xrelationSymbolsRequireSuper) {
+        beforeChange();
         this.xrelationSymbolsRequireSuper = xrelationSymbolsRequireSuper;
     }
 
@@ -321,6 +472,7 @@ public class Language implements Serializable {
     }
 
     public void setOnePlaceRelSymbols(List<String> onePlaceRelSymbols) {
+        beforeChange();
         this.onePlaceRelSymbols = onePlaceRelSymbols;
     }
 
@@ -329,6 +481,7 @@ public class Language implements Serializable {
     }
 
     public void setInfixRelations(Map<String, String> infixRelations) {
+        beforeChange();
         this.infixRelations = infixRelations;
     }
 
@@ -337,6 +490,7 @@ public class Language implements Serializable {
     }
 
     public void setAllowBinaryInfixRelations(boolean allowBinaryInfixRelations) {
+        beforeChange();
         this.allowBinaryInfixRelations = allowBinaryInfixRelations;
     }
 
@@ -345,6 +499,7 @@ public class Language implements Serializable {
     }
 
     public void setAllowBinaryInfixNegations(boolean allowBinaryInfixNegations) {
+        beforeChange();
         this.allowBinaryInfixNegations = allowBinaryInfixNegations;
     }
 
@@ -353,6 +508,7 @@ public class Language implements Serializable {
     }
 
     public void setXfunctionSymbols(List<String> xfunctionSymbols) {
+        beforeChange();
         this.xfunctionSymbols = xfunctionSymbols;
     }
 
@@ -361,6 +517,7 @@ public class Language implements Serializable {
     }
 
     public void setXfunctionSymbolSubs(boolean xfunctionSymbolSubs) {
+        beforeChange();
         this.xfunctionSymbolSubs = xfunctionSymbolSubs;
     }
 
@@ -369,6 +526,7 @@ public class Language implements Serializable {
     }
 
     public void setOnePlaceFunctionSymbols(List<String> onePlaceFunctionSymbols) {
+        beforeChange();
         this.onePlaceFunctionSymbols = onePlaceFunctionSymbols;
     }
 
@@ -377,6 +535,7 @@ public class Language implements Serializable {
     }
 
     public void setTwoPlaceFunctionSymbols(List<String> twoPlaceFunctionSymbols) {
+        beforeChange();
         this.twoPlaceFunctionSymbols = twoPlaceFunctionSymbols;
     }
 
@@ -385,6 +544,7 @@ public class Language implements Serializable {
     }
 
     public void setAllowBinaryInfixFunctions(boolean allowBinaryInfixFunctions) {
+        beforeChange();
         this.allowBinaryInfixFunctions = allowBinaryInfixFunctions;
     }
 
@@ -393,6 +553,7 @@ public class Language implements Serializable {
     }
 
     public void setAllowBoundedQuantifiers(boolean allowBoundedQuantifiers) {
+        beforeChange();
         this.allowBoundedQuantifiers = allowBoundedQuantifiers;
     }
 
@@ -401,6 +562,7 @@ public class Language implements Serializable {
     }
 
     public void setDividerSymbol(String dividerSymbol) {
+        beforeChange();
         this.dividerSymbol = dividerSymbol;
     }
 
@@ -409,6 +571,7 @@ public class Language implements Serializable {
     }
 
     public void setUnabbForms(Map<UnabbType, Document> unabbForms) {
+        beforeChange();
         this.unabbForms = unabbForms;
     }
 
@@ -417,6 +580,7 @@ public class Language implements Serializable {
     }
 
     public void setmTermSymbols(List<String> mTermSymbols) {
+        beforeChange();
         this.mTermSymbols = mTermSymbols;
     }
 
@@ -425,6 +589,7 @@ public class Language implements Serializable {
     }
 
     public void setmFormulaSymbols(List<String> mFormulaSymbols) {
+        beforeChange();
         this.mFormulaSymbols = mFormulaSymbols;
     }
 
@@ -433,6 +598,7 @@ public class Language implements Serializable {
     }
 
     public void setArbitraryExpressionSymbols(List<String> arbitraryExpressionSymbols) {
+        beforeChange();
         this.arbitraryExpressionSymbols = arbitraryExpressionSymbols;
     }
 
@@ -457,14 +623,17 @@ public class Language implements Serializable {
     }
 
     public void setdSlashDivider(String dSlashDivider) {
+        beforeChange();
         this.dSlashDivider = dSlashDivider;
     }
 
     public void setSlashDivider(String slashDivider) {
+        beforeChange();
         this.slashDivider = slashDivider;
     }
 
     public void setCommaDivider(String commaDivider) {
+        beforeChange();
         this.commaDivider = commaDivider;
     }
 
@@ -473,6 +642,7 @@ public class Language implements Serializable {
     }
 
     public void setMetalanguage(boolean metalanguage) {
+        beforeChange();
         this.metalanguage = metalanguage;
     }
 
@@ -481,6 +651,7 @@ public class Language implements Serializable {
     }
 
     public void setObjectMetalanguage(boolean objectMetalanguage) {
+        beforeChange();
         this.objectMetalanguage = objectMetalanguage;
     }
 
@@ -489,6 +660,7 @@ public class Language implements Serializable {
     }
 
     public void setContradictionSymbol(String contradictionSymbol) {
+        beforeChange();
         this.contradictionSymbol = contradictionSymbol;
     }
 
@@ -501,14 +673,17 @@ public class Language implements Serializable {
     }
 
     public void setpMTermSymbols(List<String> pMTermSymbols) {
+        beforeChange();
         this.pMTermSymbols = pMTermSymbols;
     }
 
     public void setpMFormulaSymbols(List<String> pMFormulaSymbols) {
+        beforeChange();
         this.pMFormulaSymbols = pMFormulaSymbols;
     }
 
     public List<String> getNoMatchVariables() {
+        if (frozen) return frozenNoMatchVariables;
         List<String> newVars = new ArrayList<>();
         newVars.addAll(noMatchVariables);
         newVars.add("\ue89b");
@@ -518,11 +693,18 @@ public class Language implements Serializable {
         return newVars;
     }
 
-    public List<Text> getNameTextList() {
+    //new texts each call, as they go into the scene graph
+    public List<StyledText> getNameTextList() {
+        List<StyledText> nameTextList = new ArrayList<>();
+        if (!nameBaseStr.isEmpty()) nameTextList.add(ParseUtilities.newRegularText(nameBaseStr));
+        if (!nameSupStr.isEmpty() && nameSubStr.isEmpty()) nameTextList.add(ParseUtilities.newSuperscriptText(nameSupStr));
+        if (nameSupStr.isEmpty() && !nameSubStr.isEmpty()) nameTextList.add(ParseUtilities.newSubscriptText(nameSubStr));
+        if (!nameSupStr.isEmpty() && !nameSubStr.isEmpty()) nameTextList.addAll(Arrays.asList(ParseUtilities.newSupSubText(nameSupStr, nameSubStr)));
         return nameTextList;
     }
 
     public void setNoMatchVariables(List<String> noMatchVariables) {
+        beforeChange();
         this.noMatchVariables = noMatchVariables;
     }
 }
\ No newline at end of file
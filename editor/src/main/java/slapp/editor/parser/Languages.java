@@ -10,7 +10,13 @@ import static java.util.Map.entry;
 
 public class Languages {
 
-    private static List<Language> fixedLanguages = new ArrayList<Language>();
+    /*
+     * Languages are built once, frozen and shared by name.  Every call to getLanguage formerly built the language
+     * afresh (with its alphabets and unabbreviation documents); a caller that adjusts a language (as the tree checks
+     * do for dropped brackets) takes its own instance from getLanguageCopy.
+     */
+    private static final List<Language> fixedLanguages = new ArrayList<Language>();
+    private static final Map<String, Language> languageRegistry = new HashMap<>();
  //   private static List<Language> optionalLanguages = new ArrayList<Language>();
 
     static {
@@ -30,18 +36,23 @@ public class Languages {
         fixedLanguages.add(Lnt_lessthan_abv());
         fixedLanguages.add(MetaO());
         fixedLanguages.add(MetaL());
+
+        for (Language language : fixedLanguages) {
+            language.freeze();
+            languageRegistry.put(language.getNameString(), language);
+        }
     }
 
     public static List<Language> getFixedLanguages() {
-        return fixedLanguages;
+        return Collections.unmodifiableList(fixedLanguages);
     }
 
     public static List<Language> getMappingLanguages() {
         List<Language> mapLanguages = new ArrayList<>();
-        mapLanguages.add(Ls());
-        mapLanguages.add(Ls_abv());
-        mapLanguages.add(Lq());
-        mapLanguages.add(Lq_abv());
+        mapLanguages.add(getLanguage("\u2112\ud835\udcc8"));
+        mapLanguages.add(getLanguage("\u2112\ud835\udcc8 (w/abv)"));
+        mapLanguages.add(getLanguage("\u2112\ud835\udcc6"));
+        mapLanguages.add(getLanguage("\u2112\ud835\udcc6 (w/abv)"));
 
         return mapLanguages;
     }
@@ -59,7 +70,15 @@ public class Languages {
 
      */
 
+    //shared (frozen) language by name; Lq_abv where the name is not known
     public static Language getLanguage(String name) {
+        Language language = languageRegistry.get(name);
+        if (language == null) language = languageRegistry.get("\u2112\ud835\udcc6 (w/abv)");
+        return language;
+    }
+
+    //new instance that may be modified
+    public static Language getLanguageCopy(String name) {
         switch(name){
             case "\u2112\ud835\udcc8": return Ls();
 
@@ -0,0 +1,125 @@
+package slapp.editor.parser;
+
+import slapp.editor.parser.grammatical_parts.Formula;
+import slapp.editor.parser.grammatical_parts.Term;
+import slapp.editor.parser.symbols.CloseBracket;
+import slapp.editor.parser.symbols.OpenBracket;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * The state of a form match: bindings of meta variables, formulas, terms and the like to object expressions, the
+ * brackets and substitution results a match sets on the nodes of its forms, and the substitutions, instances and
+ * replacements that MatchUtilities collects along the way.  The forms themselves are not changed.
+ *
+ * Meta nodes are shared (interned) instances, so they do not hold their own matches: a check makes a context for
+ * its matches and passes it to the MatchUtilities entry points, and setMatch and getMatch on a meta node read and
+ * write the bindings of the context they are given.  Checks running at once each have their own context.
+ */
+public class MatchContext {
+
+    private final Map<Expression, Object> bindings = new IdentityHashMap<>();
+    private final Map<Expression, OpenBracket> openBrackets = new IdentityHashMap<>();
+    private final Map<Expression, CloseBracket> closeBrackets = new IdentityHashMap<>();
+    private final Map<Expression, Expression> substitutions = new IdentityHashMap<>();
+    final List<Pair<Expression, Expression>> transformList = new ArrayList<>();
+    final List<Expression> matchedInstances = new ArrayList<>();
+    final List<Expression> allInstances = new ArrayList<>();
+    final List<Formula> replacementList = new ArrayList<>();
+    boolean subFreeFor = true;
+    boolean clear1;
+
+    public MatchContext() {}
+
+    public Object getBinding(Expression metaNode) {
+        return bindings.get(metaNode);
+    }
+
+    public void setBinding(Expression metaNode, Object match) {
+        bindings.put(metaNode, match);
+    }
+
+    /*
+     * Clear bindings for meta nodes of one kind (as MVariable.class)
+     * @param kind class of the meta nodes
+     */
+    public void clearBindings(Class<? extends Expression> kind) {
+        bindings.keySet().removeIf(kind::isInstance);
+    }
+
+    public void clearBindings() {
+        bindings.clear();
+    }
+
+    /*
+     * Brackets of a form node in this context (as set by a match, or else as parsed)
+     * @param formNode formula or term node of a form
+     * @return the bracket
+     */
+    public OpenBracket getOpenBracket(Expression formNode) {
+        OpenBracket bracket = openBrackets.get(formNode);
+        if (bracket != null) return bracket;
+        return formNode instanceof Formula ? ((Formula) formNode).getOpenBracket() : ((Term) formNode).getOpenBracket();
+    }
+
+    public CloseBracket getCloseBracket(Expression formNode) {
+        CloseBracket bracket = closeBrackets.get(formNode);
+        if (bracket != null) return bracket;
+        return formNode instanceof Formula ? ((Formula) formNode).getCloseBracket() : ((Term) formNode).getCloseBracket();
+    }
+
+    void setBrackets(Expression formNode, OpenBracket openBracket, CloseBracket closeBracket) {
+        openBrackets.put(formNode, openBracket);
+        closeBrackets.put(formNode, closeBracket);
+    }
+
+    /*
+     * Result of the substitution at a form node (with a substitution transform) in this context
+     * @param formNode formula or term node of a form
+     * @return the result, or null if not yet set
+     */
+    public Expression getSubstitution(Expression formNode) {
+        return substitutions.get(formNode);
+    }
+
+    void setSubstitution(Expression formNode, Expression result) {
+        substitutions.put(formNode, result);
+    }
+
+    /*
+     * Drop brackets and substitution results set on the nodes of form (before it is matched again)
+     * @param form the form
+     */
+    void resetForm(CompiledForm form) {
+        for (Expression node : form.getNodes()) {
+            openBrackets.remove(node);
+            closeBrackets.remove(node);
+            substitutions.remove(node);
+        }
+    }
+
+    /*
+     * Clear bindings and the substitution state (before the next match of a check)
+     */
+    public void clear() {
+        clearBindings();
+        openBrackets.clear();
+        closeBrackets.clear();
+        substitutions.clear();
+        transformList.clear();
+        matchedInstances.clear();
+        allInstances.clear();
+        subFreeFor = true;
+    }
+
+    public List<Pair<Expression, Expression>> getTransformList() {
+        return transformList;
+    }
+
+    public boolean isSubFreeFor() {
+        return subFreeFor;
+    }
+}
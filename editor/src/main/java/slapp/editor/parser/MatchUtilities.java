@@ -1,9 +1,6 @@
 package slapp.editor.parser;
 
 import com.gluonhq.richtextarea.model.Document;
-import javafx.scene.text.Text;
-import javafx.util.Pair;
-import slapp.editor.ReplacementTxtMsgException;
 import slapp.editor.parser.grammatical_parts.*;
 import slapp.editor.parser.symbols.*;
 
@@ -14,13 +11,9 @@ import java.util.List;
 public class MatchUtilities {
 
     private static boolean relaxBracketMatch = true;
-    private static List<Pair<Expression, Expression>> transformList = new ArrayList<>();
-    private static List<Expression> matchedInstances = new ArrayList<>();
-    private static List<Expression> allInstances = new ArrayList<>();
-    private static Boolean subFreeFor = true;
-    private static List<Formula> replacementList = new ArrayList<>();
 
-    private static boolean clear1;
+    //bindings, substitutions and replacements are in the MatchContext passed by the caller, as are the brackets
+    //and substitution results that a match sets on the nodes of a form (forms are not changed)
 
 
 
@@ -38,18 +31,29 @@ public class MatchUtilities {
    This might be right for other functions too.  However, by overloading this method, and running QP overloaded with clear = false,
    we keep behavior all the same except in that case.  Do we want this generally?
      */
-    public static boolean replacementCheck(Expression f1, Expression f2, Expression s, Expression t) throws TextMessageException {
+    public static boolean replacementCheck(MatchContext context, CompiledForm f1, CompiledForm f2, Expression s, Expression t) throws TextMessageException {
+        context.resetForm(f1);
+        context.resetForm(f2);
+        return replacementCheck(context, f1.getExpression(), f2.getExpression(), s, t);
+    }
+
+    public static boolean replacementCheck(MatchContext context, CompiledForm f1, CompiledForm f2, Expression s, Expression t, boolean clear) throws TextMessageException {
+        context.resetForm(f1);
+        context.resetForm(f2);
+        return replacementCheck(context, f1.getExpression(), f2.getExpression(), s, t, clear);
+    }
+
+    public static boolean replacementCheck(MatchContext context, Expression f1, Expression f2, Expression s, Expression t) throws TextMessageException {
         try {
-            return replacementCheck(f1, f2, s, t, true);
+            return replacementCheck(context, f1, f2, s, t, true);
         }
         catch (TextMessageException e) {throw new TextMessageException(e.getMessageList()); }
     }
 
-    public static boolean replacementCheck(Expression f1, Expression f2, Expression s, Expression t, boolean clear) throws TextMessageException {
+    public static boolean replacementCheck(MatchContext context, Expression f1, Expression f2, Expression s, Expression t, boolean clear) throws TextMessageException {
+        context.clear1 = true;   // this is the variable that will freeze matching if set to false
 
-        clear1 = true;   // this is the variable that will freeze matching if set to false
-
-        replacementList.clear();
+        context.replacementList.clear();
 
 
         if (f1.getType() == ExpressionType.FORMULA && f2.getType() == ExpressionType.FORMULA && s.getType() == ExpressionType.FORMULA && t.getType() == ExpressionType.FORMULA) {
@@ -60,10 +64,10 @@ public class MatchUtilities {
 
 
             //check with outer brackets on forms and formulas
-            setParens(form1, form2, source, target);
+            setParens(context, form1, form2, source, target);
 
             try {
-                checkReplacements(form1, form2, source, target, clear);
+                checkReplacements(context, form1, form2, source, target, clear);
             }
             catch (TextMessageException e) { throw new TextMessageException(e.getMessageList());  }
 
@@ -73,19 +77,20 @@ public class MatchUtilities {
         }
 
         boolean replacementMade = false;
-        if (replacementList.size() == 1) { replacementMade = true; }
+        if (context.replacementList.size() == 1) { replacementMade = true; }
 
-        else if (replacementList.size() == 0) {
+        else if (context.replacementList.size() == 0) {
             throw new TextMessageException(getMessageTexts(null, null, "No replacements made.", "", ""));
         }
-        else if (replacementList.size() > 1) {
+        else if (context.replacementList.size() > 1) {
             throw new TextMessageException(getMessageTexts(null, null, "More than one replacement is made.", "", ""));
         }
 
         return replacementMade;
     }
 
-    private static void setParens(Formula form1, Formula form2, Formula form3, Formula form4) {
+    //outer brackets for the forms (form1, form2) go in the context; the formulas (form3, form4) are the caller's own
+    private static void setParens(MatchContext context, Formula form1, Formula form2, Formula form3, Formula form4) {
         ExpressionType opType = null;
         OpenBracket emptyOpen = new OpenBracket("");
         CloseBracket emptyClose = new CloseBracket("");
@@ -93,16 +98,14 @@ public class MatchUtilities {
         if (form1.getMainOperator() != null) opType = form1.getMainOperator().getType();
         if (opType == ExpressionType.COND_OP || opType == ExpressionType.BICOND_OP || opType == ExpressionType.CONJ_OP || opType == ExpressionType.DISJ_OP ||
                 opType == ExpressionType.NAND_OP || opType == ExpressionType.NOR_OP) {
-            if (form1.getOpenBracket().equals(emptyOpen)) form1.setOpenBracket(new OpenBracket1("("));
-            if (form1.getCloseBracket().equals(emptyClose)) form1.setCloseBracket(new CloseBracket1(")"));
+            setFormParens(context, form1, emptyOpen, emptyClose);
         }
 
 
         if (form2.getMainOperator() != null) opType = form2.getMainOperator().getType();
         if (opType == ExpressionType.COND_OP || opType == ExpressionType.BICOND_OP || opType == ExpressionType.CONJ_OP || opType == ExpressionType.DISJ_OP ||
                 opType == ExpressionType.NAND_OP || opType == ExpressionType.NOR_OP) {
-            if (form2.getOpenBracket().equals(emptyOpen)) form2.setOpenBracket(new OpenBracket1("("));
-            if (form2.getCloseBracket().equals(emptyClose)) form2.setCloseBracket(new CloseBracket1(")"));
+            setFormParens(context, form2, emptyOpen, emptyClose);
         }
 
         if (form3.getMainOperator() != null) opType = form3.getMainOperator().getType();
@@ -120,24 +123,31 @@ public class MatchUtilities {
         }
     }
 
-    private static void checkReplacements(Formula form1, Formula form2, Formula source, Formula target, boolean clear) throws TextMessageException {
+    private static void setFormParens(MatchContext context, Formula form, OpenBracket emptyOpen, CloseBracket emptyClose) {
+        OpenBracket openBracket = context.getOpenBracket(form);
+        CloseBracket closeBracket = context.getCloseBracket(form);
+        if (openBracket.equals(emptyOpen)) openBracket = new OpenBracket1("(");
+        if (closeBracket.equals(emptyClose)) closeBracket = new CloseBracket1(")");
+        context.setBrackets(form, openBracket, closeBracket);
+    }
 
-        if (clear1) clearMatching();  //work in the usual way while clear1 is true
+    private static void checkReplacements(MatchContext context, Formula form1, Formula form2, Formula source, Formula target, boolean clear) throws TextMessageException {
+        if (context.clear1) context.clearBindings();  //work in the usual way while clear1 is true
 
         try {
       //      System.out.println("form1: " + form1 + " form2: " + form2 + " source: " + source + " target: " + target);
-            setMatching(form1, source);
+            setMatching(context, form1, source);
 
         }
         catch (TextMessageException e) {    }
 
- //       System.out.println("1: " + form1.getMatch() + " 2: " + form2.getMatch());
+ //       System.out.println("1: " + form1.getMatch(context) + " 2: " + form2.getMatch(context));
 
 
-        if (form2.getMatch() != null && form2.getMatch().equals(target)) {
+        if (form2.getMatch(context) != null && form2.getMatch(context).equals(target)) {
 
-            if (!clear || !replacementList.contains(form2.getMatch())) replacementList.add(form2.getMatch());
-            if (!clear) clear1 = false;  //when match is made - if we are in the special case with clear false, freeze matching
+            if (!clear || !context.replacementList.contains(form2.getMatch(context))) context.replacementList.add(form2.getMatch(context));
+            if (!clear) context.clear1 = false;  //when match is made - if we are in the special case with clear false, freeze matching
 
             return;
         }
@@ -161,15 +171,15 @@ public class MatchUtilities {
             if (source.getMainOperator() instanceof UnivRestrictedQuantOp && target.getMainOperator() instanceof UnivRestrictedQuantOp) {
                 Formula qSource = ((UnivRestrictedQuantOp) source.getMainOperator()).getRestrictingFormula();
                 Formula qTarget = ((UnivRestrictedQuantOp) target.getMainOperator()).getRestrictingFormula();
-                setParens(form1, form2, qSource, qTarget);
-                checkReplacements(form1, form2, qSource, qTarget, clear);
+                setParens(context, form1, form2, qSource, qTarget);
+                checkReplacements(context, form1, form2, qSource, qTarget, clear);
                 good = true;
             }
             else if (source.getMainOperator() instanceof ExisRestrictedQuantOp && target.getMainOperator() instanceof ExisRestrictedQuantOp) {
                 Formula qSource = ((ExisRestrictedQuantOp) source.getMainOperator()).getRestrictingFormula();
                 Formula qTarget = ((ExisRestrictedQuantOp) target.getMainOperator()).getRestrictingFormula();
-                setParens(form1, form2, qSource, qTarget);
-                checkReplacements(form1, form2, qSource, qTarget, clear);
+                setParens(context, form1, form2, qSource, qTarget);
+                checkReplacements(context, form1, form2, qSource, qTarget, clear);
                 good = true;
             }
             else if (source.getMainOperator().equals(target.getMainOperator())) {
@@ -178,7 +188,7 @@ public class MatchUtilities {
             if (good) {
                 for (int i = 0; i < source.getChildren().size(); i++) {
                     if (source.getChildren().get(i).getType() == ExpressionType.FORMULA && target.getChildren().get(i).getType() == ExpressionType.FORMULA) {
-                        checkReplacements(form1, form2, (Formula) source.getChildren().get(i), (Formula) target.getChildren().get(i), clear);
+                        checkReplacements(context, form1, form2, (Formula) source.getChildren().get(i), (Formula) target.getChildren().get(i), clear);
                     }
                 }
             }
@@ -192,32 +202,34 @@ public class MatchUtilities {
         }
     }
 
-    public static void clearFormMatch() {
-        clearMatching();
-        transformList.clear();
-        matchedInstances.clear();
-        allInstances.clear();
-        subFreeFor = true;
+    public static boolean simpleFormMatch(MatchContext context, Document metaDoc, Document objectDoc, String objectL, String metaL) throws TextMessageException {
+        return simpleFormMatch(context, CompiledForm.getInstance(metaDoc, metaL), objectDoc, objectL);
     }
 
-    public static Pair<Boolean, Boolean> simpleFormMatch(Document metaDoc, Document objectDoc, String objectL, String metaL) throws TextMessageException {
+    public static boolean simpleFormMatch(MatchContext context, CompiledForm metaForm, Document objectDoc, String objectL) throws TextMessageException {
+
+        Expression objectExp = ParseCache.getSharedCache().parse(objectDoc, objectL).getExpressions().get(0);
 
-        Expression objectExp = ParseUtilities.parseDoc(objectDoc, objectL).get(0);
+        return simpleExpFormMatch(context, metaForm, objectExp, objectL);
+    }
 
-        return simpleExpFormMatch(metaDoc, objectExp, objectL, metaL);
+    public static boolean simpleExpFormMatch(MatchContext context, Document metaDoc, Expression objectExp, String objectL, String metaL) throws TextMessageException {
+        return simpleExpFormMatch(context, CompiledForm.getInstance(metaDoc, metaL), objectExp, objectL);
     }
 
-    public static Pair<Boolean, Boolean> simpleExpFormMatch(Document metaDoc, Expression objectExp, String objectL, String metaL) throws TextMessageException {
-        Expression metaExp = ParseUtilities.parseDoc(metaDoc, metaL).get(0);
+    public static boolean simpleExpFormMatch(MatchContext context, CompiledForm metaForm, Expression objectExp, String objectL) throws TextMessageException {
+        Expression metaExp = metaForm.getExpression();
+        String metaL = metaForm.getMetaLangName();
+        context.resetForm(metaForm);
 
       //  System.out.println("meta: " + metaExp + " object:" + objectExp);
 
 
-        transformList.clear();
-        matchedInstances.clear();
-        allInstances.clear();
-        subFreeFor = true;
-        replacementList.clear();
+        context.transformList.clear();
+        context.matchedInstances.clear();
+        context.allInstances.clear();
+        context.subFreeFor = true;
+        context.replacementList.clear();
 
 
         //conditionally compensate for dropped outer brackets by matching meta expression to object expression
@@ -225,48 +237,44 @@ public class MatchUtilities {
                 if (metaExp.getType() == ExpressionType.TERM) {
                     Term mTerm = (Term) metaExp;
                     Term oTerm = (Term) objectExp;
-                    if (mTerm.getOpenBracket().getType() != null && mTerm.getCloseBracket().getType() != null && oTerm.getOpenBracket().getType() == null && oTerm.getCloseBracket().getType() == null) {
-                        mTerm.setOpenBracket(new OpenBracket(""));
-                        mTerm.setCloseBracket(new CloseBracket(""));
+                    if (context.getOpenBracket(mTerm).getType() != null && context.getCloseBracket(mTerm).getType() != null && oTerm.getOpenBracket().getType() == null && oTerm.getCloseBracket().getType() == null) {
+                        context.setBrackets(mTerm, new OpenBracket(""), new CloseBracket(""));
                     }
                 }
                 if (metaExp.getType() == ExpressionType.FORMULA) {
                     Formula mFormula = (Formula) metaExp;
                     Formula oFormula = (Formula) objectExp;
-                    if (mFormula.getOpenBracket().getType() != null && mFormula.getCloseBracket().getType() != null && oFormula.getOpenBracket().getType() == null && oFormula.getCloseBracket().getType() == null) {
-                        mFormula.setOpenBracket(new OpenBracket(""));
-                        mFormula.setCloseBracket(new CloseBracket(""));
+                    if (context.getOpenBracket(mFormula).getType() != null && context.getCloseBracket(mFormula).getType() != null && oFormula.getOpenBracket().getType() == null && oFormula.getCloseBracket().getType() == null) {
+                        context.setBrackets(mFormula, new OpenBracket(""), new CloseBracket(""));
                     }
-                    if (mFormula.getOpenBracket().getType() == null && mFormula.getCloseBracket().getType() == null && oFormula.getOpenBracket().getType() != null && oFormula.getCloseBracket().getType() != null) {
-                        mFormula.setOpenBracket(new OpenBracket(Languages.getLanguage(metaL).getOpenBracket1()));
-                        mFormula.setCloseBracket(new CloseBracket(Languages.getLanguage(metaL).getCloseBracket1()));
+                    if (context.getOpenBracket(mFormula).getType() == null && context.getCloseBracket(mFormula).getType() == null && oFormula.getOpenBracket().getType() != null && oFormula.getCloseBracket().getType() != null) {
+                        context.setBrackets(mFormula, new OpenBracket(Languages.getLanguage(metaL).getOpenBracket1()), new CloseBracket(Languages.getLanguage(metaL).getCloseBracket1()));
                     }
                 }
             }
 
 
-        setMatching(metaExp, objectExp);
-        processTransforms(objectL);
+        setMatching(context, metaExp, objectExp);
+        processTransforms(context, objectL);
 
 
 
- //       boolean formMatch = metaExp.getMatch().equals(objectExp);
+ //       boolean formMatch = metaExp.getMatch(context).equals(objectExp);
 
 
 
-        Pair<Boolean, Boolean> subResults = new Pair<>(true, subFreeFor);
-        return subResults;
+        return true;
     }
 
 
 
-    public static Pair<Boolean, Boolean> formMatch(Expression metaExp, Expression objectExp, String objectL, String metaL) throws TextMessageException {
+    public static boolean formMatch(MatchContext context, Expression metaExp, Expression objectExp, String objectL, String metaL) throws TextMessageException {
   //      clearMatching();
-        transformList.clear();
-        matchedInstances.clear();
-        allInstances.clear();
-        subFreeFor = true;
-        replacementList.clear();
+        context.transformList.clear();
+        context.matchedInstances.clear();
+        context.allInstances.clear();
+        context.subFreeFor = true;
+        context.replacementList.clear();
 
         if ((metaExp.getType() == ExpressionType.TERM && objectExp.getType() == ExpressionType.TERM) ||
                 (metaExp.getType() == ExpressionType.FORMULA && objectExp.getType() == ExpressionType.FORMULA))
@@ -276,33 +284,29 @@ public class MatchUtilities {
                 if (metaExp.getType() == ExpressionType.TERM) {
                     Term mTerm = (Term) metaExp;
                     Term oTerm = (Term) objectExp;
-                    if (mTerm.getOpenBracket().getType() != null && mTerm.getCloseBracket().getType() != null && oTerm.getOpenBracket().getType() == null && oTerm.getCloseBracket().getType() == null) {
-                        mTerm.setOpenBracket(new OpenBracket(""));
-                        mTerm.setCloseBracket(new CloseBracket(""));
+                    if (context.getOpenBracket(mTerm).getType() != null && context.getCloseBracket(mTerm).getType() != null && oTerm.getOpenBracket().getType() == null && oTerm.getCloseBracket().getType() == null) {
+                        context.setBrackets(mTerm, new OpenBracket(""), new CloseBracket(""));
                     }
                 }
                 if (metaExp.getType() == ExpressionType.FORMULA) {
                     Formula mFormula = (Formula) metaExp;
                     Formula oFormula = (Formula) objectExp;
-                    if (mFormula.getOpenBracket().getType() != null && mFormula.getCloseBracket().getType() != null && oFormula.getOpenBracket().getType() == null && oFormula.getCloseBracket().getType() == null) {
-                        mFormula.setOpenBracket(new OpenBracket(""));
-                        mFormula.setCloseBracket(new CloseBracket(""));
+                    if (context.getOpenBracket(mFormula).getType() != null && context.getCloseBracket(mFormula).getType() != null && oFormula.getOpenBracket().getType() == null && oFormula.getCloseBracket().getType() == null) {
+                        context.setBrackets(mFormula, new OpenBracket(""), new CloseBracket(""));
                     }
                 }
             }
 
   //          try {
-                setMatching(metaExp, objectExp);
-                processTransforms(objectL);
-
-                boolean formMatch = metaExp.getMatch().equals(objectExp);
+                setMatching(context, metaExp, objectExp);
+                processTransforms(context, objectL);
 
-                Pair<Boolean, Boolean> subResults = new Pair<>(formMatch, subFreeFor);
+                boolean formMatch = metaExp.getMatch(context).equals(objectExp);
 
                 if (!formMatch) {
-      //              throw new TextMessageException(getMessageTexts(metaExp.getMatch(), objectExp, "Mapped expression ", " not the same as ", "." ));
+      //              throw new TextMessageException(getMessageTexts(metaExp.getMatch(context), objectExp, "Mapped expression ", " not the same as ", "." ));
                 }
-                return subResults;
+                return formMatch;
 
       //      }
             /*
@@ -318,10 +322,11 @@ public class MatchUtilities {
         }
     }
 
-    private static void processTransforms(String objectL) throws TextMessageException {
-        for (int i = transformList.size() - 1; i >= 0; i--) {
+    private static void processTransforms(MatchContext context, String objectL) throws TextMessageException {
+        List<Expression> matchedInstances = context.matchedInstances;
+        for (int i = context.transformList.size() - 1; i >= 0; i--) {
 
-            Pair<Expression, Expression> transformPair = transformList.get(i);
+            Pair<Expression, Expression> transformPair = context.transformList.get(i);
 
             SubstitutionTransform subTransform;
             Expression metaExp = transformPair.getKey();
@@ -329,23 +334,23 @@ public class MatchUtilities {
             else subTransform = ((Term) metaExp).getSubTransform();
             Expression targetExp = transformPair.getValue();
 
-            Expression sourceExp = metaExp.getChildren().get(0).getMatch();
-            Expression exp1 = subTransform.getExp1().getMatch();
+            Expression sourceExp = metaExp.getChildren().get(0).getMatch(context);
+            Expression exp1 = subTransform.getExp1().getMatch(context);
 
             boolean badReplacements = false;
 
             if (sourceExp != null) {
                 if (exp1 != null) {
                     try {
-                        findReplacements(sourceExp, targetExp, subTransform, objectL);
+                        findReplacements(context, sourceExp, targetExp, subTransform, objectL);
 
-             //           System.out.println(" source: " + sourceExp + "target: " + targetExp.toString() + " transform: " + SyntacticalFns.substituteParticularTerms(sourceExp, subTransform.getExp2().getMatch(), matchedInstances));
+             //           System.out.println(" source: " + sourceExp + "target: " + targetExp.toString() + " transform: " + SyntacticalFns.substituteParticularTerms(sourceExp, subTransform.getExp2().getMatch(context), matchedInstances));
 
-            //            System.out.println("target: " + targetExp + " sub: " + SyntacticalFns.substituteParticularTerms(sourceExp, subTransform.getExp2().getMatch(), matchedInstances));
+            //            System.out.println("target: " + targetExp + " sub: " + SyntacticalFns.substituteParticularTerms(sourceExp, subTransform.getExp2().getMatch(context), matchedInstances));
             //            System.out.println(matchedInstances);
 
 
-                        if (!targetExp.equals(SyntacticalFns.substituteParticularTerms(sourceExp, subTransform.getExp2().getMatch(), matchedInstances))) {
+                        if (!targetExp.equals(SyntacticalFns.substituteParticularTerms(sourceExp, subTransform.getExp2().getMatch(context), matchedInstances))) {
 
                             badReplacements = true;
                         }
@@ -360,9 +365,9 @@ public class MatchUtilities {
                     }
 
                     if (badReplacements) {
-                        List<Text> list = new ArrayList<>();
+                        List<StyledText> list = new ArrayList<>();
 
-                        if (subTransform.getExp2().getMatch() != null) {
+                        if (subTransform.getExp2().getMatch(context) != null) {
                             list.addAll(targetExp.toTextList());
                             if (!Languages.getLanguage(objectL).isObjectMetalanguage()) list.add(ParseUtilities.newRegularText(" is not "));
                             else list.add(ParseUtilities.newRegularText(" is not (known to be) "));
@@ -370,9 +375,9 @@ public class MatchUtilities {
                             list.add(ParseUtilities.newRegularText(" with "));
                             list.addAll(exp1.toTextList());
                             list.add(ParseUtilities.newRegularText(" replaced by "));
-                            list.addAll(subTransform.getExp2().getMatch().toTextList());
-                 //           list.addAll(new SubstitutionTransform(exp1, subTransform.getExp2().getMatch(), subTransform.getType(), subTransform.getDividerSymbol()).toTextList());
-                            list.add(new Text("."));
+                            list.addAll(subTransform.getExp2().getMatch(context).toTextList());
+                 //           list.addAll(new SubstitutionTransform(exp1, subTransform.getExp2().getMatch(context), subTransform.getType(), subTransform.getDividerSymbol()).toTextList());
+                            list.add(new StyledText("."));
                         }
                         else {
                             list.addAll(targetExp.toTextList());
@@ -386,7 +391,7 @@ public class MatchUtilities {
                       //      list.addAll(new SubstitutionTransform(exp1, subTransform.getExp2(), subTransform.getType(), subTransform.getDividerSymbol()).toTextList());
                       //      list.add(ParseUtilities.newRegularText(" for some "));
                             list.addAll(subTransform.getExp2().toTextList());
-                            list.add(new Text("."));
+                            list.add(new StyledText("."));
                         }
                         throw new TextMessageException(list);
 
@@ -395,7 +400,7 @@ public class MatchUtilities {
          //            if (!allInstances.isEmpty()) {
 
                          boolean allFree = true;
-                         for (Expression exp : allInstances) {
+                         for (Expression exp : context.allInstances) {
                              if (SyntacticalFns.particularTermsFreeInFormula(sourceExp, Collections.singletonList(exp), objectL) && !SyntacticalFns.listContainsParticular(matchedInstances, exp)) {
                                  allFree = false;
                                  break;
@@ -406,27 +411,26 @@ public class MatchUtilities {
                          }
                          else if (subTransform.getType() == ExpressionType.ONE_TERM_SUB) {
                              if (matchedInstances.size() != 1)
-                                 throw new TextMessageException(getMessageTexts(subTransform.getExp1().getMatch(), subTransform.getExp2().getMatch(), "More than one instance of ", " is replaced by ", "."));
+                                 throw new TextMessageException(getMessageTexts(subTransform.getExp1().getMatch(context), subTransform.getExp2().getMatch(context), "More than one instance of ", " is replaced by ", "."));
                          } else if (subTransform.getType() == ExpressionType.ALL_TERM_SUB) {
                              if (!allFree)
-                                 throw new TextMessageException(getMessageTexts(subTransform.getExp1().getMatch(), subTransform.getExp2().getMatch(), "Not every free instance of ", " is replaced by ", "."));
+                                 throw new TextMessageException(getMessageTexts(subTransform.getExp1().getMatch(context), subTransform.getExp2().getMatch(context), "Not every free instance of ", " is replaced by ", "."));
                          }
 
-                         Expression subExp = SyntacticalFns.substituteParticularTerms(sourceExp, subTransform.getExp2().getMatch(), matchedInstances);
+                         Expression subExp = SyntacticalFns.substituteParticularTerms(sourceExp, subTransform.getExp2().getMatch(context), matchedInstances);
 
-                         if (metaExp.getType() == ExpressionType.FORMULA) { ((Formula) metaExp).setMatchFormula((Formula) subExp);}
-                         else ((Term) metaExp).setMatchTerm((Term) subExp);
+                         context.setSubstitution(metaExp, subExp);
 
                          for (Expression exp : matchedInstances) {
                              if (SyntacticalFns.particularTermsFreeInFormula(sourceExp, Collections.singletonList(exp), objectL)) {
 
 
 
-                                 if (!SyntacticalFns.freeForExp(sourceExp, exp, subTransform.getExp2().getMatch(), objectL)) {
-                                     subFreeFor = false;
-                                     List<Text> texts = new ArrayList<>();
+                                 if (!SyntacticalFns.freeForExp(sourceExp, exp, subTransform.getExp2().getMatch(context), objectL)) {
+                                     context.subFreeFor = false;
+                                     List<StyledText> texts = new ArrayList<>();
                                      texts.add(ParseUtilities.newRegularText("Substituted instancess of "));
-                                     texts.addAll(subTransform.getExp2().getMatch().toTextList());
+                                     texts.addAll(subTransform.getExp2().getMatch(context).toTextList());
 
                                      if (!Languages.getLanguage(objectL).isObjectMetalanguage()) texts.add(ParseUtilities.newRegularText(" not free for "));
                                      else texts.add(ParseUtilities.newRegularText(" not (known to be) free for "));
@@ -436,7 +440,7 @@ public class MatchUtilities {
                                      texts.add(ParseUtilities.newRegularText("."));
                                      throw new TextMessageException(texts);
 
-                               //      throw new TextMessageException(getMessageTexts(subTransform.getExp2().getMatch(), exp, "Substituted instance(s) of ", " not free for ", "."));
+                               //      throw new TextMessageException(getMessageTexts(subTransform.getExp2().getMatch(context), exp, "Substituted instance(s) of ", " not free for ", "."));
                                  }
                              }
                              else throw new TextMessageException(getMessageTexts(exp, sourceExp, "Replaced instnace(s) of ", " not free in ", "."));
@@ -465,11 +469,11 @@ public class MatchUtilities {
         }
     }
 
-    private static void findReplacements(Expression sourceExp, Expression targetExp, SubstitutionTransform subTransform, String objectL) throws ReplacementTxtMsgException, TextMessageException {
+    private static void findReplacements(MatchContext context, Expression sourceExp, Expression targetExp, SubstitutionTransform subTransform, String objectL) throws ReplacementTxtMsgException, TextMessageException {
 
      //   System.out.println("source: " + sourceExp + " target: " + targetExp + " transform: " + subTransform);
 
-        Expression exp1 = subTransform.getExp1().getMatch();
+        Expression exp1 = subTransform.getExp1().getMatch(context);
         Expression exp2 = subTransform.getExp2();
 
     //    System.out.println("exp1: " + exp1 + " exp2: " + exp2);
@@ -478,11 +482,11 @@ public class MatchUtilities {
         if (sourceExp instanceof Formula && exp1 instanceof Term && !SyntacticalFns.expTermFreeInFormula(sourceExp, exp1, objectL)) return;
 
         if (sourceExp != null && sourceExp.equals(exp1)) {
-            allInstances.add(sourceExp);
+            context.allInstances.add(sourceExp);
             if (subTransform.getType() == ExpressionType.ALL_TERM_SUB || !sourceExp.equals(targetExp)) {  //if distinguish between original and sub, set matching when not the same.  Otherwise match.
 
-                setMatching(exp2, targetExp);
-                matchedInstances.add(sourceExp);
+                setMatching(context, exp2, targetExp);
+                context.matchedInstances.add(sourceExp);
             }
             return;
         }
@@ -498,7 +502,7 @@ public class MatchUtilities {
                 sourceExp.getChildren() != null && targetExp.getChildren() != null && sourceExp.getChildren().size() == targetExp.getChildren().size()) {
             for (int i = 0; i < sourceExp.getChildren().size(); i++) {
                 if (sourceExp.getChildren().get(i).getLevel() >= 0 && targetExp.getChildren().get(i).getLevel() >= 0) {
-                    findReplacements(sourceExp.getChildren().get(i), targetExp.getChildren().get(i), subTransform, objectL);
+                    findReplacements(context, sourceExp.getChildren().get(i), targetExp.getChildren().get(i), subTransform, objectL);
                 }
             }
             return;
@@ -512,7 +516,7 @@ public class MatchUtilities {
             if (sourceExp.getChildren() != null && targetExp.getChildren() != null && sourceExp.getChildren().size() == targetExp.getChildren().size()) {
                 for (int i = 0; i < sourceExp.getChildren().size(); i++) {
                     if (sourceExp.getChildren().get(i).getLevel() >= 0 && targetExp.getChildren().get(i).getLevel() >= 0) {
-                        findReplacements(sourceExp.getChildren().get(i), targetExp.getChildren().get(i), subTransform, objectL);
+                        findReplacements(context, sourceExp.getChildren().get(i), targetExp.getChildren().get(i), subTransform, objectL);
                     }
                 }
             }
@@ -523,7 +527,7 @@ public class MatchUtilities {
                 sourceExp.getChildren().size() == targetExp.getChildren().size()) {
             for (int i = 0; i < sourceExp.getChildren().size(); i++) {
                 if (sourceExp.getChildren().get(i).getLevel() >= 0 && targetExp.getChildren().get(i).getLevel() >= 0) {
-                    findReplacements(sourceExp.getChildren().get(i), targetExp.getChildren().get(i), subTransform, objectL);
+                    findReplacements(context, sourceExp.getChildren().get(i), targetExp.getChildren().get(i), subTransform, objectL);
                 }
             }
             return;
@@ -533,7 +537,7 @@ public class MatchUtilities {
                 sourceExp.getChildren().size() == targetExp.getChildren().size()) {
             for (int i = 0; i < sourceExp.getChildren().size(); i++) {
                 if (sourceExp.getChildren().get(i).getLevel() >= 0 && targetExp.getChildren().get(i).getLevel() >= 0) {
-                    findReplacements(sourceExp.getChildren().get(i), targetExp.getChildren().get(i), subTransform, objectL);
+                    findReplacements(context, sourceExp.getChildren().get(i), targetExp.getChildren().get(i), subTransform, objectL);
                 }
             }
             return;
@@ -547,16 +551,16 @@ public class MatchUtilities {
             boolean good = false;
             if (sourceFormula.getMainOperator() != null & targetFormula.getMainOperator() != null) {
                 if (sourceFormula.getMainOperator() instanceof UnivBoundedQuantOp && targetFormula.getMainOperator() instanceof UnivBoundedQuantOp) {
-                    findReplacements(((UnivBoundedQuantOp) sourceFormula.getMainOperator()).getBoundingTerm(), ((UnivBoundedQuantOp) targetFormula.getMainOperator()).getBoundingTerm(), subTransform, objectL);
+                    findReplacements(context, ((UnivBoundedQuantOp) sourceFormula.getMainOperator()).getBoundingTerm(), ((UnivBoundedQuantOp) targetFormula.getMainOperator()).getBoundingTerm(), subTransform, objectL);
                     good = true;
                 } else if (sourceFormula.getMainOperator() instanceof ExisBoundedQuantOp && targetFormula.getMainOperator() instanceof ExisBoundedQuantOp) {
-                    findReplacements(((ExisBoundedQuantOp) sourceFormula.getMainOperator()).getBoundingTerm(), ((ExisBoundedQuantOp) targetFormula.getMainOperator()).getBoundingTerm(), subTransform, objectL);
+                    findReplacements(context, ((ExisBoundedQuantOp) sourceFormula.getMainOperator()).getBoundingTerm(), ((ExisBoundedQuantOp) targetFormula.getMainOperator()).getBoundingTerm(), subTransform, objectL);
                     good = true;
                 } else if (sourceFormula.getMainOperator() instanceof UnivRestrictedQuantOp && targetFormula.getMainOperator() instanceof UnivRestrictedQuantOp) {
-                    findReplacements(((UnivRestrictedQuantOp) sourceFormula.getMainOperator()).getRestrictingFormula(), ((UnivRestrictedQuantOp) targetFormula.getMainOperator()).getRestrictingFormula(), subTransform, objectL);
+                    findReplacements(context, ((UnivRestrictedQuantOp) sourceFormula.getMainOperator()).getRestrictingFormula(), ((UnivRestrictedQuantOp) targetFormula.getMainOperator()).getRestrictingFormula(), subTransform, objectL);
                     good = true;
                 } else if (sourceFormula.getMainOperator() instanceof ExisRestrictedQuantOp && targetFormula.getMainOperator() instanceof ExisRestrictedQuantOp) {
-                    findReplacements(((ExisRestrictedQuantOp) sourceFormula.getMainOperator()).getRestrictingFormula(), ((ExisRestrictedQuantOp) targetFormula.getMainOperator()).getRestrictingFormula(), subTransform, objectL);
+                    findReplacements(context, ((ExisRestrictedQuantOp) sourceFormula.getMainOperator()).getRestrictingFormula(), ((ExisRestrictedQuantOp) targetFormula.getMainOperator()).getRestrictingFormula(), subTransform, objectL);
                     good = true;
                 } else if (sourceFormula.getMainOperator().equals(targetFormula.getMainOperator())) {
                     good = true;
@@ -565,7 +569,7 @@ public class MatchUtilities {
             if (good) {
                 for (int i = 0; i < sourceExp.getChildren().size(); i++) {
                     if (sourceExp.getChildren().get(i).getLevel() >= 0 && targetExp.getChildren().get(i).getLevel() >= 0) {
-                        findReplacements(sourceExp.getChildren().get(i), targetExp.getChildren().get(i), subTransform, objectL);
+                        findReplacements(context, sourceExp.getChildren().get(i), targetExp.getChildren().get(i), subTransform, objectL);
                     }
                 }
             }
@@ -578,33 +582,31 @@ public class MatchUtilities {
         }
     }
 
-    public static void setMatching(Expression metaExp, Expression objectExp) throws TextMessageException {
+    public static void setMatching(MatchContext context, Expression metaExp, Expression objectExp) throws TextMessageException {
    //     System.out.println("meta: " + metaExp + " object: " + objectExp);
-
         boolean skip = false;
 
         if ( (metaExp.getType() == ExpressionType.FORMULA && ((Formula) metaExp).getSubTransform() == null) || (metaExp.getType() == ExpressionType.TERM && ((Term) metaExp).getSubTransform() == null)) {
 
             if (metaExp instanceof Term && ((Term) metaExp).getTermType() == TermType.VARIABLE && objectExp instanceof Term && ((Term) objectExp).getTermType() == TermType.VARIABLE)
-                ((MVariable) ((Term) metaExp).getChildren().get(0)).setMatch(((VariableSym) ((Term) objectExp).getChildren().get(0)));
+                ((MVariable) ((Term) metaExp).getChildren().get(0)).setMatch(context, ((VariableSym) ((Term) objectExp).getChildren().get(0)));
 
             else if (metaExp instanceof Term && ((Term) metaExp).getTermType() == TermType.CONSTANT && objectExp instanceof Term && ((Term) objectExp).getTermType() == TermType.CONSTANT)
-                ((MConstant) ((Term) metaExp).getChildren().get(0)).setMatch(((Constant) ((Term) objectExp).getChildren().get(0)));
+                ((MConstant) ((Term) metaExp).getChildren().get(0)).setMatch(context, ((Constant) ((Term) objectExp).getChildren().get(0)));
 
             else if (metaExp instanceof MTerm && objectExp instanceof Term)
-                ((MTerm) metaExp).setMatch((Term) objectExp);
+                ((MTerm) metaExp).setMatch(context, (Term) objectExp);
 
             else if (metaExp instanceof Term && objectExp instanceof Term && ((Term) metaExp).getTermType() == TermType.COMPLEX && ((Term) objectExp).getTermType() == TermType.COMPLEX &&
                     metaExp instanceof InfixTerm == objectExp instanceof InfixTerm &&
-                    bracketMatch(((Term) metaExp).getOpenBracket(), ((Term) metaExp).getCloseBracket(), ((Term) objectExp).getOpenBracket(), ((Term) objectExp).getCloseBracket()) &&
+                    bracketMatch(context.getOpenBracket(metaExp), context.getCloseBracket(metaExp), ((Term) objectExp).getOpenBracket(), ((Term) objectExp).getCloseBracket()) &&
                     metaExp.getChildren().size() == objectExp.getChildren().size()) {
                 Term mt = (Term) metaExp;
                 Term ot = (Term) objectExp;
-                mt.setOpenBracket(ot.getOpenBracket());
-                mt.setCloseBracket(ot.getCloseBracket());
+                context.setBrackets(mt, ot.getOpenBracket(), ot.getCloseBracket());
                 if (mt.getMainFnSymbol() instanceof MFunctionSymbol)
-                    ((MFunctionSymbol) mt.getMainFnSymbol()).setMatch(ot.getMainFnSymbol());
-                else if (!mt.getMainFnSymbol().getMatch().equals(ot.getMainFnSymbol())) {
+                    ((MFunctionSymbol) mt.getMainFnSymbol()).setMatch(context, ot.getMainFnSymbol());
+                else if (!mt.getMainFnSymbol().getMatch(context).equals(ot.getMainFnSymbol())) {
                     throw new TextMessageException(getMessageTexts(metaExp, objectExp, "", " does not map to ", "."));
                 }
             }
@@ -618,8 +620,8 @@ public class MatchUtilities {
     //            mt.setOpenBracket(ot.getOpenBracket());
     //            mt.setCloseBracket(ot.getCloseBracket());
                 if (mt.getMainFnSymbol() instanceof MFunctionSymbol)
-                    ((MFunctionSymbol) mt.getMainFnSymbol()).setMatch(ot.getMainFnSymbol());
-                else if (!mt.getMainFnSymbol().getMatch().equals(ot.getMainFnSymbol())) {
+                    ((MFunctionSymbol) mt.getMainFnSymbol()).setMatch(context, ot.getMainFnSymbol());
+                else if (!mt.getMainFnSymbol().getMatch(context).equals(ot.getMainFnSymbol())) {
                     throw new TextMessageException(getMessageTexts(metaExp, objectExp, "", " does not map to ", "."));
                 }
             }
@@ -628,17 +630,17 @@ public class MatchUtilities {
 
 
             else if (metaExp instanceof SentenceAtomic && objectExp instanceof SentenceAtomic)
-                ((MSentenceLetter) ((SentenceAtomic) metaExp).getMainLetter()).setMatch(((SentenceLetter) ((SentenceAtomic) objectExp).getMainLetter()));
+                ((MSentenceLetter) ((SentenceAtomic) metaExp).getMainLetter()).setMatch(context, ((SentenceLetter) ((SentenceAtomic) objectExp).getMainLetter()));
 
             else if (metaExp instanceof MFormula && objectExp instanceof Formula)
-                ((MFormula) metaExp).setMatch((Formula) objectExp);
+                ((MFormula) metaExp).setMatch(context, (Formula) objectExp);
 
             else if (metaExp instanceof PrefixAtomic && objectExp instanceof PrefixAtomic && metaExp.getChildren().size() == objectExp.getChildren().size()) {
                 PrefixAtomic metaAtomic = (PrefixAtomic) metaExp;
                 PrefixAtomic objectAtomic = (PrefixAtomic) objectExp;
                 if (metaAtomic.getMainRelation() instanceof MRelationSymbol)
-                    ((MRelationSymbol) metaAtomic.getMainRelation()).setMatch(objectAtomic.getMainRelation());
-                else if (!metaAtomic.getMainRelation().getMatch().equals(objectAtomic.getMainRelation())) {
+                    ((MRelationSymbol) metaAtomic.getMainRelation()).setMatch(context, objectAtomic.getMainRelation());
+                else if (!metaAtomic.getMainRelation().getMatch(context).equals(objectAtomic.getMainRelation())) {
                     throw new TextMessageException(getMessageTexts(metaExp, objectExp, "", " does not map to ", "."));
                 }
             } else if (metaExp instanceof InfixAtomic && objectExp instanceof InfixAtomic && metaExp.getChildren().size() == objectExp.getChildren().size()) {
@@ -646,8 +648,8 @@ public class MatchUtilities {
                 InfixAtomic metaAtomic = (InfixAtomic) metaExp;
                 InfixAtomic objectAtomic = (InfixAtomic) objectExp;
                 if (metaAtomic.getMainRelation() instanceof MRelationSymbol)
-                    ((MRelationSymbol) metaAtomic.getMainRelation()).setMatch(objectAtomic.getMainRelation());
-                if (!metaAtomic.getMainRelation().getMatch().equals(objectAtomic.getMainRelation())) {
+                    ((MRelationSymbol) metaAtomic.getMainRelation()).setMatch(context, objectAtomic.getMainRelation());
+                if (!metaAtomic.getMainRelation().getMatch(context).equals(objectAtomic.getMainRelation())) {
                     throw new TextMessageException(getMessageTexts(metaExp, objectExp, "", " does not map to ", "."));
                 }
             } else if (metaExp instanceof PrefixAtomic && objectExp instanceof InfixAtomic && metaExp.getChildren().size() == objectExp.getChildren().size()) {
@@ -655,38 +657,37 @@ public class MatchUtilities {
                 PrefixAtomic metaAtomic = (PrefixAtomic) metaExp;
                 InfixAtomic objectAtomic = (InfixAtomic) objectExp;
                 if (metaAtomic.getMainRelation() instanceof MRelationSymbol)
-                    ((MRelationSymbol) metaAtomic.getMainRelation()).setMatch(objectAtomic.getMainRelation());
-                if (!metaAtomic.getMainRelation().getMatch().equals(objectAtomic.getMainRelation())) {
+                    ((MRelationSymbol) metaAtomic.getMainRelation()).setMatch(context, objectAtomic.getMainRelation());
+                if (!metaAtomic.getMainRelation().getMatch(context).equals(objectAtomic.getMainRelation())) {
                     throw new TextMessageException(getMessageTexts(metaExp, objectExp, "", " does not map to ", "."));
                 }
             } else if (metaExp instanceof Formula && objectExp instanceof Formula && !((Formula) metaExp).isAtomic() && !((Formula) objectExp).isAtomic() &&
-                    bracketMatch(((Formula) metaExp).getOpenBracket(), ((Formula) metaExp).getCloseBracket(), ((Formula) objectExp).getOpenBracket(), ((Formula) objectExp).getCloseBracket()) &&
+                    bracketMatch(context.getOpenBracket(metaExp), context.getCloseBracket(metaExp), ((Formula) objectExp).getOpenBracket(), ((Formula) objectExp).getCloseBracket()) &&
                     metaExp.getChildren().size() == objectExp.getChildren().size()) {
-                ((Formula) metaExp).setOpenBracket(((Formula) objectExp).getOpenBracket());
-                ((Formula) metaExp).setCloseBracket(((Formula) objectExp).getCloseBracket());
+                context.setBrackets(metaExp, ((Formula) objectExp).getOpenBracket(), ((Formula) objectExp).getCloseBracket());
                 if (((Formula) metaExp).getMainOperator() instanceof UniversalOp && ((Formula) objectExp).getMainOperator() instanceof UniversalOp) {
-                    ((MVariable) ((Formula) metaExp).getMainOperator().getVariableTerm().getChildren().get(0)).setMatch((VariableSym) ((Formula) objectExp).getMainOperator().getVariableTerm().getChildren().get(0));
+                    ((MVariable) ((Formula) metaExp).getMainOperator().getVariableTerm().getChildren().get(0)).setMatch(context, (VariableSym) ((Formula) objectExp).getMainOperator().getVariableTerm().getChildren().get(0));
                 }
                 if (((Formula) metaExp).getMainOperator() instanceof ExistentialOp && ((Formula) objectExp).getMainOperator() instanceof ExistentialOp) {
-                    ((MVariable) ((Formula) metaExp).getMainOperator().getVariableTerm().getChildren().get(0)).setMatch((VariableSym) ((Formula) objectExp).getMainOperator().getVariableTerm().getChildren().get(0));
+                    ((MVariable) ((Formula) metaExp).getMainOperator().getVariableTerm().getChildren().get(0)).setMatch(context, (VariableSym) ((Formula) objectExp).getMainOperator().getVariableTerm().getChildren().get(0));
                 }
                 if (((Formula) metaExp).getMainOperator() instanceof UnivBoundedQuantOp && ((Formula) objectExp).getMainOperator() instanceof UnivBoundedQuantOp ) {
-                    ((MVariable) ((Formula) metaExp).getMainOperator().getVariableTerm().getChildren().get(0)).setMatch((VariableSym) ((Formula) objectExp).getMainOperator().getVariableTerm().getChildren().get(0));
-                    setMatching( ((UnivBoundedQuantOp) ((Formula) metaExp).getMainOperator()).getBoundingTerm(), ((UnivBoundedQuantOp) ((Formula) objectExp).getMainOperator()).getBoundingTerm());
+                    ((MVariable) ((Formula) metaExp).getMainOperator().getVariableTerm().getChildren().get(0)).setMatch(context, (VariableSym) ((Formula) objectExp).getMainOperator().getVariableTerm().getChildren().get(0));
+                    setMatching(context, ((UnivBoundedQuantOp) ((Formula) metaExp).getMainOperator()).getBoundingTerm(), ((UnivBoundedQuantOp) ((Formula) objectExp).getMainOperator()).getBoundingTerm());
                 }
                 if (((Formula) metaExp).getMainOperator() instanceof ExisBoundedQuantOp && ((Formula) objectExp).getMainOperator() instanceof ExisBoundedQuantOp ) {
-                    ((MVariable) ((Formula) metaExp).getMainOperator().getVariableTerm().getChildren().get(0)).setMatch((VariableSym) ((Formula) objectExp).getMainOperator().getVariableTerm().getChildren().get(0));
-                    setMatching( ((ExisBoundedQuantOp) ((Formula) metaExp).getMainOperator()).getBoundingTerm(), ((ExisBoundedQuantOp) ((Formula) objectExp).getMainOperator()).getBoundingTerm());
+                    ((MVariable) ((Formula) metaExp).getMainOperator().getVariableTerm().getChildren().get(0)).setMatch(context, (VariableSym) ((Formula) objectExp).getMainOperator().getVariableTerm().getChildren().get(0));
+                    setMatching(context, ((ExisBoundedQuantOp) ((Formula) metaExp).getMainOperator()).getBoundingTerm(), ((ExisBoundedQuantOp) ((Formula) objectExp).getMainOperator()).getBoundingTerm());
                 }
                 if (((Formula) metaExp).getMainOperator() instanceof UnivRestrictedQuantOp && ((Formula) objectExp).getMainOperator() instanceof UnivRestrictedQuantOp ) {
-                    ((MVariable) ((Formula) metaExp).getMainOperator().getVariableTerm().getChildren().get(0)).setMatch((VariableSym) ((Formula) objectExp).getMainOperator().getVariableTerm().getChildren().get(0));
-                    setMatching( ((UnivRestrictedQuantOp) ((Formula) metaExp).getMainOperator()).getRestrictingFormula(), ((UnivRestrictedQuantOp) ((Formula) objectExp).getMainOperator()).getRestrictingFormula());
+                    ((MVariable) ((Formula) metaExp).getMainOperator().getVariableTerm().getChildren().get(0)).setMatch(context, (VariableSym) ((Formula) objectExp).getMainOperator().getVariableTerm().getChildren().get(0));
+                    setMatching(context, ((UnivRestrictedQuantOp) ((Formula) metaExp).getMainOperator()).getRestrictingFormula(), ((UnivRestrictedQuantOp) ((Formula) objectExp).getMainOperator()).getRestrictingFormula());
                 }
                 if (((Formula) metaExp).getMainOperator() instanceof ExisRestrictedQuantOp && ((Formula) objectExp).getMainOperator() instanceof ExisRestrictedQuantOp ) {
-                    ((MVariable) ((Formula) metaExp).getMainOperator().getVariableTerm().getChildren().get(0)).setMatch((VariableSym) ((Formula) objectExp).getMainOperator().getVariableTerm().getChildren().get(0));
-                    setMatching( ((ExisRestrictedQuantOp) ((Formula) metaExp).getMainOperator()).getRestrictingFormula(), ((ExisRestrictedQuantOp) ((Formula) objectExp).getMainOperator()).getRestrictingFormula());
+                    ((MVariable) ((Formula) metaExp).getMainOperator().getVariableTerm().getChildren().get(0)).setMatch(context, (VariableSym) ((Formula) objectExp).getMainOperator().getVariableTerm().getChildren().get(0));
+                    setMatching(context, ((ExisRestrictedQuantOp) ((Formula) metaExp).getMainOperator()).getRestrictingFormula(), ((ExisRestrictedQuantOp) ((Formula) objectExp).getMainOperator()).getRestrictingFormula());
                 }
-                if (!((Formula) metaExp).getMainOperator().getMatch().equals(((Formula) objectExp).getMainOperator())) {
+                if (!((Formula) metaExp).getMainOperator().getMatch(context).equals(((Formula) objectExp).getMainOperator())) {
                     throw new TextMessageException(getMessageTexts(metaExp, objectExp, "", " does not map to ", "."));
                 }
 
@@ -698,7 +699,7 @@ public class MatchUtilities {
             //process sub
    //         System.out.println("trans1 meta: " + metaExp + " obj: " + objectExp);
             Pair<Expression, Expression> pair = new Pair(metaExp, objectExp);
-            transformList.add(pair);
+            context.transformList.add(pair);
             skip = true;
         }
 
@@ -707,12 +708,12 @@ public class MatchUtilities {
            for (int i = 0; i < metaExp.getChildren().size(); i++) {
                if ((metaExp.getChildren().get(i).getType() == ExpressionType.FORMULA && ((Formula) metaExp.getChildren().get(i)).getSubTransform() == null) ||
                        (metaExp.getChildren().get(i).getType() == ExpressionType.TERM && ((Term) metaExp.getChildren().get(i)).getSubTransform() == null)) {
-                   setMatching(metaExp.getChildren().get(i), objectExp.getChildren().get(i));
+                   setMatching(context, metaExp.getChildren().get(i), objectExp.getChildren().get(i));
                }
                else {
                    //process sub
                    Pair<Expression, Expression> pair = new Pair(metaExp.getChildren().get(i), objectExp.getChildren().get(i));
-                   transformList.add(pair);
+                   context.transformList.add(pair);
                }
            }
        }
@@ -739,29 +740,14 @@ public class MatchUtilities {
 
 
 
-    public static List<Text> getMessageTexts(Expression exp1, Expression exp2, String lead, String middle, String close) {
-        List<Text> texts = new ArrayList<Text>();
+    public static List<StyledText> getMessageTexts(Expression exp1, Expression exp2, String lead, String middle, String close) {
+        List<StyledText> texts = new ArrayList<StyledText>();
 
-        texts.add(new Text(lead));
+        texts.add(new StyledText(lead));
         if (exp1 != null) texts.addAll(exp1.toTextList());
-        texts.add(new Text(middle));
+        texts.add(new StyledText(middle));
         if (exp2 != null) texts.addAll(exp2.toTextList());
-        texts.add(new Text(close));
+        texts.add(new StyledText(close));
         return texts;
     }
-
-    public static void clearMatching() {
-        MVariable.clear();
-        MFormula.clear();
-        MTerm.clear();
-        MConstant.clear();
-        MFunctionSymbol.clear();
-        MRelationSymbol.clear();
-        MSentenceLetter.clear();
-        MAnyExpression.clear();
-    }
-
-    public static List<Pair<Expression, Expression>> getTransformList() {
-        return transformList;
-    }
 }
@@ -0,0 +1,33 @@
+package slapp.editor.parser;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/*
+ * The compiled forms of a rule (or other checker) for each metalanguage.  The forms are made by compile (usually the
+ * constructor of a small class holding them in final fields) on first use with a metalanguage, and the same
+ * instance serves every check after.
+ */
+public class MetaForms<T> {
+
+    private final Function<Language, T> compile;
+    private final Map<String, T> forms = new ConcurrentHashMap<>();
+
+    public MetaForms(Function<Language, T> compile) {
+        this.compile = compile;
+    }
+
+    /*
+     * Forms for metaLanguage
+     * @param metaLanguage the metalanguage
+     * @return the forms
+     */
+    public T get(Language metaLanguage) {
+        T languageForms = forms.get(metaLanguage.getNameString());
+        if (languageForms == null) {
+            languageForms = forms.computeIfAbsent(metaLanguage.getNameString(), name -> compile.apply(metaLanguage));
+        }
+        return languageForms;
+    }
+}
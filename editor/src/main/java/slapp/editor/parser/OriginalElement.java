@@ -1,8 +1,6 @@
 package slapp.editor.parser;
 
 import com.gluonhq.richtextarea.model.TextDecoration;
-import javafx.scene.text.Text;
-import javafx.scene.text.TextFlow;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -46,6 +44,15 @@ public class OriginalElement implements Expression {
         return !isSubscript() && !isSuperscript();
     }
 
+    //single digit element (as for subscripts and superscripts)
+    public boolean isDigit() {
+        return elementStr.length() == 1 && elementStr.charAt(0) >= '0' && elementStr.charAt(0) <= '9';
+    }
+
+    public boolean isNonZeroDigit() {
+        return elementStr.length() == 1 && elementStr.charAt(0) >= '1' && elementStr.charAt(0) <= '9';
+    }
+
     public int getPosition() {
         return position;
     }
@@ -55,7 +62,7 @@ public class OriginalElement implements Expression {
     }
 
     @Override
-    public Expression getMatch() {return this;}
+    public Expression getMatch(MatchContext context) {return this;}
 
     @Override
     public ExpressionType getType() { return type; }
@@ -66,8 +73,8 @@ public class OriginalElement implements Expression {
     }
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> textList = new ArrayList<>();
+    public List<StyledText> toTextList() {
+        List<StyledText> textList = new ArrayList<>();
 
         if (isSubscript()) {
             if (isShiftedSubscript()) textList = Collections.singletonList(ParseUtilities.newShiftedSubscriptText(elementStr));
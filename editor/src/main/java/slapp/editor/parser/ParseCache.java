@@ -0,0 +1,139 @@
+package slapp.editor.parser;
+
+import com.gluonhq.richtextarea.model.DecorationModel;
+import com.gluonhq.richtextarea.model.Document;
+import com.gluonhq.richtextarea.model.TextDecoration;
+import slapp.editor.parser.grammatical_parts.Formula;
+import slapp.editor.parser.grammatical_parts.MFormula;
+import slapp.editor.parser.grammatical_parts.MTerm;
+import slapp.editor.parser.grammatical_parts.Term;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Bounded LRU cache of parse results keyed by document text, the sub/superscript runs of the document, and
+ * language name.  Checkers share the cache so that one check parses each distinct formula just once.
+ *
+ * Each caller gets its own copy of the formula and term nodes of a cached result (Formula.treeCopy), so that one
+ * caller's changes to levels, parts or values cannot reach another; symbols and operators, which are not changed,
+ * are shared.  Copying a tree is much cheaper than parsing it.  Only shared (frozen) languages are cached; a
+ * modifiable copy of a language may differ from the registered language of the same name, and is parsed each time.
+ */
+public class ParseCache {
+
+    private static final int DEFAULT_CAPACITY = 512;
+    private static final ParseCache sharedCache = new ParseCache(DEFAULT_CAPACITY);
+
+    private final int capacity;
+    private final Map<String, ParseResult> results;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public ParseCache(int capacity) {
+        this.capacity = capacity;
+        this.results = new LinkedHashMap<String, ParseResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ParseResult> eldest) {
+                if (size() > ParseCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static ParseCache getSharedCache() {
+        return sharedCache;
+    }
+
+    public ParseResult parse(Document doc, String langName) {
+        return parse(doc, Languages.getLanguage(langName));
+    }
+
+    public ParseResult parse(Document doc, Language language) {
+        if (!language.isFrozen()) {
+            return new Parser(language).parse(doc);
+        }
+        String key = getKey(doc, language);
+        synchronized (this) {
+            ParseResult result = results.get(key);
+            if (result != null) {
+                hits++;
+                return copyOf(result);
+            }
+            misses++;
+        }
+
+        //parse outside the lock; if two threads miss on the same key, the later result replaces the earlier
+        ParseResult parsed = new Parser(language).parse(doc);
+        ParseResult result = new ParseResult(Collections.unmodifiableList(parsed.getExpressions()), parsed.getAlternateMessage());
+        synchronized (this) {
+            results.put(key, result);
+        }
+        return copyOf(result);
+    }
+
+    //result with copies of the formulas and terms of a cached result
+    private static ParseResult copyOf(ParseResult result) {
+        List<Expression> expressions = new ArrayList<>(result.getExpressions().size());
+        for (Expression expression : result.getExpressions()) {
+            if (expression instanceof Formula && !(expression instanceof MFormula)) expressions.add(((Formula) expression).treeCopy());
+            else if (expression instanceof Term && !(expression instanceof MTerm)) expressions.add(((Term) expression).treeCopy());
+            else expressions.add(expression);
+        }
+        return new ParseResult(expressions, result.getAlternateMessage());
+    }
+
+    private static String getKey(Document doc, Language language) {
+        return getDocumentKey(doc) + '\u0000' + language.getNameString();
+    }
+
+    /*
+     * Key from text and the start, length and kind of each script run.  Other decoration (font, color and the
+     * like) does not bear on the parse.  A document without scripts has just its text as key.
+     */
+    public static String getDocumentKey(Document doc) {
+        StringBuilder sb = null;
+        for (DecorationModel decorationModel : doc.getDecorations()) {
+            if (decorationModel.getDecoration() instanceof TextDecoration) {
+                TextDecoration dec = (TextDecoration) decorationModel.getDecoration();
+                int script = (dec.isSuperscript() ? 1 : 0) | (dec.isTransSuperscript() ? 2 : 0) | (dec.isSubscript() ? 4 : 0) | (dec.isTransSubscript() ? 8 : 0);
+                if (script != 0) {
+                    if (sb == null) sb = new StringBuilder(doc.getText());
+                    sb.append('\u0000').append(decorationModel.getStart()).append(':').append(decorationModel.getLength()).append(':').append(script);
+                }
+            }
+        }
+        return sb == null ? doc.getText() : sb.toString();
+    }
+
+    public synchronized void clear() {
+        results.clear();
+    }
+
+    public synchronized int size() {
+        return results.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+}
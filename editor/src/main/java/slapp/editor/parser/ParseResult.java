@@ -0,0 +1,32 @@
+package slapp.editor.parser;
+
+
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Result of a single parse: the list of top-level expressions, together with any message
+ * about a bounded quantifier whose variable is free in the bounding term.
+ */
+public class ParseResult {
+
+    private final List<Expression> expressions;
+    private final List<StyledText> alternateMessage;
+
+    ParseResult(List<Expression> expressions, List<StyledText> alternateMessage) {
+        this.expressions = expressions;
+        this.alternateMessage = Collections.unmodifiableList(alternateMessage);
+    }
+
+    public List<Expression> getExpressions() {
+        return expressions;
+    }
+
+    public List<StyledText> getAlternateMessage() {
+        return alternateMessage;
+    }
+
+    public boolean isFormula() {
+        return expressions.size() == 1 && expressions.get(0).getType() == ExpressionType.FORMULA;
+    }
+}
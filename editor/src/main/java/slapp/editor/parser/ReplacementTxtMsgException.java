@@ -1,7 +1,5 @@
-package slapp.editor;
+package slapp.editor.parser;
 
-import javafx.scene.text.Text;
-import slapp.editor.parser.TextMessageException;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -10,7 +8,7 @@ public class ReplacementTxtMsgException extends TextMessageException {
 
 
 
-    public ReplacementTxtMsgException(List<Text> messageList) {
+    public ReplacementTxtMsgException(List<StyledText> messageList) {
         super(messageList);
 
     }
@@ -0,0 +1,76 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+
+package slapp.editor.parser;
+
+/**
+ * A run of message text with its style, as expressions, parse and check messages are given apart from any UI.  The
+ * editor turns styled text into Text nodes at the point of display (see slapp.editor.StyledTextNodes).
+ */
+public final class StyledText {
+
+    /**
+     * PLAIN is text in the default font; the others are in the message font, where the shifted scripts are moved back
+     * over the preceding character, and SUBSCRIPT_UNDER is a subscript under the superscript just before it
+     */
+    public enum Style {PLAIN, REGULAR, ITALIC, SUPERSCRIPT, SHIFTED_SUPERSCRIPT, SUBSCRIPT, SHIFTED_SUBSCRIPT, SUBSCRIPT_UNDER}
+
+    private final String text;
+    private final Style style;
+
+    /**
+     * Plain text
+     * @param text the text
+     */
+    public StyledText(String text) {
+        this(text, Style.PLAIN);
+    }
+
+    /**
+     * Styled text
+     * @param text the text
+     * @param style the style
+     */
+    public StyledText(String text, Style style) {
+        this.text = text == null ? "" : text;
+        this.style = style;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public Style getStyle() {
+        return style;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StyledText)) return false;
+        StyledText other = (StyledText) o;
+        return text.equals(other.text) && style == other.style;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * text.hashCode() + style.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,49 @@
+package slapp.editor.parser;
+
+/*
+ * Kinds of symbol in a language, for the symbol table built by Language.  A symbol may be of more than one kind
+ * (as a sentence letter and relation symbol in Lq); the parse passes decide between them as before.
+ */
+public enum SymbolKind {
+
+    OPEN_BRACKET1,
+    OPEN_BRACKET2,
+    OPEN_BRACKET3,
+    CLOSE_BRACKET1,
+    CLOSE_BRACKET2,
+    CLOSE_BRACKET3,
+    NEGATION,
+    CONDITIONAL,
+    BICONDITIONAL,
+    CONJUNCTION,
+    DISJUNCTION,
+    NAND,
+    NOR,
+    UNIVERSAL_QUANT,
+    EXISTENTIAL_QUANT,
+    DIVIDER,
+    ANGLE_OPEN_BRACKET,
+    ANGLE_CLOSE_BRACKET,
+    COMMA_DIVIDER,
+    SLASH_DIVIDER,
+    DSLASH_DIVIDER,
+    CONTRADICTION,
+
+    VARIABLE,
+    NO_MATCH_VARIABLE,
+    CONSTANT,
+    SENTENCE_LETTER,
+    ONE_PLACE_FUNCTION,
+    TWO_PLACE_FUNCTION,
+    XFUNCTION,
+    ONE_PLACE_RELATION,
+    XRELATION,
+    INFIX_RELATION,
+    INFIX_COMPLEMENT,
+
+    M_TERM,
+    M_FORMULA,
+    ARBITRARY_EXPRESSION,
+    PSEUDO_M_TERM,
+    PSEUDO_M_FORMULA,
+}
@@ -1,25 +1,24 @@
 package slapp.editor.parser;
 
 import com.gluonhq.richtextarea.model.Document;
-import javafx.scene.text.Text;
-import javafx.scene.text.TextFlow;
-import slapp.editor.EditorAlerts;
 import slapp.editor.parser.grammatical_parts.*;
 import slapp.editor.parser.symbols.*;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * The functions keep their state in locals (the node lists of the subformula and element functions as well), and run
+ * from more than one thread (as matches, each in its own MatchContext) without locks.
+ */
 public class SyntacticalFns {
-    private static List<Expression> nodeList = new ArrayList<>();
-    private static Language lang;
-    private static List<Expression> variableList;
-    private static List<Expression> variableList2;
-    private static List<Expression> variableList3;
-    private static List<Expression> removalList;
-    private static String langName;
+    private static final Map<String, Expression> dummyVariables = new ConcurrentHashMap<>();
 
 
     public SyntacticalFns() {}
@@ -51,178 +50,76 @@ public class SyntacticalFns {
 
     }
 
-    //remove from subformula list ones whose quantifier binds a variable in the term
+    //subformulas (sorted by level) but for ones in the scope of a quantifier that binds a variable in the term
     public static List<Expression> subsWithTermFree(Expression formulaExp, Expression term1Exp) {
-        List<Expression> sortedSubformulas = subformulasExp(formulaExp);
-
-        //get variables in term1
-        variableList = new ArrayList();
-        setTermVariableList(term1Exp);
-
-        int i = sortedSubformulas.size() - 1;
-        while (i >= 0) {
-            Formula formula = (Formula) sortedSubformulas.get(i);
-            if (!formula.isAtomic() && !(formula instanceof MFormula) && !(formula instanceof MComplexFormula) && formula.getChildren() != null) {
-                ExpressionType type = formula.getMainOperator().getType();
-                if (type == ExpressionType.UNIVERSAL_OP || type == ExpressionType.UNIV_BOUNDED_OP || type == ExpressionType.UNIV_RESTRICTED_OP ||
-                        type == ExpressionType.EXISTENTIAL_OP || type == ExpressionType.EXIS_BOUNDED_OP || type == ExpressionType.EXIS_RESTRICTED_OP
-                ) {
-                    Term quantifiedVariable = formula.getMainOperator().getVariableTerm();
-
-
+        List<Expression> variables = termVariables(term1Exp);
+        List<Expression> subformulas = new ArrayList<>();
+        listSubsWithTermFree(formulaExp, term1Exp, variables, subformulas);
+        Collections.sort(subformulas, new SortByLevel());
+        return subformulas;
+    }
 
-                    if (vListContains(term1Exp, quantifiedVariable, variableList)) {
-                        removeTreeFromList(sortedSubformulas, formula.getChildren().get(0));
-                        i = listIndexParticular(sortedSubformulas, formula);
-                    }
-                }
+    private static void listSubsWithTermFree(Expression exp, Expression term1Exp, List<Expression> variables, List<Expression> subformulas) {
+        if (exp.getType() == ExpressionType.FORMULA) {
+            subformulas.add(exp);
+            Formula formula = (Formula) exp;
+            if (!formula.isAtomic() && !(formula instanceof MFormula) && !(formula instanceof MComplexFormula) && formula.getChildren() != null &&
+                    isQuantifier(formula.getMainOperator()) && vListContains(term1Exp, formula.getMainOperator().getVariableTerm(), variables)) {
+                return;
             }
-            i = i - 1;
         }
-        return sortedSubformulas;
+        if (exp.getChildren() != null && exp.getLevel() > 0) {
+            for (Expression child : exp.getChildren()) listSubsWithTermFree(child, term1Exp, variables, subformulas);
+        }
     }
 
     //formula P has term term2 free for term1  (so term1 is the replaced term)
     public static boolean freeForExp(Expression formulaExp, Expression term1Exp, Expression term2Exp, String languageName) {
-        langName = languageName;
-
-        List<Expression> sortedSubformulas = subsWithTermFree(formulaExp, term1Exp);
-
+        List<Expression> variables = termVariables(term1Exp);
 
-        boolean freeFor = true;
-        int index = 0;
-        while (freeFor == true && index < sortedSubformulas.size()) {
-
-            Formula formula = (Formula) sortedSubformulas.get(index);
-
-            if (formula.isAtomic()) {
-                index++;
-                continue;
-            }
-
-            if (formula instanceof MFormula) {
-                index++;
-                continue;
-            }
+        //each subformula outside the scope of quantifiers that bind a variable of term1 (the children of sentential operators are among them)
+        for (Expression exp : subsWithTermFree(formulaExp, term1Exp)) {
+            Formula formula = (Formula) exp;
+            if (formula.isAtomic() || formula instanceof MFormula) continue;
 
             if (formula instanceof MComplexFormula) {
-                variableList2 = new ArrayList<>();
-                setTermVariableList2(term2Exp);
-
-                for (Expression exp : variableList2) {
-                    if (!vListContains(term1Exp, exp, variableList)) {
-                        freeFor = false;
-                        break;
-                    }
+                for (Expression variable : unstarredVariables(term2Exp, variables, languageName)) {
+                    if (!vListContains(term1Exp, variable, variables)) return false;
                 }
-                index++;
                 continue;
             }
 
             Operator mainOperator = formula.getMainOperator();
-            ExpressionType opType = formula.getMainOperator().getType();
-
-            if (opType == ExpressionType.NEG_OP || opType == ExpressionType.COND_OP ||
-                    opType == ExpressionType.BICOND_OP || opType == ExpressionType.CONJ_OP || opType == ExpressionType.DISJ_OP || opType == ExpressionType.NAND_OP || opType == ExpressionType.NOR_OP)
-            {
-                boolean childrenOK = true;
-                for (Expression child : formula.getChildren()) {
-                    if (!listContainsParticular(sortedSubformulas, child) ) {
-                        childrenOK = false;
-                    }
-                }
-                if (!childrenOK) freeFor = false;
-                index++;
-                continue;
-            }
-
-            if (opType == ExpressionType.UNIVERSAL_OP || opType == ExpressionType.EXISTENTIAL_OP || opType == ExpressionType.UNIV_BOUNDED_OP || opType == ExpressionType.EXIS_BOUNDED_OP) {
-                Term variable = mainOperator.getVariableTerm();
+            if (!isQuantifier(mainOperator)) continue;
 
-                //term1 is bound so no substitution
+            //term1 is bound so no substitution
+            Term variable = mainOperator.getVariableTerm();
+            if (vListContains(term1Exp, variable, variables)) continue;
 
-                if (vListContains(term1Exp, variable, variableList)) {
-                    index++;
-                    continue;
-                }
-                else {
-                    Expression childExp = formula.getChildren().get(0);
-
-                    if (expTermFreeInFormula(term2Exp, variable, langName) && particularTermsFreeInFormula(childExp, Collections.singletonList(term1Exp), langName)) { //expTermFreeInFormula(childExp, term1Exp, langName)
-                        freeFor = false;
-                        index++;
-                        continue;
-                    }
-                }
+            Expression childExp = formula.getChildren().get(0);
+            if (termVariables3(term2Exp, variable).contains(variable) && particularTermsFreeInFormula(childExp, Collections.singletonList(term1Exp), languageName)) {
+                return false;
             }
 
-            if (opType == ExpressionType.UNIV_RESTRICTED_OP ||  opType == ExpressionType.EXIS_RESTRICTED_OP) {
-                Term variable = mainOperator.getVariableTerm();
-
-
-                if (vListContains(term1Exp, variable, variableList)) {
-                    index++;
-                    continue;
-                }
-                else {
-                    Expression childExp = formula.getChildren().get(0);
-                    if (expTermFreeInFormula(term2Exp, variable, langName) && particularTermsFreeInFormula(childExp, Collections.singletonList(term1Exp), langName)) { //expTermFreeInFormula(childExp, term1Exp, langName)
-                        freeFor = false;
-                        index++;
-                        continue;
-                    }
-                }
-                //check restricting formula
-                Formula restrictingFormula = null;
-                Operator restrictingQuantifier = null;
-                if (mainOperator instanceof UnivRestrictedQuantOp) {
-                    restrictingFormula = ((UnivRestrictedQuantOp) mainOperator).getRestrictingFormula();
-                    restrictingQuantifier = ((UnivRestrictedQuantOp) mainOperator).getUniversalOp();
-                }
-                if (mainOperator instanceof ExisRestrictedQuantOp) {
-                    restrictingFormula = ((ExisRestrictedQuantOp) mainOperator).getRestrictingFormula();
-                    restrictingQuantifier = ((ExisRestrictedQuantOp) mainOperator).getExistentialOp();
-                }
-
+            //check restricting formula
+            Formula restrictingFormula = null;
+            Operator restrictingQuantifier = null;
+            if (mainOperator instanceof UnivRestrictedQuantOp) {
+                restrictingFormula = ((UnivRestrictedQuantOp) mainOperator).getRestrictingFormula();
+                restrictingQuantifier = ((UnivRestrictedQuantOp) mainOperator).getUniversalOp();
+            }
+            if (mainOperator instanceof ExisRestrictedQuantOp) {
+                restrictingFormula = ((ExisRestrictedQuantOp) mainOperator).getRestrictingFormula();
+                restrictingQuantifier = ((ExisRestrictedQuantOp) mainOperator).getExistentialOp();
+            }
+            if (restrictingFormula != null) {
                 Formula newFormula = new Formula();                                      //need to check with quantifier applied, since restricting formula is in its scope
                 newFormula.setMainOperator(restrictingQuantifier);
                 newFormula.setChildren(Collections.singletonList(restrictingFormula));
-
-                boolean freeForResting = freeForExp(newFormula, term1Exp, term2Exp, langName);
-                sortedSubformulas = subsWithTermFree(formulaExp, term1Exp);   //reset sorted formulas
-                if (!freeForResting) {
-                    freeFor = false;
-                    index++;
-                    continue;
-                }
-            }
-
-            index = index + 1;
-        }
-
-        return freeFor;
-    }
-
-
-
-    public static void removeTreeFromList(List<Expression> subformulas, Expression formula) {
-        removalList = new ArrayList<>();
-        setRemovalList(subformulas, formula);
-        for (Expression exp : removalList) {
-            removeParticularFromList(subformulas, exp);
-        }
-    }
-
-    public static void setRemovalList(List<Expression> subformulas, Expression formula) {
-        removalList.add(formula);
-
-        if (formula.getChildren() != null) {
-            for (Expression child : formula.getChildren()) {
-                if (listContainsParticular(subformulas, child)) {
-                    setRemovalList(subformulas, child);
-                }
+                if (!freeForExp(newFormula, term1Exp, term2Exp, languageName)) return false;
             }
         }
+        return true;
     }
 
     public static boolean listContainsParticular(List list, Object o) {
@@ -261,21 +158,14 @@ public class SyntacticalFns {
 
     //say if term t is free in formula P (P either term or formula)
     public static boolean docTermFreeInFormula(Document formulaDoc, Document termDoc, String langName) {
-
-        boolean free = false;
-
         Expression formExp = ParseUtilities.parseDoc(formulaDoc, langName).get(0);
         Expression termExp = ParseUtilities.parseDoc(termDoc, langName).get(0);
         return expTermFreeInFormula(formExp, termExp, langName);
     }
 
     public static boolean expTermFreeInFormula(Expression formulaExp, Expression termExp, String langName) {
-        boolean free = true;
-
         if (formulaExp instanceof Term && termExp instanceof Term && ((Term) termExp).getTermType() == TermType.VARIABLE) {
-            variableList3 = new ArrayList<>();
-            setTermVariableList3(formulaExp, termExp);
-            return variableList3.contains(termExp);
+            return termVariables3(formulaExp, termExp).contains(termExp);
             /*
             PseudoMTerm term = (PseudoMTerm) formulaExp;
             String supString = ((PseudoMTermSym) term.getMainTermSym()).getSuperscriptStr();
@@ -285,14 +175,8 @@ public class SyntacticalFns {
              */
         }
 
-        Expression dummyVariable = ParseUtilities.parseDoc(new Document(Languages.getLanguage(langName).getDummyVariableSym()), langName).get(0);
-        Expression subExp = substituteExpTerms(formulaExp, termExp, dummyVariable);
-
-        if (subExp.equals(formulaExp)) {
-            free = false;
-        }
-
-        return free;
+        //free if substitution of the dummy variable would change the formula
+        return changes(formulaExp, Substitution.ofEqualTerms(termExp, getDummyVariableExp(langName)));
     }
 
     public static boolean sentence(Expression formulaExp, String langName ) {
@@ -336,383 +220,233 @@ public class SyntacticalFns {
     }
 
     public static Expression substituteExpTerms(Expression formulaExp, Expression term1Exp, Expression term2Exp) {
-
-        //get variables in term1
-        variableList = new ArrayList();
-        setTermVariableList(term1Exp);
-
-
-        //sort formula nodes by level
-        nodeList = new ArrayList<Expression>();
-        listNodes(formulaExp);
-        Collections.sort(nodeList, new SortByLevel());
-
-        //create parallel list
-        List<Expression> parallelList = new ArrayList();
-
-        for (int i = 0; i < nodeList.size(); i++) {
-            Expression exp = nodeList.get(i);
-            if (exp.getType() == ExpressionType.TERM) {
-                Term term = (Term) exp;
-
-                if (term.equals((Term) term1Exp)) {
-                    parallelList.add(term2Exp);
-                }
-                else if ( term.getTermType() == TermType.VARIABLE || term.getTermType() == TermType.CONSTANT || term.getTermType() == TermType.MTERM || term.getTermType() == TermType.PMTERM) {
-       //          else if ( term.getTermType() == TermType.VARIABLE || term.getTermType() == TermType.CONSTANT) {
-
-
-                    parallelList.add(exp);
-                }
-                else if ( term.getTermType() == TermType.COMPLEX) {
-
-                    FunctionSymbol fnSymbol = term.getMainFnSymbol();
-                    List<Expression> parallelChildList = new ArrayList();
-                    for (int j = 0; j < term.getChildren().size(); j++) {
-                        Expression childExp = term.getChildren().get(j);
-                        int index = nodeList.indexOf(childExp);
-                        parallelChildList.add(parallelList.get(index));
-                    }
-                    if (term instanceof InfixTerm) {
-                        InfixTerm infixTerm = (InfixTerm) term;
-                        InfixTerm newTerm = new InfixTerm();
-                        newTerm.setOpenBracket(infixTerm.getOpenBracket());
-                        newTerm.setCloseBracket(infixTerm.getCloseBracket());
-                        newTerm.setMainFnSymbol(fnSymbol);
-                        newTerm.setChildren(parallelChildList);
-                        parallelList.add(newTerm);
-
-                    } else {
-                        Term newTerm = new Term();
-                        newTerm.setMainFnSymbol(fnSymbol);
-                        newTerm.setChildren(parallelChildList);
-                        parallelList.add(newTerm);
-                    }
-                }
-            }
-            else if (exp.getType() == ExpressionType.FORMULA) {
-
-                Formula formula = (Formula) exp;
-                if (formula instanceof SentenceAtomic || formula instanceof MFormula || formula instanceof PseudoMFormula || formula instanceof ContradictionSimple) {
-                    parallelList.add(exp);
-                }
-                else if (formula.isAtomic()) {
-                    List<Expression> parallelChildList = new ArrayList();
-                    for (int j = 0; j < formula.getChildren().size(); j++) {
-                        Expression childExp = formula.getChildren().get(j);
-                        int index = nodeList.indexOf(childExp);
-                        parallelChildList.add(parallelList.get(index));
-                    }
-                    if (formula instanceof PrefixAtomic) {
-                        PrefixAtomic prefixAtomic = (PrefixAtomic) formula;
-                        PrefixAtomic newPrefixAtomic = new PrefixAtomic(prefixAtomic.getMainRelation()) ;
-                        newPrefixAtomic.setChildren(parallelChildList);
-                        parallelList.add(newPrefixAtomic);
-                    }
-                    else if (formula instanceof InfixAtomic) {
-                        InfixAtomic infixAtomic = (InfixAtomic) formula;
-                        InfixAtomic newInfixAtomic = new InfixAtomic(infixAtomic.getMainRelation(), infixAtomic.getComplementRelation(), infixAtomic.isNegatingInfix());
-                        newInfixAtomic.setOpenBracket(infixAtomic.getOpenBracket());
-                        newInfixAtomic.setCloseBracket(infixAtomic.getCloseBracket());
-                        newInfixAtomic.setChildren(parallelChildList);
-                        parallelList.add(newInfixAtomic);
-                    }
-                }
-                else if (formula instanceof MComplexFormula) {
-                    List<Expression> parallelChildList = new ArrayList();
-                    for (int j = 0; j < formula.getChildren().size(); j++) {
-                        Expression childExp = formula.getChildren().get(j);
-                        int index = listIndexParticular(nodeList, childExp);
-                        parallelChildList.add(parallelList.get(index));
-                    }
-                    MComplexFormula complexFormula = (MComplexFormula) formula;
-                    MComplexFormula newComplexFormula = new MComplexFormula(complexFormula.getFormulaSym());
-                    newComplexFormula.setChildren(parallelChildList);
-                    newComplexFormula.setOpenBracket(complexFormula.getOpenBracket());
-                    newComplexFormula.setCloseBracket(complexFormula.getCloseBracket());
-                    parallelList.add(newComplexFormula);
-                }
-
-                else if (formula.getMainOperator().getType() == ExpressionType.UNIVERSAL_OP && vListContains(term1Exp, formula.getMainOperator().getVariableTerm(), variableList)) parallelList.add(formula);
-                else if (formula.getMainOperator().getType() == ExpressionType.EXISTENTIAL_OP && vListContains(term1Exp, formula.getMainOperator().getVariableTerm(), variableList)) parallelList.add(formula);
-
-                else if (formula.getMainOperator().getType() == ExpressionType.UNIV_BOUNDED_OP && vListContains(term1Exp, formula.getMainOperator().getVariableTerm(), variableList)) parallelList.add(formula);
-                else if (formula.getMainOperator().getType() == ExpressionType.EXIS_BOUNDED_OP && vListContains(term1Exp, formula.getMainOperator().getVariableTerm(), variableList)) parallelList.add(formula);
-
-                else if (formula.getMainOperator().getType() == ExpressionType.UNIV_RESTRICTED_OP && vListContains(term1Exp, formula.getMainOperator().getVariableTerm(), variableList)) parallelList.add(formula);
-                else if (formula.getMainOperator().getType() == ExpressionType.EXIS_RESTRICTED_OP && vListContains(term1Exp, formula.getMainOperator().getVariableTerm(), variableList)) parallelList.add(formula);
-
-                else {
-                    Operator newMainOperator = null;
-                    if (formula.getMainOperator().getType() == ExpressionType.UNIV_BOUNDED_OP) {
-                        UnivBoundedQuantOp boundingOperator = (UnivBoundedQuantOp) formula.getMainOperator();
-                        Term newBoundingTerm = (Term) substituteExpTerms(boundingOperator.getBoundingTerm(), term1Exp, term2Exp);
-                        UnivBoundedQuantOp newBoundingOp = new UnivBoundedQuantOp(boundingOperator.getOpenBracket(), boundingOperator.getCloseBracket(), boundingOperator.getUniversalOp(),
-                                boundingOperator.getInfixRelation(), newBoundingTerm);
-                        newMainOperator = newBoundingOp;
-                    } else if (formula.getMainOperator().getType() == ExpressionType.UNIV_RESTRICTED_OP) {
-                        UnivRestrictedQuantOp restrictedOperator = (UnivRestrictedQuantOp) formula.getMainOperator();
-                        Formula newRestrictingFormula = (Formula) substituteExpTerms(restrictedOperator.getRestrictingFormula(), term1Exp, term2Exp);
-                        UnivRestrictedQuantOp newRestrictingOp = new UnivRestrictedQuantOp(restrictedOperator.getOpenBracket(), restrictedOperator.getCloseBracket(), restrictedOperator.getUniversalOp(),
-                                restrictedOperator.getDivider(), newRestrictingFormula);
-                        newMainOperator = newRestrictingOp;
-                    } else if (formula.getMainOperator().getType() == ExpressionType.EXIS_BOUNDED_OP) {
-                        ExisBoundedQuantOp boundingOperator = (ExisBoundedQuantOp) formula.getMainOperator();
-                        Term newBoundingTerm = (Term) substituteExpTerms(boundingOperator.getBoundingTerm(), term1Exp, term2Exp);
-                        ExisBoundedQuantOp newBoundingOp = new ExisBoundedQuantOp(boundingOperator.getOpenBracket(), boundingOperator.getCloseBracket(), boundingOperator.getExistentialOp(),
-                                boundingOperator.getInfixRelation(), newBoundingTerm);
-                        newMainOperator = newBoundingOp;
-                    } else if (formula.getMainOperator().getType() == ExpressionType.EXIS_RESTRICTED_OP) {
-                        ExisRestrictedQuantOp restrictingOp = (ExisRestrictedQuantOp) formula.getMainOperator();
-                        Formula newRestrictingFormula = (Formula) substituteExpTerms(restrictingOp.getRestrictingFormula(), term1Exp, term2Exp);
-                        ExisRestrictedQuantOp newRestrictingOp = new ExisRestrictedQuantOp(restrictingOp.getOpenBracket(), restrictingOp.getCloseBracket(), restrictingOp.getExistentialOp(),
-                                restrictingOp.getDivider(), newRestrictingFormula);
-                        newMainOperator = newRestrictingOp;
-                    } else {
-                        newMainOperator = formula.getMainOperator();
-                    }
-
-                    //reset node list
-                    nodeList = new ArrayList<Expression>();
-                    listNodes(formulaExp);
-                    Collections.sort(nodeList, new SortByLevel());
-
-
-                    List<Expression> parallelChildList = new ArrayList();
-                    for (int j = 0; j < formula.getChildren().size(); j++) {
-                        Expression childExp = formula.getChildren().get(j);
-                        int index = nodeList.indexOf(childExp);
-                        parallelChildList.add(parallelList.get(index));
-                    }
-                    Formula newFormula = new Formula();
-                    newFormula.setChildren(parallelChildList);
-                    newFormula.setCombines(formula.isCombines());
-                    newFormula.setMainOperator(newMainOperator);
-                    newFormula.setOpenBracket(formula.getOpenBracket());
-                    newFormula.setCloseBracket(formula.getCloseBracket());
-                    newFormula.setNegatingInfix(formula.isNegatingInfix());
-                    parallelList.add(newFormula);
-                }
-            }
-        }
-
-        return parallelList.get(parallelList.size() - 1);
+        return substitute(formulaExp, Substitution.ofEqualTerms(term1Exp, term2Exp));
     }
 
     public static boolean particularTermsFreeInFormula(Expression formulaExp, List<Expression> termList, String langName) {
-        boolean free = true;
-
-        Expression dummyVariable = ParseUtilities.parseDoc(new Document(Languages.getLanguage(langName).getDummyVariableSym()), langName).get(0);
-        Expression subExp = substituteParticularTerms(formulaExp, dummyVariable, termList);
-
-        if (subExp.equals(formulaExp)) {
-            free = false;
-        }
-
-        return free;
+        return changes(formulaExp, Substitution.ofParticularTerms(termList, getDummyVariableExp(langName)));
     }
 
-
     //Formula (term) with T1 instances replaced by T2
     public static Expression substituteParticularTerms(Expression formulaExp, Expression term2Exp, List<Expression> term1List) {
+        return substitute(formulaExp, Substitution.ofParticularTerms(term1List, term2Exp));
+    }
 
-        //levels not being set right
+    /*
+     * Substitution of term2 for term1: for each term equal to term1, or for the particular term1 instances in a list.
+     * Terms in the scope of a quantifier that binds a variable of term1 are not replaced.
+     */
+    private static class Substitution {
+        private final Expression term1Exp;                 //for the bound variable check (the last of a particular list)
+        private final List<Expression> variables;          //variables of term1 (or of each particular term)
+        private final Expression equalTerm;
+        private final Set<Expression> particularTerms;
+        private final Expression term2Exp;
 
-        //get variables in term1
-        variableList = new ArrayList();
-        Expression term1Exp = null;
-        for (Expression exp : term1List) {
-            setTermVariableList(exp);
-            term1Exp = exp;
+        private Substitution(Expression term1Exp, List<Expression> variables, Expression equalTerm, Set<Expression> particularTerms, Expression term2Exp) {
+            this.term1Exp = term1Exp;
+            this.variables = variables;
+            this.equalTerm = equalTerm;
+            this.particularTerms = particularTerms;
+            this.term2Exp = term2Exp;
         }
 
+        static Substitution ofEqualTerms(Expression term1Exp, Expression term2Exp) {
+            return new Substitution(term1Exp, termVariables(term1Exp), term1Exp, null, term2Exp);
+        }
 
-        //sort formula nodes by level
-        nodeList = new ArrayList<Expression>();
-        listNodes(formulaExp);
-        Collections.sort(nodeList, new SortByLevel());
-
-        //create parallel list
-        List<Expression> parallelList = new ArrayList();
-
-        for (int i = 0; i < nodeList.size(); i++) {
-            Expression exp = nodeList.get(i);
-            if (exp.getType() == ExpressionType.TERM) {
-                Term term = (Term) exp;
-
-                if (listContainsParticular(term1List, term)) {
-                    parallelList.add(term2Exp);
-                }
-
-                else if ( term.getTermType() == TermType.VARIABLE || term.getTermType() == TermType.CONSTANT || term.getTermType() == TermType.MTERM || term.getTermType() == TermType.PMTERM) {
-     //           else if ( term.getTermType() == TermType.VARIABLE || term.getTermType() == TermType.CONSTANT) {
-                    parallelList.add(exp);
-                }
-                else if ( term.getTermType() == TermType.COMPLEX) {
-
-                    FunctionSymbol fnSymbol = term.getMainFnSymbol();
-                    List<Expression> parallelChildList = new ArrayList();
-                    int level = 0;
-                    for (int j = 0; j < term.getChildren().size(); j++) {
-                        Expression childExp = term.getChildren().get(j);
-                        int index = listIndexParticular(nodeList, childExp);
-                        parallelChildList.add(parallelList.get(index));
-                        level = Math.max(level, parallelList.get(index).getLevel());
-                    }
-                    if (term instanceof InfixTerm) {
-                        InfixTerm infixTerm = (InfixTerm) term;
-                        InfixTerm newTerm = new InfixTerm();
-                        newTerm.setOpenBracket(infixTerm.getOpenBracket());
-                        newTerm.setCloseBracket(infixTerm.getCloseBracket());
-                        newTerm.setMainFnSymbol(fnSymbol);
-                        newTerm.setChildren(parallelChildList);
-                        level++;
-                        newTerm.setLevel(level);
-                        parallelList.add(newTerm);
-
-                    } else {
-                        Term newTerm = new Term();
-                        newTerm.setMainFnSymbol(fnSymbol);
-                        newTerm.setChildren(parallelChildList);
-                        level++;
-                        newTerm.setLevel(level);
-                        parallelList.add(newTerm);
-                    }
-                }
+        static Substitution ofParticularTerms(List<Expression> term1List, Expression term2Exp) {
+            List<Expression> variables = new ArrayList<>();
+            Set<Expression> particularTerms = Collections.newSetFromMap(new IdentityHashMap<>());
+            Expression term1Exp = null;
+            for (Expression exp : term1List) {
+                addTermVariables(exp, variables);
+                particularTerms.add(exp);
+                term1Exp = exp;
             }
-            else if (exp.getType() == ExpressionType.FORMULA) {
+            return new Substitution(term1Exp, variables, null, particularTerms, term2Exp);
+        }
 
-                Formula formula = (Formula) exp;
-                if (formula instanceof SentenceAtomic || formula instanceof MFormula || formula instanceof PseudoMFormula) {
-                    parallelList.add(exp);
-                }
-                else if (formula.isAtomic()) {
-                    int level = 0;
-                    List<Expression> parallelChildList = new ArrayList();
-                    for (int j = 0; j < formula.getChildren().size(); j++) {
-                        Expression childExp = formula.getChildren().get(j);
-                        int index = listIndexParticular(nodeList, childExp);
-                        parallelChildList.add(parallelList.get(index));
-                        level = Math.max(level, parallelList.get(index).getLevel());
-                    }
-                    if (formula instanceof PrefixAtomic) {
-                        PrefixAtomic prefixAtomic = (PrefixAtomic) formula;
-                        PrefixAtomic newPrefixAtomic = new PrefixAtomic(prefixAtomic.getMainRelation()) ;
-                        newPrefixAtomic.setChildren(parallelChildList);
-                        level++;
-                        newPrefixAtomic.setLevel(level);
-                        parallelList.add(newPrefixAtomic);
-                    }
-                    else if (formula instanceof InfixAtomic) {
-                        InfixAtomic infixAtomic = (InfixAtomic) formula;
-                        InfixAtomic newInfixAtomic = new InfixAtomic(infixAtomic.getMainRelation(), infixAtomic.getComplementRelation(), infixAtomic.isNegatingInfix());
-                        newInfixAtomic.setOpenBracket(infixAtomic.getOpenBracket());
-                        newInfixAtomic.setCloseBracket(infixAtomic.getCloseBracket());
-                        newInfixAtomic.setChildren(parallelChildList);
-                        level++;
-                        newInfixAtomic.setLevel(level);
-                        parallelList.add(newInfixAtomic);
-                    }
-                }
-                else if (formula instanceof MComplexFormula) {
-                    int level = 0;
-                    List<Expression> parallelChildList = new ArrayList();
-                    for (int j = 0; j < formula.getChildren().size(); j++) {
-                        Expression childExp = formula.getChildren().get(j);
-                        int index = listIndexParticular(nodeList, childExp);
-                        parallelChildList.add(parallelList.get(index));
-                        level = Math.max(level, parallelList.get(index).getLevel());
-                    }
-                    MComplexFormula complexFormula = (MComplexFormula) formula;
-                    MComplexFormula newComplexFormula = new MComplexFormula(complexFormula.getFormulaSym());
-                    newComplexFormula.setChildren(parallelChildList);
-                    newComplexFormula.setOpenBracket(complexFormula.getOpenBracket());
-                    newComplexFormula.setCloseBracket(complexFormula.getCloseBracket());
-                    level++;
-                    newComplexFormula.setLevel(level);
-                    parallelList.add(newComplexFormula);
-                }
+        boolean replaces(Term term) {
+            return equalTerm != null ? term.equals(equalTerm) : particularTerms.contains(term);
+        }
 
-                else if (formula.getMainOperator().getType() == ExpressionType.UNIVERSAL_OP && vListContains(term1Exp, formula.getMainOperator().getVariableTerm(), variableList)) parallelList.add(formula);
-                else if (formula.getMainOperator().getType() == ExpressionType.EXISTENTIAL_OP && vListContains(term1Exp, formula.getMainOperator().getVariableTerm(), variableList)) parallelList.add(formula);
-
-                else if (formula.getMainOperator().getType() == ExpressionType.UNIV_BOUNDED_OP && vListContains(term1Exp, formula.getMainOperator().getVariableTerm(), variableList)) parallelList.add(formula);
-                else if (formula.getMainOperator().getType() == ExpressionType.EXIS_BOUNDED_OP && vListContains(term1Exp, formula.getMainOperator().getVariableTerm(), variableList)) parallelList.add(formula);
-
-                else if (formula.getMainOperator().getType() == ExpressionType.UNIV_RESTRICTED_OP && vListContains(term1Exp, formula.getMainOperator().getVariableTerm(), variableList)) parallelList.add(formula);
-                else if (formula.getMainOperator().getType() == ExpressionType.EXIS_RESTRICTED_OP && vListContains(term1Exp, formula.getMainOperator().getVariableTerm(), variableList)) parallelList.add(formula);
-
-                else {
-                    Operator newMainOperator = null;
-                    if (formula.getMainOperator().getType() == ExpressionType.UNIV_BOUNDED_OP) {
-                        UnivBoundedQuantOp boundingOperator = (UnivBoundedQuantOp) formula.getMainOperator();
-                        Term newBoundingTerm = (Term) substituteParticularTerms(boundingOperator.getBoundingTerm(), term2Exp, term1List);
-                        UnivBoundedQuantOp newBoundingOp = new UnivBoundedQuantOp(boundingOperator.getOpenBracket(), boundingOperator.getCloseBracket(), boundingOperator.getUniversalOp(),
-                                boundingOperator.getInfixRelation(), newBoundingTerm);
-                        newMainOperator = newBoundingOp;
-                    } else if (formula.getMainOperator().getType() == ExpressionType.UNIV_RESTRICTED_OP) {
-                        UnivRestrictedQuantOp restrictedOperator = (UnivRestrictedQuantOp) formula.getMainOperator();
-                        Formula newRestrictingFormula = (Formula) substituteParticularTerms(restrictedOperator.getRestrictingFormula(), term2Exp, term1List);
-                        UnivRestrictedQuantOp newRestrictingOp = new UnivRestrictedQuantOp(restrictedOperator.getOpenBracket(), restrictedOperator.getCloseBracket(), restrictedOperator.getUniversalOp(),
-                                restrictedOperator.getDivider(), newRestrictingFormula);
-                        newMainOperator = newRestrictingOp;
-                    } else if (formula.getMainOperator().getType() == ExpressionType.EXIS_BOUNDED_OP) {
-                        ExisBoundedQuantOp boundingOperator = (ExisBoundedQuantOp) formula.getMainOperator();
-                        Term newBoundingTerm = (Term) substituteParticularTerms(boundingOperator.getBoundingTerm(), term2Exp, term1List);
-                        ExisBoundedQuantOp newBoundingOp = new ExisBoundedQuantOp(boundingOperator.getOpenBracket(), boundingOperator.getCloseBracket(), boundingOperator.getExistentialOp(),
-                                boundingOperator.getInfixRelation(), newBoundingTerm);
-                        newMainOperator = newBoundingOp;
-                    } else if (formula.getMainOperator().getType() == ExpressionType.EXIS_RESTRICTED_OP) {
-                        ExisRestrictedQuantOp restrictingOp = (ExisRestrictedQuantOp) formula.getMainOperator();
-                        Formula newRestrictingFormula = (Formula) substituteParticularTerms(restrictingOp.getRestrictingFormula(), term2Exp, term1List);
-                        ExisRestrictedQuantOp newRestrictingOp = new ExisRestrictedQuantOp(restrictingOp.getOpenBracket(), restrictingOp.getCloseBracket(), restrictingOp.getExistentialOp(),
-                                restrictingOp.getDivider(), newRestrictingFormula);
-                        newMainOperator = newRestrictingOp;
-                    } else {
-                        newMainOperator = formula.getMainOperator();
-                    }
+        boolean binds(Operator operator) {
+            return isQuantifier(operator) && vListContains(term1Exp, operator.getVariableTerm(), variables);
+        }
+    }
 
-                    //reset node list
-                    nodeList = new ArrayList<Expression>();
-                    listNodes(formulaExp);
-                    Collections.sort(nodeList, new SortByLevel());
-
-                    int level = 0;
-                    List<Expression> parallelChildList = new ArrayList();
-                    for (int j = 0; j < formula.getChildren().size(); j++) {
-                        Expression childExp = formula.getChildren().get(j);
-                        int index = listIndexParticular(nodeList, childExp);
-                        parallelChildList.add(parallelList.get(index));
-                        level = Math.max(level, parallelList.get(index).getLevel());
-                    }
-                    Formula newFormula = new Formula();
-                    newFormula.setChildren(parallelChildList);
-                    newFormula.setCombines(formula.isCombines());
-                    newFormula.setMainOperator(newMainOperator);
-                    newFormula.setOpenBracket(formula.getOpenBracket());
-                    newFormula.setCloseBracket(formula.getCloseBracket());
-                    newFormula.setNegatingInfix(formula.isNegatingInfix());
-                    level++;
-                    newFormula.setLevel(level);
-                    parallelList.add(newFormula);
-                }
+    /*
+     * Expression with the substitution made.  Only nodes on a path to a replaced term are new; an expression with
+     * nothing to replace is returned as it is, as are unchanged parts of one that changes.
+     */
+    private static Expression substitute(Expression exp, Substitution substitution) {
+        if (exp.getType() == ExpressionType.TERM) {
+            Term term = (Term) exp;
+            if (substitution.replaces(term)) return substitution.term2Exp;
+            if (term.getTermType() != TermType.COMPLEX) return term;
+
+            List<Expression> newChildren = substituteChildren(term.getChildren(), substitution);
+            if (newChildren == null) return term;
+            Term newTerm;
+            if (term instanceof InfixTerm) {
+                InfixTerm infixTerm = (InfixTerm) term;
+                newTerm = new InfixTerm();
+                newTerm.setOpenBracket(infixTerm.getOpenBracket());
+                newTerm.setCloseBracket(infixTerm.getCloseBracket());
+            }
+            else newTerm = new Term();
+            newTerm.setMainFnSymbol(term.getMainFnSymbol());
+            newTerm.setChildren(newChildren);
+            newTerm.setLevel(maxLevel(newChildren) + 1);
+            return newTerm;
+        }
+
+        if (exp.getType() != ExpressionType.FORMULA) return exp;
+        Formula formula = (Formula) exp;
+        if (formula instanceof SentenceAtomic || formula instanceof MFormula || formula instanceof PseudoMFormula || formula instanceof ContradictionSimple) return formula;
+
+        if (formula.isAtomic()) {
+            if (!(formula instanceof PrefixAtomic) && !(formula instanceof InfixAtomic)) return formula;
+            List<Expression> newChildren = substituteChildren(formula.getChildren(), substitution);
+            if (newChildren == null) return formula;
+            Formula newAtomic;
+            if (formula instanceof PrefixAtomic) {
+                newAtomic = new PrefixAtomic(((PrefixAtomic) formula).getMainRelation());
             }
+            else {
+                InfixAtomic infixAtomic = (InfixAtomic) formula;
+                newAtomic = new InfixAtomic(infixAtomic.getMainRelation(), infixAtomic.getComplementRelation(), infixAtomic.isNegatingInfix());
+                newAtomic.setOpenBracket(infixAtomic.getOpenBracket());
+                newAtomic.setCloseBracket(infixAtomic.getCloseBracket());
+            }
+            newAtomic.setChildren(newChildren);
+            newAtomic.setLevel(maxLevel(newChildren) + 1);
+            return newAtomic;
+        }
+
+        if (formula instanceof MComplexFormula) {
+            List<Expression> newChildren = substituteChildren(formula.getChildren(), substitution);
+            if (newChildren == null) return formula;
+            MComplexFormula complexFormula = (MComplexFormula) formula;
+            MComplexFormula newComplexFormula = new MComplexFormula(complexFormula.getFormulaSym());
+            newComplexFormula.setChildren(newChildren);
+            newComplexFormula.setOpenBracket(complexFormula.getOpenBracket());
+            newComplexFormula.setCloseBracket(complexFormula.getCloseBracket());
+            newComplexFormula.setLevel(maxLevel(newChildren) + 1);
+            return newComplexFormula;
+        }
+
+        Operator mainOperator = formula.getMainOperator();
+        if (mainOperator == null || substitution.binds(mainOperator)) return formula;
+        Operator newMainOperator = substituteOperator(mainOperator, substitution);
+        List<Expression> newChildren = substituteChildren(formula.getChildren(), substitution);
+        if (newChildren == null) {
+            if (newMainOperator == mainOperator) return formula;
+            newChildren = new ArrayList<>(formula.getChildren());
+        }
+        Formula newFormula = new Formula();
+        newFormula.setChildren(newChildren);
+        newFormula.setCombines(formula.isCombines());
+        newFormula.setMainOperator(newMainOperator);
+        newFormula.setOpenBracket(formula.getOpenBracket());
+        newFormula.setCloseBracket(formula.getCloseBracket());
+        newFormula.setNegatingInfix(formula.isNegatingInfix());
+        newFormula.setLevel(maxLevel(newChildren) + 1);
+        return newFormula;
+    }
+
+    //new children, or null if no child changes
+    private static List<Expression> substituteChildren(List<Expression> children, Substitution substitution) {
+        List<Expression> newChildren = null;
+        for (int i = 0; i < children.size(); i++) {
+            Expression child = children.get(i);
+            Expression newChild = substitute(child, substitution);
+            if (newChild != child && newChildren == null) newChildren = new ArrayList<>(children.subList(0, i));
+            if (newChildren != null) newChildren.add(newChild);
+        }
+        return newChildren;
+    }
+
+    //bounded and restricted operators with the substitution made in the bounding term or restricting formula
+    private static Operator substituteOperator(Operator operator, Substitution substitution) {
+        if (operator instanceof UnivBoundedQuantOp) {
+            UnivBoundedQuantOp boundingOperator = (UnivBoundedQuantOp) operator;
+            Term newBoundingTerm = (Term) substitute(boundingOperator.getBoundingTerm(), substitution);
+            if (newBoundingTerm == boundingOperator.getBoundingTerm()) return operator;
+            return new UnivBoundedQuantOp(boundingOperator.getOpenBracket(), boundingOperator.getCloseBracket(), boundingOperator.getUniversalOp(),
+                    boundingOperator.getInfixRelation(), newBoundingTerm);
+        }
+        if (operator instanceof UnivRestrictedQuantOp) {
+            UnivRestrictedQuantOp restrictedOperator = (UnivRestrictedQuantOp) operator;
+            Formula newRestrictingFormula = (Formula) substitute(restrictedOperator.getRestrictingFormula(), substitution);
+            if (newRestrictingFormula == restrictedOperator.getRestrictingFormula()) return operator;
+            return new UnivRestrictedQuantOp(restrictedOperator.getOpenBracket(), restrictedOperator.getCloseBracket(), restrictedOperator.getUniversalOp(),
+                    restrictedOperator.getDivider(), newRestrictingFormula);
+        }
+        if (operator instanceof ExisBoundedQuantOp) {
+            ExisBoundedQuantOp boundingOperator = (ExisBoundedQuantOp) operator;
+            Term newBoundingTerm = (Term) substitute(boundingOperator.getBoundingTerm(), substitution);
+            if (newBoundingTerm == boundingOperator.getBoundingTerm()) return operator;
+            return new ExisBoundedQuantOp(boundingOperator.getOpenBracket(), boundingOperator.getCloseBracket(), boundingOperator.getExistentialOp(),
+                    boundingOperator.getInfixRelation(), newBoundingTerm);
+        }
+        if (operator instanceof ExisRestrictedQuantOp) {
+            ExisRestrictedQuantOp restrictingOp = (ExisRestrictedQuantOp) operator;
+            Formula newRestrictingFormula = (Formula) substitute(restrictingOp.getRestrictingFormula(), substitution);
+            if (newRestrictingFormula == restrictingOp.getRestrictingFormula()) return operator;
+            return new ExisRestrictedQuantOp(restrictingOp.getOpenBracket(), restrictingOp.getCloseBracket(), restrictingOp.getExistentialOp(),
+                    restrictingOp.getDivider(), newRestrictingFormula);
+        }
+        return operator;
+    }
+
+    /*
+     * True if the substitution would give an expression not equal to exp: some term it replaces is not equal to
+     * term2.  Walks the expression as substitute does, but makes nothing, and stops at the first such term.
+     */
+    private static boolean changes(Expression exp, Substitution substitution) {
+        if (exp.getType() == ExpressionType.TERM) {
+            Term term = (Term) exp;
+            if (substitution.replaces(term)) return !term.equals(substitution.term2Exp);
+            return term.getTermType() == TermType.COMPLEX && childrenChange(term.getChildren(), substitution);
         }
 
-        return parallelList.get(parallelList.size() - 1);
-    }
+        if (exp.getType() != ExpressionType.FORMULA) return false;
+        Formula formula = (Formula) exp;
+        if (formula instanceof SentenceAtomic || formula instanceof MFormula || formula instanceof PseudoMFormula || formula instanceof ContradictionSimple) return false;
+        if (formula.isAtomic()) {
+            return (formula instanceof PrefixAtomic || formula instanceof InfixAtomic) && childrenChange(formula.getChildren(), substitution);
+        }
+        if (formula instanceof MComplexFormula) return childrenChange(formula.getChildren(), substitution);
 
+        Operator mainOperator = formula.getMainOperator();
+        if (mainOperator == null || substitution.binds(mainOperator)) return false;
+        if (mainOperator instanceof UnivBoundedQuantOp && changes(((UnivBoundedQuantOp) mainOperator).getBoundingTerm(), substitution)) return true;
+        if (mainOperator instanceof ExisBoundedQuantOp && changes(((ExisBoundedQuantOp) mainOperator).getBoundingTerm(), substitution)) return true;
+        if (mainOperator instanceof UnivRestrictedQuantOp && changes(((UnivRestrictedQuantOp) mainOperator).getRestrictingFormula(), substitution)) return true;
+        if (mainOperator instanceof ExisRestrictedQuantOp && changes(((ExisRestrictedQuantOp) mainOperator).getRestrictingFormula(), substitution)) return true;
+        return childrenChange(formula.getChildren(), substitution);
+    }
 
+    private static boolean childrenChange(List<Expression> children, Substitution substitution) {
+        for (Expression child : children) {
+            if (changes(child, substitution)) return true;
+        }
+        return false;
+    }
 
-    private static boolean binds(Expression var) {
+    private static int maxLevel(List<Expression> expressions) {
+        int level = 0;
+        for (Expression exp : expressions) level = Math.max(level, exp.getLevel());
+        return level;
+    }
 
-        boolean binds = false;
-        for (Expression v : variableList) {
-            if (var.equals(v)) {
-                binds = true;
-            }
-        }
-        return binds;
+    private static boolean isQuantifier(Operator operator) {
+        if (operator == null) return false;
+        ExpressionType type = operator.getType();
+        return type == ExpressionType.UNIVERSAL_OP || type == ExpressionType.UNIV_BOUNDED_OP || type == ExpressionType.UNIV_RESTRICTED_OP ||
+                type == ExpressionType.EXISTENTIAL_OP || type == ExpressionType.EXIS_BOUNDED_OP || type == ExpressionType.EXIS_RESTRICTED_OP;
     }
 
     private static boolean vListContains(Expression term, Expression variable, List<Expression> vList) {
@@ -743,45 +477,65 @@ public class SyntacticalFns {
 
 
 
-    public static void setTermVariableList(Expression exp) {
+    //variables of a term
+    private static List<Expression> termVariables(Expression exp) {
+        List<Expression> variables = new ArrayList<>();
+        addTermVariables(exp, variables);
+        return variables;
+    }
+
+    private static void addTermVariables(Expression exp, List<Expression> variables) {
         if (exp == null) return;
-        if (exp.getType() == ExpressionType.TERM && ((Term) exp).getTermType() == TermType.VARIABLE && !variableList.contains(exp)) {
-            variableList.add(exp);
+        if (exp.getType() == ExpressionType.TERM && ((Term) exp).getTermType() == TermType.VARIABLE && !variables.contains(exp)) {
+            variables.add(exp);
         }
         if (exp.getChildren() != null && exp.getLevel() >=0) {
             for (int i = 0; i < exp.getChildren().size(); i++) {
-                setTermVariableList(exp.getChildren().get(i));
+                addTermVariables(exp.getChildren().get(i), variables);
             }
         }
     }
 
-    //add variables to list so long as they lack the superscript star
-    public static void setTermVariableList2(Expression exp) {
+    //variables of a term that lack the superscript star (and are not among the given variables)
+    private static List<Expression> unstarredVariables(Expression exp, List<Expression> variables, String langName) {
+        List<Expression> unstarred = new ArrayList<>();
+        addUnstarredVariables(exp, variables, unstarred, langName);
+        return unstarred;
+    }
+
+    private static void addUnstarredVariables(Expression exp, List<Expression> variables, List<Expression> unstarred, String langName) {
         if (exp.getType() == ExpressionType.TERM) {
             Term term = (Term) exp;
             if (term.getTermType() == TermType.PMTERM) {
                 PseudoMTerm pTerm = (PseudoMTerm) exp;
-                if (!pTerm.getMainTermSym().getSuperscriptStr().equals("\u22c6") && !variableList2.contains(getDummyVariable())) {
-                    variableList2.add(getDummyVariable());
+                if (!pTerm.getMainTermSym().getSuperscriptStr().equals("\u22c6") && !unstarred.contains(getDummyVariable(langName))) {
+                    unstarred.add(getDummyVariable(langName));
                 }
             }
 
             if (term.getTermType() == TermType.VARIABLE) {
                 Term varTerm = (Term) exp;
                 String supString = ((VariableSym) varTerm.getChildren().get(0)).getSuperscriptStr();
-                if (!supString.equals("\u22c6") && !variableList.contains(exp)) {
-                    variableList2.add(exp);
+                if (!supString.equals("\u22c6") && !variables.contains(exp)) {
+                    unstarred.add(exp);
                 }
             }
         }
         if (exp.getChildren() != null && exp.getLevel() >=0) {
             for (int i = 0; i < exp.getChildren().size(); i++) {
-                setTermVariableList2(exp.getChildren().get(i));
+                addUnstarredVariables(exp.getChildren().get(i), variables, unstarred, langName);
             }
         }
     }
 
-    public static void setTermVariableList3(Expression termExp, Expression variableExp) {
+    //variables of a term that may be free in it (pseudo meta terms without the star or the variable superscript)
+    private static List<Expression> termVariables3(Expression termExp, Expression variableExp) {
+        List<Expression> variables = new ArrayList<>();
+        addTermVariables3(termExp, variableExp, variables);
+        return variables;
+    }
+
+    private static void addTermVariables3(Expression termExp, Expression variableExp, List<Expression> variables) {
         if (termExp.getType() == ExpressionType.TERM && variableExp.getType() == ExpressionType.TERM && ((Term) variableExp).getTermType() == TermType.VARIABLE) {
             Term term = (Term) termExp;
             Term varTerm = (Term) variableExp;
@@ -792,17 +546,17 @@ public class SyntacticalFns {
                 String varStr = ((VariableSym) varTerm.getChildren().get(0)).getBaseStr();
 
                 if (!pSupString.equals("\u22c6") && !pSupString.equals(varStr) && !varStr.equals("\ue89b") && !varStr.equals("\ue89c") && !varStr.equals("\ue89d")) {
-                    variableList3.add(variableExp);
+                    variables.add(variableExp);
                 }
             }
 
             if (term.getTermType() == TermType.VARIABLE) {
-               variableList3.add(term);
+               variables.add(term);
             }
 
             if (termExp.getChildren() != null && termExp.getLevel() >=0) {
                 for (int i = 0; i < termExp.getChildren().size(); i++) {
-                    setTermVariableList3(termExp.getChildren().get(i), variableExp);
+                    addTermVariables3(termExp.getChildren().get(i), variableExp, variables);
                 }
             }
         }
@@ -866,8 +620,6 @@ public class SyntacticalFns {
     }
 
     public static List<Expression> subFormulasDoc(Document doc, String langName) {
-        lang = Languages.getLanguage(langName);
-
         //get sorted node list
         List<Expression> parsedList = ParseUtilities.parseDoc(doc, langName);
         if (parsedList.size() == 0) {
@@ -882,8 +634,8 @@ public class SyntacticalFns {
 
     public static List<Expression> subformulasExp(Expression expression) {
         //sort nodes of parsed expression by level
-        nodeList = new ArrayList<Expression>();
-        listNodes(expression);
+        List<Expression> nodeList = new ArrayList<Expression>();
+        listNodes(expression, nodeList);
         Collections.sort(nodeList, new SortByLevel());
 
         List<Expression> subs = new ArrayList<>();
@@ -896,8 +648,8 @@ public class SyntacticalFns {
     }
 
     public static List<Expression> variablesList(Expression expression) {
-        nodeList = new ArrayList<Expression>();
-        listNodes(expression);
+        List<Expression> nodeList = new ArrayList<Expression>();
+        listNodes(expression, nodeList);
         Collections.sort(nodeList, new SortByLevel());
         List<Expression> vars = new ArrayList<>();
         for (int i = 0; i < nodeList.size(); i++) {
@@ -913,8 +665,6 @@ public class SyntacticalFns {
 
 
     public static List<Expression> allElementsDoc(Document doc, String langName) {
-        lang = Languages.getLanguage(langName);
-
         //get sorted node list
         List<Expression> parsedList = ParseUtilities.parseDoc(doc, langName);
         if (parsedList.size() == 0) {
@@ -929,8 +679,8 @@ public class SyntacticalFns {
 
     public static List<Expression> allElementsExp(Expression expression) {
         //sort nodes of parsed expression by level
-        nodeList = new ArrayList<Expression>();
-        listNodes(expression);
+        List<Expression> nodeList = new ArrayList<Expression>();
+        listNodes(expression, nodeList);
         Collections.sort(nodeList, new SortByLevel());
 
         return nodeList;
@@ -940,8 +690,6 @@ public class SyntacticalFns {
 
 
     public static Expression unabbreviate(Document doc, String langName) {
-        lang = Languages.getLanguage(langName);
-
         List<Expression> parsedList = ParseUtilities.parseDoc(doc, langName);
         if (parsedList.size() == 0) {
             return null;
@@ -954,238 +702,24 @@ public class SyntacticalFns {
         return unabbreviate(expression, langName);
     }
 
-
-
+    /*
+     * Unabbreviated form of expression, by the unabbreviator of the language (shared, and not to be modified)
+     */
     public static Expression unabbreviate(Expression expression, String langName) {
-        lang = Languages.getLanguage(langName);
-
-
-
-        //sort nodes of parsed expression by level
-        nodeList = new ArrayList<Expression>();
-        listNodes(expression);
-        Collections.sort(nodeList, new SortByLevel());
-
-
-
-        //get unabbrevating forms for expressions in sorted nodeList
-        List<List<OriginalElement>> formList = listForms();
-
-        //get unabbreviated expressions for members of the sorted node list
-        List<Expression> expressionList = listUnabbExpressions(formList);
-
-        return expressionList.get(expressionList.size() - 1);
+        return Unabbreviator.getInstance(langName).unabbreviate(expression);
     }
 
-    private static List<Expression> listUnabbExpressions(List<List<OriginalElement>> formsList) {
-
-        List<Expression> unAbbList = new ArrayList<>();
-
-
-        for (int i = 0; i < formsList.size(); i++) {
-            List<Expression> populatedForm = new ArrayList<>();
-
-            //get the original form
-            List<OriginalElement> originalFormElements = formsList.get(i);
-
-            //re populate the form
-            for (int j = 0; j < originalFormElements.size(); j++) {
-
-                if (originalFormElements.get(j).getElementStr().equals("|") && j + 2 < originalFormElements.size() && originalFormElements.get(j + 2).getElementStr().equals("|")) {
-                    //get children of expression at index i from the original node list
-                    Expression abbExpression = nodeList.get(i);
-                    List<Expression> abbChildren = abbExpression.getChildren();
-                    String control = originalFormElements.get(j + 1).getElementStr();
-                    if (control.equals("0")) {
-                        //find the child index
-                        int index = nodeList.indexOf(abbChildren.get(0));
-                        //add element at that same index to the form list
-                        populatedForm.add(unAbbList.get(index));
-                        originalFormElements.remove(j + 1); originalFormElements.remove(j + 1);
-                    }
-                    else if (control.equals("1")) {
-                        int index = nodeList.indexOf(abbChildren.get(1));
-                        populatedForm.add(unAbbList.get(index));
-                        originalFormElements.remove(j + 1); originalFormElements.remove(j + 1);
-                        continue;
-                    }
-                    else if (control.equals("n")) {
-                        for (int k = 0; k < abbChildren.size(); k++) {
-                            int index = nodeList.indexOf(abbChildren.get(k));
-                            populatedForm.add((Expression) unAbbList.get(index));
-                        }
-                        originalFormElements.remove(j + 1); originalFormElements.remove(j + 1);
-                    }
-                }
-                else if (originalFormElements.get(j).getElementStr().equals("\u2039") && j + 2 < originalFormElements.size() && originalFormElements.get(j + 2).getElementStr(). equals("\u203a")) {
-
-                    Expression abbExpression = nodeList.get(i);
-                    String control = originalFormElements.get(j + 1).getElementStr();
-                    if (control.equals("s")) {
-                        populatedForm.add(abbExpression);
-                        originalFormElements.remove(j + 1); originalFormElements.remove(j + 1);
-                    }
-                    else if (control.equals("v")) {
-                        Operator abbOperator = ((Formula) abbExpression).getMainOperator();
-                        populatedForm.add((Expression) abbOperator.getVariableTerm());
-                        originalFormElements.remove(j + 1); originalFormElements.remove(j + 1);
-                    }
-                    else if (control.equals("f")) {
-                        Term abbTerm = ((Term) abbExpression);
-                        populatedForm.add((Expression) abbTerm.getMainFnSymbol());
-                        originalFormElements.remove(j + 1); originalFormElements.remove(j + 1);
-                    }
-                    else if (control.equals("b")) {
-                        Formula abbFormula = ((Formula) abbExpression);
-                        populatedForm.add((Expression) abbFormula.getMainOperator());
-                        originalFormElements.remove(j + 1); originalFormElements.remove(j + 1);
-                    }
-
-                    else if (control.equals("r")) {
-                        Formula abbFormula = ((Formula) abbExpression);
-                        RelationSymbol relSym = abbFormula.getMainRelation();
-                        relSym.setType(ExpressionType.RELATION_SYMBOL);
-                        if (lang.getXrelationSymbols().contains(relSym.getBaseStr()) && relSym.getSuperscriptStr().isEmpty())  relSym.setSuperscriptStr(String.valueOf(relSym.getPlaces()));
-                        populatedForm.add((Expression) relSym);
-                        originalFormElements.remove(j + 1); originalFormElements.remove(j + 1);
-                    }
-                }
-                else {
-                    populatedForm.add(originalFormElements.get(j));
-                }
-            }
-
-            List<Expression> parsedUnabbFormula = ParseUtilities.parseExpressions(populatedForm);
-            if (parsedUnabbFormula.size() == 1) {
-                unAbbList.add(parsedUnabbFormula.get(0));
-            }
-            else {
-                for (Expression e : parsedUnabbFormula) {
-          //          System.out.println("element: " + e.toString());
-                }
-          //      System.out.println();
-            }
-        }
-        return unAbbList;
-    }
-
-    //from nodeList generate list with unabbrevationf form for each element.
-    private static List<List<OriginalElement>> listForms() {
-        List<List<OriginalElement>> forms = new ArrayList<>();
-        for (int i = 0; i < nodeList.size(); i++) {
-            Expression expression = nodeList.get(i);
-            if (expression.getType() == ExpressionType.TERM) {
-                Term term = (Term) expression;
-                if (term.getTermType() == TermType.CONSTANT) {
-                    forms.add(ParseUtilities.getElements(lang.getUnabbForms().get(UnabbType.CONSTANT)));
-                    continue;
-                }
-                if (term.getTermType() == TermType.VARIABLE) {
-                    forms.add(ParseUtilities.getElements(lang.getUnabbForms().get(UnabbType.VARIABLE)));
-                    continue;
-                }
-                if (term.getTermType() == TermType.COMPLEX) {
-                    forms.add(ParseUtilities.getElements(lang.getUnabbForms().get(UnabbType.COMPLEX_TERM)));
-                    continue;
-                }
-            }
-            else if (expression.getType() == ExpressionType.FORMULA) {
-                Formula formula = (Formula) expression;
-                if (formula instanceof SentenceAtomic) {
-                    forms.add(ParseUtilities.getElements(lang.getUnabbForms().get(UnabbType.SENTENCE_LET)));
-                    continue;
-                }
-                if (formula.isAtomic()) {                                                 //relation atomic
-                    forms.add(ParseUtilities.getElements(lang.getUnabbForms().get(UnabbType.RELATION_ATOMIC)));
-                    continue;
-                }
-                if (((Operator)formula.getMainOperator()).getType() == ExpressionType.NEG_OP) {
-                    forms.add(ParseUtilities.getElements(lang.getUnabbForms().get(UnabbType.NEGATION)));
-                    continue;
-                }
-                if (((Operator)formula.getMainOperator()).getType() == ExpressionType.COND_OP) {
-                    forms.add(ParseUtilities.getElements(lang.getUnabbForms().get(UnabbType.CONDITIONAL)));
-                    continue;
-                }
-                if (((Operator)formula.getMainOperator()).getType() == ExpressionType.BICOND_OP) {
-                    forms.add(ParseUtilities.getElements(lang.getUnabbForms().get(UnabbType.BICONDITIONAL)));
-                    continue;
-                }
-                if (((Operator)formula.getMainOperator()).getType() == ExpressionType.CONJ_OP) {
-                    forms.add(ParseUtilities.getElements(lang.getUnabbForms().get(UnabbType.CONJUNCTION)));
-                    continue;
-                }
-                if (((Operator)formula.getMainOperator()).getType() == ExpressionType.DISJ_OP) {
-                    forms.add(ParseUtilities.getElements(lang.getUnabbForms().get(UnabbType.DISJUNCTION)));
-                    continue;
-                }
-                if (((Operator)formula.getMainOperator()).getType() == ExpressionType.NAND_OP) {
-                    forms.add(ParseUtilities.getElements(lang.getUnabbForms().get(UnabbType.NAND)));
-                    continue;
-                }
-                if (((Operator)formula.getMainOperator()).getType() == ExpressionType.NOR_OP) {
-                    forms.add(ParseUtilities.getElements(lang.getUnabbForms().get(UnabbType.NOR)));
-                    continue;
-                }
-
-                if (((Operator)formula.getMainOperator()).getType() == ExpressionType.UNIVERSAL_OP) {
-                    forms.add(ParseUtilities.getElements(lang.getUnabbForms().get(UnabbType.UNIVERSAL)));
-                    continue;
-                }
-                if (((Operator)formula.getMainOperator()).getType() == ExpressionType.EXISTENTIAL_OP) {
-                    forms.add(ParseUtilities.getElements(lang.getUnabbForms().get(UnabbType.EXISTENTIAL)));
-                    continue;
-                }
-
-
-                if (((Operator) formula.getMainOperator()).getType() == ExpressionType.UNIV_BOUNDED_OP ||
-                        ((Operator) formula.getMainOperator()).getType() == ExpressionType.UNIV_RESTRICTED_OP ||
-                        ((Operator) formula.getMainOperator()).getType() == ExpressionType.EXIS_BOUNDED_OP ||
-                        ((Operator) formula.getMainOperator()).getType() == ExpressionType.EXIS_RESTRICTED_OP
-                ) {
-                    forms.add(ParseUtilities.getElements(lang.getUnabbForms().get(UnabbType.BOUNDED_QUANTIFIER)));
-                    continue;
-                }
-
-
-
-                if (((Operator)formula.getMainOperator()).getType() == ExpressionType.NAND_OP) {
-                    forms.add(ParseUtilities.getElements(lang.getUnabbForms().get(UnabbType.NAND)));
-                    continue;
-                }
-                if (((Operator)formula.getMainOperator()).getType() == ExpressionType.NOR_OP) {
-                    forms.add(ParseUtilities.getElements(lang.getUnabbForms().get(UnabbType.NOR)));
-                    continue;
-                }
-            }
-        }
-        return forms;
-    }
-
-    private static void listNodes(Expression exp) {
+    private static void listNodes(Expression exp, List<Expression> nodeList) {
 
         nodeList.add(exp);
         if (exp.getChildren() != null && exp.getLevel() > 0) {
             for (int i = 0; i < exp.getChildren().size(); i++) {
-                listNodes(exp.getChildren().get(i));
+                listNodes(exp.getChildren().get(i), nodeList);
             }
         }
     }
 
-    private static void expressionListPopup(String messageLead, List<Expression> expressionList ) {
-        List<Text> texts = new ArrayList<>();
-        texts.add(ParseUtilities.newRegularText(messageLead + "\n\n"));
-        for (Expression expr : expressionList) {
-            texts.add(new Text(expr.getType() + ": "));
-            texts.addAll(expr.toTextList());
-            texts.add(new Text("\n"));
-        }
-        Text[] txt = new Text[texts.size()];
-        texts.toArray(txt);
-        EditorAlerts.showSimpleTxtFlowAlert("Parser Content", new TextFlow(txt));
-    }
-
-    public static Term getDummyVariable() {
+    public static Term getDummyVariable(String langName) {
         Term dummyVar = new Term();
         dummyVar.setLevel(0);
         ArrayList children = new ArrayList();
@@ -1196,6 +730,11 @@ public class SyntacticalFns {
         return dummyVar;
     }
 
+    //dummy variable as parsed in the language (for comparison only; it does not go into the results of substitution)
+    private static Expression getDummyVariableExp(String langName) {
+        return dummyVariables.computeIfAbsent(langName, k -> ParseUtilities.parseDoc(new Document(Languages.getLanguage(k).getDummyVariableSym()), k).get(0));
+    }
+
     public static class SortByLevel implements Comparator<Expression> {
         @Override
         public int compare(Expression o1, Expression o2) {
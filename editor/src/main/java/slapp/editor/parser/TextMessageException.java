@@ -1,21 +1,25 @@
 package slapp.editor.parser;
 
-import javafx.scene.text.Text;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class TextMessageException extends Exception {
 
-    private List<Text> messageList = new ArrayList<Text>();
+    private List<StyledText> messageList = new ArrayList<StyledText>();
 
-    public TextMessageException(List<Text> messageList) {
+    public TextMessageException(List<StyledText> messageList) {
         super();
         this.messageList = messageList;
     }
 
 
-    public List<Text> getMessageList() {
+    public List<StyledText> getMessageList() {
         return messageList;
     }
+
+    @Override
+    public String getMessage() {
+        return ParseUtilities.plainText(messageList);
+    }
 }
@@ -0,0 +1,285 @@
+package slapp.editor.parser;
+
+import com.gluonhq.richtextarea.model.Document;
+import slapp.editor.parser.grammatical_parts.*;
+import slapp.editor.parser.symbols.*;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Unabbreviation of expressions in a language, by the unabbreviating forms of the language.  Each form is compiled
+ * once to a list of slots: elements of the form, the unabbreviation of one child (|0| or |1|) or of each child (|n|),
+ * and a part of the abbreviated expression itself (‹s›, ‹v›, ‹f›, ‹b› or ‹r›).
+ *
+ * The unabbreviation of an expression is fixed by its form and the values of the slots of the form; since child
+ * slots take the unabbreviations of the children, the key of an expression is its form with the symbols in its
+ * part slots and the ids of the unabbreviations of its children.  Unabbreviations are kept in a bounded LRU memo
+ * under these keys, so an expression equal to one already seen (in the same expression or an earlier one) is not
+ * unabbreviated again, and an unabbreviation shares (not copies) the unabbreviations of its parts: the biconditional
+ * form has each child twice, but the result is a DAG with each child once.
+ *
+ * Unabbreviations are shared between callers (as cached parses) and must not be modified.  Only shared (frozen)
+ * languages have a shared unabbreviator; a modifiable copy of a language gets a new one each time.
+ */
+public class Unabbreviator {
+
+    private static final int DEFAULT_CAPACITY = 2048;
+    private static final Map<String, Unabbreviator> sharedUnabbreviators = new ConcurrentHashMap<>();
+
+    private final Language language;
+    private final Map<UnabbType, List<Slot>> templates = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final Map<String, Entry> memo;
+    private final AtomicInteger entryIds = new AtomicInteger();
+
+    private Unabbreviator(Language language, int capacity) {
+        this.language = language;
+        this.capacity = capacity;
+        this.memo = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > Unabbreviator.this.capacity;
+            }
+        };
+    }
+
+    public static Unabbreviator getInstance(String langName) {
+        return getInstance(Languages.getLanguage(langName));
+    }
+
+    public static Unabbreviator getInstance(Language language) {
+        if (!language.isFrozen()) return new Unabbreviator(language, DEFAULT_CAPACITY);
+        return sharedUnabbreviators.computeIfAbsent(language.getNameString(), k -> new Unabbreviator(language, DEFAULT_CAPACITY));
+    }
+
+    /*
+     * Unabbreviated form of expression
+     * @param expression a term or formula of the language
+     * @return the unabbreviated expression, or null if some part of expression has no unabbreviating form
+     */
+    public Expression unabbreviate(Expression expression) {
+        Entry entry = unabbreviate(expression, new IdentityHashMap<>());
+        return entry == null ? null : entry.expression;
+    }
+
+    private Entry unabbreviate(Expression expression, Map<Expression, Entry> seen) {
+        if (seen.containsKey(expression)) return seen.get(expression);
+        Entry entry = null;
+        UnabbType unabbType = getUnabbType(expression);
+        List<Slot> template = unabbType == null ? null : getTemplate(unabbType);
+        if (template != null) {
+
+            //slot values, with the key from the symbols in part slots and ids of child unabbreviations
+            List<Object> values = new ArrayList<>(template.size());
+            StringBuilder key = new StringBuilder().append(unabbType.ordinal());
+            boolean complete = true;
+            for (int i = 0; i < template.size() && complete; i++) {
+                Slot slot = template.get(i);
+                switch (slot.kind) {
+                    case ELEMENT:
+                        values.add(slot.element);
+                        break;
+                    case CHILD:
+                    case CHILDREN:
+                        List<Expression> children = expression.getChildren();
+                        int first = slot.kind == SlotKind.CHILD ? slot.index : 0;
+                        int last = slot.kind == SlotKind.CHILD ? slot.index + 1 : children.size();
+                        List<Entry> childEntries = new ArrayList<>();
+                        for (int j = first; j < last && complete; j++) {
+                            Entry childEntry = j < children.size() ? unabbreviate(children.get(j), seen) : null;
+                            if (childEntry == null) complete = false;
+                            else {
+                                childEntries.add(childEntry);
+                                key.append('\u0000').append(childEntry.id);
+                            }
+                        }
+                        values.add(childEntries);
+                        break;
+                    default:
+                        Expression part = getPart(slot.kind, expression);
+                        if (part == null) complete = false;
+                        else {
+                            values.add(part);
+                            key.append('\u0001').append(part);
+                        }
+                }
+            }
+
+            if (complete) {
+                String memoKey = key.toString();
+                synchronized (this) {
+                    entry = memo.get(memoKey);
+                }
+                if (entry == null) {
+                    entry = build(values);
+                    if (entry != null) {
+                        synchronized (this) {
+                            memo.put(memoKey, entry);
+                        }
+                    }
+                }
+            }
+        }
+        seen.put(expression, entry);
+        return entry;
+    }
+
+    //parse of the populated form
+    private Entry build(List<Object> values) {
+        List<Expression> populatedForm = new ArrayList<>();
+        for (Object value : values) {
+            if (value instanceof List) {
+                for (Object childEntry : (List<?>) value) populatedForm.add(((Entry) childEntry).expression);
+            }
+            else populatedForm.add((Expression) value);
+        }
+        List<Expression> parsed = new Parser(language).parseExpressions(populatedForm).getExpressions();
+        if (parsed.size() != 1) return null;
+        return new Entry(entryIds.incrementAndGet(), parsed.get(0));
+    }
+
+    private Expression getPart(SlotKind kind, Expression expression) {
+        switch (kind) {
+            case SELF:
+                return expression;
+            case VARIABLE:
+                return (Expression) ((Formula) expression).getMainOperator().getVariableTerm();
+            case FUNCTION:
+                return (Expression) ((Term) expression).getMainFnSymbol();
+            case OPERATOR:
+                return (Expression) ((Formula) expression).getMainOperator();
+            case RELATION:
+                RelationSymbol relSym = ((Formula) expression).getMainRelation();
+                relSym.setType(ExpressionType.RELATION_SYMBOL);
+                if (language.getXrelationSymbols().contains(relSym.getBaseStr()) && relSym.getSuperscriptStr().isEmpty())  relSym.setSuperscriptStr(String.valueOf(relSym.getPlaces()));
+                return relSym;
+            default:
+                return null;
+        }
+    }
+
+    private static UnabbType getUnabbType(Expression expression) {
+        if (expression.getType() == ExpressionType.TERM) {
+            Term term = (Term) expression;
+            if (term.getTermType() == TermType.CONSTANT) return UnabbType.CONSTANT;
+            if (term.getTermType() == TermType.VARIABLE) return UnabbType.VARIABLE;
+            if (term.getTermType() == TermType.COMPLEX) return UnabbType.COMPLEX_TERM;
+        }
+        else if (expression.getType() == ExpressionType.FORMULA) {
+            Formula formula = (Formula) expression;
+            if (formula instanceof SentenceAtomic) return UnabbType.SENTENCE_LET;
+            if (formula.isAtomic()) return UnabbType.RELATION_ATOMIC;
+            if (formula.getMainOperator() == null) return null;
+            switch (formula.getMainOperator().getType()) {
+                case NEG_OP: return UnabbType.NEGATION;
+                case COND_OP: return UnabbType.CONDITIONAL;
+                case BICOND_OP: return UnabbType.BICONDITIONAL;
+                case CONJ_OP: return UnabbType.CONJUNCTION;
+                case DISJ_OP: return UnabbType.DISJUNCTION;
+                case NAND_OP: return UnabbType.NAND;
+                case NOR_OP: return UnabbType.NOR;
+                case UNIVERSAL_OP: return UnabbType.UNIVERSAL;
+                case EXISTENTIAL_OP: return UnabbType.EXISTENTIAL;
+                case UNIV_BOUNDED_OP:
+                case UNIV_RESTRICTED_OP:
+                case EXIS_BOUNDED_OP:
+                case EXIS_RESTRICTED_OP: return UnabbType.BOUNDED_QUANTIFIER;
+                default:
+            }
+        }
+        return null;
+    }
+
+    private List<Slot> getTemplate(UnabbType unabbType) {
+        Document form = language.getUnabbForms() == null ? null : language.getUnabbForms().get(unabbType);
+        if (form == null) return null;
+        return templates.computeIfAbsent(unabbType, k -> compile(form));
+    }
+
+    /*
+     * Slots of an unabbreviating form: |0|, |1| and |n| for child slots, ‹s›, ‹v›, ‹f›, ‹b› and ‹r› for part
+     * slots, and each other element for itself
+     */
+    private static List<Slot> compile(Document form) {
+        List<OriginalElement> elements = ParseUtilities.getElements(form);
+        List<Slot> slots = new ArrayList<>();
+        for (int j = 0; j < elements.size(); j++) {
+            String elementStr = elements.get(j).getElementStr();
+            if (j + 2 < elements.size()) {
+                String control = elements.get(j + 1).getElementStr();
+                String close = elements.get(j + 2).getElementStr();
+                Slot slot = null;
+                if (elementStr.equals("|") && close.equals("|")) {
+                    if (control.equals("0")) slot = new Slot(SlotKind.CHILD, 0, null);
+                    else if (control.equals("1")) slot = new Slot(SlotKind.CHILD, 1, null);
+                    else if (control.equals("n")) slot = new Slot(SlotKind.CHILDREN, 0, null);
+                }
+                else if (elementStr.equals("\u2039") && close.equals("\u203a")) {
+                    if (control.equals("s")) slot = new Slot(SlotKind.SELF, 0, null);
+                    else if (control.equals("v")) slot = new Slot(SlotKind.VARIABLE, 0, null);
+                    else if (control.equals("f")) slot = new Slot(SlotKind.FUNCTION, 0, null);
+                    else if (control.equals("b")) slot = new Slot(SlotKind.OPERATOR, 0, null);
+                    else if (control.equals("r")) slot = new Slot(SlotKind.RELATION, 0, null);
+                }
+                if (slot != null) {
+                    slots.add(slot);
+                    j += 2;
+                    continue;
+                }
+            }
+            slots.add(new Slot(SlotKind.ELEMENT, 0, elements.get(j)));
+        }
+        return slots;
+    }
+
+    public synchronized void clear() {
+        memo.clear();
+    }
+
+    public synchronized int size() {
+        return memo.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private enum SlotKind {
+        ELEMENT,
+        CHILD,
+        CHILDREN,
+        SELF,
+        VARIABLE,
+        FUNCTION,
+        OPERATOR,
+        RELATION
+    }
+
+    private static class Slot {
+        final SlotKind kind;
+        final int index;
+        final OriginalElement element;
+
+        Slot(SlotKind kind, int index, OriginalElement element) {
+            this.kind = kind;
+            this.index = index;
+            this.element = element;
+        }
+    }
+
+    private static class Entry {
+        final int id;
+        final Expression expression;
+
+        Entry(int id, Expression expression) {
+            this.id = id;
+            this.expression = expression;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.OriginalElement;
@@ -24,8 +25,8 @@ public class AnyExpression implements Expression {
     }
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> texts = new ArrayList<>();
+    public List<StyledText> toTextList() {
+        List<StyledText> texts = new ArrayList<>();
         for (Expression child : children) {
             OriginalElement e = (OriginalElement) child;
             texts.addAll(e.toTextList());
@@ -44,7 +45,7 @@ public class AnyExpression implements Expression {
     }
 
     @Override
-    public AnyExpression getMatch() {return this;}
+    public AnyExpression getMatch(MatchContext context) {return this;}
 
     public boolean equals(Object o) {
         if (o == this) return true;
@@ -1,6 +1,7 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.symbols.ContradictionSymbol;
 import slapp.editor.parser.symbols.SentenceLetter;
@@ -26,16 +27,16 @@ public class ContradictionSimple extends Formula implements Expression {
 
 
     @Override
-    public ContradictionSimple getMatch() {
-        ContradictionSimple newContradictionSimple = new ContradictionSimple(mainLetter.getMatch());
+    public ContradictionSimple getMatch(MatchContext context) {
+        ContradictionSimple newContradictionSimple = new ContradictionSimple(mainLetter.getMatch(context));
         newContradictionSimple.setLevel(getLevel());
         return newContradictionSimple;
     }
 
     @Override
-    public List<Text> toTextList() {
+    public List<StyledText> toTextList() {
 
-        List<Text> list = new ArrayList<Text>();
+        List<StyledText> list = new ArrayList<StyledText>();
         list.addAll(mainLetter.toTextList());
         return list;
     }
@@ -50,6 +51,7 @@ public class ContradictionSimple extends Formula implements Expression {
     @Override
     public boolean equals(Object o) {
         if (o == this) return true;
+        if (internedWith(o)) return false;
         if (o instanceof ContradictionSimple) {
             ContradictionSimple other = (ContradictionSimple) o;
             boolean equals = true;
@@ -68,6 +70,7 @@ public class ContradictionSimple extends Formula implements Expression {
 
         @Override
         public int hashCode() {
+            if (internId != 0) return internHash;
             return mainLetter.hashCode() + Objects.hashCode(getSubTransform());
         }
 }
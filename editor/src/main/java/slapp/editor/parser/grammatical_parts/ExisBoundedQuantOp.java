@@ -1,6 +1,7 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.symbols.CloseBracket;
@@ -50,20 +51,20 @@ public class ExisBoundedQuantOp extends Operator implements Expression {
     }
 
     @Override
-    public ExisBoundedQuantOp getMatch() {
-        return new ExisBoundedQuantOp(openBracket.getMatch(), closeBracket.getMatch(), existentialOp.getMatch(), infixRelation.getMatch(), boundingTerm.getMatch());
+    public ExisBoundedQuantOp getMatch(MatchContext context) {
+        return new ExisBoundedQuantOp(openBracket.getMatch(context), closeBracket.getMatch(context), existentialOp.getMatch(context), infixRelation.getMatch(context), boundingTerm.getMatch(context));
     }
 
 
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> texts = new ArrayList();
+    public List<StyledText> toTextList() {
+        List<StyledText> texts = new ArrayList();
         texts.addAll(openBracket.toTextList());
         texts.addAll(existentialOp.toTextList());
-        texts.add(new Text(" "));
+        texts.add(new StyledText(" "));
         texts.addAll(infixRelation.toTextList());
-        texts.add(new Text(" "));
+        texts.add(new StyledText(" "));
         texts.addAll(boundingTerm.toTextList());
         texts.addAll(closeBracket.toTextList());
         return texts;
@@ -1,6 +1,7 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.symbols.*;
@@ -47,21 +48,21 @@ public class ExisRestrictedQuantOp extends Operator implements Expression {
         return divider;
     }
 
-    public ExisRestrictedQuantOp getMatch() {
-        return new ExisRestrictedQuantOp(openBracket.getMatch(), closeBracket.getMatch(), existentialOp.getMatch(), divider.getMatch(), restrictingFormula.getMatch());
+    public ExisRestrictedQuantOp getMatch(MatchContext context) {
+        return new ExisRestrictedQuantOp(openBracket.getMatch(context), closeBracket.getMatch(context), existentialOp.getMatch(context), divider.getMatch(context), restrictingFormula.getMatch(context));
     }
 
     @Override
     public Term getVariableTerm() {return getExistentialOp().getVariableTerm();}
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> texts = new ArrayList();
+    public List<StyledText> toTextList() {
+        List<StyledText> texts = new ArrayList();
         texts.addAll(openBracket.toTextList());
         texts.addAll(existentialOp.toTextList());
-        texts.add(new Text(" "));
+        texts.add(new StyledText(" "));
         texts.addAll(divider.toTextList());
-        texts.add(new Text(" "));
+        texts.add(new StyledText(" "));
         texts.addAll(restrictingFormula.toTextList());
         texts.addAll(closeBracket.toTextList());
         return texts;
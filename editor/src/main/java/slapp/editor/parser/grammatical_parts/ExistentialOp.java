@@ -1,7 +1,7 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
-import javafx.scene.text.TextFlow;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.symbols.ExistentialQuantifierSym;
@@ -24,13 +24,13 @@ public class ExistentialOp extends Operator implements Expression {
     }
 
     @Override
-    public ExistentialOp getMatch() {
-        return new ExistentialOp((ExistentialQuantifierSym) getMainSymbol(), variableTerm.getMatch());
+    public ExistentialOp getMatch(MatchContext context) {
+        return new ExistentialOp((ExistentialQuantifierSym) getMainSymbol(), variableTerm.getMatch(context));
     }
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> texts = new ArrayList();
+    public List<StyledText> toTextList() {
+        List<StyledText> texts = new ArrayList();
         texts.addAll(getMainSymbol().toTextList());
         texts.addAll(variableTerm.toTextList());
         return texts;
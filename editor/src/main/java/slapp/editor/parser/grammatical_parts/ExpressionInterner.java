@@ -0,0 +1,95 @@
+package slapp.editor.parser.grammatical_parts;
+
+import slapp.editor.parser.Expression;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Table of canonical object formulas and terms.  Intern returns the one formula (or term) of the table equal to
+ * its argument, adding the argument if there is none.  An interned expression caches its hash, and equality of two
+ * expressions interned by the same interner is identity, so that lookups in lists and hashed collections of interned
+ * expressions need not descend the expression trees.
+ *
+ * Only whole expressions are interned: the parts of an interned expression are not replaced by canonical ones, since
+ * substitutions address particular occurrences of terms by identity, and truth tables keep values on the nodes of a
+ * formula.  Parts are still shared between expressions, as between a formula and the results of path-copying
+ * substitution, and the formulas of a parse cache (with all their parts) are shared by everything that parses the same
+ * text.  Since intern marks the expression it adds, an expression that may be held elsewhere is interned by
+ * internShared, which adds a copy of its top node in place of the expression.  An interned expression must not be
+ * modified.  Meta expressions are returned as they are.
+ */
+public class ExpressionInterner {
+
+    private static final AtomicInteger interners = new AtomicInteger();
+
+    private final int id = interners.incrementAndGet();
+    private final Map<Expression, Expression> table = new ConcurrentHashMap<>();
+
+    public ExpressionInterner() {}
+
+    /*
+     * Canonical formula equal to formula
+     * @param formula the formula
+     * @return the interned formula (formula itself if it is new to the table)
+     */
+    public Formula intern(Formula formula) {
+        if (formula == null || formula.internId == id || !isObjectFormula(formula)) return formula;
+        Formula canonical = (Formula) table.putIfAbsent(formula, formula);
+        if (canonical != null) return canonical;
+        formula.internHash = formula.hashCode();
+        formula.internId = id;
+        return formula;
+    }
+
+    /*
+     * Canonical term equal to term
+     * @param term the term
+     * @return the interned term (term itself if it is new to the table)
+     */
+    public Term intern(Term term) {
+        if (term == null || term.internId == id || !isObjectTerm(term)) return term;
+        Term canonical = (Term) table.putIfAbsent(term, term);
+        if (canonical != null) return canonical;
+        term.internHash = term.hashCode();
+        term.internId = id;
+        return term;
+    }
+
+    /*
+     * Canonical formula equal to formula, leaving formula as it is (for formulas and parts of formulas shared with others)
+     * @param formula the formula
+     * @return the interned formula (a copy of the formula node if it is new to the table)
+     */
+    public Formula internShared(Formula formula) {
+        if (formula == null || formula.internId == id || !isObjectFormula(formula)) return formula;
+        Formula canonical = (Formula) table.get(formula);
+        return canonical != null ? canonical : intern(formula.nodeCopy());
+    }
+
+    /*
+     * Canonical term equal to term, leaving term as it is (for terms of formulas shared with others)
+     * @param term the term
+     * @return the interned term (a copy of the term node if it is new to the table)
+     */
+    public Term internShared(Term term) {
+        if (term == null || term.internId == id || !isObjectTerm(term)) return term;
+        Term canonical = (Term) table.get(term);
+        return canonical != null ? canonical : intern(term.nodeCopy());
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    private static boolean isObjectFormula(Formula formula) {
+        Class<?> kind = formula.getClass();
+        return kind == Formula.class || kind == SentenceAtomic.class || kind == InfixAtomic.class || kind == PrefixAtomic.class || kind == ContradictionSimple.class;
+    }
+
+    private static boolean isObjectTerm(Term term) {
+        Class<?> kind = term.getClass();
+        return kind == Term.class || kind == InfixTerm.class;
+    }
+}
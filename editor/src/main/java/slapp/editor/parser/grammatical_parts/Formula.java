@@ -1,7 +1,8 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
+import slapp.editor.parser.MatchContext;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.symbols.CloseBracket;
 import slapp.editor.parser.symbols.OpenBracket;
@@ -11,7 +12,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
-public class Formula implements Expression {
+public class Formula implements Expression, Cloneable {
 
     private ExpressionType type = ExpressionType.FORMULA;
     private List<Expression> children = new ArrayList<Expression>();
@@ -23,9 +24,10 @@ public class Formula implements Expression {
     OpenBracket openBracket = new OpenBracket("");
     CloseBracket closeBracket = new CloseBracket("");
     private SubstitutionTransform subTransform = null;
-    private Formula matchFormula = null;
     private String semanticValue;
     private int ttColumn;
+    volatile int internId = 0;
+    int internHash;
 
     public RelationSymbol getMainRelation() { return null; }
 
@@ -46,25 +48,22 @@ public class Formula implements Expression {
         this.subTransform = subTransform;
     }
 
-    public void setMatchFormula(Formula matchFormula) {
-        this.matchFormula = matchFormula;
-    }
-
     @Override
     public ExpressionType getType() {
         return type;
     }
 
     @Override
-    public Formula getMatch() {
-        if (matchFormula != null) {
-            return matchFormula;
+    public Formula getMatch(MatchContext context) {
+        Formula substitution = (Formula) context.getSubstitution(this);
+        if (substitution != null) {
+            return substitution;
         }
         else {
             List<Expression> newChildren = new ArrayList<>();
             for (Expression child : children) {
-                if (child.getMatch() == null) return null;
-                else newChildren.add(child.getMatch());
+                if (child.getMatch(context) == null) return null;
+                else newChildren.add(child.getMatch(context));
             }
             Formula newFormula = new Formula();
             newFormula.setChildren(newChildren);
@@ -72,16 +71,16 @@ public class Formula implements Expression {
             newFormula.setCombines(combines);
             newFormula.setNegatingInfix(negatingInfix);
             newFormula.setLevel(level);
-            if (mainOperator != null) newFormula.setMainOperator(mainOperator.getMatch());
-            newFormula.setOpenBracket(openBracket.getMatch());
-            newFormula.setCloseBracket(closeBracket.getMatch());
+            if (mainOperator != null) newFormula.setMainOperator(mainOperator.getMatch(context));
+            newFormula.setOpenBracket(context.getOpenBracket(this).getMatch(context));
+            newFormula.setCloseBracket(context.getCloseBracket(this).getMatch(context));
             return newFormula;
         }
     }
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> texts = new ArrayList();
+    public List<StyledText> toTextList() {
+        List<StyledText> texts = new ArrayList();
         if (mainOperator == null) {
             texts = children.get(0).toTextList();
         }
@@ -97,9 +96,9 @@ public class Formula implements Expression {
         else {
             texts.addAll(openBracket.toTextList());
             texts.addAll(children.get(0).toTextList());
-            texts.add(new Text(" "));
+            texts.add(new StyledText(" "));
             texts.addAll(mainOperator.toTextList());
-            texts.add(new Text(" "));
+            texts.add(new StyledText(" "));
             texts.addAll(children.get(1).toTextList());
             texts.addAll(closeBracket.toTextList());
         }
@@ -135,9 +134,54 @@ public class Formula implements Expression {
         return sb.toString();
     }
 
+    /*
+     * Copy of this node, not interned, with its own list of the same parts (for an interner to keep in place of a
+     * formula held elsewhere)
+     */
+    Formula nodeCopy() {
+        try {
+            Formula copy = (Formula) clone();
+            copy.internId = 0;
+            copy.children = new ArrayList<>(children);
+            return copy;
+        }
+        catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*
+     * Copy of this formula with its own formula and term nodes (symbols, operators, brackets and meta expressions are
+     * shared), for a caller free to change it
+     */
+    public Formula treeCopy() {
+        Formula copy = nodeCopy();
+        copy.children = copyParts(children);
+        return copy;
+    }
+
+    //copies of the formula and term parts of a list, with other parts as they are
+    static List<Expression> copyParts(List<Expression> parts) {
+        List<Expression> copies = new ArrayList<>(parts.size());
+        for (Expression part : parts) {
+            if (part instanceof Formula && !(part instanceof MFormula)) copies.add(((Formula) part).treeCopy());
+            else if (part instanceof Term && !(part instanceof MTerm)) copies.add(((Term) part).treeCopy());
+            else copies.add(part);
+        }
+        return copies;
+    }
+
+    /*
+     * True if this formula and o are interned by the same interner, so that they are equal just in case they are identical
+     */
+    boolean internedWith(Object o) {
+        return internId != 0 && o instanceof Formula && ((Formula) o).internId == internId;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o ==this) return true;
+        if (internedWith(o)) return false;
         if (o instanceof Formula) {
             Formula other = (Formula) o;
             boolean equals = true;
@@ -164,10 +208,20 @@ public class Formula implements Expression {
         return false;
         }
 
+    /*
+     * Spread the bits of a combined hash, so that hashes of formulas that differ by the places of their parts do not
+     * differ by fixed sums
+     */
+    static int mix(int code) {
+        code ^= code >>> 16;
+        return code * 0x45d9f3b;
+    }
+
     @Override public int hashCode() {
-        int code = mainOperator.hashCode() + Objects.hashCode(subTransform);
-        for (Expression child : children) {code = code + child.hashCode();}
-        return code;
+        if (internId != 0) return internHash;
+        int code = Objects.hashCode(mainOperator) + Objects.hashCode(subTransform);
+        for (Expression child : children) {code = 31 * code + child.hashCode();}
+        return mix(code);
     }
 
     @Override
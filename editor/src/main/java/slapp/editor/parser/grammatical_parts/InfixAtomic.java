@@ -1,8 +1,8 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
-import javafx.scene.text.TextFlow;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
+import slapp.editor.parser.MatchContext;
 import slapp.editor.parser.symbols.CloseBracket;
 import slapp.editor.parser.symbols.OpenBracket;
 import slapp.editor.parser.symbols.RelationSymbol;
@@ -31,41 +31,41 @@ public class InfixAtomic extends Formula implements Expression {
     }
 
     @Override
-    public InfixAtomic getMatch() {
+    public InfixAtomic getMatch(MatchContext context) {
         List<Expression> newChildren = new ArrayList<>();
         for (Expression child : getChildren()) {
-            if (child.getMatch() == null) return null;
-            else newChildren.add(child.getMatch());
+            if (child.getMatch(context) == null) return null;
+            else newChildren.add(child.getMatch(context));
         }
-        InfixAtomic newAtomic = new InfixAtomic(mainRelation.getMatch(), complementRelation.getMatch(), isNegatingInfix());
+        InfixAtomic newAtomic = new InfixAtomic(mainRelation.getMatch(context), complementRelation.getMatch(context), isNegatingInfix());
         newAtomic.setChildren(newChildren);
-        newAtomic.setOpenBracket(getOpenBracket().getMatch());
-        newAtomic.setCloseBracket(getCloseBracket().getMatch());
+        newAtomic.setOpenBracket(context.getOpenBracket(this).getMatch(context));
+        newAtomic.setCloseBracket(context.getCloseBracket(this).getMatch(context));
         return newAtomic;
     }
 
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> texts = new ArrayList();
+    public List<StyledText> toTextList() {
+        List<StyledText> texts = new ArrayList();
         texts.addAll(openBracket.toTextList());
         texts.addAll(getChildren().get(0).toTextList());
-        texts.add(new Text(" "));
+        texts.add(new StyledText(" "));
         texts.addAll(mainRelation.toTextList());
-        texts.add(new Text(" "));
+        texts.add(new StyledText(" "));
         texts.addAll(getChildren().get(1).toTextList());
         texts.addAll(closeBracket.toTextList());
         if (getSubTransform() != null && isCombines()) {texts.addAll(getSubTransform().toTextList());}
         return texts;
     }
 
-    public List<Text> negatedTextList() {
-        List<Text> texts = new ArrayList();
+    public List<StyledText> negatedTextList() {
+        List<StyledText> texts = new ArrayList();
         texts.addAll(openBracket.toTextList());
         texts.addAll(getChildren().get(0).toTextList());
-        texts.add(new Text(" "));
+        texts.add(new StyledText(" "));
         texts.addAll(complementRelation.toTextList());
-        texts.add(new Text(" "));
+        texts.add(new StyledText(" "));
         texts.addAll(getChildren().get(1).toTextList());
         texts.addAll(closeBracket.toTextList());
         return texts;
@@ -103,6 +103,7 @@ public class InfixAtomic extends Formula implements Expression {
     @Override
     public boolean equals(Object o) {
         if (o == this) return true;
+        if (internedWith(o)) return false;
         if (o instanceof InfixAtomic) {
             InfixAtomic other = (InfixAtomic) o;
 
@@ -148,8 +149,9 @@ public class InfixAtomic extends Formula implements Expression {
     }
 
     @Override public int hashCode() {
+        if (internId != 0) return internHash;
         int code = mainRelation.hashCode() + Objects.hashCode(getSubTransform());
-        for (Expression child : getChildren()) {code = code + child.hashCode();}
-        return code;
+        for (Expression child : getChildren()) {code = 31 * code + child.hashCode();}
+        return mix(code);
     }
 }
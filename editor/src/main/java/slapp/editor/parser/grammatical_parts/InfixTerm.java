@@ -1,8 +1,8 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
-import javafx.scene.text.TextFlow;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
+import slapp.editor.parser.MatchContext;
 import slapp.editor.parser.symbols.CloseBracket;
 import slapp.editor.parser.symbols.OpenBracket;
 
@@ -16,16 +16,16 @@ public class InfixTerm extends Term implements Expression {
 
 
     @Override
-    public InfixTerm getMatch() {
+    public InfixTerm getMatch(MatchContext context) {
         List<Expression> newChildren = new ArrayList<>();
         for (Expression child : getChildren()) {
-            if (child.getMatch() == null) return null;
-            else newChildren.add(child.getMatch());
+            if (child.getMatch(context) == null) return null;
+            else newChildren.add(child.getMatch(context));
         }
         InfixTerm newTerm = new InfixTerm();
-        newTerm.setOpenBracket(getOpenBracket().getMatch());
-        newTerm.setCloseBracket(getCloseBracket().getMatch());
-        newTerm.setMainFnSymbol(getMainFnSymbol().getMatch());
+        newTerm.setOpenBracket(context.getOpenBracket(this).getMatch(context));
+        newTerm.setCloseBracket(context.getCloseBracket(this).getMatch(context));
+        newTerm.setMainFnSymbol(getMainFnSymbol().getMatch(context));
         newTerm.setLevel(getLevel());
         newTerm.setCombines(isCombines());
         newTerm.setChildren(newChildren);
@@ -35,13 +35,13 @@ public class InfixTerm extends Term implements Expression {
 
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> texts = new ArrayList();
+    public List<StyledText> toTextList() {
+        List<StyledText> texts = new ArrayList();
         texts.addAll(getOpenBracket().toTextList());
         texts.addAll(getChildren().get(0).toTextList());
-        texts.add(new Text(" "));
+        texts.add(new StyledText(" "));
         texts.addAll(getMainFnSymbol().toTextList());
-        texts.add(new Text(" "));
+        texts.add(new StyledText(" "));
         texts.addAll(getChildren().get(1).toTextList());
         texts.addAll(getCloseBracket().toTextList());
         return texts;
@@ -66,6 +66,7 @@ public class InfixTerm extends Term implements Expression {
     @Override
     public boolean equals(Object o) {
         if (o == this) return true;
+        if (internedWith(o)) return false;
         if (o instanceof InfixTerm) {
             InfixTerm other = (InfixTerm) o;
             boolean equals = true;
@@ -81,9 +82,10 @@ public class InfixTerm extends Term implements Expression {
     }
 
     @Override public int hashCode() {
+        if (internId != 0) return internHash;
         int code = getMainFnSymbol().hashCode();
-        for (Expression child : getChildren()) {code = code + child.hashCode();}
-        return code;
+        for (Expression child : getChildren()) {code = 31 * code + child.hashCode();}
+        return mix(code);
     }
 
 
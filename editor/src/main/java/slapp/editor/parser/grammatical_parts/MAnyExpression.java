@@ -1,19 +1,20 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.ExpressionType;
+import slapp.editor.parser.MatchContext;
 import slapp.editor.parser.TextMessageException;
 import slapp.editor.parser.symbols.MAnyExpressionSym;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class MAnyExpression extends AnyExpression {
 
 
-    private static List<MAnyExpression> mAnyExpressions = new ArrayList<MAnyExpression>();
-    private List<Expression> matchAnyExp;
+    private static List<MAnyExpression> mAnyExpressions = new CopyOnWriteArrayList<MAnyExpression>();
     private MAnyExpressionSym expressionSym;
 
     private MAnyExpression(MAnyExpressionSym sym) {
@@ -22,7 +23,7 @@ public class MAnyExpression extends AnyExpression {
         mAnyExpressions.add(this);
     }
 
-    public static MAnyExpression getInstance(MAnyExpressionSym sym) {
+    public static synchronized MAnyExpression getInstance(MAnyExpressionSym sym) {
         MAnyExpression newInstance = null;
         for (MAnyExpression e : mAnyExpressions) {
             if (e.getExpressionSym().equals(sym)) {
@@ -40,9 +41,9 @@ public class MAnyExpression extends AnyExpression {
     }
 
     @Override
-    public List<Text> toTextList() {
+    public List<StyledText> toTextList() {
 
-        List<Text> list = new ArrayList<Text>();
+        List<StyledText> list = new ArrayList<StyledText>();
         list.addAll(expressionSym.toTextList());
         return list;
     }
@@ -55,34 +56,25 @@ public class MAnyExpression extends AnyExpression {
     }
 
  //   @Override
-  //  public Expression getMatch() { return null; }
+  //  public Expression getMatch(MatchContext context) { return null; }
 
-    public void setMatch(List<Expression> match) throws TextMessageException {
-        if (matchAnyExp == null) { matchAnyExp = match; }
+    public void setMatch(MatchContext context, List<Expression> match) throws TextMessageException {
+        List<Expression> matchAnyExp = (List<Expression>) context.getBinding(this);
+        if (matchAnyExp == null) { context.setBinding(this, match); }
         else if (!matchAnyExp.equals(match)) {
-            List<Text> messageTxts = new ArrayList<>();
-            messageTxts.add(new Text("Variable "));
+            List<StyledText> messageTxts = new ArrayList<>();
+            messageTxts.add(new StyledText("Variable "));
             messageTxts.addAll(getExpressionSym().toTextList());
-            messageTxts.add(new Text(" cannot match to both "));
+            messageTxts.add(new StyledText(" cannot match to both "));
             for (Expression e : matchAnyExp) {
                 messageTxts.addAll(e.toTextList());
             }
-            messageTxts.add(new Text(" and "));
+            messageTxts.add(new StyledText(" and "));
             for (Expression e : match) {
                 messageTxts.addAll(e.toTextList());
             }
-            messageTxts.add(new Text("."));
+            messageTxts.add(new StyledText("."));
             throw new TextMessageException(messageTxts);
         }
     }
-
-    public static void clear() {
-        for (MAnyExpression e : mAnyExpressions) {
-            e.clearMatch();
-        }
-    }
-
-    private void clearMatch() {
-        matchAnyExp = null;
-    }
 }
@@ -1,6 +1,7 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.TextMessageException;
 import slapp.editor.parser.symbols.MFormulaSym;
@@ -25,27 +26,27 @@ public class MComplexFormula extends Formula{
 
 
     @Override
-    public Formula getMatch() {
+    public Formula getMatch(MatchContext context) {
         List<Expression> newChildren = new ArrayList<>();
         for (Expression child : getChildren()) {
-            if (child.getMatch() == null) { return null; }
-            else newChildren.add(child.getMatch());
+            if (child.getMatch(context) == null) { return null; }
+            else newChildren.add(child.getMatch(context));
         }
-        MComplexFormula formula = new MComplexFormula(formulaSym.getMatch());
+        MComplexFormula formula = new MComplexFormula(formulaSym.getMatch(context));
         formula.setChildren(newChildren);
         formula.setLevel(getLevel());
         return formula;
     }
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> texts = new ArrayList<>();
+    public List<StyledText> toTextList() {
+        List<StyledText> texts = new ArrayList<>();
         texts.addAll(formulaSym.toTextList());
         if (!getChildren().isEmpty()) {
             texts.addAll(getOpenBracket().toTextList());
             for (int i = 0; i < getChildren().size(); i++) {
                 texts.addAll(getChildren().get(i).toTextList());
-                if (i < getChildren().size() - 1) {texts.add(new Text(", "));}
+                if (i < getChildren().size() - 1) {texts.add(new StyledText(", "));}
             }
             texts.addAll(getCloseBracket().toTextList());
         }
@@ -88,7 +89,7 @@ public class MComplexFormula extends Formula{
     @Override
     public int hashCode() {
         int code = formulaSym.hashCode();
-        for (Expression child : getChildren()) { code = code + child.hashCode(); }
+        for (Expression child : getChildren()) { code = 31 * code + child.hashCode(); }
         return code;
     }
 
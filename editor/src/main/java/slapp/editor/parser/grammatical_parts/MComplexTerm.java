@@ -1,6 +1,7 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.symbols.MFormulaSym;
 import slapp.editor.parser.symbols.MTermSym;
@@ -25,27 +26,27 @@ public class MComplexTerm extends Term{
 
 
     @Override
-    public Term getMatch() {
+    public Term getMatch(MatchContext context) {
         List<Expression> newChildren = new ArrayList<>();
         for (Expression child : getChildren()) {
-            if (child.getMatch() == null) { return null; }
-            else newChildren.add(child.getMatch());
+            if (child.getMatch(context) == null) { return null; }
+            else newChildren.add(child.getMatch(context));
         }
-        MComplexTerm term = new MComplexTerm(pMTermSym.getMatch());
+        MComplexTerm term = new MComplexTerm(pMTermSym.getMatch(context));
         term.setChildren(newChildren);
         term.setLevel(getLevel());
         return term;
     }
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> texts = new ArrayList<>();
+    public List<StyledText> toTextList() {
+        List<StyledText> texts = new ArrayList<>();
         texts.addAll(pMTermSym.toTextList());
         if (!getChildren().isEmpty()) {
             texts.addAll(getOpenBracket().toTextList());
             for (int i = 0; i < getChildren().size(); i++) {
                 texts.addAll(getChildren().get(i).toTextList());
-                if (i < getChildren().size() - 1) {texts.add(new Text(", "));}
+                if (i < getChildren().size() - 1) {texts.add(new StyledText(", "));}
             }
             texts.addAll(getCloseBracket().toTextList());
         }
@@ -88,7 +89,7 @@ public class MComplexTerm extends Term{
     @Override
     public int hashCode() {
         int code = pMTermSym.hashCode();
-        for (Expression child : getChildren()) { code = code + child.hashCode(); }
+        for (Expression child : getChildren()) { code = 31 * code + child.hashCode(); }
         return code;
     }
 
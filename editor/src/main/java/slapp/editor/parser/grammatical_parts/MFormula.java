@@ -1,7 +1,8 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
+import slapp.editor.parser.MatchContext;
 import slapp.editor.parser.TextMessageException;
 import slapp.editor.parser.symbols.MFormulaSym;
 import slapp.editor.parser.symbols.MVariable;
@@ -9,12 +10,12 @@ import slapp.editor.parser.symbols.MVariable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class MFormula extends Formula{
 
-    public static List<MFormula> mFormulas = new ArrayList<MFormula>();
+    public static List<MFormula> mFormulas = new CopyOnWriteArrayList<MFormula>();
     private MFormulaSym formulaSym;
-    private Formula matchFormula = null;
 
 
     private MFormula(MFormulaSym formulaSym) {
@@ -23,7 +24,7 @@ public class MFormula extends Formula{
         mFormulas.add(this);
     }
 
-    public static MFormula getInstance(MFormulaSym formulaSym) {
+    public static synchronized MFormula getInstance(MFormulaSym formulaSym) {
         MFormula f = null;
         for (MFormula form : mFormulas) {
             if (form.getFormulaSym().equals(formulaSym)) {
@@ -35,18 +36,6 @@ public class MFormula extends Formula{
         return f;
     }
 
-    public static void clear() {
-        for (MFormula formula : mFormulas) {
-            formula.clearMatch();
-        }
-    }
-
-
-
-    private void clearMatch() {
-        matchFormula = null;
-    }
-
     public MFormulaSym getFormulaSym() {
         return formulaSym;
     }
@@ -56,29 +45,29 @@ public class MFormula extends Formula{
     }
 
     @Override
-    public Formula getMatch() { return matchFormula; }
+    public Formula getMatch(MatchContext context) { return (Formula) context.getBinding(this); }
 
-    public void setMatch(Formula match) throws TextMessageException {
-        if (matchFormula == null) {
-            matchFormula = match;    }
+    public void setMatch(MatchContext context, Formula match) throws TextMessageException {
+        Formula matchFormula = getMatch(context);
+        if (matchFormula == null) { context.setBinding(this, match); }
         else if (!matchFormula.equals(match)) {
-            List<Text> messageTxts = new ArrayList<>();
-            messageTxts.add(new Text("A formula symbol"));
+            List<StyledText> messageTxts = new ArrayList<>();
+            messageTxts.add(new StyledText("A formula symbol"));
       //      messageTxts.addAll(this.toTextList());
 
-            messageTxts.add(new Text(" cannot match to both "));
+            messageTxts.add(new StyledText(" cannot match to both "));
             messageTxts.addAll(matchFormula.toTextList());
 
-            messageTxts.add(new Text(" and "));
+            messageTxts.add(new StyledText(" and "));
             messageTxts.addAll(match.toTextList());
 
-            messageTxts.add(new Text("."));
+            messageTxts.add(new StyledText("."));
             throw new TextMessageException(messageTxts);
         }
     }
 
     @Override
-    public List<Text> toTextList() {
+    public List<StyledText> toTextList() {
         return formulaSym.toTextList();
     }
 
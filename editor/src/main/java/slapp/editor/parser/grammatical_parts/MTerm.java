@@ -1,8 +1,8 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
-import slapp.editor.EditorAlerts;
-import slapp.editor.ReplacementTxtMsgException;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.ReplacementTxtMsgException;
 import slapp.editor.parser.TextMessageException;
 import slapp.editor.parser.symbols.MTermSym;
 import slapp.editor.parser.symbols.MVariable;
@@ -10,11 +10,11 @@ import slapp.editor.parser.symbols.MVariable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class MTerm extends Term {
-    private static List<MTerm> mTerms = new ArrayList<MTerm>();
+    private static List<MTerm> mTerms = new CopyOnWriteArrayList<MTerm>();
     private MTermSym mTermSym;
-    private Term matchTerm = null;
 
 
     private MTerm(MTermSym termSym) {
@@ -26,7 +26,7 @@ public class MTerm extends Term {
 
 
 
-    public static MTerm getInstance(MTermSym termSym) {
+    public static synchronized MTerm getInstance(MTermSym termSym) {
         MTerm newTerm = null;
         for (MTerm term : mTerms) {
             if (term.getmTermSym().equals(termSym)) {
@@ -38,16 +38,6 @@ public class MTerm extends Term {
         return newTerm;
     }
 
-    public static void clear() {
-        for (MTerm term : mTerms) {
-            term.clearMatch();
-        }
-    }
-
-    private void clearMatch() {
-        matchTerm = null;
-    }
-
     public MTermSym getmTermSym() {
         return mTermSym;
     }
@@ -56,26 +46,25 @@ public class MTerm extends Term {
         return mTerms;
     }
 
-    public Term getMatchTerm() {
-        return matchTerm;
+    public Term getMatchTerm(MatchContext context) {
+        return getMatch(context);
     }
 
     @Override
-    public Term getMatch() { return matchTerm;  }
-
-    public void setMatch(Term match) throws TextMessageException {
+    public Term getMatch(MatchContext context) { return (Term) context.getBinding(this); }
 
-        if (matchTerm == null)  {
-            matchTerm = match;      }
+    public void setMatch(MatchContext context, Term match) throws TextMessageException {
+        Term matchTerm = getMatch(context);
+        if (matchTerm == null) { context.setBinding(this, match); }
         else if (!matchTerm.equals(match)) {
-            List<Text> messageTxts = new ArrayList<>();
-            messageTxts.add(new Text("Meta symbol "));
+            List<StyledText> messageTxts = new ArrayList<>();
+            messageTxts.add(new StyledText("Meta symbol "));
             messageTxts.addAll(mTermSym.toTextList());
-            messageTxts.add(new Text(" cannot match to both "));
+            messageTxts.add(new StyledText(" cannot match to both "));
             messageTxts.addAll(matchTerm.toTextList());
-            messageTxts.add(new Text(" and "));
+            messageTxts.add(new StyledText(" and "));
             messageTxts.addAll(match.toTextList());
-            messageTxts.add(new Text("."));
+            messageTxts.add(new StyledText("."));
 
     //        EditorAlerts.showSimpleTxtListAlert("from mterm", messageTxts);
 
@@ -84,7 +73,7 @@ public class MTerm extends Term {
     }
 
     @Override
-    public List<Text> toTextList() {
+    public List<StyledText> toTextList() {
         return mTermSym.toTextList();
     }
 
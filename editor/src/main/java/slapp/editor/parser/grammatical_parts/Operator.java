@@ -1,7 +1,7 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
-import javafx.scene.text.TextFlow;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.symbols.ConditionalSym;
@@ -59,10 +59,10 @@ public class Operator implements Expression {
     }
 
     @Override
-    public Operator getMatch() {return this;}
+    public Operator getMatch(MatchContext context) {return this;}
 
     @Override
-    public List<Text> toTextList() {
+    public List<StyledText> toTextList() {
         return mainSymbol.toTextList();
     }
 
@@ -1,7 +1,7 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
-import javafx.scene.text.TextFlow;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.symbols.RelationSymbol;
 
@@ -22,21 +22,21 @@ public class PrefixAtomic extends Formula implements Expression {
     public RelationSymbol getMainRelation() {return mainRelation;}
 
     @Override
-    public PrefixAtomic getMatch() {
+    public PrefixAtomic getMatch(MatchContext context) {
         List<Expression> newChildren = new ArrayList<>();
         for (Expression child : getChildren()) {
-            if (child.getMatch() == null) return null;
-            else newChildren.add(child.getMatch());
+            if (child.getMatch(context) == null) return null;
+            else newChildren.add(child.getMatch(context));
         }
-        PrefixAtomic newAtomic = new PrefixAtomic(mainRelation.getMatch());
+        PrefixAtomic newAtomic = new PrefixAtomic(mainRelation.getMatch(context));
         newAtomic.setChildren(newChildren);
         newAtomic.setLevel(getLevel());
         return newAtomic;
     }
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> texts = new ArrayList();
+    public List<StyledText> toTextList() {
+        List<StyledText> texts = new ArrayList();
         texts.addAll(mainRelation.toTextList());
         for (Expression child : getChildren()) {
             texts.addAll(child.toTextList());
@@ -57,6 +57,7 @@ public class PrefixAtomic extends Formula implements Expression {
     @Override
     public boolean equals(Object o) {
         if (o == this) return true;
+        if (internedWith(o)) return false;
         if (o instanceof PrefixAtomic) {
             PrefixAtomic other = (PrefixAtomic) o;
             boolean equals = true;
@@ -104,8 +105,9 @@ public class PrefixAtomic extends Formula implements Expression {
     }
 
     @Override public int hashCode() {
+        if (internId != 0) return internHash;
         int code = mainRelation.hashCode() + Objects.hashCode(getSubTransform());
-        for (Expression child : getChildren()) {code = code + child.hashCode();}
-        return code;
+        for (Expression child : getChildren()) {code = 31 * code + child.hashCode();}
+        return mix(code);
     }
 }
@@ -1,6 +1,7 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.symbols.PseudoMFormulaSym;
 import slapp.editor.parser.symbols.PseudoMTermSym;
@@ -25,16 +26,16 @@ public class PseudoMFormula extends Formula implements Expression {
     }
 
     @Override
-    public PseudoMFormula getMatch() {
-        PseudoMFormula newFormula = new PseudoMFormula(mainSym.getMatch());
+    public PseudoMFormula getMatch(MatchContext context) {
+        PseudoMFormula newFormula = new PseudoMFormula(mainSym.getMatch(context));
         newFormula.setLevel(getLevel());
         return newFormula;
     }
 
     @Override
-    public List<Text> toTextList() {
+    public List<StyledText> toTextList() {
 
-        List<Text> list = new ArrayList<Text>();
+        List<StyledText> list = new ArrayList<StyledText>();
         list.addAll(mainSym.toTextList());
         return list;
     }
@@ -1,6 +1,7 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.symbols.PseudoMFormulaSym;
 import slapp.editor.parser.symbols.PseudoMTermSym;
@@ -24,16 +25,16 @@ public class PseudoMTerm extends Term {
 
 
     @Override
-    public PseudoMTerm getMatch() {
-        PseudoMTerm newTerm = new PseudoMTerm(pMTermSym.getMatch());
+    public PseudoMTerm getMatch(MatchContext context) {
+        PseudoMTerm newTerm = new PseudoMTerm(pMTermSym.getMatch(context));
         newTerm.setLevel(getLevel());
         return newTerm;
     }
 
     @Override
-    public List<Text> toTextList() {
+    public List<StyledText> toTextList() {
 
-        List<Text> list = new ArrayList<Text>();
+        List<StyledText> list = new ArrayList<StyledText>();
         list.addAll(pMTermSym.toTextList());
         return list;
     }
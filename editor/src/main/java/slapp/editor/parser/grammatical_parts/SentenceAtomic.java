@@ -1,6 +1,7 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.symbols.SentenceLetter;
 
@@ -23,16 +24,16 @@ public class SentenceAtomic extends Formula implements Expression {
     }
 
     @Override
-    public SentenceAtomic getMatch() {
-        SentenceAtomic newAtomic = new SentenceAtomic(mainLetter.getMatch());
+    public SentenceAtomic getMatch(MatchContext context) {
+        SentenceAtomic newAtomic = new SentenceAtomic(mainLetter.getMatch(context));
         newAtomic.setLevel(getLevel());
         return newAtomic;
     }
 
     @Override
-    public List<Text> toTextList() {
+    public List<StyledText> toTextList() {
 
-        List<Text> list = new ArrayList<Text>();
+        List<StyledText> list = new ArrayList<StyledText>();
         list.addAll(mainLetter.toTextList());
         return list;
     }
@@ -47,6 +48,7 @@ public class SentenceAtomic extends Formula implements Expression {
     @Override
     public boolean equals(Object o) {
         if (o == this) return true;
+        if (internedWith(o)) return false;
         if (o instanceof SentenceAtomic) {
             SentenceAtomic other = (SentenceAtomic) o;
             boolean equals = true;
@@ -65,6 +67,7 @@ public class SentenceAtomic extends Formula implements Expression {
 
         @Override
         public int hashCode() {
+            if (internId != 0) return internHash;
             return mainLetter.hashCode() + Objects.hashCode(getSubTransform());
         }
 }
@@ -1,6 +1,7 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.ParseUtilities;
@@ -39,13 +40,13 @@ public class SubstitutionTransform implements Expression {
     public ExpressionType getType() {return type;}
 
     @Override
-    public SubstitutionTransform getMatch() { return this;}
+    public SubstitutionTransform getMatch(MatchContext context) { return this;}
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> textList = new ArrayList<Text>();
+    public List<StyledText> toTextList() {
+        List<StyledText> textList = new ArrayList<StyledText>();
         if (type == ExpressionType.ALL_TERM_SUB) {
-            Text[] subSub = ParseUtilities.newSupSubText(exp1.toString(), exp2.toString());
+            StyledText[] subSub = ParseUtilities.newSupSubText(exp1.toString(), exp2.toString());
             textList.add(subSub[0]);
             textList.add(subSub[1]);
         }
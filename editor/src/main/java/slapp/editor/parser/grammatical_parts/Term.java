@@ -1,7 +1,8 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
+import slapp.editor.parser.MatchContext;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.symbols.CloseBracket;
 import slapp.editor.parser.symbols.FunctionSymbol;
@@ -11,7 +12,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
-public class Term implements Expression {
+public class Term implements Expression, Cloneable {
 
     private ExpressionType type = ExpressionType.TERM;
     private List<Expression> children = new ArrayList<>();
@@ -22,8 +23,9 @@ public class Term implements Expression {
     private OpenBracket openBracket = new OpenBracket("");
     private CloseBracket closeBracket = new CloseBracket("");
     private SubstitutionTransform subTransform = null;
-    private Term matchTerm = null;
     private String semanticValue;
+    volatile int internId = 0;
+    int internHash;
 
 
     @Override
@@ -92,10 +94,6 @@ public class Term implements Expression {
         return subTransform;
     }
 
-    public void setMatchTerm(Term matchTerm) {
-        this.matchTerm = matchTerm;
-    }
-
     public String getSemanticValue() {
         return semanticValue;
     }
@@ -108,18 +106,19 @@ public class Term implements Expression {
     public ExpressionType getType() { return type; }
 
     @Override
-    public Term getMatch() {
-        if (matchTerm != null) {
-            return matchTerm;
+    public Term getMatch(MatchContext context) {
+        Term substitution = (Term) context.getSubstitution(this);
+        if (substitution != null) {
+            return substitution;
         }
         else {
             List<Expression> newChildren = new ArrayList<>();
             for (Expression child : children) {
-                if (child.getMatch() == null) return null;
-                else newChildren.add(child.getMatch());
+                if (child.getMatch(context) == null) return null;
+                else newChildren.add(child.getMatch(context));
             }
             Term newTerm = new Term();
-            if (mainFnSymbol != null) newTerm.setMainFnSymbol(mainFnSymbol.getMatch());
+            if (mainFnSymbol != null) newTerm.setMainFnSymbol(mainFnSymbol.getMatch(context));
             newTerm.setLevel(level);
             newTerm.setCombines(combines);
             newTerm.setTermType(termType);
@@ -130,8 +129,8 @@ public class Term implements Expression {
 
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> texts = new ArrayList();
+    public List<StyledText> toTextList() {
+        List<StyledText> texts = new ArrayList();
         texts.addAll(mainFnSymbol.toTextList());
         for (Expression expression : children) {
            texts.addAll(expression.toTextList());
@@ -151,9 +150,43 @@ public class Term implements Expression {
         return sb.toString();
     }
 
+    /*
+     * Copy of this node, not interned, with its own list of the same parts (for an interner to keep in place of a
+     * term held elsewhere)
+     */
+    Term nodeCopy() {
+        try {
+            Term copy = (Term) clone();
+            copy.internId = 0;
+            copy.children = new ArrayList<>(children);
+            return copy;
+        }
+        catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*
+     * Copy of this term with its own term nodes (symbols, brackets and meta terms are shared), for a caller free to
+     * change it
+     */
+    public Term treeCopy() {
+        Term copy = nodeCopy();
+        copy.children = Formula.copyParts(children);
+        return copy;
+    }
+
+    /*
+     * True if this term and o are interned by the same interner, so that they are equal just in case they are identical
+     */
+    boolean internedWith(Object o) {
+        return internId != 0 && o instanceof Term && ((Term) o).internId == internId;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == this) return true;
+        if (internedWith(o)) return false;
         if (o instanceof Term) {
             Term other = (Term) o;
             boolean equals = true;
@@ -175,9 +208,18 @@ public class Term implements Expression {
         return false;
     }
 
+    /*
+     * Spread the bits of a combined hash (as Formula.mix)
+     */
+    static int mix(int code) {
+        code ^= code >>> 16;
+        return code * 0x45d9f3b;
+    }
+
     @Override public int hashCode() {
+        if (internId != 0) return internHash;
         int code = mainFnSymbol.hashCode() + Objects.hashCode(subTransform) ;
-        for (Expression child : children) {code = code + child.hashCode();}
-        return code;
+        for (Expression child : children) {code = 31 * code + child.hashCode();}
+        return mix(code);
     }
 }
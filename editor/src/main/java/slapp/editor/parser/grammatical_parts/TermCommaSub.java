@@ -1,7 +1,7 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
-import javafx.scene.text.TextFlow;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.ParseUtilities;
 
@@ -16,13 +16,13 @@ public class TermCommaSub extends SubstitutionTransform {
     }
 
     @Override
-    public TermCommaSub getMatch() {
-        return new TermCommaSub(((Term) getExp1()).getMatch(), ((Term) getExp2()).getMatch(), getDividerSymbol());
+    public TermCommaSub getMatch(MatchContext context) {
+        return new TermCommaSub(((Term) getExp1()).getMatch(context), ((Term) getExp2()).getMatch(context), getDividerSymbol());
     }
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> texts = new ArrayList<Text>();
+    public List<StyledText> toTextList() {
+        List<StyledText> texts = new ArrayList<StyledText>();
         texts.addAll(Arrays.asList(ParseUtilities.newSupSubText(getExp1().toString(), getExp2().toString())));
         return texts;
     }
@@ -1,6 +1,7 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.ParseUtilities;
 
@@ -14,15 +15,15 @@ public class TermDSlashSub extends SubstitutionTransform {
     }
 
     @Override
-    public TermDSlashSub getMatch() {
-        return new TermDSlashSub(((Term) getExp1()).getMatch(), ((Term) getExp2()).getMatch(), getDividerSymbol());
+    public TermDSlashSub getMatch(MatchContext context) {
+        return new TermDSlashSub(((Term) getExp1()).getMatch(context), ((Term) getExp2()).getMatch(context), getDividerSymbol());
     }
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> texts = new ArrayList<Text>();
+    public List<StyledText> toTextList() {
+        List<StyledText> texts = new ArrayList<StyledText>();
         texts.add(ParseUtilities.newSuperscriptText(getExp1().toString()));
-        texts.add(new Text("\u2afd"));
+        texts.add(new StyledText("\u2afd"));
         texts.add(ParseUtilities.newSubscriptText((getExp2().toString())));
         return texts;
     }
@@ -1,6 +1,7 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.ParseUtilities;
 
@@ -14,15 +15,15 @@ public class TermSlashSub extends SubstitutionTransform {
     }
 
     @Override
-    public TermSlashSub getMatch() {
-        return new TermSlashSub(((Term) getExp1()).getMatch(), ((Term) getExp2()).getMatch(), getDividerSymbol());
+    public TermSlashSub getMatch(MatchContext context) {
+        return new TermSlashSub(((Term) getExp1()).getMatch(context), ((Term) getExp2()).getMatch(context), getDividerSymbol());
     }
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> texts = new ArrayList<Text>();
+    public List<StyledText> toTextList() {
+        List<StyledText> texts = new ArrayList<StyledText>();
         texts.add(ParseUtilities.newSuperscriptText(getExp1().toString()));
-        texts.add(new Text("/"));
+        texts.add(new StyledText("/"));
         texts.add(ParseUtilities.newSubscriptText((getExp2().toString())));
         return texts;
     }
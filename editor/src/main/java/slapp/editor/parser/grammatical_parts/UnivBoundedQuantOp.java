@@ -1,6 +1,7 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.symbols.*;
@@ -51,18 +52,18 @@ public class UnivBoundedQuantOp extends Operator implements Expression {
         return infixRelation;
     }
 
-    public UnivBoundedQuantOp getMatch() {
-        return new UnivBoundedQuantOp(openBracket.getMatch(), closeBracket.getMatch(), universalOp.getMatch(), infixRelation.getMatch(), boundingTerm.getMatch());
+    public UnivBoundedQuantOp getMatch(MatchContext context) {
+        return new UnivBoundedQuantOp(openBracket.getMatch(context), closeBracket.getMatch(context), universalOp.getMatch(context), infixRelation.getMatch(context), boundingTerm.getMatch(context));
     }
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> texts = new ArrayList();
+    public List<StyledText> toTextList() {
+        List<StyledText> texts = new ArrayList();
         texts.addAll(openBracket.toTextList());
         texts.addAll(universalOp.toTextList());
-        texts.add(new Text(" "));
+        texts.add(new StyledText(" "));
         texts.addAll(infixRelation.toTextList());
-        texts.add(new Text(" "));
+        texts.add(new StyledText(" "));
         texts.addAll(boundingTerm.toTextList());
         texts.addAll(closeBracket.toTextList());
         return texts;
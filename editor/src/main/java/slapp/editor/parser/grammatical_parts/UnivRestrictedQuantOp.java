@@ -1,6 +1,7 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.symbols.CloseBracket;
@@ -61,18 +62,18 @@ public class UnivRestrictedQuantOp extends Operator implements Expression {
     }
 
     @Override
-    public UnivRestrictedQuantOp getMatch() {
-        return new UnivRestrictedQuantOp(openBracket.getMatch(), closeBracket.getMatch(), universalOp.getMatch(), divider.getMatch(), restrictingFormula.getMatch());
+    public UnivRestrictedQuantOp getMatch(MatchContext context) {
+        return new UnivRestrictedQuantOp(openBracket.getMatch(context), closeBracket.getMatch(context), universalOp.getMatch(context), divider.getMatch(context), restrictingFormula.getMatch(context));
     }
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> texts = new ArrayList();
+    public List<StyledText> toTextList() {
+        List<StyledText> texts = new ArrayList();
         texts.addAll(openBracket.toTextList());
         texts.addAll(universalOp.toTextList());
-        texts.add(new Text(" "));
+        texts.add(new StyledText(" "));
         texts.addAll(divider.toTextList());
-        texts.add(new Text(" "));
+        texts.add(new StyledText(" "));
         texts.addAll(restrictingFormula.toTextList());
         texts.addAll(closeBracket.toTextList());
         return texts;
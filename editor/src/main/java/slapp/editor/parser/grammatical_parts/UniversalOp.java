@@ -1,7 +1,7 @@
 package slapp.editor.parser.grammatical_parts;
 
-import javafx.scene.text.Text;
-import javafx.scene.text.TextFlow;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.symbols.UniversalQuantifierSym;
@@ -24,13 +24,13 @@ public class UniversalOp extends Operator implements Expression {
     }
 
     @Override
-    public UniversalOp getMatch() {
-        return new UniversalOp((UniversalQuantifierSym) getMainSymbol(), variableTerm.getMatch());
+    public UniversalOp getMatch(MatchContext context) {
+        return new UniversalOp((UniversalQuantifierSym) getMainSymbol(), variableTerm.getMatch(context));
     }
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> texts = new ArrayList();
+    public List<StyledText> toTextList() {
+        List<StyledText> texts = new ArrayList();
         texts.addAll(getMainSymbol().toTextList());
         texts.addAll(variableTerm.toTextList());
         return texts;
@@ -1,6 +1,7 @@
 package slapp.editor.parser.symbols;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.ParseUtilities;
@@ -22,11 +23,11 @@ public class AngleOpenBracket implements Expression {
     public ExpressionType getType() {return type;}
 
     @Override
-    public AngleOpenBracket getMatch() {return this;}
+    public AngleOpenBracket getMatch(MatchContext context) {return this;}
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> textList = new ArrayList<Text>();
+    public List<StyledText> toTextList() {
+        List<StyledText> textList = new ArrayList<StyledText>();
         if (!textString.isEmpty()) textList.add(ParseUtilities.newRegularText(textString));
         return textList;
     }
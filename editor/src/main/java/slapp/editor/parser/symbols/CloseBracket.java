@@ -1,7 +1,7 @@
 package slapp.editor.parser.symbols;
 
-import javafx.scene.text.Text;
-import javafx.scene.text.TextFlow;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.ParseUtilities;
@@ -34,11 +34,11 @@ public class CloseBracket implements Expression {
     public ExpressionType getType() {return type;}
 
     @Override
-    public CloseBracket getMatch() {return this;}
+    public CloseBracket getMatch(MatchContext context) {return this;}
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> textList = new ArrayList<Text>();
+    public List<StyledText> toTextList() {
+        List<StyledText> textList = new ArrayList<StyledText>();
         if (!textString.isEmpty()) textList.add(ParseUtilities.newRegularText(textString));
         return textList;
     }
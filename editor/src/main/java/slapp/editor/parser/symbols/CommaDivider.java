@@ -1,6 +1,7 @@
 package slapp.editor.parser.symbols;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.ParseUtilities;
@@ -23,11 +24,11 @@ public class CommaDivider implements Expression {
     public ExpressionType getType() {return type;}
 
     @Override
-    public CommaDivider getMatch() {return this;}
+    public CommaDivider getMatch(MatchContext context) {return this;}
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> textList = new ArrayList<Text>();
+    public List<StyledText> toTextList() {
+        List<StyledText> textList = new ArrayList<StyledText>();
         if (!textString.isEmpty()) textList.add(ParseUtilities.newRegularText(textString));
         return textList;
     }
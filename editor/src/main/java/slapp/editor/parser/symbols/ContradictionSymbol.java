@@ -1,6 +1,7 @@
 package slapp.editor.parser.symbols;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.ParseUtilities;
@@ -29,11 +30,11 @@ public class ContradictionSymbol implements Expression {
     public ExpressionType getType() { return type; }
 
     @Override
-    public ContradictionSymbol getMatch() {return this;}
+    public ContradictionSymbol getMatch(MatchContext context) {return this;}
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> textList = new ArrayList<Text>();
+    public List<StyledText> toTextList() {
+        List<StyledText> textList = new ArrayList<StyledText>();
         if (!baseStr.isEmpty()) textList.add(ParseUtilities.newRegularText(baseStr));
         return textList;
     }
@@ -1,7 +1,7 @@
 package slapp.editor.parser.symbols;
 
-import javafx.scene.text.Text;
-import javafx.scene.text.TextFlow;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.ParseUtilities;
@@ -56,11 +56,11 @@ public class FunctionSymbol implements Expression {
     public ExpressionType getType() { return type; }
 
     @Override
-    public FunctionSymbol getMatch() {return this;}
+    public FunctionSymbol getMatch(MatchContext context) {return this;}
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> textList = new ArrayList<>();
+    public List<StyledText> toTextList() {
+        List<StyledText> textList = new ArrayList<>();
         if (!baseStr.isEmpty()) textList.add(ParseUtilities.newRegularText(baseStr));
         if (!superscriptStr.isEmpty() && subscriptStr.isEmpty()) textList.add(ParseUtilities.newSuperscriptText(superscriptStr));
         if (superscriptStr.isEmpty() && !subscriptStr.isEmpty()) textList.add(ParseUtilities.newSubscriptText(subscriptStr));
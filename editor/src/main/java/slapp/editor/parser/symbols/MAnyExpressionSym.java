@@ -1,6 +1,7 @@
 package slapp.editor.parser.symbols;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.ParseUtilities;
@@ -31,11 +32,11 @@ public class MAnyExpressionSym implements Expression {
     public ExpressionType getType() { return type; }
 
     @Override
-    public MAnyExpressionSym getMatch() { return this; }
+    public MAnyExpressionSym getMatch(MatchContext context) { return this; }
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> textList = new ArrayList<>();
+    public List<StyledText> toTextList() {
+        List<StyledText> textList = new ArrayList<>();
         if(!baseStr.isEmpty()) textList.add(ParseUtilities.newRegularText(baseStr));
         if(!subscriptStr.isEmpty()) textList.add(ParseUtilities.newSubscriptText(subscriptStr));
         return textList;
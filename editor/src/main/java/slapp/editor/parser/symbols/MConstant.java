@@ -1,22 +1,23 @@
 package slapp.editor.parser.symbols;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.MatchContext;
 import slapp.editor.parser.TextMessageException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class MConstant extends Constant {
 
-    private static List<MConstant> constantSyms = new ArrayList<MConstant>();
-    private Constant matchConstant = null;
+    private static List<MConstant> constantSyms = new CopyOnWriteArrayList<MConstant>();
 
     private MConstant(String baseSymbol, String subscriptSymbol) {
         super(baseSymbol, subscriptSymbol);
         constantSyms.add(this);
     }
 
-    public static MConstant getInstance(String baseSymbol, String subscriptSymbol) {
+    public static synchronized MConstant getInstance(String baseSymbol, String subscriptSymbol) {
         MConstant constSym = null;
         for (MConstant sym : constantSyms) {
             if (sym.getBaseStr().equals(baseSymbol) && sym.getSubscriptStr().equals(subscriptSymbol)) {
@@ -32,36 +33,27 @@ public class MConstant extends Constant {
         return constantSyms;
     }
 
-    public Constant getMatchConstant() {
-        return matchConstant;
+    public Constant getMatchConstant(MatchContext context) {
+        return getMatch(context);
     }
 
     @Override
-    public Constant getMatch() {return matchConstant;}
+    public Constant getMatch(MatchContext context) { return (Constant) context.getBinding(this); }
 
-    public void setMatch(Constant match) throws TextMessageException {
-        if (matchConstant == null) { matchConstant = match; }
+    public void setMatch(MatchContext context, Constant match) throws TextMessageException {
+        Constant matchConstant = getMatch(context);
+        if (matchConstant == null) { context.setBinding(this, match); }
         else if (!matchConstant.equals(match)) {
-            List<Text> messageTxts = new ArrayList<>();
-            messageTxts.add(new Text("Meta constant symbol "));
+            List<StyledText> messageTxts = new ArrayList<>();
+            messageTxts.add(new StyledText("Meta constant symbol "));
             messageTxts.addAll(this.toTextList());
-            messageTxts.add(new Text(" cannot match to both "));
+            messageTxts.add(new StyledText(" cannot match to both "));
             messageTxts.addAll(matchConstant.toTextList());
-            messageTxts.add(new Text(" and "));
+            messageTxts.add(new StyledText(" and "));
             messageTxts.addAll(match.toTextList());
-            messageTxts.add(new Text("."));
+            messageTxts.add(new StyledText("."));
             throw new TextMessageException(messageTxts);
         }
     }
 
-    public static void clear() {
-        for (MConstant sym : constantSyms) {
-            sym.clearMatch();
-        }
-    }
-
-    private void clearMatch() {
-        matchConstant = null;
-    }
-
 }
@@ -1,6 +1,7 @@
 package slapp.editor.parser.symbols;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.ParseUtilities;
@@ -38,13 +39,13 @@ public class MFormulaSym implements Expression {
     }
 
     @Override
-    public MFormulaSym getMatch() {
+    public MFormulaSym getMatch(MatchContext context) {
         return this;
     }
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> textList = new ArrayList<>();
+    public List<StyledText> toTextList() {
+        List<StyledText> textList = new ArrayList<>();
         if(!baseStr.isEmpty()) textList.add(ParseUtilities.newRegularText(baseStr));
         if(!subscriptStr.isEmpty()) textList.add(ParseUtilities.newSubscriptText(subscriptStr));
         return textList;
@@ -1,22 +1,23 @@
 package slapp.editor.parser.symbols;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.MatchContext;
 import slapp.editor.parser.TextMessageException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class MFunctionSymbol extends FunctionSymbol {
 
-    private static List<MFunctionSymbol> fnSymbols = new ArrayList<MFunctionSymbol>();
-    private FunctionSymbol matchFnSymbol = null;
+    private static List<MFunctionSymbol> fnSymbols = new CopyOnWriteArrayList<MFunctionSymbol>();
 
     private MFunctionSymbol(String baseStr, String subscriptStr, String superscriptStr, int places, boolean permitInfix) {
         super(baseStr, subscriptStr, superscriptStr, places, permitInfix);
         fnSymbols.add(this);
     }
 
-    public static MFunctionSymbol getInstance(String baseStr, String subscriptStr, String superscriptStr, int places, boolean permitInfix) {
+    public static synchronized MFunctionSymbol getInstance(String baseStr, String subscriptStr, String superscriptStr, int places, boolean permitInfix) {
         MFunctionSymbol fnSymbol = null;
         for (MFunctionSymbol symbol : fnSymbols) {
             if (symbol.getBaseStr().equals(baseStr) && symbol.getSubscriptStr().equals(subscriptStr) && symbol.getSuperscriptStr().equals(superscriptStr) && symbol.getPlaces() == places) {
@@ -32,37 +33,28 @@ public class MFunctionSymbol extends FunctionSymbol {
         return fnSymbols;
     }
 
-    public FunctionSymbol getMatchFnSymbol() {
-        return matchFnSymbol;
+    public FunctionSymbol getMatchFnSymbol(MatchContext context) {
+        return getMatch(context);
     }
 
     @Override
-    public FunctionSymbol getMatch() {return matchFnSymbol;}
+    public FunctionSymbol getMatch(MatchContext context) { return (FunctionSymbol) context.getBinding(this); }
 
-    public void setMatch(FunctionSymbol match) throws TextMessageException {
-        if (matchFnSymbol == null) { matchFnSymbol = match; }
+    public void setMatch(MatchContext context, FunctionSymbol match) throws TextMessageException {
+        FunctionSymbol matchFnSymbol = getMatch(context);
+        if (matchFnSymbol == null) { context.setBinding(this, match); }
         else if (!matchFnSymbol.equals(match)) {
-            List<Text> messageTxts = new ArrayList<>();
-            messageTxts.add(new Text("Meta variable "));
+            List<StyledText> messageTxts = new ArrayList<>();
+            messageTxts.add(new StyledText("Meta variable "));
             messageTxts.addAll(this.toTextList());
-            messageTxts.add(new Text(" cannot match to both "));
+            messageTxts.add(new StyledText(" cannot match to both "));
             messageTxts.addAll(matchFnSymbol.toTextList());
-            messageTxts.add(new Text(" and "));
+            messageTxts.add(new StyledText(" and "));
             messageTxts.addAll(match.toTextList());
-            messageTxts.add(new Text("."));
+            messageTxts.add(new StyledText("."));
             throw new TextMessageException(messageTxts);
         }
     }
 
-    public static void clear() {
-        for (MFunctionSymbol fnSymbol : fnSymbols) {
-            fnSymbol.clearMatch();
-        }
-    }
-
-    private void clearMatch() {
-        matchFnSymbol = null;
-    }
-
 
 }
@@ -1,22 +1,23 @@
 package slapp.editor.parser.symbols;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.MatchContext;
 import slapp.editor.parser.TextMessageException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class MRelationSymbol extends RelationSymbol {
 
-    private static List<MRelationSymbol> relSymbols = new ArrayList<MRelationSymbol>();
-    private RelationSymbol matchRelSymbol = null;
+    private static List<MRelationSymbol> relSymbols = new CopyOnWriteArrayList<MRelationSymbol>();
 
     private MRelationSymbol(String baseStr, String subscriptStr, String superscriptStr, int places) {
         super(baseStr, subscriptStr, superscriptStr, places);
         relSymbols.add(this);
     }
 
-    public static MRelationSymbol getInstance(String baseStr, String subscriptStr, String superscriptStr, int places) {
+    public static synchronized MRelationSymbol getInstance(String baseStr, String subscriptStr, String superscriptStr, int places) {
         MRelationSymbol relSym = null;
         for (MRelationSymbol sym : relSymbols) {
             if (sym.getBaseStr().equals(baseStr) && sym.getSubscriptStr().equals(subscriptStr) && sym.getSuperscriptStr().equals(superscriptStr) && sym.getPlaces() == places) {
@@ -33,31 +34,22 @@ public class MRelationSymbol extends RelationSymbol {
     }
 
     @Override
-    public RelationSymbol getMatch() {return matchRelSymbol;}
+    public RelationSymbol getMatch(MatchContext context) { return (RelationSymbol) context.getBinding(this); }
 
-    public void setMatch(RelationSymbol match) throws TextMessageException {
-        if (matchRelSymbol == null) { matchRelSymbol = match; }
+    public void setMatch(MatchContext context, RelationSymbol match) throws TextMessageException {
+        RelationSymbol matchRelSymbol = getMatch(context);
+        if (matchRelSymbol == null) { context.setBinding(this, match); }
         else if (!matchRelSymbol.equals(match)) {
-            List<Text> messageTxts = new ArrayList<>();
-            messageTxts.add(new Text("Meta variable "));
+            List<StyledText> messageTxts = new ArrayList<>();
+            messageTxts.add(new StyledText("Meta variable "));
             messageTxts.addAll(this.toTextList());
-            messageTxts.add(new Text(" cannot match to both "));
+            messageTxts.add(new StyledText(" cannot match to both "));
             messageTxts.addAll(matchRelSymbol.toTextList());
-            messageTxts.add(new Text(" and "));
+            messageTxts.add(new StyledText(" and "));
             messageTxts.addAll(match.toTextList());
-            messageTxts.add(new Text("."));
+            messageTxts.add(new StyledText("."));
             throw new TextMessageException(messageTxts);
         }
     }
 
-    public static void clear() {
-        for (MRelationSymbol sym : relSymbols) {
-            sym.clearMatch();
-        }
-    }
-
-    private void clearMatch() {
-        matchRelSymbol = null;
-    }
-
 }
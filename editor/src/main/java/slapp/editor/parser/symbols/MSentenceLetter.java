@@ -1,22 +1,23 @@
 package slapp.editor.parser.symbols;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.MatchContext;
 import slapp.editor.parser.TextMessageException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class MSentenceLetter extends SentenceLetter {
 
-    private static List<MSentenceLetter> sentenceLetters = new ArrayList<MSentenceLetter>();
-    private SentenceLetter matchLetter = null;
+    private static List<MSentenceLetter> sentenceLetters = new CopyOnWriteArrayList<MSentenceLetter>();
 
     private MSentenceLetter(String baseSymbol, String subscriptSymbol) {
         super(baseSymbol, subscriptSymbol);
         sentenceLetters.add(this);
     }
 
-    public static MSentenceLetter getInstance(String baseSymbol, String subscriptSymbol) {
+    public static synchronized MSentenceLetter getInstance(String baseSymbol, String subscriptSymbol) {
         MSentenceLetter let = null;
         for (MSentenceLetter sentenceLetter : sentenceLetters) {
             if (sentenceLetter.getBaseStr().equals(baseSymbol) && sentenceLetter.getSubscriptStr().equals(subscriptSymbol)) {
@@ -33,36 +34,27 @@ public class MSentenceLetter extends SentenceLetter {
         return sentenceLetters;
     }
 
-    public SentenceLetter getMatchLetter() {
-        return matchLetter;
+    public SentenceLetter getMatchLetter(MatchContext context) {
+        return getMatch(context);
     }
 
     @Override
-    public SentenceLetter getMatch() { return matchLetter; }
+    public SentenceLetter getMatch(MatchContext context) { return (SentenceLetter) context.getBinding(this); }
 
-    public void setMatch(SentenceLetter match) throws TextMessageException {
-        if (matchLetter == null) { matchLetter = match; }
+    public void setMatch(MatchContext context, SentenceLetter match) throws TextMessageException {
+        SentenceLetter matchLetter = getMatch(context);
+        if (matchLetter == null) { context.setBinding(this, match); }
         else if (!matchLetter.equals(match)) {
-            List<Text> messageTxts = new ArrayList<>();
-            messageTxts.add(new Text("Meta symbol "));
+            List<StyledText> messageTxts = new ArrayList<>();
+            messageTxts.add(new StyledText("Meta symbol "));
             messageTxts.addAll(this.toTextList());
-            messageTxts.add(new Text(" cannot match to both "));
+            messageTxts.add(new StyledText(" cannot match to both "));
             messageTxts.addAll(matchLetter.toTextList());
-            messageTxts.add(new Text(" and "));
+            messageTxts.add(new StyledText(" and "));
             messageTxts.addAll(match.toTextList());
-            messageTxts.add(new Text("."));
+            messageTxts.add(new StyledText("."));
             throw new TextMessageException(messageTxts);
         }
     }
 
-    public static void clear() {
-        for (MSentenceLetter sentenceLetter : sentenceLetters) {
-            sentenceLetter.clearMatch();
-        }
-    }
-
-    private void clearMatch() {
-        matchLetter = null;
-    }
-
 }
@@ -1,28 +1,27 @@
 package slapp.editor.parser.symbols;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.MatchContext;
 import slapp.editor.parser.TextMessageException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 
-//just one instance for each base/subscript combination
+//just one instance for each base/subscript combination; the match is in the MatchContext of a match (a variable that does not match is its own match)
 
 public class MVariable extends VariableSym {
 
-    private static List<MVariable> variables = new ArrayList<MVariable>();
-    private VariableSym matchVar;
+    private static List<MVariable> variables = new CopyOnWriteArrayList<MVariable>();
     private boolean matches;
 
     private MVariable(String baseSymbol, String subscriptStr, boolean matches) {
         super(baseSymbol, subscriptStr);
         variables.add(this);
         this.matches = matches;
-        if (matches) matchVar = null;
-        else matchVar = this;
     }
 
-    public static MVariable getInstance(String baseSymbol, String subscriptStr, boolean matches) {
+    public static synchronized MVariable getInstance(String baseSymbol, String subscriptStr, boolean matches) {
         MVariable mVar = null;
         for (MVariable var : variables) {
             if (var.getBaseStr().equals(baseSymbol) && var.getSubscriptStr().equals(subscriptStr)) {
@@ -35,41 +34,33 @@ public class MVariable extends VariableSym {
     }
 
     @Override
-    public VariableSym getMatch() {
-       return matchVar;
+    public VariableSym getMatch(MatchContext context) {
+       if (!matches) return this;
+       return (VariableSym) context.getBinding(this);
     }
 
-    public void setMatch (VariableSym match) throws TextMessageException {
+    public void setMatch(MatchContext context, VariableSym match) throws TextMessageException {
+        VariableSym matchVar = getMatch(context);
         if (matchVar == null) {
-            matchVar = match; }
+            context.setBinding(this, match); }
         else if (!matchVar.equals(match)) {
-            List<Text> messageTxts = new ArrayList<>();
-            messageTxts.add(new Text("Meta variable symbol"));
+            List<StyledText> messageTxts = new ArrayList<>();
+            messageTxts.add(new StyledText("Meta variable symbol"));
             messageTxts.addAll(this.toTextList());
-            messageTxts.add(new Text(" cannot match to both "));
+            messageTxts.add(new StyledText(" cannot match to both "));
             messageTxts.addAll(matchVar.toTextList());
-            messageTxts.add(new Text(" and "));
+            messageTxts.add(new StyledText(" and "));
             messageTxts.addAll(match.toTextList());
-            messageTxts.add(new Text("."));
+            messageTxts.add(new StyledText("."));
             throw new TextMessageException(messageTxts);
         }
     }
 
-    public static void clear() {
-        for (MVariable var : variables) {
-            var.clearMatch();
-        }
-    }
-
-    private void clearMatch() {
-        if (matches) matchVar = null;
-    }
-
     public static List<MVariable> getVariables() {
         return variables;
     }
 
-    public VariableSym getMatchVar() {
-        return matchVar;
+    public VariableSym getMatchVar(MatchContext context) {
+        return getMatch(context);
     }
 }
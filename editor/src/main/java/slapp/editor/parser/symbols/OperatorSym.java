@@ -1,7 +1,7 @@
 package slapp.editor.parser.symbols;
 
-import javafx.scene.text.Text;
-import javafx.scene.text.TextFlow;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.ExpressionType;
 
@@ -25,10 +25,10 @@ public class OperatorSym implements Expression {
     }
 
     @Override
-    public List<Text> toTextList() {
+    public List<StyledText> toTextList() {
         return null;
     }
 
     @Override
-    public Expression getMatch() {return null;}
+    public Expression getMatch(MatchContext context) {return null;}
 }
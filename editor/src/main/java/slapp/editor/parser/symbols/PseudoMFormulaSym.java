@@ -1,6 +1,7 @@
 package slapp.editor.parser.symbols;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.StyledText;
 import slapp.editor.parser.Expression;
 import slapp.editor.parser.ExpressionType;
 import slapp.editor.parser.ParseUtilities;
@@ -33,11 +34,11 @@ public PseudoMFormulaSym(String baseStr, String subscriptStr) {
     public ExpressionType getType() { return type; }
 
     @Override
-    public PseudoMFormulaSym getMatch() {return this;}
+    public PseudoMFormulaSym getMatch(MatchContext context) {return this;}
 
     @Override
-    public List<Text> toTextList() {
-        List<Text> textList = new ArrayList<>();
+    public List<StyledText> toTextList() {
+        List<StyledText> textList = new ArrayList<>();
         if (!baseStr.isEmpty()) textList.add(ParseUtilities.newRegularText(baseStr));
         if (!subscriptStr.isEmpty()) textList.add(ParseUtilities.newSubscriptText(subscriptStr));
         return textList;
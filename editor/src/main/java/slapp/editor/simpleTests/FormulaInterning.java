@@ -0,0 +1,138 @@
+package slapp.editor.simpleTests;
+
+import com.gluonhq.richtextarea.model.Document;
+import slapp.editor.derivation.EqualityClosure;
+import slapp.editor.parser.Expression;
+import slapp.editor.parser.Language;
+import slapp.editor.parser.Languages;
+import slapp.editor.parser.ParseUtilities;
+import slapp.editor.parser.grammatical_parts.ExpressionInterner;
+import slapp.editor.parser.grammatical_parts.Formula;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * Lookups of formulas in lists as contextual help makes them (run from main; not part of the application): the
+ * formulas of an equality closure in the language of arithmetic are parsed twice, and each formula of the second
+ * parse is looked up in the list of the first, with and without interning.  Reports the time of the lookups, the
+ * number of distinct hashes, and the heap taken by an interner table.
+ */
+public class FormulaInterning {
+
+    private static final String LANGUAGE = "ℒɴᴛ";
+    private static final String EQUALS = "  ";
+    private static final String LESS = "  ";
+    private static final String PLUS = "  ";
+    private static final int RUNS = 5;
+    private static final int LOOKUPS = 20;
+    private static final int TABLES = 100;
+
+    public static void main(String[] args) {
+        Language language = Languages.getLanguage(LANGUAGE);
+        Language metaLanguage = Languages.getLanguage("LM Meta");
+
+        List<Formula> closure = new ArrayList<>();
+        closure.add(parse("𝑎" + EQUALS + "𝑏"));
+        closure.add(parse("(((𝑎" + PLUS + "𝑎)" + PLUS + "𝑎)" + PLUS + "𝑎)" + LESS + "((𝑎" + PLUS + "𝑆𝑎)" + PLUS + "𝑎)"));
+        closure.add(parse("∀𝑥(𝑥" + LESS + "𝑎 → 𝑎" + LESS + "𝑥)"));
+        EqualityClosure equalityClosure = new EqualityClosure(language, metaLanguage);
+        equalityClosure.setLimits(5000, 10000);
+        equalityClosure.close(closure);
+
+        List<Formula> first = new ArrayList<>();
+        List<Formula> second = new ArrayList<>();
+        for (Formula formula : closure) {
+            first.add(parse(formula.toString()));
+            second.add(parse(formula.toString()));
+        }
+        Set<Integer> hashes = new HashSet<>();
+        for (Formula formula : first) hashes.add(formula.hashCode());
+        System.out.println(first.size() + " formulas, " + hashes.size() + " distinct hashes");
+
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            int found = 0;
+            for (int i = 0; i < LOOKUPS; i++) {
+                for (Formula formula : second) if (first.contains(formula)) found++;
+            }
+            long plainMicros = (System.nanoTime() - start) / 1000;
+
+            start = System.nanoTime();
+            ExpressionInterner interner = new ExpressionInterner();
+            List<Formula> interned = new ArrayList<>();
+            for (Formula formula : first) interned.add(interner.intern(formula));
+            for (int i = 0; i < second.size(); i++) second.set(i, interner.intern(second.get(i)));
+            long internMicros = (System.nanoTime() - start) / 1000;
+
+            start = System.nanoTime();
+            int internedFound = 0;
+            for (int i = 0; i < LOOKUPS; i++) {
+                for (Formula formula : second) if (interned.contains(interner.intern(formula))) internedFound++;
+            }
+            long internedMicros = (System.nanoTime() - start) / 1000;
+
+            System.out.println("found " + found + "/" + internedFound + ": plain " + plainMicros + " us, interned " + internedMicros + " us (interning " + internMicros +
+                    " us)");
+            parseAgain(first, second);
+        }
+
+        //interning shares no nodes, so the heap it takes is that of its tables
+        List<ExpressionInterner> interners = new ArrayList<>();
+        long heapBefore = usedHeap();
+        for (int i = 0; i < TABLES; i++) {
+            ExpressionInterner interner = new ExpressionInterner();
+            for (Formula formula : first) interner.intern(formula);
+            interners.add(interner);
+        }
+        long tableBytes = (usedHeap() - heapBefore) / TABLES;
+        System.out.println("table of " + interners.get(0).size() + " entries: about " + tableBytes + " bytes");
+
+        //formulas held elsewhere (as those of the parse cache) are interned by a copy, and are not themselves canonical
+        ExpressionInterner sharedInterner = new ExpressionInterner();
+        int copied = 0;
+        for (Formula formula : first) {
+            Formula canonical = sharedInterner.internShared(formula);
+            if (canonical != formula && canonical.equals(formula) && sharedInterner.intern(parse(formula.toString())) == canonical) copied++;
+        }
+        System.out.println("shared: " + copied + "/" + first.size() + " interned by copy");
+
+        //a change to the children of a formula interned by copy does not reach the canonical formula
+        int kept = 0;
+        for (Formula formula : first) {
+            Formula canonical = sharedInterner.internShared(formula);
+            int hash = canonical.hashCode();
+            String text = canonical.toString();
+            try {
+                formula.getChildren().set(0, null);
+            }
+            catch (UnsupportedOperationException e) {}   //a singleton list of parts cannot change
+            try {
+                if (canonical.toString().equals(text) && canonical.hashCode() == hash && sharedInterner.internShared(parse(text)) == canonical) kept++;
+            }
+            catch (NullPointerException e) {}
+        }
+        System.out.println("kept: " + kept + "/" + first.size() + " canonical formulas unchanged by their originals");
+    }
+
+    private static Formula parse(String text) {
+        List<Expression> expressions = ParseUtilities.parseDoc(new Document(text), LANGUAGE);
+        return (Formula) expressions.get(0);
+    }
+
+    //fresh copies for the next run, so that neither list carries the marks of the last interner
+    private static void parseAgain(List<Formula> first, List<Formula> second) {
+        for (int i = 0; i < first.size(); i++) {
+            first.set(i, parse(first.get(i).toString()));
+            second.set(i, parse(second.get(i).toString()));
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,69 @@
+package slapp.editor.simpleTests;
+
+import slapp.editor.parser.Pair;
+import slapp.editor.derivation.der_systems.DerivationRule;
+import slapp.editor.derivation.der_systems.DerivationRuleset;
+import slapp.editor.derivation.der_systems.DerivationRulesets;
+import slapp.editor.derivation.der_systems.JustificationDispatcher;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/*
+ * Time per justification lookup (run from main; not part of the application): a scan of the rules and dummy
+ * rules of each ruleset (ND, AD, ADq and the rest), as the check made them, against the dispatcher of the
+ * ruleset.  Reports any justification for which the two disagree.
+ */
+public class JustificationDispatch {
+
+    private static final int WARMUP = 20000;
+    private static final int RUNS = 100000;
+
+    private static final List<String> JUSTIFICATIONS = Arrays.asList("P", "prem", "1,2 →E", "2 →E", "3 ∧E", "3,4 ∧I",
+            "2-5 →I", "A (g, →I)", "A (c, ∼I)", "A (g, 3∨E)", "4 R", "1,3 ⊥I", "2-4 ∼E", "3 ∀E", "2 ∃I",
+            "1,3-6 ∃E", "=I", "2,3 =E", "A.4", "A4", "3 DM", "4 MT", "1,2 DS", "R2", "nonsense", "");
+
+    public static void main(String[] args) {
+        for (DerivationRuleset ruleset : DerivationRulesets.getRulesets()) {
+            JustificationDispatcher dispatcher = new JustificationDispatcher(ruleset, Collections.emptyList());
+
+            for (String justification : JUSTIFICATIONS) {
+                Object scanned = scan(ruleset, justification);
+                JustificationDispatcher.Dispatch dispatch = dispatcher.dispatch(justification);
+                Object dispatched = dispatch == null ? null : dispatch.isDummy() ? dispatch.getDummyMessage() : dispatch.getRule();
+                if (scanned != dispatched) System.out.println("disagree on '" + justification + "': " + scanned + " / " + dispatched);
+            }
+
+            for (int i = 0; i < WARMUP; i++) {
+                for (String justification : JUSTIFICATIONS) {
+                    scan(ruleset, justification);
+                    dispatcher.dispatch(justification);
+                }
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < RUNS; i++) {
+                for (String justification : JUSTIFICATIONS) scan(ruleset, justification);
+            }
+            long scanNanos = (System.nanoTime() - start) / ((long) RUNS * JUSTIFICATIONS.size());
+            start = System.nanoTime();
+            for (int i = 0; i < RUNS; i++) {
+                for (String justification : JUSTIFICATIONS) dispatcher.dispatch(justification);
+            }
+            long dispatchNanos = (System.nanoTime() - start) / ((long) RUNS * JUSTIFICATIONS.size());
+
+            System.out.println(ruleset.getName() + " (" + ruleset.getRules().size() + " rules): scan " + scanNanos + " ns, dispatch " + dispatchNanos + " ns per justification");
+        }
+    }
+
+    private static Object scan(DerivationRuleset ruleset, String justification) {
+        for (DerivationRule rule : ruleset.getRules()) {
+            if (rule.matches(justification)) return rule;
+        }
+        for (Pair<Pattern, String> dummyRule : ruleset.getDummyRules()) {
+            if (dummyRule.getKey().matcher(justification).matches()) return dummyRule.getValue();
+        }
+        return null;
+    }
+}
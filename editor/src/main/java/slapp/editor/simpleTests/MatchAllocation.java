@@ -0,0 +1,49 @@
+package slapp.editor.simpleTests;
+
+import com.gluonhq.richtextarea.model.Document;
+import slapp.editor.parser.MatchContext;
+import slapp.editor.parser.CompiledForm;
+import slapp.editor.parser.MatchUtilities;
+import slapp.editor.parser.TextMessageException;
+
+import java.lang.management.ManagementFactory;
+
+/*
+ * Rough allocation and time per justification check (run from main; not part of the application): the three
+ * form matches of a conditional exploit (𝒫 → 𝒬, 𝒫 / 𝒬) against fixed lines of Ls.
+ */
+public class MatchAllocation {
+
+    private static final int WARMUP = 20000;
+    private static final int RUNS = 50000;
+    private static final String META_LANG = "LM Meta";
+    private static final CompiledForm CONDITIONAL = CompiledForm.getInstance("(𝒫 → 𝒬)", META_LANG);
+    private static final CompiledForm ANTECEDENT = CompiledForm.getInstance("𝒫", META_LANG);
+    private static final CompiledForm CONSEQUENT = CompiledForm.getInstance("𝒬", META_LANG);
+
+    public static void main(String[] args) throws TextMessageException {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        String objLangName = "ℒ𝓈 (w/abv)";
+        Document inputDoc1 = new Document("((𝐴 ∧ 𝐵) → ∼(𝐶 ∨ 𝐴))");
+        Document inputDoc2 = new Document("(𝐴 ∧ 𝐵)");
+        Document lineDoc = new Document("∼(𝐶 ∨ 𝐴)");
+
+        for (int i = 0; i < WARMUP; i++) check(inputDoc1, inputDoc2, lineDoc, objLangName);
+        long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) check(inputDoc1, inputDoc2, lineDoc, objLangName);
+        long nanos = (System.nanoTime() - start) / RUNS;
+        long bytes = (threadBean.getThreadAllocatedBytes(threadId) - startBytes) / RUNS;
+
+        System.out.println("conditional exploit: " + bytes + " bytes, " + nanos + " ns per check");
+    }
+
+    private static void check(Document inputDoc1, Document inputDoc2, Document lineDoc, String objLangName) throws TextMessageException {
+        MatchContext context = new MatchContext();
+        MatchUtilities.simpleFormMatch(context, CONDITIONAL, inputDoc1, objLangName);
+        MatchUtilities.simpleFormMatch(context, ANTECEDENT, inputDoc2, objLangName);
+        MatchUtilities.simpleFormMatch(context, CONSEQUENT, lineDoc, objLangName);
+    }
+}
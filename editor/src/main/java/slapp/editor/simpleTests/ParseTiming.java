@@ -0,0 +1,45 @@
+package slapp.editor.simpleTests;
+
+import com.gluonhq.richtextarea.model.Document;
+import slapp.editor.parser.Expression;
+import slapp.editor.parser.OriginalElement;
+import slapp.editor.parser.ParseUtilities;
+import slapp.editor.parser.Parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Rough timing per character for Lq and Lnt (run from main; not part of the application): the term symbol
+ * pass alone, which is mostly classification of symbols, and the whole parse.
+ */
+public class ParseTiming {
+
+    private static final int WARMUP = 20000;
+    private static final int RUNS = 100000;
+
+    public static void main(String[] args) {
+        time("\u2112\ud835\udcc6", "\u2200\ud835\udc65(\ud835\udc34 \u2192 \u223c\ud835\udc65 \ue8ac \ud835\udc4e) \u2192 \u2200\ud835\udc66(\ud835\udc35 \u2192 \ud835\udc66 \ue8ac \ud835\udc4f)");
+        time("\u2112\u0274\u1d1b", "\u2200\ud835\udc65\u2200\ud835\udc66(\ud835\udc46\ud835\udc65 \ue8ac \ud835\udc46\ud835\udc66 \u2192 \ud835\udc65 \ue8ac \ud835\udc66)");
+    }
+
+    private static void time(String langName, String formula) {
+        Parser parser = new Parser(langName);
+        Document doc = new Document(formula);
+        List<OriginalElement> elements = ParseUtilities.getElements(doc);
+        int chars = formula.codePointCount(0, formula.length());
+
+        for (int i = 0; i < WARMUP; i++) parser.getTermSymbols(new ArrayList<Expression>(elements));
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) parser.getTermSymbols(new ArrayList<Expression>(elements));
+        double symbolNanos = (double) (System.nanoTime() - start) / RUNS / chars;
+
+        for (int i = 0; i < WARMUP; i++) parser.parse(doc);
+        start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) parser.parse(doc);
+        double parseNanos = (double) (System.nanoTime() - start) / RUNS / chars;
+
+        System.out.println(parser.getLanguage().getNameString() + ": term symbols " + String.format("%.1f", symbolNanos) +
+                " ns, parse " + String.format("%.1f", parseNanos) + " ns per character");
+    }
+}
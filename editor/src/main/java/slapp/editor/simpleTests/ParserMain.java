@@ -1,4 +1,4 @@
-package slapp.editor.parser;
+package slapp.editor.simpleTests;
 
 import com.gluonhq.richtextarea.RichTextArea;
 import com.gluonhq.richtextarea.model.Document;
@@ -11,10 +11,11 @@ import javafx.scene.text.TextFlow;
 import javafx.stage.Stage;
 import javafx.geometry.Insets;
 import javafx.scene.control.Button;
-import javafx.util.Pair;
 import slapp.editor.EditorAlerts;
+import slapp.editor.StyledTextNodes;
 import slapp.editor.decorated_rta.BoxedDRTA;
 import slapp.editor.decorated_rta.DecoratedRTA;
+import slapp.editor.parser.*;
 import slapp.editor.parser.grammatical_parts.Formula;
 
 import java.util.ArrayList;
@@ -74,62 +75,62 @@ public class ParserMain {
             rta.getActionFactory().saveNow().execute(new ActionEvent());
             Document doc0 = rta.getDocument();
 
-            List<Text> texts = new ArrayList<>();
+            List<StyledText> texts = new ArrayList<>();
 
 
             //to show parse contents
             List<Expression> parseExpressions = ParseUtilities.parseDoc(doc0, objectLangName);
             if (parseExpressions.size() == 0) {
-                texts.add(new Text("Empty"));
-                texts.add(new Text("\n"));
+                texts.add(new StyledText("Empty"));
+                texts.add(new StyledText("\n"));
             }
             else {
                 for (Expression expr : parseExpressions) {
-                    texts.add(new Text(expr.getType() + ": "));
+                    texts.add(new StyledText(expr.getType() + ": "));
                     texts.addAll(expr.toTextList());
-                    texts.add(new Text("\n"));
+                    texts.add(new StyledText("\n"));
                 }
             }
 
 
             //to show all elements
             List<Expression> all = SyntacticalFns.allElementsDoc(doc0, objectLangName);
-            texts.add(new Text("All Elements: "));
+            texts.add(new StyledText("All Elements: "));
             if (all != null && all.size() > 0) {
                 texts.addAll(all.get(0).toTextList());
                 for (int i = 1; i < all.size(); i++) {
-                    texts.add(new Text(", "));
+                    texts.add(new StyledText(", "));
                     texts.addAll(all.get(i).toTextList());
                 }
             }
-            texts.add(new Text("\n"));
+            texts.add(new StyledText("\n"));
 
 
             //to show subformulas
             List<Expression> subs = SyntacticalFns.subFormulasDoc(doc0, objectLangName);
-            texts.add(new Text("Subformulas: "));
+            texts.add(new StyledText("Subformulas: "));
             if (subs != null && subs.size() > 0) {
                 texts.addAll(subs.get(0).toTextList());
                 for (int i = 1; i < subs.size(); i++) {
-                    texts.add(new Text(", "));
+                    texts.add(new StyledText(", "));
                     texts.addAll(subs.get(i).toTextList());
                 }
             }
-            texts.add(new Text("\n"));
+            texts.add(new StyledText("\n"));
 
 
 /*
             //to show atomic subformulas
             List<Expression> atomics = SyntacticalFns.atomicSubformulas(doc0, langName);
-            texts.add(new Text("Atomic Subs: "));
+            texts.add(new StyledText("Atomic Subs: "));
             if (atomics != null && atomics.size() > 0) {
                 texts.addAll(atomics.get(0).toTextList());
                 for (int i = 1; i < atomics.size(); i++) {
-                    texts.add(new Text(", "));
+                    texts.add(new StyledText(", "));
                     texts.addAll(atomics.get(i).toTextList());
                 }
             }
-            texts.add(new Text("\n"));
+            texts.add(new StyledText("\n"));
 
 
 
@@ -137,51 +138,52 @@ public class ParserMain {
 
             //to show atomic level
             int level = SyntacticalFns.atomicLevel(doc0, langName);
-            texts.add(new Text("Atomic Level: "));
+            texts.add(new StyledText("Atomic Level: "));
             if (level >= 0) {
-                texts.add(new Text(String.valueOf(level)));
+                texts.add(new StyledText(String.valueOf(level)));
             }
-            texts.add(new Text("\n"));
+            texts.add(new StyledText("\n"));
             */
 
 
 
             //to show immediate subformulas
             List<Expression> immediateSubs = SyntacticalFns.immediateSubformulas(doc0, objectLangName);
-            texts.add(new Text("Immediate Subs: "));
+            texts.add(new StyledText("Immediate Subs: "));
             if (immediateSubs != null && immediateSubs.size() > 0) {
                 texts.addAll(immediateSubs.get(0).toTextList());
                 for (int i = 1; i < immediateSubs.size(); i++) {
-                    texts.add(new Text(", "));
+                    texts.add(new StyledText(", "));
                     texts.addAll(immediateSubs.get(i).toTextList());
                 }
             }
-            texts.add(new Text("\n"));
+            texts.add(new StyledText("\n"));
 
             //to show main operator
             Expression mainOp = SyntacticalFns.mainOperator(doc0, objectLangName);
-            texts.add(new Text("Main Operator: "));
+            texts.add(new StyledText("Main Operator: "));
             if (mainOp != null) {
                 texts.addAll(mainOp.toTextList());
             }
-            texts.add(new Text("\n"));
+            texts.add(new StyledText("\n"));
 
             /*
 
             //to show unabbreviation
             Expression unabb = SyntacticalFns.unabbreviate(doc0, langName);
-            texts.add(new Text("Unabb: "));
+            texts.add(new StyledText("Unabb: "));
             if (unabb != null) {
                 texts.addAll(unabb.toTextList());
             }
-            texts.add(new Text("\n"));
+            texts.add(new StyledText("\n"));
 
              */
 
 
             //to text flow and show
-            Text[] txt = new Text[texts.size()];
-            texts.toArray(txt);
+            List<Text> nodes = StyledTextNodes.toTextList(texts);
+            Text[] txt = new Text[nodes.size()];
+            nodes.toArray(txt);
             TextFlow textFlow = new TextFlow(txt);
             EditorAlerts.showSimpleTxtFlowAlert("Parser Content", textFlow);
         });
@@ -205,7 +207,7 @@ public class ParserMain {
 
 
            //to text flow and show
-            List<Text> resultTxts = result.toTextList();
+            List<Text> resultTxts = StyledTextNodes.toTextList(result.toTextList());
             Text[] resultArray = new Text[resultTxts.size()];
             resultTxts.toArray(resultArray);
             TextFlow textFlow = new TextFlow(resultArray);
@@ -255,16 +257,16 @@ public class ParserMain {
             Expression objectExp = null;
             List<Expression> metaExpressions = ParseUtilities.parseDoc(newDoc, metaLangName);
             //to show parse contents
-            List<Text> texts = new ArrayList<>();
+            List<StyledText> texts = new ArrayList<>();
             if (metaExpressions.size() == 0) {
-                texts.add(new Text("Empty"));
-                texts.add(new Text("\n"));
+                texts.add(new StyledText("Empty"));
+                texts.add(new StyledText("\n"));
             }
             else {
                 for (Expression expr : metaExpressions) {
-                    texts.add(new Text(expr.getType() + ": "));
+                    texts.add(new StyledText(expr.getType() + ": "));
                     texts.addAll(expr.toTextList());
-                    texts.add(new Text("\n"));
+                    texts.add(new StyledText("\n"));
                 }
             }
             EditorAlerts.showSimpleTxtListAlert("Meta Parse Content", texts);
@@ -277,16 +279,16 @@ public class ParserMain {
             }
 
             List<Expression> objectExps = ParseUtilities.parseDoc(newDoc2, objectLangName);
-            List<Text> oTexts = new ArrayList<>();
+            List<StyledText> oTexts = new ArrayList<>();
             if (objectExps.size() == 0) {
-                oTexts.add(new Text("Empty"));
-                oTexts.add(new Text("\n"));
+                oTexts.add(new StyledText("Empty"));
+                oTexts.add(new StyledText("\n"));
             }
             else {
                 for (Expression expr : objectExps) {
-                    oTexts.add(new Text(expr.getType() + ": "));
+                    oTexts.add(new StyledText(expr.getType() + ": "));
                     oTexts.addAll(expr.toTextList());
-                    oTexts.add(new Text("\n"));
+                    oTexts.add(new StyledText("\n"));
                 }
             }
             EditorAlerts.showSimpleTxtListAlert("Parse Content", oTexts);
@@ -300,9 +302,10 @@ public class ParserMain {
             }
 
             try {
-                Pair<Boolean, Boolean> matchResults =  MatchUtilities.formMatch(metaExp, objectExp, objectLangName, metaLangName);
+                MatchContext context = new MatchContext();
+                boolean formMatch = MatchUtilities.formMatch(context, metaExp, objectExp, objectLangName, metaLangName);
 
-                System.out.println("Form match: " + (matchResults).getKey() + " sub free for: " + (matchResults).getValue()  );
+                System.out.println("Form match: " + formMatch + " sub free for: " + context.isSubFreeFor()  );
 
             } catch (TextMessageException excep) {
                 EditorAlerts.showSimpleTxtListAlert("Map Issue", excep.getMessageList());
@@ -361,7 +364,7 @@ public class ParserMain {
 
             boolean good = false;
             try {
-                good = MatchUtilities.replacementCheck(f1, f2, s, t);
+                good = MatchUtilities.replacementCheck(new MatchContext(), f1, f2, s, t);
 
             } catch (TextMessageException excep) {
                 EditorAlerts.showSimpleTxtListAlert("Map Issue", excep.getMessageList());
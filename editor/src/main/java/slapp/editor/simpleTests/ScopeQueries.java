@@ -0,0 +1,141 @@
+package slapp.editor.simpleTests;
+
+import com.gluonhq.richtextarea.model.Document;
+import slapp.editor.derivation.CheckIssue;
+import slapp.editor.derivation.CheckLine;
+import slapp.editor.derivation.CheckSetup;
+import slapp.editor.derivation.LineType;
+import slapp.editor.derivation.ModelCheck;
+import slapp.editor.derivation.ModelLine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Time of accessibility and scope queries on a synthetic derivation of some 500 lines with nested subderivations
+ * (run from main; not part of the application): the queries of ModelCheck against scans of the lines and their
+ * assumption lists, as the check made them.  Reports any query for which the two disagree.
+ */
+public class ScopeQueries {
+
+    private static final int PREMISES = 10;
+    private static final int MAX_DEPTH = 6;
+
+    public static void main(String[] args) {
+        List<ModelLine> modelLines = new ArrayList<>();
+        for (int i = 0; i < PREMISES; i++) modelLines.add(new ModelLine(1, new Document("𝐴"), "P", LineType.PREMISE_LINE));
+        while (modelLines.size() < 490) {
+            addSubderivation(modelLines, 2);
+            modelLines.add(new ModelLine(1, new Document("𝐴"), "", LineType.MAIN_CONTENT_LINE));
+        }
+
+        ModelCheck modelCheck = ModelCheck.fromCheckSetup(new CheckSetup());
+        CheckIssue issue = modelCheck.check(CheckLine.getCheckLines(modelLines), false);
+        if (issue != null) {
+            System.out.println("check failed at line " + issue.getLineIndex() + ": " + issue.getPlainText());
+            return;
+        }
+        List<CheckLine> lines = new ArrayList<>();
+        for (CheckLine line : modelCheck.getCheckLines()) if (line.isContentLine()) lines.add(line);
+        List<CheckLine> assumptions = new ArrayList<>();
+        for (CheckLine line : lines) if (line.getJustification().startsWith("A")) assumptions.add(line);
+        System.out.println(lines.size() + " lines, " + assumptions.size() + " subderivations");
+
+        List<CheckLine> checkLines = modelCheck.getCheckLines();
+        int disagree = 0;
+        for (CheckLine justifier : lines) {
+            for (CheckLine candidate : lines) {
+                if (modelCheck.lineIsAccessibleTo(justifier, candidate).getKey() != scanIsAccessibleTo(checkLines, justifier, candidate)) disagree++;
+            }
+            if (modelCheck.lastLineAtScope(justifier) != scanLastLineAtScope(checkLines, justifier)) disagree++;
+        }
+        for (CheckLine assumption : assumptions) {
+            String lastLabel = modelCheck.lastLineAtScope(assumption).getLabel();
+            for (CheckLine candidate : lines) {
+                if (modelCheck.isAccessibleSubderivationFor(candidate, assumption.getLabel(), lastLabel).getKey() != scanIsAccessibleSubderivationFor(checkLines, candidate, assumption.getLabel(), lastLabel)) disagree++;
+            }
+        }
+        System.out.println(disagree + " queries disagree");
+
+        //time the queries a check makes of good lines: accessible lines and subderivations, and the scope of each line
+        List<CheckLine[]> linePairs = new ArrayList<>();
+        List<CheckLine[]> subderivationPairs = new ArrayList<>();
+        for (CheckLine justifier : lines) {
+            for (CheckLine candidate : lines) {
+                if (scanIsAccessibleTo(checkLines, justifier, candidate)) linePairs.add(new CheckLine[]{justifier, candidate});
+            }
+        }
+        for (CheckLine assumption : assumptions) {
+            CheckLine last = scanLastLineAtScope(checkLines, assumption);
+            for (CheckLine candidate : lines) {
+                if (scanIsAccessibleSubderivationFor(checkLines, candidate, assumption.getLabel(), last.getLabel())) subderivationPairs.add(new CheckLine[]{candidate, assumption, last});
+            }
+        }
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            for (CheckLine[] pair : linePairs) modelCheck.lineIsAccessibleTo(pair[0], pair[1]);
+            for (CheckLine line : lines) modelCheck.lastLineAtScope(line);
+            for (CheckLine[] triple : subderivationPairs) modelCheck.isAccessibleSubderivationFor(triple[0], triple[1].getLabel(), triple[2].getLabel());
+            long indexedMicros = (System.nanoTime() - start) / 1000;
+
+            start = System.nanoTime();
+            for (CheckLine[] pair : linePairs) scanIsAccessibleTo(checkLines, pair[0], pair[1]);
+            for (CheckLine line : lines) scanLastLineAtScope(checkLines, line);
+            for (CheckLine[] triple : subderivationPairs) scanIsAccessibleSubderivationFor(checkLines, triple[0], triple[1].getLabel(), triple[2].getLabel());
+            long scanMicros = (System.nanoTime() - start) / 1000;
+
+            System.out.println(linePairs.size() + " line and " + subderivationPairs.size() + " subderivation queries: indexed " + indexedMicros + " us, scan " + scanMicros + " us");
+        }
+    }
+
+    private static void addSubderivation(List<ModelLine> modelLines, int depth) {
+        modelLines.add(new ModelLine(depth, new Document("𝐴"), "A (g, →I)", LineType.MAIN_CONTENT_LINE));
+        for (int i = 0; i < 3; i++) {
+            modelLines.add(new ModelLine(depth, new Document("𝐴"), "", LineType.MAIN_CONTENT_LINE));
+            if (depth < MAX_DEPTH && i < 2) {
+                addSubderivation(modelLines, depth + 1);
+            }
+        }
+    }
+
+    //the queries as they were made on the lines, with line ordinals by indexOf and line labels by scan
+    private static boolean scanIsAccessibleTo(List<CheckLine> checkLines, CheckLine justifier, CheckLine candidate) {
+        if (checkLines.indexOf(candidate) <= checkLines.indexOf(justifier)) return false;
+        for (String label : justifier.getAssumptionList()) {
+            if (!candidate.getAssumptionList().contains(label)) return false;
+        }
+        return true;
+    }
+
+    private static CheckLine scanLastLineAtScope(List<CheckLine> checkLines, CheckLine startLine) {
+        CheckLine lastCandidate = startLine;
+        for (int i = checkLines.indexOf(startLine); i < checkLines.size(); i++) {
+            CheckLine line = checkLines.get(i);
+            if (line.realDepth() >= startLine.realDepth()) {
+                if (line.isContentLine()) lastCandidate = line;
+            }
+            else break;
+        }
+        return lastCandidate;
+    }
+
+    private static CheckLine scanLineFromLabel(List<CheckLine> checkLines, String label) {
+        for (CheckLine line : checkLines) {
+            if (line.isContentLine() && line.getLabel().equals(label)) return line;
+        }
+        return null;
+    }
+
+    private static boolean scanIsAccessibleSubderivationFor(List<CheckLine> checkLines, CheckLine line, String label1, String label2) {
+        CheckLine firstLine = scanLineFromLabel(checkLines, label1);
+        if (!scanLastLineAtScope(checkLines, firstLine).getLabel().equals(label2)) return false;
+        CheckLine lastLine = scanLineFromLabel(checkLines, label2);
+        int lineIndex = checkLines.indexOf(line);
+        if (lineIndex <= checkLines.indexOf(firstLine) || lineIndex <= checkLines.indexOf(lastLine)) return false;
+        List<String> lastLineAssps = lastLine.getAssumptionList();
+        for (int i = 0; i < lastLineAssps.size() - 1; i++) {
+            if (!line.getAssumptionList().contains(lastLineAssps.get(i))) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+package slapp.editor.simpleTests;
+
+import com.gluonhq.richtextarea.model.Document;
+import slapp.editor.parser.Expression;
+import slapp.editor.parser.ParseUtilities;
+import slapp.editor.parser.SyntacticalFns;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/*
+ * Time of substitution and free-for checks on conjunctions of quantified formulas (run from main; not part of the
+ * application): the term 𝑎 is replaced by 𝑥 in a formula with one instance of 𝑎 in its last conjunct.  Reports the
+ * times and the nodes of the result against the nodes it shares with the original.
+ */
+public class SubstitutionTiming {
+
+    private static final String LANGUAGE = "ℒ𝓆 (w/abv)";
+    private static final int MAX_CONJUNCTS = 256;
+    private static final int RUNS = 100;
+
+    public static void main(String[] args) {
+        Expression term1 = ParseUtilities.parseDoc(new Document("𝑎"), LANGUAGE).get(0);
+        Expression term2 = ParseUtilities.parseDoc(new Document("𝑥"), LANGUAGE).get(0);
+
+        for (int conjuncts = 4; conjuncts <= MAX_CONJUNCTS; conjuncts *= 4) {
+            Expression formula = ParseUtilities.parseDoc(new Document(conjunction(conjuncts)), LANGUAGE).get(0);
+
+            long start = System.nanoTime();
+            Expression substituted = null;
+            for (int run = 0; run < RUNS; run++) substituted = SyntacticalFns.substituteExpTerms(formula, term1, term2);
+            long substituteMicros = (System.nanoTime() - start) / (1000L * RUNS);
+
+            start = System.nanoTime();
+            boolean freeFor = false;
+            for (int run = 0; run < RUNS; run++) freeFor = SyntacticalFns.freeForExp(formula, term1, term2, LANGUAGE);
+            long freeForMicros = (System.nanoTime() - start) / (1000L * RUNS);
+
+            Set<Expression> original = Collections.newSetFromMap(new IdentityHashMap<>());
+            countNodes(formula, original);
+            Set<Expression> result = Collections.newSetFromMap(new IdentityHashMap<>());
+            long nodes = countNodes(substituted, result);
+            result.retainAll(original);
+            System.out.println(conjuncts + " conjuncts: substitute " + substituteMicros + " us, free for " + freeForMicros + " us (" + freeFor + "), " +
+                    nodes + " nodes, " + result.size() + " shared");
+        }
+    }
+
+    //(∀𝑦𝐺𝑦𝑦 ∧ (∀𝑦𝐺𝑦𝑦 ∧ ... ∃𝑧𝐺𝑧𝑎))
+    private static String conjunction(int conjuncts) {
+        if (conjuncts == 1) return "∃𝑧𝐺𝑧𝑎";
+        return "(∀𝑦𝐺𝑦𝑦 ∧ " + conjunction(conjuncts - 1) + ")";
+    }
+
+    private static long countNodes(Expression expression, Set<Expression> distinct) {
+        distinct.add(expression);
+        long nodes = 1;
+        if (expression.getChildren() != null && expression.getLevel() > 0) {
+            for (Expression child : expression.getChildren()) nodes += countNodes(child, distinct);
+        }
+        return nodes;
+    }
+}
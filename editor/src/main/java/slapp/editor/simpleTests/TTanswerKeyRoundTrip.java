@@ -0,0 +1,201 @@
+package slapp.editor.simpleTests;
+
+import com.gluonhq.richtextarea.model.Document;
+import slapp.editor.parser.grammatical_parts.Formula;
+import slapp.editor.truth_table.TTanswerKey;
+import slapp.editor.truth_table.TTcheckSetup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/*
+ * Round trip of the stored truth table answer key (run from main; not part of the application): keys are computed for
+ * random exercises of 1 to 4 main formulas (some empty) on up to 8 basic formulas, and compared with the row by row
+ * reference of TTreference for the columns of each main formula and for validity.  The key is then saved with a check
+ * setup and read back, and rebuilt by TTanswerKey.fromTable from a table laid out as the exercise, and each must give
+ * the same key.  Also checks the content hash against a changed formula and the subformula counts, and that an
+ * exercise with too many basic formulas or a formula that does not parse has no key.
+ */
+public class TTanswerKeyRoundTrip {
+
+    private static final int EXERCISES = 2000;
+    private static final int DEPTH = 4;
+
+    private static final Random random = new Random(25);
+    private static int differences = 0;
+
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        int keys = 0;
+        int valid = 0;
+        long computeNanos = 0;
+        for (int e = 0; e < EXERCISES; e++) {
+            int letters = 1 + random.nextInt(TTanswerKey.MAX_BASIC_FORMULAS);
+            List<Document> docs = new ArrayList<>();
+            int mains = 1 + random.nextInt(4);
+            for (int i = 0; i < mains; i++) {
+                docs.add(new Document(random.nextInt(8) == 0 && i < mains - 1 ? "" : TTreference.randomFormula(random, DEPTH, letters)));
+            }
+
+            long start = System.nanoTime();
+            TTanswerKey key = TTanswerKey.compute(TTreference.LANGUAGE, docs);
+            computeNanos += System.nanoTime() - start;
+            if (key == null) {
+                report("no key", docs);
+                continue;
+            }
+            keys++;
+            if (key.isValid()) valid++;
+
+            Reference reference = new Reference(docs);
+            compare("computed", key, reference, docs);
+            compare("read back", readBack(key), reference, docs);
+            compare("from table", fromTable(key, reference), reference, docs);
+
+            List<Document> changed = new ArrayList<>(docs);
+            changed.set(mains - 1, new Document("\u223c" + docs.get(mains - 1).getText()));
+            if (key.matches(TTanswerKey.contentHash(TTreference.LANGUAGE, reference.basicStrings, changed))) report("matches changed content", docs);
+            int[] counts = reference.counts();
+            counts[0]++;
+            if (key.fits(counts)) report("fits changed counts", docs);
+        }
+
+        List<Document> tooMany = new ArrayList<>();
+        StringBuilder sb = new StringBuilder(TTreference.letter(0));
+        for (int k = 1; k <= TTanswerKey.MAX_BASIC_FORMULAS; k++) sb.insert(0, "(").append(" \u2227 ").append(TTreference.letter(k)).append(")");
+        tooMany.add(new Document(sb.toString()));
+        if (TTanswerKey.compute(TTreference.LANGUAGE, tooMany) != null) report("key with too many basic formulas", tooMany);
+        List<Document> broken = List.of(new Document("(" + TTreference.letter(0) + " \u2227"));
+        if (TTanswerKey.compute(TTreference.LANGUAGE, broken) != null) report("key for unparsed formula", broken);
+
+        System.out.println(keys + " keys (" + valid + " valid), compute " + String.format("%.1f", (double) computeNanos / EXERCISES / 1000) + " us per exercise; " +
+                (differences == 0 ? "no differences." : differences + " difference(s)."));
+    }
+
+    private static void compare(String way, TTanswerKey key, Reference reference, List<Document> docs) {
+        if (!key.matches(TTanswerKey.contentHash(TTreference.LANGUAGE, reference.basicStrings, docs))) report(way + ": hash", docs);
+        if (!key.fits(reference.counts())) {
+            report(way + ": counts", docs);
+            return;
+        }
+        for (int i = 0; i < reference.columns.size(); i++) {
+            for (int t = 0; t < reference.columns.get(i).size(); t++) {
+                if (!Arrays.equals(key.getColumn(i, t), reference.columns.get(i).get(t))) report(way + ": column " + t + " of formula " + i, docs);
+            }
+        }
+        if (key.isValid() != reference.valid) report(way + ": validity " + key.isValid(), docs);
+    }
+
+    //the key saved with a check setup and read back
+    private static TTanswerKey readBack(TTanswerKey key) throws IOException, ClassNotFoundException {
+        TTcheckSetup setup = new TTcheckSetup();
+        setup.setAnswerKey(key);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(setup);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return ((TTcheckSetup) in.readObject()).getAnswerKey();
+        }
+    }
+
+    //the key from a table with the columns of each main formula followed by a blank column
+    private static TTanswerKey fromTable(TTanswerKey key, Reference reference) {
+        List<long[]> tableKey = new ArrayList<>();
+        List<Integer> mainFormulaCols = new ArrayList<>();
+        int[] counts = reference.counts();
+        int[] mainFormulaColumns = new int[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            mainFormulaCols.add(tableKey.size());
+            mainFormulaColumns[i] = reference.wholeOffsets.get(i) < 0 ? -1 : tableKey.size() + reference.wholeOffsets.get(i);
+            for (int t = 0; t < counts[i]; t++) tableKey.add(key.getColumn(i, t));
+            tableKey.add(null);
+        }
+        return TTanswerKey.fromTable(TTanswerKey.contentHash(TTreference.LANGUAGE, reference.basicStrings, reference.docs), tableKey.toArray(new long[0][]),
+                mainFormulaCols, counts, mainFormulaColumns, 1 << reference.basics.length);
+    }
+
+    /*
+     * Columns and validity for an exercise by the row by row reference, on the basic formulas in alphanumeric order and
+     * the subformulas of each main formula in table order (left part, formula, right part)
+     */
+    private static class Reference {
+        final List<Document> docs;
+        final List<List<long[]>> columns = new ArrayList<>();
+        final List<Integer> wholeOffsets = new ArrayList<>();
+        final List<String> basicStrings;
+        final Formula[] basics;
+        final boolean valid;
+
+        Reference(List<Document> docs) {
+            this.docs = docs;
+            List<Formula> mains = new ArrayList<>();
+            List<List<Formula>> subLists = new ArrayList<>();
+            TreeSet<String> basicSet = new TreeSet<>();
+            for (Document doc : docs) {
+                List<Formula> subs = new ArrayList<>();
+                Formula main = doc.getText().isEmpty() ? null : TTreference.parse(doc.getText());
+                if (main != null) addSubformulas(main, subs, basicSet);
+                mains.add(main);
+                subLists.add(subs);
+            }
+            basicStrings = new ArrayList<>(basicSet);
+            basics = new Formula[basicStrings.size()];
+            for (int k = 0; k < basics.length; k++) basics[k] = TTreference.parse(basicStrings.get(k));
+
+            List<long[]> wholes = new ArrayList<>();
+            for (int i = 0; i < mains.size(); i++) {
+                List<long[]> mainColumns = new ArrayList<>();
+                for (Formula sub : subLists.get(i)) mainColumns.add(TTreference.column(sub, basics));
+                columns.add(mainColumns);
+                wholeOffsets.add(mains.get(i) == null ? -1 : subLists.get(i).indexOf(mains.get(i)));
+                wholes.add(mains.get(i) == null ? null : TTreference.column(mains.get(i), basics));
+            }
+
+            boolean argumentValid = true;
+            long[] conclusion = wholes.get(wholes.size() - 1);
+            for (int r = 0; r < (1 << basics.length) && argumentValid && conclusion != null; r++) {
+                boolean premisesTrue = true;
+                for (int i = 0; i < wholes.size() - 1; i++) {
+                    if (wholes.get(i) != null && (wholes.get(i)[r >>> 6] & (1L << r)) == 0) premisesTrue = false;
+                }
+                if (premisesTrue && (conclusion[r >>> 6] & (1L << r)) == 0) argumentValid = false;
+            }
+            valid = argumentValid;
+        }
+
+        int[] counts() {
+            int[] counts = new int[columns.size()];
+            for (int i = 0; i < counts.length; i++) counts[i] = columns.get(i).size();
+            return counts;
+        }
+
+        private static void addSubformulas(Formula formula, List<Formula> subs, TreeSet<String> basicSet) {
+            if (formula.getMainOperator() == null) {
+                subs.add(formula);
+                basicSet.add(formula.toString());
+                return;
+            }
+            if (formula.getChildren().size() == 2) addSubformulas((Formula) formula.getChildren().get(0), subs, basicSet);
+            subs.add(formula);
+            if (formula.getChildren().size() == 1) addSubformulas((Formula) formula.getChildren().get(0), subs, basicSet);
+            else addSubformulas((Formula) formula.getChildren().get(1), subs, basicSet);
+        }
+    }
+
+    private static void report(String message, List<Document> docs) {
+        differences++;
+        if (differences <= 20) {
+            List<String> texts = new ArrayList<>();
+            for (Document doc : docs) texts.add(doc.getText());
+            System.out.println("Difference (" + message + ") for " + texts);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package slapp.editor.simpleTests;
+
+import slapp.editor.parser.Expression;
+import slapp.editor.parser.grammatical_parts.Formula;
+import slapp.editor.truth_table.TTdag;
+import slapp.editor.truth_table.TTevaluator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/*
+ * Differential check of the subformula DAG (run from main; not part of the application): tables of 1 to 5 random
+ * formulas on 1 to 10 basic formulas are built from a small pool of shared parts, so that subformulas repeat within and
+ * across formulas.  Every subformula is added to a TTdag, reading columns after each formula or only at the end, and
+ * its column is compared with its own TTevaluator column.  Also checks one node for each distinct subformula, basic
+ * nodes, parts numbered before wholes, and that a formula off the basic formulas leaves earlier nodes in place.
+ * Reports the time of the DAG against evaluating each subformula alone.
+ */
+public class TTdagDiff {
+
+    private static final int TABLES_PER_SIZE = 200;
+    private static final int MAX_LETTERS = 10;
+    private static final int POOL = 6;
+    private static final int DEPTH = 4;
+
+    private static final Random random = new Random(24);
+    private static int differences = 0;
+
+    public static void main(String[] args) {
+        int subformulas = 0;
+        int nodes = 0;
+        for (int letters = 1; letters <= MAX_LETTERS; letters++) {
+            Formula[] basics = TTreference.basics(letters);
+            TTevaluator evaluator = new TTevaluator(basics);
+            long dagNanos = 0;
+            long aloneNanos = 0;
+            for (int t = 0; t < TABLES_PER_SIZE; t++) {
+                List<String> pool = new ArrayList<>();
+                for (int i = 0; i < POOL; i++) pool.add(TTreference.randomFormula(random, 2, letters));
+                List<Formula> formulas = new ArrayList<>();
+                int size = 1 + random.nextInt(5);
+                for (int i = 0; i < size; i++) formulas.add(TTreference.parse(compose(pool, DEPTH)));
+
+                List<Formula> subs = new ArrayList<>();
+                for (Formula formula : formulas) addSubformulas(formula, subs);
+                subformulas += subs.size();
+
+                long start = System.nanoTime();
+                TTdag dag = new TTdag(evaluator);
+                boolean eager = t % 2 == 0;
+                for (Formula formula : formulas) {
+                    dag.add(formula);
+                    if (eager) dag.column(formula);
+                }
+                for (Formula sub : subs) dag.column(sub);
+                dagNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                List<long[]> alone = new ArrayList<>();
+                for (Formula sub : subs) alone.add(evaluator.evaluate(sub));
+                aloneNanos += System.nanoTime() - start;
+
+                nodes += dag.getNodes();
+                check(dag, subs, alone, formulas);
+                checkFailedAdd(dag, subs, alone, letters);
+            }
+            System.out.println(letters + " basic formulas: DAG " + String.format("%.1f", (double) dagNanos / TABLES_PER_SIZE / 1000) +
+                    " us, each alone " + String.format("%.1f", (double) aloneNanos / TABLES_PER_SIZE / 1000) + " us per table");
+        }
+        System.out.println(subformulas + " subformulas on " + nodes + " nodes; " + (differences == 0 ? "no differences." : differences + " difference(s)."));
+    }
+
+    private static void check(TTdag dag, List<Formula> subs, List<long[]> alone, List<Formula> formulas) {
+        Set<String> distinct = new HashSet<>();
+        for (int i = 0; i < subs.size(); i++) {
+            Formula sub = subs.get(i);
+            distinct.add(sub.toString());
+            int node = dag.nodeOf(sub);
+            if (node < 0) {
+                report("no node for " + sub, formulas);
+                continue;
+            }
+            if (!Arrays.equals(dag.column(node), alone.get(i))) report("column of " + sub, formulas);
+            if (dag.isBasicNode(node) != (sub.getMainOperator() == null)) report("basic node " + sub, formulas);
+            if (sub.getMainOperator() != null) {
+                for (Expression child : sub.getChildren()) {
+                    if (dag.nodeOf((Formula) child) >= node) report("part " + child + " numbered after " + sub, formulas);
+                }
+            }
+        }
+        if (distinct.size() != dag.getNodes()) report(dag.getNodes() + " nodes for " + distinct.size() + " distinct subformulas", formulas);
+    }
+
+    //a formula on a letter off the basic formulas is refused, and the nodes before it keep their columns
+    private static void checkFailedAdd(TTdag dag, List<Formula> subs, List<long[]> alone, int letters) {
+        int before = dag.getNodes();
+        Formula bad = TTreference.parse("(" + subs.get(0) + " \u2227 " + TTreference.letter(letters) + ")");
+        try {
+            dag.add(bad);
+            report("no exception", List.of(bad));
+        }
+        catch (IllegalArgumentException e) {
+            if (dag.nodeOf(bad) >= 0) report("node for refused formula", List.of(bad));
+        }
+        if (dag.getNodes() < before) report("nodes lost", List.of(bad));
+        for (int i = 0; i < subs.size(); i++) {
+            if (!Arrays.equals(dag.column(subs.get(i)), alone.get(i))) {
+                report("column after refused formula", List.of(bad));
+                break;
+            }
+        }
+    }
+
+    //random formula with parts from the pool
+    private static String compose(List<String> pool, int depth) {
+        if (depth == 0 || random.nextInt(4) == 0) return pool.get(random.nextInt(pool.size()));
+        if (random.nextInt(4) == 0) return "\u223c" + compose(pool, depth - 1);
+        String[] binaries = {"\u2192", "\u2227", "\u2228", "\u2194"};
+        return "(" + compose(pool, depth - 1) + " " + binaries[random.nextInt(binaries.length)] + " " + compose(pool, depth - 1) + ")";
+    }
+
+    private static void addSubformulas(Formula formula, List<Formula> subs) {
+        subs.add(formula);
+        if (formula.getMainOperator() == null) return;
+        for (Expression child : formula.getChildren()) addSubformulas((Formula) child, subs);
+    }
+
+    private static void report(String message, List<Formula> formulas) {
+        differences++;
+        if (differences <= 20) System.out.println("Difference (" + message + ") for " + formulas);
+    }
+}
@@ -0,0 +1,72 @@
+package slapp.editor.simpleTests;
+
+import slapp.editor.parser.grammatical_parts.Formula;
+import slapp.editor.truth_table.TTevaluator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+ * Differential check of bit-parallel truth table evaluation (run from main; not part of the application): random
+ * formulas on 1 to 12 basic formulas (so that columns run from part of a word to 64 words) are evaluated by TTevaluator,
+ * and every step of the compiled program is compared with the row by row reference evaluation of TTreference, along
+ * with the table order of the basic columns and the clear bits past the last row.  Reports the time of each way.
+ */
+public class TTevaluatorDiff {
+
+    private static final int FORMULAS_PER_SIZE = 300;
+    private static final int MAX_LETTERS = 12;
+    private static final int DEPTH = 6;
+
+    public static void main(String[] args) {
+        Random random = new Random(21);
+        int differences = 0;
+        int steps = 0;
+        for (int letters = 1; letters <= MAX_LETTERS; letters++) {
+            Formula[] basics = TTreference.basics(letters);
+            TTevaluator evaluator = new TTevaluator(basics);
+
+            for (int k = 0; k < letters; k++) {
+                if (!Arrays.equals(evaluator.basicColumn(k), TTreference.column(basics[k], basics))) {
+                    differences++;
+                    System.out.println("Basic column " + k + " of " + letters + " differs");
+                }
+            }
+
+            long evaluatorNanos = 0;
+            long referenceNanos = 0;
+            for (int i = 0; i < FORMULAS_PER_SIZE; i++) {
+                Formula formula = TTreference.parse(TTreference.randomFormula(random, DEPTH, letters));
+
+                long start = System.nanoTime();
+                TTevaluator.Program program = evaluator.compile(formula);
+                long[][] columns = evaluator.evaluate(program);
+                evaluatorNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                long[] reference = TTreference.column(formula, basics);
+                referenceNanos += System.nanoTime() - start;
+
+                if (!Arrays.equals(columns[columns.length - 1], reference) || !Arrays.equals(evaluator.evaluate(formula), reference)) {
+                    differences++;
+                    if (differences <= 20) System.out.println("Column differs for " + formula + " on " + letters + " basic formulas");
+                }
+                for (int s = 0; s < program.getSteps(); s++) {
+                    steps++;
+                    if (!Arrays.equals(columns[s], TTreference.column(program.getNode(s), basics))) {
+                        differences++;
+                        if (differences <= 20) System.out.println("Step " + s + " (" + program.getNode(s) + ") differs in " + formula);
+                    }
+                    if (program.stepOf(program.getNode(s)) != s) {
+                        differences++;
+                        if (differences <= 20) System.out.println("Step of node " + program.getNode(s) + " is not " + s);
+                    }
+                }
+            }
+            System.out.println(letters + " basic formulas (" + evaluator.getRows() + " rows): evaluator " +
+                    String.format("%.1f", (double) evaluatorNanos / FORMULAS_PER_SIZE / 1000) + " us, reference " +
+                    String.format("%.1f", (double) referenceNanos / FORMULAS_PER_SIZE / 1000) + " us per formula");
+        }
+        System.out.println(steps + " steps compared; " + (differences == 0 ? "no differences." : differences + " difference(s)."));
+    }
+}
@@ -0,0 +1,79 @@
+package slapp.editor.simpleTests;
+
+import com.gluonhq.richtextarea.model.Document;
+import slapp.editor.parser.Expression;
+import slapp.editor.parser.Parser;
+import slapp.editor.parser.grammatical_parts.*;
+
+import java.util.List;
+import java.util.Random;
+
+/*
+ * Random sentential formulas and a row by row reference evaluation for the truth table harnesses (TTevaluatorDiff,
+ * TTsolverDiff, TTdagDiff, TTanswerKeyRoundTrip).  The reference reads the table order from the TTevaluator doc: on
+ * row r, basic formula k of n is T just in case bit (n - 1 - k) of r is 0.
+ */
+class TTreference {
+
+    static final String LANGUAGE = "\u2112\ud835\udcc8 (w/abv)";
+
+    private static final String[] BINARIES = {"\u2192", "\u2227", "\u2228", "\u2194"};
+    private static final String NEGATION = "\u223c";
+    private static final Parser parser = new Parser(LANGUAGE);
+
+    private TTreference() {}
+
+    //italic capital letter (A is U+1D434)
+    static String letter(int index) {
+        return new String(Character.toChars(0x1d434 + index));
+    }
+
+    //random fully bracketed formula of at most depth on the first letters letters
+    static String randomFormula(Random random, int depth, int letters) {
+        if (depth == 0 || random.nextInt(6) == 0) return letter(random.nextInt(letters));
+        if (random.nextInt(4) == 0) return NEGATION + randomFormula(random, depth - 1, letters);
+        return "(" + randomFormula(random, depth - 1, letters) + " " + BINARIES[random.nextInt(BINARIES.length)] + " " +
+                randomFormula(random, depth - 1, letters) + ")";
+    }
+
+    static Formula parse(String string) {
+        List<Expression> expressions = parser.parse(new Document(string)).getExpressions();
+        if (expressions.size() != 1 || !(expressions.get(0) instanceof Formula)) throw new IllegalStateException("Not a formula: " + string);
+        return (Formula) expressions.get(0);
+    }
+
+    //the first letters letters as formulas, in table order
+    static Formula[] basics(int letters) {
+        Formula[] basics = new Formula[letters];
+        for (int i = 0; i < letters; i++) basics[i] = parse(letter(i));
+        return basics;
+    }
+
+    static boolean value(Formula formula, Formula[] basics, long row) {
+        Operator operator = formula.getMainOperator();
+        if (operator == null) {
+            for (int k = 0; k < basics.length; k++) {
+                if (basics[k].toString().equals(formula.toString())) return ((row >>> (basics.length - 1 - k)) & 1) == 0;
+            }
+            throw new IllegalArgumentException("Not a basic formula: " + formula);
+        }
+        boolean left = value((Formula) formula.getChildren().get(0), basics, row);
+        if (operator instanceof NegationOp) return !left;
+        boolean right = value((Formula) formula.getChildren().get(1), basics, row);
+        if (operator instanceof ConditionalOp) return !left || right;
+        if (operator instanceof ConjunctionOp) return left && right;
+        if (operator instanceof DisjunctionOp) return left || right;
+        if (operator instanceof BiconditionalOp) return left == right;
+        throw new IllegalArgumentException("Not a connective: " + operator);
+    }
+
+    //packed column (bit r % 64 of word r / 64 set for T) of formula by evaluation on each row
+    static long[] column(Formula formula, Formula[] basics) {
+        int rows = 1 << basics.length;
+        long[] column = new long[(rows + 63) >>> 6];
+        for (int r = 0; r < rows; r++) {
+            if (value(formula, basics, r)) column[r >>> 6] |= 1L << r;
+        }
+        return column;
+    }
+}
@@ -0,0 +1,195 @@
+package slapp.editor.simpleTests;
+
+import slapp.editor.parser.grammatical_parts.Formula;
+import slapp.editor.truth_table.TTevaluator;
+import slapp.editor.truth_table.TTsolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * Differential check of the clause learning solver (run from main; not part of the application): validity,
+ * consistency and equivalence of random formulas on 1 to 12 basic formulas are decided by TTsolver and from the full
+ * table of TTevaluator columns, and each row the solver finds is checked on the table.  Some conclusions are made
+ * tautologies and some second formulas equivalent to the first, so that every answer comes up.  Then the two ways are
+ * timed on arguments with 12 to 20 basic formulas.
+ */
+public class TTsolverDiff {
+
+    private static final int QUERIES_PER_SIZE = 300;
+    private static final int MAX_LETTERS = 12;
+    private static final int DEPTH = 5;
+    private static final int[] TIMED_LETTERS = {12, 14, 16, 18, 20};
+    private static final int TIMED_ARGUMENTS = 20;
+
+    private static final Random random = new Random(22);
+    private static int differences = 0;
+    private static final int[] counts = new int[6];
+
+    public static void main(String[] args) {
+        for (int letters = 1; letters <= MAX_LETTERS; letters++) {
+            Formula[] basics = TTreference.basics(letters);
+            TTevaluator evaluator = new TTevaluator(basics);
+            TTsolver solver = new TTsolver(basics);
+            for (int i = 0; i < QUERIES_PER_SIZE; i++) {
+                checkValidity(evaluator, solver, randomArgument(letters));
+                checkConsistency(evaluator, solver, randomFormulas(1 + random.nextInt(4), letters));
+                checkEquivalence(evaluator, solver, letters);
+            }
+        }
+        System.out.println("valid " + counts[0] + ", invalid " + counts[1] + ", consistent " + counts[2] + ", inconsistent " + counts[3] +
+                ", equivalent " + counts[4] + ", not equivalent " + counts[5]);
+        System.out.println(differences == 0 ? "No differences." : differences + " difference(s).");
+
+        for (int letters : TIMED_LETTERS) time(letters);
+    }
+
+    private static void checkValidity(TTevaluator evaluator, TTsolver solver, List<Formula> argument) {
+        List<Formula> premises = argument.subList(0, argument.size() - 1);
+        Formula conclusion = argument.get(argument.size() - 1);
+        List<long[]> columns = new ArrayList<>();
+        for (Formula formula : argument) columns.add(evaluator.evaluate(formula));
+        int tableRow = -1;
+        for (int r = 0; r < evaluator.getRows() && tableRow < 0; r++) {
+            if (allTrue(columns.subList(0, premises.size()), r) && !TTevaluator.value(columns.get(premises.size()), r)) tableRow = r;
+        }
+
+        TTsolver.Result result = solver.counterexample(premises, conclusion);
+        counts[result.isFound() ? 1 : 0]++;
+        if (result.isFound() != (tableRow >= 0)) {
+            report("validity " + !result.isFound() + " for table " + (tableRow < 0), argument);
+        }
+        else if (result.isFound()) {
+            int row = checkedRow(result, evaluator, argument);
+            if (row >= 0 && !(allTrue(columns.subList(0, premises.size()), row) && !TTevaluator.value(columns.get(premises.size()), row))) {
+                report("counterexample row " + row + " is not one", argument);
+            }
+        }
+    }
+
+    private static void checkConsistency(TTevaluator evaluator, TTsolver solver, List<Formula> formulas) {
+        List<long[]> columns = new ArrayList<>();
+        for (Formula formula : formulas) columns.add(evaluator.evaluate(formula));
+        boolean tableConsistent = false;
+        for (int r = 0; r < evaluator.getRows() && !tableConsistent; r++) tableConsistent = allTrue(columns, r);
+
+        TTsolver.Result result = solver.consistent(formulas);
+        counts[result.isFound() ? 2 : 3]++;
+        if (result.isFound() != tableConsistent) {
+            report("consistency " + result.isFound() + " for table " + tableConsistent, formulas);
+        }
+        else if (result.isFound()) {
+            int row = checkedRow(result, evaluator, formulas);
+            if (row >= 0 && !allTrue(columns, row)) report("consistent row " + row + " is not one", formulas);
+        }
+    }
+
+    private static void checkEquivalence(TTevaluator evaluator, TTsolver solver, int letters) {
+        String string1 = TTreference.randomFormula(random, DEPTH, letters);
+        String string2;
+        switch (random.nextInt(3)) {
+            case 0: string2 = "\u223c\u223c" + string1; break;
+            case 1: string2 = "(" + string1 + " \u2227 (" + TTreference.letter(0) + " \u2228 \u223c" + TTreference.letter(0) + "))"; break;
+            default: string2 = TTreference.randomFormula(random, DEPTH, letters);
+        }
+        List<Formula> pair = new ArrayList<>();
+        pair.add(TTreference.parse(string1));
+        pair.add(TTreference.parse(string2));
+        long[] column1 = evaluator.evaluate(pair.get(0));
+        long[] column2 = evaluator.evaluate(pair.get(1));
+        boolean tableEquivalent = true;
+        for (int r = 0; r < evaluator.getRows() && tableEquivalent; r++) tableEquivalent = TTevaluator.value(column1, r) == TTevaluator.value(column2, r);
+
+        TTsolver.Result result = solver.difference(pair.get(0), pair.get(1));
+        counts[result.isFound() ? 5 : 4]++;
+        if (result.isFound() == tableEquivalent) {
+            report("equivalence " + !result.isFound() + " for table " + tableEquivalent, pair);
+        }
+        else if (result.isFound()) {
+            int row = checkedRow(result, evaluator, pair);
+            if (row >= 0 && TTevaluator.value(column1, row) == TTevaluator.value(column2, row)) report("difference row " + row + " is not one", pair);
+        }
+    }
+
+    //row of a found result, checked against its basic values (-1 if bad)
+    private static int checkedRow(TTsolver.Result result, TTevaluator evaluator, List<Formula> formulas) {
+        long row = result.getRow();
+        boolean[] values = result.getValues();
+        if (row < 0 || row >= evaluator.getRows() || values == null) {
+            report("bad row " + row, formulas);
+            return -1;
+        }
+        for (int k = 0; k < values.length; k++) {
+            if (values[k] != (((row >>> (values.length - 1 - k)) & 1) == 0)) {
+                report("values do not match row " + row, formulas);
+                return -1;
+            }
+        }
+        return (int) row;
+    }
+
+    private static boolean allTrue(List<long[]> columns, int row) {
+        for (long[] column : columns) {
+            if (!TTevaluator.value(column, row)) return false;
+        }
+        return true;
+    }
+
+    //premises and conclusion, with the conclusion sometimes a tautology or one of the premises
+    private static List<Formula> randomArgument(int letters) {
+        List<Formula> argument = randomFormulas(random.nextInt(4), letters);
+        String conclusion;
+        switch (random.nextInt(4)) {
+            case 0:
+                String disjunct = TTreference.randomFormula(random, DEPTH - 1, letters);
+                conclusion = "(" + disjunct + " \u2228 \u223c" + disjunct + ")";
+                break;
+            case 1: conclusion = argument.isEmpty() ? TTreference.letter(0) : argument.get(random.nextInt(argument.size())).toString(); break;
+            default: conclusion = TTreference.randomFormula(random, DEPTH, letters);
+        }
+        argument.add(TTreference.parse(conclusion));
+        return argument;
+    }
+
+    private static List<Formula> randomFormulas(int number, int letters) {
+        List<Formula> formulas = new ArrayList<>();
+        for (int i = 0; i < number; i++) formulas.add(TTreference.parse(TTreference.randomFormula(random, DEPTH, letters)));
+        return formulas;
+    }
+
+    private static void time(int letters) {
+        Formula[] basics = TTreference.basics(letters);
+        TTevaluator evaluator = new TTevaluator(basics);
+        TTsolver solver = new TTsolver(basics);
+        long solverNanos = 0;
+        long tableNanos = 0;
+        int agree = 0;
+        for (int i = 0; i < TIMED_ARGUMENTS; i++) {
+            List<Formula> argument = randomArgument(letters);
+            List<Formula> premises = argument.subList(0, argument.size() - 1);
+
+            long start = System.nanoTime();
+            boolean solverValid = solver.isValid(premises, argument.get(argument.size() - 1));
+            solverNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            List<long[]> columns = new ArrayList<>();
+            for (Formula formula : argument) columns.add(evaluator.evaluate(formula));
+            boolean tableValid = true;
+            for (int r = 0; r < evaluator.getRows() && tableValid; r++) {
+                tableValid = !(allTrue(columns.subList(0, premises.size()), r) && !TTevaluator.value(columns.get(premises.size()), r));
+            }
+            tableNanos += System.nanoTime() - start;
+            if (solverValid == tableValid) agree++;
+        }
+        System.out.println(letters + " basic formulas: " + agree + "/" + TIMED_ARGUMENTS + " agree; solver " +
+                String.format("%.1f", (double) solverNanos / TIMED_ARGUMENTS / 1000) + " us, table " +
+                String.format("%.1f", (double) tableNanos / TIMED_ARGUMENTS / 1000) + " us per argument");
+    }
+
+    private static void report(String message, List<Formula> formulas) {
+        differences++;
+        if (differences <= 20) System.out.println("Difference (" + message + ") for " + formulas);
+    }
+}
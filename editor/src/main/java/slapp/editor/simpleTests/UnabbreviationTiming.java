@@ -0,0 +1,62 @@
+package slapp.editor.simpleTests;
+
+import com.gluonhq.richtextarea.model.Document;
+import slapp.editor.parser.Expression;
+import slapp.editor.parser.Languages;
+import slapp.editor.parser.ParseUtilities;
+import slapp.editor.parser.Unabbreviator;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/*
+ * Time of unabbreviation for nested biconditionals (run from main; not part of the application): each formula is
+ * unabbreviated by a new unabbreviator (as without the memo) and then again by the shared one.  Reports the times,
+ * the nodes of the unabbreviated tree against the distinct nodes of its DAG, and any result for which the two differ.
+ */
+public class UnabbreviationTiming {
+
+    private static final String LANGUAGE = "ℒ𝓈 (w/abv)";
+    private static final String[] LETTERS = {"𝐴", "𝐵", "𝐶", "𝐷"};
+    private static final int MAX_DEPTH = 8;
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) {
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            String formula = nested(depth, 0);
+            Expression abbreviated = ParseUtilities.parseDoc(new Document(formula), LANGUAGE).get(0);
+
+            long start = System.nanoTime();
+            Expression fresh = null;
+            for (int run = 0; run < RUNS; run++) fresh = Unabbreviator.getInstance(Languages.getLanguageCopy(LANGUAGE)).unabbreviate(abbreviated);
+            long freshMicros = (System.nanoTime() - start) / (1000L * RUNS);
+
+            Unabbreviator.getInstance(LANGUAGE).unabbreviate(abbreviated);
+            start = System.nanoTime();
+            Expression shared = null;
+            for (int run = 0; run < RUNS; run++) shared = Unabbreviator.getInstance(LANGUAGE).unabbreviate(abbreviated);
+            long sharedMicros = (System.nanoTime() - start) / (1000L * RUNS);
+
+            if (!fresh.equals(shared)) System.out.println("depth " + depth + ": results differ");
+            Set<Expression> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+            long nodes = countNodes(shared, distinct);
+            System.out.println("depth " + depth + ": new " + freshMicros + " us, memo " + sharedMicros + " us, " + nodes + " tree nodes, " + distinct.size() + " DAG nodes");
+        }
+    }
+
+    //balanced biconditional of the given depth
+    private static String nested(int depth, int letter) {
+        if (depth == 0) return LETTERS[letter % LETTERS.length];
+        return "(" + nested(depth - 1, letter) + " ↔ " + nested(depth - 1, letter + 1) + ")";
+    }
+
+    private static long countNodes(Expression expression, Set<Expression> distinct) {
+        distinct.add(expression);
+        long nodes = 1;
+        if (expression.getChildren() != null && expression.getLevel() > 0) {
+            for (Expression child : expression.getChildren()) nodes += countNodes(child, distinct);
+        }
+        return nodes;
+    }
+}
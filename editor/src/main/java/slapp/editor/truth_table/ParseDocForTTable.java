@@ -32,10 +32,14 @@ import java.util.List;
  * sentences are not from a sentential language
  */
 public class ParseDocForTTable {
+    private static final int PLAIN_ITEM = 0;
+    private static final int BINARY_ITEM = 1;
+    private static final int CLOSE_ITEM = 2;
+
     private static List<TableHeadItem> headItems = new ArrayList<>();
     private List<String> unaryOperators;
     private List<String> binaryOperators;
-    private Document doc;
+    private List<int[]> itemSpans;
     private int start = 0;
     private int span = 0;
     private String formulaString;
@@ -63,10 +67,41 @@ public class ParseDocForTTable {
      */
     public List<TableHeadItem> generateHeadItems(Document document) {
         headItems.clear();
+        List<int[]> spans = headItemSpans(document.getText());
+        for (int[] itemSpan : spans) {
+            TextFlow flow = ExtractSubText.getTextFromDoc(itemSpan[0], itemSpan[1], document);
+            if (itemSpan[2] == CLOSE_ITEM) {
+                headItems.add(new TableHeadItem(flow, constraints));
+                EditorAlerts.fleetingRedPopup("Unexpected close bracket.  (Ungrammatical, or operator not selected.)");
+                return headItems;
+            }
+            flow.setTextAlignment(TextAlignment.CENTER);
+            if (itemSpan[2] == BINARY_ITEM) {
+                flow.getChildren().add(0, new Text(" "));
+                flow.getChildren().add(new Text(" "));
+            }
+            headItems.add(new TableHeadItem(flow, constraints));
+        }
+        return headItems;
+    }
+
+    /**
+     * Number of head items (table columns) for a formula, as generateHeadItems but without the items themselves
+     * @param formulaString the formula text
+     * @return the number of head items
+     */
+    public int countHeadItems(String formulaString) {
+        return headItemSpans(formulaString).size();
+    }
+
+    /*
+     * Start, span and kind of each head item for a formula, stopping after an unexpected close bracket
+     */
+    private List<int[]> headItemSpans(String formula) {
+        itemSpans = new ArrayList<>();
         start = 0;
         span = 0;
-        this.doc = document;
-        formulaString = doc.getText();
+        formulaString = formula;
         formulaLength = formulaString.length();
 
         while (start < formulaLength) {
@@ -77,14 +112,11 @@ public class ParseDocForTTable {
             else if (isOperator(c)) operatorSequence(c);
             else if (isRelationChar(c)) relationSequence();
             else if (isCloseBracket(c)) {
-                TextFlow flow = ExtractSubText.getTextFromDoc(start, span, doc);
-                TableHeadItem headItem = new TableHeadItem(flow, constraints);
-                headItems.add(headItem);
-                EditorAlerts.fleetingRedPopup("Unexpected close bracket.  (Ungrammatical, or operator not selected.)");
-                return headItems;
+                itemSpans.add(new int[]{start, span, CLOSE_ITEM});
+                break;
             }
         }
-        return headItems;
+        return itemSpans;
     }
 
     /*
@@ -92,15 +124,7 @@ public class ParseDocForTTable {
      * @param c the current character
      */
     private void operatorSequence(char c) {
-        TextFlow flow = ExtractSubText.getTextFromDoc(start, span, doc);
-        flow.setTextAlignment(TextAlignment.CENTER);
-
-        if (isBinaryOperator(c)) {
-            flow.getChildren().add(0, new Text(" "));
-            flow.getChildren().add(new Text(" "));
-        }
-        TableHeadItem headItem = new TableHeadItem(flow, constraints);
-        headItems.add(headItem);
+        itemSpans.add(new int[]{start, span, isBinaryOperator(c) ? BINARY_ITEM : PLAIN_ITEM});
         start = start + span;
     }
 
@@ -114,11 +138,7 @@ public class ParseDocForTTable {
         }
         if (start + span < formulaLength && isOperator(formulaString.charAt(start + span))) {
             span++;
-            TextFlow flow = ExtractSubText.getTextFromDoc(start, span, doc);
-            flow.setTextAlignment(TextAlignment.CENTER);
-
-            TableHeadItem headItem = new TableHeadItem(flow, constraints);
-            headItems.add(headItem);
+            itemSpans.add(new int[]{start, span, PLAIN_ITEM});
             start = start + span;
             return;
         }
@@ -126,12 +146,7 @@ public class ParseDocForTTable {
             span++;
             if (start + span < formulaLength) bracketMatch(formulaString.charAt(start + span));
         }
-        TextFlow flow = ExtractSubText.getTextFromDoc(start, span, doc);
-        flow.setTextAlignment(TextAlignment.CENTER);
-
-
-        TableHeadItem headItem = new TableHeadItem(flow, constraints);
-        headItems.add(headItem);
+        itemSpans.add(new int[]{start, span, PLAIN_ITEM});
         start = start + span;
     }
 
@@ -144,21 +159,14 @@ public class ParseDocForTTable {
             if (start + span < formulaLength) bracketMatch(formulaString.charAt(start + span));
         }
         if (start + span < formulaLength && isOperator(formulaString.charAt(start + span))) {
-            TextFlow flow = ExtractSubText.getTextFromDoc(start, span, doc);
-            flow.setTextAlignment(TextAlignment.CENTER);
-
-            TableHeadItem headItem = new TableHeadItem(flow, constraints);
-            headItems.add(headItem);
+            itemSpans.add(new int[]{start, span, PLAIN_ITEM});
             start = start + span;
             return;
         }
         while (start + span < formulaLength && isCloseBracket(formulaString.charAt(start + span))) {
             span++;
         }
-        TextFlow flow = ExtractSubText.getTextFromDoc(start, span, doc);
-        flow.setTextAlignment(TextAlignment.CENTER);
-        TableHeadItem headItem = new TableHeadItem(flow, constraints);
-        headItems.add(headItem);
+        itemSpans.add(new int[]{start, span, PLAIN_ITEM});
         start = start + span;
     }
 
@@ -0,0 +1,246 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+
+package slapp.editor.truth_table;
+
+import com.gluonhq.richtextarea.model.Document;
+import slapp.editor.AlphanumStringComparator;
+import slapp.editor.parser.Expression;
+import slapp.editor.parser.ParseUtilities;
+import slapp.editor.parser.SyntacticalFns;
+import slapp.editor.parser.grammatical_parts.Formula;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answer key for the main table of a truth table exercise, stored with the check setup.  For each main formula the key
+ * has the packed column (as TTevaluator) of each of its subformula columns, in table order from the first column of
+ * the formula, together with the validity of the argument from the premises to the last formula.  The key is for the
+ * table on particular basic formulas, and carries a hash of the language, basic formulas and main formulas from which
+ * it was computed; a check uses the key only when the hash of its own table matches.
+ */
+public class TTanswerKey implements Serializable {
+    private static final long serialVersionUID = 100L;
+
+    //most basic formulas for a stored key (a table has at most 256 rows)
+    public static final int MAX_BASIC_FORMULAS = 8;
+
+    private final String contentHash;
+    private final long[][][] mainColumns;
+    private final boolean valid;
+
+    /**
+     * Construct the answer key
+     * @param contentHash hash of the table content (from contentHash)
+     * @param mainColumns for each main formula, the packed columns of its subformula columns in table order
+     * @param valid true if no row has the premises T and the last formula F
+     */
+    public TTanswerKey(String contentHash, long[][][] mainColumns, boolean valid) {
+        this.contentHash = contentHash;
+        this.mainColumns = mainColumns;
+        this.valid = valid;
+    }
+
+    /**
+     * Compute the key for the main formulas of an exercise, on the basic formulas of the main formulas in
+     * alphanumeric order (the order expected of the table setup)
+     * @param langName the object language name
+     * @param mainFormulaDocs the main formula documents
+     * @return the key, or null if some main formula is not a sentence or there are too many basic formulas
+     */
+    public static TTanswerKey compute(String langName, List<Document> mainFormulaDocs) {
+        List<Formula> mainFormulas = new ArrayList<>();
+        List<List<Formula>> subLists = new ArrayList<>();
+        List<Formula> basics = new ArrayList<>();
+        for (Document doc : mainFormulaDocs) {
+            List<Formula> subList = new ArrayList<>();
+            subLists.add(subList);
+            if (doc.getText().isEmpty()) {
+                mainFormulas.add(null);
+                continue;
+            }
+            List<Expression> expressions = ParseUtilities.parseDoc(doc, langName);
+            if (expressions.size() != 1 || !(expressions.get(0) instanceof Formula) || !SyntacticalFns.sentence(expressions.get(0), langName)) return null;
+            Formula formula = (Formula) expressions.get(0);
+            mainFormulas.add(formula);
+            addSubformulas(formula, subList, langName);
+            for (Formula sub : subList) {
+                if (isBasic(sub, langName) && !basics.contains(sub)) basics.add(sub);
+            }
+        }
+        if (basics.size() > MAX_BASIC_FORMULAS) return null;
+        AlphanumStringComparator comparator = new AlphanumStringComparator();
+        basics.sort((f1, f2) -> comparator.compare(f1.toString(), f2.toString()));
+
+        TTevaluator evaluator = new TTevaluator(basics.toArray(new Formula[0]));
+        TTdag dag = new TTdag(evaluator);
+        long[][][] mainColumns = new long[mainFormulas.size()][][];
+        List<long[]> wholeColumns = new ArrayList<>();
+        for (int i = 0; i < mainFormulas.size(); i++) {
+            List<Formula> subList = subLists.get(i);
+            mainColumns[i] = new long[subList.size()][];
+            try {
+                for (int t = 0; t < subList.size(); t++) mainColumns[i][t] = dag.column(dag.add(subList.get(t)));
+            }
+            catch (IllegalArgumentException e) {
+                return null;
+            }
+            wholeColumns.add(mainFormulas.get(i) == null ? null : dag.column(mainFormulas.get(i)));
+        }
+
+        List<String> basicStrings = new ArrayList<>();
+        for (Formula basic : basics) basicStrings.add(basic.toString());
+        return new TTanswerKey(contentHash(langName, basicStrings, mainFormulaDocs), mainColumns, validity(wholeColumns, evaluator.getRows()));
+    }
+
+    /**
+     * Key from the columns of a checked table
+     * @param contentHash hash of the table content
+     * @param tableKey the packed column of each table column
+     * @param mainFormulaCols the first column of each main formula
+     * @param subformulaCounts the number of subformula columns of each main formula
+     * @param mainFormulaColumns the table column of each main formula (-1 for an empty one)
+     * @param rows the rows of the table
+     * @return the key
+     */
+    public static TTanswerKey fromTable(String contentHash, long[][] tableKey, List<Integer> mainFormulaCols, int[] subformulaCounts, int[] mainFormulaColumns, int rows) {
+        long[][][] mainColumns = new long[mainFormulaCols.size()][][];
+        List<long[]> wholeColumns = new ArrayList<>();
+        for (int i = 0; i < mainColumns.length; i++) {
+            mainColumns[i] = new long[subformulaCounts[i]][];
+            for (int t = 0; t < subformulaCounts[i]; t++) mainColumns[i][t] = tableKey[mainFormulaCols.get(i) + t];
+            wholeColumns.add(mainFormulaColumns[i] < 0 ? null : tableKey[mainFormulaColumns[i]]);
+        }
+        return new TTanswerKey(contentHash, mainColumns, validity(wholeColumns, rows));
+    }
+
+    /**
+     * Validity from the columns of the main formulas: no row with the premises T and the last formula F
+     * @param wholeColumns the packed column of each main formula (null for an empty formula), the last as conclusion
+     * @param rows the rows of the table
+     * @return true if valid
+     */
+    public static boolean validity(List<long[]> wholeColumns, int rows) {
+        int last = wholeColumns.size() - 1;
+        if (last < 0 || wholeColumns.get(last) == null) return true;
+        long[] conclusion = wholeColumns.get(last);
+        for (int w = 0; w < conclusion.length; w++) {
+            long counterexamples = ~conclusion[w];
+            for (int i = 0; i < last; i++) {
+                if (wholeColumns.get(i) != null) counterexamples &= wholeColumns.get(i)[w];
+            }
+            if (w == conclusion.length - 1 && rows % 64 != 0) counterexamples &= (1L << rows) - 1;
+            if (counterexamples != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Hash of the content on which a key depends
+     * @param langName the object language name
+     * @param basicStrings the basic formulas (as strings), in table order
+     * @param mainFormulaDocs the main formula documents
+     * @return the hash (hex)
+     */
+    public static String contentHash(String langName, List<String> basicStrings, List<Document> mainFormulaDocs) {
+        StringBuilder sb = new StringBuilder(langName);
+        sb.append('\n');
+        for (String basic : basicStrings) sb.append(basic).append('\t');
+        sb.append('\n');
+        for (Document doc : mainFormulaDocs) sb.append(doc.getText()).append('\t');
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) hex.append(String.format("%02x", b));
+            return hex.toString();
+        }
+        catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(sb.toString().hashCode());
+        }
+    }
+
+    /**
+     * The key is for a table whose content has this hash
+     * @param hash the content hash of the table
+     * @return true if the key applies
+     */
+    public boolean matches(String hash) {
+        return contentHash.equals(hash);
+    }
+
+    /**
+     * The key has the given numbers of subformula columns
+     * @param subformulaCounts the number of subformula columns of each main formula
+     * @return true if the counts agree with the key
+     */
+    public boolean fits(int[] subformulaCounts) {
+        if (subformulaCounts.length != mainColumns.length) return false;
+        for (int i = 0; i < mainColumns.length; i++) {
+            if (mainColumns[i].length != subformulaCounts[i]) return false;
+        }
+        return true;
+    }
+
+    public int getMainFormulaCount() {
+        return mainColumns.length;
+    }
+
+    /**
+     * Number of subformula columns of a main formula
+     * @param mainIndex the main formula index
+     * @return the number of columns
+     */
+    public int getColumnCount(int mainIndex) {
+        return mainColumns[mainIndex].length;
+    }
+
+    /**
+     * Packed column of a subformula column
+     * @param mainIndex the main formula index
+     * @param offset the column offset from the first column of the main formula
+     * @return the packed column (shared: not to be modified)
+     */
+    public long[] getColumn(int mainIndex, int offset) {
+        return mainColumns[mainIndex][offset];
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    /*
+     * Sentential subformulas in table order (as the column order of TTcheck.populateFormulaSubList)
+     */
+    private static void addSubformulas(Expression exp, List<Formula> subList, String langName) {
+        if (exp == null || !SyntacticalFns.sentence(exp, langName)) return;
+        if (exp.getChildren().size() >= 2) addSubformulas(exp.getChildren().get(0), subList, langName);
+        subList.add((Formula) exp);
+        if (exp.getChildren().size() == 1) addSubformulas(exp.getChildren().get(0), subList, langName);
+        if (exp.getChildren().size() >= 2) addSubformulas(exp.getChildren().get(1), subList, langName);
+    }
+
+    private static boolean isBasic(Expression exp, String langName) {
+        if (exp.getChildren() == null || exp.getChildren().size() == 0) return true;
+        for (Expression child : exp.getChildren()) {
+            if (!SyntacticalFns.sentence(child, langName)) return true;
+        }
+        return false;
+    }
+}
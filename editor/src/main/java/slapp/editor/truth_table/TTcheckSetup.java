@@ -22,6 +22,7 @@ public class TTcheckSetup implements Serializable {
     boolean choiceB;
 
     private boolean skipBasicsOK;
+    private TTanswerKey answerKey;
 
 
     public TTcheckSetup() {
@@ -145,4 +146,12 @@ public class TTcheckSetup implements Serializable {
     public void setChoiceB(boolean choiceB) {
         this.choiceB = choiceB;
     }
+
+    public TTanswerKey getAnswerKey() {
+        return answerKey;
+    }
+
+    public void setAnswerKey(TTanswerKey answerKey) {
+        this.answerKey = answerKey;
+    }
 }
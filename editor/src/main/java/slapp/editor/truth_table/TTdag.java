@@ -0,0 +1,158 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+
+package slapp.editor.truth_table;
+
+import slapp.editor.parser.Expression;
+import slapp.editor.parser.grammatical_parts.Formula;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The distinct subformulas of the formulas in a table, as nodes of a DAG: equal subformulas (in one formula or in
+ * several) are one node, and the column of each node is evaluated once.  Nodes are numbered parts before wholes, so
+ * the columns are evaluated in node order, each from the columns of its parts.
+ */
+public class TTdag {
+
+    private final TTevaluator evaluator;
+    private final Map<Formula, Integer> nodeIndex = new HashMap<>();
+    private byte[] codes = new byte[16];
+    private int[] lefts = new int[16];
+    private int[] rights = new int[16];
+    private int nodes = 0;
+    private long[][] columns = new long[0][];
+    private int evaluated = 0;
+
+    /**
+     * DAG for the table of an evaluator
+     * @param evaluator the evaluator, for the basic formulas and rows of the table
+     */
+    public TTdag(TTevaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Add a formula and its parts.  A formula whose main operator is a sentential connective is a node on its parts;
+     * any other formula is a node for the basic formula it equals.
+     * @param formula the formula
+     * @return the node of formula
+     * @throws IllegalArgumentException if some part of formula is neither compound by a connective nor basic (in which
+     * case the parts added before it remain)
+     */
+    public int add(Formula formula) {
+        Integer existing = nodeIndex.get(formula);
+        if (existing != null) return existing;
+
+        byte code = TTevaluator.connectiveCode(formula.getMainOperator());
+        List<Expression> children = formula.getChildren();
+        int arity = code == TTevaluator.NEGATION ? 1 : 2;
+        int left;
+        int right = -1;
+        if (code != TTevaluator.LOAD && children != null && children.size() == arity) {
+            for (Expression child : children) {
+                if (!(child instanceof Formula)) throw new IllegalArgumentException("Not a formula: " + child);
+            }
+            left = add((Formula) children.get(0));
+            if (arity == 2) right = add((Formula) children.get(1));
+        }
+        else {
+            code = TTevaluator.LOAD;
+            left = evaluator.basicIndex(formula);
+            if (left < 0) throw new IllegalArgumentException("Not among the basic formulas: " + formula);
+        }
+
+        if (nodes == codes.length) {
+            codes = Arrays.copyOf(codes, nodes * 2);
+            lefts = Arrays.copyOf(lefts, nodes * 2);
+            rights = Arrays.copyOf(rights, nodes * 2);
+        }
+        codes[nodes] = code;
+        lefts[nodes] = left;
+        rights[nodes] = right;
+        nodeIndex.put(formula, nodes);
+        return nodes++;
+    }
+
+    /**
+     * Node of a formula
+     * @param formula the formula (or one equal to it)
+     * @return the node, or -1 if formula has not been added
+     */
+    public int nodeOf(Formula formula) {
+        Integer node = nodeIndex.get(formula);
+        return node == null ? -1 : node;
+    }
+
+    public int getNodes() {
+        return nodes;
+    }
+
+    /**
+     * A basic node is one that loads the column of a basic formula
+     * @param node the node
+     * @return true if basic
+     */
+    public boolean isBasicNode(int node) {
+        return codes[node] == TTevaluator.LOAD;
+    }
+
+    /**
+     * Column of a node, evaluating the nodes added since the last evaluation
+     * @param node the node
+     * @return the packed column (shared: not to be modified)
+     */
+    public long[] column(int node) {
+        if (evaluated < nodes) evaluate();
+        return columns[node];
+    }
+
+    /**
+     * Column of a formula
+     * @param formula the formula (or one equal to it)
+     * @return the packed column, or null if formula has not been added
+     */
+    public long[] column(Formula formula) {
+        int node = nodeOf(formula);
+        return node < 0 ? null : column(node);
+    }
+
+    private void evaluate() {
+        columns = Arrays.copyOf(columns, nodes);
+        int words = evaluator.getWords();
+        for (int n = evaluated; n < nodes; n++) {
+            byte code = codes[n];
+            if (code == TTevaluator.LOAD) {
+                columns[n] = evaluator.basicColumn(lefts[n]);
+                continue;
+            }
+            long[] left = columns[lefts[n]];
+            long[] column = new long[words];
+            if (code == TTevaluator.NEGATION) {
+                for (int w = 0; w < words; w++) column[w] = ~left[w];
+            }
+            else {
+                long[] right = columns[rights[n]];
+                for (int w = 0; w < words; w++) column[w] = TTevaluator.connective(code, left[w], right[w]);
+            }
+            evaluator.maskLastWord(column);
+            columns[n] = column;
+        }
+        evaluated = nodes;
+    }
+}
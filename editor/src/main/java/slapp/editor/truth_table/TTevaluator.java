@@ -0,0 +1,299 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+
+package slapp.editor.truth_table;
+
+import slapp.editor.parser.Expression;
+import slapp.editor.parser.grammatical_parts.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Truth table evaluation over the rows of a table on basic formulas.  Rows are in the table order: row r makes basic
+ * formula k true just in case bit (n - 1 - k) of r is 0, so the first basic formula is T in the first half of the
+ * rows and the last alternates T and F.
+ * <p>
+ * A column holds the values of a formula on every row, packed one row to a bit (bit r % 64 of word r / 64, set for T),
+ * so that a connective is evaluated for 64 rows with one operation on a word.  A formula is compiled to a postfix
+ * program of loads of basic columns and connectives, which is evaluated a word at a time.
+ */
+public class TTevaluator {
+
+    public static final int MAX_BASIC_FORMULAS = 30;
+
+    static final byte LOAD = 0;
+    static final byte NEGATION = 1;
+    static final byte CONDITIONAL = 2;
+    static final byte CONJUNCTION = 3;
+    static final byte DISJUNCTION = 4;
+    static final byte BICONDITIONAL = 5;
+    static final byte NAND = 6;
+    static final byte NOR = 7;
+
+    //bit patterns for a basic formula whose row bit is less than 6 (T where the row bit is 0)
+    private static final long[] LOW_PATTERNS = {
+            0x5555555555555555L, 0x3333333333333333L, 0x0F0F0F0F0F0F0F0FL,
+            0x00FF00FF00FF00FFL, 0x0000FFFF0000FFFFL, 0x00000000FFFFFFFFL
+    };
+
+    private final Formula[] basicFormulas;
+    private final Map<Formula, Integer> basicIndexes = new HashMap<>();
+    private final int rows;
+    private final int words;
+    private final long lastWordMask;
+
+    /**
+     * Evaluator for the table on basic formulas
+     * @param basicFormulas the basic formulas in table order
+     */
+    public TTevaluator(Formula[] basicFormulas) {
+        if (basicFormulas.length > MAX_BASIC_FORMULAS) throw new IllegalArgumentException("Too many basic formulas: " + basicFormulas.length);
+        this.basicFormulas = basicFormulas.clone();
+        this.rows = 1 << basicFormulas.length;
+        this.words = (rows + 63) >>> 6;
+        this.lastWordMask = rows % 64 == 0 ? -1L : (1L << rows) - 1;
+        for (int i = 0; i < basicFormulas.length; i++) basicIndexes.putIfAbsent(basicFormulas[i], i);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * Column of a basic formula
+     * @param index the position of the formula among the basic formulas
+     * @return the packed column
+     */
+    public long[] basicColumn(int index) {
+        long[] column = new long[words];
+        for (int w = 0; w < words; w++) column[w] = basicWord(index, w);
+        return column;
+    }
+
+    private long basicWord(int index, int word) {
+        int rowBit = basicFormulas.length - 1 - index;
+        long value;
+        if (rowBit < 6) value = LOW_PATTERNS[rowBit];
+        else value = ((word >>> (rowBit - 6)) & 1) == 0 ? -1L : 0L;
+        return word == words - 1 ? value & lastWordMask : value;
+    }
+
+    /**
+     * Index of a basic formula equal to formula
+     * @param formula the formula
+     * @return the index, or -1 if formula is not among the basic formulas
+     */
+    public int basicIndex(Formula formula) {
+        Integer index = basicIndexes.get(formula);
+        return index == null ? -1 : index;
+    }
+
+    //clear the bits past the last row
+    void maskLastWord(long[] column) {
+        column[words - 1] &= lastWordMask;
+    }
+
+    /**
+     * Compile a formula to a program on the basic formulas.  A formula whose main operator is a sentential connective
+     * is evaluated from its parts; any other formula loads the column of the basic formula it equals.
+     * @param formula the formula
+     * @return the program, with one step for each subformula node (parts before wholes)
+     * @throws IllegalArgumentException if some part of formula is neither compound by a connective nor basic
+     */
+    public Program compile(Formula formula) {
+        ProgramBuilder builder = new ProgramBuilder();
+        builder.compile(formula);
+        return builder.build();
+    }
+
+    /**
+     * Evaluate a program
+     * @param program a program of this evaluator
+     * @return the column of each step of the program
+     */
+    public long[][] evaluate(Program program) {
+        int steps = program.codes.length;
+        long[][] columns = new long[steps][words];
+        long[] stack = new long[program.maxDepth];
+        for (int w = 0; w < words; w++) {
+            int top = 0;
+            for (int s = 0; s < steps; s++) {
+                long value;
+                switch (program.codes[s]) {
+                    case LOAD: value = basicWord(program.operands[s], w); break;
+                    case NEGATION: value = ~stack[--top]; break;
+                    default:
+                        long right = stack[--top];
+                        long left = stack[--top];
+                        value = connective(program.codes[s], left, right);
+                }
+                if (w == words - 1) value &= lastWordMask;
+                columns[s][w] = value;
+                stack[top++] = value;
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Column of a formula
+     * @param formula the formula
+     * @return the packed column
+     */
+    public long[] evaluate(Formula formula) {
+        Program program = compile(formula);
+        long[][] columns = evaluate(program);
+        return columns[columns.length - 1];
+    }
+
+    static long connective(byte code, long left, long right) {
+        switch (code) {
+            case CONDITIONAL: return ~left | right;
+            case CONJUNCTION: return left & right;
+            case DISJUNCTION: return left | right;
+            case BICONDITIONAL: return ~(left ^ right);
+            case NAND: return ~(left & right);
+            case NOR: return ~(left | right);
+            default: throw new IllegalStateException("Bad code " + code);
+        }
+    }
+
+    //code of a sentential connective (LOAD for any other operator)
+    static byte connectiveCode(Operator operator) {
+        if (operator instanceof NegationOp) return NEGATION;
+        if (operator instanceof ConditionalOp) return CONDITIONAL;
+        if (operator instanceof ConjunctionOp) return CONJUNCTION;
+        if (operator instanceof DisjunctionOp) return DISJUNCTION;
+        if (operator instanceof BiconditionalOp) return BICONDITIONAL;
+        if (operator instanceof NandOp) return NAND;
+        if (operator instanceof NorOp) return NOR;
+        return LOAD;
+    }
+
+    /**
+     * Value of a column on a row
+     * @param column the packed column
+     * @param row the row
+     * @return true for T
+     */
+    public static boolean value(long[] column, int row) {
+        return (column[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * Table string of a column value
+     * @param column the packed column
+     * @param row the row
+     * @return "T" or "F"
+     */
+    public static String valueString(long[] column, int row) {
+        return value(column, row) ? "T" : "F";
+    }
+
+    public static BitSet toBitSet(long[] column) {
+        return BitSet.valueOf(column);
+    }
+
+    /**
+     * Program for a formula: the step codes and operands in postfix order, with the formula node evaluated at each step
+     */
+    public static class Program {
+        private final byte[] codes;
+        private final int[] operands;
+        private final Formula[] nodes;
+        private final int maxDepth;
+        private final Map<Formula, Integer> nodeSteps = new IdentityHashMap<>();
+
+        private Program(byte[] codes, int[] operands, Formula[] nodes, int maxDepth) {
+            this.codes = codes;
+            this.operands = operands;
+            this.nodes = nodes;
+            this.maxDepth = maxDepth;
+            for (int s = 0; s < nodes.length; s++) nodeSteps.put(nodes[s], s);
+        }
+
+        public int getSteps() {
+            return codes.length;
+        }
+
+        public Formula getNode(int step) {
+            return nodes[step];
+        }
+
+        /**
+         * Step at which a node of the compiled formula is evaluated
+         * @param node a subformula node (the object, not an equal formula)
+         * @return the step, or -1 if node is not part of the program
+         */
+        public int stepOf(Formula node) {
+            Integer step = nodeSteps.get(node);
+            return step == null ? -1 : step;
+        }
+    }
+
+    private class ProgramBuilder {
+        private final List<Byte> codes = new ArrayList<>();
+        private final List<Integer> operands = new ArrayList<>();
+        private final List<Formula> nodes = new ArrayList<>();
+        private int depth = 0;
+        private int maxDepth = 0;
+
+        private void compile(Formula formula) {
+            byte code = connectiveCode(formula.getMainOperator());
+            List<Expression> children = formula.getChildren();
+            int arity = code == NEGATION ? 1 : 2;
+            if (code != LOAD && children != null && children.size() == arity) {
+                for (Expression child : children) {
+                    if (!(child instanceof Formula)) throw new IllegalArgumentException("Not a formula: " + child);
+                    compile((Formula) child);
+                }
+                add(code, 0, formula);
+                depth -= arity - 1;
+            }
+            else {
+                int index = basicIndex(formula);
+                if (index < 0) throw new IllegalArgumentException("Not among the basic formulas: " + formula);
+                add(LOAD, index, formula);
+                depth++;
+                maxDepth = Math.max(maxDepth, depth);
+            }
+        }
+
+        private void add(byte code, int operand, Formula node) {
+            codes.add(code);
+            operands.add(operand);
+            nodes.add(node);
+        }
+
+        private Program build() {
+            byte[] codeArray = new byte[codes.size()];
+            int[] operandArray = new int[operands.size()];
+            for (int i = 0; i < codeArray.length; i++) {
+                codeArray[i] = codes.get(i);
+                operandArray[i] = operands.get(i);
+            }
+            return new Program(codeArray, operandArray, nodes.toArray(new Formula[0]), Math.max(maxDepth, 1));
+        }
+    }
+}
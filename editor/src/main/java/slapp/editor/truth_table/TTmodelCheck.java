@@ -0,0 +1,620 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+
+package slapp.editor.truth_table;
+
+import com.gluonhq.richtextarea.model.Document;
+import slapp.editor.AlphanumStringComparator;
+import slapp.editor.parser.Expression;
+import slapp.editor.parser.ParseCache;
+import slapp.editor.parser.ParseUtilities;
+import slapp.editor.parser.StyledText;
+import slapp.editor.parser.SyntacticalFns;
+import slapp.editor.parser.grammatical_parts.Formula;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Check of a truth table on its setup and table values, apart from any view.  TTcheck and TTExpCheck run the check
+ * on the values of their views and show the problem found; the batch grader runs it on the values saved with a model.
+ * Column layout is from the head items of the setup formulas, as the exercise lays out its table.  Parse results come
+ * from the shared cache and are not modified, so checks may run on several threads.
+ */
+public class TTmodelCheck {
+
+    private final String objLangName;
+    private final ParseDocForTTable docParser;
+    private final List<Document> basicDocs;
+    private final List<Document> mainDocs;
+    private final boolean conclusionDivider;
+    private final int modelRows;
+    private final String[][] tableValues;
+    private final boolean[] columnHighlights;
+    private final boolean skipBasicsOK;
+    private final TTanswerKey storedKey;
+
+    private int tableRows;
+    private int tableColumns;
+    private List<Integer> basicFormulaCols;
+    private List<Integer> mainFormulaCols;
+    private Formula[] basicFormulas;
+    private Set<Formula> basicFormulaSet;
+    private List<Formula> mainFormulas;
+    private List<List<SubColumn>> mainFormulaSubLists;
+    private long[][] tableKey;
+    private TTanswerKey answerKey;
+    private boolean newAnswerKey;
+    private Problem problem;
+
+    /**
+     * A problem found by a check: the message, with the part of the exercise to mark while it is shown
+     */
+    public static class Problem {
+
+        /**
+         * Part of the exercise to which a problem applies (apart from any table cells)
+         */
+        public enum Kind {TABLE, BASIC_FORMULAS, TABLE_ROWS, CHOICE_A, CHOICE_B, CHOICES}
+
+        private final Kind kind;
+        private final String title;
+        private final List<StyledText> texts;
+        private final String detail;
+        private final List<Integer> basicIndices;
+        private final List<int[]> cells;
+
+        /**
+         * Construct a problem
+         * @param kind the part of the exercise to mark
+         * @param title the message title
+         * @param texts the message
+         * @param detail added to the plain message where the marks are not shown (or null)
+         * @param basicIndices indices of the basic formulas to mark
+         * @param cells table cells to mark, as {column, row}
+         */
+        public Problem(Kind kind, String title, List<StyledText> texts, String detail, List<Integer> basicIndices, List<int[]> cells) {
+            this.kind = kind;
+            this.title = title;
+            this.texts = texts;
+            this.detail = detail;
+            this.basicIndices = basicIndices;
+            this.cells = cells;
+        }
+
+        public Problem(Kind kind, String title, String text) {
+            this(kind, title, Collections.singletonList(ParseUtilities.newRegularText(text)), null, Collections.emptyList(), Collections.emptyList());
+        }
+
+        public Kind getKind() { return kind; }
+
+        public String getTitle() { return title; }
+
+        public List<StyledText> getTexts() { return texts; }
+
+        public List<Integer> getBasicIndices() { return basicIndices; }
+
+        public List<int[]> getCells() { return cells; }
+
+        /**
+         * The problem as plain text
+         * @return title, message and detail
+         */
+        public String getMessage() {
+            StringBuilder builder = new StringBuilder(title);
+            builder.append(' ');
+            for (StyledText text : texts) {
+                if (text.getStyle() == StyledText.Style.SUPERSCRIPT) builder.append('^');
+                builder.append(text.getText());
+            }
+            if (detail != null) builder.append(" (").append(detail).append(")");
+            return builder.toString();
+        }
+    }
+
+    /*
+     * A subformula with its table column
+     */
+    private static class SubColumn {
+        final Formula formula;
+        final int column;
+        final boolean main;
+
+        SubColumn(Formula formula, int column, boolean main) {
+            this.formula = formula;
+            this.column = column;
+            this.main = main;
+        }
+    }
+
+    /**
+     * Construct the check
+     * @param objLangName the object language name
+     * @param unaryOperators the unary operators of the table
+     * @param binaryOperators the binary operators of the table
+     * @param basicDocs the basic formula documents of the table setup
+     * @param mainDocs the main formula documents
+     * @param conclusionDivider true if the table has a divider before the conclusion
+     * @param modelRows the rows of the table as set up
+     * @param tableValues the table values [column][row] (null for an empty cell)
+     * @param columnHighlights the column highlights (or null for none)
+     * @param skipBasicsOK true if basic subformula columns may be left empty
+     * @param answerKey the answer key stored with the check setup (or null)
+     */
+    public TTmodelCheck(String objLangName, List<String> unaryOperators, List<String> binaryOperators, List<Document> basicDocs,
+                        List<Document> mainDocs, boolean conclusionDivider, int modelRows, String[][] tableValues,
+                        boolean[] columnHighlights, boolean skipBasicsOK, TTanswerKey answerKey) {
+        this.objLangName = objLangName;
+        this.docParser = new ParseDocForTTable(unaryOperators, binaryOperators);
+        this.basicDocs = basicDocs;
+        this.mainDocs = mainDocs;
+        this.conclusionDivider = conclusionDivider;
+        this.modelRows = modelRows;
+        this.tableValues = tableValues;
+        this.columnHighlights = columnHighlights;
+        this.skipBasicsOK = skipBasicsOK;
+        this.storedKey = answerKey;
+    }
+
+    /**
+     * Check a truth table model
+     * @param model the model
+     * @return null if the table checks, and otherwise the problem
+     */
+    public static String check(TruthTableModel model) {
+        TTcheckSetup setup = model.getCheckSetup();
+        if (setup == null) setup = new TTcheckSetup();
+        TTmodelCheck modelCheck = new TTmodelCheck(setup.getObjLangName(), model.getUnaryOperators(), model.getBinaryOperators(),
+                model.getBasicFormulas(), model.getMainFormulas(), model.isConclusionDivider(), model.getTableRows(),
+                model.getTableValues(), model.getColumnHighlights(), setup.isSkipBasicsOK(), setup.getAnswerKey());
+        return modelCheck.checkFullTable() ? null : modelCheck.getProblem().getMessage();
+    }
+
+    /**
+     * Check a completed table: setup, answer key, rows, values and highlights
+     * @return true if the table checks
+     */
+    public boolean checkFullTable() {
+        if (!checkSetup()) return false;
+        if (!populateTableKey()) return false;
+        if (!checkRows()) return false;
+        return checkTableValues() && checkHighlights();
+    }
+
+    /**
+     * Check a short table: each row with values has the values of some row of the completed table, and some row is
+     * complete
+     * @return true if the table checks
+     */
+    public boolean checkShortTable() {
+        if (!checkSetup()) return false;
+        TTsolver solver = new TTsolver(basicFormulas);
+
+        boolean empty = true;
+        for (int r = 0; r < modelRows; r++) {
+            if (!emptyRow(r)) {
+                empty = false;
+                break;
+            }
+        }
+        if (empty) return fail(new Problem(Problem.Kind.TABLE, "Table:", "Cannot evaluate empty table."));
+
+        for (int r = 0; r < modelRows; r++) {
+            if (!shortRowGood(solver, r)) {
+                List<int[]> cells = new ArrayList<>();
+                for (int col : basicFormulaCols) {
+                    if (!value(col, r).isEmpty()) cells.add(new int[]{col, r});
+                }
+                for (List<SubColumn> subList : mainFormulaSubLists) {
+                    for (SubColumn sub : subList) {
+                        if (!value(sub.column, r).isEmpty()) cells.add(new int[]{sub.column, r});
+                    }
+                }
+                return fail(new Problem(Problem.Kind.TABLE, "Table Values:",
+                        Collections.singletonList(ParseUtilities.newRegularText("Problems in row: not all these values are included in any row of a completed table.")),
+                        "row " + (r + 1), Collections.emptyList(), cells));
+            }
+        }
+
+        boolean isGoodRow = false;
+        for (int r = 0; r < modelRows && !isGoodRow; r++) {
+            boolean rowComplete = true;
+            for (int col : basicFormulaCols) {
+                if (value(col, r).isEmpty()) {
+                    rowComplete = false;
+                    break;
+                }
+            }
+            outer:
+            for (int j = 0; j < mainFormulaSubLists.size() && rowComplete; j++) {
+                for (SubColumn sub : mainFormulaSubLists.get(j)) {
+                    if (value(sub.column, r).isEmpty() && (!skipBasicsOK || !isBasic(sub.formula) || sub.main)) {
+                        rowComplete = false;
+                        break outer;
+                    }
+                }
+            }
+            isGoodRow = rowComplete;
+        }
+        if (!isGoodRow) return fail(new Problem(Problem.Kind.TABLE, "Table:", "Short table requires at least one completed row."));
+
+        return checkHighlights();
+    }
+
+    /**
+     * A row of the table has every premise other than F and the conclusion F
+     * @param row the row
+     * @return true if the row has premises T and conclusion F
+     */
+    public boolean premisesTrueConclusionFalse(int row) {
+        int last = mainFormulaSubLists.size() - 1;
+        if (last < 0) return false;
+        boolean conclusionF = value(mainColumn(last), row).equals("F");
+        for (int j = 0; j < last && conclusionF; j++) {
+            if (value(mainColumn(j), row).equals("F")) return false;
+        }
+        return conclusionF;
+    }
+
+    /**
+     * After a completed table checks, the rows with premises T and conclusion F (none if the argument is valid)
+     * @return the rows
+     */
+    public List<Integer> getInvalidatingRows() {
+        List<Integer> rows = new ArrayList<>();
+        if (answerKey != null && answerKey.isValid()) return rows;
+        for (int r = 0; r < tableRows; r++) {
+            if (premisesTrueConclusionFalse(r)) rows.add(r);
+        }
+        return rows;
+    }
+
+    /**
+     * The table cells of the main formulas (the columns for the value of each whole formula) on some rows
+     * @param rows the rows
+     * @return the cells, as {column, row}
+     */
+    public List<int[]> mainFormulaCells(List<Integer> rows) {
+        List<int[]> cells = new ArrayList<>();
+        for (int row : rows) {
+            for (int j = 0; j < mainFormulaSubLists.size(); j++) cells.add(new int[]{mainColumn(j), row});
+        }
+        return cells;
+    }
+
+    /**
+     * The answer key made by the last check of a completed table when none was stored for this table
+     * @return the key, or null if the stored key was used (or the table is too large to keep one)
+     */
+    public TTanswerKey getNewAnswerKey() {
+        return newAnswerKey ? answerKey : null;
+    }
+
+    /**
+     * The problem found by the last check
+     * @return the problem
+     */
+    public Problem getProblem() {
+        return problem;
+    }
+
+    /*
+     * Basic formulas, layout and subformula columns
+     */
+    private boolean checkSetup() {
+        for (int i = 0; i < basicDocs.size(); i++) {
+            if (basicDocs.get(i).getText().equals("")) return failBasic("Table should be set up with no empty basic formula.", i);
+        }
+
+        basicFormulas = new Formula[basicDocs.size()];
+        for (int i = 0; i < basicFormulas.length; i++) {
+            List<Expression> basicExps = ParseCache.getSharedCache().parse(basicDocs.get(i), objLangName).getExpressions();
+            if (basicExps.size() != 1 || !(basicExps.get(0) instanceof Formula)) return failBasic("Setup of basic expression not a formula.", i);
+            if (!SyntacticalFns.sentence(basicExps.get(0), objLangName)) return failBasic("Setup of basic expression not a sentence.", i);
+            basicFormulas[i] = (Formula) basicExps.get(0);
+        }
+        basicFormulaSet = new HashSet<>(Arrays.asList(basicFormulas));
+
+        AlphanumStringComparator comparator = new AlphanumStringComparator();
+        for (int i = 0; i + 1 < basicDocs.size(); i++) {
+            if (comparator.compare(basicDocs.get(i).getText(), basicDocs.get(i + 1).getText()) >= 0) {
+                return failBasic("Table should be set up with basic formulas in alphanumeric order.", i, i + 1);
+            }
+        }
+        if (modelRows <= 0) return fail(new Problem(Problem.Kind.TABLE_ROWS, "Table Setup:", "Table should be set up with more than 0 rows."));
+        if (basicFormulas.length > TTevaluator.MAX_BASIC_FORMULAS) return fail(new Problem(Problem.Kind.BASIC_FORMULAS, "Table Setup:", "Too many basic sentences for a table."));
+        tableRows = 1 << basicFormulas.length;
+
+        setLayout();
+        if (tableValues == null || tableValues.length != tableColumns) return failSetup("Table values do not match the table setup.");
+        for (String[] column : tableValues) {
+            if (column != null && column.length < modelRows) return failSetup("Table values do not match the table setup.");
+        }
+
+        return populateSubformulaLists();
+    }
+
+    /*
+     * Columns as TruthTableExercise.setupHeadItemsFromModel: the columns of each basic formula and a blank, a stub if
+     * there are no basic formulas, the divider, the columns of each main formula (with a blank after each but the
+     * last, and the conclusion divider if any), and a final blank
+     */
+    private void setLayout() {
+        basicFormulaCols = new ArrayList<>();
+        mainFormulaCols = new ArrayList<>();
+        int columns = 0;
+        for (Document basicDoc : basicDocs) {
+            basicFormulaCols.add(columns);
+            columns += docParser.countHeadItems(basicDoc.getText()) + 1;
+        }
+        if (basicDocs.isEmpty()) columns++;
+        columns++;
+        for (int i = 0; i < mainDocs.size() - 1; i++) {
+            mainFormulaCols.add(columns);
+            columns += docParser.countHeadItems(mainDocs.get(i).getText()) + 1;
+        }
+        if (conclusionDivider) columns++;
+        if (!mainDocs.isEmpty()) {
+            mainFormulaCols.add(columns);
+            columns += docParser.countHeadItems(mainDocs.get(mainDocs.size() - 1).getText());
+        }
+        tableColumns = columns + 1;
+    }
+
+    private boolean populateSubformulaLists() {
+        mainFormulas = new ArrayList<>();
+        mainFormulaSubLists = new ArrayList<>();
+        for (int i = 0; i < mainDocs.size(); i++) {
+            List<Expression> mainExps = ParseCache.getSharedCache().parse(mainDocs.get(i), objLangName).getExpressions();
+            if (mainExps.size() != 1 || !(mainExps.get(0) instanceof Formula) || !SyntacticalFns.sentence(mainExps.get(0), objLangName)) {
+                return failSetup("Main formula " + (i + 1) + " is not a sentence.");
+            }
+            Formula formula = (Formula) mainExps.get(0);
+            mainFormulas.add(formula);
+            List<SubColumn> subList = new ArrayList<>();
+            populateFormulaSubList(formula, formula, subList, new int[]{mainFormulaCols.get(i)});
+            for (SubColumn sub : subList) {
+                if (sub.column >= tableColumns || tableValues[sub.column] == null) return failSetup("Table values do not match the table setup.");
+            }
+            SyntacticalFns.SortByLevel byLevel = new SyntacticalFns.SortByLevel();
+            subList.sort((s1, s2) -> byLevel.compare(s1.formula, s2.formula));
+            mainFormulaSubLists.add(subList);
+        }
+        for (int col : basicFormulaCols) {
+            if (tableValues[col] == null) return failSetup("Table values do not match the table setup.");
+        }
+
+        for (List<SubColumn> subList : mainFormulaSubLists) {
+            for (SubColumn sub : subList) {
+                if (isBasic(sub.formula) && !basicFormulaSet.contains(sub.formula)) {
+                    return failFormula(sub.formula, " is basic in the main table, but not included among base sentences in table setup.");
+                }
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Sentential subformulas in table order, numbering columns from counter[0]
+     */
+    private void populateFormulaSubList(Expression exp, Formula main, List<SubColumn> subList, int[] counter) {
+        if (exp == null || !SyntacticalFns.sentence(exp, objLangName)) return;
+        if (exp.getChildren().size() >= 2) populateFormulaSubList(exp.getChildren().get(0), main, subList, counter);
+        subList.add(new SubColumn((Formula) exp, counter[0]++, exp == main));
+        if (exp.getChildren().size() == 1) populateFormulaSubList(exp.getChildren().get(0), main, subList, counter);
+        if (exp.getChildren().size() >= 2) populateFormulaSubList(exp.getChildren().get(1), main, subList, counter);
+    }
+
+    private boolean checkRows() {
+        if (tableRows != modelRows) {
+            List<StyledText> texts = new ArrayList<>();
+            texts.add(ParseUtilities.newRegularText("Table with \ud835\udc5b basic sentences should have 2"));
+            texts.add(ParseUtilities.newSuperscriptText("\ud835\udc5b"));
+            texts.add(ParseUtilities.newRegularText(" rows."));
+            return fail(new Problem(Problem.Kind.TABLE_ROWS, "Table Setup:", texts, basicFormulas.length + " basic, " + modelRows + " rows",
+                    Collections.emptyList(), Collections.emptyList()));
+        }
+        return true;
+    }
+
+    /*
+     * Key columns from the stored answer key when it is for this table, and otherwise from the subformula DAG (where
+     * equal subformulas, within or across main formulas, share one node and column)
+     */
+    private boolean populateTableKey() {
+        TTevaluator evaluator = new TTevaluator(basicFormulas);
+        tableKey = new long[tableColumns][];
+        for (int i = 0; i < basicFormulaCols.size(); i++) tableKey[basicFormulaCols.get(i)] = evaluator.basicColumn(i);
+
+        int[] subformulaCounts = new int[mainFormulas.size()];
+        int[] mainFormulaColumns = new int[mainFormulas.size()];
+        for (int i = 0; i < mainFormulas.size(); i++) {
+            subformulaCounts[i] = mainFormulaSubLists.get(i).size();
+            mainFormulaColumns[i] = mainColumn(i);
+        }
+        List<String> basicStrings = new ArrayList<>();
+        for (Formula basic : basicFormulas) basicStrings.add(basic.toString());
+        String contentHash = TTanswerKey.contentHash(objLangName, basicStrings, mainDocs);
+        newAnswerKey = false;
+        if (storedKey != null && storedKey.matches(contentHash) && storedKey.fits(subformulaCounts)) {
+            answerKey = storedKey;
+            for (int i = 0; i < mainFormulas.size(); i++) {
+                for (SubColumn sub : mainFormulaSubLists.get(i)) {
+                    tableKey[sub.column] = answerKey.getColumn(i, sub.column - mainFormulaCols.get(i));
+                }
+            }
+        }
+        else {
+            TTdag dag = new TTdag(evaluator);
+            for (int i = 0; i < mainFormulas.size(); i++) {
+                try {
+                    for (SubColumn sub : mainFormulaSubLists.get(i)) tableKey[sub.column] = dag.column(dag.add(sub.formula));
+                }
+                catch (IllegalArgumentException e) {
+                    return failFormula(mainFormulas.get(i), " cannot be evaluated from the base sentences in table setup.");
+                }
+            }
+            answerKey = TTanswerKey.fromTable(contentHash, tableKey, mainFormulaCols, subformulaCounts, mainFormulaColumns, tableRows);
+            newAnswerKey = true;
+        }
+        return true;
+    }
+
+    private boolean checkTableValues() {
+        for (int i = 0; i < basicFormulaCols.size(); i++) {
+            int col = basicFormulaCols.get(i);
+            List<int[]> badCells = new ArrayList<>();
+            for (int r = 0; r < tableRows; r++) {
+                if (!keyValue(col, r).equalsIgnoreCase(value(col, r))) badCells.add(new int[]{col, r});
+            }
+            if (!badCells.isEmpty()) return failColumn("Problem(s) in column.", basicFormulas[i], badCells);
+        }
+        for (List<SubColumn> subList : mainFormulaSubLists) {
+            for (SubColumn sub : subList) {
+                List<int[]> badCells = new ArrayList<>();
+                for (int r = 0; r < tableRows; r++) {
+                    if (skipBasicsOK && isBasic(sub.formula) && !sub.main && value(sub.column, r).equals("")) continue;
+                    if (!keyValue(sub.column, r).equalsIgnoreCase(value(sub.column, r))) badCells.add(new int[]{sub.column, r});
+                }
+                if (!badCells.isEmpty()) {
+                    String text = sub.main ? "Problem(s) in column." : "Problems(s) in column -- where values in this column may matter for ones that depend upon it.";
+                    return failColumn(text, sub.formula, badCells);
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean checkHighlights() {
+        for (int col : basicFormulaCols) {
+            if (highlighted(col)) return failHighlight("In completed table, highlight only columns in main table.", col);
+        }
+        for (List<SubColumn> subList : mainFormulaSubLists) {
+            for (SubColumn sub : subList) {
+                if (highlighted(sub.column) && !sub.main) return failHighlight("In completed table, highlight only column for value of the whole formula.", sub.column);
+            }
+        }
+        for (List<SubColumn> subList : mainFormulaSubLists) {
+            for (SubColumn sub : subList) {
+                if (sub.main && !highlighted(sub.column)) return failHighlight("In completed table, highlight column for value of the whole formula.", sub.column);
+            }
+        }
+        return true;
+    }
+
+    private boolean emptyRow(int r) {
+        for (int col : basicFormulaCols) {
+            if (!value(col, r).isEmpty()) return false;
+        }
+        for (List<SubColumn> subList : mainFormulaSubLists) {
+            for (SubColumn sub : subList) {
+                if (!value(sub.column, r).isEmpty()) return false;
+            }
+        }
+        return true;
+    }
+
+    //row values (where not empty) are the values on some row of a completed table
+    private boolean shortRowGood(TTsolver solver, int r) {
+        List<Formula> formulas = new ArrayList<>();
+        List<Boolean> values = new ArrayList<>();
+        for (int j = 0; j < basicFormulaCols.size(); j++) {
+            String text = value(basicFormulaCols.get(j), r);
+            if (text.isEmpty()) continue;
+            if (!text.equals("T") && !text.equals("F")) return false;
+            formulas.add(basicFormulas[j]);
+            values.add(text.equals("T"));
+        }
+        for (List<SubColumn> subList : mainFormulaSubLists) {
+            for (SubColumn sub : subList) {
+                String text = value(sub.column, r);
+                if (text.isEmpty()) continue;
+                if (!text.equals("T") && !text.equals("F")) return false;
+                formulas.add(sub.formula);
+                values.add(text.equals("T"));
+            }
+        }
+        try {
+            return solver.satisfy(formulas, values).isFound();
+        }
+        catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private int mainColumn(int index) {
+        for (SubColumn sub : mainFormulaSubLists.get(index)) {
+            if (sub.main) return sub.column;
+        }
+        return -1;
+    }
+
+    private String value(int column, int row) {
+        String text = tableValues[column][row];
+        return text == null ? "" : text;
+    }
+
+    private boolean highlighted(int column) {
+        return columnHighlights != null && column < columnHighlights.length && columnHighlights[column];
+    }
+
+    private String keyValue(int column, int row) {
+        return TTevaluator.valueString(tableKey[column], row);
+    }
+
+    private boolean isBasic(Expression exp) {
+        if (exp.getChildren() == null || exp.getChildren().size() == 0) return true;
+        for (Expression child : exp.getChildren()) {
+            if (!SyntacticalFns.sentence(child, objLangName)) return true;
+        }
+        return false;
+    }
+
+    private boolean fail(Problem problem) {
+        this.problem = problem;
+        return false;
+    }
+
+    private boolean failSetup(String text) {
+        return fail(new Problem(Problem.Kind.TABLE, "Table Setup:", text));
+    }
+
+    private boolean failBasic(String text, Integer... indices) {
+        return fail(new Problem(Problem.Kind.BASIC_FORMULAS, "Table Setup:", Collections.singletonList(ParseUtilities.newRegularText(text)), null,
+                Arrays.asList(indices), Collections.emptyList()));
+    }
+
+    private boolean failFormula(Formula formula, String text) {
+        List<StyledText> texts = new ArrayList<>(formula.toTextList());
+        texts.add(ParseUtilities.newRegularText(text));
+        return fail(new Problem(Problem.Kind.TABLE, "Table Setup:", texts, null, Collections.emptyList(), Collections.emptyList()));
+    }
+
+    private boolean failColumn(String text, Formula formula, List<int[]> cells) {
+        return fail(new Problem(Problem.Kind.TABLE, "Table Values:", Collections.singletonList(ParseUtilities.newRegularText(text)),
+                "column for " + formula, Collections.emptyList(), cells));
+    }
+
+    private boolean failHighlight(String text, int column) {
+        List<int[]> cells = new ArrayList<>();
+        for (int r = 0; r < modelRows; r++) cells.add(new int[]{column, r});
+        return fail(new Problem(Problem.Kind.TABLE, "Highlight:", Collections.singletonList(ParseUtilities.newRegularText(text)), null,
+                Collections.emptyList(), cells));
+    }
+}
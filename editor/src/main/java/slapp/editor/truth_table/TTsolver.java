@@ -0,0 +1,502 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+
+package slapp.editor.truth_table;
+
+import slapp.editor.parser.Expression;
+import slapp.editor.parser.grammatical_parts.Formula;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decide validity, consistency and equivalence for sentential formulas on basic formulas without enumerating the rows
+ * of the table.  The formulas are encoded as clauses (with a variable for each distinct subformula) and the clauses
+ * are searched by conflict driven clause learning: unit propagation over watched literals, a learned clause at the
+ * first unique implication point of each conflict, and branching on the most active variable.
+ * <p>
+ * A result that is found gives the witnessing row: the values of the basic formulas, and the row number in table order
+ * (as TTevaluator) when there are few enough basic formulas for one.  Headless; each query has a search of its own.
+ */
+public class TTsolver {
+
+    private final Formula[] basicFormulas;
+
+    /**
+     * Solver for formulas on basic formulas
+     * @param basicFormulas the basic formulas in table order
+     */
+    public TTsolver(Formula[] basicFormulas) {
+        this.basicFormulas = basicFormulas.clone();
+    }
+
+    /**
+     * Find a row on which each formula has its value
+     * @param formulas the formulas
+     * @param values the value (true for T) for each formula
+     * @return the result, found if there is such a row
+     * @throws IllegalArgumentException if some part of a formula is neither compound by a connective nor basic
+     */
+    public Result satisfy(List<Formula> formulas, List<Boolean> values) {
+        if (formulas.size() != values.size()) throw new IllegalArgumentException("Formulas and values differ in number");
+        Encoder encoder = new Encoder();
+        for (int i = 0; i < formulas.size(); i++) {
+            int literal = encoder.encode(formulas.get(i));
+            encoder.solver.addClause(values.get(i) ? literal : negate(literal));
+        }
+        return encoder.solve();
+    }
+
+    /**
+     * Find a row on which all the formulas are true
+     * @param formulas the formulas
+     * @return the result, found just in case the formulas are consistent
+     */
+    public Result consistent(List<Formula> formulas) {
+        return satisfy(formulas, Collections.nCopies(formulas.size(), true));
+    }
+
+    /**
+     * Find a row on which the premises are true and the conclusion false
+     * @param premises the premises
+     * @param conclusion the conclusion
+     * @return the result, found just in case the argument is invalid
+     */
+    public Result counterexample(List<Formula> premises, Formula conclusion) {
+        List<Formula> formulas = new ArrayList<>(premises);
+        List<Boolean> values = new ArrayList<>(Collections.nCopies(premises.size(), true));
+        formulas.add(conclusion);
+        values.add(false);
+        return satisfy(formulas, values);
+    }
+
+    /**
+     * Find a row on which two formulas have different values
+     * @param formula1 the first formula
+     * @param formula2 the second formula
+     * @return the result, found just in case the formulas are not equivalent
+     */
+    public Result difference(Formula formula1, Formula formula2) {
+        Encoder encoder = new Encoder();
+        int literal1 = encoder.encode(formula1);
+        int literal2 = encoder.encode(formula2);
+        encoder.solver.addClause(literal1, literal2);
+        encoder.solver.addClause(negate(literal1), negate(literal2));
+        return encoder.solve();
+    }
+
+    public boolean isValid(List<Formula> premises, Formula conclusion) {
+        return !counterexample(premises, conclusion).isFound();
+    }
+
+    public boolean isConsistent(List<Formula> formulas) {
+        return consistent(formulas).isFound();
+    }
+
+    public boolean isEquivalent(Formula formula1, Formula formula2) {
+        return !difference(formula1, formula2).isFound();
+    }
+
+    //literals: 2 * variable for the positive literal, 2 * variable + 1 for the negative
+    private static int literal(int variable, boolean positive) {
+        return positive ? 2 * variable : 2 * variable + 1;
+    }
+
+    private static int negate(int literal) {
+        return literal ^ 1;
+    }
+
+    /**
+     * Result of a query: whether there is a row, the row if there is, and the statistics of the search
+     */
+    public static class Result {
+        private final boolean found;
+        private final boolean[] values;
+        private final long row;
+        private final long decisions;
+        private final long conflicts;
+
+        private Result(boolean found, boolean[] values, long row, long decisions, long conflicts) {
+            this.found = found;
+            this.values = values;
+            this.row = row;
+            this.decisions = decisions;
+            this.conflicts = conflicts;
+        }
+
+        public boolean isFound() {
+            return found;
+        }
+
+        /**
+         * Values of the basic formulas on the row found
+         * @return the values (true for T) in table order, or null if not found
+         */
+        public boolean[] getValues() {
+            return values == null ? null : values.clone();
+        }
+
+        /**
+         * Number of the row found in table order
+         * @return the row, or -1 if not found or there are more than 62 basic formulas
+         */
+        public long getRow() {
+            return row;
+        }
+
+        public long getDecisions() {
+            return decisions;
+        }
+
+        public long getConflicts() {
+            return conflicts;
+        }
+    }
+
+    /*
+     * Clauses for formulas: variables 0 to n - 1 are the basic formulas, and each distinct compound subformula gets the
+     * next variable, with clauses that make it equivalent to its connective applied to the variables of its parts.
+     */
+    private class Encoder {
+        private final Solver solver = new Solver();
+        private final Map<Formula, Integer> subformulaVariables = new HashMap<>();
+
+        private Encoder() {
+            for (int i = 0; i < basicFormulas.length; i++) solver.newVariable();
+        }
+
+        private int encode(Formula formula) {
+            byte code = TTevaluator.connectiveCode(formula.getMainOperator());
+            List<Expression> children = formula.getChildren();
+            int arity = code == TTevaluator.NEGATION ? 1 : 2;
+            if (code == TTevaluator.LOAD || children == null || children.size() != arity) {
+                for (int i = 0; i < basicFormulas.length; i++) {
+                    if (basicFormulas[i].equals(formula)) return literal(i, true);
+                }
+                throw new IllegalArgumentException("Not among the basic formulas: " + formula);
+            }
+
+            Integer known = subformulaVariables.get(formula);
+            if (known != null) return literal(known, true);
+            for (Expression child : children) {
+                if (!(child instanceof Formula)) throw new IllegalArgumentException("Not a formula: " + child);
+            }
+            int a = encode((Formula) children.get(0));
+            int b = arity == 2 ? encode((Formula) children.get(1)) : 0;
+            int variable = solver.newVariable();
+            int g = literal(variable, true);
+            int ng = negate(g);
+            switch (code) {
+                case TTevaluator.NEGATION:
+                    solver.addClause(ng, negate(a));
+                    solver.addClause(g, a);
+                    break;
+                case TTevaluator.CONDITIONAL:
+                    solver.addClause(ng, negate(a), b);
+                    solver.addClause(g, a);
+                    solver.addClause(g, negate(b));
+                    break;
+                case TTevaluator.CONJUNCTION:
+                    solver.addClause(ng, a);
+                    solver.addClause(ng, b);
+                    solver.addClause(g, negate(a), negate(b));
+                    break;
+                case TTevaluator.DISJUNCTION:
+                    solver.addClause(ng, a, b);
+                    solver.addClause(g, negate(a));
+                    solver.addClause(g, negate(b));
+                    break;
+                case TTevaluator.BICONDITIONAL:
+                    solver.addClause(ng, negate(a), b);
+                    solver.addClause(ng, a, negate(b));
+                    solver.addClause(g, a, b);
+                    solver.addClause(g, negate(a), negate(b));
+                    break;
+                case TTevaluator.NAND:
+                    solver.addClause(g, a);
+                    solver.addClause(g, b);
+                    solver.addClause(ng, negate(a), negate(b));
+                    break;
+                case TTevaluator.NOR:
+                    solver.addClause(ng, negate(a));
+                    solver.addClause(ng, negate(b));
+                    solver.addClause(g, a, b);
+                    break;
+                default:
+            }
+            subformulaVariables.put(formula, variable);
+            return g;
+        }
+
+        private Result solve() {
+            if (!solver.solve()) return new Result(false, null, -1, solver.decisions, solver.conflicts);
+            int n = basicFormulas.length;
+            boolean[] values = new boolean[n];
+            long row = n <= 62 ? 0 : -1;
+            for (int i = 0; i < n; i++) {
+                values[i] = solver.assigns[i] == 1;
+                if (row >= 0 && !values[i]) row |= 1L << (n - 1 - i);
+            }
+            return new Result(true, values, row, solver.decisions, solver.conflicts);
+        }
+    }
+
+    private static class Clause {
+        private final int[] literals;
+
+        private Clause(int[] literals) {
+            this.literals = literals;
+        }
+    }
+
+    /*
+     * Search over clauses.  Assignments are by variable (1 true, -1 false, 0 unassigned); the trail lists the assigned
+     * literals in order, with the start of each decision level in trailLimits.  Each clause of two or more literals
+     * watches its first two; a clause is visited only when one of those becomes false.
+     */
+    private static class Solver {
+        private static final double ACTIVITY_DECAY = 0.95;
+
+        private int variables = 0;
+        private byte[] assigns = new byte[16];
+        private boolean[] phases = new boolean[16];
+        private int[] levels = new int[16];
+        private Clause[] reasons = new Clause[16];
+        private double[] activities = new double[16];
+        private boolean[] seen = new boolean[16];
+        private List<List<Clause>> watches = new ArrayList<>();
+
+        private int[] trail = new int[16];
+        private int trailSize = 0;
+        private int[] trailLimits = new int[16];
+        private int decisionLevel = 0;
+        private int propagationHead = 0;
+        private double activityIncrement = 1.0;
+        private boolean consistent = true;
+
+        private long decisions = 0;
+        private long conflicts = 0;
+
+        private int newVariable() {
+            int variable = variables++;
+            if (variable == assigns.length) {
+                int capacity = 2 * assigns.length;
+                assigns = Arrays.copyOf(assigns, capacity);
+                phases = Arrays.copyOf(phases, capacity);
+                levels = Arrays.copyOf(levels, capacity);
+                reasons = Arrays.copyOf(reasons, capacity);
+                activities = Arrays.copyOf(activities, capacity);
+                seen = Arrays.copyOf(seen, capacity);
+                trail = Arrays.copyOf(trail, capacity);
+                trailLimits = Arrays.copyOf(trailLimits, capacity + 1);
+            }
+            watches.add(new ArrayList<>());
+            watches.add(new ArrayList<>());
+            return variable;
+        }
+
+        //value of a literal: 1 true, -1 false, 0 unassigned
+        private int value(int literal) {
+            int assigned = assigns[literal >> 1];
+            return (literal & 1) == 0 ? assigned : -assigned;
+        }
+
+        //add a clause at level 0 (before the search), simplified by the assignments so far
+        private void addClause(int... literals) {
+            if (!consistent) return;
+            int[] kept = new int[literals.length];
+            int size = 0;
+            for (int literal : literals) {
+                int value = value(literal);
+                if (value == 1) return;
+                if (value == -1) continue;
+                boolean duplicate = false;
+                for (int j = 0; j < size; j++) {
+                    if (kept[j] == negate(literal)) return;
+                    if (kept[j] == literal) duplicate = true;
+                }
+                if (!duplicate) kept[size++] = literal;
+            }
+            if (size == 0) consistent = false;
+            else if (size == 1) {
+                assign(kept[0], null);
+                if (propagate() != null) consistent = false;
+            }
+            else attach(new Clause(Arrays.copyOf(kept, size)));
+        }
+
+        private void attach(Clause clause) {
+            watches.get(clause.literals[0]).add(clause);
+            watches.get(clause.literals[1]).add(clause);
+        }
+
+        private void assign(int literal, Clause reason) {
+            int variable = literal >> 1;
+            assigns[variable] = (byte) ((literal & 1) == 0 ? 1 : -1);
+            levels[variable] = decisionLevel;
+            reasons[variable] = reason;
+            trail[trailSize++] = literal;
+        }
+
+        //unit propagation; returns a conflicting clause, or null
+        private Clause propagate() {
+            while (propagationHead < trailSize) {
+                int falseLiteral = negate(trail[propagationHead++]);
+                List<Clause> watching = watches.get(falseLiteral);
+                int kept = 0;
+                int i = 0;
+                while (i < watching.size()) {
+                    Clause clause = watching.get(i++);
+                    int[] literals = clause.literals;
+                    if (literals[0] == falseLiteral) {
+                        literals[0] = literals[1];
+                        literals[1] = falseLiteral;
+                    }
+                    if (value(literals[0]) == 1) {
+                        watching.set(kept++, clause);
+                        continue;
+                    }
+                    boolean moved = false;
+                    for (int k = 2; k < literals.length; k++) {
+                        if (value(literals[k]) != -1) {
+                            literals[1] = literals[k];
+                            literals[k] = falseLiteral;
+                            watches.get(literals[1]).add(clause);
+                            moved = true;
+                            break;
+                        }
+                    }
+                    if (moved) continue;
+                    watching.set(kept++, clause);
+                    if (value(literals[0]) == -1) {
+                        while (i < watching.size()) watching.set(kept++, watching.get(i++));
+                        watching.subList(kept, watching.size()).clear();
+                        propagationHead = trailSize;
+                        return clause;
+                    }
+                    assign(literals[0], clause);
+                }
+                watching.subList(kept, watching.size()).clear();
+            }
+            return null;
+        }
+
+        //learned clause at the first unique implication point, with the asserting literal first
+        private int[] analyze(Clause conflict) {
+            List<Integer> learned = new ArrayList<>();
+            learned.add(0);
+            int pending = 0;
+            int literal = -1;
+            int index = trailSize - 1;
+            Clause clause = conflict;
+            do {
+                int[] literals = clause.literals;
+                for (int j = literal == -1 ? 0 : 1; j < literals.length; j++) {
+                    int variable = literals[j] >> 1;
+                    if (!seen[variable] && levels[variable] > 0) {
+                        bump(variable);
+                        seen[variable] = true;
+                        if (levels[variable] >= decisionLevel) pending++;
+                        else learned.add(literals[j]);
+                    }
+                }
+                while (!seen[trail[index] >> 1]) index--;
+                literal = trail[index--];
+                clause = reasons[literal >> 1];
+                seen[literal >> 1] = false;
+                pending--;
+            } while (pending > 0);
+            learned.set(0, negate(literal));
+
+            int[] result = new int[learned.size()];
+            for (int j = 0; j < result.length; j++) {
+                result[j] = learned.get(j);
+                seen[result[j] >> 1] = false;
+            }
+
+            //second literal from the highest remaining level, for the backjump and the watch
+            if (result.length > 1) {
+                int highest = 1;
+                for (int j = 2; j < result.length; j++) {
+                    if (levels[result[j] >> 1] > levels[result[highest] >> 1]) highest = j;
+                }
+                int swap = result[1];
+                result[1] = result[highest];
+                result[highest] = swap;
+            }
+            return result;
+        }
+
+        private void bump(int variable) {
+            activities[variable] += activityIncrement;
+            if (activities[variable] > 1e100) {
+                for (int v = 0; v < variables; v++) activities[v] *= 1e-100;
+                activityIncrement *= 1e-100;
+            }
+        }
+
+        private void backtrack(int level) {
+            if (decisionLevel <= level) return;
+            for (int i = trailSize - 1; i >= trailLimits[level]; i--) {
+                int variable = trail[i] >> 1;
+                phases[variable] = assigns[variable] == 1;
+                assigns[variable] = 0;
+                reasons[variable] = null;
+            }
+            trailSize = trailLimits[level];
+            propagationHead = trailSize;
+            decisionLevel = level;
+        }
+
+        private int pickBranchVariable() {
+            int best = -1;
+            for (int v = 0; v < variables; v++) {
+                if (assigns[v] == 0 && (best < 0 || activities[v] > activities[best])) best = v;
+            }
+            return best;
+        }
+
+        private boolean solve() {
+            if (!consistent) return false;
+            while (true) {
+                Clause conflict = propagate();
+                if (conflict != null) {
+                    conflicts++;
+                    if (decisionLevel == 0) return false;
+                    int[] learned = analyze(conflict);
+                    backtrack(learned.length > 1 ? levels[learned[1] >> 1] : 0);
+                    if (learned.length == 1) assign(learned[0], null);
+                    else {
+                        Clause clause = new Clause(learned);
+                        attach(clause);
+                        assign(learned[0], clause);
+                    }
+                    activityIncrement /= ACTIVITY_DECAY;
+                }
+                else {
+                    int variable = pickBranchVariable();
+                    if (variable < 0) return true;
+                    decisions++;
+                    trailLimits[decisionLevel++] = trailSize;
+                    assign(literal(variable, phases[variable]), null);
+                }
+            }
+        }
+    }
+}
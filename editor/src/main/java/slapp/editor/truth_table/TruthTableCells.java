@@ -0,0 +1,384 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+
+package slapp.editor.truth_table;
+
+import javafx.beans.InvalidationListener;
+import javafx.geometry.Bounds;
+import javafx.geometry.VPos;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.util.Arrays;
+
+/**
+ * The value cells of a truth table.  Values are held in a byte model (0 for an empty cell, else the upper case
+ * character) and each value column is a single node that paints its cells on a canvas.  Inside a scroll pane the
+ * canvas covers just the rows in view, so that the nodes and drawing for a table do not grow with its rows.
+ */
+public class TruthTableCells {
+
+    public static final byte PLAIN = 0;
+    public static final byte HIGHLIGHT = 1;
+    public static final byte ERROR = 2;
+
+    private static final double ROW_HEIGHT = 25;
+    private static final double GAP_HEIGHT = 5;
+    private static final Color BORDER_COLOR = Color.web("#c4c4c4");
+    private static final Color FOCUS_COLOR = Color.web("#039ed3");
+    private static final Color ERROR_COLOR = Color.MISTYROSE;
+
+    private final byte[][] values;
+    private final byte[][] styles;
+    private final CellColumn[] columnNodes;
+    private final int rows;
+    private final double cellWidth;
+    private final Color highlightColor;
+    private Runnable onEdit = () -> {};
+
+    /**
+     * Construct the table cells
+     * @param valueColumns true for each column of the table that takes values (false for blank columns)
+     * @param rows the number of table rows
+     * @param cellWidth the width of a cell
+     * @param highlightColor the background color of highlighted cells
+     */
+    public TruthTableCells(boolean[] valueColumns, int rows, double cellWidth, Color highlightColor) {
+        this.rows = rows;
+        this.cellWidth = cellWidth;
+        this.highlightColor = highlightColor;
+        values = new byte[valueColumns.length][];
+        styles = new byte[valueColumns.length][];
+        columnNodes = new CellColumn[valueColumns.length];
+        for (int i = 0; i < valueColumns.length; i++) {
+            if (valueColumns[i]) {
+                values[i] = new byte[rows];
+                styles[i] = new byte[rows];
+                columnNodes[i] = new CellColumn(i);
+            }
+        }
+    }
+
+    /**
+     * A value column is one with cells (not a blank column)
+     * @param column the column index
+     * @return true if the column takes values
+     */
+    public boolean isValueColumn(int column) {
+        return column >= 0 && column < values.length && values[column] != null;
+    }
+
+    /**
+     * Node to appear in the table grid for a value column, spanning the table rows
+     * @param column the column index
+     * @return the node, or null for a blank column
+     */
+    public Node getColumnNode(int column) {
+        return columnNodes[column];
+    }
+
+    /**
+     * Text of a cell
+     * @param column the column index
+     * @param row the row index
+     * @return the (single character) text, or the empty string for an empty cell or blank column
+     */
+    public String getText(int column, int row) {
+        if (!isValueColumn(column) || values[column][row] == 0) return "";
+        return String.valueOf((char) values[column][row]);
+    }
+
+    /**
+     * Set the text of a cell.  As for entry from the keyboard, a cell takes a single letter or digit (in upper case);
+     * any other text leaves the cell unchanged.
+     * @param column the column index
+     * @param row the row index
+     * @param text the text, where null or empty clears the cell
+     */
+    public void setText(int column, int row, String text) {
+        if (text == null || text.isEmpty()) setValue(column, row, (byte) 0);
+        else if (text.length() == 1 && acceptable(text.charAt(0))) setValue(column, row, (byte) Character.toUpperCase(text.charAt(0)));
+    }
+
+    /**
+     * Set the style of a cell
+     * @param column the column index
+     * @param row the row index
+     * @param style PLAIN, HIGHLIGHT or ERROR
+     */
+    public void setCellStyle(int column, int row, byte style) {
+        if (styles[column][row] != style) {
+            styles[column][row] = style;
+            columnNodes[column].draw();
+        }
+    }
+
+    public byte getCellStyle(int column, int row) {
+        return styles[column][row];
+    }
+
+    /**
+     * Set the style of every cell in a column
+     * @param column the column index
+     * @param style PLAIN, HIGHLIGHT or ERROR
+     */
+    public void setColumnStyle(int column, byte style) {
+        Arrays.fill(styles[column], style);
+        columnNodes[column].draw();
+    }
+
+    /**
+     * Action to run when a cell is changed from the keyboard
+     * @param onEdit the action
+     */
+    public void setOnEdit(Runnable onEdit) {
+        this.onEdit = onEdit == null ? () -> {} : onEdit;
+    }
+
+    /**
+     * Give the keyboard focus to a cell
+     * @param column the column index
+     * @param row the row index
+     */
+    public void focusCell(int column, int row) {
+        CellColumn node = columnNodes[column];
+        node.focusRow = row;
+        node.requestFocus();
+        node.draw();
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    private void setValue(int column, int row, byte value) {
+        if (values[column][row] != value) {
+            values[column][row] = value;
+            columnNodes[column].draw();
+        }
+    }
+
+    private static boolean acceptable(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /*
+     * Rows are 25 high, except that every fourth row (after the first) is 30 high with its cell at the bottom.
+     */
+    private static double cellTop(int row) {
+        double top = row * ROW_HEIGHT + (row == 0 ? 0 : ((row - 1) / 4) * GAP_HEIGHT);
+        return (row != 0 && row % 4 == 0) ? top + GAP_HEIGHT : top;
+    }
+
+    private double columnHeight() {
+        return rows == 0 ? 0 : cellTop(rows - 1) + ROW_HEIGHT;
+    }
+
+    //row whose cell contains y, or -1
+    private int rowAt(double y) {
+        if (y < 0 || rows == 0) return -1;
+        int row = Math.min((int) (y / ROW_HEIGHT), rows - 1);
+        while (row > 0 && cellTop(row) > y) row--;
+        while (row < rows - 1 && cellTop(row + 1) <= y) row++;
+        return y < cellTop(row) + ROW_HEIGHT ? row : -1;
+    }
+
+    private int valueColumnRight(int column) {
+        for (int i = column + 1; i < values.length; i++) {
+            if (values[i] != null) return i;
+        }
+        return column;
+    }
+
+    private int valueColumnLeft(int column) {
+        for (int i = column - 1; i >= 0; i--) {
+            if (values[i] != null) return i;
+        }
+        return column;
+    }
+
+    /*
+     * Node for one value column.  The canvas is sized to the rows in view (all of the rows outside a scroll pane) and
+     * redrawn as the column is scrolled.
+     */
+    private class CellColumn extends Region {
+        private final int column;
+        private final Canvas canvas = new Canvas();
+        private int focusRow = 0;
+        private int firstRow = 0;
+        private int lastRow = -1;
+        private ScrollPane scrollPane;
+        private final InvalidationListener viewportListener = ob -> updateWindow();
+
+        CellColumn(int column) {
+            this.column = column;
+            double height = columnHeight();
+            setMinSize(cellWidth, height);
+            setPrefSize(cellWidth, height);
+            setMaxSize(cellWidth, height);
+            setFocusTraversable(true);
+            getChildren().add(canvas);
+
+            focusedProperty().addListener((ob, ov, nv) -> draw());
+            localToSceneTransformProperty().addListener((ob, ov, nv) -> updateWindow());
+            sceneProperty().addListener((ob, ov, nv) -> {
+                if (scrollPane != null) scrollPane.viewportBoundsProperty().removeListener(viewportListener);
+                scrollPane = null;
+                for (Parent parent = getParent(); parent != null; parent = parent.getParent()) {
+                    if (parent instanceof ScrollPane) {
+                        scrollPane = (ScrollPane) parent;
+                        scrollPane.viewportBoundsProperty().addListener(viewportListener);
+                        break;
+                    }
+                }
+                updateWindow();
+            });
+
+            addEventHandler(MouseEvent.MOUSE_PRESSED, e -> {
+                int row = rowAt(e.getY());
+                if (row >= 0) focusCell(column, row);
+                else requestFocus();
+            });
+            addEventHandler(KeyEvent.KEY_TYPED, this::keyTyped);
+            addEventHandler(KeyEvent.KEY_PRESSED, this::keyPressed);
+        }
+
+        @Override
+        protected void layoutChildren() {
+            updateWindow();
+        }
+
+        private void keyTyped(KeyEvent e) {
+            String character = e.getCharacter();
+            if (rows == 0 || character.isEmpty() || e.isShortcutDown() || e.isControlDown() || e.isMetaDown() || Character.isISOControl(character.charAt(0))) return;
+            char c = character.charAt(0);
+            if (acceptable(c) && values[column][focusRow] != (byte) Character.toUpperCase(c)) {
+                setValue(column, focusRow, (byte) Character.toUpperCase(c));
+                onEdit.run();
+            }
+            focusCell(column, focusRow < rows - 1 ? focusRow + 1 : 0);
+            e.consume();
+        }
+
+        private void keyPressed(KeyEvent e) {
+            KeyCode code = e.getCode();
+            if (rows == 0) return;
+            if (code == KeyCode.UP && focusRow > 0) {
+                focusCell(column, focusRow - 1);
+                e.consume();
+            } else if (code == KeyCode.DOWN && focusRow < rows - 1) {
+                focusCell(column, focusRow + 1);
+                e.consume();
+            } else if (code == KeyCode.RIGHT) {
+                focusCell(valueColumnRight(column), focusRow);
+                e.consume();
+            } else if (code == KeyCode.LEFT) {
+                focusCell(valueColumnLeft(column), focusRow);
+                e.consume();
+            } else if (code == KeyCode.BACK_SPACE || code == KeyCode.DELETE) {
+                if (values[column][focusRow] != 0) {
+                    setValue(column, focusRow, (byte) 0);
+                    onEdit.run();
+                }
+                e.consume();
+            }
+        }
+
+        /*
+         * Fit the canvas to the rows in view
+         */
+        private void updateWindow() {
+            double top = 0;
+            double bottom = columnHeight();
+            if (scrollPane != null && getScene() != null) {
+                Bounds view = sceneToLocal(scrollPane.localToScene(scrollPane.getLayoutBounds()));
+                if (view != null) {
+                    top = Math.max(top, view.getMinY());
+                    bottom = Math.min(bottom, view.getMaxY());
+                }
+            }
+            int first = bottom <= top ? 0 : firstRowBelow(top);
+            int last = bottom <= top ? -1 : lastRowAbove(bottom);
+            if (first != firstRow || last != lastRow) {
+                firstRow = first;
+                lastRow = last;
+                draw();
+            }
+        }
+
+        private int firstRowBelow(double y) {
+            int row = Math.min((int) (y / ROW_HEIGHT), rows - 1);
+            while (row > 0 && cellTop(row - 1) + ROW_HEIGHT > y) row--;
+            while (row < rows - 1 && cellTop(row) + ROW_HEIGHT <= y) row++;
+            return row;
+        }
+
+        private int lastRowAbove(double y) {
+            int row = Math.min((int) (y / ROW_HEIGHT), rows - 1);
+            while (row > 0 && cellTop(row) >= y) row--;
+            return row;
+        }
+
+        private void draw() {
+            if (lastRow < firstRow) {
+                canvas.setWidth(0);
+                canvas.setHeight(0);
+                return;
+            }
+            double top = cellTop(firstRow);
+            canvas.setLayoutY(top);
+            canvas.setWidth(cellWidth);
+            canvas.setHeight(cellTop(lastRow) + ROW_HEIGHT - top);
+
+            GraphicsContext gc = canvas.getGraphicsContext2D();
+            gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            gc.setFont(Font.getDefault());
+            gc.setTextAlign(TextAlignment.CENTER);
+            gc.setTextBaseline(VPos.CENTER);
+            for (int row = firstRow; row <= lastRow; row++) {
+                double y = cellTop(row) - top;
+                switch (styles[column][row]) {
+                    case HIGHLIGHT: gc.setFill(highlightColor); break;
+                    case ERROR: gc.setFill(ERROR_COLOR); break;
+                    default: gc.setFill(Color.WHITE);
+                }
+                gc.fillRoundRect(0.5, y + 0.5, cellWidth - 1, ROW_HEIGHT - 1, 4, 4);
+                if (isFocused() && row == focusRow) {
+                    gc.setStroke(FOCUS_COLOR);
+                    gc.setLineWidth(1.5);
+                    gc.strokeRoundRect(1, y + 1, cellWidth - 2, ROW_HEIGHT - 2, 4, 4);
+                } else if (styles[column][row] == PLAIN) {
+                    gc.setStroke(BORDER_COLOR);
+                    gc.setLineWidth(1);
+                    gc.strokeRoundRect(0.5, y + 0.5, cellWidth - 1, ROW_HEIGHT - 1, 4, 4);
+                }
+                if (values[column][row] != 0) {
+                    gc.setFill(Color.BLACK);
+                    gc.fillText(String.valueOf((char) values[column][row]), cellWidth / 2, y + ROW_HEIGHT / 2);
+                }
+            }
+        }
+    }
+}
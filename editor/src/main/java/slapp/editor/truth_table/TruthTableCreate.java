@@ -1008,7 +1008,7 @@ public class TruthTableCreate {
             List<Expression> expressions = ParseUtilities.parseDoc(doc, langName);
             if (expressions.size() != 1 || !(expressions.get(0) instanceof Formula) || !SyntacticalFns.sentence(expressions.get(0), langName)) {
                 bdrta.setVTtreeBoxHighlight();
-                List<Text> texts = new ArrayList<>();
+                List<StyledText> texts = new ArrayList<>();
                 texts.add(ParseUtilities.newRegularText("Expression is not a sentence of "));
                 texts.addAll(Languages.getLanguage(langName).getNameTextList());
                 texts.add(ParseUtilities.newRegularText("."));
@@ -1020,6 +1020,7 @@ public class TruthTableCreate {
             mainFormulaDocs.add(doc);
         }
         model.setMainFormulas(mainFormulaDocs);
+        checkSetup.setAnswerKey(TTanswerKey.compute(checkSetup.getObjLangName(), mainFormulaDocs));
 
         model.setConclusionDivider(conclusionDividerCheck.isSelected());
 
@@ -214,21 +214,16 @@ public class TruthTableExercise implements Exercise<TruthTableModel, TruthTableV
 
 
         ToggleButton[] buttons = new ToggleButton[tableColumns];
-        TextField[][] columns = new TextField[tableColumns][tableRows];
+        TruthTableCells cells = truthTableView.newTableCells();
         List<TableHeadItem> tableHeadItems = truthTableView.getTableHeadItemsList();
 
 
         for (int i = 0; i < tableColumns; i++) {
             TableHeadItem headItem = tableHeadItems.get(i);
             if (!headItem.isBlankColumn()) {
-                TextField[] column = new TextField[tableRows];
                 for (int j = 0; j < tableRows; j++) {
-                    TextField charField = truthTableView.newSingleCharTextField(i, j);
-                    charField.setText(truthTableModel.getTableValues()[i][j]);
-                    charField.textProperty().addListener((ob, ov, nv) -> exerciseModified = true);
-                    column[j] = charField;
+                    cells.setText(i, j, truthTableModel.getTableValues()[i][j]);
                 }
-                columns[i] = column;
                 ToggleButton highlightButton = truthTableView.newHighlightButton(i);
                 highlightButton.setSelected(truthTableModel.getColumnHighlights()[i]);
                 highlightButton.selectedProperty().addListener((ob, ov, nv) -> exerciseModified = true);
@@ -236,7 +231,8 @@ public class TruthTableExercise implements Exercise<TruthTableModel, TruthTableV
 
             }
         }
-        truthTableView.setTableFields(columns);
+        cells.setOnEdit(() -> exerciseModified = true);
+        truthTableView.setTableCells(cells);
         truthTableView.setHighlightButtons(buttons);
     }
 
@@ -600,12 +596,12 @@ public class TruthTableExercise implements Exercise<TruthTableModel, TruthTableV
         model.setBasicFormulas(basicDocs);
 
         String[][] tableStrVals = new String[tableColumns][tableRows];
-        TextField[][] tableFields = truthTableView.getTableFields();
+        TruthTableCells tableCells = truthTableView.getTableCells();
         for (int i = 0; i < tableColumns; i ++) {
             String[] column = new String[tableRows];
             for (int j = 0; j < tableRows; j++) {
-                if (tableFields[i][j] != null) {
-                    String value = tableFields[i][j].getText();
+                if (tableCells.isValueColumn(i)) {
+                    String value = tableCells.getText(i, j);
                     column[j] = value;
                 }
             }
@@ -82,7 +82,7 @@ public class TruthTableView implements ExerciseView<DecoratedRTA> {
     private VBox centerBox;
     private double contentFixedHeight = -50;
     private List<TableHeadItem> tableHeadItemsList;
-    private TextField[][]  tableFields; //list of text field columns
+    private TruthTableCells tableCells; //table value cells
     private BoxedDRTA[] rowCommentsArray;
     private ToggleButton[] highlightButtons;
     private int tableRows = 0;
@@ -220,15 +220,11 @@ public class TruthTableView implements ExerciseView<DecoratedRTA> {
                 TextFlow headFlow = headItem.getExpression();
                 headFlow.setStyle("-fx-border-color: black; -fx-border-width: 0 0 1 0;");
                 tableGrid.add(headFlow, i, 0);
-                for (int j = 0; j < tableRows; j++) {
-                    tableGrid.add(tableFields[i][j], i, j + 2);
-                }
+                if (tableRows > 0) tableGrid.add(tableCells.getColumnNode(i), i, 2, 1, tableRows);
                 tableGrid.add(highlightButtons[i], i, tableRows + 3);
                 if (highlightButtons[i].isSelected()) {
                     highlightButtons[i].setStyle("-fx-border-radius: 10; -fx-border-color: dodgerblue; -fx-background-color: lightblue; -fx-background-radius: 10");
-                    for (int j = 0; j < tableRows; j++) {
-                        tableFields[i][j].setStyle("-fx-background-radius: 2; -fx-background-color: lightblue");
-                    }
+                    tableCells.setColumnStyle(i, TruthTableCells.HIGHLIGHT);
                 }
 
             } else if (headItem.isDividerColumn()) {
@@ -303,100 +299,15 @@ public class TruthTableView implements ExerciseView<DecoratedRTA> {
     }
 
     /**
-     * New character field for colum and row
-     * @param column the column
-     * @param row the row
-     * @return the text field
+     * New value cells for the table head items and rows
+     * @return the cells
      */
-    TextField newSingleCharTextField(int column, int row) {
-        TextField singleCharField = new TextField() {
-            @Override
-            public void replaceText(int start, int end, String text) {
-                super.replaceText(start, end, text.toUpperCase());
-            }
-        };
-
-        singleCharField.setPadding(new Insets(0));
-        singleCharField.setMaxWidth(18);
-
-        singleCharField.setAlignment(Pos.CENTER);
-        singleCharField.setStyle("-fx-background-radius: 2");
-        singleCharField.setPadding(new Insets(3));
-
-        UnaryOperator<TextFormatter.Change> textFilter = c -> {
-            if (c.getText().matches("[0-9a-zA-Z]")) {
-                c.setRange(0, singleCharField.getText().length());
-                return c;
-            } else if (c.getText().isEmpty()) {
-                return c;
-            }
-            return null;
-        };
-        TextFormatter<String> formatter = new TextFormatter<>(textFilter);
-        singleCharField.setTextFormatter(formatter);
-
-        singleCharField.addEventFilter(KeyEvent.KEY_TYPED, e -> {
-           if (row < tableRows - 1) {
-                tableFields[column][row + 1].requestFocus();
-           } else {
-                tableFields[column][0].requestFocus();
-           }
-
-        });
-
-        singleCharField.addEventFilter(KeyEvent.KEY_PRESSED, e -> {
-            KeyCode code = e.getCode();
-            if (code == KeyCode.UP && row > 0) {
-                tableFields[column][row - 1].requestFocus();
-                e.consume();
-            } else if (code == KeyCode.DOWN && row < tableRows - 1) {
-                tableFields[column][row + 1].requestFocus();
-                e.consume();
-            } else if (code == KeyCode.RIGHT) {
-                tableFields[tableColToRight(column)][row].requestFocus();
-                e.consume();
-            }  else if (code == KeyCode.LEFT) {
-                tableFields[tableColToLeft(column)][row].requestFocus();
-                e.consume();
-            }
-
-        });
-
-        return singleCharField;
-    }
-
-    /**
-     * First non-blank column to the right of given column
-     * @param column the given column index
-     * @return the index of column to right
-     */
-    private int tableColToRight(int column) {
-        int rightCol = column;
-        for (int i = column + 1; i < tableHeadItemsList.size(); i++) {
-            TableHeadItem item = tableHeadItemsList.get(i);
-            if (!item.isBlankColumn()) {
-                rightCol = i;
-                break;
-            }
+    TruthTableCells newTableCells() {
+        boolean[] valueColumns = new boolean[tableHeadItemsList.size()];
+        for (int i = 0; i < valueColumns.length; i++) {
+            valueColumns[i] = !tableHeadItemsList.get(i).isBlankColumn();
         }
-        return rightCol;
-    }
-
-    /**
-     * First non-blank column to left of given column
-     * @param column the given column index
-     * @return index of column to left
-     */
-    private int tableColToLeft(int column) {
-        int leftCol = column;
-        for (int i = column - 1; i >= 0; i--) {
-            TableHeadItem item = tableHeadItemsList.get(i);
-            if (!item.isBlankColumn()) {
-                leftCol = i;
-                break;
-            }
-        }
-        return leftCol;
+        return new TruthTableCells(valueColumns, tableRows, 18, Color.LIGHTBLUE);
     }
 
     /**
@@ -415,15 +326,11 @@ public class TruthTableView implements ExerciseView<DecoratedRTA> {
             if (button.isSelected()) {
                 button.setStyle("-fx-border-radius: 10; -fx-border-color: dodgerblue; -fx-background-color: lightblue; -fx-background-radius: 10;");
           //      button.setStyle("-fx-border-radius: 10; -fx-border-color: tomato; -fx-background-color: lavenderblush;");
-                for (int j = 0; j < tableRows; j++) {
-                    tableFields[index][j].setStyle("-fx-background-radius: 2; -fx-background-color: lightblue");  //pink
-                }
+                tableCells.setColumnStyle(index, TruthTableCells.HIGHLIGHT);
 
             } else {
                 button.setStyle("-fx-border-radius: 10; -fx-border-color: lightblue; -fx-background-color: ghostwhite;");
-                for (int j = 0; j < tableRows; j++) {
-                    tableFields[index][j].setStyle("-fx-background-radius: 2; -fxBackground-color: white");
-                }
+                tableCells.setColumnStyle(index, TruthTableCells.PLAIN);
             }
 
         });
@@ -793,16 +700,16 @@ public class TruthTableView implements ExerciseView<DecoratedRTA> {
     void setTableRows(int tableRows) { this.tableRows = tableRows;  }
 
     /**
-     * The TextField[][] of table values
-     * @param tableFields the array
+     * The value cells of the table
+     * @param tableCells the cells
      */
-    void setTableFields(TextField[][] tableFields) {  this.tableFields = tableFields; }
+    void setTableCells(TruthTableCells tableCells) {  this.tableCells = tableCells; }
 
     /**
-     * The TextField[][] of table values
-     * @return the array
+     * The value cells of the table
+     * @return the cells
      */
-    TextField[][] getTableFields() { return tableFields; }
+    TruthTableCells getTableCells() { return tableCells; }
 
     /**
      * The list of {@link slapp.editor.truth_table.TableHeadItem}
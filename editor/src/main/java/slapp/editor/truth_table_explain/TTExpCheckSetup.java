@@ -1,6 +1,7 @@
 package slapp.editor.truth_table_explain;
 
 import com.gluonhq.richtextarea.model.Document;
+import slapp.editor.truth_table.TTanswerKey;
 
 import java.io.Serializable;
 
@@ -23,6 +24,7 @@ public class TTExpCheckSetup implements Serializable {
     private boolean choiceB;
 
     private boolean skipBasicsOK;
+    private TTanswerKey answerKey;
     private boolean permitShortTable;
     private boolean shortTable;
 
@@ -180,4 +182,12 @@ public class TTExpCheckSetup implements Serializable {
     public void setShortTable(boolean shortTable) {
         this.shortTable = shortTable;
     }
+
+    public TTanswerKey getAnswerKey() {
+        return answerKey;
+    }
+
+    public void setAnswerKey(TTanswerKey answerKey) {
+        this.answerKey = answerKey;
+    }
 }
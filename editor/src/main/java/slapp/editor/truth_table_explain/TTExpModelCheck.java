@@ -0,0 +1,161 @@
+/*
+Copyright (c) 2024 Tony Roy
+
+This file is part of the Symbolic Logic APPlication (SLAPP).
+
+SLAPP is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+
+SLAPP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with SLAPP.  If not, see
+<https://www.gnu.org/licenses/>.
+ */
+
+package slapp.editor.truth_table_explain;
+
+import com.gluonhq.richtextarea.model.Document;
+import slapp.editor.parser.ParseUtilities;
+import slapp.editor.truth_table.TTmodelCheck;
+import slapp.editor.truth_table.TTmodelCheck.Problem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Check of a truth table explain exercise apart from any view: the full or short table, and then the choice.
+ * TTExpCheck runs the check on the values of its view; the batch grader runs it on the values saved with a model.
+ */
+public class TTExpModelCheck {
+
+    private final TTmodelCheck tableCheck;
+    private final TTExpCheckSetup checkSetup;
+    private final boolean shortTable;
+    private final boolean checkChoices;
+    private final boolean choiceAMade;
+    private final boolean choiceBMade;
+    private final Document[] rowComments;
+
+    private boolean choiceChecked;
+    private Problem problem;
+
+    /**
+     * Construct the check
+     * @param tableCheck check of the table
+     * @param checkSetup the check setup
+     * @param shortTable true if the table is a short table
+     * @param checkChoices true if choices are checked against those of the setup (when the setup has a choice)
+     * @param choiceAMade true if choice A is selected
+     * @param choiceBMade true if choice B is selected
+     * @param rowComments the row comments (or null)
+     */
+    public TTExpModelCheck(TTmodelCheck tableCheck, TTExpCheckSetup checkSetup, boolean shortTable, boolean checkChoices,
+                           boolean choiceAMade, boolean choiceBMade, Document[] rowComments) {
+        this.tableCheck = tableCheck;
+        this.checkSetup = checkSetup;
+        this.shortTable = shortTable;
+        this.checkChoices = checkChoices;
+        this.choiceAMade = choiceAMade;
+        this.choiceBMade = choiceBMade;
+        this.rowComments = rowComments;
+    }
+
+    /**
+     * Check a truth table explain model.  Checks available only to the instructor in the editor are not applied.
+     * @param model the model
+     * @return null if the table and choice check, and otherwise the problem
+     */
+    public static String check(TruthTableExpModel model) {
+        TTExpCheckSetup setup = model.getCheckSetup();
+        if (setup == null) setup = new TTExpCheckSetup();
+        TTmodelCheck tableCheck = new TTmodelCheck(setup.getObjLangName(), model.getUnaryOperators(), model.getBinaryOperators(),
+                model.getBasicFormulas(), model.getMainFormulas(), model.isConclusionDivider(), model.getTableRows(),
+                model.getTableValues(), model.getColumnHighlights(), setup.isSkipBasicsOK(), setup.getAnswerKey());
+        TTExpModelCheck modelCheck = new TTExpModelCheck(tableCheck, setup, setup.isShortTable(), setup.isCheckChoices(),
+                model.isaSelected(), model.isbSelected(), model.getRowComments());
+        return modelCheck.check() ? null : modelCheck.getProblem().getMessage();
+    }
+
+    /**
+     * Check the table and then the choice
+     * @return true if the table and choice check
+     */
+    public boolean check() {
+        choiceChecked = false;
+        if (shortTable ? !tableCheck.checkShortTable() : !tableCheck.checkFullTable()) return fail(tableCheck.getProblem());
+
+        if (checkSetup.isAutoCheckValidity()) {
+            choiceChecked = true;
+            if (!choiceAMade && !choiceBMade) return fail(new Problem(Problem.Kind.CHOICES, "Choices:", "No choice made."));
+            if (choiceAMade) {
+                if (shortTable) return fail(new Problem(Problem.Kind.CHOICE_A, "Choices:", "A short table is not sufficient to demonstrate validity."));
+
+                //the table values are correct, so rows to mark are just those of an invalid argument
+                List<Integer> badRows = tableCheck.getInvalidatingRows();
+                if (!badRows.isEmpty()) return failRows(Problem.Kind.CHOICE_A, "Some row(s) have all the premises T and conclusion F.", badRows);
+            }
+            else {
+                List<Integer> markedRows = markedRows(rowComments);
+                if (markedRows.isEmpty()) {
+                    return fail(new Problem(Problem.Kind.CHOICE_B, "Choices:", "Invalidity requires a marked row with the premises true and conclusion false (mark with asterisk, star, or a double back arrow)."));
+                }
+                List<Integer> badRows = new ArrayList<>();
+                for (int row : markedRows) {
+                    if (!tableCheck.premisesTrueConclusionFalse(row)) badRows.add(row);
+                }
+                if (!badRows.isEmpty()) return failRows(Problem.Kind.CHOICE_B, "Some marked row(s) do not have all the premises T and conclusion F.", badRows);
+            }
+        }
+        else if (checkChoices && (checkSetup.isChoiceA() || checkSetup.isChoiceB())) {
+            choiceChecked = true;
+            if (!choiceAMade && !choiceBMade) return fail(new Problem(Problem.Kind.CHOICES, "Choices:", "No choice made."));
+            if (choiceAMade && !checkSetup.isChoiceA()) return fail(new Problem(Problem.Kind.CHOICE_A, "Choices:", "Mistaken choice."));
+            if (choiceBMade && !checkSetup.isChoiceB()) return fail(new Problem(Problem.Kind.CHOICE_B, "Choices:", "Mistaken choice."));
+        }
+        return true;
+    }
+
+    /**
+     * After a check, whether the choice was checked as well as the table
+     * @return true if the choice was checked
+     */
+    public boolean isChoiceChecked() {
+        return choiceChecked;
+    }
+
+    /**
+     * The problem found by the last check
+     * @return the problem
+     */
+    public Problem getProblem() {
+        return problem;
+    }
+
+    /*
+     * Rows whose comment is marked with asterisk, star or double back arrow
+     */
+    private static List<Integer> markedRows(Document[] rowComments) {
+        List<Integer> markedRows = new ArrayList<>();
+        if (rowComments == null) return markedRows;
+        for (int r = 0; r < rowComments.length; r++) {
+            if (rowComments[r] == null) continue;
+            String commentStr = rowComments[r].getText().strip();
+            if (commentStr.startsWith("*") || commentStr.startsWith("\u2217") || commentStr.startsWith("\u22c6") || commentStr.startsWith("\u27f8") || commentStr.startsWith("\u21d0")) {
+                markedRows.add(r);
+            }
+        }
+        return markedRows;
+    }
+
+    private boolean fail(Problem problem) {
+        this.problem = problem;
+        return false;
+    }
+
+    private boolean failRows(Problem.Kind kind, String text, List<Integer> rows) {
+        return fail(new Problem(kind, "Choices:", Collections.singletonList(ParseUtilities.newRegularText(text)), null, Collections.emptyList(),
+                tableCheck.mainFormulaCells(rows)));
+    }
+}
@@ -58,6 +58,7 @@ import slapp.editor.main_window.MainWindow;
 import slapp.editor.main_window.MainWindowView;
 import slapp.editor.parser.*;
 import slapp.editor.parser.grammatical_parts.Formula;
+import slapp.editor.truth_table.TTanswerKey;
 import slapp.editor.truth_table.TTcheckSetup;
 
 import java.util.*;
@@ -1174,7 +1175,7 @@ public class TruthTableExpCreate {
             List<Expression> expressions = ParseUtilities.parseDoc(doc, langName);
             if (expressions.size() != 1 || !(expressions.get(0) instanceof Formula) || !SyntacticalFns.sentence(expressions.get(0), langName)) {
                 bdrta.setVTtreeBoxHighlight();
-                List<Text> texts = new ArrayList<>();
+                List<StyledText> texts = new ArrayList<>();
                 texts.add(ParseUtilities.newRegularText("Expression is not a sentence of "));
                 texts.addAll(Languages.getLanguage(langName).getNameTextList());
                 texts.add(ParseUtilities.newRegularText("."));
@@ -1186,6 +1187,7 @@ public class TruthTableExpCreate {
             mainFormulaDocs.add(doc);
         }
         model.setMainFormulas(mainFormulaDocs);
+        checkSetup.setAnswerKey(TTanswerKey.compute(checkSetup.getObjLangName(), mainFormulaDocs));
 
         model.setConclusionDivider(conclusionDividerCheck.isSelected());
         model.setChoiceLead(choiceLeadField.getText());
@@ -44,6 +44,7 @@ import slapp.editor.truth_table.ParseDocForTTable;
 import slapp.editor.truth_table.TTcheck;
 import slapp.editor.truth_table.TTcheckSetup;
 import slapp.editor.truth_table.TableHeadItem;
+import slapp.editor.truth_table.TruthTableCells;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -260,21 +261,16 @@ public class TruthTableExpExercise implements Exercise<TruthTableExpModel, Truth
         truthTableExpView.setRowCommentsArray(commentBoxedDRTAs);
 
         ToggleButton[] buttons = new ToggleButton[tableColumns];
-        TextField[][] columns = new TextField[tableColumns][tableRows];
+        TruthTableCells cells = truthTableExpView.newTableCells();
         List<TableHeadItem> tableHeadItems = truthTableExpView.getTableHeadItemsList();
 
 
         for (int i = 0; i < tableColumns; i++) {
             TableHeadItem headItem = tableHeadItems.get(i);
             if (!headItem.isBlankColumn()) {
-                TextField[] column = new TextField[tableRows];
                 for (int j = 0; j < tableRows; j++) {
-                    TextField charField = truthTableExpView.newSingleCharTextField(i, j);
-                    charField.setText(truthTableExpModel.getTableValues()[i][j]);
-                    charField.textProperty().addListener((ob, ov, nv) -> exerciseModified = true);
-                    column[j] = charField;
+                    cells.setText(i, j, truthTableExpModel.getTableValues()[i][j]);
                 }
-                columns[i] = column;
                 ToggleButton highlightButton = truthTableExpView.newHighlightButton(i);
                 highlightButton.setSelected(truthTableExpModel.getColumnHighlights()[i]);
                 highlightButton.selectedProperty().addListener((ob, ov, nv) -> exerciseModified = true);
@@ -282,7 +278,8 @@ public class TruthTableExpExercise implements Exercise<TruthTableExpModel, Truth
 
             }
         }
-        truthTableExpView.setTableFields(columns);
+        cells.setOnEdit(() -> exerciseModified = true);
+        truthTableExpView.setTableCells(cells);
         truthTableExpView.setHighlightButtons(buttons);
     }
 
@@ -653,12 +650,12 @@ public class TruthTableExpExercise implements Exercise<TruthTableExpModel, Truth
         model.setBasicFormulas(basicDocs);
 
         String[][] tableStrVals = new String[tableColumns][tableRows];
-        TextField[][] tableFields = truthTableExpView.getTableFields();
+        TruthTableCells tableCells = truthTableExpView.getTableCells();
         for (int i = 0; i < tableColumns; i ++) {
             String[] column = new String[tableRows];
             for (int j = 0; j < tableRows; j++) {
-                if (tableFields[i][j] != null) {
-                    String value = tableFields[i][j].getText();
+                if (tableCells.isValueColumn(i)) {
+                    String value = tableCells.getText(i, j);
                     column[j] = value;
                 }
             }
@@ -45,6 +45,7 @@ import slapp.editor.decorated_rta.DecoratedRTA;
 import slapp.editor.main_window.*;
 import slapp.editor.truth_table.ParseDocForTTable;
 import slapp.editor.truth_table.TableHeadItem;
+import slapp.editor.truth_table.TruthTableCells;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -302,21 +303,16 @@ public class TruthTableGenExercise implements Exercise<TruthTableGenModel, Truth
 
 
         ToggleButton[] buttons = new ToggleButton[tableColumns];
-        TextField[][] columns = new TextField[tableColumns][tableRows];
+        TruthTableCells cells = truthTableGenView.newTableCells();
         List<TableHeadItem> tableHeadItems = truthTableGenView.getTableHeadItemsList();
 
 
         for (int i = 0; i < tableColumns; i++) {
             TableHeadItem headItem = tableHeadItems.get(i);
             if (!headItem.isBlankColumn()) {
-                TextField[] column = new TextField[tableRows];
                 for (int j = 0; j < tableRows; j++) {
-                    TextField charField = truthTableGenView.newSingleCharTextField(i, j);
-                    charField.setText(truthTableGenModel.getTableValues()[i][j]);
-                    charField.textProperty().addListener((ob, ov, nv) -> exerciseModified = true);
-                    column[j] = charField;
+                    cells.setText(i, j, truthTableGenModel.getTableValues()[i][j]);
                 }
-                columns[i] = column;
                 ToggleButton highlightButton = truthTableGenView.newHighlightButton(i);
                 highlightButton.setSelected(truthTableGenModel.getColumnHighlights()[i]);
                 highlightButton.selectedProperty().addListener((ob, ov, nv) -> exerciseModified = true);
@@ -324,7 +320,8 @@ public class TruthTableGenExercise implements Exercise<TruthTableGenModel, Truth
 
             }
         }
-        truthTableGenView.setTableFields(columns);
+        cells.setOnEdit(() -> exerciseModified = true);
+        truthTableGenView.setTableCells(cells);
         truthTableGenView.setHighlightButtons(buttons);
     }
 
@@ -706,12 +703,12 @@ public class TruthTableGenExercise implements Exercise<TruthTableGenModel, Truth
 
 
         String[][] tableStrVals = new String[tableColumns][tableRows];
-        TextField[][] tableFields = truthTableGenView.getTableFields();
+        TruthTableCells tableCells = truthTableGenView.getTableCells();
         for (int i = 0; i < tableColumns; i ++) {
             String[] column = new String[tableRows];
             for (int j = 0; j < tableRows; j++) {
-                if (tableFields[i][j] != null) {
-                    String value = tableFields[i][j].getText();
+                if (tableCells.isValueColumn(i)) {
+                    String value = tableCells.getText(i, j);
                     column[j] = value;
                 }
             }
@@ -1,23 +1,23 @@
 package slapp.editor.vertical_tree;
 
-import javafx.scene.text.Text;
+import slapp.editor.parser.StyledText;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class TreeNodeException extends Exception {
 
-    private List<Text> messageList = new ArrayList<Text>();
+    private List<StyledText> messageList = new ArrayList<StyledText>();
     private VTAuxTreeNode auxTreeNode;
 
-    public TreeNodeException(VTAuxTreeNode auxTreeNode, List<Text> messageList) {
+    public TreeNodeException(VTAuxTreeNode auxTreeNode, List<StyledText> messageList) {
         super();
         this.auxTreeNode = auxTreeNode;
         this.messageList = messageList;
     }
 
 
-    public List<Text> getMessageList() {
+    public List<StyledText> getMessageList() {
         return messageList;
     }
 
@@ -5,7 +5,6 @@ import com.gluonhq.richtextarea.model.Document;
 import javafx.scene.Node;
 import javafx.scene.paint.Color;
 import javafx.event.ActionEvent;
-import javafx.scene.text.Text;
 import javafx.stage.Stage;
 import slapp.editor.EditorAlerts;
 import slapp.editor.decorated_rta.BoxedDRTA;
@@ -83,7 +82,7 @@ public class VTcheck implements VTAuxCheck {
             vtModel.setCheckSetup(checkSetup);
         }
         objLangName = checkSetup.getObjLangName();
-        objLang = Languages.getLanguage(objLangName);
+        objLang = Languages.getLanguageCopy(objLangName);
         setLangAllowDP(objLang.isAllowDroppedBrackets());
 
         Document targetDoc = checkSetup.getFormulaTarget();
@@ -391,7 +390,7 @@ public class VTcheck implements VTAuxCheck {
                                 if (!lineJustifications.get(j).get(i).equals(justificationString)) {
                                     if (!silent) {
                                         treeNode.getMainTreeBox().getFormulaBox().setVTtreeBoxHighlight();
-                                        List<Text> messageList = new ArrayList<>();
+                                        List<StyledText> messageList = new ArrayList<>();
                                         messageList.add(ParseUtilities.newRegularText("Unabbreviation of formula with main operator "));
                                         messageList.addAll(abbOp.toTextList());
                                         messageList.add(ParseUtilities.newRegularText(" has incorrect justification."));
@@ -976,7 +975,7 @@ public class VTcheck implements VTAuxCheck {
                                 if (!subTerm.equals(linkTerm)) {
                                     if (!silent) {
                                         treeNode.getMainTreeBox().getFormulaBox().setVTtreeBoxHighlight();
-                                        List<Text> textList = new ArrayList<>();
+                                        List<StyledText> textList = new ArrayList<>();
                                         textList.add(ParseUtilities.newRegularText("Subterm "));
                                         textList.addAll(subTerm.toTextList());
                                         textList.add(ParseUtilities.newRegularText(" improperly linked."));
@@ -1047,7 +1046,7 @@ public class VTcheck implements VTAuxCheck {
                                 if (!subTerm.equals(linkTerm)) {
                                     if (!silent) {
                                         treeNode.getMainTreeBox().getFormulaBox().setVTtreeBoxHighlight();
-                                        List<Text> textList = new ArrayList<>();
+                                        List<StyledText> textList = new ArrayList<>();
                                         textList.add(ParseUtilities.newRegularText("Subterm "));
                                         textList.addAll(subTerm.toTextList());
                                         textList.add(ParseUtilities.newRegularText(" improperly linked."));
@@ -1089,7 +1088,7 @@ public class VTcheck implements VTAuxCheck {
                                 if (!subForm.equals(linkForm)) {
                                     if (!silent) {
                                         treeNode.getMainTreeBox().getFormulaBox().setVTtreeBoxHighlight();
-                                        List<Text> textList = new ArrayList<>();
+                                        List<StyledText> textList = new ArrayList<>();
                                         textList.add(ParseUtilities.newRegularText("Subformula "));
                                         textList.addAll(subForm.toTextList());
                                         textList.add(ParseUtilities.newRegularText(" improperly linked."));
@@ -1110,7 +1109,7 @@ public class VTcheck implements VTAuxCheck {
                             if (!lineJustifications.get(j).get(i).equals(justificationString)) {
                                 if (!silent) {
                                     treeNode.getMainTreeBox().getFormulaBox().setVTtreeBoxHighlight();
-                                    List<Text> messageList = new ArrayList<>();
+                                    List<StyledText> messageList = new ArrayList<>();
                                     messageList.add(ParseUtilities.newRegularText("Formula with main operator "));
                                     messageList.addAll(mainOp.toTextList());
                                     messageList.add(ParseUtilities.newRegularText(" has incorrect justification."));
@@ -1314,7 +1313,7 @@ public class VTcheck implements VTAuxCheck {
                             for (TreeNode treeNode : treeList) {
                                 treeNode.getMainTreeBox().getFormulaBox().setVTtreeBoxHighlight();
                             }
-                            List<Text> messageList = new ArrayList<>();
+                            List<StyledText> messageList = new ArrayList<>();
                             messageList.add(ParseUtilities.newRegularText("Missing justification on row."));
                             if (checkType == VTCheckType.UNABB) messageList.add(ParseUtilities.newRegularText("\n\nIf formula results from (nothing or) linked nodes by TR or FR cite that rule.  Otherwise cite the AB rule (including an AB(i) to convert from abbreviating infix forms)."));
                             EditorAlerts.showSimpleTxtListAlert("Tree Structure", messageList);
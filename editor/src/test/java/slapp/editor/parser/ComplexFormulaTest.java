@@ -0,0 +1,159 @@
+package slapp.editor.parser;
+
+import com.gluonhq.richtextarea.model.Document;
+import org.junit.jupiter.api.Test;
+import slapp.editor.parser.grammatical_parts.Formula;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+ * Differential check of complex formula assembly: random nested formulas of increasing depth, with all brackets, with
+ * brackets dropped, and with damage so that the parse fails, together with long left, right and balanced chains, are
+ * parsed by the single stack pass (Parser.parse) and by the passes by rounds (Parser.parseByRounds).  The results are
+ * compared node by node (text, type, level, combines flag and brackets).
+ */
+class ComplexFormulaTest {
+
+    static final String LS = "\u2112\ud835\udcc8 (w/abv)";
+    static final String LQ = "\u2112\ud835\udcc6 (w/abv)";
+    static final String[] SENTENTIAL_UNARIES = {"\u223c"};
+    static final String[] QUANTIFIED_UNARIES = {"\u223c", "\u2200\ud835\udc65", "\u2203\ud835\udc66"};
+
+    private static final int LISTS_PER_DEPTH = 300;
+    private static final int MAX_DEPTH = 7;
+    private static final int[] CHAIN_LENGTHS = {8, 32, 128};
+
+    private static final String[] LETTERS = {"\ud835\udc34", "\ud835\udc35", "\ud835\udc36", "\ud835\udc37", "\ud835\udc38", "\ud835\udc39"};
+    private static final String[] BINARIES = {"\u2192", "\u2227", "\u2228", "\u2194"};
+    private static final String[] DAMAGE = {"(", ")", "\u2227", "\u223c"};
+
+    @Test
+    void sententialFormulas() {
+        check(LS, SENTENTIAL_UNARIES);
+    }
+
+    @Test
+    void quantifiedFormulas() {
+        check(LQ, QUANTIFIED_UNARIES);
+    }
+
+    private void check(String langName, String[] unaries) {
+        Parser parser = new Parser(langName);
+        Random random = new Random(17);
+        List<String> formulas = new ArrayList<>();
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) formulas.addAll(randomFormulas(random, depth, unaries, LISTS_PER_DEPTH));
+        for (int length : CHAIN_LENGTHS) formulas.addAll(chains(length));
+
+        List<String> differences = new ArrayList<>();
+        for (String formula : formulas) {
+            Document doc = new Document(formula);
+            String difference = compareLists(parser.parse(doc).getExpressions(), parser.parseByRounds(doc).getExpressions());
+            if (difference != null) differences.add(difference + " for " + formula);
+        }
+        assertEquals(List.of(), differences.subList(0, Math.min(differences.size(), 20)), differences.size() + " difference(s)");
+    }
+
+    //number formulas of depth: a third fully bracketed, a third with brackets dropped, and a third damaged
+    static List<String> randomFormulas(Random random, int depth, String[] unaries, int number) {
+        List<String> formulas = new ArrayList<>();
+        for (int i = 0; i < number; i++) {
+            switch (i % 3) {
+                case 0: formulas.add(formula(random, depth, unaries, 0.0, true)); break;
+                case 1: formulas.add(formula(random, depth, unaries, 0.4, false)); break;
+                default: formulas.add(damage(random, formula(random, depth, unaries, 0.2, true)));
+            }
+        }
+        return formulas;
+    }
+
+    //left-nested, right-nested and balanced chains of length binary operators
+    static List<String> chains(int length) {
+        StringBuilder left = new StringBuilder(letter(0));
+        for (int i = 1; i <= length; i++) left.insert(0, "(").append(" \u2227 ").append(letter(i)).append(")");
+        StringBuilder right = new StringBuilder(letter(length));
+        for (int i = length - 1; i >= 0; i--) right.insert(0, "(" + letter(i) + " \u2192 ").append(")");
+        return List.of(left.toString(), right.toString(), balanced(0, length));
+    }
+
+    private static String balanced(int low, int high) {
+        if (low == high) return letter(low);
+        int middle = (low + high) / 2;
+        return "(" + balanced(low, middle) + " \u2228 " + balanced(middle + 1, high) + ")";
+    }
+
+    private static String letter(int index) {
+        return LETTERS[index % LETTERS.length];
+    }
+
+    /*
+     * Random formula of depth; each binary keeps its brackets except with probability dropChance (the outermost
+     * keeps them only if outerBrackets)
+     */
+    private static String formula(Random random, int depth, String[] unaries, double dropChance, boolean outerBrackets) {
+        if (depth == 0) return LETTERS[random.nextInt(LETTERS.length)];
+        if (random.nextInt(4) == 0) return unaries[random.nextInt(unaries.length)] + formula(random, depth - 1, unaries, dropChance, true);
+        String left = formula(random, depth - 1 - random.nextInt(Math.min(depth, 2)), unaries, dropChance, true);
+        String right = formula(random, depth - 1 - random.nextInt(Math.min(depth, 2)), unaries, dropChance, true);
+        String body = left + " " + BINARIES[random.nextInt(BINARIES.length)] + " " + right;
+        if (!outerBrackets || random.nextDouble() < dropChance) return body;
+        return "(" + body + ")";
+    }
+
+    //insert, delete or replace a symbol at random
+    private static String damage(Random random, String formula) {
+        int[] codePoints = formula.codePoints().toArray();
+        int place = random.nextInt(codePoints.length);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < codePoints.length; i++) {
+            if (i == place) {
+                int choice = random.nextInt(3);
+                if (choice == 0) sb.append(DAMAGE[random.nextInt(DAMAGE.length)]).appendCodePoint(codePoints[i]);
+                else if (choice == 1) sb.append(DAMAGE[random.nextInt(DAMAGE.length)]);
+            }
+            else sb.appendCodePoint(codePoints[i]);
+        }
+        return sb.toString();
+    }
+
+    private static String compareLists(List<Expression> single, List<Expression> rounds) {
+        if (single.size() != rounds.size()) return "list sizes " + single.size() + " and " + rounds.size();
+        for (int i = 0; i < single.size(); i++) {
+            String difference = compare(single.get(i), rounds.get(i));
+            if (difference != null) return difference;
+        }
+        return null;
+    }
+
+    private static String compare(Expression a, Expression b) {
+        if (a.getType() != b.getType()) return "types " + a.getType() + " and " + b.getType();
+        if (!a.toString().equals(b.toString())) return "text " + a + " and " + b;
+        if (a.getType() != ExpressionType.FORMULA) return null;
+
+        Formula fa = (Formula) a;
+        Formula fb = (Formula) b;
+        if (fa.getLevel() != fb.getLevel()) return "levels " + fa.getLevel() + " and " + fb.getLevel() + " at " + fa;
+        if (fa.isCombines() != fb.isCombines()) return "combines " + fa.isCombines() + " and " + fb.isCombines() + " at " + fa;
+        if (!sameBracket(fa.getOpenBracket(), fb.getOpenBracket()) || !sameBracket(fa.getCloseBracket(), fb.getCloseBracket())) return "brackets at " + fa;
+        if (fa.getChildren().size() != fb.getChildren().size()) return "child counts at " + fa;
+        for (int i = 0; i < fa.getChildren().size(); i++) {
+            Expression ca = fa.getChildren().get(i);
+            Expression cb = fb.getChildren().get(i);
+            if (ca == null || cb == null) {
+                if (ca != cb) return "missing child at " + fa;
+                continue;
+            }
+            String difference = compare(ca, cb);
+            if (difference != null) return difference;
+        }
+        return null;
+    }
+
+    private static boolean sameBracket(Expression a, Expression b) {
+        if (a == null || b == null) return a == b;
+        return a.getType() == b.getType() && a.toString().equals(b.toString());
+    }
+}
@@ -0,0 +1,62 @@
+package slapp.editor.parser;
+
+import com.gluonhq.richtextarea.model.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * Rough timing of the single stack pass against the passes by rounds (run from main; not a test): whole parses of the
+ * random formulas of ComplexFormulaTest by depth, and of its left, right and balanced chains by length.  The two ways
+ * alternate on each list after a warmup, so that neither gains from running second, and each label is run for about
+ * the same number of parses.
+ */
+public class ComplexFormulaTiming {
+
+    private static final int LISTS_PER_DEPTH = 2000;
+    private static final int MAX_DEPTH = 7;
+    private static final int[] CHAIN_LENGTHS = {8, 32, 128, 256};
+    private static final int WARMUP = 5;
+    private static final int PARSES = 40000;
+
+    public static void main(String[] args) {
+        Random random = new Random(17);
+        for (String langName : new String[]{ComplexFormulaTest.LS, ComplexFormulaTest.LQ}) {
+            Parser parser = new Parser(langName);
+            String[] unaries = langName.equals(ComplexFormulaTest.LS) ? ComplexFormulaTest.SENTENTIAL_UNARIES : ComplexFormulaTest.QUANTIFIED_UNARIES;
+            for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+                report(parser, "depth " + depth, ComplexFormulaTest.randomFormulas(random, depth, unaries, LISTS_PER_DEPTH));
+            }
+        }
+        Parser parser = new Parser(ComplexFormulaTest.LS);
+        for (int length : CHAIN_LENGTHS) report(parser, "chains of " + length, ComplexFormulaTest.chains(length));
+    }
+
+    private static void report(Parser parser, String label, List<String> formulas) {
+        List<Document> docs = new ArrayList<>();
+        for (String formula : formulas) docs.add(new Document(formula));
+        for (int w = 0; w < WARMUP; w++) {
+            for (Document doc : docs) {
+                parser.parse(doc);
+                parser.parseByRounds(doc);
+            }
+        }
+        int runs = Math.max(1, PARSES / docs.size());
+        long singleNanos = 0;
+        long roundsNanos = 0;
+        for (int r = 0; r < runs; r++) {
+            for (Document doc : docs) {
+                long start = System.nanoTime();
+                parser.parse(doc);
+                singleNanos += System.nanoTime() - start;
+                start = System.nanoTime();
+                parser.parseByRounds(doc);
+                roundsNanos += System.nanoTime() - start;
+            }
+        }
+        double micros = (double) docs.size() * runs * 1000;
+        System.out.println(parser.getLanguage().getNameString() + " " + label + ": single pass " + String.format("%.1f", singleNanos / micros) +
+                " \u00b5s, by rounds " + String.format("%.1f", roundsNanos / micros) + " \u00b5s per list");
+    }
+}
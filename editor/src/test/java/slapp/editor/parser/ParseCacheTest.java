@@ -0,0 +1,71 @@
+package slapp.editor.parser;
+
+import com.gluonhq.richtextarea.model.Document;
+import org.junit.jupiter.api.Test;
+import slapp.editor.parser.grammatical_parts.Formula;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+/*
+ * Callers of the parse cache each get their own formula and term nodes: changes one caller makes to levels, parts
+ * and values of a cached parse do not reach the next caller of the same document.
+ */
+class ParseCacheTest {
+
+    private static final String LQ = "\u2112\ud835\udcc6 (w/abv)";
+    private static final String FORMULA = "(\u2200\ud835\udc65\ud835\udc39\ud835\udc65 \u2192 (\ud835\udc3a\ud835\udc4e \u2227 \u223c\ud835\udc3b\ud835\udc4f))";
+
+    @Test
+    void changesDoNotReachLaterCallers() {
+        ParseCache cache = new ParseCache(8);
+        Document doc = new Document(FORMULA);
+        Formula first = (Formula) cache.parse(doc, LQ).getExpressions().get(0);
+        String text = first.toString();
+        int level = first.getLevel();
+
+        first.setLevel(level + 5);
+        first.setSemanticValue("T");
+        Formula left = (Formula) first.getChildren().get(0);
+        left.setLevel(99);
+        first.getChildren().set(1, left);
+
+        Formula second = (Formula) cache.parse(doc, LQ).getExpressions().get(0);
+        assertEquals(1, cache.getHits(), "second parse from the cache");
+        assertNotSame(first, second);
+        assertEquals(text, second.toString());
+        assertEquals(level, second.getLevel());
+        assertEquals(null, second.getSemanticValue());
+        assertEquals(levels(new Parser(LQ).parse(doc).getExpressions().get(0)), levels(second));
+    }
+
+    @Test
+    void changedListsDoNotReachLaterCallers() {
+        ParseCache cache = new ParseCache(8);
+        Document doc = new Document(FORMULA);
+        List<Expression> first = cache.parse(doc, LQ).getExpressions();
+        first.clear();
+
+        List<Expression> second = cache.parse(doc, LQ).getExpressions();
+        assertEquals(1, second.size());
+        assertEquals(new Parser(LQ).parse(doc).getExpressions().get(0).toString(), second.get(0).toString());
+    }
+
+    //levels of the nodes of expression, in order
+    private static List<Integer> levels(Expression expression) {
+        List<Integer> levels = new ArrayList<>();
+        addLevels(expression, levels);
+        return levels;
+    }
+
+    private static void addLevels(Expression expression, List<Integer> levels) {
+        if (expression == null) return;
+        levels.add(expression.getLevel());
+        if (expression.getChildren() != null) {
+            for (Expression child : expression.getChildren()) addLevels(child, levels);
+        }
+    }
+}